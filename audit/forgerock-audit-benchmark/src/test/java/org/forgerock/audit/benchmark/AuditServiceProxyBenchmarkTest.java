@@ -0,0 +1,177 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.resource.Requests.newCreateRequest;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.forgerock.audit.AuditService;
+import org.forgerock.audit.AuditServiceConfiguration;
+import org.forgerock.audit.AuditServiceProxy;
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.json.resource.ActionRequest;
+import org.forgerock.json.resource.ActionResponse;
+import org.forgerock.json.resource.CreateRequest;
+import org.forgerock.json.resource.DeleteRequest;
+import org.forgerock.json.resource.PatchRequest;
+import org.forgerock.json.resource.QueryRequest;
+import org.forgerock.json.resource.QueryResourceHandler;
+import org.forgerock.json.resource.QueryResponse;
+import org.forgerock.json.resource.ReadRequest;
+import org.forgerock.json.resource.ResourceException;
+import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.json.resource.UpdateRequest;
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Contention benchmarks for {@link AuditServiceProxy}, calling {@code handleCreate} from 64 threads on a proxied
+ * {@link AuditService} which does no work, so that the cost of the proxy itself dominates. Compares calling the
+ * delegate directly, with calling it through the proxy and through a proxy guarding every call with the read lock
+ * of a {@link ReentrantReadWriteLock}, as {@link AuditServiceProxy} used to do.
+ */
+@Threads(AuditServiceProxyBenchmarkTest.CONTENDED_THREADS)
+public class AuditServiceProxyBenchmarkTest extends BenchmarkBase {
+
+    /** Number of concurrent threads calling the proxy (64). */
+    static final int CONTENDED_THREADS = 64;
+
+    @State(Scope.Benchmark)
+    public static class DefaultState {
+        final Context context = new RootContext();
+        final CreateRequest request = newCreateRequest("access", json(object(field("eventName", "AM-ACCESS-OUTCOME"))));
+        final AuditService delegate = new NoOpAuditService();
+        final AuditService proxy = new AuditServiceProxy(delegate);
+        final ReentrantReadWriteLock delegateLock = new ReentrantReadWriteLock();
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> direct(final DefaultState state) {
+        return state.delegate.handleCreate(state.context, state.request);
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> proxy(final DefaultState state) {
+        return state.proxy.handleCreate(state.context, state.request);
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> readWriteLockProxy(final DefaultState state) {
+        state.delegateLock.readLock().lock();
+        try {
+            return state.delegate.handleCreate(state.context, state.request);
+        } finally {
+            state.delegateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@link AuditService} which returns the same response to every create request, and rejects the others.
+     */
+    private static final class NoOpAuditService implements AuditService {
+
+        private final Promise<ResourceResponse, ResourceException> response =
+                newResultPromise(newResourceResponse("0", null, json(object())));
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> handleCreate(Context context, CreateRequest request) {
+            return response;
+        }
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> handleRead(Context context, ReadRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> handleUpdate(Context context, UpdateRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> handleDelete(Context context, DeleteRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> handlePatch(Context context, PatchRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Promise<QueryResponse, ResourceException> handleQuery(
+                Context context, QueryRequest request, QueryResourceHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Promise<ActionResponse, ResourceException> handleAction(Context context, ActionRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AuditServiceConfiguration getConfig() {
+            return new AuditServiceConfiguration();
+        }
+
+        @Override
+        public AuditEventHandler getRegisteredHandler(String handlerName) {
+            return null;
+        }
+
+        @Override
+        public Collection<AuditEventHandler> getRegisteredHandlers() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isAuditing(String topic) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getKnownTopics() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void startup() {
+            // nothing to start
+        }
+
+        @Override
+        public void shutdown() {
+            // nothing to shut down
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.forgerock.audit.secure.KeyStoreSecureStorage.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.audit.handlers.csv.CsvAuditEventHandler;
+import org.forgerock.audit.handlers.csv.CsvSecureArchiveVerifierCli;
+import org.forgerock.audit.secure.JcaKeyStoreHandler;
+import org.forgerock.audit.secure.KeyStoreHandlerDecorator;
+import org.forgerock.audit.secure.KeyStoreSecureStorage;
+import org.forgerock.util.encode.Base64;
+import org.forgerock.util.test.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.supercsv.io.CsvListWriter;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Throughput benchmarks for {@link CsvSecureArchiveVerifierCli}, verifying an archive of rotated tamper-evident CSV
+ * files in the format written by {@link CsvAuditEventHandler}, with a signature every {@link #SIGNATURE_INTERVAL}
+ * rows. Compares verifying the files, and hashing their rows, from a single thread, with verifying them from several
+ * threads. Each benchmark runs a single verification at a time, as the verifier runs its own threads.
+ */
+public class CsvSecureArchiveVerifierBenchmarkTest extends BenchmarkBase {
+
+    private static final String KEYSTORE_FILENAME = "target/test-classes/keystore-signature.jks";
+    private static final String KEYSTORE_PASSWORD = "password";
+    private static final String TOPIC = "access";
+
+    /** Number of archived files. */
+    private static final int FILE_COUNT = 8;
+
+    /** Number of events in each archived file. */
+    private static final int EVENTS_PER_FILE = 50_000;
+
+    /** Number of events between two signatures. */
+    private static final int SIGNATURE_INTERVAL = 1_000;
+
+    static class DefaultState {
+        private Path archiveDirectory;
+
+        /**
+         * Writes the archived files and their keystores, as the secure CSV handler does when rotating files.
+         *
+         * @throws Exception when an error occurs
+         */
+        @Setup(Level.Trial)
+        public void beforeTrial() throws Exception {
+            archiveDirectory = Files.createTempDirectory(CsvSecureArchiveVerifierBenchmarkTest.class.getSimpleName());
+            final KeyStoreHandlerDecorator keyStoreHandler = new KeyStoreHandlerDecorator(
+                    new JcaKeyStoreHandler(JCEKS_KEYSTORE_TYPE, KEYSTORE_FILENAME, KEYSTORE_PASSWORD));
+            final PublicKey publicKey = keyStoreHandler.readPublicKeyFromKeyStore(ENTRY_SIGNATURE);
+            final PrivateKey privateKey = keyStoreHandler.readPrivateKeyFromKeyStore(ENTRY_SIGNATURE);
+            final String password = Base64.encode(keyStoreHandler.readSecretKeyFromKeyStore("Password").getEncoded());
+            for (int i = 0; i < FILE_COUNT; i++) {
+                final File csvFile = new File(archiveDirectory.toFile(),
+                        "tamper-evident-" + TOPIC + ".csv-2026.01.01-00.00.0" + i);
+                writeArchiveFile(csvFile, new KeyStoreSecureStorage(
+                        new JcaKeyStoreHandler(JCEKS_KEYSTORE_TYPE, csvFile.getPath() + ".keystore", password),
+                        publicKey, privateKey));
+            }
+        }
+
+        /**
+         * Deletes the archived files.
+         *
+         * @throws Exception when an error occurs
+         */
+        @TearDown(Level.Trial)
+        public void afterTrial() throws Exception {
+            FileUtils.deleteRecursively(archiveDirectory);
+        }
+
+        private void writeArchiveFile(final File csvFile, final KeyStoreSecureStorage secureStorage)
+                throws Exception {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            final byte[] initialKey = new byte[32];
+            Arrays.fill(initialKey, (byte) csvFile.getName().hashCode());
+            secureStorage.writeInitialKey(new SecretKeySpec(initialKey, HMAC_ALGORITHM));
+
+            final char[] padding = new char[200];
+            Arrays.fill(padding, 'x');
+            byte[] key = initialKey;
+            String lastHMAC = null;
+            byte[] lastSignature = null;
+            try (CsvListWriter writer = new CsvListWriter(new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(csvFile), UTF_8)), CsvPreference.EXCEL_PREFERENCE)) {
+                writer.writeHeader("_id", "timestamp", "transactionId", "HMAC", "SIGNATURE");
+                for (int i = 1; i <= EVENTS_PER_FILE; i++) {
+                    final String id = Integer.toString(i);
+                    final String timestamp = "2026-01-01T00:00:00.000Z";
+                    final String transactionId = id + new String(padding);
+                    mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+                    lastHMAC = Base64.encode(mac.doFinal((id + timestamp + transactionId).getBytes(UTF_8)));
+                    key = messageDigest.digest(key);
+                    writer.write(id, timestamp, transactionId, lastHMAC, null);
+                    if (i % SIGNATURE_INTERVAL == 0) {
+                        lastSignature = secureStorage.sign(lastSignature == null
+                                ? Base64.decode(lastHMAC) : concat(Base64.decode(lastHMAC), lastSignature));
+                        writer.write(null, null, null, null, Base64.encode(lastSignature));
+                    }
+                }
+            }
+            final SecretKey currentKey = new SecretKeySpec(key, "SHA-256");
+            secureStorage.writeCurrentKey(currentKey);
+        }
+
+        private static byte[] concat(final byte[] first, final byte[] second) {
+            final byte[] result = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, result, first.length, second.length);
+            return result;
+        }
+
+        /**
+         * Returns the number of threads verifying the archive.
+         *
+         * @return Number of threads
+         */
+        protected int getVerifierThreads() {
+            return 1;
+        }
+
+        /**
+         * Builds the command line arguments verifying the archive.
+         *
+         * @return Command line arguments
+         */
+        String[] buildArguments() {
+            return new String[] {
+                "--archive", archiveDirectory.toString(),
+                "--topic", TOPIC,
+                "--keystore", KEYSTORE_FILENAME,
+                "--password", KEYSTORE_PASSWORD,
+                "--threads", Integer.toString(getVerifierThreads()) };
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SingleThreadState extends DefaultState {
+        // empty
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleThread(final SingleThreadState state) {
+        CsvSecureArchiveVerifierCli.main(state.buildArguments());
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParallelState extends DefaultState {
+        @Override
+        protected int getVerifierThreads() {
+            return 4;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void parallel(final ParallelState state) {
+        CsvSecureArchiveVerifierCli.main(state.buildArguments());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.benchmark.JsonAuditEventHandlerWriteBenchmarkTest.FIELD_HAS_A_PERIOD;
+import static org.forgerock.audit.events.AuditEventBuilder.EVENT_NAME;
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.audit.events.AuditEventBuilder.USER_ID;
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+
+import java.util.Collections;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.events.handlers.buffering.BatchConsumer;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandler;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration;
+import org.forgerock.audit.util.ElasticsearchUtil;
+import org.forgerock.http.Client;
+import org.forgerock.http.Handler;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.json.JsonValue;
+import org.forgerock.services.context.Context;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the number of events per second added to Elasticsearch Bulk API payloads by
+ * {@link ElasticsearchAuditEventHandler}, which normalizes the field names of each event as it is written.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ElasticsearchBulkPayloadBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+    private static final int BATCH_EVENTS = 100;
+
+    @State(Scope.Thread)
+    public static class BulkPayloadState extends AuditEventHandlerBenchmarkState<
+            ElasticsearchAuditEventHandlerConfiguration> {
+        private final StringBuilder payload = new StringBuilder(BATCH_EVENTS * 1280);
+        private JsonValue[] events;
+
+        @Override
+        public ElasticsearchAuditEventHandlerConfiguration buildBaseConfiguration() {
+            final ElasticsearchAuditEventHandlerConfiguration configuration =
+                    new ElasticsearchAuditEventHandlerConfiguration();
+            configuration.setName("elasticsearch");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final ElasticsearchAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            // events are only added to payloads, which are never sent
+            final Client client = new Client(new Handler() {
+                @Override
+                public Promise<Response, NeverThrowsException> handle(final Context context, final Request request) {
+                    return newResultPromise(new Response(Status.OK));
+                }
+            });
+            return new ElasticsearchAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), client);
+        }
+
+        @Override
+        protected void afterStartup() throws Exception {
+            events = new JsonValue[BATCH_EVENTS];
+            for (int i = 0; i < BATCH_EVENTS; i++) {
+                events[i] = buildEvent(Integer.toString(i));
+            }
+        }
+
+        /**
+         * Builds an access event, with nested objects and arrays.
+         *
+         * @param id Unique identifier
+         * @return Event instance
+         */
+        protected JsonValue buildEvent(final String id) {
+            return json(object(
+                    field(FIELD_CONTENT_ID, id),
+                    field(TIMESTAMP, "2026-01-01T00:00:00.000Z"),
+                    field(TRANSACTION_ID, "transaction-" + id),
+                    field(EVENT_NAME, "AM-ACCESS-OUTCOME"),
+                    field(USER_ID, "id=demo,ou=user,dc=example,dc=com"),
+                    field("client", object(field("ip", "192.0.2.1"), field("port", 51234))),
+                    field("server", object(field("ip", "198.51.100.1"), field("port", 8443))),
+                    field("http", object(
+                            field("request", object(
+                                    field("secure", true),
+                                    field("method", "GET"),
+                                    field("path", "https://am.example.com/json/users/demo"),
+                                    field("headers", object(
+                                            field("accept", array("application/json")),
+                                            field("user-agent", array("Mozilla/5.0 \"quoted\"")))))))),
+                    field("response", object(
+                            field("status", "SUCCESSFUL"),
+                            field("statusCode", "200"),
+                            field("elapsedTime", 42L),
+                            field("elapsedTimeUnits", "MILLISECONDS")))));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NormalizedBulkPayloadState extends BulkPayloadState {
+        /**
+         * Builds an access event, that contains periods in field-names, which will be normalized for Elasticsearch.
+         *
+         * @param id Unique identifier
+         * @return Event instance
+         */
+        @Override
+        protected JsonValue buildEvent(final String id) {
+            final JsonValue event = super.buildEvent(id);
+            event.put(FIELD_HAS_A_PERIOD, id);
+            event.get("http").get("request").put("org.forgerock.authentication.principal", "demo");
+            return event;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_EVENTS)
+    public int bulkPayload(final BulkPayloadState state) throws Exception {
+        final BatchConsumer consumer = (BatchConsumer) state.handler;
+        state.payload.setLength(0);
+        for (final JsonValue event : state.events) {
+            consumer.addToBatch(ACCESS, event, state.payload);
+        }
+        return state.payload.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_EVENTS)
+    public int normalizedBulkPayload(final NormalizedBulkPayloadState state) throws Exception {
+        return bulkPayload(state);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_EVENTS)
+    public int objectMapperBaseline(final BulkPayloadState state) throws Exception {
+        state.payload.setLength(0);
+        for (final JsonValue event : state.events) {
+            state.payload.append(ElasticsearchUtil.OBJECT_MAPPER.writeValueAsString(event.getObject())).append('\n');
+        }
+        return state.payload.length();
+    }
+}
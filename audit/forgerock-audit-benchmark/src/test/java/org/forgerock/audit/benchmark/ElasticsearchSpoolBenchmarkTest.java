@@ -0,0 +1,206 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.EVENT_NAME;
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandler;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration;
+import org.forgerock.audit.spool.FsyncPolicy;
+import org.forgerock.audit.spool.SpoolConfiguration;
+import org.forgerock.http.Client;
+import org.forgerock.http.Handler;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceException;
+import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.services.context.Context;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Write-throughput benchmarks for the buffered {@link ElasticsearchAuditEventHandler}, comparing events buffered in
+ * memory with events appended to a durable spool under each {@link FsyncPolicy}, while Elasticsearch is available and
+ * while it is down. Events are dropped once the buffer or the spool is full.
+ */
+public class ElasticsearchSpoolBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    static class DefaultState extends AuditEventHandlerBenchmarkState<ElasticsearchAuditEventHandlerConfiguration> {
+        final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public ElasticsearchAuditEventHandlerConfiguration buildBaseConfiguration() {
+            final ElasticsearchAuditEventHandlerConfiguration configuration =
+                    new ElasticsearchAuditEventHandlerConfiguration();
+            configuration.setName("elasticsearch");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.getBuffering().setEnabled(true);
+            configuration.getBuffering().setMaxSize(100000);
+            configuration.getBuffering().setWriteInterval("10 millis");
+            configuration.getBuffering().setMaxBatchedEvents(1000);
+            return configuration;
+        }
+
+        /**
+         * Spools events to the log directory.
+         *
+         * @param configuration Handler configuration
+         * @param fsyncPolicy Fsync policy of the spool
+         */
+        protected void enableSpool(final ElasticsearchAuditEventHandlerConfiguration configuration,
+                final FsyncPolicy fsyncPolicy) {
+            final SpoolConfiguration spool = configuration.getBuffering().getSpool();
+            spool.setEnabled(true);
+            spool.setDirectory(getLogDirectory());
+            spool.setFsyncPolicy(fsyncPolicy);
+            spool.setMaxSize(256L * 1024 * 1024);
+        }
+
+        /**
+         * Indicates whether Elasticsearch accepts bulk requests.
+         *
+         * @return {@code true} by default
+         */
+        protected boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final ElasticsearchAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            final Client client = new Client(new Handler() {
+                @Override
+                public Promise<Response, NeverThrowsException> handle(final Context context, final Request request) {
+                    if (!isAvailable()) {
+                        return newResultPromise(new Response(Status.SERVICE_UNAVAILABLE));
+                    }
+                    final Response response = new Response(Status.OK);
+                    response.setEntity(object(field("errors", false)));
+                    return newResultPromise(response);
+                }
+            });
+            return new ElasticsearchAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), client);
+        }
+
+        /**
+         * Builds a unique access event.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(
+                    field(FIELD_CONTENT_ID, simpleId),
+                    field(TIMESTAMP, "2026-01-01T00:00:00.000Z"),
+                    field(EVENT_NAME, "AM-ACCESS-OUTCOME"),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InMemoryState extends DefaultState {
+        // empty
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> inMemory(final InMemoryState state) {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent());
+    }
+
+    @State(Scope.Benchmark)
+    public static class SpoolNoFsyncState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final ElasticsearchAuditEventHandlerConfiguration configuration) {
+            enableSpool(configuration, FsyncPolicy.NONE);
+        }
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> spoolNoFsync(final SpoolNoFsyncState state) {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent());
+    }
+
+    @State(Scope.Benchmark)
+    public static class SpoolIntervalFsyncState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final ElasticsearchAuditEventHandlerConfiguration configuration) {
+            enableSpool(configuration, FsyncPolicy.INTERVAL);
+        }
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> spoolIntervalFsync(
+            final SpoolIntervalFsyncState state) {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent());
+    }
+
+    @State(Scope.Benchmark)
+    public static class SpoolAlwaysFsyncState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final ElasticsearchAuditEventHandlerConfiguration configuration) {
+            enableSpool(configuration, FsyncPolicy.ALWAYS);
+        }
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> spoolAlwaysFsync(final SpoolAlwaysFsyncState state) {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent());
+    }
+
+    @State(Scope.Benchmark)
+    public static class InMemoryUnavailableState extends DefaultState {
+        @Override
+        protected boolean isAvailable() {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> inMemoryUnavailable(
+            final InMemoryUnavailableState state) {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent());
+    }
+
+    @State(Scope.Benchmark)
+    public static class SpoolUnavailableState extends SpoolIntervalFsyncState {
+        @Override
+        protected boolean isAvailable() {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public final Promise<ResourceResponse, ResourceException> spoolUnavailable(final SpoolUnavailableState state) {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent());
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.EVENT_NAME;
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.jms.DeliveryModeConfig;
+import org.forgerock.audit.handlers.jms.JmsAuditEventHandler;
+import org.forgerock.audit.handlers.jms.JmsAuditEventHandlerConfiguration;
+import org.forgerock.audit.handlers.jms.JmsContextManager;
+import org.forgerock.audit.handlers.jms.SessionModeConfig;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Write-throughput benchmarks for the batched {@link JmsAuditEventHandler}, publishing to an in-JVM stand-in for a
+ * JMS broker which takes a simulated network round-trip to acknowledge each synchronous send and each commit.
+ * Compares sending each message synchronously, with sending the messages of a batch asynchronously, and with
+ * committing transacted sessions every {@code maxUncommittedEvents} messages from one or several worker threads.
+ */
+public class JmsAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    /** Simulated duration of a network round-trip to the broker. */
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    static class DefaultState extends AuditEventHandlerBenchmarkState<JmsAuditEventHandlerConfiguration> {
+        final AtomicInteger counter = new AtomicInteger();
+        private InJvmBroker broker;
+
+        @Override
+        public JmsAuditEventHandlerConfiguration buildBaseConfiguration() {
+            final JmsAuditEventHandlerConfiguration configuration = new JmsAuditEventHandlerConfiguration();
+            configuration.setName("jms");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.setDeliveryMode(DeliveryModeConfig.PERSISTENT);
+            configuration.setSessionMode(SessionModeConfig.AUTO);
+            configuration.getBatch().setBatchEnabled(true);
+            configuration.getBatch().setCapacity(10000);
+            configuration.getBatch().setMaxBatchedEvents(100);
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final JmsAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            broker = new InJvmBroker();
+            return new JmsAuditEventHandler(broker, configuration, getEventTopicsMetaData("/events.json"));
+        }
+
+        /**
+         * Stops acknowledging asynchronous sends, once the handler has been shut down.
+         */
+        @TearDown(Level.Trial)
+        public void closeBroker() {
+            broker.close();
+        }
+
+        /**
+         * Builds a unique access event.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(
+                    field(FIELD_CONTENT_ID, simpleId),
+                    field(TIMESTAMP, "2026-01-01T00:00:00.000Z"),
+                    field(EVENT_NAME, "AM-ACCESS-OUTCOME"),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SyncSendState extends DefaultState {
+        // empty
+    }
+
+    @Benchmark
+    public final ResourceResponse syncSend(final SyncSendState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class AsyncSendState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final JmsAuditEventHandlerConfiguration configuration) {
+            configuration.getBatch().setAsyncSendEnabled(true);
+        }
+    }
+
+    @Benchmark
+    public final ResourceResponse asyncSend(final AsyncSendState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class TransactedState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final JmsAuditEventHandlerConfiguration configuration) {
+            configuration.setSessionMode(SessionModeConfig.TRANSACTED);
+        }
+    }
+
+    @Benchmark
+    public final ResourceResponse transacted(final TransactedState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParallelTransactedAsyncSendState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final JmsAuditEventHandlerConfiguration configuration) {
+            configuration.setSessionMode(SessionModeConfig.TRANSACTED);
+            configuration.getBatch().setAsyncSendEnabled(true);
+            configuration.getBatch().setThreadCount(4);
+        }
+    }
+
+    @Benchmark
+    public final ResourceResponse parallelTransactedAsyncSend(final ParallelTransactedAsyncSendState state)
+            throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    /**
+     * Stand-in for a JMS broker running in the same JVM, built from dynamic proxies of the few JMS interfaces used
+     * by the handler. Synchronous sends and commits block for {@link #ROUND_TRIP_NANOS}, while asynchronous sends are
+     * acknowledged by another thread after the same delay, without blocking the sender.
+     */
+    private static final class InJvmBroker implements JmsContextManager {
+
+        private final ScheduledExecutorService acknowledger;
+        private final ConnectionFactory connectionFactory;
+        private final Topic topic;
+
+        private InJvmBroker() {
+            acknowledger = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "InJvmBroker-acknowledger");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            topic = newProxy(Topic.class, new StandInHandler() {
+                @Override
+                Object invoke(final String method, final Object[] args) {
+                    return "getTopicName".equals(method) ? ACCESS : null;
+                }
+            });
+            final Connection connection = newProxy(Connection.class, new StandInHandler() {
+                @Override
+                Object invoke(final String method, final Object[] args) {
+                    return "createSession".equals(method) ? newSession((Boolean) args[0]) : null;
+                }
+            });
+            connectionFactory = newProxy(ConnectionFactory.class, new StandInHandler() {
+                @Override
+                Object invoke(final String method, final Object[] args) {
+                    return connection;
+                }
+            });
+        }
+
+        @Override
+        public Topic getTopic() {
+            return topic;
+        }
+
+        @Override
+        public ConnectionFactory getConnectionFactory() {
+            return connectionFactory;
+        }
+
+        private void close() {
+            acknowledger.shutdownNow();
+        }
+
+        private Session newSession(final boolean transacted) {
+            final MessageProducer producer = newProxy(MessageProducer.class, new StandInHandler() {
+                @Override
+                Object invoke(final String method, final Object[] args) {
+                    if ("send".equals(method)) {
+                        if (args.length == 2 && args[1] instanceof CompletionListener) {
+                            final Message message = (Message) args[0];
+                            final CompletionListener listener = (CompletionListener) args[1];
+                            acknowledger.schedule(new Runnable() {
+                                @Override
+                                public void run() {
+                                    listener.onCompletion(message);
+                                }
+                            }, ROUND_TRIP_NANOS, TimeUnit.NANOSECONDS);
+                        } else if (!transacted) {
+                            LockSupport.parkNanos(ROUND_TRIP_NANOS);
+                        }
+                    }
+                    return null;
+                }
+            });
+            return newProxy(Session.class, new StandInHandler() {
+                @Override
+                Object invoke(final String method, final Object[] args) {
+                    switch (method) {
+                    case "createProducer":
+                        return producer;
+                    case "createTextMessage":
+                        return newTextMessage((String) args[0]);
+                    case "getTransacted":
+                        return transacted;
+                    case "commit":
+                        LockSupport.parkNanos(ROUND_TRIP_NANOS);
+                        return null;
+                    default:
+                        return null;
+                    }
+                }
+            });
+        }
+
+        private static TextMessage newTextMessage(final String text) {
+            return newProxy(TextMessage.class, new StandInHandler() {
+                @Override
+                Object invoke(final String method, final Object[] args) {
+                    return "getText".equals(method) ? text : null;
+                }
+            });
+        }
+
+        private static <T> T newProxy(final Class<T> type, final InvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+        }
+    }
+
+    /**
+     * Implements the methods of {@link Object} for the proxies of {@link InJvmBroker}, delegating the others by name.
+     */
+    private abstract static class StandInHandler implements InvocationHandler {
+
+        @Override
+        public final Object invoke(final Object proxy, final Method method, final Object[] args) {
+            switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "InJvmBroker@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                return invoke(method.getName(), args == null ? new Object[0] : args);
+            }
+        }
+
+        abstract Object invoke(String method, Object[] args);
+    }
+}
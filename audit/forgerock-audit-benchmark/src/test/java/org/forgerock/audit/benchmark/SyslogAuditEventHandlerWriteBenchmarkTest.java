@@ -0,0 +1,223 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.EVENT_NAME;
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.syslog.Facility;
+import org.forgerock.audit.handlers.syslog.SyslogAuditEventHandler;
+import org.forgerock.audit.handlers.syslog.SyslogAuditEventHandlerConfiguration;
+import org.forgerock.audit.handlers.syslog.TransportProtocol;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Write-throughput benchmarks for {@link SyslogAuditEventHandler}, publishing to a loopback Syslog daemon which
+ * discards the messages it reads. Compares writing each message to a blocking socket, with coalescing buffered
+ * messages into large writes over TCP and TLS.
+ */
+public class SyslogAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+    private static final String KEYSTORE = "/keystore-syslog.jks";
+    private static final char[] KEYSTORE_PASSWORD = "password".toCharArray();
+
+    static class DefaultState extends AuditEventHandlerBenchmarkState<SyslogAuditEventHandlerConfiguration> {
+        final AtomicInteger counter = new AtomicInteger();
+        private LoopbackSyslogDaemon daemon;
+
+        @Override
+        public SyslogAuditEventHandlerConfiguration buildBaseConfiguration() {
+            final SyslogAuditEventHandlerConfiguration configuration = new SyslogAuditEventHandlerConfiguration();
+            configuration.setName("syslog");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.setProtocol(TransportProtocol.TCP);
+            configuration.setHost("localhost");
+            configuration.setConnectTimeout(30000);
+            configuration.setFacility(Facility.LOCAL0);
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final SyslogAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            daemon = new LoopbackSyslogDaemon(newServerSocket(configuration.getProtocol()));
+            configuration.setPort(daemon.getPort());
+            return new SyslogAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), null, null);
+        }
+
+        /**
+         * Stops accepting connections, the connection of the handler being closed when it is shut down.
+         *
+         * @throws IOException when an error occurs
+         */
+        @TearDown(Level.Trial)
+        public void closeDaemon() throws IOException {
+            daemon.close();
+        }
+
+        private ServerSocket newServerSocket(final TransportProtocol protocol) throws Exception {
+            if (protocol != TransportProtocol.TLS) {
+                return new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            }
+            // the handler verifies the certificate of the daemon against the default trust store
+            final Path trustStore = Paths.get(getLogDirectory(), "truststore.jks");
+            try (InputStream in = getClass().getResourceAsStream(KEYSTORE)) {
+                Files.copy(in, trustStore, StandardCopyOption.REPLACE_EXISTING);
+            }
+            System.setProperty("javax.net.ssl.trustStore", trustStore.toString());
+            System.setProperty("javax.net.ssl.trustStorePassword", new String(KEYSTORE_PASSWORD));
+
+            final KeyStore keyStore = KeyStore.getInstance("JKS");
+            try (InputStream in = getClass().getResourceAsStream(KEYSTORE)) {
+                keyStore.load(in, KEYSTORE_PASSWORD);
+            }
+            final KeyManagerFactory keyManagerFactory =
+                    KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+            final SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            return sslContext.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        }
+
+        /**
+         * Builds a unique access event.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(
+                    field(FIELD_CONTENT_ID, simpleId),
+                    field(TIMESTAMP, "2026-01-01T00:00:00.000Z"),
+                    field(EVENT_NAME, "AM-ACCESS-OUTCOME"),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TcpWriteState extends DefaultState {
+        // empty
+    }
+
+    @Benchmark
+    public final ResourceResponse tcpWrite(final TcpWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BufferedTcpWriteState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final SyslogAuditEventHandlerConfiguration configuration) {
+            configuration.getBuffering().setEnabled(true);
+        }
+    }
+
+    @Benchmark
+    public ResourceResponse bufferedTcpWrite(final BufferedTcpWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BufferedTlsWriteState extends DefaultState {
+        @Override
+        protected void updateConfiguration(final SyslogAuditEventHandlerConfiguration configuration) {
+            configuration.setProtocol(TransportProtocol.TLS);
+            configuration.getBuffering().setEnabled(true);
+        }
+    }
+
+    @Benchmark
+    public ResourceResponse bufferedTlsWrite(final BufferedTlsWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    /**
+     * Accepts connections on the loopback interface, and reads and discards everything sent.
+     */
+    private static final class LoopbackSyslogDaemon implements Runnable {
+
+        private final ServerSocket serverSocket;
+
+        private LoopbackSyslogDaemon(final ServerSocket serverSocket) {
+            this.serverSocket = serverSocket;
+            final Thread thread = new Thread(this, "LoopbackSyslogDaemon");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    final Thread reader = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            final byte[] buffer = new byte[64 * 1024];
+                            try (InputStream in = socket.getInputStream()) {
+                                while (in.read(buffer) >= 0) {
+                                    // discard the messages
+                                }
+                            } catch (IOException e) {
+                                // connection closed
+                            }
+                        }
+                    }, "LoopbackSyslogDaemon-reader");
+                    reader.setDaemon(true);
+                    reader.start();
+                } catch (IOException e) {
+                    // daemon closed
+                }
+            }
+        }
+
+        private void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit;
@@ -23,12 +24,14 @@ import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.audit.events.handlers.AuditEventHandlerFactory;
 import org.forgerock.audit.events.handlers.DependencyProviderAuditEventHandlerFactory;
 import org.forgerock.audit.events.handlers.EventHandlerConfiguration;
+import org.forgerock.audit.sampling.SamplingPolicy;
 import org.forgerock.json.resource.ServiceUnavailableException;
 import org.forgerock.util.Reject;
 import org.forgerock.util.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -196,7 +199,19 @@ public final class AuditServiceBuilder {
      */
     public AuditService build() {
         Set<AuditEventHandler> handlers = buildAuditEventHandlers(eventTopicsMetaData);
-        return auditServiceFactory.newAuditService(auditServiceConfiguration, eventTopicsMetaData, handlers);
+        return auditServiceFactory.newAuditService(auditServiceConfiguration, eventTopicsMetaData, handlers,
+                getHandlerSamplingPolicies());
+    }
+
+    private Map<String, Map<String, SamplingPolicy>> getHandlerSamplingPolicies() {
+        Map<String, Map<String, SamplingPolicy>> samplingPolicies = new HashMap<>();
+        for (HandlerRegistration handlerRegistration : handlerRegistrations.values()) {
+            EventHandlerConfiguration configuration = handlerRegistration.configuration;
+            if (configuration.getSamplingPolicies() != null && !configuration.getSamplingPolicies().isEmpty()) {
+                samplingPolicies.put(configuration.getName(), configuration.getSamplingPolicies());
+            }
+        }
+        return samplingPolicies;
     }
 
 
@@ -251,8 +266,10 @@ public final class AuditServiceBuilder {
         AuditService newAuditService(
                 final AuditServiceConfiguration configuration,
                 final EventTopicsMetaData eventTopicsMetaData,
-                final Set<AuditEventHandler> auditEventHandlers) {
-            return new AuditServiceImpl(configuration, eventTopicsMetaData, auditEventHandlers);
+                final Set<AuditEventHandler> auditEventHandlers,
+                final Map<String, Map<String, SamplingPolicy>> handlerSamplingPolicies) {
+            return new AuditServiceImpl(
+                    configuration, eventTopicsMetaData, auditEventHandlers, handlerSamplingPolicies);
         }
     }
 }
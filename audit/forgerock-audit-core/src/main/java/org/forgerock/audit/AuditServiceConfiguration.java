@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit;
 
@@ -24,6 +25,7 @@ import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import org.forgerock.audit.filter.FilterPolicy;
+import org.forgerock.audit.sampling.SamplingPolicy;
 
 /**
  * Configuration of the audit service.
@@ -49,9 +51,20 @@ import org.forgerock.audit.filter.FilterPolicy;
  *                  "/access/filter/value"
  *             ]
  *         }
+ *     },
+ *     "samplingPolicies" : {
+ *         "access" : {
+ *             "sampleRate" : 0.1,
+ *             "maxEventsPerSecond" : 100,
+ *             "alwaysKeep" : [
+ *                 "/response/status eq \"FAILED\""
+ *             ]
+ *         }
  *     }
  *   }
  * </pre>
+ * The sampling policies, indexed by topic, apply to every handler of the topic which does not define its own
+ * sampling policy for it.
  */
 public class AuditServiceConfiguration {
 
@@ -65,6 +78,9 @@ public class AuditServiceConfiguration {
     @JsonPropertyDescription("audit.service.filter.policies")
     private Map<String, FilterPolicy> filterPolicies = new LinkedHashMap<>();
 
+    @JsonPropertyDescription("audit.service.sampling.policies")
+    private Map<String, SamplingPolicy> samplingPolicies = new LinkedHashMap<>();
+
     /**
      * Empty constructor.
      */
@@ -80,6 +96,7 @@ public class AuditServiceConfiguration {
     public AuditServiceConfiguration(AuditServiceConfiguration config) {
         handlerForQueries = config.getHandlerForQueries();
         availableAuditEventHandlers = config.availableAuditEventHandlers;
+        samplingPolicies.putAll(config.samplingPolicies);
     }
 
     /**
@@ -138,4 +155,20 @@ public class AuditServiceConfiguration {
     public void setFilterPolicies(Map<String, FilterPolicy> filterPolicies) {
         this.filterPolicies.putAll(filterPolicies);
     }
+
+    /**
+     * Get the sampling policies, indexed by topic.
+     * @return The policies.
+     */
+    public Map<String, SamplingPolicy> getSamplingPolicies() {
+        return samplingPolicies;
+    }
+
+    /**
+     * Set the sampling policies, indexed by topic.
+     * @param samplingPolicies The policies.
+     */
+    public void setSamplingPolicies(Map<String, SamplingPolicy> samplingPolicies) {
+        this.samplingPolicies.putAll(samplingPolicies);
+    }
 }
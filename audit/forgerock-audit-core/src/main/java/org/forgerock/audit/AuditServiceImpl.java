@@ -12,17 +12,21 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit;
 
 import static java.lang.String.format;
 import static org.forgerock.audit.AuditServiceProxy.ACTION_PARAM_TARGET_HANDLER;
+import static org.forgerock.audit.AuditServiceProxy.ACTION_SAMPLING_STATISTICS;
 import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
 import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
 import static org.forgerock.audit.util.ResourceExceptionsUtil.adapt;
 import static org.forgerock.audit.util.ResourceExceptionsUtil.notSupported;
+import static org.forgerock.json.JsonValue.field;
 import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Responses.newActionResponse;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
 
 import java.util.Collection;
@@ -36,6 +40,9 @@ import org.forgerock.audit.events.EventTopicsMetaData;
 import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.audit.filter.Filter;
 import org.forgerock.audit.filter.FilterChainBuilder;
+import org.forgerock.audit.sampling.EventSampler;
+import org.forgerock.audit.sampling.SamplingPolicy;
+import org.forgerock.audit.sampling.SamplingStatistics;
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ActionRequest;
@@ -120,6 +127,10 @@ final class AuditServiceImpl implements AuditService {
      * The filters to apply to the audit event.
      */
     private final Filter filters;
+    /**
+     * The samplers deciding which events are published to the handlers, indexed by topic and by handler name.
+     */
+    private final Map<String, Map<String, EventSampler>> eventSamplersByTopic;
 
     /**
      * Constructs a new instance.
@@ -137,6 +148,30 @@ final class AuditServiceImpl implements AuditService {
             final AuditServiceConfiguration configuration,
             final EventTopicsMetaData eventTopicsMetaData,
             final Set<AuditEventHandler> auditEventHandlers) {
+        this(configuration, eventTopicsMetaData, auditEventHandlers,
+                Collections.<String, Map<String, SamplingPolicy>>emptyMap());
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param configuration
+     *          User-facing configuration.
+     * @param eventTopicsMetaData
+     *          Meta-data describing the types of events this AuditService can receive.
+     *          Passing the map to this constructor effectively transfers ownership to this object and neither
+     *          it nor its contents should not be updated further by code outside of this class thereafter.
+     * @param auditEventHandlers
+     *          List of all configured AuditEventHandlers.
+     * @param handlerSamplingPolicies
+     *          The sampling policies of the handlers, indexed by handler name and by topic, which take precedence
+     *          over the sampling policies of the configuration.
+     */
+    public AuditServiceImpl(
+            final AuditServiceConfiguration configuration,
+            final EventTopicsMetaData eventTopicsMetaData,
+            final Set<AuditEventHandler> auditEventHandlers,
+            final Map<String, Map<String, SamplingPolicy>> handlerSamplingPolicies) {
 
         this.config = new AuditServiceConfiguration(configuration);
         this.eventTopicsMetaData = eventTopicsMetaData;
@@ -155,6 +190,8 @@ final class AuditServiceImpl implements AuditService {
                 .withAuditTopics(eventTopicsMetaData.getTopics())
                 .withPolicies(configuration.getFilterPolicies())
                 .build();
+        this.eventSamplersByTopic = getEventSamplersByTopic(configuration.getSamplingPolicies(),
+                handlerSamplingPolicies);
     }
 
     private Map<String, AuditEventHandler> getAuditEventHandlersByName(Set<AuditEventHandler> handlers) {
@@ -185,6 +222,41 @@ final class AuditServiceImpl implements AuditService {
         return handlersByTopic;
     }
 
+    private Map<String, Map<String, EventSampler>> getEventSamplersByTopic(
+            final Map<String, SamplingPolicy> samplingPolicies,
+            final Map<String, Map<String, SamplingPolicy>> handlerSamplingPolicies) {
+
+        for (String topic : samplingPolicies.keySet()) {
+            if (!eventTopicsMetaData.containsTopic(topic)) {
+                logger.warn("Ignoring the sampling policy of unknown event topic {}", topic);
+            }
+        }
+        Map<String, Map<String, EventSampler>> samplersByTopic = new HashMap<>();
+        for (Map.Entry<String, Set<AuditEventHandler>> entry : auditEventHandlersByTopic.entrySet()) {
+            String topic = entry.getKey();
+            Map<String, EventSampler> samplersByHandler = new HashMap<>();
+            for (AuditEventHandler handler : entry.getValue()) {
+                Map<String, SamplingPolicy> policies = handlerSamplingPolicies.get(handler.getName());
+                SamplingPolicy policy = policies != null && policies.containsKey(topic)
+                        ? policies.get(topic)
+                        : samplingPolicies.get(topic);
+                if (policy == null) {
+                    continue;
+                }
+                try {
+                    samplersByHandler.put(handler.getName(), new EventSampler(policy));
+                } catch (IllegalArgumentException e) {
+                    logger.error("Invalid sampling policy of handler {} for topic {}, all its events will be "
+                            + "published : {}", handler.getName(), topic, e.getMessage());
+                }
+            }
+            if (!samplersByHandler.isEmpty()) {
+                samplersByTopic.put(topic, samplersByHandler);
+            }
+        }
+        return samplersByTopic;
+    }
+
     @Override
     public Promise<ResourceResponse, ResourceException> handleRead(final Context context, final ReadRequest request) {
         try {
@@ -257,7 +329,8 @@ final class AuditServiceImpl implements AuditService {
     }
 
     /**
-     * Propagates audit event to all handlers registered to receive events for the given topic.
+     * Propagates audit event to all handlers registered to receive events for the given topic, unless the sampling
+     * policy of a handler for the topic drops the event.
      *
      * @return The result generated by the queryHandler so that the result of handleCreate is inline with the
      *         result that would be received for a call to handleRead or handleQuery for the provided event.
@@ -275,7 +348,14 @@ final class AuditServiceImpl implements AuditService {
         // Otherwise, return the result generated by the handler used for queries or a generic response if
         // that handler isn't bound to the event's topic
         logger.debug("Cascading the event of topic {} to the handlers : {}", topic, auditEventHandlersForEvent);
+        final Map<String, EventSampler> eventSamplers = eventSamplersByTopic.get(topic);
         for (AuditEventHandler auditEventHandler : auditEventHandlersForEvent) {
+            EventSampler eventSampler = eventSamplers == null ? null : eventSamplers.get(auditEventHandler.getName());
+            if (eventSampler != null && !eventSampler.accept(event)) {
+                logger.trace("Event of topic {} dropped by the sampling policy of handler {}",
+                        topic, auditEventHandler.getName());
+                continue;
+            }
             Promise<ResourceResponse, ResourceException> handlerResult;
             try {
                 handlerResult = auditEventHandler.publishEvent(context, topic, event)
@@ -345,8 +425,11 @@ final class AuditServiceImpl implements AuditService {
         try {
             String handlerName = request.getAdditionalParameter(ACTION_PARAM_TARGET_HANDLER);
             String topic = establishTopic(request.getResourcePathObject(), false);
+            if (ACTION_SAMPLING_STATISTICS.equals(request.getAction())) {
+                return newActionResponse(getSamplingStatistics(topic, handlerName)).asPromise();
+            }
             if (handlerName == null) {
-                // no action is currently managed at the audit service level, so throw an exception
+                // no other action is currently managed at the audit service level, so throw an exception
                 return new BadRequestException(format("Unable to handle action: %s", request.getAction())).asPromise();
             }
             // Propagate the action to the given handler
@@ -361,6 +444,38 @@ final class AuditServiceImpl implements AuditService {
         }
     }
 
+    /**
+     * Returns the statistics of the event samplers, indexed by topic and by handler name.
+     *
+     * @param topic The topic of the statistics to return, or {@code null} for all the topics.
+     * @param handlerName The name of the handler of the statistics to return, or {@code null} for all the handlers.
+     */
+    private JsonValue getSamplingStatistics(final String topic, final String handlerName) {
+        final JsonValue result = json(object());
+        for (Map.Entry<String, Map<String, EventSampler>> topicEntry : eventSamplersByTopic.entrySet()) {
+            if (topic != null && !topic.equals(topicEntry.getKey())) {
+                continue;
+            }
+            final JsonValue topicStatistics = json(object());
+            for (Map.Entry<String, EventSampler> handlerEntry : topicEntry.getValue().entrySet()) {
+                if (handlerName != null && !handlerName.equals(handlerEntry.getKey())) {
+                    continue;
+                }
+                final SamplingStatistics statistics = handlerEntry.getValue().getStatistics();
+                topicStatistics.put(handlerEntry.getKey(), object(
+                        field("eventsKept", statistics.getEventsKept()),
+                        field("eventsAlwaysKept", statistics.getEventsAlwaysKept()),
+                        field("eventsSampledOut", statistics.getEventsSampledOut()),
+                        field("eventsRateLimited", statistics.getEventsRateLimited()),
+                        field("eventsDropped", statistics.getEventsDropped())));
+            }
+            if (topicStatistics.size() > 0) {
+                result.put(topicEntry.getKey(), topicStatistics.getObject());
+            }
+        }
+        return result;
+    }
+
     private Collection<AuditEventHandler> getAuditEventHandlersForEvent(final String auditEvent) {
         if (auditEventHandlersByTopic.containsKey(auditEvent)) {
             return auditEventHandlersByTopic.get(auditEvent);
@@ -12,13 +12,18 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit;
 
 import java.util.Collection;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.json.resource.ActionRequest;
@@ -46,14 +51,47 @@ import org.forgerock.util.promise.Promise;
  * <p/>
  * Thread-safety is achieved by blocking proxied calls until the old AuditService has flushed all buffers
  * and closed any open file or network connections.
+ * <p/>
+ * Proxied calls do not take any lock: the delegate is published through a volatile reference, and each call
+ * registers itself against the delegate it uses in a striped counter, so that concurrent calls from many threads
+ * do not contend on a single memory location. Reconfiguration retires the current delegate, waits for the calls
+ * registered against it to complete, and only then shuts it down, while calls arriving in the meantime wait for
+ * the reconfiguration to complete. Calls made by a delegate to this proxy, on the thread of a call in progress, are
+ * re-entrant: they use the delegate of the outermost call, even if a reconfiguration is waiting for it to complete.
  */
 public class AuditServiceProxy implements AuditService {
 
     /** Parameter that may be used when using an action, to provide the name of the handler to use as a target. */
     public static final String ACTION_PARAM_TARGET_HANDLER = "handler";
 
-    private final ReentrantReadWriteLock delegateLock;
-    private AuditService delegate;
+    /**
+     * Action returning the numbers of events kept and dropped by the sampling policies, indexed by topic and by
+     * handler name, optionally restricted to the topic of the resource path and to the handler named by
+     * {@link #ACTION_PARAM_TARGET_HANDLER}.
+     */
+    public static final String ACTION_SAMPLING_STATISTICS = "samplingStatistics";
+
+    /** Duration for which reconfiguration parks between checks that in-flight calls have completed. */
+    private static final long DRAIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /** Serializes reconfiguration, i.e. {@link #setDelegate}, {@link #startup} and {@link #shutdown}. */
+    private final ReentrantLock updateLock = new ReentrantLock();
+    /** Number of nested {@link #beginUpdate()} calls, guarded by {@link #updateLock}. */
+    private int updateDepth;
+    /** The generation retired by the outermost {@link #beginUpdate()}, guarded by {@link #updateLock}. */
+    private Generation retiredGeneration;
+    /** The delegate to publish by the outermost {@link #endUpdate()}, guarded by {@link #updateLock}. */
+    private AuditService updatedDelegate;
+    private volatile Generation generation;
+    /** Thread currently reconfiguring this proxy, used to reject calls made by the delegate it shuts down or starts. */
+    private volatile Thread updatingThread;
+    /** The calls in progress on each thread. */
+    private final ThreadLocal<Calls> calls = new ThreadLocal<Calls>() {
+        @Override
+        protected Calls initialValue() {
+            return new Calls();
+        }
+    };
 
     /**
      * Create a new {@code AuditServiceProxy}.
@@ -62,21 +100,16 @@ public class AuditServiceProxy implements AuditService {
      *          The {@code AuditService} that this object should proxy.
      */
     public AuditServiceProxy(AuditService delegate) {
-        this(delegate, new ReentrantReadWriteLock());
-    }
-
-    @VisibleForTesting
-    AuditServiceProxy(AuditService delegate, ReentrantReadWriteLock delegateLock) {
         Reject.ifNull(delegate);
-        this.delegate = delegate;
-        this.delegateLock = delegateLock;
+        this.generation = new Generation(delegate);
     }
 
     /**
      * Sets the AuditService this object proxies.
      * <p/>
      * Thread-safety is achieved by blocking proxied calls until the old AuditService has flushed all buffers
-     * and closed any open file or network connections.
+     * and closed any open file or network connections. The old AuditService is only shut down once the calls
+     * already in progress against it have completed.
      *
      * @param newDelegate
      *          A new AuditService instance with updated configuration.
@@ -84,202 +117,429 @@ public class AuditServiceProxy implements AuditService {
      */
     public void setDelegate(AuditService newDelegate) throws ServiceUnavailableException {
         Reject.ifNull(newDelegate);
-        obtainWriteLock();
+        updateLock.lock();
         try {
-            final AuditService oldDelegate = this.delegate;
-            if (oldDelegate == newDelegate) {
+            if ((updateDepth > 0 ? updatedDelegate : generation.delegate) == newDelegate) {
                 return;
             }
-            oldDelegate.shutdown();
-            newDelegate.startup();
-            this.delegate = newDelegate;
+            beginUpdate();
+            try {
+                updatedDelegate.shutdown();
+                newDelegate.startup();
+                updatedDelegate = newDelegate;
+            } finally {
+                endUpdate();
+            }
         } finally {
-            releaseWriteLock();
+            updateLock.unlock();
         }
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> handleRead(Context context, ReadRequest request) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handleRead(context, request);
+            return current.delegate.handleRead(context, request);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> handleCreate(Context context, CreateRequest request) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handleCreate(context, request);
+            return current.delegate.handleCreate(context, request);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> handleUpdate(Context context, UpdateRequest request) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handleUpdate(context, request);
+            return current.delegate.handleUpdate(context, request);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> handleDelete(Context context, DeleteRequest request) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handleDelete(context, request);
+            return current.delegate.handleDelete(context, request);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> handlePatch(Context context, PatchRequest request) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handlePatch(context, request);
+            return current.delegate.handlePatch(context, request);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Promise<QueryResponse, ResourceException> handleQuery(
             Context context, QueryRequest request, QueryResourceHandler handler) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handleQuery(context, request, handler);
+            return current.delegate.handleQuery(context, request, handler);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Promise<ActionResponse, ResourceException> handleAction(Context context, ActionRequest request) {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.handleAction(context, request);
+            return current.delegate.handleAction(context, request);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public AuditServiceConfiguration getConfig() throws ServiceUnavailableException {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.getConfig();
+            return current.delegate.getConfig();
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public AuditEventHandler getRegisteredHandler(String handlerName) throws ServiceUnavailableException {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.getRegisteredHandler(handlerName);
+            return current.delegate.getRegisteredHandler(handlerName);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Collection<AuditEventHandler> getRegisteredHandlers() throws ServiceUnavailableException {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.getRegisteredHandlers();
+            return current.delegate.getRegisteredHandlers();
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public boolean isAuditing(String topic) throws ServiceUnavailableException {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.isAuditing(topic);
+            return current.delegate.isAuditing(topic);
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public Set<String> getKnownTopics() throws ServiceUnavailableException {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.getKnownTopics();
+            return current.delegate.getKnownTopics();
         } finally {
-            releaseReadLock();
+            exit();
         }
     }
 
     @Override
     public void shutdown() {
-        obtainWriteLock();
+        beginUpdate();
         try {
-            delegate.shutdown();
+            updatedDelegate.shutdown();
         } finally {
-            releaseWriteLock();
+            endUpdate();
         }
     }
 
     @Override
     public void startup() throws ServiceUnavailableException {
-        obtainWriteLock();
+        beginUpdate();
         try {
-            delegate.startup();
+            updatedDelegate.startup();
         } finally {
-            releaseWriteLock();
+            endUpdate();
         }
     }
 
     @Override
     public boolean isRunning() {
-        obtainReadLock();
+        final Generation current = enter();
         try {
-            return delegate.isRunning();
+            return current.delegate.isRunning();
         } finally {
-            releaseReadLock();
+            exit();
+        }
+    }
+
+    /**
+     * Registers a call against the current generation, waiting for any reconfiguration in progress to complete.
+     * <p/>
+     * A call nested in a call in progress on the same thread is not registered again: it uses the generation of the
+     * outermost call, which can not be drained before the nested call completes, even if it has been retired.
+     * Waiting for its replacement would deadlock with the reconfiguration waiting for the outermost call.
+     * <p/>
+     * Each successful call must be paired with a call to {@link #exit()}, from the same thread.
+     *
+     * @return The generation whose delegate the call should use.
+     * @throws IllegalStateException If the current thread is reconfiguring this proxy.
+     */
+    private Generation enter() {
+        final Calls inProgress = calls.get();
+        if (inProgress.depth > 0) {
+            inProgress.depth++;
+            return inProgress.generation;
+        }
+        Generation current = generation;
+        while (!current.tryEnter()) {
+            if (updatingThread == Thread.currentThread()) {
+                throw new IllegalStateException(
+                        "AuditServiceProxy should not be called from delegate shutdown or startup operations");
+            }
+            current.awaitReplaced();
+            current = generation;
+        }
+        inProgress.generation = current;
+        inProgress.depth = 1;
+        return current;
+    }
+
+    /**
+     * Unregisters the call registered by the last call to {@link #enter()} from the current thread.
+     */
+    private void exit() {
+        final Calls inProgress = calls.get();
+        if (--inProgress.depth == 0) {
+            final Generation current = inProgress.generation;
+            inProgress.generation = null;
+            current.exit();
         }
     }
 
     /**
      * Obtain the read lock or block until it becomes available.
+     * <p/>
+     * Registers a call against the current delegate, waiting for any reconfiguration in progress to complete, as
+     * proxied calls do.
      *
-     * @throws IllegalStateException If the current thread already holds the write lock.
+     * @throws IllegalStateException If the current thread is reconfiguring this proxy.
+     * @deprecated Proxied calls no longer take a read lock. This method is only kept for the subclasses which
+     * coordinate their own operations with reconfiguration; it must be paired with {@link #releaseReadLock()}.
      */
+    @Deprecated
     protected final void obtainReadLock() {
-        delegateLock.readLock().lock();
-        if (delegateLock.isWriteLockedByCurrentThread()) {
-            throw new IllegalStateException(
-                    "AuditServiceProxy should not be called from delegate shutdown or startup operations");
-        }
+        enter();
     }
 
     /**
      * Release the read lock.
+     *
+     * @deprecated Proxied calls no longer take a read lock, see {@link #obtainReadLock()}.
      */
+    @Deprecated
     protected final void releaseReadLock() {
-        delegateLock.readLock().unlock();
+        exit();
     }
 
     /**
      * Obtain the write lock or block until it becomes available.
+     * <p/>
+     * Starts a reconfiguration: waits for any other reconfiguration to complete, then makes new calls wait and
+     * waits for the calls in progress to complete. The write lock is re-entrant, and may be held while calling
+     * {@link #setDelegate}, {@link #startup} or {@link #shutdown}.
+     *
+     * @deprecated Reconfiguration no longer takes a write lock. This method is only kept for the subclasses which
+     * coordinate their own operations with reconfiguration; it must be paired with {@link #releaseWriteLock()}.
      */
+    @Deprecated
     protected final void obtainWriteLock() {
-        delegateLock.writeLock().lock();
+        beginUpdate();
     }
 
     /**
      * Release the write lock.
+     * <p/>
+     * Completes the reconfiguration started by the outermost {@link #obtainWriteLock()}, releasing the calls waiting
+     * for it.
+     *
+     * @deprecated Reconfiguration no longer takes a write lock, see {@link #obtainWriteLock()}.
      */
+    @Deprecated
     protected final void releaseWriteLock() {
-        delegateLock.writeLock().unlock();
+        endUpdate();
+    }
+
+    /**
+     * Starts a reconfiguration: waits for any other reconfiguration to complete, then retires the current
+     * generation. Nested reconfigurations are part of the outermost one. Must be paired with {@link #endUpdate()}.
+     */
+    private void beginUpdate() {
+        updateLock.lock();
+        if (updateDepth++ == 0) {
+            retiredGeneration = retireGeneration();
+            updatedDelegate = retiredGeneration.delegate;
+        }
+    }
+
+    /**
+     * Completes the reconfiguration started by the outermost {@link #beginUpdate()}, publishing a generation for
+     * {@link #updatedDelegate}.
+     */
+    private void endUpdate() {
+        try {
+            if (--updateDepth == 0) {
+                publishGeneration(retiredGeneration, updatedDelegate);
+                retiredGeneration = null;
+                updatedDelegate = null;
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Retires the current generation, so that new calls wait for its replacement, then waits for the calls
+     * already registered against it to complete. Must be called while holding {@link #updateLock}.
+     *
+     * @return The retired generation.
+     */
+    private Generation retireGeneration() {
+        updatingThread = Thread.currentThread();
+        final Generation retired = generation;
+        retired.retire();
+        retired.awaitDrained();
+        return retired;
+    }
+
+    /**
+     * Publishes a new generation for the given delegate, and releases the calls waiting for the retired one to be
+     * replaced. Must be called while holding {@link #updateLock}.
+     *
+     * @param retired The generation returned by {@link #retireGeneration()}.
+     * @param delegate The delegate that calls should now use.
+     */
+    private void publishGeneration(Generation retired, AuditService delegate) {
+        generation = new Generation(delegate);
+        updatingThread = null;
+        retired.replaced.countDown();
+    }
+
+    @VisibleForTesting
+    long getInFlightCallCount() {
+        return generation.inFlightCallCount();
+    }
+
+    @VisibleForTesting
+    boolean isUpdating() {
+        return updatingThread != null;
+    }
+
+    /** The calls in progress on a thread: the generation of the outermost one, and how deeply they are nested. */
+    private static final class Calls {
+        private Generation generation;
+        private int depth;
+    }
+
+    /**
+     * A delegate, together with the number of calls in progress against it.
+     * <p/>
+     * Calls are counted in a fixed array of padded stripes, selected by thread ID, rather than in a single
+     * counter, so that threads calling the proxy concurrently mostly update distinct cache lines. A call increments
+     * and decrements the same stripe, so that a stripe can only read zero when none of the calls counted in it are
+     * in progress; a {@code LongAdder} would not provide this guarantee, as the cell a thread updates may change.
+     */
+    private static final class Generation {
+
+        /** Number of {@code long} elements between two stripes, so that each stripe lies on its own cache line. */
+        private static final int PADDING = 16;
+        /** Number of stripes, the power of two at least twice the number of processors, up to 64. */
+        private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+        private final AuditService delegate;
+        private final AtomicLongArray inFlightCalls = new AtomicLongArray(STRIPES * PADDING);
+        private final CountDownLatch replaced = new CountDownLatch(1);
+        private volatile boolean retired;
+
+        private Generation(AuditService delegate) {
+            this.delegate = delegate;
+        }
+
+        private static int stripeCount(int processors) {
+            final int stripes = Integer.highestOneBit(Math.max(processors, 1) * 4 - 1);
+            return Math.min(stripes, 64);
+        }
+
+        /**
+         * Returns the index of the stripe of the current thread. Thread IDs are allocated sequentially, so
+         * consecutive threads use consecutive stripes.
+         */
+        private static int stripeIndex() {
+            return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        }
+
+        private boolean tryEnter() {
+            final int index = stripeIndex();
+            inFlightCalls.incrementAndGet(index);
+            // the increment above and the read of retired below are ordered with the write of retired followed by
+            // the reads of the stripes in awaitDrained(), so that at least one of the two threads sees the other
+            if (retired) {
+                inFlightCalls.decrementAndGet(index);
+                return false;
+            }
+            return true;
+        }
+
+        private void exit() {
+            inFlightCalls.decrementAndGet(stripeIndex());
+        }
+
+        private void retire() {
+            retired = true;
+        }
+
+        private void awaitDrained() {
+            for (int index = 0; index < inFlightCalls.length(); index += PADDING) {
+                while (inFlightCalls.get(index) != 0) {
+                    LockSupport.parkNanos(DRAIN_PARK_NANOS);
+                }
+            }
+        }
+
+        private void awaitReplaced() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    replaced.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private long inFlightCallCount() {
+            long count = 0;
+            for (int index = 0; index < inFlightCalls.length(); index += PADDING) {
+                count += inFlightCalls.get(index);
+            }
+            return count;
+        }
     }
 }
@@ -12,14 +12,18 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import org.forgerock.audit.sampling.SamplingPolicy;
 
 /**
  * Base class for audit event handler configuration.
@@ -38,6 +42,10 @@ public abstract class EventHandlerConfiguration {
     @JsonPropertyDescription("audit.handlers.all.topics")
     private Set<String> topics = new HashSet<>();
 
+    /** The sampling policies of this audit event handler, indexed by topic. */
+    @JsonPropertyDescription("audit.handlers.all.samplingPolicies")
+    private Map<String, SamplingPolicy> samplingPolicies = new LinkedHashMap<>();
+
     /**
      * Checks if the audit event handler is enabled.
      * @return
@@ -96,6 +104,27 @@ public abstract class EventHandlerConfiguration {
         this.topics = topics;
     }
 
+    /**
+     * Returns the sampling policies of this handler, indexed by topic. They take precedence over the sampling
+     * policies of the audit service for the same topics.
+     *
+     * @return the sampling policies
+     */
+    public Map<String, SamplingPolicy> getSamplingPolicies() {
+        return samplingPolicies;
+    }
+
+    /**
+     * Sets the sampling policies of this handler, indexed by topic. They take precedence over the sampling
+     * policies of the audit service for the same topics.
+     *
+     * @param samplingPolicies
+     *          The sampling policies
+     */
+    public void setSamplingPolicies(Map<String, SamplingPolicy> samplingPolicies) {
+        this.samplingPolicies = samplingPolicies;
+    }
+
     /**
      * States if an {@link AuditEventHandler} can be used for queries.
      * @return True - If the {@link AuditEventHandler} can be used for queries.
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers;
 
@@ -24,6 +25,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.forgerock.audit.retention.ArchiveCompression;
 import org.forgerock.audit.retention.DiskSpaceUsedRetentionPolicy;
 import org.forgerock.audit.retention.FreeDiskSpaceRetentionPolicy;
 import org.forgerock.audit.retention.RetentionPolicy;
@@ -157,6 +159,9 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
         @JsonPropertyDescription("audit.handlers.file.rotationInterval")
         private String rotationInterval = "disabled";
 
+        @JsonPropertyDescription("audit.handlers.file.rotationFileCompression")
+        private ArchiveCompression rotationFileCompression = ArchiveCompression.NONE;
+
         /**
          * Gets log rotation enabled state. By default log rotation is disabled.
          * @return True - If log rotation is enabled.
@@ -227,6 +232,24 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
             this.rotationFileSuffix = rotationFileSuffix;
         }
 
+        /**
+         * Gets the compression applied in the background to the rotated files. By default rotated files are not
+         * compressed.
+         * @return The compression of the rotated files.
+         */
+        public ArchiveCompression getRotationFileCompression() {
+            return rotationFileCompression;
+        }
+
+        /**
+         * Sets the compression applied in the background to the rotated files. By default rotated files are not
+         * compressed.
+         * @param rotationFileCompression The compression of the rotated files.
+         */
+        public void setRotationFileCompression(ArchiveCompression rotationFileCompression) {
+            this.rotationFileCompression = checkNotNull(rotationFileCompression);
+        }
+
         /**
          * Gets the interval to trigger a file rotation. The interval should be set as a {@link Duration}.
          * <p/>
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers.buffering;
 
@@ -24,8 +25,10 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.audit.batch.CommonAuditBatchConfiguration;
+import org.forgerock.audit.spool.AuditSpool;
 import org.forgerock.json.JsonValue;
 import org.forgerock.util.Function;
 import org.forgerock.util.Reject;
@@ -36,6 +39,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Buffers audit events to a bounded queue, periodically flushing the queue to a provided {@link BatchConsumer}.
  * If the bounded queue becomes full, further events are dropped until the queue is next flushed.
+ * <p>
+ * By default, one batch is published per write interval, whether or not the previous batches have completed. When a
+ * {@link Builder#maxInFlightBatches(int) maximum number of in-flight batches} is set, each write interval publishes
+ * batches until the queue is empty or that many batches are waiting for their promise to complete, in which case the
+ * remaining events stay in the queue until a batch completes.
+ * <p>
+ * When a {@link Builder#spool(AuditSpool.Builder) spool} is set, the built publisher appends the events to a durable
+ * spool on disk instead of a queue in memory.
  */
 public final class BufferedBatchPublisher implements BatchPublisher {
 
@@ -50,7 +61,7 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         queue = new ArrayBlockingQueue<>(builder.capacity);
         scheduler = Executors.newScheduledThreadPool(1);
         queueConsumer = new QueueConsumer(builder.maxBatchedEvents, builder.averagePerEventPayloadSize,
-                builder.autoFlush, queue, scheduler, builder.batchConsumer);
+                builder.autoFlush, queue, scheduler, builder.batchConsumer, builder.maxInFlightBatches);
         this.writeInterval = builder.writeInterval;
     }
 
@@ -141,6 +152,8 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         private final StringBuilder payload;
         private final BatchConsumer batchEventHandler;
         private final ScheduledExecutorService scheduler;
+        private final int maxInFlightBatches;
+        private final AtomicInteger inFlightBatches = new AtomicInteger();
 
         private volatile boolean shutdown;
 
@@ -160,15 +173,19 @@ public final class BufferedBatchPublisher implements BatchPublisher {
          *         This runnable's scheduler
          * @param batchEventHandler
          *         Batch audit event handler
+         * @param maxInFlightBatches
+         *         Maximum number of published batches whose promise has not completed, or {@code 0} for no limit
          */
         public QueueConsumer(final int maxBatchedEvents, final int averagePerEventPayloadSize,
                 final boolean flushOnShutdown, final BlockingQueue<BatchEntry> queue,
-                final ScheduledExecutorService scheduler, final BatchConsumer batchEventHandler) {
+                final ScheduledExecutorService scheduler, final BatchConsumer batchEventHandler,
+                final int maxInFlightBatches) {
             this.queue = queue;
             this.flushOnShutdown = flushOnShutdown;
             this.scheduler = scheduler;
             this.batchEventHandler = batchEventHandler;
             this.maxBatchedEvents = maxBatchedEvents;
+            this.maxInFlightBatches = maxInFlightBatches;
             batch = new ArrayList<>(maxBatchedEvents);
             payload = new StringBuilder(maxBatchedEvents * averagePerEventPayloadSize);
         }
@@ -200,37 +217,77 @@ public final class BufferedBatchPublisher implements BatchPublisher {
 
         /**
          * Performs batch operation.
+         *
+         * @return {@code false} if no batch could be published, because the queue is empty or because the maximum
+         *         number of in-flight batches has been reached
          */
-        private void batch() {
+        private boolean batch() {
+            if (maxInFlightBatches > 0 && inFlightBatches.get() >= maxInFlightBatches) {
+                return false;
+            }
             queue.drainTo(batch, maxBatchedEvents);
-            if (!batch.isEmpty()) {
-                try {
-                    // add to batch
-                    for (final BatchEntry entry : batch) {
-                        try {
-                            batchEventHandler.addToBatch(entry.getTopic(), entry.getEvent(), payload);
-                        } catch (Exception e) {
-                            logger.error("addToBatch failed", e);
-                        }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            try {
+                // add to batch
+                for (final BatchEntry entry : batch) {
+                    try {
+                        batchEventHandler.addToBatch(entry.getTopic(), entry.getEvent(), payload);
+                    } catch (Exception e) {
+                        logger.error("addToBatch failed", e);
                     }
+                }
 
-                    // send batch
-                    if (payload.length() != 0) {
-                        batchEventHandler.publishBatch(payload.toString())
-                                .thenCatch(new Function<BatchException, Void, BatchException>() {
-                                    @Override
-                                    public Void apply(BatchException e) throws BatchException {
-                                        logger.error("publishBatch failed", e);
-                                        return null;
+                // send batch
+                if (payload.length() != 0) {
+                    inFlightBatches.incrementAndGet();
+                    batchEventHandler.publishBatch(payload.toString())
+                            .thenAlways(new Runnable() {
+                                @Override
+                                public void run() {
+                                    synchronized (inFlightBatches) {
+                                        inFlightBatches.decrementAndGet();
+                                        inFlightBatches.notifyAll();
                                     }
-                                });
+                                }
+                            })
+                            .thenCatch(new Function<BatchException, Void, BatchException>() {
+                                @Override
+                                public Void apply(BatchException e) throws BatchException {
+                                    logger.error("publishBatch failed", e);
+                                    return null;
+                                }
+                            });
+                }
+            } finally {
+                // clear buffers to prepare for next batch
+                batch.clear();
+                payload.setLength(0);
+            }
+            return true;
+        }
+
+        /**
+         * Blocks, in a non-cancelable way, until at most the provided number of batches are in flight.
+         *
+         * @param maxBatches
+         *         Number of in-flight batches to wait for
+         */
+        private void awaitInFlightBatches(final int maxBatches) {
+            boolean interrupted = false;
+            synchronized (inFlightBatches) {
+                while (inFlightBatches.get() > maxBatches) {
+                    try {
+                        inFlightBatches.wait(TimeUnit.SECONDS.toMillis(1L));
+                    } catch (InterruptedException e) {
+                        interrupted = true;
                     }
-                } finally {
-                    // clear buffers to prepare for next batch
-                    batch.clear();
-                    payload.setLength(0);
                 }
             }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         @Override
@@ -241,13 +298,25 @@ public final class BufferedBatchPublisher implements BatchPublisher {
                 if (flushOnShutdown) {
                     // flush queue
                     while (!queue.isEmpty()) {
-                        batch();
+                        if (!batch() && maxInFlightBatches > 0) {
+                            awaitInFlightBatches(maxInFlightBatches - 1);
+                        }
+                    }
+                    if (maxInFlightBatches > 0) {
+                        // the events are only flushed once the batches in flight have completed
+                        awaitInFlightBatches(0);
                     }
                 }
             }
 
             // normal run of batch operation
-            batch();
+            if (maxInFlightBatches > 0) {
+                while (batch()) {
+                    // publish batches until the queue is empty or the maximum in-flight batches is reached
+                }
+            } else {
+                batch();
+            }
         }
     }
 
@@ -318,6 +387,32 @@ public final class BufferedBatchPublisher implements BatchPublisher {
          */
         Builder autoFlush(boolean autoFlush);
 
+        /**
+         * Sets the maximum number of batches which may be published while the promises of previous batches have not
+         * completed. When set, each write interval publishes batches until the queue is empty or the limit is
+         * reached, and shutdown waits for the batches in flight when events are automatically flushed. Defaults to
+         * {@code 0}, which publishes a single batch per write interval without limiting the batches in flight.
+         *
+         * @param maxInFlightBatches
+         *         maximum number of batches in flight, or {@code 0} for no limit
+         *
+         * @return this builder
+         */
+        Builder maxInFlightBatches(int maxInFlightBatches);
+
+        /**
+         * Sets the spool to which events are appended, instead of being buffered in memory. Spooled events survive
+         * restarts and crashes, and are published again until their batch succeeds, with an increasing delay after
+         * each failed batch. The spool bounds the events instead of the queue {@link #capacity(int) capacity}, and at
+         * least one batch may be in flight. Defaults to {@code null}, which buffers events in memory.
+         *
+         * @param spoolBuilder
+         *         builder of the spool opened on startup, or {@code null} to buffer events in memory
+         *
+         * @return this builder
+         */
+        Builder spool(AuditSpool.Builder spoolBuilder);
+
         /**
          * Constructs a new {@link BatchPublisher}.
          *
@@ -339,6 +434,8 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         private int averagePerEventPayloadSize;
         private Duration writeInterval;
         private boolean autoFlush;
+        private int maxInFlightBatches;
+        private AuditSpool.Builder spoolBuilder;
 
         private BuilderImpl(final BatchConsumer batchConsumer) {
             Reject.ifNull(batchConsumer, "batchConsumer must not be null");
@@ -380,8 +477,24 @@ public final class BufferedBatchPublisher implements BatchPublisher {
             return this;
         }
 
+        @Override
+        public Builder maxInFlightBatches(final int maxInFlightBatches) {
+            this.maxInFlightBatches = max(maxInFlightBatches, 0);
+            return this;
+        }
+
+        @Override
+        public Builder spool(final AuditSpool.Builder spoolBuilder) {
+            this.spoolBuilder = spoolBuilder;
+            return this;
+        }
+
         @Override
         public BatchPublisher build() {
+            if (spoolBuilder != null) {
+                return new SpooledBatchPublisher(spoolBuilder, batchConsumer, maxBatchedEvents,
+                        averagePerEventPayloadSize, writeInterval, autoFlush, maxInFlightBatches);
+            }
             return new BufferedBatchPublisher(this);
         }
 
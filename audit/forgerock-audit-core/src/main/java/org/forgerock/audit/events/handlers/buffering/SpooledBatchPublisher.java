@@ -0,0 +1,356 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.events.handlers.buffering;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.audit.spool.AuditSpool;
+import org.forgerock.audit.spool.SpoolBatch;
+import org.forgerock.json.JsonValue;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.ResultHandler;
+import org.forgerock.util.promise.RuntimeExceptionHandler;
+import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Spools audit events to a durable {@link AuditSpool}, periodically publishing the spooled events to a provided
+ * {@link BatchConsumer}. Offering an event only appends it to the spool, so that a slow or unavailable remote service
+ * does not block the callers, and the events which have not been published are replayed after a restart or a crash.
+ * If the spool becomes full, further events are dropped until published events have been removed from the spool.
+ * <p>
+ * Each write interval publishes batches until the spool is empty or {@code maxInFlightBatches} batches are waiting
+ * for their promise to complete. Batches are committed to the spool in order, once they and all the previous batches
+ * have been published. When a batch fails, the uncommitted events are published again after a delay, doubling on
+ * each consecutive failure, so events are delivered at least once, possibly more than once.
+ */
+final class SpooledBatchPublisher implements BatchPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpooledBatchPublisher.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final long MIN_RETRY_DELAY_MILLIS = 100L;
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30L);
+
+    private final AuditSpool.Builder spoolBuilder;
+    private final BatchConsumer batchConsumer;
+    private final int maxBatchedEvents;
+    private final int averagePerEventPayloadSize;
+    private final Duration writeInterval;
+    private final boolean flushOnShutdown;
+    private final int maxInFlightBatches;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger inFlightBatches = new AtomicInteger();
+
+    private volatile AuditSpool spool;
+    private volatile boolean shutdown;
+
+    /** Only accessed by the thread of the scheduler, then by the thread shutting down. */
+    private final Deque<SpooledBatch> pendingBatches = new ArrayDeque<>();
+    private int consecutiveFailures;
+    private long retryTime;
+
+    SpooledBatchPublisher(final AuditSpool.Builder spoolBuilder, final BatchConsumer batchConsumer,
+            final int maxBatchedEvents, final int averagePerEventPayloadSize, final Duration writeInterval,
+            final boolean flushOnShutdown, final int maxInFlightBatches) {
+        this.spoolBuilder = spoolBuilder;
+        this.batchConsumer = batchConsumer;
+        this.maxBatchedEvents = maxBatchedEvents;
+        this.averagePerEventPayloadSize = averagePerEventPayloadSize;
+        this.writeInterval = writeInterval;
+        this.flushOnShutdown = flushOnShutdown;
+        this.maxInFlightBatches = Math.max(maxInFlightBatches, 1);
+        scheduler = Executors.newScheduledThreadPool(1);
+    }
+
+    /**
+     * Opens the spool, and starts periodically publishing the spooled events, beginning with those which were not
+     * published before the spool was last closed.
+     *
+     * @throws IllegalStateException
+     *         if the spool could not be opened
+     */
+    @Override
+    public void startup() {
+        try {
+            spool = spoolBuilder.build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open the audit spool", e);
+        }
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (System.currentTimeMillis() >= retryTime) {
+                        publishBatches();
+                    }
+                } catch (Exception e) {
+                    logger.error("Unable to publish spooled audit events", e);
+                }
+            }
+        }, 0, writeInterval.to(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops publishing the spooled events, and closes the spool. When {@code autoFlush} is enabled, first publishes
+     * the spooled events until the spool is empty or a batch fails. The events which are not published are replayed
+     * once the spool is reopened.
+     */
+    @Override
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        scheduler.shutdown();
+        boolean interrupted = false;
+        while (!scheduler.isTerminated()) {
+            try {
+                scheduler.awaitTermination(1L, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (spool != null) {
+            try {
+                if (flushOnShutdown && consecutiveFailures == 0) {
+                    while (publishBatches() && consecutiveFailures == 0) {
+                        // wait for a batch to complete, or for the last batches once the spool is fully polled
+                        awaitInFlightBatches(inFlightBatches.get() >= maxInFlightBatches ? maxInFlightBatches - 1 : 0);
+                    }
+                }
+                awaitInFlightBatches(0);
+                commitPublishedBatches();
+            } catch (Exception e) {
+                logger.error("Unable to flush spooled audit events, they will be published after restart", e);
+            }
+            try {
+                spool.close();
+            } catch (IOException e) {
+                logger.error("Unable to close the audit spool", e);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Appends an event to the spool.
+     *
+     * @param topic
+     *         Event topic
+     * @param event
+     *         Event payload to index, where {@code _id} field is the identifier
+     *
+     * @return {@code true} if the event was appended to the spool, or {@code false} if the spool is full, or not
+     *         opened
+     */
+    @Override
+    public boolean offer(final String topic, final JsonValue event) {
+        final AuditSpool spool = this.spool;
+        if (spool == null) {
+            return false;
+        }
+        try {
+            return spool.append(encode(topic, event));
+        } catch (ClosedChannelException e) {
+            return false;
+        } catch (IOException e) {
+            logger.error("Unable to spool audit event", e);
+            return false;
+        }
+    }
+
+    /**
+     * Publishes batches of spooled events until the spool is empty, the maximum number of in-flight batches is
+     * reached, or a batch fails.
+     *
+     * @return {@code true} if there may be events left to publish
+     */
+    private boolean publishBatches() throws IOException {
+        final StringBuilder payload = new StringBuilder(maxBatchedEvents * averagePerEventPayloadSize);
+        while (commitPublishedBatches()) {
+            if (inFlightBatches.get() >= maxInFlightBatches) {
+                return true;
+            }
+            final SpoolBatch batch = spool.poll(maxBatchedEvents);
+            if (batch.isEmpty()) {
+                return !pendingBatches.isEmpty();
+            }
+            payload.setLength(0);
+            for (final byte[] record : batch.getRecords()) {
+                try {
+                    final ByteBuffer buffer = ByteBuffer.wrap(record);
+                    final byte[] topic = new byte[buffer.getShort()];
+                    buffer.get(topic);
+                    final JsonValue event = new JsonValue(MAPPER.readValue(record, buffer.position(),
+                            buffer.remaining(), Object.class));
+                    batchConsumer.addToBatch(new String(topic, UTF_8), event, payload);
+                } catch (Exception e) {
+                    logger.error("addToBatch failed", e);
+                }
+            }
+            final SpooledBatch spooledBatch = new SpooledBatch(batch);
+            pendingBatches.add(spooledBatch);
+            if (payload.length() == 0) {
+                spooledBatch.state = SpooledBatch.SUCCEEDED;
+                continue;
+            }
+            inFlightBatches.incrementAndGet();
+            try {
+                publish(payload.toString(), spooledBatch);
+            } catch (RuntimeException e) {
+                logger.error("publishBatch failed, spooled events will be published again", e);
+                spooledBatch.completed(false);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the payload of a batch, which is completed once its promise completes.
+     *
+     * @param payload
+     *         Batch payload
+     * @param spooledBatch
+     *         Batch of the spooled events in the payload
+     */
+    private void publish(final String payload, final SpooledBatch spooledBatch) {
+        batchConsumer.publishBatch(payload)
+                .thenOnResult(new ResultHandler<Void>() {
+                    @Override
+                    public void handleResult(final Void result) {
+                        spooledBatch.completed(true);
+                    }
+                })
+                .thenOnException(new ExceptionHandler<BatchException>() {
+                    @Override
+                    public void handleException(final BatchException e) {
+                        logger.error("publishBatch failed, spooled events will be published again", e);
+                        spooledBatch.completed(false);
+                    }
+                })
+                .thenOnRuntimeException(new RuntimeExceptionHandler() {
+                    @Override
+                    public void handleRuntimeException(final RuntimeException e) {
+                        logger.error("publishBatch failed, spooled events will be published again", e);
+                        spooledBatch.completed(false);
+                    }
+                });
+    }
+
+    /**
+     * Commits the published batches which follow the last committed batch. If a batch failed, waits for the batches
+     * in flight and rewinds the spool, to publish the uncommitted events again after the retry delay.
+     *
+     * @return {@code false} if a batch failed
+     */
+    private boolean commitPublishedBatches() throws IOException {
+        SpooledBatch lastPublished = null;
+        while (!pendingBatches.isEmpty() && pendingBatches.peek().state == SpooledBatch.SUCCEEDED) {
+            lastPublished = pendingBatches.poll();
+        }
+        if (lastPublished != null) {
+            spool.commit(lastPublished.batch);
+            consecutiveFailures = 0;
+        }
+        if (pendingBatches.isEmpty() || pendingBatches.peek().state != SpooledBatch.FAILED) {
+            return true;
+        }
+        awaitInFlightBatches(0);
+        pendingBatches.clear();
+        spool.rewind();
+        final long delay = Math.min(MIN_RETRY_DELAY_MILLIS << Math.min(consecutiveFailures, 20),
+                MAX_RETRY_DELAY_MILLIS);
+        consecutiveFailures++;
+        retryTime = System.currentTimeMillis() + delay;
+        return false;
+    }
+
+    /**
+     * Blocks, in a non-cancelable way, until at most the provided number of batches are in flight.
+     *
+     * @param maxBatches
+     *         Number of in-flight batches to wait for
+     */
+    private void awaitInFlightBatches(final int maxBatches) {
+        boolean interrupted = false;
+        synchronized (inFlightBatches) {
+            while (inFlightBatches.get() > maxBatches) {
+                try {
+                    inFlightBatches.wait(TimeUnit.SECONDS.toMillis(1L));
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encodes a spool record as the length of the topic, the topic, and the event, in UTF-8.
+     */
+    private static byte[] encode(final String topic, final JsonValue event) throws IOException {
+        final byte[] topicBytes = topic.getBytes(UTF_8);
+        final byte[] eventBytes = MAPPER.writeValueAsBytes(event.getObject());
+        return ByteBuffer.allocate(2 + topicBytes.length + eventBytes.length)
+                .putShort((short) topicBytes.length)
+                .put(topicBytes)
+                .put(eventBytes)
+                .array();
+    }
+
+    /**
+     * A batch polled from the spool, committed once it and all the previous batches have been published.
+     */
+    private final class SpooledBatch {
+
+        private static final int IN_FLIGHT = 0;
+        private static final int SUCCEEDED = 1;
+        private static final int FAILED = 2;
+
+        private final SpoolBatch batch;
+        private volatile int state = IN_FLIGHT;
+
+        private SpooledBatch(final SpoolBatch batch) {
+            this.batch = batch;
+        }
+
+        private void completed(final boolean succeeded) {
+            state = succeeded ? SUCCEEDED : FAILED;
+            synchronized (inFlightBatches) {
+                inFlightBatches.decrementAndGet();
+                inFlightBatches.notifyAll();
+            }
+        }
+    }
+}
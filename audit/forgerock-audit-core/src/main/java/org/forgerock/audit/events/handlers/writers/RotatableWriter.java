@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.events.handlers.writers;
@@ -35,6 +36,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 
 import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration;
+import org.forgerock.audit.retention.ArchiveCompressor;
+import org.forgerock.audit.retention.ArchiveIndex;
 import org.forgerock.audit.retention.FileNamingPolicy;
 import org.forgerock.audit.retention.RetentionPolicy;
 import org.forgerock.audit.rotation.RotatableObject;
@@ -58,7 +61,8 @@ public class RotatableWriter implements TextWriter, RotatableObject {
 
     private final List<RotationPolicy> rotationPolicies;
     private final List<RetentionPolicy> retentionPolicies;
-    private final FileNamingPolicy fileNamingPolicy;
+    private final ArchiveIndex archiveIndex;
+    private final ArchiveCompressor archiveCompressor;
     private ScheduledExecutorService rotator;
     private DateTime lastRotationTime;
     private final boolean rotationEnabled;
@@ -116,7 +120,7 @@ public class RotatableWriter implements TextWriter, RotatableObject {
             final boolean append, final FileNamingPolicy fileNamingPolicy,
             final RolloverLifecycleHook rolloverLifecycleHook) throws IOException {
         this.file = file;
-        this.fileNamingPolicy = fileNamingPolicy;
+        this.archiveIndex = ArchiveIndex.of(fileNamingPolicy);
         this.rotationEnabled = configuration.getFileRotation().isRotationEnabled();
         final long lastModified = file.lastModified();
         this.lastRotationTime = lastModified > 0
@@ -126,6 +130,9 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         this.writer = constructWriter(file, append);
         retentionPolicies = configuration.getFileRetention().buildRetentionPolicies();
         rotationPolicies = configuration.getFileRotation().buildRotationPolicies();
+        this.archiveCompressor = new ArchiveCompressor(archiveIndex,
+                configuration.getFileRotation().getRotationFileCompression());
+        archiveCompressor.compressArchives();
         scheduleRotationAndRetentionChecks(configuration);
     }
 
@@ -178,17 +185,17 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         boolean rotationHappened = false;
         RotationContext context = new RotationContext();
         context.setWriter(writer);
-        File currentFile = fileNamingPolicy.getInitialName();
+        File currentFile = archiveIndex.getInitialName();
         context.setInitialFile(currentFile);
         if (currentFile.exists()) {
-            File newFile = fileNamingPolicy.getNextName();
+            File newFile = archiveIndex.getNextName();
             context.setNextFile(newFile);
             rotationHooks.preRotationAction(context);
             writer.close();
             if (logger.isTraceEnabled()) {
                 logger.trace("Renaming {} to {}", currentFile.getAbsolutePath(), newFile.getAbsolutePath());
             }
-            if (currentFile.renameTo(newFile)) {
+            if (archive(newFile)) {
                 rotationHappened = true;
                 if (currentFile.createNewFile()) {
                     writer = constructWriter(currentFile, true);
@@ -204,14 +211,27 @@ public class RotatableWriter implements TextWriter, RotatableObject {
                 writer = constructWriter(currentFile, true);
             }
             lastRotationTime = DateTime.now(DateTimeZone.UTC);
+            if (rotationHappened) {
+                archiveCompressor.compress(newFile);
+            }
         }
         return rotationHappened;
     }
 
+    private boolean archive(final File newFile) {
+        try {
+            archiveIndex.archive(newFile);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Unable to move {} to {}", file.getAbsolutePath(), newFile.getAbsolutePath(), e);
+            return false;
+        }
+    }
+
     private Set<File> checkRetention() throws IOException {
         Set<File> filesToDelete = new HashSet<>();
         for (RetentionPolicy retentionPolicy : retentionPolicies) {
-            filesToDelete.addAll(retentionPolicy.deleteFiles(fileNamingPolicy));
+            filesToDelete.addAll(retentionPolicy.deleteFiles(archiveIndex));
         }
         return filesToDelete;
     }
@@ -221,6 +241,7 @@ public class RotatableWriter implements TextWriter, RotatableObject {
             if (logger.isInfoEnabled()) {
                 logger.info("Deleting file {}", file.getAbsolutePath());
             }
+            archiveIndex.remove(file);
             if (!file.delete()) {
                 if (logger.isWarnEnabled()) {
                     logger.warn("Could not delete file {}", file.getAbsolutePath());
@@ -267,9 +288,19 @@ public class RotatableWriter implements TextWriter, RotatableObject {
                 }
             }
         }
+        archiveCompressor.close();
         writer.close();
     }
 
+    /**
+     * Gets the index of the files archived by this writer, which can be used to read them along with the current file.
+     *
+     * @return The index of the archived files.
+     */
+    public ArchiveIndex getArchiveIndex() {
+        return archiveIndex;
+    }
+
     @Override
     public void shutdown() {
         try {
@@ -358,13 +389,13 @@ public class RotatableWriter implements TextWriter, RotatableObject {
                                     rotateIfNeeded();
                                 } catch (Exception e) {
                                     logger.error("Failure when applying a rotation policy to file {}",
-                                            fileNamingPolicy.getInitialName(), e);
+                                            archiveIndex.getInitialName(), e);
                                 }
                                 try {
                                     deleteFilesIfNeeded();
                                 } catch (Exception e) {
                                     logger.error("Failure when applying a retention policy to file {}",
-                                            fileNamingPolicy.getInitialName(), e);
+                                            archiveIndex.getInitialName(), e);
                                 }
                             } finally {
                                 rolloverLifecycleHook.afterRollingOver();
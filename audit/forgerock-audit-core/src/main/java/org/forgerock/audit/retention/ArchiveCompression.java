@@ -0,0 +1,131 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.retention;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to audit files once they have been rotated. A compressed archive keeps the name it was rotated
+ * to, followed by the {@link #getExtension() extension} of its compression.
+ */
+public enum ArchiveCompression {
+    /** Rotated files are left uncompressed. */
+    NONE(""),
+    /** Rotated files are compressed in the gzip format. */
+    GZIP(".gz");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    ArchiveCompression(final String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the extension appended to the name of the files compressed this way.
+     *
+     * @return The extension, which is empty if files are not compressed.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Gets the file an archive is compressed to.
+     *
+     * @param archive The uncompressed archive.
+     * @return The compressed archive.
+     */
+    public File getCompressedFile(final File archive) {
+        return new File(archive.getPath() + extension);
+    }
+
+    /**
+     * Opens an archive compressed this way, returning a stream of its uncompressed content.
+     *
+     * @param archive The archive to read.
+     * @return The uncompressed content of the archive.
+     * @throws IOException If the archive cannot be opened.
+     */
+    public InputStream newInputStream(final File archive) throws IOException {
+        final InputStream inputStream = Files.newInputStream(archive.toPath());
+        if (this == NONE) {
+            return inputStream;
+        }
+        try {
+            return new GZIPInputStream(inputStream, BUFFER_SIZE);
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates, or truncates, a file and returns a stream compressing the content written to it this way.
+     *
+     * @param file The file to write.
+     * @return The stream compressing the content written to the file.
+     * @throws IOException If the file cannot be created.
+     */
+    public OutputStream newOutputStream(final File file) throws IOException {
+        final OutputStream outputStream = Files.newOutputStream(file.toPath());
+        if (this == NONE) {
+            return outputStream;
+        }
+        try {
+            return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        } catch (IOException e) {
+            outputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the compression of an archive, from the extension of its name.
+     *
+     * @param archive An archive.
+     * @return The compression of the archive, {@link #NONE} if its name has no known compression extension.
+     */
+    public static ArchiveCompression of(final File archive) {
+        return of(archive.getName());
+    }
+
+    /**
+     * Removes the extension of a known compression from the name of an archive.
+     *
+     * @param fileName The name of an archive.
+     * @return The name the archive was rotated to, before being compressed.
+     */
+    public static String stripExtension(final String fileName) {
+        return fileName.substring(0, fileName.length() - of(fileName).extension.length());
+    }
+
+    private static ArchiveCompression of(final String fileName) {
+        for (final ArchiveCompression compression : values()) {
+            if (compression != NONE && fileName.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.retention;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compresses archived audit files in the background, on a dedicated low-priority thread, so that rotation does not
+ * delay the writing of audit events.
+ * <p>
+ * A file is compressed to a temporary file, which is then moved next to the archived file before the latter is
+ * deleted, and the {@link ArchiveIndex} is updated accordingly. Readers of the index can then open an archived file
+ * at any time, and its compressed copy once it is gone. Archives left uncompressed by a previous shutdown are
+ * compressed on {@link #compressArchives() startup}.
+ */
+public class ArchiveCompressor implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveCompressor.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    private final ArchiveIndex archiveIndex;
+    private final ArchiveCompression compression;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs an {@link ArchiveCompressor} of the files of an {@link ArchiveIndex}. The compression thread is only
+     * started if the files are to be compressed.
+     *
+     * @param archiveIndex The index of the archived files.
+     * @param compression The compression to apply to the archived files.
+     */
+    public ArchiveCompressor(final ArchiveIndex archiveIndex, final ArchiveCompression compression) {
+        this.archiveIndex = archiveIndex;
+        this.compression = compression;
+        if (compression == ArchiveCompression.NONE) {
+            executor = null;
+        } else {
+            final String threadName = "ArchiveCompressor-" + archiveIndex.getInitialName().getName();
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * Schedules the compression of all the archived files which are not compressed yet.
+     */
+    public void compressArchives() {
+        if (executor != null) {
+            for (final File archivedFile : archiveIndex.listFiles()) {
+                compress(archivedFile);
+            }
+        }
+    }
+
+    /**
+     * Schedules the compression of an archived file, unless it is already compressed.
+     *
+     * @param archivedFile The archived file, which must have been recorded in the index.
+     */
+    public void compress(final File archivedFile) {
+        if (executor != null && ArchiveCompression.of(archivedFile) == ArchiveCompression.NONE) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        compressNow(archivedFile);
+                    } catch (ClosedByInterruptException e) {
+                        logger.debug("Compression of {} interrupted by shutdown", archivedFile.getAbsolutePath());
+                    } catch (IOException e) {
+                        logger.error("Unable to compress the audit file {}", archivedFile.getAbsolutePath(), e);
+                    }
+                }
+            });
+        }
+    }
+
+    private void compressNow(final File archivedFile) throws IOException {
+        final long lastModified = archivedFile.lastModified();
+        final File compressedFile = compression.getCompressedFile(archivedFile);
+        final File temporaryFile = new File(compressedFile.getPath() + TEMPORARY_FILE_EXTENSION);
+        try (InputStream in = Files.newInputStream(archivedFile.toPath());
+             OutputStream out = compression.newOutputStream(temporaryFile)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (NoSuchFileException e) {
+            // deleted by a retention policy in the meantime
+            Files.deleteIfExists(temporaryFile.toPath());
+            return;
+        } catch (IOException e) {
+            Files.deleteIfExists(temporaryFile.toPath());
+            throw e;
+        }
+        // keep the rotation time, by which the archives are ordered when listed again
+        if (!temporaryFile.setLastModified(lastModified)) {
+            logger.debug("Unable to set the last modification time of {}", temporaryFile.getAbsolutePath());
+        }
+        move(temporaryFile.toPath(), compressedFile.toPath());
+        if (archiveIndex.replace(archivedFile, compressedFile)) {
+            Files.deleteIfExists(archivedFile.toPath());
+            logger.trace("Compressed {} to {}", archivedFile.getAbsolutePath(), compressedFile.getAbsolutePath());
+        } else {
+            // deleted by a retention policy in the meantime
+            Files.deleteIfExists(compressedFile.toPath());
+        }
+    }
+
+    private static void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Stops the compression thread, interrupting the compression in progress. Archives left uncompressed are
+     * compressed on the next startup.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            boolean interrupted = false;
+            executor.shutdownNow();
+            try {
+                while (!executor.awaitTermination(500, MILLISECONDS)) {
+                    logger.debug("Waiting to terminate the compression thread.");
+                }
+            } catch (InterruptedException ex) {
+                logger.error("Unable to terminate the compression thread", ex);
+                interrupted = true;
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
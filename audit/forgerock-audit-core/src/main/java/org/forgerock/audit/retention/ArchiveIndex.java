@@ -0,0 +1,299 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.retention;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A {@link FileNamingPolicy} keeping an index of the files archived by another policy, along with their sizes and
+ * last modification times, so that retention policies do not have to list and stat the archived files on every check.
+ * <p>
+ * The index is loaded from the delegate policy when first used, and is then maintained incrementally by the writer
+ * owning the archived files, which must record every file it {@link #archive(File) rotates}, compresses or
+ * {@link #remove(File) deletes}. Archives are kept in the order they were rotated, from oldest to newest.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ArchiveIndex implements FileNamingPolicy {
+
+    private final FileNamingPolicy fileNamingPolicy;
+    private final List<Archive> archives = new ArrayList<>();
+    private long totalSize;
+    private boolean loaded;
+
+    /**
+     * Constructs an {@link ArchiveIndex} of the files archived by the given {@link FileNamingPolicy}.
+     *
+     * @param fileNamingPolicy The policy naming, and initially listing, the archived files.
+     */
+    public ArchiveIndex(final FileNamingPolicy fileNamingPolicy) {
+        this.fileNamingPolicy = fileNamingPolicy;
+    }
+
+    /**
+     * Gets the index of the files archived by a {@link FileNamingPolicy}: the policy itself if it is already an index,
+     * or a new index listing its files otherwise.
+     *
+     * @param fileNamingPolicy A file naming policy.
+     * @return The index of the files archived by the policy.
+     */
+    public static ArchiveIndex of(final FileNamingPolicy fileNamingPolicy) {
+        return fileNamingPolicy instanceof ArchiveIndex
+                ? (ArchiveIndex) fileNamingPolicy
+                : new ArchiveIndex(fileNamingPolicy);
+    }
+
+    @Override
+    public File getInitialName() {
+        return fileNamingPolicy.getInitialName();
+    }
+
+    @Override
+    public File getNextName() {
+        return fileNamingPolicy.getNextName();
+    }
+
+    /**
+     * Lists the archived files from the index, sorted from oldest to newest.
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized List<File> listFiles() {
+        load();
+        final List<File> files = new LinkedList<>();
+        for (final Archive archive : archives) {
+            files.add(archive.file);
+        }
+        return files;
+    }
+
+    /**
+     * Gets the archives, sorted from oldest to newest.
+     *
+     * @return A snapshot of the archives.
+     */
+    public synchronized List<Archive> getArchives() {
+        load();
+        return new ArrayList<>(archives);
+    }
+
+    /**
+     * Gets the total size of the archives.
+     *
+     * @return The sum of the sizes of the archives in bytes.
+     */
+    public synchronized long getTotalSize() {
+        load();
+        return totalSize;
+    }
+
+    /**
+     * Moves the initial file to the given archive file, and records the new archive as the newest one.
+     *
+     * @param archivedFile The name to archive the initial file to, as given by {@link #getNextName()}.
+     * @throws IOException If the initial file cannot be moved.
+     */
+    public synchronized void archive(final File archivedFile) throws IOException {
+        load();
+        Files.move(getInitialName().toPath(), archivedFile.toPath());
+        add(new Archive(archivedFile));
+    }
+
+    /**
+     * Removes an archived file from the index, which is about to be deleted.
+     *
+     * @param archivedFile The archived file.
+     * @return {@code true} if the file was indexed.
+     */
+    public synchronized boolean remove(final File archivedFile) {
+        load();
+        for (final Iterator<Archive> iterator = archives.iterator(); iterator.hasNext();) {
+            final Archive archive = iterator.next();
+            if (archive.file.equals(archivedFile)) {
+                iterator.remove();
+                totalSize -= archive.size;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces an archived file by its compressed copy, keeping its position in the index.
+     *
+     * @param archivedFile The archived file.
+     * @param compressedFile The compressed copy of the archived file.
+     * @return {@code true} if the archived file was indexed, {@code false} if it was removed in the meantime.
+     */
+    synchronized boolean replace(final File archivedFile, final File compressedFile) {
+        load();
+        for (int i = 0; i < archives.size(); i++) {
+            final Archive archive = archives.get(i);
+            if (archive.file.equals(archivedFile)) {
+                final Archive compressedArchive = new Archive(compressedFile);
+                archives.set(i, compressedArchive);
+                totalSize += compressedArchive.size - archive.size;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens the archived files, from oldest to newest, followed by the initial file they have been rotated from.
+     * <p>
+     * The initial file is opened, and the archives are listed, atomically with respect to {@link #archive(File)}, so
+     * that the content of a file being rotated concurrently is read exactly once. Archives are only opened when they
+     * are first read, transparently decompressing them, and are read as empty if deleted in the meantime.
+     *
+     * @return The streams of the archived files and of the initial file, if it exists, which must all be closed.
+     * @throws IOException If the initial file cannot be opened.
+     */
+    public synchronized List<InputStream> openArchivesAndInitialFile() throws IOException {
+        load();
+        final List<InputStream> inputStreams = new ArrayList<>(archives.size() + 1);
+        for (final Archive archive : archives) {
+            inputStreams.add(new ArchiveInputStream(archive.file));
+        }
+        try {
+            inputStreams.add(Files.newInputStream(getInitialName().toPath()));
+        } catch (NoSuchFileException e) {
+            // nothing has been written since the last rotation
+        }
+        return inputStreams;
+    }
+
+    private void add(final Archive archive) {
+        archives.add(archive);
+        totalSize += archive.size;
+    }
+
+    private void load() {
+        if (!loaded) {
+            for (final File file : fileNamingPolicy.listFiles()) {
+                add(new Archive(file));
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * An archived file, with the size and last modification time it had when it was indexed.
+     */
+    public static final class Archive {
+
+        private final File file;
+        private final long size;
+        private final long lastModified;
+
+        private Archive(final File file) {
+            this.file = file;
+            this.size = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        /**
+         * Gets the archived file.
+         *
+         * @return The archived file.
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the size of the archived file.
+         *
+         * @return The size of the archived file in bytes.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the last modification time of the archived file.
+         *
+         * @return The last modification time of the archived file, in milliseconds since the epoch.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Stream of the uncompressed content of an archived file, which is opened on first read. If the file has been
+     * compressed since it was listed, its compressed copy is read instead.
+     */
+    private static final class ArchiveInputStream extends InputStream {
+
+        private static final InputStream EMPTY = new InputStream() {
+            @Override
+            public int read() {
+                return -1;
+            }
+        };
+
+        private final File archivedFile;
+        private InputStream delegate;
+
+        private ArchiveInputStream(final File archivedFile) {
+            this.archivedFile = archivedFile;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return open().read();
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            return open().read(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+            delegate = EMPTY;
+        }
+
+        private InputStream open() throws IOException {
+            if (delegate == null) {
+                delegate = EMPTY;
+                for (final ArchiveCompression compression : ArchiveCompression.values()) {
+                    final File file = compression.getCompressedFile(archivedFile);
+                    try {
+                        delegate = ArchiveCompression.of(file).newInputStream(file);
+                        break;
+                    } catch (NoSuchFileException | FileNotFoundException e) {
+                        // compressed or deleted in the meantime
+                    }
+                }
+            }
+            return delegate;
+        }
+    }
+}
@@ -12,23 +12,22 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.retention;
 
 import java.io.File;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.forgerock.audit.util.LastModifiedTimeFileComparator;
+import org.forgerock.audit.retention.ArchiveIndex.Archive;
 
 /**
  * A {@link RetentionPolicy} that will retain/delete log files based off the total disk space used.
  */
 public class DiskSpaceUsedRetentionPolicy implements RetentionPolicy {
     private final long maxDiskSpaceToUse;
-    private final Comparator<File> comparator = new LastModifiedTimeFileComparator();
 
     /**
      * Constructs a {@link DiskSpaceUsedRetentionPolicy} with a given maximum of disk space to use in bytes.
@@ -38,26 +37,25 @@ public class DiskSpaceUsedRetentionPolicy implements RetentionPolicy {
         this.maxDiskSpaceToUse = maxDiskSpaceToUse;
     }
 
+    /**
+     * Lists the oldest archived files to delete, using the sizes recorded by the {@link ArchiveIndex} of the policy.
+     * {@inheritDoc}
+     */
     @Override
     public List<File> deleteFiles(FileNamingPolicy fileNamingPolicy) {
-        final List<File> archivedFiles = fileNamingPolicy.listFiles();
-        long currentDiskSpaceUsed = 0L;
-        for (final File file: archivedFiles) {
-            currentDiskSpaceUsed += file.length();
-        }
-
+        final ArchiveIndex archiveIndex = ArchiveIndex.of(fileNamingPolicy);
+        final long currentDiskSpaceUsed = archiveIndex.getTotalSize();
         if (currentDiskSpaceUsed <= maxDiskSpaceToUse) {
             return Collections.emptyList();
         }
 
         final long freeSpaceNeeded = currentDiskSpaceUsed - maxDiskSpaceToUse;
-        Collections.sort(archivedFiles, comparator);
 
         long freedSpace = 0L;
         List<File> filesToDelete = new LinkedList<>();
-        for (File file : archivedFiles) {
-            filesToDelete.add(file);
-            freedSpace += file.length();
+        for (Archive archive : archiveIndex.getArchives()) {
+            filesToDelete.add(archive.getFile());
+            freedSpace += archive.getSize();
             if (freedSpace >= freeSpaceNeeded) {
                 break;
             }
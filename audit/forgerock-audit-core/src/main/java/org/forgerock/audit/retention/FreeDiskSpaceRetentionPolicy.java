@@ -12,16 +12,16 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.retention;
 
 import java.io.File;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.forgerock.audit.util.LastModifiedTimeFileComparator;
+import org.forgerock.audit.retention.ArchiveIndex.Archive;
 
 /**
  * A {@link RetentionPolicy} that will retain/delete log files given a minimum amount of disk space the file system
@@ -30,7 +30,6 @@ import org.forgerock.audit.util.LastModifiedTimeFileComparator;
 public class FreeDiskSpaceRetentionPolicy implements RetentionPolicy {
 
     private final long minFreeSpaceRequired;
-    private final Comparator<File> comparator = new LastModifiedTimeFileComparator();
 
     /**
      * Constructs a {@link FreeDiskSpaceRetentionPolicy} given a minimum amount of disk space the file system must
@@ -41,27 +40,29 @@ public class FreeDiskSpaceRetentionPolicy implements RetentionPolicy {
         this.minFreeSpaceRequired = minFreeSpaceRequired;
     }
 
+    /**
+     * Lists the oldest archived files to delete, using the sizes recorded by the {@link ArchiveIndex} of the policy.
+     * {@inheritDoc}
+     */
     @Override
     public List<File> deleteFiles(FileNamingPolicy fileNamingPolicy) {
-        final List<File> archivedFiles = fileNamingPolicy.listFiles();
-        if (archivedFiles.isEmpty()) {
+        final List<Archive> archives = ArchiveIndex.of(fileNamingPolicy).getArchives();
+        if (archives.isEmpty()) {
             return Collections.emptyList();
         }
 
-        final long freeSpace = archivedFiles.get(0).getUsableSpace();
+        final long freeSpace = archives.get(0).getFile().getUsableSpace();
         if (freeSpace >= minFreeSpaceRequired) {
             return Collections.emptyList();
         }
 
         final long freeSpaceNeeded = minFreeSpaceRequired - freeSpace;
 
-        Collections.sort(archivedFiles, comparator);
-
         long freedSpace = 0L;
         List<File> filesToDelete = new LinkedList<>();
-        for (File file : archivedFiles) {
-            filesToDelete.add(file);
-            freedSpace += file.length();
+        for (Archive archive : archives) {
+            filesToDelete.add(archive.getFile());
+            freedSpace += archive.getSize();
             if (freedSpace >= freeSpaceNeeded) {
                 break;
             }
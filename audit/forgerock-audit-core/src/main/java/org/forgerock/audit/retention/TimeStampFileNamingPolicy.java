@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.retention;
 
@@ -104,7 +105,7 @@ public class TimeStampFileNamingPolicy implements FileNamingPolicy {
         }
 
         Path newFilePath = path.resolveSibling(newFileName.toString());
-        if (Files.exists(newFilePath)) {
+        if (archiveExists(newFilePath)) {
             // prevent filename collision with unique suffix
             newFileName.append('.').append(collisionCounter.incrementAndGet());
             newFilePath = path.resolveSibling(newFileName.toString());
@@ -112,6 +113,15 @@ public class TimeStampFileNamingPolicy implements FileNamingPolicy {
         return newFilePath.toFile();
     }
 
+    private static boolean archiveExists(final Path archivePath) {
+        for (final ArchiveCompression compression : ArchiveCompression.values()) {
+            if (Files.exists(archivePath.resolveSibling(archivePath.getFileName() + compression.getExtension()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * List the files in the initial file directory that match the prefix, name and suffix format.
      * {@inheritDoc}
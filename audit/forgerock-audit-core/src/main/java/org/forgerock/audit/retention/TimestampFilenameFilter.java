@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.retention;
 
@@ -22,7 +23,7 @@ import org.joda.time.format.DateTimeFormatter;
 
 /**
  * A {@link FilenameFilter} that matches historical log files. The {@link FilenameFilter} matches a filename with a
- * given prefix, filename and timestamp.
+ * given prefix, filename and timestamp, optionally followed by the extension of an {@link ArchiveCompression}.
  */
 public class TimestampFilenameFilter implements FilenameFilter {
 
@@ -50,7 +51,8 @@ public class TimestampFilenameFilter implements FilenameFilter {
     public boolean accept(final File dir, final String fileName) {
         return fileName.length() > fileNameTemplate.length()
                 && fileName.startsWith(fileNameTemplate)
-                && suffixMatchesDateFormat(fileName.substring(fileNameTemplate.length()));
+                && suffixMatchesDateFormat(
+                        ArchiveCompression.stripExtension(fileName.substring(fileNameTemplate.length())));
     }
 
     private boolean suffixMatchesDateFormat(final String timestamp) {
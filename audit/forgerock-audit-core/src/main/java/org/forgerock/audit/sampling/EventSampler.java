@@ -0,0 +1,150 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.sampling;
+
+import static org.forgerock.audit.util.JsonValueUtils.JSONVALUE_FILTER_VISITOR;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.QueryFilters;
+import org.forgerock.util.Reject;
+import org.forgerock.util.annotations.VisibleForTesting;
+import org.forgerock.util.query.QueryFilter;
+
+/**
+ * Decides which events of a topic are published to a handler, according to a {@link SamplingPolicy}, and keeps
+ * {@link SamplingStatistics statistics} of its decisions. Each handler and topic has its own sampler, so that a
+ * handler with a low rate limit does not reduce the events published to the other handlers.
+ * <p>
+ * The token bucket is implemented with the generic cell rate algorithm: rather than a number of tokens refilled over
+ * time, it keeps the theoretical time at which the next event would be published if events arrived at exactly the
+ * maximum rate, and publishes an event if that time is no later than the burst allows. This keeps the whole state of
+ * the bucket in a single {@link AtomicLong}, updated without locking by the threads publishing events.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class EventSampler {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<QueryFilter<JsonPointer>> alwaysKeep;
+    private final double sampleRate;
+    /** Interval between two events published at the maximum rate, or {@code 0} if the rate is not limited. */
+    private final long emissionIntervalNanos;
+    /** How far the theoretical arrival time can be ahead of the current time, to allow bursts. */
+    private final long burstToleranceNanos;
+    /** Theoretical arrival time of the next event, if events were published at the maximum rate. */
+    private final AtomicLong theoreticalArrivalNanos;
+    private final SamplingStatistics statistics = new SamplingStatistics();
+
+    /**
+     * Creates a sampler applying the given policy.
+     *
+     * @param policy the sampling policy
+     * @throws IllegalArgumentException if the sample rate is not between {@code 0.0} and {@code 1.0}, if the maximum
+     *         number of events per second or in a burst is negative, or if an always-keep filter cannot be parsed
+     */
+    public EventSampler(SamplingPolicy policy) {
+        this(policy, System.nanoTime());
+    }
+
+    @VisibleForTesting
+    EventSampler(SamplingPolicy policy, long nowNanos) {
+        Reject.ifNull(policy);
+        Reject.ifFalse(policy.getSampleRate() >= 0.0 && policy.getSampleRate() <= 1.0,
+                "The sample rate must be between 0.0 and 1.0");
+        Reject.ifTrue(policy.getMaxEventsPerSecond() < 0, "The maximum number of events per second is negative");
+        Reject.ifTrue(policy.getMaxBurstEvents() < 0, "The maximum number of events in a burst is negative");
+        alwaysKeep = new ArrayList<>(policy.getAlwaysKeep().size());
+        for (final String filter : policy.getAlwaysKeep()) {
+            alwaysKeep.add(QueryFilters.parse(filter));
+        }
+        sampleRate = policy.getSampleRate();
+        if (policy.getMaxEventsPerSecond() > 0) {
+            final int maxBurstEvents = policy.getMaxBurstEvents() > 0
+                    ? policy.getMaxBurstEvents()
+                    : policy.getMaxEventsPerSecond();
+            emissionIntervalNanos = Math.max(NANOS_PER_SECOND / policy.getMaxEventsPerSecond(), 1);
+            burstToleranceNanos = emissionIntervalNanos * (maxBurstEvents - 1);
+        } else {
+            emissionIntervalNanos = 0;
+            burstToleranceNanos = 0;
+        }
+        theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Decides whether the given event should be published to the handler, and counts the decision in the statistics.
+     *
+     * @param event the audit event
+     * @return {@code true} if the event should be published, {@code false} if it should be dropped
+     */
+    public boolean accept(JsonValue event) {
+        return accept(event, System.nanoTime());
+    }
+
+    @VisibleForTesting
+    boolean accept(JsonValue event, long nowNanos) {
+        for (final QueryFilter<JsonPointer> filter : alwaysKeep) {
+            if (filter.accept(JSONVALUE_FILTER_VISITOR, event)) {
+                statistics.eventAlwaysKept();
+                return true;
+            }
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            statistics.eventSampledOut();
+            return false;
+        }
+        if (emissionIntervalNanos > 0 && !tryAcquire(nowNanos)) {
+            statistics.eventRateLimited();
+            return false;
+        }
+        statistics.eventKept();
+        return true;
+    }
+
+    /**
+     * Takes a token from the bucket, if one is available at the given time.
+     */
+    private boolean tryAcquire(long nowNanos) {
+        while (true) {
+            final long arrival = theoreticalArrivalNanos.get();
+            // compare differences rather than values, as System.nanoTime() may overflow
+            final long start = arrival - nowNanos > 0 ? arrival : nowNanos;
+            if (start - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the events sampled.
+     *
+     * @return the statistics of the events sampled
+     */
+    public SamplingStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.sampling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import org.forgerock.util.query.QueryFilter;
+
+/**
+ * Configures how the events of a topic are sampled and rate-limited before being published to a handler. The policy
+ * is applied in this order:
+ * <ol>
+ *     <li>events matching any of the {@code alwaysKeep} {@link QueryFilter query filters} are always published;</li>
+ *     <li>the other events are published with the probability {@code sampleRate};</li>
+ *     <li>the sampled events are then published at most at {@code maxEventsPerSecond}, with bursts of up to
+ *     {@code maxBurstEvents} events, as allowed by a token bucket.</li>
+ * </ol>
+ * The events which are not published are counted in {@link SamplingStatistics}.
+ * <p>
+ * The following is an example SamplingPolicy in json format, publishing a tenth of the successful events, at most
+ * 100 per second, and all the failed events.
+ * <pre>
+ *     {
+ *         "sampleRate" : 0.1,
+ *         "maxEventsPerSecond" : 100,
+ *         "alwaysKeep" : [
+ *             "/response/status eq \"FAILED\""
+ *         ]
+ *     }
+ * </pre>
+ */
+public class SamplingPolicy {
+
+    @JsonPropertyDescription("audit.sampling.policy.sampleRate")
+    private double sampleRate = 1.0;
+
+    @JsonPropertyDescription("audit.sampling.policy.maxEventsPerSecond")
+    private int maxEventsPerSecond;
+
+    @JsonPropertyDescription("audit.sampling.policy.maxBurstEvents")
+    private int maxBurstEvents;
+
+    @JsonPropertyDescription("audit.sampling.policy.alwaysKeep")
+    private List<String> alwaysKeep;
+
+    /**
+     * Gets the probability with which an event is published, between {@code 0.0} and {@code 1.0} (default).
+     *
+     * @return the sample rate
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets the probability with which an event is published, between {@code 0.0} and {@code 1.0} (default).
+     *
+     * @param sampleRate the sample rate
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Gets the maximum number of events published per second, or {@code 0} (default) for no limit.
+     *
+     * @return the maximum number of events per second
+     */
+    public int getMaxEventsPerSecond() {
+        return maxEventsPerSecond;
+    }
+
+    /**
+     * Sets the maximum number of events published per second, or {@code 0} (default) for no limit.
+     *
+     * @param maxEventsPerSecond the maximum number of events per second
+     */
+    public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    /**
+     * Gets the maximum number of events published in a burst, above the rate of {@link #getMaxEventsPerSecond()},
+     * or {@code 0} (default) to allow bursts of one second of events.
+     *
+     * @return the maximum number of events in a burst
+     */
+    public int getMaxBurstEvents() {
+        return maxBurstEvents;
+    }
+
+    /**
+     * Sets the maximum number of events published in a burst, above the rate of {@link #getMaxEventsPerSecond()},
+     * or {@code 0} (default) to allow bursts of one second of events.
+     *
+     * @param maxBurstEvents the maximum number of events in a burst
+     */
+    public void setMaxBurstEvents(int maxBurstEvents) {
+        this.maxBurstEvents = maxBurstEvents;
+    }
+
+    /**
+     * Gets the {@link QueryFilter query filters} of the events which are always published, regardless of the sample
+     * rate and of the maximum number of events per second.
+     *
+     * @return the list of query filter expressions
+     */
+    public List<String> getAlwaysKeep() {
+        return alwaysKeep == null ? Collections.<String>emptyList() : alwaysKeep;
+    }
+
+    /**
+     * Sets the {@link QueryFilter query filters} of the events which are always published, regardless of the sample
+     * rate and of the maximum number of events per second.
+     *
+     * @param alwaysKeep the list of query filter expressions
+     */
+    public void setAlwaysKeep(Collection<String> alwaysKeep) {
+        this.alwaysKeep = new ArrayList<>(alwaysKeep);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.sampling;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the events of a topic sampled by an {@link EventSampler} for a handler, since the sampler was
+ * created. The statistics are updated as the events are published, and can be read from any thread.
+ */
+public final class SamplingStatistics {
+
+    private final LongAdder eventsKept = new LongAdder();
+    private final LongAdder eventsAlwaysKept = new LongAdder();
+    private final LongAdder eventsSampledOut = new LongAdder();
+    private final LongAdder eventsRateLimited = new LongAdder();
+
+    SamplingStatistics() {
+        // created by the sampler
+    }
+
+    void eventKept() {
+        eventsKept.increment();
+    }
+
+    void eventAlwaysKept() {
+        eventsKept.increment();
+        eventsAlwaysKept.increment();
+    }
+
+    void eventSampledOut() {
+        eventsSampledOut.increment();
+    }
+
+    void eventRateLimited() {
+        eventsRateLimited.increment();
+    }
+
+    /**
+     * Returns the number of events published to the handler, including the events always kept.
+     *
+     * @return the number of events kept
+     */
+    public long getEventsKept() {
+        return eventsKept.sum();
+    }
+
+    /**
+     * Returns the number of events published to the handler because they matched an always-keep filter.
+     *
+     * @return the number of events always kept
+     */
+    public long getEventsAlwaysKept() {
+        return eventsAlwaysKept.sum();
+    }
+
+    /**
+     * Returns the number of events dropped by probabilistic sampling.
+     *
+     * @return the number of events sampled out
+     */
+    public long getEventsSampledOut() {
+        return eventsSampledOut.sum();
+    }
+
+    /**
+     * Returns the number of events dropped because the maximum number of events per second was exceeded.
+     *
+     * @return the number of events rate-limited
+     */
+    public long getEventsRateLimited() {
+        return eventsRateLimited.sum();
+    }
+
+    /**
+     * Returns the number of events dropped, either by sampling or by rate-limiting.
+     *
+     * @return the number of events dropped
+     */
+    public long getEventsDropped() {
+        return getEventsSampledOut() + getEventsRateLimited();
+    }
+
+    @Override
+    public String toString() {
+        return "SamplingStatistics{eventsKept=" + getEventsKept()
+                + ", eventsAlwaysKept=" + getEventsAlwaysKept()
+                + ", eventsSampledOut=" + getEventsSampledOut()
+                + ", eventsRateLimited=" + getEventsRateLimited()
+                + "}";
+    }
+}
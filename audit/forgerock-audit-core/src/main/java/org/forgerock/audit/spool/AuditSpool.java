@@ -0,0 +1,776 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.spool;
+
+import static java.lang.Math.max;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.forgerock.util.Reject;
+import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A durable, append-only spool of records, which audit event handlers put in front of their remote publishers so that
+ * publishing an event only takes a write to a local file, whether the remote service is healthy, slow or down.
+ * <p>
+ * Records are appended to segment files of the spool directory, each record being framed by its length and its CRC-32
+ * checksum. A single consumer {@link #poll(int) polls} batches of records, and {@link #commit(SpoolBatch) commits} each
+ * batch once it has been published. The position of the last committed batch is saved to a checkpoint file, and the
+ * segments which only contain committed records are deleted. When the consumer fails to publish a batch, it
+ * {@link #rewind() rewinds} to the checkpoint to poll the uncommitted records again.
+ * <p>
+ * When a spool is opened, the records appended after the checkpoint are replayed, whether the previous spool was
+ * closed or the process crashed. A record which was being written during a crash is detected by its checksum, and
+ * the segment is truncated before it. The records which may be lost if the operating system crashes depend on the
+ * {@link FsyncPolicy}.
+ * <p>
+ * The spool is bounded by a {@link Builder#maxSize(long) maximum size}, including the committed records of segments
+ * which are not deleted yet. Once it is reached, records are rejected until committed segments have been deleted. As
+ * the segment being written can only be deleted once it has been rolled, it is rolled when a commit leaves all its
+ * records committed while the spool could not hold another full segment.
+ * <p>
+ * Appending is thread-safe. Polling, committing and rewinding are expected to be called by a single consumer thread.
+ * The spool directory must not be used by several spools at once.
+ */
+public final class AuditSpool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpool.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("segment-(\\d{20})\\.spool");
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String CHECKPOINT_TMP = "checkpoint.tmp";
+
+    /** Size of the frame header of each record: its length and its CRC-32 checksum. */
+    static final int RECORD_HEADER_SIZE = 8;
+    /** Size of the checkpoint file: the segment identifier, the offset, and their CRC-32 checksum. */
+    private static final int CHECKPOINT_SIZE = 20;
+    /** Initial size of the buffer through which records are read. */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long segmentSize;
+    private final long maxSize;
+    private final ScheduledExecutorService fsyncScheduler;
+
+    /** Identifiers of the segment files, in ascending order. */
+    private final NavigableSet<Long> segments = new ConcurrentSkipListSet<>();
+    /** Total size of the segment files. */
+    private final AtomicLong size = new AtomicLong();
+    /** Count of the records rejected because the spool was full. */
+    private final AtomicLong rejectedRecords = new AtomicLong();
+
+    /** Guards the state of the segment being written. */
+    private final Lock writeLock = new ReentrantLock();
+    private final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    private final CRC32 writeChecksum = new CRC32();
+    private FileChannel writeChannel;
+    private long writeSegmentId;
+    private long writeOffset;
+    private boolean unforced;
+    private boolean closed;
+    /** End of the last record written, published to the consumer. */
+    private volatile SpoolPosition writePosition;
+
+    /** Only accessed by the consumer thread. */
+    private final CRC32 readChecksum = new CRC32();
+    private SpoolPosition checkpoint;
+    private SpoolPosition readPosition;
+    private FileChannel readChannel;
+    private long readChannelSegmentId = -1;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    /** Segment and offset of the first byte in {@link #readBuffer}. */
+    private long readBufferSegmentId = -1;
+    private long readBufferOffset;
+
+    private AuditSpool(final BuilderImpl builder) throws IOException {
+        this.directory = builder.directory;
+        this.fsyncPolicy = builder.fsyncPolicy;
+        this.segmentSize = builder.segmentSize;
+        this.maxSize = builder.maxSize;
+        recover();
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            final long interval = builder.fsyncInterval.to(TimeUnit.MILLISECONDS);
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "AuditSpool-fsync");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            fsyncScheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    forceUnforced();
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            fsyncScheduler = null;
+        }
+    }
+
+    /**
+     * Appends a record to the spool. Unless the {@link FsyncPolicy#ALWAYS} policy is configured, this only writes
+     * the record to the operating system, which returns once it has copied the record to its cache.
+     *
+     * @param record
+     *         the record to append, which must not be modified until this method returns
+     *
+     * @return {@code true} if the record has been appended, or {@code false} if the spool is full
+     *
+     * @throws IOException
+     *         if the record could not be written, or the spool is closed
+     * @throws IllegalArgumentException
+     *         if the record is larger than a segment
+     */
+    public boolean append(final byte[] record) throws IOException {
+        final int frameLength = RECORD_HEADER_SIZE + record.length;
+        Reject.ifTrue(frameLength > segmentSize, "Record of " + record.length + " bytes larger than spool segments");
+        writeLock.lock();
+        try {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            if (size.get() + frameLength > maxSize) {
+                rejectedRecords.incrementAndGet();
+                return false;
+            }
+            if (writeOffset + frameLength > segmentSize) {
+                rollSegment();
+            }
+            writeChecksum.reset();
+            writeChecksum.update(record, 0, record.length);
+            recordHeader.clear();
+            recordHeader.putInt(record.length).putInt((int) writeChecksum.getValue()).flip();
+            final ByteBuffer[] frame = { recordHeader, ByteBuffer.wrap(record) };
+            try {
+                while (frame[1].hasRemaining()) {
+                    writeChannel.write(frame);
+                }
+                if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                    writeChannel.force(false);
+                }
+            } catch (IOException e) {
+                // do not leave a partial record, which would hide the records appended next
+                writeChannel.truncate(writeOffset);
+                writeChannel.position(writeOffset);
+                throw e;
+            }
+            writeOffset += frameLength;
+            size.addAndGet(frameLength);
+            unforced = fsyncPolicy == FsyncPolicy.INTERVAL;
+            writePosition = new SpoolPosition(writeSegmentId, writeOffset);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next records after those previously polled, without waiting for records to be appended.
+     *
+     * @param maxRecords
+     *         the maximum number of records to read
+     *
+     * @return the records read, which is empty if all records appended so far have been polled
+     *
+     * @throws IOException
+     *         if the records could not be read
+     */
+    public SpoolBatch poll(final int maxRecords) throws IOException {
+        final SpoolPosition end = writePosition;
+        final List<byte[]> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        long segmentId = readPosition.getSegmentId();
+        long offset = readPosition.getOffset();
+        while (records.size() < maxRecords && (segmentId < end.getSegmentId() || offset < end.getOffset())) {
+            final long segmentEnd = segmentId == end.getSegmentId() ? end.getOffset() : segmentLength(segmentId);
+            if (offset + RECORD_HEADER_SIZE > segmentEnd) {
+                // end of a full segment, whose successor has been created when it was rolled
+                final Long next = segments.higher(segmentId);
+                if (next == null || next > end.getSegmentId()) {
+                    break;
+                }
+                segmentId = next;
+                offset = 0;
+                continue;
+            }
+            final ByteBuffer header = readBuffer(segmentId, offset, RECORD_HEADER_SIZE, segmentEnd);
+            final int length = header.getInt();
+            final int checksum = header.getInt();
+            if (length < 0 || offset + RECORD_HEADER_SIZE + length > segmentEnd) {
+                logger.error("Skipping the remainder of spool segment {} after invalid record length {} at offset {}",
+                        segmentId, length, offset);
+                offset = segmentEnd;
+                continue;
+            }
+            final ByteBuffer data = readBuffer(segmentId, offset + RECORD_HEADER_SIZE, length, segmentEnd);
+            final byte[] record = new byte[length];
+            data.get(record);
+            readChecksum.reset();
+            readChecksum.update(record, 0, length);
+            if ((int) readChecksum.getValue() != checksum) {
+                logger.error("Skipping the remainder of spool segment {} after corrupt record at offset {}",
+                        segmentId, offset);
+                offset = segmentEnd;
+                continue;
+            }
+            records.add(record);
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        readPosition = new SpoolPosition(segmentId, offset);
+        return new SpoolBatch(records, readPosition);
+    }
+
+    /**
+     * Commits the records of a polled batch, and of the batches polled before it, which will not be replayed once
+     * the spool is reopened. Segments which only contain committed records are deleted.
+     *
+     * @param batch
+     *         the last batch of records to commit
+     *
+     * @throws IOException
+     *         if the checkpoint could not be saved
+     */
+    public void commit(final SpoolBatch batch) throws IOException {
+        SpoolPosition position = batch.getEnd();
+        if (position.compareTo(checkpoint) <= 0) {
+            return;
+        }
+        if (position.getOffset() > 0 && size.get() + segmentSize > maxSize) {
+            // otherwise the spool may be too full to accept the record which would roll the segment being written
+            position = rollFullyCommittedSegment(position);
+        }
+        writeCheckpoint(position);
+        checkpoint = position;
+        for (Long segmentId : new ArrayList<>(segments.headSet(position.getSegmentId()))) {
+            deleteSegment(segmentId);
+        }
+    }
+
+    /**
+     * Rewinds to the last committed batch, so that the next {@link #poll(int)} reads the uncommitted records again.
+     */
+    public void rewind() {
+        readPosition = checkpoint;
+    }
+
+    /**
+     * Returns whether all the appended records have been polled.
+     *
+     * @return {@code true} if {@link #poll(int)} would return an empty batch
+     *
+     * @throws IOException
+     *         if the length of the segment being read could not be read
+     */
+    public boolean isFullyPolled() throws IOException {
+        final SpoolPosition end = writePosition;
+        if (readPosition.compareTo(end) >= 0) {
+            return true;
+        }
+        // the read position may still be at the end of the previous segment
+        return readPosition.getSegmentId() < end.getSegmentId() && end.getOffset() == 0
+                && segments.subSet(readPosition.getSegmentId(), false, end.getSegmentId(), false).isEmpty()
+                && readPosition.getOffset() >= segmentLength(readPosition.getSegmentId());
+    }
+
+    /**
+     * Returns the total size of the segment files, in bytes.
+     *
+     * @return the size of the spool
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the count of records rejected by {@link #append(byte[])} because the spool was full.
+     *
+     * @return the count of rejected records
+     */
+    public long getRejectedRecords() {
+        return rejectedRecords.get();
+    }
+
+    /**
+     * Forces the appended records to the storage device, and closes the spool. Uncommitted records are replayed once
+     * the spool is reopened.
+     *
+     * @throws IOException
+     *         if the segment being written could not be forced or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (fsyncScheduler != null) {
+            fsyncScheduler.shutdownNow();
+        }
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                writeChannel.force(false);
+            } finally {
+                writeChannel.close();
+                closeReadChannel();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void forceUnforced() {
+        final FileChannel channel;
+        writeLock.lock();
+        try {
+            if (!unforced || closed) {
+                return;
+            }
+            unforced = false;
+            channel = writeChannel;
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            // forced outside of the lock so that appending is not delayed, the segment being forced when rolled
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // segment rolled or spool closed meanwhile, and forced then
+        } catch (IOException e) {
+            logger.error("Unable to force audit spool segment to the storage device", e);
+        }
+    }
+
+    /**
+     * Rolls the segment being written if all its records are committed by the given position, so that it can be
+     * deleted.
+     *
+     * @return the start of the next segment if the segment has been rolled, otherwise the given position
+     */
+    private SpoolPosition rollFullyCommittedSegment(final SpoolPosition position) throws IOException {
+        writeLock.lock();
+        try {
+            if (closed || !position.equals(writePosition)) {
+                return position;
+            }
+            rollSegment();
+            // all the records have been polled, as the batch ends with the last record written
+            readPosition = writePosition;
+            return writePosition;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        writeChannel.force(false);
+        writeChannel.close();
+        openWriteSegment(writeSegmentId + 1);
+    }
+
+    private void openWriteSegment(final long segmentId) throws IOException {
+        writeChannel = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        writeSegmentId = segmentId;
+        writeOffset = writeChannel.size();
+        writeChannel.position(writeOffset);
+        if (segments.add(segmentId)) {
+            forceDirectory();
+        }
+        writePosition = new SpoolPosition(writeSegmentId, writeOffset);
+    }
+
+    /**
+     * Returns a buffer positioned on the requested bytes of a segment, reading ahead up to the end of the segment.
+     */
+    private ByteBuffer readBuffer(final long segmentId, final long offset, final int length, final long segmentEnd)
+            throws IOException {
+        if (segmentId != readBufferSegmentId || offset < readBufferOffset
+                || offset + length > readBufferOffset + readBuffer.limit()) {
+            if (length > readBuffer.capacity()) {
+                readBuffer = ByteBuffer.allocate(length);
+            }
+            final FileChannel channel = readChannel(segmentId);
+            readBuffer.clear();
+            readBuffer.limit((int) Math.min(readBuffer.capacity(), segmentEnd - offset));
+            while (readBuffer.hasRemaining()) {
+                if (channel.read(readBuffer, offset + readBuffer.position()) < 0) {
+                    throw new IOException("Unexpected end of audit spool segment " + segmentId);
+                }
+            }
+            readBuffer.flip();
+            readBufferSegmentId = segmentId;
+            readBufferOffset = offset;
+        }
+        final ByteBuffer view = readBuffer.duplicate();
+        view.position((int) (offset - readBufferOffset));
+        view.limit(view.position() + length);
+        return view;
+    }
+
+    private FileChannel readChannel(final long segmentId) throws IOException {
+        if (segmentId != readChannelSegmentId) {
+            closeReadChannel();
+            readChannel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ);
+            readChannelSegmentId = segmentId;
+        }
+        return readChannel;
+    }
+
+    private void closeReadChannel() throws IOException {
+        if (readChannel != null) {
+            readChannel.close();
+            readChannel = null;
+            readChannelSegmentId = -1;
+            readBufferSegmentId = -1;
+        }
+    }
+
+    private long segmentLength(final long segmentId) throws IOException {
+        return Files.size(segmentPath(segmentId));
+    }
+
+    private void deleteSegment(final long segmentId) throws IOException {
+        if (segmentId == readChannelSegmentId) {
+            closeReadChannel();
+        }
+        final Path path = segmentPath(segmentId);
+        final long length = Files.size(path);
+        Files.delete(path);
+        segments.remove(segmentId);
+        size.addAndGet(-length);
+    }
+
+    private Path segmentPath(final long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Saves the checkpoint to a temporary file, which atomically replaces the previous checkpoint.
+     */
+    private void writeCheckpoint(final SpoolPosition position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        buffer.putLong(position.getSegmentId()).putLong(position.getOffset());
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), 0, 16);
+        buffer.putInt((int) checksum.getValue()).flip();
+        final Path tmp = directory.resolve(CHECKPOINT_TMP);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                channel.force(false);
+            }
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private SpoolPosition readCheckpoint() throws IOException {
+        final Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        final byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length == CHECKPOINT_SIZE) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            final CRC32 checksum = new CRC32();
+            checksum.update(bytes, 0, 16);
+            final SpoolPosition position = new SpoolPosition(buffer.getLong(), buffer.getLong());
+            if (buffer.getInt() == (int) checksum.getValue()) {
+                return position;
+            }
+        }
+        logger.warn("Ignoring corrupt audit spool checkpoint {}, replaying all the spooled records", path);
+        return null;
+    }
+
+    /**
+     * Lists the segments, truncates the uncommitted segments before any incomplete or corrupt record, and opens
+     * the last segment for writing.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(CHECKPOINT_TMP));
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path path : stream) {
+                final Matcher matcher = SEGMENT_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+
+        SpoolPosition position = readCheckpoint();
+        if (position != null && !segments.contains(position.getSegmentId())) {
+            logger.warn("Audit spool segment {} of the checkpoint is missing, replaying all the spooled records",
+                    position.getSegmentId());
+            position = null;
+        }
+        if (position == null) {
+            position = new SpoolPosition(segments.isEmpty() ? 1L : segments.first(), 0L);
+        }
+        for (Long segmentId : new ArrayList<>(segments.headSet(position.getSegmentId()))) {
+            // committed before a crash, but not deleted yet
+            Files.delete(segmentPath(segmentId));
+            segments.remove(segmentId);
+        }
+        for (Long segmentId : segments) {
+            final long length = truncateSegment(segmentId);
+            if (segmentId == position.getSegmentId() && position.getOffset() > length) {
+                logger.warn("Audit spool checkpoint beyond the end of segment {}", segmentId);
+                position = new SpoolPosition(segmentId, length);
+            }
+            size.addAndGet(length);
+        }
+        checkpoint = position;
+        readPosition = position;
+        openWriteSegment(segments.isEmpty() ? position.getSegmentId() : segments.last());
+        if (writeOffset > 0 || segments.size() > 1) {
+            logger.info("Replaying {} bytes of audit events from spool {}", size.get() - checkpoint.getOffset(),
+                    directory);
+        }
+    }
+
+    /**
+     * Validates the records of a segment, truncating it before the first incomplete or corrupt record.
+     *
+     * @return the length of the segment
+     */
+    private long truncateSegment(final long segmentId) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            final long length = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            ByteBuffer data = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            final CRC32 checksum = new CRC32();
+            long offset = 0;
+            while (offset < length) {
+                header.clear();
+                if (!readFully(channel, header, offset)) {
+                    break;
+                }
+                header.flip();
+                final int recordLength = header.getInt();
+                if (recordLength < 0 || offset + RECORD_HEADER_SIZE + recordLength > length) {
+                    break;
+                }
+                if (recordLength > data.capacity()) {
+                    data = ByteBuffer.allocate(recordLength);
+                }
+                data.clear();
+                data.limit(recordLength);
+                readFully(channel, data, offset + RECORD_HEADER_SIZE);
+                checksum.reset();
+                checksum.update(data.array(), 0, recordLength);
+                if ((int) checksum.getValue() != header.getInt()) {
+                    break;
+                }
+                offset += RECORD_HEADER_SIZE + recordLength;
+            }
+            if (offset < length) {
+                logger.warn("Truncating audit spool segment {} from {} to {} bytes, after an incomplete or corrupt "
+                        + "record", segmentId, length, offset);
+                channel.truncate(offset);
+                channel.force(false);
+            }
+            return offset;
+        }
+    }
+
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer, final long offset)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void forceDirectory() {
+        if (fsyncPolicy == FsyncPolicy.NONE) {
+            return;
+        }
+        // makes the creation of the segment durable, which is not supported by all platforms
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.trace("Unable to force audit spool directory", e);
+        }
+    }
+
+    /**
+     * Provides a new builder.
+     *
+     * @param directory
+     *         the directory of the spool, which is created if needed
+     *
+     * @return a new builder
+     */
+    public static Builder newBuilder(final Path directory) {
+        return new BuilderImpl(directory);
+    }
+
+    /**
+     * Builder used to open an {@link AuditSpool}.
+     */
+    public interface Builder {
+
+        /**
+         * Sets when appended records are forced to the storage device. Defaults to {@link FsyncPolicy#INTERVAL}.
+         *
+         * @param fsyncPolicy
+         *         the fsync policy
+         *
+         * @return this builder
+         */
+        Builder fsyncPolicy(FsyncPolicy fsyncPolicy);
+
+        /**
+         * Sets the interval at which appended records are forced, with the {@link FsyncPolicy#INTERVAL} policy.
+         * Defaults to 1 second.
+         *
+         * @param fsyncInterval
+         *         the fsync interval
+         *
+         * @return this builder
+         */
+        Builder fsyncInterval(Duration fsyncInterval);
+
+        /**
+         * Sets the size of the segment files, which are deleted once all their records have been committed. Must be
+         * &gt;= 1024 bytes, and defaults to 16 MiB.
+         *
+         * @param segmentSize
+         *         the segment size, in bytes
+         *
+         * @return this builder
+         */
+        Builder segmentSize(long segmentSize);
+
+        /**
+         * Sets the maximum total size of the segment files, beyond which records are rejected. Must be at least the
+         * segment size, and defaults to 1 GiB. A spool which can hold several segments deletes committed records
+         * sooner, as only whole segments are deleted.
+         *
+         * @param maxSize
+         *         the maximum size of the spool, in bytes
+         *
+         * @return this builder
+         */
+        Builder maxSize(long maxSize);
+
+        /**
+         * Opens the spool, recovering the records appended since the last checkpoint.
+         *
+         * @return the opened spool
+         *
+         * @throws IOException
+         *         if the spool directory could not be read or written
+         * @throws IllegalArgumentException
+         *         if the maximum size of the spool is smaller than its segment size
+         */
+        AuditSpool build() throws IOException;
+    }
+
+    private static final class BuilderImpl implements Builder {
+
+        private static final long MIN_SEGMENT_SIZE = 1024L;
+        private static final long DEFAULT_SEGMENT_SIZE = 16L * 1024 * 1024;
+        private static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+        private static final Duration DEFAULT_FSYNC_INTERVAL = Duration.duration(1L, TimeUnit.SECONDS);
+
+        private final Path directory;
+
+        private FsyncPolicy fsyncPolicy;
+        private Duration fsyncInterval;
+        private long segmentSize;
+        private long maxSize;
+
+        private BuilderImpl(final Path directory) {
+            Reject.ifNull(directory, "directory must not be null");
+            this.directory = directory;
+            fsyncPolicy = FsyncPolicy.INTERVAL;
+            fsyncInterval = DEFAULT_FSYNC_INTERVAL;
+            segmentSize = DEFAULT_SEGMENT_SIZE;
+            maxSize = DEFAULT_MAX_SIZE;
+        }
+
+        @Override
+        public Builder fsyncPolicy(final FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy != null ? fsyncPolicy : FsyncPolicy.INTERVAL;
+            return this;
+        }
+
+        @Override
+        public Builder fsyncInterval(final Duration fsyncInterval) {
+            this.fsyncInterval = (fsyncInterval != null && fsyncInterval.to(TimeUnit.MILLISECONDS) > 0)
+                    ? fsyncInterval : DEFAULT_FSYNC_INTERVAL;
+            return this;
+        }
+
+        @Override
+        public Builder segmentSize(final long segmentSize) {
+            this.segmentSize = max(segmentSize, MIN_SEGMENT_SIZE);
+            return this;
+        }
+
+        @Override
+        public Builder maxSize(final long maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        @Override
+        public AuditSpool build() throws IOException {
+            Reject.ifTrue(maxSize < segmentSize,
+                    "The maximum size of the spool must be at least the segment size of " + segmentSize + " bytes");
+            return new AuditSpool(this);
+        }
+    }
+}
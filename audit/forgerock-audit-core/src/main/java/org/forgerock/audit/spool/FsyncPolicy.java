@@ -0,0 +1,42 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.spool;
+
+/**
+ * Defines when the records appended to an {@link AuditSpool} are forced to the storage device, trading the records
+ * which may be lost if the operating system crashes or the machine loses power, against the time taken to append
+ * them. Records which have been appended survive a crash of the JVM whatever the policy.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Segments are only forced when they are full and when the spool is closed, leaving the operating system to
+     * write the records in its own time.
+     */
+    NONE,
+
+    /**
+     * Appended records are forced by a background thread every {@link AuditSpool.Builder#fsyncInterval fsync
+     * interval}, bounding the records which may be lost to those appended during the last interval.
+     */
+    INTERVAL,
+
+    /**
+     * Each record is forced before {@link AuditSpool#append(byte[])} returns. No appended record may be lost, at
+     * the cost of a write to the storage device per record.
+     */
+    ALWAYS
+}
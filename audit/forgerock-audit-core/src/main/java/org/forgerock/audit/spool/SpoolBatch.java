@@ -0,0 +1,61 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.spool;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records polled from an {@link AuditSpool}, which are replayed until the batch is
+ * {@link AuditSpool#commit(SpoolBatch) committed}.
+ */
+public final class SpoolBatch {
+
+    private final List<byte[]> records;
+    private final SpoolPosition end;
+
+    SpoolBatch(final List<byte[]> records, final SpoolPosition end) {
+        this.records = Collections.unmodifiableList(records);
+        this.end = end;
+    }
+
+    /**
+     * Returns the records of this batch, in the order in which they have been appended.
+     *
+     * @return the records, which must not be modified
+     */
+    public List<byte[]> getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns whether this batch has no records.
+     *
+     * @return {@code true} if all the appended records had already been polled
+     */
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    /**
+     * Returns the position following the last record of this batch.
+     *
+     * @return the end position
+     */
+    SpoolPosition getEnd() {
+        return end;
+    }
+}
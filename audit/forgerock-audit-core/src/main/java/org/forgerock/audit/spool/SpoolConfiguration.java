@@ -0,0 +1,190 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.spool;
+
+import java.nio.file.Paths;
+
+import org.forgerock.util.Reject;
+import org.forgerock.util.time.Duration;
+
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+
+/**
+ * Configuration of an {@link AuditSpool}, which event handlers publishing to a remote service embed in their
+ * buffering configuration.
+ * <p>
+ * This configuration object can be created from JSON. Example of valid JSON configuration:
+ * <pre>
+ *  {
+ *    "enabled" : true,
+ *    "directory" : "/var/spool/audit/elasticsearch",
+ *    "fsyncPolicy" : "INTERVAL",
+ *    "fsyncInterval" : "1 second",
+ *    "segmentSize" : 16777216,
+ *    "maxSize" : 1073741824
+ *  }
+ * </pre>
+ */
+public class SpoolConfiguration {
+
+    @JsonPropertyDescription("audit.handlers.spool.enabled")
+    private boolean enabled;
+
+    @JsonPropertyDescription("audit.handlers.spool.directory")
+    private String directory;
+
+    @JsonPropertyDescription("audit.handlers.spool.fsyncPolicy")
+    private FsyncPolicy fsyncPolicy;
+
+    @JsonPropertyDescription("audit.handlers.spool.fsyncInterval")
+    private String fsyncInterval;
+
+    @JsonPropertyDescription("audit.handlers.spool.segmentSize")
+    private long segmentSize;
+
+    @JsonPropertyDescription("audit.handlers.spool.maxSize")
+    private long maxSize;
+
+    /**
+     * Indicates if events are spooled to disk before being published.
+     *
+     * @return {@code true} if spooling is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether events are spooled to disk before being published.
+     *
+     * @param enabled Indicates if spooling is enabled.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the directory of the spool, which must not be shared with another spool.
+     *
+     * @return Spool directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory of the spool, which must not be shared with another spool.
+     *
+     * @param directory Spool directory
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets when spooled events are forced to the storage device (default is {@link FsyncPolicy#INTERVAL}).
+     *
+     * @return Fsync policy
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy != null ? fsyncPolicy : FsyncPolicy.INTERVAL;
+    }
+
+    /**
+     * Sets when spooled events are forced to the storage device.
+     *
+     * @param fsyncPolicy Fsync policy
+     */
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Gets the interval at which spooled events are forced with the {@link FsyncPolicy#INTERVAL} policy.
+     *
+     * @return Interval (e.g., "1 second")
+     */
+    public String getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    /**
+     * Sets the interval at which spooled events are forced with the {@link FsyncPolicy#INTERVAL} policy.
+     *
+     * @param fsyncInterval Interval (e.g., "1 second")
+     */
+    public void setFsyncInterval(String fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    /**
+     * Gets the size of the spool segment files, in bytes.
+     *
+     * @return Segment size, or {@code 0} for the default of 16 MiB
+     */
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size of the spool segment files, in bytes.
+     *
+     * @param segmentSize Segment size
+     */
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the maximum disk space used by the spool, in bytes, beyond which events are dropped.
+     *
+     * @return Maximum size, or {@code 0} for the default of 1 GiB
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum disk space used by the spool, in bytes, beyond which events are dropped.
+     *
+     * @param maxSize Maximum size
+     */
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates a builder of the spool defined by this configuration.
+     *
+     * @return a new spool builder
+     * @throws NullPointerException if the directory is not set
+     */
+    public AuditSpool.Builder newSpoolBuilder() {
+        Reject.ifNull(directory, "The spool directory must be configured");
+        final AuditSpool.Builder builder = AuditSpool.newBuilder(Paths.get(directory))
+                .fsyncPolicy(getFsyncPolicy());
+        if (fsyncInterval != null) {
+            builder.fsyncInterval(Duration.duration(fsyncInterval));
+        }
+        if (segmentSize > 0) {
+            builder.segmentSize(segmentSize);
+        }
+        if (maxSize > 0) {
+            builder.maxSize(maxSize);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.spool;
+
+/**
+ * Position in an {@link AuditSpool}, at the start or at the end of a record of a segment.
+ */
+final class SpoolPosition implements Comparable<SpoolPosition> {
+
+    private final long segmentId;
+    private final long offset;
+
+    SpoolPosition(final long segmentId, final long offset) {
+        this.segmentId = segmentId;
+        this.offset = offset;
+    }
+
+    long getSegmentId() {
+        return segmentId;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int compareTo(final SpoolPosition other) {
+        final int result = Long.compare(segmentId, other.segmentId);
+        return result != 0 ? result : Long.compare(offset, other.offset);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof SpoolPosition && compareTo((SpoolPosition) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(segmentId) * 31 + Long.hashCode(offset);
+    }
+
+    @Override
+    public String toString() {
+        return segmentId + ":" + offset;
+    }
+}
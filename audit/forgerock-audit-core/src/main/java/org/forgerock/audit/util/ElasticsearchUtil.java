@@ -12,15 +12,22 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.util;
 
-import static org.forgerock.http.util.Json.readJson;
 import static org.forgerock.json.JsonValue.json;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -29,6 +36,9 @@ import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.util.annotations.VisibleForTesting;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -53,39 +63,10 @@ public final class ElasticsearchUtil {
     @VisibleForTesting
     protected static final String FIELD_NAMES_FIELD = "fieldNames";
 
-    private static final String NORMALIZED_FIELD_JSON_PREFIX = ",\"" + NORMALIZED_FIELD + "\":";
-
-    /**
-     * Number of normalization metadata fields that this class might add to the {@link #NORMALIZED_FIELD JSON object.
-     */
-    private static final int MAX_FIELD_COUNT = 1;
-
     private ElasticsearchUtil() {
         // hidden
     }
 
-    /**
-     * Regex pattern that matches JSON keys that contain at least one period.  This is useful, because Elasticsearch
-     * does not allow period characters in JSON keys
-     * [<a href="https://discuss.elastic.co/t/field-name-cannot-contain/33251/29">ref</a>].
-     * <p/>
-     * The following regex matches anything after an open-curly-brace, or comma, that is within double-quotes and
-     * followed by a semi-colon. Furthermore, positive-lookahead requires at least one period-character within the
-     * double-quotes.
-     * <pre>
-     *     [{,]\s*"((?=[^"]*[.][^"]*)[^"]+)"\s*:
-     * </pre>
-     */
-    private final static Pattern JSON_KEY_WITH_PERIOD_CHAR_PATTERN =
-            Pattern.compile("[{,]\\s*\"((?=[^\"]*[.][^\"]*)[^\"]+)\"\\s*:");
-
-    /**
-     * Regex pattern identical to {@link #JSON_KEY_WITH_PERIOD_CHAR_PATTERN}, except it searches for JSON keys that
-     * contain underscore characters. This is used to facilitate reversing normalization.
-     */
-    private final static Pattern JSON_KEY_WITH_UNDERSCORE_CHAR_PATTERN =
-            Pattern.compile("[{,]\\s*\"((?=[^\"]*[_][^\"]*)[^\"]+)\"\\s*:");
-
     /**
      * Regex pattern to find period characters.
      */
@@ -112,15 +93,42 @@ public final class ElasticsearchUtil {
      */
     public static String normalizeJson(final JsonValue value) throws IOException {
         if (value != null) {
-            if (value.get(NORMALIZED_FIELD).isNotNull()) {
-                throw new IllegalStateException(NORMALIZED_FIELD + " is a reserved JsonValue field");
-            }
-            final String json = OBJECT_MAPPER.writeValueAsString(value.getObject());
-            return replaceKeyPeriodsWithUnderscores(json);
+            final StringBuilder builder = new StringBuilder();
+            appendNormalizedJson(builder, value);
+            return builder.toString();
         }
         return null;
     }
 
+    /**
+     * Appends the normalized JSON of a value to a buffer, such as an Elasticsearch Bulk API payload, as described by
+     * {@link #normalizeJson(JsonValue)}. The field names are normalized as the JSON is written, in a single pass, so
+     * that the value is neither copied nor serialized to an intermediate string.
+     *
+     * @param builder the buffer to append the normalized JSON to
+     * @param value JSON value
+     * @param excludedFields names of top-level fields which are not written, such as {@code _id}
+     * @throws IOException If unable to write the json.
+     */
+    public static void appendNormalizedJson(final StringBuilder builder, final JsonValue value,
+            final String... excludedFields) throws IOException {
+        final Object object = value.getObject();
+        if (object instanceof Map && ((Map<?, ?>) object).get(NORMALIZED_FIELD) != null) {
+            throw new IllegalStateException(NORMALIZED_FIELD + " is a reserved JsonValue field");
+        }
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(new StringBuilderWriter(builder))) {
+            final FieldNames fieldNames = new FieldNames();
+            if (object instanceof Map) {
+                generator.writeStartObject();
+                writeFields(generator, (Map<?, ?>) object, fieldNames, Arrays.asList(excludedFields));
+                fieldNames.writeTo(generator);
+                generator.writeEndObject();
+            } else {
+                writeNormalized(generator, object, fieldNames);
+            }
+        }
+    }
+
     /**
      * De-normalizes JSON that was previously normalized by  {@link #normalizeJson(JsonValue)}.
      *
@@ -146,6 +154,8 @@ public final class ElasticsearchUtil {
      * Replaces all period-characters in JSON keys with underscore-characters
      * [<a href="https://discuss.elastic.co/t/field-name-cannot-contain/33251/29">ref</a>]. If normalization is
      * required, the {@code fieldNames} field will be added to the {@code normalized} metadata.
+     * <p/>
+     * The JSON is parsed and written again token by token, renaming the fields as they are written.
      *
      * @param json JSON {@code String} input
      * @return Resulting JSON {@code String}
@@ -154,44 +164,39 @@ public final class ElasticsearchUtil {
     @VisibleForTesting
     protected static String replaceKeyPeriodsWithUnderscores(final String json)
             throws IOException {
-        final Matcher m = JSON_KEY_WITH_PERIOD_CHAR_PATTERN.matcher(json);
-        if (m.find()) {
-            // fieldNames contains metadata for de-normalization
-            final Map<String, Object> normalized = new LinkedHashMap<>(MAX_FIELD_COUNT);
-            final Map<String, Object> fieldNames = new LinkedHashMap<>(2);
-            normalized.put(FIELD_NAMES_FIELD, fieldNames);
-
-            final int n = json.length();
-
-            // allocate enough capacity to prevent resizing
-            final StringBuilder builder = new StringBuilder(n + NORMALIZED_FIELD_JSON_PREFIX.length() + 128);
-            builder.append(json);
-
-            String originalFieldName = m.group(1);
-            String normalizedFieldName = replaceAllPeriodsWithUnderscores(builder, m.start(1), m.end(1));
-            fieldNames.put(normalizedFieldName, originalFieldName);
-
-            int index = m.end();
-            while (index != n && m.find(index)) {
-                originalFieldName = m.group(1);
-                normalizedFieldName = replaceAllPeriodsWithUnderscores(builder, m.start(1), m.end(1));
-                fieldNames.put(normalizedFieldName, originalFieldName);
-
-                index = m.end();
+        final StringBuilder builder = new StringBuilder(json.length() + 128);
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(json);
+             JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(new StringBuilderWriter(builder))) {
+            final FieldNames fieldNames = new FieldNames();
+            int depth = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                case FIELD_NAME:
+                    generator.writeFieldName(fieldNames.normalize(parser.getCurrentName()));
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    generator.copyCurrentEvent(parser);
+                    break;
+                case END_OBJECT:
+                    if (--depth == 0) {
+                        fieldNames.writeTo(generator);
+                    }
+                    generator.copyCurrentEvent(parser);
+                    break;
+                case END_ARRAY:
+                    depth--;
+                    generator.copyCurrentEvent(parser);
+                    break;
+                default:
+                    generator.copyCurrentEvent(parser);
+                    break;
+                }
             }
-
-            // remove last curly-brace, so that we can append
-            builder.setLength(n - 1);
-
-            // add JSON metadata to end
-            builder.append(NORMALIZED_FIELD_JSON_PREFIX)
-                    .append(OBJECT_MAPPER.writeValueAsString(normalized))
-                    .append('}');
-
-            return builder.toString();
         }
-        // no normalization required
-        return json;
+        return builder.toString();
     }
 
     /**
@@ -206,61 +211,82 @@ public final class ElasticsearchUtil {
     protected static JsonValue restoreKeyPeriods(final JsonValue value, final JsonValue normalized) throws IOException {
         final JsonValue fieldNames = normalized.get(FIELD_NAMES_FIELD);
         if (fieldNames.isNotNull() && !fieldNames.asMap().isEmpty()) {
-            final String s = OBJECT_MAPPER.writeValueAsString(value.getObject());
-            final Matcher m = JSON_KEY_WITH_UNDERSCORE_CHAR_PATTERN.matcher(s);
-            if (m.find()) {
-                final int n = s.length();
-                final StringBuilder builder = new StringBuilder(n);
-                if (m.start(1) != 0) {
-                    builder.append(s.substring(0, m.start(1)));
-                }
-                builder.append(replace(m.group(1), fieldNames));
-                int index = m.end(1);
-                while (index != n && m.find(index)) {
-                    if (index != m.start(1)) {
-                        builder.append(s.substring(index, m.start(1)));
-                    }
-                    builder.append(replace(m.group(1), fieldNames));
-                    index = m.end(1);
-                }
-                if (index != n) {
-                    builder.append(s.substring(index));
-                }
-                return json(readJson(builder.toString()));
-            }
+            return json(restoreKeyPeriods(value.getObject(), fieldNames.asMap()));
         }
         // no normalization required
         return value;
     }
 
     /**
-     * Replaces all period-characters with underscore-characters.
+     * Copies a JSON object, array or primitive, restoring the normalized field names found in {@literal fieldNames}.
      *
-     * @param s Input
-     * @param start Start index (inclusive)
-     * @param end End index (exclusive)
-     * @return Result
+     * @param value JSON input
+     * @param fieldNames Map of normalized field names to original field names
+     * @return Resulting JSON
      */
-    private static String replaceAllPeriodsWithUnderscores(final StringBuilder s, final int start, final int end) {
-        for (int i = start; i < end; ++i) {
-            if (s.charAt(i) == '.') {
-                s.setCharAt(i, '_');
+    private static Object restoreKeyPeriods(final Object value, final Map<String, Object> fieldNames) {
+        if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            final Map<String, Object> result = new LinkedHashMap<>(Math.max(16, map.size() * 4 / 3 + 1));
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                final String fieldName = String.valueOf(entry.getKey());
+                final Object originalFieldName = fieldName.indexOf('_') >= 0 ? fieldNames.get(fieldName) : null;
+                result.put(originalFieldName instanceof String ? (String) originalFieldName : fieldName,
+                        restoreKeyPeriods(entry.getValue(), fieldNames));
             }
+            return result;
+        } else if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            final List<Object> result = new ArrayList<>(list.size());
+            for (final Object item : list) {
+                result.add(restoreKeyPeriods(item, fieldNames));
+            }
+            return result;
         }
-        return s.substring(start, end);
+        return value;
     }
 
-    /**
-     * Finds replacement for a given key ({@literal fieldName}) within {@literal fieldNames} map. If a key-value mapping
-     * is not found, then the original input is returned.
-     *
-     * @param fieldName Key
-     * @param fieldNames Map of key-values ({@literal String})
-     * @return Result
-     */
-    private static String replace(final String fieldName, final JsonValue fieldNames) {
-        final JsonValue value = fieldNames.get(fieldName);
-        return value.isNull() ? fieldName : value.asString();
+    private static void writeFields(final JsonGenerator generator, final Map<?, ?> map, final FieldNames fieldNames,
+            final List<String> excludedFields) throws IOException {
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+            final String fieldName = String.valueOf(entry.getKey());
+            if (!excludedFields.contains(fieldName)) {
+                generator.writeFieldName(fieldNames.normalize(fieldName));
+                writeNormalized(generator, entry.getValue(), fieldNames);
+            }
+        }
+    }
+
+    private static void writeNormalized(final JsonGenerator generator, final Object value,
+            final FieldNames fieldNames) throws IOException {
+        if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            writeFields(generator, (Map<?, ?>) value, fieldNames, Collections.<String>emptyList());
+            generator.writeEndObject();
+        } else if (value instanceof List) {
+            generator.writeStartArray();
+            for (final Object item : (List<?>) value) {
+                writeNormalized(generator, item, fieldNames);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else {
+            // null and any other type are written by the object mapper
+            generator.writeObject(value);
+        }
     }
 
     /**
@@ -303,4 +329,68 @@ public final class ElasticsearchUtil {
         }
         return false;
     }
+
+    /** Normalizes field names, and keeps the original names of the normalized fields for de-normalization. */
+    private static final class FieldNames {
+        private Map<String, String> fieldNames;
+
+        private String normalize(final String fieldName) {
+            if (fieldName.indexOf('.') < 0) {
+                return fieldName;
+            }
+            final String normalizedFieldName = fieldName.replace('.', '_');
+            if (fieldNames == null) {
+                fieldNames = new LinkedHashMap<>(2);
+            }
+            fieldNames.put(normalizedFieldName, fieldName);
+            return normalizedFieldName;
+        }
+
+        /** Writes the {@link #NORMALIZED_FIELD} field, if any field name has been normalized. */
+        private void writeTo(final JsonGenerator generator) throws IOException {
+            if (fieldNames != null) {
+                generator.writeObjectFieldStart(NORMALIZED_FIELD);
+                generator.writeObjectFieldStart(FIELD_NAMES_FIELD);
+                for (final Map.Entry<String, String> entry : fieldNames.entrySet()) {
+                    generator.writeStringField(entry.getKey(), entry.getValue());
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+        }
+    }
+
+    /** A {@link Writer} appending to a {@link StringBuilder}, which is not synchronized unlike a StringWriter. */
+    private static final class StringBuilderWriter extends Writer {
+        private final StringBuilder builder;
+
+        private StringBuilderWriter(final StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) {
+            builder.append(buffer, offset, length);
+        }
+
+        @Override
+        public void write(final String string, final int offset, final int length) {
+            builder.append(string, offset, offset + length);
+        }
+
+        @Override
+        public void write(final int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.forgerock.audit.AuditServiceBuilder.AuditServiceFactory;
@@ -35,6 +37,7 @@ import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.audit.events.handlers.AuditEventHandlerFactory;
 import org.forgerock.audit.events.handlers.impl.PassThroughAuditEventHandler;
 import org.forgerock.audit.events.handlers.impl.PassThroughAuditEventHandlerConfiguration;
+import org.forgerock.audit.sampling.SamplingPolicy;
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.mockito.ArgumentCaptor;
@@ -89,6 +92,34 @@ public class AuditServiceBuilderTest {
         assertThat(accessMetaData.isDefined("schema")).isTrue();
     }
 
+    @Test
+    public void shouldProvideHandlerSamplingPoliciesToAuditService() throws Exception {
+        // Given
+        final AuditServiceFactory factory = mock(AuditServiceFactory.class);
+        final PassThroughAuditEventHandlerConfiguration config = new PassThroughAuditEventHandlerConfiguration();
+        config.setName("mock");
+        config.setTopics(Collections.singleton("access"));
+        final SamplingPolicy samplingPolicy = new SamplingPolicy();
+        samplingPolicy.setMaxEventsPerSecond(100);
+        config.setSamplingPolicies(Collections.singletonMap("access", samplingPolicy));
+        final ArgumentCaptor<Map> samplingPoliciesCaptor = ArgumentCaptor.forClass(Map.class);
+
+        // When
+        new AuditServiceBuilder(factory)
+                .withAuditEventHandler(PassThroughAuditEventHandler.class, config)
+                .build();
+
+        // Then
+        verify(factory).newAuditService(
+                any(AuditServiceConfiguration.class),
+                any(EventTopicsMetaData.class),
+                any(Set.class),
+                samplingPoliciesCaptor.capture());
+        assertThat(samplingPoliciesCaptor.getValue())
+                .containsOnlyKeys("mock")
+                .containsEntry("mock", Collections.singletonMap("access", samplingPolicy));
+    }
+
     @Test
     public void shouldPermitAdditionalFieldsToBeAddedToCoreTopicSchemas() throws Exception {
         // Given
@@ -104,7 +135,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue accessSchema = (JsonValue) topicSchemasCaptor.getValue().getSchema("access");
         assertThat(accessSchema.get(pointer("schema/properties")).isDefined("extraField")).isTrue();
@@ -125,7 +157,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         assertThat(topicSchemasCaptor.getValue().getTopics()).doesNotContain("customTopic");
     }
@@ -144,7 +177,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue accessSchema = topicSchemasCaptor.getValue().getSchema("access");
         assertThat(accessSchema.get(pointer("schema/properties/server")).isDefined("name")).isFalse();
@@ -163,7 +197,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue accessSchema = topicSchemasCaptor.getValue().getSchema("access");
         assertThat(accessSchema.get(pointer("schema/properties")).isDefined("extraField")).isFalse();
@@ -185,7 +220,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue accessSchema = topicSchemasCaptor.getValue().getSchema("access");
         assertThat(accessSchema.get(pointer("schema/properties")).isDefined("extraField")).isFalse();
@@ -207,7 +243,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue accessSchema = topicSchemasCaptor.getValue().getSchema("access");
         assertThat(accessSchema.get(pointer("schema/properties")).isDefined("extraField")).isFalse();
@@ -228,7 +265,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue customTopic = topicSchemasCaptor.getValue().getSchema("customTopic");
         assertThat(customTopic.get(pointer("schema/properties")).isDefined("_id")).isTrue();
@@ -252,7 +290,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         JsonValue accessSchema = topicSchemasCaptor.getValue().getSchema("access");
         assertThat(accessSchema.get(pointer("schema/properties")).isDefined("customField")).isFalse();
@@ -274,7 +313,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         assertThat(topicSchemasCaptor.getValue().getTopics()).doesNotContain("customTopic");
     }
@@ -295,7 +335,8 @@ public class AuditServiceBuilderTest {
         verify(factory).newAuditService(
                 any(AuditServiceConfiguration.class),
                 topicSchemasCaptor.capture(),
-                any(Set.class));
+                any(Set.class),
+                anyMap());
 
         assertThat(topicSchemasCaptor.getValue().getTopics()).doesNotContain("customTopic");
     }
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit;
@@ -20,6 +20,7 @@ package org.forgerock.audit;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.audit.AuditServiceProxy.ACTION_SAMPLING_STATISTICS;
 import static org.forgerock.audit.AuditServiceBuilder.newAuditService;
 import static org.forgerock.audit.events.EventTopicsMetaDataBuilder.coreTopicSchemas;
 import static org.forgerock.json.JsonValue.field;
@@ -34,6 +35,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -54,6 +56,7 @@ import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.audit.events.handlers.impl.PassThroughAuditEventHandler;
 import org.forgerock.audit.events.handlers.impl.PassThroughAuditEventHandlerConfiguration;
 import org.forgerock.audit.filter.FilterPolicy;
+import org.forgerock.audit.sampling.SamplingPolicy;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ActionResponse;
 import org.forgerock.json.resource.BadRequestException;
@@ -321,6 +324,59 @@ public class AuditServiceImplTest {
                 .isInstanceOf(BadRequestException.class);
     }
 
+    @Test
+    public void shouldApplyHandlerSamplingPolicyInPreferenceToAuditServiceSamplingPolicy() throws Exception {
+        //given
+        final AuditServiceConfiguration configuration = getAuditServiceConfiguration(QUERY_HANDLER_NAME, "access");
+        configuration.setSamplingPolicies(Collections.singletonMap("access", samplingPolicy(0.0)));
+        final PassThroughAuditEventHandler queryHandler = spyPassThroughAuditEventHandler(QUERY_HANDLER_NAME);
+        final PassThroughAuditEventHandler otherHandler = spyPassThroughAuditEventHandler("otherHandler");
+        final Set<AuditEventHandler> handlers = asSet(queryHandler, otherHandler);
+        final Map<String, Map<String, SamplingPolicy>> handlerSamplingPolicies =
+                Collections.singletonMap("otherHandler", Collections.singletonMap("access", samplingPolicy(1.0)));
+        final AuditService auditService =
+                new AuditServiceImpl(configuration, eventTopicsMetaData, handlers, handlerSamplingPolicies);
+        auditService.startup();
+
+        //when
+        final Promise<ResourceResponse, ResourceException> promise =
+                auditService.handleCreate(new RootContext(), makeCreateRequest());
+
+        //then
+        verify(queryHandler, never()).publishEvent(any(Context.class), eq("access"), any(JsonValue.class));
+        verify(otherHandler, times(1)).publishEvent(any(Context.class), eq("access"), any(JsonValue.class));
+        assertThat(promise.get().getContent().asMap()).isEmpty();
+    }
+
+    @Test
+    public void shouldAlwaysKeepEventsMatchingSamplingPolicyFiltersAndReportDroppedEvents() throws Exception {
+        //given
+        final AuditServiceConfiguration configuration = getAuditServiceConfiguration(QUERY_HANDLER_NAME, "access");
+        final SamplingPolicy samplingPolicy = samplingPolicy(0.0);
+        samplingPolicy.setAlwaysKeep(singletonList("/transactionId eq \"failed\""));
+        configuration.setSamplingPolicies(Collections.singletonMap("access", samplingPolicy));
+        final PassThroughAuditEventHandler queryHandler = spyPassThroughAuditEventHandler(QUERY_HANDLER_NAME);
+        final AuditService auditService = new AuditServiceImpl(configuration, eventTopicsMetaData, asSet(queryHandler));
+        auditService.startup();
+        final CreateRequest failedRequest = makeCreateRequest();
+        failedRequest.getContent().put("transactionId", "failed");
+
+        //when
+        auditService.handleCreate(new RootContext(), makeCreateRequest());
+        auditService.handleCreate(new RootContext(), makeCreateRequest());
+        auditService.handleCreate(new RootContext(), failedRequest);
+        final Promise<ActionResponse, ResourceException> promise = auditService.handleAction(
+                new RootContext(), Requests.newActionRequest("access", ACTION_SAMPLING_STATISTICS));
+
+        //then
+        verify(queryHandler, times(1)).publishEvent(any(Context.class), eq("access"), any(JsonValue.class));
+        final JsonValue statistics = promise.get().getJsonContent().get("access").get(QUERY_HANDLER_NAME);
+        assertThat(statistics.get("eventsKept").asLong()).isEqualTo(1L);
+        assertThat(statistics.get("eventsAlwaysKept").asLong()).isEqualTo(1L);
+        assertThat(statistics.get("eventsSampledOut").asLong()).isEqualTo(2L);
+        assertThat(statistics.get("eventsDropped").asLong()).isEqualTo(2L);
+    }
+
     @Test
     public void shouldDelegateQueryRequestToConfiguredHandlerForQueries() throws Exception {
         final String topic = "access";
@@ -846,6 +902,12 @@ public class AuditServiceImplTest {
         return config;
     }
 
+    private SamplingPolicy samplingPolicy(double sampleRate) {
+        final SamplingPolicy samplingPolicy = new SamplingPolicy();
+        samplingPolicy.setSampleRate(sampleRate);
+        return samplingPolicy;
+    }
+
     public static CreateRequest makeCreateRequest() {
         return makeCreateRequest("access");
     }
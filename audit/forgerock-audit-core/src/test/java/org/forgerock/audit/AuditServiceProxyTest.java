@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit;
@@ -32,7 +33,8 @@ import org.mockito.stubbing.Answer;
 import org.testng.annotations.Test;
 
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings("javadoc")
 public class AuditServiceProxyTest {
@@ -95,21 +97,20 @@ public class AuditServiceProxyTest {
     }
 
     @Test
-    public void shouldObtainWriteLockBeforeUpdatingAuditServiceDelegate() throws Exception {
+    public void shouldWaitForInFlightCallsBeforeUpdatingAuditServiceDelegate() throws Exception {
         final AuditService initialAuditService = mock(AuditService.class);
         final AuditService newAuditService = mock(AuditService.class);
-        final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService, rwLock);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
         final CountDownLatch handleCreateLatch = new CountDownLatch(1);
         final CountDownLatch shutdownLatch = new CountDownLatch(1);
         final CreateRequest createRequest = makeCreateRequest();
-        final Thread threadNeedingReadLock = new Thread(new Runnable() {
+        final Thread callingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.handleCreate(new RootContext(), createRequest);
             }
         });
-        final Thread threadNeedingWriteLock = new Thread(new Runnable() {
+        final Thread updatingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -131,36 +132,95 @@ public class AuditServiceProxyTest {
                 });
 
         // Make a call to mutableAuditService.handleCreate that will result in the Mockito Answer (above)
-        // releasing the threadNeedingReadLock latch but blocking on the shutdownLatch (with the read lock held)
-        threadNeedingReadLock.start();
+        // releasing the callingThread latch but blocking on the shutdownLatch (with the call in flight)
+        callingThread.start();
         handleCreateLatch.await();
-        assertThat(rwLock.getReadLockCount()).isEqualTo(1);
+        assertThat(auditServiceProxy.getInFlightCallCount()).isEqualTo(1);
 
-        // Make a call to mutableAuditService.setDelegate and prove that it blocks until the
-        // write lock can be obtained (i.e. wait until the read lock is released)
-        threadNeedingWriteLock.start();
-        while (!rwLock.hasQueuedThread(threadNeedingWriteLock)) {
+        // Make a call to mutableAuditService.setDelegate and prove that it waits until the
+        // in-flight call completes
+        updatingThread.start();
+        while (!auditServiceProxy.isUpdating() || updatingThread.getState() != Thread.State.TIMED_WAITING) {
             Thread.sleep(10);
         }
 
-        // Verify that shutdown() is not called until the write lock is obtained
+        // Verify that shutdown() is not called until the in-flight call completes
         verify(initialAuditService, times(0)).shutdown();
         shutdownLatch.countDown();
-        threadNeedingReadLock.join();
-        threadNeedingWriteLock.join();
+        callingThread.join();
+        updatingThread.join();
         verify(initialAuditService).shutdown();
     }
 
     @Test
-    public void shouldObtainReadLockBeforeCallingProxiedMethodOfAuditServiceDelegate() throws Exception {
+    public void shouldAllowNestedCallsFromAuditServiceDelegateWhileUpdatingDelegate() throws Exception {
+        // given
         final AuditService initialAuditService = mock(AuditService.class);
         final AuditService newAuditService = mock(AuditService.class);
-        final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService, rwLock);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
+        final CountDownLatch handleCreateLatch = new CountDownLatch(1);
+        final CountDownLatch nestedCallLatch = new CountDownLatch(1);
+        final AtomicBoolean nestedCallResult = new AtomicBoolean();
+        final CreateRequest createRequest = makeCreateRequest();
+        when(initialAuditService.isRunning()).thenReturn(true);
+        when(initialAuditService.handleCreate(any(Context.class), eq(createRequest))).then(
+                new Answer<Promise<ResourceResponse, ResourceException>>() {
+                    @Override
+                    public Promise<ResourceResponse, ResourceException> answer(InvocationOnMock invocationOnMock)
+                            throws Throwable {
+                        handleCreateLatch.countDown();
+                        nestedCallLatch.await();
+                        nestedCallResult.set(auditServiceProxy.isRunning());
+                        return null;
+                    }
+                });
+        final Thread callingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                auditServiceProxy.handleCreate(new RootContext(), createRequest);
+            }
+        });
+        final Thread updatingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    auditServiceProxy.setDelegate(newAuditService);
+                } catch (ServiceUnavailableException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        callingThread.start();
+        handleCreateLatch.await();
+        updatingThread.start();
+        while (!auditServiceProxy.isUpdating() || updatingThread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(10);
+        }
+
+        // when
+        // The delegate calls back into the proxy while setDelegate waits for the outer call to complete
+        nestedCallLatch.countDown();
+        callingThread.join(5000);
+        updatingThread.join(5000);
+
+        // then
+        assertThat(callingThread.isAlive()).isFalse();
+        assertThat(updatingThread.isAlive()).isFalse();
+        assertThat(nestedCallResult.get()).isTrue();
+        verify(initialAuditService).shutdown();
+        verify(newAuditService, never()).isRunning();
+        assertThat(auditServiceProxy.getInFlightCallCount()).isZero();
+    }
+
+    @Test
+    public void shouldBlockProxiedMethodOfAuditServiceDelegateUntilUpdateCompletes() throws Exception {
+        final AuditService initialAuditService = mock(AuditService.class);
+        final AuditService newAuditService = mock(AuditService.class);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
         final CountDownLatch shutdownLatch = new CountDownLatch(1);
         final CountDownLatch handleCreateLatch = new CountDownLatch(1);
         final CreateRequest createRequest = makeCreateRequest();
-        final Thread threadNeedingWriteLock = new Thread(new Runnable() {
+        final Thread updatingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -170,7 +230,7 @@ public class AuditServiceProxyTest {
                 }
             }
         });
-        final Thread threadNeedingReadLock = new Thread(new Runnable() {
+        final Thread callingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.handleCreate(new RootContext(), createRequest);
@@ -187,41 +247,40 @@ public class AuditServiceProxyTest {
         }).when(initialAuditService).shutdown();
 
         // Make a call to mutableAuditService.setDelegate that will result in the Mockito Answer (above)
-        // blocking on the CountDownLatch (with the write lock held)
-        threadNeedingWriteLock.start();
+        // blocking on the CountDownLatch (with the update in progress)
+        updatingThread.start();
         shutdownLatch.await();
-        assertThat(rwLock.isWriteLocked()).isTrue();
+        assertThat(auditServiceProxy.isUpdating()).isTrue();
 
         // Make a call to mutableAuditService.handleCreate and prove that it blocks until the
-        // read lock can be obtained (i.e. wait until the write lock is released)
-        threadNeedingReadLock.start();
-        while (!rwLock.hasQueuedThread(threadNeedingReadLock)) {
+        // update completes
+        callingThread.start();
+        while (callingThread.getState() != Thread.State.WAITING) {
             Thread.sleep(10);
         }
 
-        // Verify that shutdown() is not called until the write lock is obtained
+        // Verify that handleCreate() is not called until the update completes
         verify(initialAuditService, times(0)).handleCreate(any(Context.class), any(CreateRequest.class));
         handleCreateLatch.countDown();
-        threadNeedingWriteLock.join();
-        threadNeedingReadLock.join();
+        updatingThread.join();
+        callingThread.join();
         verify(newAuditService).handleCreate(any(Context.class), eq(createRequest));
     }
 
     @Test
-    public void shouldObtainWriteLockBeforeShuttingDown() throws Exception {
+    public void shouldWaitForInFlightCallsBeforeShuttingDown() throws Exception {
         final AuditService initialAuditService = mock(AuditService.class);
-        final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService, rwLock);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
         final CountDownLatch handleCreateLatch = new CountDownLatch(1);
         final CountDownLatch shutdownLatch = new CountDownLatch(1);
         final CreateRequest createRequest = makeCreateRequest();
-        final Thread threadNeedingReadLock = new Thread(new Runnable() {
+        final Thread callingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.handleCreate(new RootContext(), createRequest);
             }
         });
-        final Thread threadNeedingWriteLock = new Thread(new Runnable() {
+        final Thread updatingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.shutdown();
@@ -239,41 +298,40 @@ public class AuditServiceProxyTest {
                 });
 
         // Make a call to mutableAuditService.handleCreate that will result in the Mockito Answer (above)
-        // blocking on the CountDownLatch (with the read lock held)
-        threadNeedingReadLock.start();
+        // blocking on the CountDownLatch (with the call in flight)
+        callingThread.start();
         handleCreateLatch.await();
-        assertThat(rwLock.getReadLockCount()).isEqualTo(1);
+        assertThat(auditServiceProxy.getInFlightCallCount()).isEqualTo(1);
 
-        // Make a call to mutableAuditService.shutdown and prove that it blocks until the
-        // write lock can be obtained (i.e. wait until the read lock is released)
-        threadNeedingWriteLock.start();
-        while (!rwLock.hasQueuedThread(threadNeedingWriteLock)) {
+        // Make a call to mutableAuditService.shutdown and prove that it waits until the
+        // in-flight call completes
+        updatingThread.start();
+        while (!auditServiceProxy.isUpdating() || updatingThread.getState() != Thread.State.TIMED_WAITING) {
             Thread.sleep(10);
         }
 
-        // Verify that shutdown() is not called until the write lock is obtained
+        // Verify that shutdown() is not called until the in-flight call completes
         verify(initialAuditService, times(0)).shutdown();
         shutdownLatch.countDown();
-        threadNeedingReadLock.join();
-        threadNeedingWriteLock.join();
+        callingThread.join();
+        updatingThread.join();
         verify(initialAuditService).shutdown();
     }
 
     @Test
     public void shouldBlockProxiedMethodOfAuditServiceDelegateUntilShutdownCompletes() throws Exception {
         final AuditService initialAuditService = mock(AuditService.class);
-        final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService, rwLock);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
         final CountDownLatch shutdownLatch = new CountDownLatch(1);
         final CountDownLatch handleCreateLatch = new CountDownLatch(1);
         final CreateRequest createRequest = makeCreateRequest();
-        final Thread threadNeedingWriteLock = new Thread(new Runnable() {
+        final Thread updatingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.shutdown();
             }
         });
-        final Thread threadNeedingReadLock = new Thread(new Runnable() {
+        final Thread callingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.handleCreate(new RootContext(), createRequest);
@@ -290,23 +348,23 @@ public class AuditServiceProxyTest {
         }).when(initialAuditService).shutdown();
 
         // Make a call to mutableAuditService.shutdown that will result in the Mockito Answer (above)
-        // blocking on the CountDownLatch (with the write lock held)
-        threadNeedingWriteLock.start();
+        // blocking on the CountDownLatch (with the update in progress)
+        updatingThread.start();
         shutdownLatch.await();
-        assertThat(rwLock.isWriteLocked()).isTrue();
+        assertThat(auditServiceProxy.isUpdating()).isTrue();
 
         // Make a call to mutableAuditService.handleCreate and prove that it blocks until the
-        // read lock can be obtained (i.e. wait until the write lock is released)
-        threadNeedingReadLock.start();
-        while (!rwLock.hasQueuedThread(threadNeedingReadLock)) {
+        // update completes
+        callingThread.start();
+        while (callingThread.getState() != Thread.State.WAITING) {
             Thread.sleep(10);
         }
 
-        // Verify that shutdown() is not called until the write lock is obtained
+        // Verify that handleCreate() is not called until the update completes
         verify(initialAuditService, times(0)).handleCreate(any(Context.class), any(CreateRequest.class));
         handleCreateLatch.countDown();
-        threadNeedingWriteLock.join();
-        threadNeedingReadLock.join();
+        updatingThread.join();
+        callingThread.join();
         verify(initialAuditService).handleCreate(any(Context.class), eq(createRequest));
         // NB: If initialAuditService weren't a mock, the above call would return ServiceUnavailableException
     }
@@ -314,12 +372,11 @@ public class AuditServiceProxyTest {
     @Test
     public void shouldBlockProxiedMethodOfAuditServiceDelegateUntilStartupCompletes() throws Exception {
         final AuditService initialAuditService = mock(AuditService.class);
-        final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService, rwLock);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
         final CountDownLatch startupLatch = new CountDownLatch(1);
         final CountDownLatch handleCreateLatch = new CountDownLatch(1);
         final CreateRequest createRequest = makeCreateRequest();
-        final Thread threadNeedingWriteLock = new Thread(new Runnable() {
+        final Thread updatingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -329,7 +386,7 @@ public class AuditServiceProxyTest {
                 }
             }
         });
-        final Thread threadNeedingReadLock = new Thread(new Runnable() {
+        final Thread callingThread = new Thread(new Runnable() {
             @Override
             public void run() {
                 auditServiceProxy.handleCreate(new RootContext(), createRequest);
@@ -346,35 +403,128 @@ public class AuditServiceProxyTest {
         }).when(initialAuditService).startup();
 
         // Make a call to mutableAuditService.startup that will result in the Mockito Answer (above)
-        // blocking on the CountDownLatch (with the write lock held)
-        threadNeedingWriteLock.start();
+        // blocking on the CountDownLatch (with the update in progress)
+        updatingThread.start();
         startupLatch.await();
-        assertThat(rwLock.isWriteLocked()).isTrue();
+        assertThat(auditServiceProxy.isUpdating()).isTrue();
 
         // Make a call to mutableAuditService.handleCreate and prove that it blocks until the
-        // read lock can be obtained (i.e. wait until the write lock is released)
-        threadNeedingReadLock.start();
-        while (!rwLock.hasQueuedThread(threadNeedingReadLock)) {
+        // update completes
+        callingThread.start();
+        while (callingThread.getState() != Thread.State.WAITING) {
             Thread.sleep(10);
         }
 
-        // Verify that shutdown() is not called until the write lock is obtained
+        // Verify that handleCreate() is not called until the update completes
         verify(initialAuditService, times(0)).handleCreate(any(Context.class), any(CreateRequest.class));
         handleCreateLatch.countDown();
-        threadNeedingWriteLock.join();
-        threadNeedingReadLock.join();
+        updatingThread.join();
+        callingThread.join();
         verify(initialAuditService).handleCreate(any(Context.class), eq(createRequest));
         // NB: If initialAuditService weren't a mock, the above call would return ServiceUnavailableException
     }
 
+    @Test
+    public void shouldNotCallAuditServiceDelegateAfterItHasBeenShutDown() throws Exception {
+        // given
+        final AuditService initialAuditService = mock(AuditService.class);
+        final AuditService newAuditService = mock(AuditService.class);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
+        final AtomicBoolean initialAuditServiceShutdown = new AtomicBoolean();
+        final AtomicInteger callsAfterShutdown = new AtomicInteger();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final CountDownLatch callsStarted = new CountDownLatch(1);
+        when(initialAuditService.isRunning()).then(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocationOnMock) throws Throwable {
+                callsStarted.countDown();
+                if (initialAuditServiceShutdown.get()) {
+                    callsAfterShutdown.incrementAndGet();
+                }
+                return true;
+            }
+        });
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocationOnMock) throws Throwable {
+                initialAuditServiceShutdown.set(true);
+                return null;
+            }
+        }).when(initialAuditService).shutdown();
+        final Thread[] callingThreads = new Thread[8];
+        for (int i = 0; i < callingThreads.length; i++) {
+            callingThreads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (!stopped.get()) {
+                        auditServiceProxy.isRunning();
+                    }
+                }
+            });
+            callingThreads[i].start();
+        }
+        callsStarted.await();
+
+        // when
+        auditServiceProxy.setDelegate(newAuditService);
+        stopped.set(true);
+        for (final Thread callingThread : callingThreads) {
+            callingThread.join();
+        }
+
+        // then
+        verify(initialAuditService).shutdown();
+        assertThat(callsAfterShutdown.get()).isZero();
+        assertThat(auditServiceProxy.getInFlightCallCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void shouldStillSupportSubclassesUsingTheDeprecatedLocks() throws Exception {
+        // given
+        final AuditService initialAuditService = mock(AuditService.class);
+        final AuditService newAuditService = mock(AuditService.class);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService) {
+            @Override
+            public void setDelegate(AuditService newDelegate) throws ServiceUnavailableException {
+                obtainWriteLock();
+                try {
+                    super.setDelegate(newDelegate);
+                } finally {
+                    releaseWriteLock();
+                }
+            }
+
+            @Override
+            public boolean isRunning() {
+                obtainReadLock();
+                try {
+                    return super.isRunning();
+                } finally {
+                    releaseReadLock();
+                }
+            }
+        };
+        when(newAuditService.isRunning()).thenReturn(true);
+
+        // when
+        auditServiceProxy.setDelegate(newAuditService);
+
+        // then
+        verify(initialAuditService).shutdown();
+        verify(newAuditService).startup();
+        assertThat(auditServiceProxy.isRunning()).isTrue();
+        assertThat(auditServiceProxy.isUpdating()).isFalse();
+        assertThat(auditServiceProxy.getInFlightCallCount()).isZero();
+    }
+
     @Test(expectedExceptions = IllegalStateException.class,
             expectedExceptionsMessageRegExp =
                     "AuditServiceProxy should not be called from delegate shutdown or startup operations")
     public void shouldRejectReentrantCallsToProxyWhileUpdatingDelegate() throws Exception {
         // given
         final AuditService initialAuditService = mock(AuditService.class);
-        final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService, rwLock);
+        final AuditServiceProxy auditServiceProxy = new AuditServiceProxy(initialAuditService);
         final CreateRequest createRequest = makeCreateRequest();
         doAnswer(new Answer<Void>() {
             @Override
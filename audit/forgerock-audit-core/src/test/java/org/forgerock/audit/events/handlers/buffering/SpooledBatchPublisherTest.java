@@ -0,0 +1,198 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.events.handlers.buffering;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.util.promise.Promises.newExceptionPromise;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+import static org.forgerock.util.time.Duration.duration;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.audit.spool.AuditSpool;
+import org.forgerock.audit.spool.FsyncPolicy;
+import org.forgerock.json.JsonValue;
+import org.forgerock.util.promise.Promise;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SpooledBatchPublisherTest {
+
+    private static final String TOPIC = "access";
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("spooled-batch-publisher");
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void shouldPublishSpooledEventsInOrder() throws Exception {
+        // given
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer(0);
+        final BatchPublisher publisher = newPublisher(consumer);
+        publisher.startup();
+
+        // when
+        for (int i = 0; i < 2000; i++) {
+            assertThat(publisher.offer(TOPIC, event(i))).isTrue();
+        }
+        publisher.shutdown();
+
+        // then
+        assertThat(consumer.events).containsExactlyElementsOf(expectedEvents(0, 2000));
+    }
+
+    @Test
+    public void shouldPublishFailedBatchesAgain() throws Exception {
+        // given
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer(2);
+        final BatchPublisher publisher = newPublisher(consumer);
+        publisher.startup();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            publisher.offer(TOPIC, event(i));
+        }
+        awaitEvents(consumer, 10);
+        publisher.shutdown();
+
+        // then
+        assertThat(consumer.failures.get()).isEqualTo(2);
+        assertThat(consumer.events).containsExactlyElementsOf(expectedEvents(0, 10));
+    }
+
+    @Test
+    public void shouldPublishUnpublishedEventsAfterRestart() throws Exception {
+        // given
+        final RecordingBatchConsumer failingConsumer = new RecordingBatchConsumer(Integer.MAX_VALUE);
+        final BatchPublisher failingPublisher = newPublisher(failingConsumer);
+        failingPublisher.startup();
+        for (int i = 0; i < 10; i++) {
+            failingPublisher.offer(TOPIC, event(i));
+        }
+        failingPublisher.shutdown();
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer(0);
+        final BatchPublisher publisher = newPublisher(consumer);
+
+        // when
+        publisher.startup();
+        publisher.offer(TOPIC, event(10));
+        publisher.shutdown();
+
+        // then
+        assertThat(failingConsumer.events).isEmpty();
+        assertThat(consumer.events).containsExactlyElementsOf(expectedEvents(0, 11));
+    }
+
+    @Test
+    public void shouldNotAcceptEventsBeforeStartup() throws Exception {
+        // given
+        final BatchPublisher publisher = newPublisher(new RecordingBatchConsumer(0));
+
+        // when
+        final boolean offered = publisher.offer(TOPIC, event(0));
+        publisher.shutdown();
+
+        // then
+        assertThat(offered).isFalse();
+    }
+
+    private BatchPublisher newPublisher(final BatchConsumer consumer) {
+        return BufferedBatchPublisher.newBuilder(consumer)
+                .writeInterval(duration(10, MILLISECONDS))
+                .maxInFlightBatches(2)
+                .autoFlush(true)
+                .spool(AuditSpool.newBuilder(directory).fsyncPolicy(FsyncPolicy.NONE))
+                .build();
+    }
+
+    private static JsonValue event(final int index) {
+        return json(object(field("_id", String.valueOf(index)), field("eventName", "AM-ACCESS-OUTCOME")));
+    }
+
+    private static List<String> expectedEvents(final int from, final int to) {
+        final List<String> events = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            events.add(TOPIC + ":" + i);
+        }
+        return events;
+    }
+
+    private static void awaitEvents(final RecordingBatchConsumer consumer, final int count) throws Exception {
+        for (int i = 0; i < 500 && consumer.events.size() < count; i++) {
+            Thread.sleep(10L);
+        }
+    }
+
+    /**
+     * Records the events of the published batches, after failing the first batches.
+     */
+    private static final class RecordingBatchConsumer implements BatchConsumer {
+
+        private final int failingBatches;
+        private final AtomicInteger failures = new AtomicInteger();
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private RecordingBatchConsumer(final int failingBatches) {
+            this.failingBatches = failingBatches;
+        }
+
+        @Override
+        public void addToBatch(final String topic, final JsonValue event, final StringBuilder payload) {
+            payload.append(topic).append(':').append(event.get("_id").asString()).append('\n');
+        }
+
+        @Override
+        public Promise<Void, BatchException> publishBatch(final String payload) {
+            if (failures.get() < failingBatches) {
+                failures.incrementAndGet();
+                return newExceptionPromise(new BatchException("unavailable"));
+            }
+            final Set<String> batch = new LinkedHashSet<>();
+            for (String event : payload.split("\n")) {
+                batch.add(event);
+            }
+            events.addAll(batch);
+            return newResultPromise(null);
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers.writers;
 
@@ -22,6 +23,8 @@ import static org.assertj.core.util.Files.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -30,6 +33,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration;
+import org.forgerock.audit.retention.ArchiveCompression;
 import org.forgerock.audit.retention.TimestampFilenameFilter;
 import org.forgerock.audit.rotation.FixedTimeRotationPolicy;
 import org.forgerock.audit.rotation.RotationPolicy;
@@ -283,6 +287,39 @@ public class RotatableWriterTest {
         assertThat(rotatableWriter.getBytesWritten()).isEqualTo(0L);
     }
 
+    @Test
+    public void testCompressesRotatedFileInBackground() throws Exception {
+        // given
+        final File file = getTempFile();
+        final String prefix = "testCompressesRotatedFileInBackground";
+        final FileBasedEventHandlerConfiguration configuration = new DefaultFileBasedAuditEventHandlerConfiguration();
+        configuration.setRotationRetentionCheckInterval("1 hour"); // ensure asynchronous check is inactive
+        configuration.getFileRotation().setRotationEnabled(true);
+        configuration.getFileRotation().setRotationFilePrefix(prefix);
+        configuration.getFileRotation().setRotationFileSuffix(ROTATION_FILE_SUFFIX);
+        configuration.getFileRotation().setRotationFileCompression(ArchiveCompression.GZIP);
+        rotatableWriter = new RotatableWriter(file, configuration, true);
+        rotatableWriter.write("rotated event");
+        rotatableWriter.flush();
+
+        // when
+        rotatableWriter.forceRotation();
+
+        // then
+        List<File> archivedFiles = rotatableWriter.getArchiveIndex().listFiles();
+        for (int iteration = 0; iteration < 100 && !archivedFiles.get(0).getName().endsWith(".gz"); iteration++) {
+            Thread.sleep(50);
+            archivedFiles = rotatableWriter.getArchiveIndex().listFiles();
+        }
+        cleanupFilesWhenDone(archivedFiles.toArray(new File[0]));
+        assertThat(archivedFiles).hasSize(1);
+        assertThat(archivedFiles.get(0).getName()).startsWith(prefix).endsWith(".gz");
+        try (InputStream in = ArchiveCompression.GZIP.newInputStream(archivedFiles.get(0))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("rotated event");
+        }
+        assertRetainedHistoricalFiles(file, prefix, 1);
+    }
+
     @Test
     public void testAutomaticallyEvaluatesPolicesPeriodicallyIfRotationIntervalSpecified() throws Exception {
         // given
@@ -0,0 +1,136 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.retention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.audit.retention.ArchiveIndexTest.SUFFIX_FORMAT;
+import static org.forgerock.audit.retention.ArchiveIndexTest.deleteRecursively;
+import static org.forgerock.audit.retention.ArchiveIndexTest.read;
+import static org.forgerock.audit.retention.ArchiveIndexTest.writeArchive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ArchiveCompressorTest {
+
+    private Path directory;
+    private ArchiveIndex archiveIndex;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("archive-compressor");
+        final File initialFile = directory.resolve("audit.log").toFile();
+        archiveIndex = new ArchiveIndex(new TimeStampFileNamingPolicy(initialFile, SUFFIX_FORMAT, null));
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldCompressArchivedFileInBackground() throws Exception {
+        // given
+        final File archive = writeArchive(directory, 1, "first\n");
+        final long lastModified = archive.lastModified();
+        final File compressed = ArchiveCompression.GZIP.getCompressedFile(archive);
+        assertThat(archiveIndex.listFiles()).containsExactly(archive);
+
+        // when
+        try (ArchiveCompressor archiveCompressor = new ArchiveCompressor(archiveIndex, ArchiveCompression.GZIP)) {
+            archiveCompressor.compress(archive);
+            awaitCompression(compressed);
+        }
+
+        // then
+        assertThat(archive).doesNotExist();
+        assertThat(compressed.lastModified()).isEqualTo(lastModified);
+        assertThat(archiveIndex.listFiles()).containsExactly(compressed);
+        assertThat(archiveIndex.getTotalSize()).isEqualTo(compressed.length());
+        try (InputStream in = ArchiveCompression.GZIP.newInputStream(compressed)) {
+            assertThat(read(in)).isEqualTo("first\n");
+        }
+    }
+
+    @Test
+    public void shouldCompressArchivesLeftUncompressedOnStartup() throws Exception {
+        // given
+        final File first = writeArchive(directory, 1, "first\n");
+        final File second = writeArchive(directory, 2, "second\n");
+
+        // when
+        try (ArchiveCompressor archiveCompressor = new ArchiveCompressor(archiveIndex, ArchiveCompression.GZIP)) {
+            archiveCompressor.compressArchives();
+            awaitCompression(ArchiveCompression.GZIP.getCompressedFile(first));
+            awaitCompression(ArchiveCompression.GZIP.getCompressedFile(second));
+        }
+
+        // then
+        assertThat(archiveIndex.listFiles()).containsExactly(
+                ArchiveCompression.GZIP.getCompressedFile(first), ArchiveCompression.GZIP.getCompressedFile(second));
+    }
+
+    @Test
+    public void shouldDiscardCompressedCopyOfRemovedArchive() throws Exception {
+        // given
+        final File removed = writeArchive(directory, 1, "removed\n");
+        final File kept = writeArchive(directory, 2, "kept\n");
+        archiveIndex.remove(removed);
+
+        // when
+        try (ArchiveCompressor archiveCompressor = new ArchiveCompressor(archiveIndex, ArchiveCompression.GZIP)) {
+            archiveCompressor.compress(removed);
+            archiveCompressor.compress(kept);
+            awaitCompression(ArchiveCompression.GZIP.getCompressedFile(kept));
+        }
+
+        // then
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.gz*")) {
+            assertThat(stream).containsExactly(ArchiveCompression.GZIP.getCompressedFile(kept).toPath());
+        }
+    }
+
+    @Test
+    public void shouldLeaveArchivesUncompressedWithoutCompression() throws Exception {
+        // given
+        final File archive = writeArchive(directory, 1, "first\n");
+
+        // when
+        try (ArchiveCompressor archiveCompressor = new ArchiveCompressor(archiveIndex, ArchiveCompression.NONE)) {
+            archiveCompressor.compressArchives();
+            archiveCompressor.compress(archive);
+        }
+
+        // then
+        assertThat(archive).exists();
+        assertThat(archiveIndex.listFiles()).containsExactly(archive);
+    }
+
+    private void awaitCompression(final File compressed) throws InterruptedException {
+        for (int i = 0; i < 100 && !archiveIndex.listFiles().contains(compressed); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(archiveIndex.listFiles()).contains(compressed);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.retention;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.forgerock.audit.retention.ArchiveIndex.Archive;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ArchiveIndexTest {
+
+    static final String SUFFIX_FORMAT = "-yyyy.MM.dd-HH.mm.ss.SSS";
+
+    private Path directory;
+    private File initialFile;
+    private ArchiveIndex archiveIndex;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("archive-index");
+        initialFile = directory.resolve("audit.log").toFile();
+        archiveIndex = new ArchiveIndex(new TimeStampFileNamingPolicy(initialFile, SUFFIX_FORMAT, null));
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldLoadArchivesOnceFromFileNamingPolicy() throws Exception {
+        // given
+        final File older = writeArchive(directory, 1, "0123456789");
+        final File newer = writeArchive(directory, 2, "01234567890123456789");
+        assertThat(archiveIndex.listFiles()).containsExactly(older, newer);
+
+        // when
+        writeArchive(directory, 3, "not indexed");
+
+        // then
+        assertThat(archiveIndex.listFiles()).containsExactly(older, newer);
+        assertThat(archiveIndex.getTotalSize()).isEqualTo(30L);
+        final List<Archive> archives = archiveIndex.getArchives();
+        assertThat(archives.get(0).getSize()).isEqualTo(10L);
+        assertThat(archives.get(0).getLastModified()).isEqualTo(older.lastModified());
+    }
+
+    @Test
+    public void shouldRecordArchivedAndRemovedFiles() throws Exception {
+        // given
+        final File older = writeArchive(directory, 1, "0123456789");
+        write(initialFile, "01234");
+        final File newer = archiveName(directory, 2);
+
+        // when
+        archiveIndex.archive(newer);
+
+        // then
+        assertThat(initialFile).doesNotExist();
+        assertThat(newer).hasContent("01234");
+        assertThat(archiveIndex.listFiles()).containsExactly(older, newer);
+        assertThat(archiveIndex.getTotalSize()).isEqualTo(15L);
+
+        // when
+        final boolean removed = archiveIndex.remove(older);
+
+        // then
+        assertThat(removed).isTrue();
+        assertThat(archiveIndex.remove(older)).isFalse();
+        assertThat(archiveIndex.listFiles()).containsExactly(newer);
+        assertThat(archiveIndex.getTotalSize()).isEqualTo(5L);
+    }
+
+    @Test
+    public void shouldReplaceArchivedFileInPlace() throws Exception {
+        // given
+        final File older = writeArchive(directory, 1, "0123456789");
+        final File newer = writeArchive(directory, 2, "0123456789");
+        assertThat(archiveIndex.listFiles()).containsExactly(older, newer);
+        final File compressed = compress(older);
+
+        // when
+        final boolean replaced = archiveIndex.replace(older, compressed);
+
+        // then
+        assertThat(replaced).isTrue();
+        assertThat(archiveIndex.listFiles()).containsExactly(compressed, newer);
+        assertThat(archiveIndex.getTotalSize()).isEqualTo(compressed.length() + 10L);
+        assertThat(archiveIndex.replace(older, compressed)).isFalse();
+    }
+
+    @Test
+    public void shouldReadArchivesFromOldestToNewestThenInitialFile() throws Exception {
+        // given
+        final File compressed = compress(writeArchive(directory, 1, "first\n"));
+        final File compressedAfterListing = writeArchive(directory, 2, "second\n");
+        final File deletedAfterListing = writeArchive(directory, 3, "deleted\n");
+        writeArchive(directory, 4, "third\n");
+        write(initialFile, "current\n");
+        assertThat(compressed.getName()).endsWith(".gz");
+
+        // when
+        final List<InputStream> inputStreams = archiveIndex.openArchivesAndInitialFile();
+        compress(compressedAfterListing);
+        Files.delete(deletedAfterListing.toPath());
+
+        // then
+        final List<String> contents = new ArrayList<>();
+        for (final InputStream inputStream : inputStreams) {
+            try (InputStream in = inputStream) {
+                contents.add(read(in));
+            }
+        }
+        assertThat(contents).containsExactly("first\n", "second\n", "", "third\n", "current\n");
+    }
+
+    @Test
+    public void shouldNotOpenMissingInitialFile() throws Exception {
+        // given
+        writeArchive(directory, 1, "first\n");
+
+        // when
+        final List<InputStream> inputStreams = archiveIndex.openArchivesAndInitialFile();
+
+        // then
+        assertThat(inputStreams).hasSize(1);
+        inputStreams.get(0).close();
+    }
+
+    static File archiveName(final Path directory, final int second) {
+        return directory.resolve(String.format("audit.log-2026.01.01-00.00.%02d.000", second)).toFile();
+    }
+
+    static File writeArchive(final Path directory, final int second, final String content) throws IOException {
+        final File archive = archiveName(directory, second);
+        write(archive, content);
+        assertThat(archive.setLastModified(1767225600000L + second * 1000L)).isTrue();
+        return archive;
+    }
+
+    static void write(final File file, final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+    }
+
+    static String read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    static void deleteRecursively(final Path directory) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static File compress(final File archive) throws IOException {
+        final File compressed = ArchiveCompression.GZIP.getCompressedFile(archive);
+        try (InputStream in = Files.newInputStream(archive.toPath());
+             OutputStream out = ArchiveCompression.GZIP.newOutputStream(compressed)) {
+            out.write(read(in).getBytes(UTF_8));
+        }
+        assertThat(compressed.setLastModified(archive.lastModified())).isTrue();
+        Files.delete(archive.toPath());
+        return compressed;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.sampling;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.json.JsonValue;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class EventSamplerTest {
+
+    private static final long START = 1_000_000L;
+    private static final JsonValue SUCCESSFUL_EVENT =
+            json(object(field("response", object(field("status", "SUCCESSFUL")))));
+    private static final JsonValue FAILED_EVENT =
+            json(object(field("response", object(field("status", "FAILED")))));
+
+    @Test
+    public void shouldKeepAllEventsWithDefaultPolicy() {
+        // given
+        final EventSampler sampler = new EventSampler(new SamplingPolicy(), START);
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            assertThat(sampler.accept(SUCCESSFUL_EVENT, START)).isTrue();
+        }
+
+        // then
+        assertThat(sampler.getStatistics().getEventsKept()).isEqualTo(1000);
+        assertThat(sampler.getStatistics().getEventsDropped()).isZero();
+    }
+
+    @Test
+    public void shouldSampleEventsWithSampleRate() {
+        // given
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.setSampleRate(0.25);
+        final EventSampler sampler = new EventSampler(policy, START);
+
+        // when
+        for (int i = 0; i < 10000; i++) {
+            sampler.accept(SUCCESSFUL_EVENT, START);
+        }
+
+        // then
+        assertThat(sampler.getStatistics().getEventsKept()).isBetween(2000L, 3000L);
+        assertThat(sampler.getStatistics().getEventsSampledOut())
+                .isEqualTo(10000 - sampler.getStatistics().getEventsKept());
+        assertThat(sampler.getStatistics().getEventsRateLimited()).isZero();
+    }
+
+    @Test
+    public void shouldLimitEventsWithTokenBucket() {
+        // given
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.setMaxEventsPerSecond(10);
+        policy.setMaxBurstEvents(5);
+        final EventSampler sampler = new EventSampler(policy, START);
+        final long interval = TimeUnit.MILLISECONDS.toNanos(100);
+
+        // when
+        int burst = 0;
+        while (sampler.accept(SUCCESSFUL_EVENT, START)) {
+            burst++;
+        }
+
+        // then
+        assertThat(burst).isEqualTo(5);
+        assertThat(sampler.accept(SUCCESSFUL_EVENT, START + interval / 2)).isFalse();
+        assertThat(sampler.accept(SUCCESSFUL_EVENT, START + interval)).isTrue();
+        assertThat(sampler.accept(SUCCESSFUL_EVENT, START + interval)).isFalse();
+        for (int i = 0; i < 5; i++) {
+            assertThat(sampler.accept(SUCCESSFUL_EVENT, START + TimeUnit.SECONDS.toNanos(10))).isTrue();
+        }
+        assertThat(sampler.accept(SUCCESSFUL_EVENT, START + TimeUnit.SECONDS.toNanos(10))).isFalse();
+        assertThat(sampler.getStatistics().getEventsKept()).isEqualTo(11);
+        assertThat(sampler.getStatistics().getEventsRateLimited()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldAllowBurstsOfOneSecondOfEventsByDefault() {
+        // given
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.setMaxEventsPerSecond(50);
+        final EventSampler sampler = new EventSampler(policy, START);
+
+        // when
+        int burst = 0;
+        while (sampler.accept(SUCCESSFUL_EVENT, START)) {
+            burst++;
+        }
+
+        // then
+        assertThat(burst).isEqualTo(50);
+    }
+
+    @Test
+    public void shouldAlwaysKeepEventsMatchingFilters() {
+        // given
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.setSampleRate(0.0);
+        policy.setMaxEventsPerSecond(1);
+        policy.setAlwaysKeep(singletonList("/response/status eq \"FAILED\""));
+        final EventSampler sampler = new EventSampler(policy, START);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            assertThat(sampler.accept(FAILED_EVENT, START)).isTrue();
+            assertThat(sampler.accept(SUCCESSFUL_EVENT, START)).isFalse();
+        }
+
+        // then
+        assertThat(sampler.getStatistics().getEventsKept()).isEqualTo(10);
+        assertThat(sampler.getStatistics().getEventsAlwaysKept()).isEqualTo(10);
+        assertThat(sampler.getStatistics().getEventsSampledOut()).isEqualTo(10);
+        assertThat(sampler.getStatistics().getEventsDropped()).isEqualTo(10);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectSampleRateAboveOne() {
+        // given
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.setSampleRate(1.5);
+
+        // when
+        new EventSampler(policy);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectInvalidAlwaysKeepFilter() {
+        // given
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.setAlwaysKeep(singletonList("/response/status is FAILED"));
+
+        // when
+        new EventSampler(policy);
+    }
+}
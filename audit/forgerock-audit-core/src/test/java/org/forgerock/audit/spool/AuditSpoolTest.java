@@ -0,0 +1,310 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.spool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class AuditSpoolTest {
+
+    private static final long SEGMENT_SIZE = 1024L;
+
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("audit-spool");
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void shouldPollAppendedRecordsInOrderAcrossSegments() throws Exception {
+        // given
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            appendRecords(spool, 0, 100);
+
+            // when
+            final List<String> records = pollAll(spool);
+
+            // then
+            assertThat(segmentFiles()).hasSizeGreaterThan(1);
+            assertThat(records).containsExactlyElementsOf(expectedRecords(0, 100));
+            assertThat(spool.isFullyPolled()).isTrue();
+        }
+    }
+
+    @DataProvider
+    public Object[][] fsyncPolicies() {
+        return new Object[][] { { FsyncPolicy.NONE }, { FsyncPolicy.INTERVAL }, { FsyncPolicy.ALWAYS } };
+    }
+
+    @Test(dataProvider = "fsyncPolicies")
+    public void shouldReplayUncommittedRecordsAfterReopening(final FsyncPolicy fsyncPolicy) throws Exception {
+        // given
+        try (AuditSpool spool = openSpool(fsyncPolicy)) {
+            appendRecords(spool, 0, 50);
+            spool.commit(spool.poll(20));
+            spool.poll(10);
+        }
+
+        // when
+        try (AuditSpool spool = openSpool(fsyncPolicy)) {
+            // then
+            assertThat(pollAll(spool)).containsExactlyElementsOf(expectedRecords(20, 50));
+        }
+    }
+
+    @Test
+    public void shouldRecoverRecordsAfterCrash() throws Exception {
+        // given
+        final AuditSpool crashed = openSpool(FsyncPolicy.NONE);
+        try {
+            appendRecords(crashed, 0, 30);
+            crashed.commit(crashed.poll(10));
+
+            // when
+            try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+                appendRecords(spool, 30, 40);
+
+                // then
+                assertThat(pollAll(spool)).containsExactlyElementsOf(expectedRecords(10, 40));
+            }
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    public void shouldTruncateIncompleteRecordAfterCrash() throws Exception {
+        // given
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            appendRecords(spool, 0, 3);
+        }
+        final Path segment = segmentFiles().get(0);
+        final long length = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            // header of a 100 bytes record, followed by the first 10 bytes only
+            channel.write(ByteBuffer.allocate(AuditSpool.RECORD_HEADER_SIZE + 10).putInt(100).putInt(42).rewind());
+        }
+
+        // when
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            appendRecords(spool, 3, 4);
+
+            // then
+            assertThat(pollAll(spool)).containsExactlyElementsOf(expectedRecords(0, 4));
+            assertThat(Files.size(segment)).isGreaterThan(length);
+        }
+    }
+
+    @Test
+    public void shouldTruncateCorruptRecord() throws Exception {
+        // given
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            appendRecords(spool, 0, 3);
+        }
+        final Path segment = segmentFiles().get(0);
+        final int recordLength = record(0).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // corrupt the last byte of the second record
+            channel.write(ByteBuffer.wrap(new byte[] { 'X' }), 2L * (AuditSpool.RECORD_HEADER_SIZE + recordLength) - 1);
+        }
+
+        // when
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            // then
+            assertThat(pollAll(spool)).containsExactlyElementsOf(expectedRecords(0, 1));
+        }
+    }
+
+    @Test
+    public void shouldRewindToLastCommittedBatch() throws Exception {
+        // given
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            appendRecords(spool, 0, 10);
+            spool.commit(spool.poll(2));
+            spool.poll(3);
+
+            // when
+            spool.rewind();
+
+            // then
+            assertThat(pollAll(spool)).containsExactlyElementsOf(expectedRecords(2, 10));
+        }
+    }
+
+    @Test
+    public void shouldDeleteCommittedSegments() throws Exception {
+        // given
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            appendRecords(spool, 0, 100);
+            final int segments = segmentFiles().size();
+            final long size = spool.getSize();
+
+            // when
+            spool.commit(spool.poll(90));
+
+            // then
+            assertThat(segmentFiles().size()).isLessThan(segments);
+            assertThat(spool.getSize()).isLessThan(size);
+            assertThat(pollAll(spool)).containsExactlyElementsOf(expectedRecords(90, 100));
+        }
+    }
+
+    @Test
+    public void shouldRejectRecordsWhenFullUntilSegmentsAreCommitted() throws Exception {
+        // given
+        try (AuditSpool spool = AuditSpool.newBuilder(directory)
+                .fsyncPolicy(FsyncPolicy.NONE)
+                .segmentSize(SEGMENT_SIZE)
+                .maxSize(2 * SEGMENT_SIZE)
+                .build()) {
+            int appended = 0;
+            while (spool.append(record(appended))) {
+                appended++;
+            }
+
+            // when
+            final boolean appendedWhenFull = spool.append(record(appended));
+            spool.commit(spool.poll(appended));
+
+            // then
+            assertThat(appendedWhenFull).isFalse();
+            assertThat(spool.getRejectedRecords()).isEqualTo(2);
+            assertThat(spool.getSize()).isLessThanOrEqualTo(2 * SEGMENT_SIZE);
+            assertThat(spool.append(record(appended))).isTrue();
+            assertThat(pollAll(spool)).containsExactly(new String(record(appended), UTF_8));
+        }
+    }
+
+    @Test
+    public void shouldRollFullyCommittedSegmentWhenSpoolHoldsASingleSegment() throws Exception {
+        // given
+        try (AuditSpool spool = AuditSpool.newBuilder(directory)
+                .fsyncPolicy(FsyncPolicy.NONE)
+                .segmentSize(SEGMENT_SIZE)
+                .maxSize(SEGMENT_SIZE)
+                .build()) {
+            int appended = 0;
+            for (int round = 0; round < 3; round++) {
+                while (spool.append(record(appended))) {
+                    appended++;
+                }
+
+                // when
+                spool.commit(spool.poll(appended));
+
+                // then
+                assertThat(spool.getSize()).isZero();
+                assertThat(segmentFiles()).hasSize(1);
+                assertThat(spool.isFullyPolled()).isTrue();
+            }
+            assertThat(spool.append(record(appended))).isTrue();
+            assertThat(pollAll(spool)).containsExactly(new String(record(appended), UTF_8));
+        }
+
+        // and the checkpoint is valid once reopened
+        try (AuditSpool spool = AuditSpool.newBuilder(directory)
+                .fsyncPolicy(FsyncPolicy.NONE)
+                .segmentSize(SEGMENT_SIZE)
+                .maxSize(SEGMENT_SIZE)
+                .build()) {
+            assertThat(spool.getSize()).isGreaterThan(0);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectMaxSizeSmallerThanSegmentSize() throws Exception {
+        AuditSpool.newBuilder(directory).segmentSize(SEGMENT_SIZE).maxSize(SEGMENT_SIZE - 1).build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectRecordLargerThanSegment() throws Exception {
+        try (AuditSpool spool = openSpool(FsyncPolicy.NONE)) {
+            spool.append(new byte[(int) SEGMENT_SIZE]);
+        }
+    }
+
+    private AuditSpool openSpool(final FsyncPolicy fsyncPolicy) throws IOException {
+        return AuditSpool.newBuilder(directory)
+                .fsyncPolicy(fsyncPolicy)
+                .segmentSize(SEGMENT_SIZE)
+                .build();
+    }
+
+    private static void appendRecords(final AuditSpool spool, final int from, final int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            assertThat(spool.append(record(i))).isTrue();
+        }
+    }
+
+    private static List<String> pollAll(final AuditSpool spool) throws IOException {
+        final List<String> records = new ArrayList<>();
+        for (SpoolBatch batch = spool.poll(7); !batch.isEmpty(); batch = spool.poll(7)) {
+            for (final byte[] record : batch.getRecords()) {
+                records.add(new String(record, UTF_8));
+            }
+        }
+        return records;
+    }
+
+    private static byte[] record(final int index) {
+        return String.format("{\"_id\":\"%05d\",\"eventName\":\"AM-ACCESS-OUTCOME\"}", index).getBytes(UTF_8);
+    }
+
+    private static List<String> expectedRecords(final int from, final int to) {
+        final List<String> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            records.add(new String(record(i), UTF_8));
+        }
+        return records;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        final List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*")) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+}
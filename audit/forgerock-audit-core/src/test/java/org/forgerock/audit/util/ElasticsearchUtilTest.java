@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.util;
@@ -89,6 +90,50 @@ public class ElasticsearchUtilTest {
                 .isEqualTo(OBJECT_MAPPER.writeValueAsString(beforeNormalization.getObject()));
     }
 
+    @Test
+    public void appendNormalizedJsonTest() throws Exception {
+        // given
+        final JsonValue beforeNormalization = resourceAsJsonValue(RESOURCE_PATH + "authEventBeforeNormalization.json");
+        beforeNormalization.put("_id", "id");
+        final StringBuilder builder = new StringBuilder("{ \"index\" : {} }\n");
+
+        // when
+        appendNormalizedJson(builder, beforeNormalization, "_id");
+
+        // then
+        assertThat(builder.toString()).startsWith("{ \"index\" : {} }\n{");
+        final JsonValue result = json(readJson(builder.substring(builder.indexOf("\n") + 1)));
+        assertThat(result.isDefined("_id")).isFalse();
+        assertThat(result.get(NORMALIZED_FIELD).get(FIELD_NAMES_FIELD).asMap()).containsExactly(FIELD_NAME_PAIR);
+        beforeNormalization.remove("_id");
+        assertThat(denormalizeJson(result).getObject()).isEqualTo(beforeNormalization.getObject());
+    }
+
+    @Test
+    public void normalizeJsonShouldOnlyRenameFieldNames() throws Exception {
+        // given
+        final JsonValue value = json(object(
+                field("a.b", "{\"c.d\":1}"),
+                field("list", array(object(field("e.f", array(1, 2.5, true, null))))),
+                field("g", object(field("h.i", object(field("j.k", "l.m")))))));
+
+        // when
+        final JsonValue result = json(readJson(normalizeJson(value)));
+
+        // then
+        assertThat(result.get("a_b").asString()).isEqualTo("{\"c.d\":1}");
+        assertThat(result.get("list").get(0).get("e_f").asList()).containsExactly(1, 2.5, true, null);
+        assertThat(result.get("g").get("h_i").get("j_k").asString()).isEqualTo("l.m");
+        assertThat(result.get(NORMALIZED_FIELD).get(FIELD_NAMES_FIELD).asMap()).containsOnlyKeys(
+                "a_b", "e_f", "h_i", "j_k");
+        assertThat(denormalizeJson(result).getObject()).isEqualTo(value.getObject());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void normalizeJsonShouldRejectNormalizedField() throws Exception {
+        normalizeJson(json(object(field(NORMALIZED_FIELD, object()))));
+    }
+
     @Test
     public void renameFieldTest() throws Exception {
         // given
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -32,13 +33,16 @@ import static org.forgerock.json.JsonValue.object;
 import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
 import static org.forgerock.json.resource.Responses.newQueryResponse;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
+import static org.forgerock.util.Utils.closeSilently;
 import static org.forgerock.util.Utils.isNullOrEmpty;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -60,6 +64,8 @@ import org.forgerock.audit.events.handlers.AuditEventHandlerBase;
 import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.CsvSecurity;
 import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.EventBufferingConfiguration;
 import org.forgerock.audit.providers.KeyStoreHandlerProvider;
+import org.forgerock.audit.retention.ArchiveCompression;
+import org.forgerock.audit.retention.ArchiveIndex;
 import org.forgerock.audit.retention.TimeStampFileNamingPolicy;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandler;
@@ -71,6 +77,7 @@ import org.forgerock.json.resource.ActionResponse;
 import org.forgerock.json.resource.BadRequestException;
 import org.forgerock.json.resource.InternalServerErrorException;
 import org.forgerock.json.resource.NotFoundException;
+import org.forgerock.json.resource.Projection;
 import org.forgerock.json.resource.QueryFilters;
 import org.forgerock.json.resource.QueryRequest;
 import org.forgerock.json.resource.QueryResourceHandler;
@@ -147,6 +154,11 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
         this.csvPreference = createCsvPreference(this.configuration);
         CsvSecurity security = configuration.getSecurity();
         if (security.isEnabled()) {
+            if (configuration.getFileRotation().getRotationFileCompression() != ArchiveCompression.NONE) {
+                LOGGER.warn("Secure CSV logging does not support compression of rotated files. "
+                        + "Compression config will be ignored.");
+                configuration.getFileRotation().setRotationFileCompression(ArchiveCompression.NONE);
+            }
             Duration duration = security.getSignatureIntervalDuration();
             Reject.ifTrue(duration.isZero() || duration.isUnlimited(),
                     "The signature interval can't be zero or unlimited");
@@ -347,8 +359,8 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
         }
     }
 
-    private ICsvMapReader createCsvMapReader(final File auditFile) throws IOException {
-        CsvMapReader csvReader = new CsvMapReader(new FileReader(auditFile), csvPreference);
+    private ICsvMapReader createCsvMapReader(final InputStream auditFileStream) {
+        CsvMapReader csvReader = new CsvMapReader(new InputStreamReader(auditFileStream), csvPreference);
 
         if (configuration.getSecurity().isEnabled()) {
             return new CsvSecureMapReader(csvReader);
@@ -377,8 +389,10 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
             QueryRequest query,
             QueryResourceHandler handler) {
         try {
+            final Projection projection = Projection.of(query);
             for (final JsonValue value : getEntries(topic, query.getQueryFilter())) {
-                handler.handleResource(newResourceResponse(value.get(FIELD_CONTENT_ID).asString(), null, value));
+                handler.handleResource(projection.apply(
+                        newResourceResponse(value.get(FIELD_CONTENT_ID).asString(), null, value)));
             }
             return newQueryResponse().asPromise();
         } catch (Exception e) {
@@ -495,6 +509,7 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
 
     /**
      * Parser the csv file corresponding the the specified audit entry type and returns a set of matching audit entries.
+     * When file rotation is enabled, the rotated files are parsed as well, transparently decompressing them.
      *
      * @param auditEntryType the audit log type
      * @param queryFilter the query filter to apply to the entries
@@ -503,30 +518,51 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
      */
     private Set<JsonValue> getEntries(final String auditEntryType, QueryFilter<JsonPointer> queryFilter)
             throws IOException {
-        final File auditFile = getAuditLogFile(auditEntryType);
         final Set<JsonValue> results = new HashSet<>();
         if (queryFilter == null) {
             queryFilter = QueryFilter.alwaysTrue();
         }
-        if (auditFile.exists()) {
-            try (ICsvMapReader reader = createCsvMapReader(auditFile)) {
-                // the header elements are used to map the values to the bean (names must match)
-                final String[] header = convertDotNotationToSlashes(reader.getHeader(true));
-                final CellProcessor[] processors = createCellProcessors(auditEntryType, header);
-                Map<String, Object> entry;
-                while ((entry = reader.read(header, processors)) != null) {
-                    entry = convertDotNotationToSlashes(entry);
-                    final JsonValue jsonEntry = expand(entry);
-                    if (queryFilter.accept(JSONVALUE_FILTER_VISITOR, jsonEntry)) {
-                        results.add(jsonEntry);
+        final List<InputStream> auditFileStreams = openAuditFiles(auditEntryType);
+        try {
+            for (final InputStream auditFileStream : auditFileStreams) {
+                try (ICsvMapReader reader = createCsvMapReader(auditFileStream)) {
+                    // the header elements are used to map the values to the bean (names must match)
+                    final String[] fileHeader = reader.getHeader(true);
+                    if (fileHeader == null) {
+                        // an empty file, or a rotated file deleted in the meantime
+                        continue;
+                    }
+                    final String[] header = convertDotNotationToSlashes(fileHeader);
+                    final CellProcessor[] processors = createCellProcessors(auditEntryType, header);
+                    Map<String, Object> entry;
+                    while ((entry = reader.read(header, processors)) != null) {
+                        entry = convertDotNotationToSlashes(entry);
+                        final JsonValue jsonEntry = expand(entry);
+                        if (queryFilter.accept(JSONVALUE_FILTER_VISITOR, jsonEntry)) {
+                            results.add(jsonEntry);
+                        }
                     }
                 }
-
             }
+        } finally {
+            closeSilently(auditFileStreams);
         }
         return results;
     }
 
+    private List<InputStream> openAuditFiles(final String auditEntryType) throws IOException {
+        final CsvWriter csvWriter = writers.get(auditEntryType);
+        final ArchiveIndex archiveIndex = csvWriter != null ? csvWriter.getArchiveIndex() : null;
+        if (archiveIndex != null) {
+            return archiveIndex.openArchivesAndInitialFile();
+        }
+        final File auditFile = getAuditLogFile(auditEntryType);
+        if (auditFile.exists()) {
+            return Collections.<InputStream>singletonList(new FileInputStream(auditFile));
+        }
+        return Collections.emptyList();
+    }
+
     private CellProcessor[] createCellProcessors(final String auditEntryType, final String[] headers)
             throws ResourceException {
         final List<CellProcessor> cellProcessors = new ArrayList<>();
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -21,6 +22,13 @@ import java.io.File;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.audit.handlers.csv.CsvSecureVerifier.VerificationResult;
 import org.forgerock.audit.retention.FileNamingPolicy;
@@ -34,6 +42,9 @@ import org.supercsv.prefs.CsvPreference;
 
 /**
  * Responsible for locating and verifying an archived set of tamper evident CSV audit log files for a particular topic.
+ * <p>
+ * The files are verified in parallel, each by a {@link CsvSecureStreamingVerifier} which shares the threads hashing
+ * the rows with the other files, unless its CSV preference or size requires the {@link CsvSecureVerifier}.
  */
 class CsvSecureArchiveVerifier {
 
@@ -43,38 +54,94 @@ class CsvSecureArchiveVerifier {
     private final String keystorePassword;
     private final PublicKey publicKey;
     private final CsvPreference csvPreference;
+    private final int threadCount;
 
     CsvSecureArchiveVerifier(final FileNamingPolicy fileNamingPolicy, final String keystorePassword,
             final PublicKey publicKey, CsvPreference csvPreference) {
+        this(fileNamingPolicy, keystorePassword, publicKey, csvPreference,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    CsvSecureArchiveVerifier(final FileNamingPolicy fileNamingPolicy, final String keystorePassword,
+            final PublicKey publicKey, CsvPreference csvPreference, int threadCount) {
         this.keystorePassword = keystorePassword;
         this.publicKey = publicKey;
         this.fileNamingPolicy = fileNamingPolicy;
         this.csvPreference = csvPreference;
+        this.threadCount = Math.max(threadCount, 1);
     }
 
     List<VerificationResult> verify() {
         List<File> archiveFiles = fileNamingPolicy.listFiles();
         List<VerificationResult> verificationResults = new ArrayList<>(archiveFiles.size());
-        for (File archiveFile : archiveFiles) {
-            logger.trace("Verifying file {}", archiveFile);
-            VerificationResult verificationResult;
-            try {
-                verificationResult = verifyArchiveFile(archiveFile, keystorePassword, publicKey);
-            } catch (Exception e) {
-                verificationResult = new VerificationResult(archiveFile, false, e.getMessage());
+        if (archiveFiles.isEmpty()) {
+            return verificationResults;
+        }
+        // Files and rows use separate pools, as the threads of the former wait for the latter
+        final ExecutorService fileExecutor =
+                Executors.newFixedThreadPool(Math.min(threadCount, archiveFiles.size()), newThreadFactory("file"));
+        final ExecutorService hashExecutor = Executors.newFixedThreadPool(threadCount, newThreadFactory("hash"));
+        try {
+            List<Future<VerificationResult>> futures = new ArrayList<>(archiveFiles.size());
+            for (final File archiveFile : archiveFiles) {
+                futures.add(fileExecutor.submit(new Callable<VerificationResult>() {
+                    @Override
+                    public VerificationResult call() {
+                        logger.trace("Verifying file {}", archiveFile);
+                        try {
+                            return verifyArchiveFile(archiveFile, keystorePassword, publicKey, hashExecutor);
+                        } catch (Exception e) {
+                            return new VerificationResult(archiveFile, false, e.getMessage());
+                        }
+                    }
+                }));
             }
-            verificationResults.add(verificationResult);
+            for (int i = 0; i < futures.size(); i++) {
+                verificationResults.add(await(futures.get(i), archiveFiles.get(i)));
+            }
+        } finally {
+            fileExecutor.shutdownNow();
+            hashExecutor.shutdownNow();
         }
         return verificationResults;
     }
 
-    private VerificationResult verifyArchiveFile(File archiveFile, String keystorePassword, PublicKey publicKey)
-            throws Exception {
+    private VerificationResult await(Future<VerificationResult> future, File archiveFile) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new VerificationResult(archiveFile, false, "Verification interrupted");
+        } catch (ExecutionException e) {
+            return new VerificationResult(archiveFile, false, e.getCause().getMessage());
+        }
+    }
+
+    private VerificationResult verifyArchiveFile(File archiveFile, String keystorePassword, PublicKey publicKey,
+            ExecutorService hashExecutor) throws Exception {
         SecureStorage secureStorage = openSecureStorageForCsvFile(archiveFile, keystorePassword, publicKey);
+        if (CsvSecureStreamingVerifier.isSupported(archiveFile, csvPreference)) {
+            CsvSecureStreamingVerifier verifier = new CsvSecureStreamingVerifier(archiveFile, csvPreference,
+                    secureStorage, publicKey, hashExecutor, threadCount * 2);
+            return verifier.verify();
+        }
         CsvSecureVerifier verifier = new CsvSecureVerifier(archiveFile, csvPreference, secureStorage);
         return verifier.verify();
     }
 
+    private static ThreadFactory newThreadFactory(final String stage) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable,
+                        "CsvSecureArchiveVerifier-" + stage + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
     private SecureStorage openSecureStorageForCsvFile(File csvFile, String keystorePassword, PublicKey publicKey)
             throws Exception {
         String keystorePath = csvFile.getPath() + ".keystore";
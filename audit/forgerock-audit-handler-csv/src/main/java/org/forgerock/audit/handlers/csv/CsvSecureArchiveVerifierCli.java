@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -24,7 +25,9 @@ import java.nio.file.Path;
 import java.security.PublicKey;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
@@ -52,6 +55,9 @@ public final class CsvSecureArchiveVerifierCli {
     private static final Option<String> SUFFIX = Option.of(String.class, DEFAULT_ROTATION_FILE_SUFFIX);
     private static final Option<Path> KEYSTORE_FILE = Option.of(Path.class, null);
     private static final Option<String> KEYSTORE_PASSWORD = Option.of(String.class, null);
+    private static final Option<Integer> THREADS =
+            Option.of(Integer.class, Runtime.getRuntime().availableProcessors());
+    private static final Option<Boolean> REPORT = Option.of(Boolean.class, false);
 
     @VisibleForTesting
     static PrintStream out = System.out;
@@ -96,11 +102,17 @@ public final class CsvSecureArchiveVerifierCli {
             return;
         }
 
-        final CsvSecureArchiveVerifier archiveVerifier =
-                new CsvSecureArchiveVerifier(fileNamingPolicy, password, publicKey, CsvPreference.EXCEL_PREFERENCE);
+        final int threads = options.get(THREADS);
+        final CsvSecureArchiveVerifier archiveVerifier = new CsvSecureArchiveVerifier(fileNamingPolicy, password,
+                publicKey, CsvPreference.EXCEL_PREFERENCE, threads);
+        final long start = System.nanoTime();
         final List<CsvSecureVerifier.VerificationResult> verificationResults = archiveVerifier.verify();
+        final long elapsedNanos = System.nanoTime() - start;
 
         printVerificationResults(verificationResults, out);
+        if (options.get(REPORT)) {
+            printThroughputReport(verificationResults, elapsedNanos, threads, out);
+        }
     }
 
     private static KeyStoreHandlerDecorator getKeyStoreHandlerDecorator(
@@ -144,6 +156,27 @@ public final class CsvSecureArchiveVerifierCli {
         }
     }
 
+    /**
+     * Prints the number and size of the verified files, and the throughput of the verification.
+     *
+     * @param verificationResults the results of the verification
+     * @param elapsedNanos the duration of the verification
+     * @param threads the number of threads verifying the files
+     * @param out the stream to print to
+     */
+    static void printThroughputReport(final List<VerificationResult> verificationResults, final long elapsedNanos,
+            final int threads, final PrintStream out) {
+        long bytes = 0;
+        for (final VerificationResult verificationResult : verificationResults) {
+            bytes += verificationResult.getArchiveFile().length();
+        }
+        final double mebibytes = bytes / (1024.0 * 1024.0);
+        final double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        out.println(String.format(Locale.ROOT, "Verified %d files (%.1f MiB) in %d ms: %.1f MiB/s with %d threads",
+                verificationResults.size(), mebibytes, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                seconds > 0 ? mebibytes / seconds : 0.0, threads));
+    }
+
     static final class OptionsParser {
 
         static final String FLAG_ARCHIVE_DIRECTORY = "--archive";
@@ -152,6 +185,8 @@ public final class CsvSecureArchiveVerifierCli {
         static final String FLAG_SUFFIX = "--suffix";
         static final String FLAG_KEYSTORE_FILE = "--keystore";
         static final String FLAG_KEYSTORE_PASSWORD = "--password";
+        static final String FLAG_THREADS = "--threads";
+        static final String FLAG_REPORT = "--report";
 
         private static final String DESC_ARCHIVE_DIRECTORY = "path to directory containing files to verify";
         private static final String DESC_TOPIC = "name of topic fileset to verify";
@@ -159,6 +194,8 @@ public final class CsvSecureArchiveVerifierCli {
         private static final String DESC_SUFFIX = "format of timestamp suffix appended to archive files";
         private static final String DESC_KEYSTORE_FILE = "path to keystore file";
         private static final String DESC_KEYSTORE_PASSWORD = "keystore file password";
+        private static final String DESC_THREADS = "number of threads verifying files (default: number of CPUs)";
+        private static final String DESC_REPORT = "print the verification throughput";
 
         private final PrintStream out;
         private final PrintStream err;
@@ -177,7 +214,8 @@ public final class CsvSecureArchiveVerifierCli {
             }
 
             Set<String> flagsSeen = new HashSet<>();
-            for (int i = 0; i < args.length; i += 2) {
+            int i = 0;
+            while (i < args.length) {
                 final boolean isLastArgument = args.length == i + 1;
                 final String currentArgument = args[i];
                 if (flagsSeen.contains(currentArgument)) {
@@ -186,6 +224,7 @@ public final class CsvSecureArchiveVerifierCli {
                 }
                 flagsSeen.add(currentArgument);
                 final String nextArgument = isLastArgument ? null : args[i + 1];
+                int argumentCount = 2;
                 switch (currentArgument) {
                 case FLAG_ARCHIVE_DIRECTORY:
                     options.set(ARCHIVE_DIRECTORY,
@@ -207,10 +246,22 @@ public final class CsvSecureArchiveVerifierCli {
                     options.set(KEYSTORE_PASSWORD,
                             getStringOption(nextArgument, FLAG_KEYSTORE_PASSWORD, DESC_KEYSTORE_PASSWORD));
                     break;
+                case FLAG_THREADS:
+                    final Integer threads = getPositiveIntegerOption(nextArgument, FLAG_THREADS, DESC_THREADS);
+                    if (threads == null) {
+                        return null;
+                    }
+                    options.set(THREADS, threads);
+                    break;
+                case FLAG_REPORT:
+                    options.set(REPORT, true);
+                    argumentCount = 1;
+                    break;
                 default:
                     err.println("Unknown flag " + currentArgument);
                     return null;
                 }
+                i += argumentCount;
             }
 
             if (!flagsSeen.contains(FLAG_ARCHIVE_DIRECTORY) && options.get(ARCHIVE_DIRECTORY) == null) {
@@ -235,8 +286,9 @@ public final class CsvSecureArchiveVerifierCli {
 
         private void printHelp() {
             out.println(String.format("arguments: %s <path> %s <topic> [%s <prefix>] "
-                    + "[%s <suffix>] %s <path> %s <password>", FLAG_ARCHIVE_DIRECTORY, FLAG_TOPIC, FLAG_PREFIX,
-                    FLAG_SUFFIX, FLAG_KEYSTORE_FILE, FLAG_KEYSTORE_PASSWORD));
+                    + "[%s <suffix>] %s <path> %s <password> [%s <threads>] [%s]", FLAG_ARCHIVE_DIRECTORY,
+                    FLAG_TOPIC, FLAG_PREFIX, FLAG_SUFFIX, FLAG_KEYSTORE_FILE, FLAG_KEYSTORE_PASSWORD, FLAG_THREADS,
+                    FLAG_REPORT));
             out.println("");
             out.println(String.format("   %-15s %s", FLAG_ARCHIVE_DIRECTORY, DESC_ARCHIVE_DIRECTORY));
             out.println(String.format("   %-15s %s", FLAG_TOPIC, DESC_TOPIC));
@@ -244,6 +296,8 @@ public final class CsvSecureArchiveVerifierCli {
             out.println(String.format("   %-15s %s", FLAG_SUFFIX, DESC_SUFFIX));
             out.println(String.format("   %-15s %s", FLAG_KEYSTORE_FILE, DESC_KEYSTORE_FILE));
             out.println(String.format("   %-15s %s", FLAG_KEYSTORE_PASSWORD, DESC_KEYSTORE_PASSWORD));
+            out.println(String.format("   %-15s %s", FLAG_THREADS, DESC_THREADS));
+            out.println(String.format("   %-15s %s", FLAG_REPORT, DESC_REPORT));
         }
 
         private Path getPathOption(String nextArgument, String flag, String description) {
@@ -267,6 +321,23 @@ public final class CsvSecureArchiveVerifierCli {
             return nextArgument;
         }
 
+        private Integer getPositiveIntegerOption(String nextArgument, String flag, String description) {
+            if (nextArgument == null) {
+                err.println(flag + " flag must be followed by " + description);
+                return null;
+            }
+            try {
+                final int value = Integer.parseInt(nextArgument);
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            err.println(flag + " flag must be followed by a positive integer");
+            return null;
+        }
+
     }
 
     /**
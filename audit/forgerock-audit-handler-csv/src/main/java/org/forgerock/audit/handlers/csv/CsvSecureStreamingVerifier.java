@@ -0,0 +1,606 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.csv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.forgerock.audit.handlers.csv.CsvSecureConstants.*;
+import static org.forgerock.audit.handlers.csv.CsvSecureUtils.dataToSign;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.audit.handlers.csv.CsvSecureVerifier.VerificationResult;
+import org.forgerock.audit.secure.SecureStorage;
+import org.forgerock.audit.secure.SecureStorageException;
+import org.forgerock.util.encode.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.supercsv.prefs.CsvPreference;
+
+/**
+ * Verifies a secure CSV file like {@link CsvSecureVerifier}, but tokenizes the rows straight from the bytes of the
+ * memory-mapped file, and verifies them in two pipelined stages.
+ * <p>
+ * A single thread scans the rows, which only locates the fields of each row, and derives the HMAC key of each row
+ * from the initial key. The rows are grouped in batches, each starting with the HMAC key of its first row, which are
+ * verified by the threads of a provided executor while the next rows are scanned. Each batch feeds the unescaped
+ * bytes of the fields to the HMAC, without decoding them to strings. The signature rows, which sign the previous
+ * signature and the last HMAC, are periodic checkpoints which are verified independently by the batch containing
+ * them, so that the segments between signatures are verified in parallel.
+ * <p>
+ * The CSV files must be encoded in UTF-8, as written by {@link SecureCsvWriter}. The preferences which are not
+ * supported by the tokenizer, and files larger than 2 GiB, must be verified by {@link CsvSecureVerifier}.
+ */
+class CsvSecureStreamingVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvSecureStreamingVerifier.class);
+
+    /** Number of rows verified by each task. */
+    static final int BATCH_ROWS = 512;
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final File csvFile;
+    private final SecureStorage secureStorage;
+    private final PublicKey publicKey;
+    private final ExecutorService executor;
+    private final int maxPendingBatches;
+    private final byte quote;
+    private final byte delimiter;
+
+    private long rowCount;
+
+    /**
+     * Constructs a new verifier.
+     *
+     * @param csvFile
+     *            the CSV file to verify
+     * @param csvPreference
+     *            the CSV preference to use, which must be {@link #isSupported(File, CsvPreference) supported}
+     * @param secureStorage
+     *            the secure storage containing the initial and current HMAC keys
+     * @param publicKey
+     *            the public key verifying the signatures
+     * @param executor
+     *            the executor verifying the batches of rows, which must not run the calling thread
+     * @param maxPendingBatches
+     *            the maximum number of batches scanned but not verified yet
+     */
+    CsvSecureStreamingVerifier(File csvFile, CsvPreference csvPreference, SecureStorage secureStorage,
+            PublicKey publicKey, ExecutorService executor, int maxPendingBatches) {
+        this.csvFile = csvFile;
+        this.secureStorage = secureStorage;
+        this.publicKey = publicKey;
+        this.executor = executor;
+        this.maxPendingBatches = Math.max(maxPendingBatches, 1);
+        this.quote = (byte) csvPreference.getQuoteChar();
+        this.delimiter = (byte) csvPreference.getDelimiterChar();
+    }
+
+    /**
+     * Indicates whether a file can be verified by this verifier, or must be verified by {@link CsvSecureVerifier}.
+     *
+     * @param csvFile
+     *            the CSV file to verify
+     * @param csvPreference
+     *            the CSV preference to use
+     * @return {@code true} if the quote and delimiter are ASCII characters, empty lines are ignored, surrounding
+     *         spaces are preserved, there are no comments, and the file is smaller than 2 GiB
+     */
+    static boolean isSupported(File csvFile, CsvPreference csvPreference) {
+        return csvPreference.getQuoteChar() < 0x80
+                && csvPreference.getDelimiterChar() < 0x80
+                && csvPreference.getQuoteChar() != csvPreference.getDelimiterChar()
+                && csvPreference.isIgnoreEmptyLines()
+                && !csvPreference.isSurroundingSpacesNeedQuotes()
+                && csvPreference.getCommentMatcher() == null
+                && csvFile.length() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Verifies the file.
+     *
+     * @return the verification result
+     * @throws IOException
+     *            if the file or the secure storage could not be read
+     */
+    public VerificationResult verify() throws IOException {
+        final byte[] initialKey;
+        final SecretKey currentKey;
+        try {
+            final SecretKey key = secureStorage.readInitialKey();
+            if (key == null) {
+                throw new IllegalStateException("Expecting to find an initial key into the keystore.");
+            }
+            initialKey = key.getEncoded();
+            currentKey = secureStorage.readCurrentKey();
+        } catch (SecureStorageException e) {
+            throw new IOException(e);
+        }
+
+        try (FileChannel channel = FileChannel.open(csvFile.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return verify(new RowScanner(buffer, quote, delimiter), initialKey, currentKey);
+        }
+    }
+
+    /**
+     * Returns the number of rows read by the last verification, including the header.
+     *
+     * @return the number of rows
+     */
+    long getRowCount() {
+        return rowCount;
+    }
+
+    private VerificationResult verify(RowScanner scanner, byte[] initialKey, SecretKey currentKey)
+            throws IOException {
+        final int[] header = scanner.nextRow();
+        final String[] headerNames = new String[header == null ? 0 : header.length / 2];
+        for (int i = 0; i < headerNames.length; i++) {
+            headerNames[i] = scanner.fieldString(header, i);
+        }
+        if (headerNames.length < 2
+                || !(HEADER_HMAC.equals(headerNames[headerNames.length - 2])
+                && HEADER_SIGNATURE.equals(headerNames[headerNames.length - 1]))) {
+            int checkCount = 0;
+            for (String string : headerNames) {
+                if (HEADER_HMAC.equals(string) || HEADER_SIGNATURE.equals(string)) {
+                    checkCount++;
+                }
+            }
+            String msg = "Found only " + checkCount + " checked headers from : " + Arrays.toString(headerNames);
+            logger.debug(msg);
+            return newVerificationFailureResult(msg);
+        }
+        final int columns = headerNames.length;
+        final int hmacColumn = columns - 2;
+        final int signatureColumn = columns - 1;
+
+        final MessageDigest messageDigest = newMessageDigest();
+        final Semaphore pendingBatches = new Semaphore(maxPendingBatches);
+        final AtomicInteger failedBatch = new AtomicInteger(Integer.MAX_VALUE);
+        final List<Future<String>> batches = new ArrayList<>();
+        String scanFailure = null;
+        byte[] key = initialKey;
+        byte[] lastSignature = null;
+        String lastHMAC = null;
+        boolean lastRowWasSigned = false;
+        long rowNumber = 1;
+        Batch batch = null;
+        try {
+            int[] row;
+            while (failedBatch.get() == Integer.MAX_VALUE && (row = scanner.nextRow()) != null) {
+                rowNumber++;
+                if (row.length != columns * 2) {
+                    scanFailure = "The row " + rowNumber + " has " + row.length / 2 + " columns instead of "
+                            + columns + ".";
+                    break;
+                }
+                if (batch == null) {
+                    pendingBatches.acquireUninterruptibly();
+                    batch = new Batch(batches.size(), scanner, hmacColumn, key, pendingBatches, failedBatch);
+                }
+                lastRowWasSigned = false;
+                if (!scanner.isNull(row, signatureColumn)) {
+                    final String encodedSign = scanner.fieldString(row, signatureColumn);
+                    if (rowNumber == 2) {
+                        // Special case : this is a rotated file, do not verify the signature but store it.
+                        lastSignature = Base64.decode(encodedSign);
+                        continue;
+                    }
+                    batch.addSignature(rowNumber, encodedSign, dataToSign(lastSignature, lastHMAC));
+                    lastSignature = Base64.decode(encodedSign);
+                    lastRowWasSigned = true;
+                } else {
+                    batch.addHmac(rowNumber, row);
+                    lastHMAC = scanner.isNull(row, hmacColumn) ? null : scanner.fieldString(row, hmacColumn);
+                    key = messageDigest.digest(key);
+                }
+                if (batch.size() == BATCH_ROWS) {
+                    batches.add(executor.submit(batch));
+                    batch = null;
+                }
+            }
+        } catch (IOException e) {
+            scanFailure = e.getMessage();
+        } finally {
+            if (batch != null) {
+                batches.add(executor.submit(batch));
+            }
+        }
+        rowCount = rowNumber;
+
+        for (Future<String> future : batches) {
+            final String failure = await(future);
+            if (failure != null) {
+                return newVerificationFailureResult(failure);
+            }
+        }
+        if (scanFailure != null) {
+            logger.trace(scanFailure);
+            return newVerificationFailureResult(scanFailure);
+        }
+        if (currentKey == null) {
+            logger.trace("currentKey is null");
+            return newVerificationFailureResult("Final HMAC key is null");
+        }
+        boolean keysMatch = Arrays.equals(key, currentKey.getEncoded());
+        logger.trace("keysMatch={}, lastRowWasSigned={}", keysMatch, lastRowWasSigned);
+        if (!keysMatch) {
+            return newVerificationFailureResult("Final HMAC key doesn't match expected value");
+        } else if (!lastRowWasSigned) {
+            return newVerificationFailureResult("Missing final signature");
+        } else {
+            return newVerificationSuccessResult();
+        }
+    }
+
+    private static String await(Future<String> future) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private VerificationResult newVerificationFailureResult(String msg) {
+        return new VerificationResult(csvFile, false, msg);
+    }
+
+    private VerificationResult newVerificationSuccessResult() {
+        return new VerificationResult(csvFile, true, "");
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Consecutive rows verified by a single task, which returns the failure message of the first row which does not
+     * pass verification, or {@code null} if all rows pass.
+     */
+    private final class Batch implements Callable<String> {
+
+        private final int index;
+        private final RowScanner scanner;
+        private final int hmacColumn;
+        private final byte[] startKey;
+        private final Semaphore pendingBatches;
+        private final AtomicInteger failedBatch;
+        private final List<Object> rows = new ArrayList<>(BATCH_ROWS);
+        private final List<Long> rowNumbers = new ArrayList<>(BATCH_ROWS);
+
+        private Batch(int index, RowScanner scanner, int hmacColumn, byte[] startKey, Semaphore pendingBatches,
+                AtomicInteger failedBatch) {
+            this.index = index;
+            this.scanner = scanner;
+            this.hmacColumn = hmacColumn;
+            this.startKey = startKey;
+            this.pendingBatches = pendingBatches;
+            this.failedBatch = failedBatch;
+        }
+
+        private void addHmac(long rowNumber, int[] row) {
+            rows.add(row);
+            rowNumbers.add(rowNumber);
+        }
+
+        private void addSignature(long rowNumber, String encodedSign, byte[] signedData) {
+            rows.add(new SignatureRow(encodedSign, signedData));
+            rowNumbers.add(rowNumber);
+        }
+
+        private int size() {
+            return rows.size();
+        }
+
+        @Override
+        public String call() throws Exception {
+            try {
+                if (failedBatch.get() < index) {
+                    // an earlier row has already failed
+                    return null;
+                }
+                final String failure = verifyRows();
+                if (failure != null) {
+                    logger.trace(failure);
+                    int failed;
+                    do {
+                        failed = failedBatch.get();
+                    } while (index < failed && !failedBatch.compareAndSet(failed, index));
+                }
+                return failure;
+            } finally {
+                pendingBatches.release();
+            }
+        }
+
+        private String verifyRows() throws GeneralSecurityException {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            final MessageDigest messageDigest = newMessageDigest();
+            Signature verifier = null;
+            byte[] key = startKey;
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < rows.size(); i++) {
+                final Object row = rows.get(i);
+                if (row instanceof SignatureRow) {
+                    final SignatureRow signatureRow = (SignatureRow) row;
+                    if (verifier == null) {
+                        verifier = Signature.getInstance(SIGNATURE_ALGORITHM);
+                        verifier.initVerify(publicKey);
+                    }
+                    verifier.update(signatureRow.signedData);
+                    if (!verifier.verify(Base64.decode(signatureRow.encodedSign))) {
+                        return "The signature at row " + rowNumbers.get(i) + " is not correct.";
+                    }
+                    continue;
+                }
+                final int[] fields = (int[]) row;
+                mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+                for (int column = 0; column < hmacColumn; column++) {
+                    scratch = scanner.updateMac(mac, fields, column, scratch);
+                }
+                final String expectedHMAC = Base64.encode(mac.doFinal());
+                if (scanner.isNull(fields, hmacColumn)
+                        || !expectedHMAC.equals(scanner.fieldString(fields, hmacColumn))) {
+                    return "The HMac at row " + rowNumbers.get(i) + " is not correct.";
+                }
+                key = messageDigest.digest(key);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A signature row, with the previous signature and the last HMAC that it signs.
+     */
+    private static final class SignatureRow {
+
+        private final String encodedSign;
+        private final byte[] signedData;
+
+        private SignatureRow(String encodedSign, byte[] signedData) {
+            this.encodedSign = encodedSign;
+            this.signedData = signedData;
+        }
+    }
+
+    /**
+     * Tokenizes the rows of a CSV file from its bytes, following the rules of the Super CSV tokenizer: a quote
+     * character starts or ends a quoted section anywhere in a field, two quote characters in a quoted section are a
+     * quote character, a line break in a quoted section is a line feed, and empty lines are ignored.
+     * <p>
+     * Each row is returned as the start and end offsets of each field. The offsets of a field made of a single
+     * quoted section, or without any quote, are those of its value. The start offset of any other field is encoded
+     * as {@code -(start + 1)}, and its value is unescaped when read. Reading the fields is thread-safe.
+     */
+    static final class RowScanner {
+
+        private final ByteBuffer buffer;
+        private final int limit;
+        private final byte quote;
+        private final byte delimiter;
+        private int position;
+        private int[] fields = new int[32];
+
+        RowScanner(ByteBuffer buffer, byte quote, byte delimiter) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            this.quote = quote;
+            this.delimiter = delimiter;
+        }
+
+        /**
+         * Scans the next row which is not empty.
+         *
+         * @return the offsets of the fields, or {@code null} at the end of the file
+         * @throws IOException
+         *            if the file ends in a quoted section
+         */
+        int[] nextRow() throws IOException {
+            // skip empty lines
+            while (position < limit && isLineBreak(buffer.get(position))) {
+                position++;
+            }
+            if (position == limit) {
+                return null;
+            }
+            int count = 0;
+            int fieldStart = position;
+            boolean inQuotes = false;
+            boolean quoted = false;
+            boolean closed = false;
+            boolean complex = false;
+            while (true) {
+                if (position == limit) {
+                    if (inQuotes) {
+                        throw new IOException("Unexpected end of file while reading quoted column");
+                    }
+                    count = addField(count, fieldStart, position, quoted, complex);
+                    break;
+                }
+                final byte b = buffer.get(position);
+                if (inQuotes) {
+                    if (b == quote) {
+                        if (position + 1 < limit && buffer.get(position + 1) == quote) {
+                            complex = true;
+                            position += 2;
+                            continue;
+                        }
+                        inQuotes = false;
+                        closed = true;
+                    } else if (b == CR) {
+                        // unescaped into a line feed
+                        complex = true;
+                    }
+                    position++;
+                } else if (b == quote) {
+                    if (position != fieldStart) {
+                        complex = true;
+                    }
+                    quoted = true;
+                    inQuotes = true;
+                    position++;
+                } else if (b == delimiter) {
+                    count = addField(count, fieldStart, position, quoted, complex);
+                    position++;
+                    fieldStart = position;
+                    quoted = false;
+                    closed = false;
+                    complex = false;
+                } else if (isLineBreak(b)) {
+                    count = addField(count, fieldStart, position, quoted, complex);
+                    position++;
+                    if (b == CR && position < limit && buffer.get(position) == LF) {
+                        position++;
+                    }
+                    break;
+                } else {
+                    if (closed) {
+                        complex = true;
+                    }
+                    position++;
+                }
+            }
+            return Arrays.copyOf(fields, count);
+        }
+
+        private int addField(int count, int start, int end, boolean quoted, boolean complex) {
+            if (count + 2 > fields.length) {
+                fields = Arrays.copyOf(fields, fields.length * 2);
+            }
+            if (complex) {
+                fields[count] = -(start + 1);
+                fields[count + 1] = end;
+            } else if (quoted) {
+                fields[count] = start + 1;
+                fields[count + 1] = end - 1;
+            } else {
+                fields[count] = start;
+                fields[count + 1] = end;
+            }
+            return count + 2;
+        }
+
+        /**
+         * Indicates whether a field is empty and unquoted, which Super CSV reads as {@code null}.
+         */
+        boolean isNull(int[] row, int column) {
+            return row[column * 2] == row[column * 2 + 1];
+        }
+
+        String fieldString(int[] row, int column) {
+            return new String(fieldBytes(row, column, new byte[0]), UTF_8);
+        }
+
+        /**
+         * Updates a MAC with the value of a field.
+         *
+         * @return the scratch buffer, which is replaced if too small
+         */
+        byte[] updateMac(Mac mac, int[] row, int column, byte[] scratch) {
+            final byte[] value = fieldBytes(row, column, scratch);
+            mac.update(value, 0, length(row, column, value));
+            return value;
+        }
+
+        private int length(int[] row, int column, byte[] value) {
+            final int start = row[column * 2];
+            return start >= 0 ? row[column * 2 + 1] - start : value.length;
+        }
+
+        /**
+         * Reads the value of a field, into the scratch buffer if the field does not need to be unescaped and fits,
+         * otherwise into a new array of the exact length of the value.
+         */
+        private byte[] fieldBytes(int[] row, int column, byte[] scratch) {
+            final int start = row[column * 2];
+            final int end = row[column * 2 + 1];
+            if (start >= 0) {
+                final byte[] value = end - start > scratch.length ? new byte[end - start] : scratch;
+                buffer.get(start, value, 0, end - start);
+                return value;
+            }
+            return unescape(-start - 1, end);
+        }
+
+        private byte[] unescape(int start, int end) {
+            final byte[] value = new byte[end - start];
+            int length = 0;
+            boolean inQuotes = false;
+            for (int i = start; i < end; i++) {
+                final byte b = buffer.get(i);
+                if (b == quote) {
+                    if (inQuotes && i + 1 < end && buffer.get(i + 1) == quote) {
+                        value[length++] = quote;
+                        i++;
+                    } else {
+                        inQuotes = !inQuotes;
+                    }
+                } else if (b == CR) {
+                    value[length++] = LF;
+                    if (i + 1 < end && buffer.get(i + 1) == LF) {
+                        i++;
+                    }
+                } else {
+                    value[length++] = b;
+                }
+            }
+            return Arrays.copyOf(value, length);
+        }
+
+        private boolean isLineBreak(byte b) {
+            return b == LF || b == CR;
+        }
+    }
+}
@@ -12,12 +12,15 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
 import java.io.IOException;
 import java.util.Map;
 
+import org.forgerock.audit.retention.ArchiveIndex;
+
 /**
  * Responsible for writing to a CSV file.
  */
@@ -34,6 +37,15 @@ interface CsvWriter extends AutoCloseable {
      */
     boolean forceRotation() throws IOException;
 
+    /**
+     * Gets the index of the files archived by the writer.
+     * <p>
+     * Files are archived only if file rotation is enabled.
+     *
+     * @return The index of the archived files, or {@code null} if file rotation is not enabled.
+     */
+    ArchiveIndex getArchiveIndex();
+
     /**
      * Write a row into the CSV files.
      * @param values The keys of the {@link Map} have to match the column's header.
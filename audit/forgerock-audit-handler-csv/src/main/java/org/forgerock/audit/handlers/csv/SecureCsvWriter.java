@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -47,6 +48,7 @@ import org.forgerock.audit.events.handlers.writers.RotatableWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriterAdapter;
 import org.forgerock.audit.events.handlers.writers.RotatableWriter.RolloverLifecycleHook;
+import org.forgerock.audit.retention.ArchiveIndex;
 import org.forgerock.audit.rotation.RotationContext;
 import org.forgerock.audit.rotation.RotationHooks;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
@@ -302,6 +304,11 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
         return rotatableWriter != null ? rotatableWriter.forceRotation() : false;
     }
 
+    @Override
+    public ArchiveIndex getArchiveIndex() {
+        return rotatableWriter != null ? rotatableWriter.getArchiveIndex() : null;
+    }
+
     /**
      * Write a row into the CSV files.
      * @param values The keys of the {@link Map} have to match the column's header.
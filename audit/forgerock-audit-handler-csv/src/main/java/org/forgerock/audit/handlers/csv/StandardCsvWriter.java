@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -30,6 +31,7 @@ import org.forgerock.audit.events.handlers.writers.RotatableWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriterAdapter;
 import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.EventBufferingConfiguration;
+import org.forgerock.audit.retention.ArchiveIndex;
 import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -116,6 +118,11 @@ class StandardCsvWriter implements CsvWriter {
         return rotatableWriter != null ? rotatableWriter.forceRotation() : false;
     }
 
+    @Override
+    public ArchiveIndex getArchiveIndex() {
+        return rotatableWriter != null ? rotatableWriter.getArchiveIndex() : null;
+    }
+
     public void writeHeader(String... headers) throws IOException {
         csvWriter.write(csvFormatter.formatHeader(headers));
     }
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.csv;
@@ -27,10 +27,12 @@ import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
 import static org.forgerock.util.test.assertj.AssertJPromiseAssert.assertThatPromise;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.LinkedHashMap;
@@ -47,6 +49,7 @@ import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.EventB
 import org.forgerock.audit.json.AuditJsonConfig;
 import org.forgerock.audit.providers.DefaultKeyStoreHandlerProvider;
 import org.forgerock.audit.providers.KeyStoreHandlerProvider;
+import org.forgerock.audit.retention.ArchiveCompression;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandlerDecorator;
@@ -242,6 +245,57 @@ public class CsvAuditEventHandlerTest {
         assertResourceEquals(resource, event);
     }
 
+    @Test
+    public void testQueryOnRotatedAndCompressedAuditLogEntries() throws Exception {
+        //given
+        final Path logDirectory = Files.createTempDirectory("CsvAuditEventHandlerTest");
+        logDirectory.toFile().deleteOnExit();
+        final FileRotation rotationConfig = new FileRotation();
+        rotationConfig.setRotationEnabled(true);
+        rotationConfig.setRotationFilePrefix("prefix");
+        rotationConfig.setRotationInterval("disabled");
+        rotationConfig.setRotationFileCompression(ArchiveCompression.GZIP);
+        final CsvAuditEventHandler csvHandler = csvAuditEventHandler()
+                .loggingTo(logDirectory).withRotationConfig(rotationConfig).build();
+        final Context context = new RootContext();
+        final QueryResourceHandler queryResourceHandler = mock(QueryResourceHandler.class);
+        final ArgumentCaptor<ResourceResponse> resourceCaptor = ArgumentCaptor.forClass(ResourceResponse.class);
+        try {
+            csvHandler.publishEvent(context, "access", buildEvent(1));
+            final ActionRequest actionRequest = Requests.newActionRequest("access", ROTATE_FILE_ACTION_NAME)
+                    .setAdditionalParameter(ACTION_PARAM_TARGET_HANDLER, "csv");
+            csvHandler.handleAction(context, "access", actionRequest);
+            csvHandler.publishEvent(context, "access", buildEvent(2));
+            for (int i = 0; i < 100 && countCompressedFiles(logDirectory) == 0; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(countCompressedFiles(logDirectory)).isEqualTo(1);
+
+            //when
+            final Promise<QueryResponse, ResourceException> promise = csvHandler.queryEvents(context, "access",
+                    Requests.newQueryRequest("access").setQueryFilter(QueryFilters.parse("true")),
+                    queryResourceHandler);
+
+            //then
+            assertThatPromise(promise).succeeded();
+            verify(queryResourceHandler, times(2)).handleResource(resourceCaptor.capture());
+            assertThat(resourceCaptor.getAllValues()).extracting("id").containsOnly("_id1", "_id2");
+            assertThatPromise(csvHandler.readEvent(context, "access", "_id1")).succeeded();
+        } finally {
+            csvHandler.shutdown();
+        }
+    }
+
+    private static int countCompressedFiles(Path logDirectory) throws Exception {
+        int count = 0;
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(logDirectory, "*.gz")) {
+            for (Path path : directoryStream) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
     private CreateRequest makeCreateRequest() {
         return Requests.newCreateRequest("access", buildEvent());
     }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -24,9 +25,11 @@ import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.forgerock.audit.handlers.csv.CsvSecureArchiveVerifierCli.OptionsParser;
 import org.forgerock.audit.handlers.csv.CsvSecureVerifier.VerificationResult;
+import org.forgerock.util.Options;
 import org.testng.annotations.Test;
 
 @SuppressWarnings("javadoc")
@@ -66,14 +69,67 @@ public class CsvSecureArchiveVerifierCliTest {
         // then
         assertThat(out.toString(UTF_8.name())).isEqualTo(""
                 + "arguments: --archive <path> --topic <topic> "
-                + "[--prefix <prefix>] [--suffix <suffix>] --keystore <path> --password <password>" + NEW_LINE
+                + "[--prefix <prefix>] [--suffix <suffix>] --keystore <path> --password <password> "
+                + "[--threads <threads>] [--report]" + NEW_LINE
                 + NEW_LINE
                 + "   --archive       path to directory containing files to verify" + NEW_LINE
                 + "   --topic         name of topic fileset to verify" + NEW_LINE
                 + "   --prefix        prefix prepended to archive files" + NEW_LINE
                 + "   --suffix        format of timestamp suffix appended to archive files" + NEW_LINE
                 + "   --keystore      path to keystore file" + NEW_LINE
-                + "   --password      keystore file password" + NEW_LINE);
+                + "   --password      keystore file password" + NEW_LINE
+                + "   --threads       number of threads verifying files (default: number of CPUs)" + NEW_LINE
+                + "   --report        print the verification throughput" + NEW_LINE);
         assertThat(err.toString()).isEqualTo("");
     }
+
+    @Test
+    public void canPrintThroughputReport() throws UnsupportedEncodingException {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<VerificationResult> results = Arrays.asList(
+                new VerificationResult(new File("access.csv.1"), true, ""),
+                new VerificationResult(new File("access.csv.2"), false, "Missing signature"));
+
+        // when
+        CsvSecureArchiveVerifierCli.printThroughputReport(results, TimeUnit.MILLISECONDS.toNanos(1500), 4,
+                new PrintStream(out));
+
+        // then
+        assertThat(out.toString(UTF_8.name()))
+                .isEqualTo("Verified 2 files (0.0 MiB) in 1500 ms: 0.0 MiB/s with 4 threads" + NEW_LINE);
+    }
+
+    @Test
+    public void canParseThreadsAndReportFlags() {
+        // given
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        OptionsParser optionsParser = new OptionsParser(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(err));
+        String directory = System.getProperty("java.io.tmpdir");
+
+        // when
+        Options options = optionsParser.parse(new String[] {
+            "--archive", directory, "--report", "--topic", "access", "--keystore", directory,
+            "--password", "password", "--threads", "3" });
+
+        // then
+        assertThat(options).isNotNull();
+        assertThat(err.toString()).isEqualTo("");
+    }
+
+    @Test
+    public void shouldRejectInvalidThreadCount() {
+        // given
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        OptionsParser optionsParser = new OptionsParser(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(err));
+
+        // when
+        Options options = optionsParser.parse(new String[] { "--threads", "0" });
+
+        // then
+        assertThat(options).isNull();
+        assertThat(err.toString()).isEqualTo("--threads flag must be followed by a positive integer" + NEW_LINE);
+    }
 }
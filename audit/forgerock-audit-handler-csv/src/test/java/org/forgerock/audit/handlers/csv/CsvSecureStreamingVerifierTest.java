@@ -0,0 +1,357 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.csv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.audit.handlers.csv.CsvSecureConstants.*;
+import static org.forgerock.audit.handlers.csv.CsvSecureUtils.dataToSign;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.forgerock.audit.handlers.csv.CsvSecureVerifier.VerificationResult;
+import org.forgerock.audit.retention.FileNamingPolicy;
+import org.forgerock.audit.secure.JcaKeyStoreHandler;
+import org.forgerock.audit.secure.KeyStoreHandlerDecorator;
+import org.forgerock.audit.secure.KeyStoreSecureStorage;
+import org.forgerock.audit.secure.SecureStorage;
+import org.forgerock.util.encode.Base64;
+import org.forgerock.util.test.FileUtils;
+import org.forgerock.util.test.MavenResourceUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.supercsv.prefs.CsvPreference;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class CsvSecureStreamingVerifierTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvSecureStreamingVerifierTest.class);
+
+    private static final String[] HEADERS = { "ID", "MESSAGE" };
+
+    private static final String[] MESSAGES = {
+        "plain",
+        "quoted \"value\", with a comma",
+        "multi\nline",
+        null,
+        "  surrounding spaces  ",
+    };
+
+    /** {@link CsvSecureVerifier} decodes the files with the default charset, which may not be UTF-8. */
+    private static final String[] NON_ASCII_MESSAGES = { "ünïcødé", "日本語", "\"ε\"\nπ" };
+
+    private ExecutorService executor;
+    private Path directory;
+    private PublicKey publicKey;
+    private PrivateKey privateKey;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        KeyStoreHandlerDecorator keyStoreHandler = new KeyStoreHandlerDecorator(new JcaKeyStoreHandler(
+                KEYSTORE_TYPE, SecureCsvWriterTest.KEYSTORE_FILENAME, SecureCsvWriterTest.KEYSTORE_PASSWORD));
+        publicKey = keyStoreHandler.readPublicKeyFromKeyStore(KeyStoreSecureStorage.ENTRY_SIGNATURE);
+        privateKey = keyStoreHandler.readPrivateKeyFromKeyStore(KeyStoreSecureStorage.ENTRY_SIGNATURE);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @BeforeMethod
+    public void createDirectory() throws Exception {
+        directory = Files.createTempDirectory(CsvSecureStreamingVerifierTest.class.getSimpleName());
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws Exception {
+        FileUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldVerifyValidFile() throws Exception {
+        // given
+        File csvFile =
+            MavenResourceUtil.getFileForPath("src/test/resources/shouldGeneratePeriodicallySignature-expected.txt");
+
+        // when
+        VerificationResult result = newStreamingVerifier(csvFile, newVerifierSecureStorage()).verify();
+
+        // then
+        assertThat(result.hasPassedVerification()).isTrue();
+    }
+
+    @Test(dataProvider = "invalidContent")
+    public void shouldNotVerifyWithSameReasonAsCsvSecureVerifier(String filename) throws Exception {
+        // given
+        File csvFile = MavenResourceUtil.getFileForPath(filename);
+        String expectedReason = new CsvSecureVerifier(csvFile, CsvPreference.EXCEL_PREFERENCE,
+                newVerifierSecureStorage()).verify().getFailureReason();
+
+        // when
+        VerificationResult result = newStreamingVerifier(csvFile, newVerifierSecureStorage()).verify();
+
+        // then
+        assertThat(result.hasPassedVerification()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo(expectedReason);
+    }
+
+    @DataProvider
+    public Object[][] invalidContent() {
+        return new Object[][] {
+            // Invalid header
+            { "src/test/resources/secureCsvInvalidHeader.csv" },
+            // Invalid HMAC
+            { "src/test/resources/secureCsvInvalidHMAC.csv" },
+            // Invalid signature
+            { "src/test/resources/secureCsvInvalidSignature.csv" },
+            // No signature at end of file
+            { "src/test/resources/secureCsvInvalidMissingFinalSignature.csv" }
+        };
+    }
+
+    @Test
+    public void shouldVerifyFileSpanningManyBatches() throws Exception {
+        // given
+        File csvFile = new File(directory.toFile(), "access.csv");
+        SecureStorage secureStorage = writeSecureCsv(csvFile, 5000, 700);
+        CsvSecureStreamingVerifier verifier = newStreamingVerifier(csvFile, secureStorage);
+
+        // when
+        VerificationResult result = verifier.verify();
+
+        // then
+        assertThat(result.hasPassedVerification()).as(result.getFailureReason()).isTrue();
+        assertThat(verifier.getRowCount()).isEqualTo(1 + 5000 + 5000 / 700 + 1);
+        assertThat(new CsvSecureVerifier(csvFile, CsvPreference.EXCEL_PREFERENCE, secureStorage)
+                .verify().hasPassedVerification()).isTrue();
+    }
+
+    @Test
+    public void shouldVerifyUtf8Values() throws Exception {
+        // given
+        File csvFile = new File(directory.toFile(), "access.csv");
+        SecureStorage secureStorage = writeSecureCsv(csvFile, 2000, 300, NON_ASCII_MESSAGES);
+
+        // when
+        VerificationResult result = newStreamingVerifier(csvFile, secureStorage).verify();
+
+        // then
+        assertThat(result.hasPassedVerification()).as(result.getFailureReason()).isTrue();
+    }
+
+    @Test(dataProvider = "tamperedRows")
+    public void shouldReportFirstTamperedRowLikeCsvSecureVerifier(int firstRow, int secondRow) throws Exception {
+        // given
+        File csvFile = new File(directory.toFile(), "access.csv");
+        SecureStorage secureStorage = writeSecureCsv(csvFile, 3000, 500);
+        tamper(csvFile, firstRow);
+        tamper(csvFile, secondRow);
+        String expectedReason = new CsvSecureVerifier(csvFile, CsvPreference.EXCEL_PREFERENCE, secureStorage)
+                .verify().getFailureReason();
+
+        // when
+        VerificationResult result = newStreamingVerifier(csvFile, secureStorage).verify();
+
+        // then
+        assertThat(result.hasPassedVerification()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo(expectedReason)
+                .contains("at row " + Math.min(firstRow, secondRow) + " ");
+    }
+
+    @DataProvider
+    public Object[][] tamperedRows() {
+        // rows are numbered from the header, every 501st row after it is a signature
+        return new Object[][] {
+            { 3, 2900 },
+            { 1200, 1210 },
+            { 2500, 1000 },
+            { 502, 2000 },
+            { 2506, 2507 },
+        };
+    }
+
+    @Test
+    public void shouldVerifyArchiveFilesInParallel() throws Exception {
+        // given
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            File csvFile = new File(directory.toFile(), "access.csv." + i);
+            writeSecureCsv(csvFile, 1000 + i * 100, 300);
+            files.add(csvFile);
+        }
+        tamper(files.get(4), 800);
+        FileNamingPolicy fileNamingPolicy = new FileNamingPolicy() {
+            @Override
+            public File getInitialName() {
+                return files.get(0);
+            }
+
+            @Override
+            public File getNextName() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<File> listFiles() {
+                return new ArrayList<>(files);
+            }
+        };
+        CsvSecureArchiveVerifier archiveVerifier = new CsvSecureArchiveVerifier(fileNamingPolicy,
+                SecureCsvWriterTest.KEYSTORE_PASSWORD, publicKey, CsvPreference.EXCEL_PREFERENCE, 3);
+
+        // when
+        List<VerificationResult> results = archiveVerifier.verify();
+
+        // then
+        assertThat(results).hasSize(6);
+        for (int i = 0; i < results.size(); i++) {
+            VerificationResult result = results.get(i);
+            assertThat(result.getArchiveFile()).isEqualTo(files.get(i));
+            assertThat(result.hasPassedVerification()).as(result.getFailureReason()).isEqualTo(i != 4);
+        }
+        assertThat(results.get(4).getFailureReason()).isEqualTo("The HMac at row 800 is not correct.");
+    }
+
+    @Test
+    public void shouldFailWhenQuotedColumnIsNotClosed() throws Exception {
+        // given
+        File csvFile = new File(directory.toFile(), "access.csv");
+        SecureStorage secureStorage = writeSecureCsv(csvFile, 10, 100);
+        Files.write(csvFile.toPath(), "\"unterminated".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+        // when
+        VerificationResult result = newStreamingVerifier(csvFile, secureStorage).verify();
+
+        // then
+        assertThat(result.hasPassedVerification()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo("Unexpected end of file while reading quoted column");
+    }
+
+    private CsvSecureStreamingVerifier newStreamingVerifier(File csvFile, SecureStorage secureStorage) {
+        assertThat(CsvSecureStreamingVerifier.isSupported(csvFile, CsvPreference.EXCEL_PREFERENCE)).isTrue();
+        return new CsvSecureStreamingVerifier(csvFile, CsvPreference.EXCEL_PREFERENCE, secureStorage, publicKey,
+                executor, 4);
+    }
+
+    private SecureStorage newVerifierSecureStorage() throws Exception {
+        KeyStoreHandlerDecorator keyStoreHandler = new KeyStoreHandlerDecorator(new JcaKeyStoreHandler(
+                KEYSTORE_TYPE, CsvSecureVerifierTest.TRUSTSTORE_FILENAME, CsvSecureVerifierTest.TRUSTSTORE_PASSWORD));
+        return new KeyStoreSecureStorage(keyStoreHandler,
+                keyStoreHandler.readPublicKeyFromKeyStore(KeyStoreSecureStorage.ENTRY_SIGNATURE));
+    }
+
+    /**
+     * Writes a secure CSV file like {@link SecureCsvWriter}, with a signature every {@code signatureInterval} rows
+     * and a final signature, and its keystore next to it.
+     */
+    private SecureStorage writeSecureCsv(File csvFile, int rows, int signatureInterval) throws Exception {
+        return writeSecureCsv(csvFile, rows, signatureInterval, MESSAGES);
+    }
+
+    private SecureStorage writeSecureCsv(File csvFile, int rows, int signatureInterval, String[] messages)
+            throws Exception {
+        SecureStorage secureStorage = new KeyStoreSecureStorage(new JcaKeyStoreHandler(KEYSTORE_TYPE,
+                csvFile.getPath() + ".keystore", SecureCsvWriterTest.KEYSTORE_PASSWORD), publicKey, privateKey);
+        HmacCalculator hmacCalculator = new HmacCalculator(HMAC_ALGORITHM);
+        hmacCalculator.setCurrentKey(Base64.decode("UPu9xcETDpWSGaU8/WrW++74y3AOXqDPuLMZtF0IsKE="));
+        secureStorage.writeInitialKey(hmacCalculator.getCurrentKey());
+
+        String[] extendedHeaders = { HEADERS[0], HEADERS[1], HEADER_HMAC, HEADER_SIGNATURE };
+        CsvFormatter csvFormatter = new CsvFormatter(CsvPreference.EXCEL_PREFERENCE);
+        String lastHMAC = null;
+        byte[] lastSignature = null;
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(csvFile), UTF_8)) {
+            writer.write(csvFormatter.formatHeader(extendedHeaders));
+            for (int i = 1; i <= rows; i++) {
+                Map<String, String> values = new HashMap<>();
+                values.put(HEADERS[0], Integer.toString(i));
+                values.put(HEADERS[1], messages[i % messages.length]);
+                lastHMAC = hmacCalculator.calculate(dataToSign(logger, values, HEADERS));
+                values.put(HEADER_HMAC, lastHMAC);
+                writer.write(csvFormatter.formatEvent(values, extendedHeaders));
+                if (i % signatureInterval == 0 || i == rows) {
+                    lastSignature = secureStorage.sign(dataToSign(lastSignature, lastHMAC));
+                    writer.write(csvFormatter.formatEvent(
+                            Collections.singletonMap(HEADER_SIGNATURE, Base64.encode(lastSignature)),
+                            extendedHeaders));
+                }
+            }
+        }
+        secureStorage.writeCurrentKey(hmacCalculator.getCurrentKey());
+        return secureStorage;
+    }
+
+    /**
+     * Alters a row, counting the header as the first row.
+     */
+    private static void tamper(File csvFile, int row) throws Exception {
+        List<String> lines = Files.readAllLines(csvFile.toPath(), UTF_8);
+        int rowNumber = 0;
+        boolean continued = false;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (!continued && ++rowNumber == row) {
+                // alter the last digit of the ID, or a character of the signature
+                int index = line.startsWith(",") ? line.length() - 10 : line.indexOf(',') - 1;
+                char replacement = line.charAt(index) == '9' ? '0' : (char) (line.charAt(index) + 1);
+                if (!Character.isLetterOrDigit(replacement)) {
+                    replacement = 'A';
+                }
+                lines.set(i, line.substring(0, index) + replacement + line.substring(index + 1));
+                Files.write(csvFile.toPath(), lines, UTF_8);
+                return;
+            }
+            if (countQuotes(line) % 2 != 0) {
+                // a quoted line break, the row continues on the next line
+                continued = !continued;
+            }
+        }
+        throw new IllegalArgumentException("No row " + row);
+    }
+
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -12,10 +12,14 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.elasticsearch;
 
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventHelper.jsonPointerToDotNotation;
 import static org.forgerock.audit.util.ElasticsearchUtil.OBJECT_MAPPER;
+import static org.forgerock.audit.util.ElasticsearchUtil.normalizeJsonPointer;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_LOADER;
 import static org.forgerock.json.JsonValue.field;
 import static org.forgerock.json.JsonValue.json;
@@ -26,6 +30,7 @@ import static org.forgerock.json.resource.Responses.newQueryResponse;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
 import static org.forgerock.util.CloseSilentlyFunction.closeSilently;
 import static org.forgerock.util.promise.Promises.newExceptionPromise;
+import static org.forgerock.util.promise.Promises.newResultPromise;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -39,6 +44,8 @@ import org.forgerock.audit.events.handlers.AuditEventHandlerBase;
 import org.forgerock.audit.events.handlers.buffering.BufferedBatchPublisher;
 import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration.ConnectionConfiguration;
 import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration.EventBufferingConfiguration;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration.PagingConfiguration;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration.PagingMode;
 import org.forgerock.audit.events.handlers.buffering.BatchConsumer;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisher;
 import org.forgerock.audit.events.handlers.buffering.BatchException;
@@ -52,17 +59,22 @@ import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Responses;
 import org.forgerock.http.spi.Loader;
+import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.BadRequestException;
 import org.forgerock.json.resource.CountPolicy;
 import org.forgerock.json.resource.InternalServerErrorException;
 import org.forgerock.json.resource.NotFoundException;
+import org.forgerock.json.resource.Projection;
 import org.forgerock.json.resource.QueryRequest;
 import org.forgerock.json.resource.QueryResourceHandler;
 import org.forgerock.json.resource.QueryResponse;
 import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.json.resource.ServiceUnavailableException;
+import org.forgerock.json.resource.SortKey;
 import org.forgerock.services.context.Context;
+import org.forgerock.util.AsyncFunction;
 import org.forgerock.util.Function;
 import org.forgerock.util.Options;
 import org.forgerock.util.Reject;
@@ -72,6 +84,8 @@ import org.forgerock.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
 /**
  * {@link AuditEventHandler} for Elasticsearch.
  */
@@ -88,10 +102,19 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
     private static final String BULK = "/_bulk";
     private static final String HITS = "hits";
     private static final String SOURCE = "_source";
+    /** The field holding the metadata of {@link ElasticsearchUtil#denormalizeJson(JsonValue)}. */
+    private static final String NORMALIZED = "_normalized";
     private static final int DEFAULT_PAGE_SIZE = 10;
     private static final String TOTAL = "total";
     private static final String PUT = "PUT";
     private static final String POST = "POST";
+    private static final String SORT = "sort";
+    private static final String SEARCH_AFTER = "search_after";
+    private static final String ASCENDING = "asc";
+    private static final String DESCENDING = "desc";
+    private static final String VALUE = "value";
+    private static final String RELATION = "relation";
+    private static final String GREATER_THAN_OR_EQUAL = "gte";
 
     /**
      * Average number of characters, per event, for batch indexing via Elasticsearch Bulk API. This value
@@ -147,13 +170,16 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
                     bufferConfig.getWriteInterval() == null || bufferConfig.getWriteInterval().isEmpty()
                             ? null
                             : Duration.duration(bufferConfig.getWriteInterval());
-            batchIndexer = BufferedBatchPublisher.newBuilder(this)
+            final BufferedBatchPublisher.Builder builder = BufferedBatchPublisher.newBuilder(this)
                     .capacity(bufferConfig.getMaxSize())
                     .writeInterval(writeInterval)
                     .maxBatchEvents(bufferConfig.getMaxBatchedEvents())
                     .averagePerEventPayloadSize(BATCH_INDEX_AVERAGE_PER_EVENT_PAYLOAD_SIZE)
-                    .autoFlush(ALWAYS_FLUSH_BATCH_QUEUE)
-                    .build();
+                    .autoFlush(ALWAYS_FLUSH_BATCH_QUEUE);
+            if (bufferConfig.getSpool().isEnabled()) {
+                builder.spool(bufferConfig.getSpool().newSpoolBuilder());
+            }
+            batchIndexer = builder.build();
         } else {
             batchIndexer = null;
         }
@@ -185,12 +211,38 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
      * Queries the Elasticsearch
      * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/search.html">Search API</a> for
      * audit events.
+     * <p/>
+     * Unless the {@link PagingMode paging mode} is {@link PagingMode#OFFSET}, the events are sorted on the sort keys
+     * of the query and a tiebreaker, pages are fetched after the sort values of the last event of the previous page,
+     * which are encoded into the paged results cookie, and queries without page size stream all the matching events
+     * to the {@link QueryResourceHandler}, page after page, until it returns {@code false}. Requests with a paged
+     * results offset, or an offset cookie, are still paged with offsets.
      *
      * {@inheritDoc}
      */
     @Override
     public Promise<QueryResponse, ResourceException> queryEvents(final Context context, final String topic,
            final QueryRequest query, final QueryResourceHandler handler) {
+        final PagingConfiguration paging = configuration.getPaging();
+        final String cookie = query.getPagedResultsCookie();
+        if (paging.getMode() == PagingMode.OFFSET || query.getPagedResultsOffset() != 0
+                || (cookie != null && PagedResultsCursor.isOffset(cookie))) {
+            return queryEventsWithOffset(topic, query, handler);
+        }
+        final PagedResultsCursor cursor;
+        try {
+            cursor = cookie != null ? PagedResultsCursor.fromCookie(cookie) : null;
+        } catch (BadRequestException e) {
+            return e.asPromise();
+        }
+        final boolean streaming = query.getPageSize() <= 0;
+        final CursorQuery cursorQuery = new CursorQuery(topic, query, handler,
+                streaming ? paging.getStreamingPageSize() : query.getPageSize(), streaming);
+        return cursorQuery.search(cursor != null ? cursor.getSearchAfter() : null);
+    }
+
+    private Promise<QueryResponse, ResourceException> queryEventsWithOffset(final String topic,
+            final QueryRequest query, final QueryResourceHandler handler) {
         final int pageSize = query.getPageSize() <= 0 ? DEFAULT_PAGE_SIZE : query.getPageSize();
         // set the offset to either first the offset provided, or second the paged result cookie value, or finally 0
         final int offset;
@@ -205,6 +257,11 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
         final JsonValue payload =
                 json(object(field(
                         QUERY, query.getQueryFilter().accept(ELASTICSEARCH_QUERY_FILTER_VISITOR, null).getObject())));
+        final Projection projection = Projection.of(query);
+        final List<String> sourceIncludes = getSourceIncludes(projection);
+        if (sourceIncludes != null) {
+            payload.put(SOURCE, sourceIncludes);
+        }
         try {
             final Request request = createRequest(GET, buildSearchUri(topic, pageSize, offset), payload.getObject());
             return client.send(request).then(closeSilently(new Function<Response, QueryResponse, ResourceException>() {
@@ -219,16 +276,16 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
                         try {
                             JsonValue events = json(response.getEntity().getJson());
                             for (JsonValue event : events.get(HITS).get(HITS)) {
-                                handler.handleResource(
+                                handler.handleResource(projection.apply(
                                         newResourceResponse(event.get(FIELD_CONTENT_ID).asString(), null,
-                                                ElasticsearchUtil.denormalizeJson(event.get(SOURCE))));
+                                                ElasticsearchUtil.denormalizeJson(event.get(SOURCE)))));
                             }
-                            final int totalResults = events.get(HITS).get(TOTAL).asInteger();
+                            final int totalResults = getTotalResults(events.get(HITS).get(TOTAL));
                             final String pagedResultsCookie = (pageSize + offset) >= totalResults
                                     ? null
                                     : Integer.toString(pageSize + offset);
                             return newQueryResponse(pagedResultsCookie,
-                                    CountPolicy.EXACT,
+                                    getTotalResultsPolicy(events.get(HITS).get(TOTAL)),
                                     totalResults);
                         } catch (IOException e) {
                             throw new InternalServerErrorException(e.getMessage(), e);
@@ -240,6 +297,158 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
         }
     }
 
+    /**
+     * Returns the number of events matching a search, from the {@code hits.total} field of its response, which is a
+     * number before Elasticsearch 7, and an object holding the number and whether it is exact since.
+     */
+    private static int getTotalResults(final JsonValue total) {
+        return total.isMap() ? total.get(VALUE).asInteger() : total.asInteger();
+    }
+
+    private static CountPolicy getTotalResultsPolicy(final JsonValue total) {
+        return GREATER_THAN_OR_EQUAL.equals(total.get(RELATION).asString()) ? CountPolicy.ESTIMATE : CountPolicy.EXACT;
+    }
+
+    /**
+     * Returns the sort of the events of cursor paged queries: the sort keys of the query, or the timestamp of the
+     * events if there are none, followed by a tiebreaker, so that the sort values of an event identify it.
+     */
+    private static List<Object> getSort(final QueryRequest query) {
+        final List<Object> sort = new ArrayList<>(query.getSortKeys().size() + 2);
+        for (final SortKey sortKey : query.getSortKeys()) {
+            sort.add(object(field(jsonPointerToDotNotation(normalizeJsonPointer(sortKey.getField()).toString()),
+                    sortKey.isAscendingOrder() ? ASCENDING : DESCENDING)));
+        }
+        if (sort.isEmpty()) {
+            sort.add(object(field(TIMESTAMP, ASCENDING)));
+        }
+        sort.add(object(field(FIELD_CONTENT_ID, ASCENDING)));
+        return sort;
+    }
+
+    /**
+     * A query paged with the sort values of the last event returned.
+     */
+    private final class CursorQuery {
+
+        private final String topic;
+        private final QueryResourceHandler handler;
+        private final Projection projection;
+        private final int pageSize;
+        private final boolean streaming;
+        private final JsonValue payload;
+        private int totalResults = -1;
+        private CountPolicy totalResultsPolicy = CountPolicy.EXACT;
+
+        private CursorQuery(final String topic, final QueryRequest query, final QueryResourceHandler handler,
+                final int pageSize, final boolean streaming) {
+            this.topic = topic;
+            this.handler = handler;
+            this.projection = Projection.of(query);
+            this.pageSize = pageSize;
+            this.streaming = streaming;
+            final Object filter = query.getQueryFilter().accept(ELASTICSEARCH_QUERY_FILTER_VISITOR, null).getObject();
+            payload = json(object(field(QUERY, filter), field(SORT, getSort(query))));
+            final List<String> sourceIncludes = getSourceIncludes(projection);
+            if (sourceIncludes != null) {
+                payload.put(SOURCE, sourceIncludes);
+            }
+        }
+
+        /**
+         * Fetches the page following the provided sort values.
+         *
+         * @param searchAfter The sort values of the last event returned, or {@code null} for the first page.
+         * @return a promise with either a response or an exception
+         */
+        private Promise<QueryResponse, ResourceException> search(final List<Object> searchAfter) {
+            final JsonValue pagePayload = payload.copy();
+            if (searchAfter != null) {
+                pagePayload.put(SEARCH_AFTER, searchAfter);
+            }
+            try {
+                final Request request =
+                        createRequest(GET, buildSearchUri(topic, pageSize, DEFAULT_OFFSET), pagePayload.getObject());
+                return client.send(request)
+                        .then(closeSilently(new Function<Response, JsonValue, ResourceException>() {
+                            @Override
+                            public JsonValue apply(Response response) throws ResourceException {
+                                if (!response.getStatus().isSuccessful()) {
+                                    final String message =
+                                            "Elasticsearch response (" + indexName + "/" + topic + SEARCH + "): "
+                                            + response.getEntity();
+                                    throw newResourceException(response.getStatus().getCode(), message);
+                                }
+                                try {
+                                    return json(response.getEntity().getJson());
+                                } catch (IOException e) {
+                                    throw new InternalServerErrorException(e.getMessage(), e);
+                                }
+                            }
+                        }), Responses.<JsonValue, ResourceException>noopExceptionFunction())
+                        .thenAsync(new AsyncFunction<JsonValue, QueryResponse, ResourceException>() {
+                            @Override
+                            public Promise<QueryResponse, ResourceException> apply(JsonValue results)
+                                    throws ResourceException {
+                                return handlePage(results);
+                            }
+                        });
+            } catch (URISyntaxException e) {
+                return new InternalServerErrorException(e.getMessage(), e).asPromise();
+            }
+        }
+
+        private Promise<QueryResponse, ResourceException> handlePage(final JsonValue results)
+                throws ResourceException {
+            if (totalResults < 0) {
+                totalResults = getTotalResults(results.get(HITS).get(TOTAL));
+                totalResultsPolicy = getTotalResultsPolicy(results.get(HITS).get(TOTAL));
+            }
+            final JsonValue hits = results.get(HITS).get(HITS);
+            List<Object> lastSortValues = null;
+            boolean resume = true;
+            try {
+                for (final JsonValue hit : hits) {
+                    lastSortValues = hit.get(SORT).asList();
+                    if (!handler.handleResource(projection.apply(newResourceResponse(
+                            hit.get(FIELD_CONTENT_ID).asString(), null,
+                            ElasticsearchUtil.denormalizeJson(hit.get(SOURCE)))))) {
+                        resume = false;
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new InternalServerErrorException(e.getMessage(), e);
+            }
+            final boolean morePages = hits.size() == pageSize || !resume;
+            if (streaming && resume && morePages) {
+                return search(lastSortValues);
+            }
+            if (!streaming && morePages && lastSortValues != null) {
+                return newResultPromise(newQueryResponse(
+                        new PagedResultsCursor(lastSortValues).toCookie(), totalResultsPolicy, totalResults));
+            }
+            return newResultPromise(newQueryResponse(null, totalResultsPolicy, totalResults));
+        }
+    }
+
+    /**
+     * Returns the fields of the events which Elasticsearch has to return in order to build the projection, or
+     * {@code null} if the whole events are needed.
+     */
+    private static List<String> getSourceIncludes(final Projection projection) {
+        if (projection.getTopLevelFields() == null) {
+            return null;
+        }
+        final List<String> includes = new ArrayList<>(projection.getFields().size() + 1);
+        for (final JsonPointer field : projection.getFields()) {
+            includes.add(jsonPointerToDotNotation(normalizeJsonPointer(field).toString()));
+        }
+        // needed to restore the field names containing periods
+        includes.add(NORMALIZED + ".*");
+        return includes;
+    }
+
     @Override
     public Promise<ResourceResponse, ResourceException> readEvent(final Context context, final String topic,
             final String resourceId) {
@@ -296,15 +505,14 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
      */
     protected Promise<ResourceResponse, ResourceException> publishSingleEvent(final String topic,
             final JsonValue event) {
-        // _id is a protected Elasticsearch field, so read it and remove it
+        // _id is a protected Elasticsearch field, so it is not written
         final String resourceId = event.get(FIELD_CONTENT_ID).asString();
-        event.remove(FIELD_CONTENT_ID);
 
         try {
-            final String jsonPayload = ElasticsearchUtil.normalizeJson(event);
-            event.put(FIELD_CONTENT_ID, resourceId);
+            final StringBuilder jsonPayload = new StringBuilder(BATCH_INDEX_AVERAGE_PER_EVENT_PAYLOAD_SIZE);
+            ElasticsearchUtil.appendNormalizedJson(jsonPayload, event, FIELD_CONTENT_ID);
 
-            final Request request = createRequest(PUT, buildEventUri(topic, resourceId), jsonPayload);
+            final Request request = createRequest(PUT, buildEventUri(topic, resourceId), jsonPayload.toString());
 
             return client.send(request).then(
                     closeSilently(new Function<Response, ResourceResponse, ResourceException>() {
@@ -335,24 +543,37 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
     @Override
     public void addToBatch(final String topic, final JsonValue event, final StringBuilder payload)
             throws BatchException {
+        final int length = payload.length();
         try {
-            // _id is a protected Elasticsearch field
+            // _id is a protected Elasticsearch field, so it is only written in the action line
             final String resourceId = event.get(FIELD_CONTENT_ID).asString();
-            event.remove(FIELD_CONTENT_ID);
-            final String jsonPayload = ElasticsearchUtil.normalizeJson(event);
-            event.put(FIELD_CONTENT_ID, resourceId);
 
             // newlines have special significance in the Bulk API
             // https://www.elastic.co/guide/en/elasticsearch/reference/current/docs-bulk.html
-            payload.append("{ \"index\" : { \"_type\" : ")
-                    .append(OBJECT_MAPPER.writeValueAsString(topic))
-                    .append(", \"_id\" : ")
-                    .append(OBJECT_MAPPER.writeValueAsString(resourceId))
-                    .append(" } }\n")
-                    .append(jsonPayload)
-                    .append('\n');
+            payload.append("{ \"index\" : { \"_type\" : ");
+            appendQuoted(payload, topic);
+            payload.append(", \"_id\" : ");
+            appendQuoted(payload, resourceId);
+            payload.append(" } }\n");
+            ElasticsearchUtil.appendNormalizedJson(payload, event, FIELD_CONTENT_ID);
+            payload.append('\n');
         } catch (IOException e) {
+            // do not leave a partial entry in the payload
+            payload.setLength(length);
             throw new BatchException("Unexpected error while adding to batch", e);
+        } catch (RuntimeException e) {
+            payload.setLength(length);
+            throw e;
+        }
+    }
+
+    private static void appendQuoted(final StringBuilder payload, final String value) {
+        if (value == null) {
+            payload.append("null");
+        } else {
+            payload.append('"');
+            JsonStringEncoder.getInstance().quoteAsString(value, payload);
+            payload.append('"');
         }
     }
 
@@ -12,10 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.elasticsearch;
 
 import org.forgerock.audit.events.handlers.EventHandlerConfiguration;
+import org.forgerock.audit.spool.SpoolConfiguration;
 
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 
@@ -41,7 +43,15 @@ import com.fasterxml.jackson.annotation.JsonPropertyDescription;
  *      "enabled" : true,
  *      "maxSize" : 10000,
  *      "writeInterval" : "250 millis",
- *      "maxBatchedEvents" : 500
+ *      "maxBatchedEvents" : 500,
+ *      "spool" : {
+ *        "enabled" : true,
+ *        "directory" : "/var/spool/audit/elasticsearch"
+ *      }
+ *    },
+ *    "paging" : {
+ *      "mode" : "SEARCH_AFTER",
+ *      "streamingPageSize" : 1000
  *    }
  *  }
  * </pre>
@@ -57,6 +67,9 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
     @JsonPropertyDescription("audit.handlers.elasticsearch.buffering")
     private EventBufferingConfiguration buffering = new EventBufferingConfiguration();
 
+    @JsonPropertyDescription("audit.handlers.elasticsearch.paging")
+    private PagingConfiguration paging = new PagingConfiguration();
+
     /**
      * Gets configuration of connection to Elasticsearch.
      *
@@ -111,6 +124,24 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
         this.buffering = buffering;
     }
 
+    /**
+     * Gets configuration of query paging.
+     *
+     * @return configuration of query paging
+     */
+    public PagingConfiguration getPaging() {
+        return paging;
+    }
+
+    /**
+     * Sets configuration of query paging.
+     *
+     * @param paging configuration of query paging
+     */
+    public void setPaging(PagingConfiguration paging) {
+        this.paging = paging;
+    }
+
     @Override
     public boolean isUsableForQueries() {
         return true;
@@ -283,6 +314,9 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
         @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxBatchedEvents")
         private int maxBatchedEvents;
 
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.spool")
+        private SpoolConfiguration spool = new SpoolConfiguration();
+
         /**
          * Indicates if event buffering is enabled.
          *
@@ -354,5 +388,95 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
         public void setMaxBatchedEvents(int maxBatchedEvents) {
             this.maxBatchedEvents = maxBatchedEvents;
         }
+
+        /**
+         * Gets the configuration of the durable spool to which events are appended, instead of the in-memory buffer.
+         *
+         * @return Spool configuration
+         */
+        public SpoolConfiguration getSpool() {
+            return spool;
+        }
+
+        /**
+         * Sets the configuration of the durable spool to which events are appended, instead of the in-memory buffer.
+         *
+         * @param spool Spool configuration
+         */
+        public void setSpool(SpoolConfiguration spool) {
+            this.spool = spool;
+        }
+    }
+
+    /**
+     * The ways queries can page through the results of Elasticsearch.
+     * <p/>
+     * Searching a point in time is not supported: it requires Elasticsearch 7.10 or later, which no longer supports
+     * the mapping types the topics of the audit index are stored as.
+     */
+    public enum PagingMode {
+        /**
+         * Pages are fetched with the {@code from} and {@code size} parameters, and the paged results cookie is the
+         * offset of the next page. Deep pages are expensive, and are limited by the {@code index.max_result_window}
+         * setting of the index.
+         */
+        OFFSET,
+        /**
+         * Pages are sorted on the sort keys of the query, then on {@code _id}, and fetched after the sort values of
+         * the last event of the previous page, which are encoded into the paged results cookie.
+         */
+        SEARCH_AFTER
+    }
+
+    /**
+     * Configuration of query paging.
+     */
+    public static class PagingConfiguration {
+
+        private static final int DEFAULT_STREAMING_PAGE_SIZE = 1000;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.paging.mode")
+        private PagingMode mode;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.paging.streamingPageSize")
+        private int streamingPageSize;
+
+        /**
+         * Gets the paging mode (default is {@link PagingMode#OFFSET}).
+         *
+         * @return Paging mode
+         */
+        public PagingMode getMode() {
+            return mode != null ? mode : PagingMode.OFFSET;
+        }
+
+        /**
+         * Sets the paging mode.
+         *
+         * @param mode Paging mode
+         */
+        public void setMode(PagingMode mode) {
+            this.mode = mode;
+        }
+
+        /**
+         * Gets the number of events fetched per search when a query without page size streams all its results
+         * (default is {@code 1000}). Queries without page size only stream their results when the paging mode is
+         * not {@link PagingMode#OFFSET}.
+         *
+         * @return Page size
+         */
+        public int getStreamingPageSize() {
+            return streamingPageSize > 0 ? streamingPageSize : DEFAULT_STREAMING_PAGE_SIZE;
+        }
+
+        /**
+         * Sets the number of events fetched per search when a query without page size streams all its results.
+         *
+         * @param streamingPageSize Page size
+         */
+        public void setStreamingPageSize(int streamingPageSize) {
+            this.streamingPageSize = streamingPageSize;
+        }
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.elasticsearch;
+
+import static org.forgerock.audit.util.ElasticsearchUtil.OBJECT_MAPPER;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.json.resource.BadRequestException;
+import org.forgerock.util.encode.Base64url;
+
+/**
+ * The position of a query in the results of an Elasticsearch search, encoded into the CREST paged results cookie.
+ * <p/>
+ * The position is the sort values of the last event returned, passed as the
+ * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/paginate-search-results.html">
+ * search_after</a> parameter of the search of the next page. Cookies made of digits only are offsets, as returned by
+ * the handler before cursors were introduced.
+ */
+final class PagedResultsCursor {
+
+    private static final String SEARCH_AFTER = "searchAfter";
+
+    private final List<Object> searchAfter;
+
+    /**
+     * Creates a cursor.
+     *
+     * @param searchAfter the sort values of the last event returned.
+     */
+    PagedResultsCursor(final List<Object> searchAfter) {
+        this.searchAfter = searchAfter;
+    }
+
+    /**
+     * Returns the sort values of the last event returned.
+     *
+     * @return the sort values of the last event returned.
+     */
+    List<Object> getSearchAfter() {
+        return searchAfter;
+    }
+
+    /**
+     * Returns whether the provided paged results cookie is an offset in the results.
+     *
+     * @param cookie a paged results cookie.
+     * @return {@code true} if the cookie is an offset rather than a cursor.
+     */
+    static boolean isOffset(final String cookie) {
+        if (cookie.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < cookie.length(); i++) {
+            if (!Character.isDigit(cookie.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a cursor from a paged results cookie.
+     *
+     * @param cookie a paged results cookie returned by {@link #toCookie()}.
+     * @return the cursor.
+     * @throws BadRequestException if the cookie is not a valid cursor.
+     */
+    @SuppressWarnings("unchecked")
+    static PagedResultsCursor fromCookie(final String cookie) throws BadRequestException {
+        final byte[] decoded = Base64url.decode(cookie);
+        if (decoded != null) {
+            try {
+                final Object value = OBJECT_MAPPER.readValue(decoded, Object.class);
+                if (value instanceof Map && ((Map<String, Object>) value).get(SEARCH_AFTER) instanceof List) {
+                    return new PagedResultsCursor((List<Object>) ((Map<String, Object>) value).get(SEARCH_AFTER));
+                }
+            } catch (IOException e) {
+                throw new BadRequestException("Invalid paged results cookie: " + cookie, e);
+            }
+        }
+        throw new BadRequestException("Invalid paged results cookie: " + cookie);
+    }
+
+    /**
+     * Encodes this cursor into a paged results cookie.
+     *
+     * @return the paged results cookie.
+     */
+    String toCookie() {
+        final Map<String, Object> cursor = new LinkedHashMap<>(1);
+        cursor.put(SEARCH_AFTER, searchAfter);
+        try {
+            return Base64url.encode(OBJECT_MAPPER.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            // sort values parsed from the responses of Elasticsearch can always be written back
+            throw new IllegalStateException(e);
+        }
+    }
+}
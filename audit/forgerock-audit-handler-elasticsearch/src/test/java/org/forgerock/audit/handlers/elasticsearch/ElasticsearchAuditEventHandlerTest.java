@@ -12,12 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.elasticsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.forgerock.audit.AuditServiceBuilder.newAuditService;
 import static org.forgerock.json.JsonValue.array;
 import static org.forgerock.json.JsonValue.field;
@@ -67,6 +68,7 @@ import org.forgerock.services.context.RootContext;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
 import org.forgerock.util.query.QueryFilter;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.testng.annotations.BeforeTest;
@@ -154,6 +156,50 @@ public class ElasticsearchAuditEventHandlerTest {
         );
     }
 
+    @Test
+    public void testQueryFetchesOnlyRequestedFields() throws Exception {
+
+        // given
+        final JsonValue clientResponsePayload = json(object(
+                field("hits", object(
+                        field("total", TOTAL_RESULTS),
+                        field("hits", array(object(
+                                field("_id", ID),
+                                field("_source", object(
+                                        field("transactionId", "transactionId"),
+                                        field("response", object(field("status", "SUCCESSFUL")))
+                                ))
+                        )))
+                ))
+        ));
+        final Handler clientHandler = mock(Handler.class);
+        final ArgumentCaptor<Request> request = ArgumentCaptor.forClass(Request.class);
+        when(clientHandler.handle(any(Context.class), request.capture()))
+                .thenReturn(newResultPromise(createClientResponse(Status.OK, clientResponsePayload)));
+        final AuditEventHandler handler = createElasticSearchAuditEventHandler(new Client(clientHandler));
+        final QueryRequest queryRequest = Requests.newQueryRequest("access")
+                .setQueryFilter(QueryFilter.<JsonPointer>alwaysTrue())
+                .addField("transactionId", "response/status");
+        final List<ResourceResponse> responses = new LinkedList<>();
+
+        // when
+        handler.queryEvents(mock(Context.class), "access", queryRequest, new QueryResourceHandler() {
+            @Override
+            public boolean handleResource(ResourceResponse resource) {
+                return responses.add(resource);
+            }
+        }).getOrThrow();
+
+        // then
+        final JsonValue payload = json(OBJECT_MAPPER.readValue(request.getValue().getEntity().getString(), Map.class));
+        assertThat(payload.get("_source").asList())
+                .containsExactly("transactionId", "response.status", "_normalized.*");
+        assertThat(responses).hasSize(1);
+        assertThat(responses.get(0).getContent().asMap()).containsExactly(
+                entry("transactionId", "transactionId"),
+                entry("status", "SUCCESSFUL"));
+    }
+
     @Test
     public void testFailedQuery() throws Exception {
 
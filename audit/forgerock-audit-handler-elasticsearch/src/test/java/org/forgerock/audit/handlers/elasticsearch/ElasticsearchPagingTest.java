@@ -0,0 +1,293 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.elasticsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.array;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.util.test.assertj.AssertJPromiseAssert.assertThatPromise;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.audit.events.EventTopicsMetaData;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration.PagingMode;
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.BadRequestException;
+import org.forgerock.json.resource.QueryRequest;
+import org.forgerock.json.resource.QueryResourceHandler;
+import org.forgerock.json.resource.QueryResponse;
+import org.forgerock.json.resource.Requests;
+import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.query.QueryFilter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+@SuppressWarnings("javadoc")
+public class ElasticsearchPagingTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String RESOURCE_PATH = "/org/forgerock/audit/handlers/elasticsearch/";
+    private static final int EVENT_COUNT = 7;
+
+    private StubElasticsearch elasticsearch;
+    private ElasticsearchAuditEventHandler handler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        elasticsearch = new StubElasticsearch(EVENT_COUNT);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (handler != null) {
+            handler.shutdown();
+            handler = null;
+        }
+        elasticsearch.stop();
+    }
+
+    @Test
+    public void searchAfterPagingShouldReturnAllEventsPageByPage() throws Exception {
+        handler = createHandler(PagingMode.SEARCH_AFTER, 0);
+        final List<String> ids = new ArrayList<>();
+        String cookie = null;
+        int pages = 0;
+        do {
+            final QueryRequest query = newQuery(3).setPagedResultsCookie(cookie);
+            final QueryResponse response = handler.queryEvents(new RootContext(), "access", query,
+                    collectIds(ids, Integer.MAX_VALUE)).getOrThrow(10, TimeUnit.SECONDS);
+            assertThat(response.getTotalPagedResults()).isEqualTo(EVENT_COUNT);
+            cookie = response.getPagedResultsCookie();
+            pages++;
+        } while (cookie != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).containsExactly("id0", "id1", "id2", "id3", "id4", "id5", "id6");
+        final JsonValue lastSearch = elasticsearch.searches.get(2);
+        assertThat(lastSearch.get("uri").asString()).isEqualTo("/audit/access/_search?size=3&from=0");
+        assertThat(lastSearch.get("body").get("sort").getObject()).isEqualTo(
+                array(object(field("timestamp", "asc")), object(field("_id", "asc"))));
+        assertThat(lastSearch.get("body").get("search_after").getObject()).isEqualTo(
+                array(elasticsearch.timestamp(5), "id5"));
+    }
+
+    @Test
+    public void offsetCookiesShouldStillBeAccepted() throws Exception {
+        handler = createHandler(PagingMode.SEARCH_AFTER, 0);
+        final List<String> ids = new ArrayList<>();
+
+        final QueryResponse response = handler.queryEvents(new RootContext(), "access",
+                newQuery(3).setPagedResultsCookie("3"), collectIds(ids, Integer.MAX_VALUE))
+                .getOrThrow(10, TimeUnit.SECONDS);
+
+        assertThat(ids).containsExactly("id3", "id4", "id5");
+        assertThat(response.getPagedResultsCookie()).isEqualTo("6");
+        assertThat(elasticsearch.searches.get(0).get("uri").asString())
+                .isEqualTo("/audit/access/_search?size=3&from=3");
+    }
+
+    @Test
+    public void invalidCookiesShouldBeRejected() throws Exception {
+        handler = createHandler(PagingMode.SEARCH_AFTER, 0);
+
+        assertThatPromise(handler.queryEvents(new RootContext(), "access",
+                newQuery(3).setPagedResultsCookie("not a cookie"), collectIds(new ArrayList<String>(), 1)))
+                .failedWithException().isInstanceOf(BadRequestException.class);
+        assertThat(elasticsearch.searches).isEmpty();
+    }
+
+    @Test
+    public void queriesWithoutPageSizeShouldStreamAllEvents() throws Exception {
+        handler = createHandler(PagingMode.SEARCH_AFTER, 2);
+        final List<String> ids = new ArrayList<>();
+
+        final QueryResponse response = handler.queryEvents(new RootContext(), "access", newQuery(0),
+                collectIds(ids, Integer.MAX_VALUE)).getOrThrow(10, TimeUnit.SECONDS);
+
+        assertThat(response.getPagedResultsCookie()).isNull();
+        assertThat(response.getTotalPagedResults()).isEqualTo(EVENT_COUNT);
+        assertThat(ids).containsExactly("id0", "id1", "id2", "id3", "id4", "id5", "id6");
+        assertThat(elasticsearch.searches).hasSize(4);
+    }
+
+    @Test
+    public void streamingShouldStopWhenTheHandlerDoesNotWantMoreEvents() throws Exception {
+        handler = createHandler(PagingMode.SEARCH_AFTER, 2);
+        final List<String> ids = new ArrayList<>();
+
+        final QueryResponse response = handler.queryEvents(new RootContext(), "access", newQuery(0),
+                collectIds(ids, 3)).getOrThrow(10, TimeUnit.SECONDS);
+
+        assertThat(response.getPagedResultsCookie()).isNull();
+        assertThat(ids).containsExactly("id0", "id1", "id2");
+        assertThat(elasticsearch.searches).hasSize(2);
+    }
+
+    private ElasticsearchAuditEventHandler createHandler(PagingMode mode, int streamingPageSize) throws Exception {
+        final ElasticsearchAuditEventHandlerConfiguration configuration =
+                new ElasticsearchAuditEventHandlerConfiguration();
+        configuration.setName("elasticsearch");
+        configuration.setTopics(new HashSet<>(Collections.singletonList("access")));
+        configuration.getConnection().setHost("localhost");
+        configuration.getConnection().setPort(elasticsearch.getPort());
+        configuration.getPaging().setMode(mode);
+        configuration.getPaging().setStreamingPageSize(streamingPageSize);
+        final ElasticsearchAuditEventHandler handler =
+                new ElasticsearchAuditEventHandler(configuration, getEventTopicsMetaData(), null);
+        handler.startup();
+        return handler;
+    }
+
+    private EventTopicsMetaData getEventTopicsMetaData() throws Exception {
+        final Map<String, JsonValue> events = new LinkedHashMap<>();
+        try (InputStream in = getClass().getResourceAsStream(RESOURCE_PATH + "events.json")) {
+            final JsonValue predefinedEventTypes = json(OBJECT_MAPPER.readValue(in, Map.class));
+            for (final String eventTypeName : predefinedEventTypes.keys()) {
+                events.put(eventTypeName, predefinedEventTypes.get(eventTypeName));
+            }
+        }
+        return new EventTopicsMetaData(events);
+    }
+
+    private static QueryRequest newQuery(int pageSize) {
+        return Requests.newQueryRequest("access")
+                .setQueryFilter(QueryFilter.<JsonPointer>alwaysTrue())
+                .setPageSize(pageSize);
+    }
+
+    private static QueryResourceHandler collectIds(final List<String> ids, final int maxIds) {
+        return new QueryResourceHandler() {
+            @Override
+            public boolean handleResource(ResourceResponse resource) {
+                ids.add(resource.getId());
+                return ids.size() < maxIds;
+            }
+        };
+    }
+
+    /**
+     * Answers the search API of Elasticsearch with events sorted by timestamp then id, and records the searches
+     * received.
+     */
+    private static final class StubElasticsearch implements HttpHandler {
+
+        private final HttpServer server;
+        private final int eventCount;
+        private final List<JsonValue> searches = new CopyOnWriteArrayList<>();
+
+        StubElasticsearch(int eventCount) throws IOException {
+            this.eventCount = eventCount;
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", this);
+            server.start();
+        }
+
+        int getPort() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        long timestamp(int event) {
+            return 1700000000000L + event * 1000L;
+        }
+
+        @Override
+        public synchronized void handle(HttpExchange exchange) throws IOException {
+            final String uri = exchange.getRequestURI().toString();
+            final JsonValue body = readBody(exchange);
+            final Object response;
+            if (uri.contains("_search")) {
+                searches.add(json(object(field("uri", uri), field("body", body.getObject()))));
+                response = search(uri, body);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            final byte[] entity = OBJECT_MAPPER.writeValueAsBytes(response);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, entity.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(entity);
+            }
+        }
+
+        private Object search(String uri, JsonValue body) {
+            final int size = Integer.parseInt(uri.replaceAll(".*size=(\\d+).*", "$1"));
+            int from = uri.contains("from=") ? Integer.parseInt(uri.replaceAll(".*from=(\\d+).*", "$1")) : 0;
+            if (body.isDefined("search_after")) {
+                // the events are sorted by timestamp, so the event following the sort values is found by timestamp
+                final long after = body.get("search_after").get(0).asLong();
+                from = (int) ((after - timestamp(0)) / 1000L) + 1;
+            }
+            final List<Object> hits = new ArrayList<>();
+            for (int i = from; i < Math.min(from + size, eventCount); i++) {
+                hits.add(object(
+                        field("_index", "audit"),
+                        field("_id", "id" + i),
+                        field("_source", object(field("timestamp", timestamp(i)), field("transactionId", "tx" + i))),
+                        field("sort", Arrays.asList(timestamp(i), "id" + i))));
+            }
+            return object(field("hits", object(
+                    field("total", object(field("value", eventCount), field("relation", "eq"))),
+                    field("hits", hits))));
+        }
+
+        private static JsonValue readBody(HttpExchange exchange) throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                final String body = new String(readAll(in), StandardCharsets.UTF_8);
+                return json(body.isEmpty() ? null : OBJECT_MAPPER.readValue(body, Object.class));
+            }
+        }
+
+        private static byte[] readAll(InputStream in) throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
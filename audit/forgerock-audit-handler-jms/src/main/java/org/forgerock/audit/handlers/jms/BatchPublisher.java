@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jms;
 
@@ -24,6 +25,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.json.resource.ResourceException;
 import org.forgerock.util.Reject;
@@ -47,6 +49,7 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
     private final long shutdownTimeoutSec;
     private volatile boolean stopRequested;
     private final int maxBatchedEvents;
+    private final int threadCount;
 
     /**
      * This constructs the thread pool of worker threads.  The pool is not executed until {@link #startup()}.
@@ -64,10 +67,13 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
         this.insertTimeoutSec = configuration.getInsertTimeoutSec();
         this.shutdownTimeoutSec = configuration.getShutdownTimeoutSec();
         this.stopRequested = false;
-        this.executorService = Executors.newFixedThreadPool(configuration.getThreadCount(), new ThreadFactory() {
+        this.threadCount = configuration.getThreadCount();
+        this.executorService = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+
             @Override
             public Thread newThread(Runnable runnable) {
-                return new Thread(runnable, name);
+                return new Thread(runnable, threadCount == 1 ? name : name + "-" + threadNumber.incrementAndGet());
             }
         });
     }
@@ -96,15 +102,26 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
     protected abstract void publishMessages(List<T> messages);
 
     /**
-     * This first initializes the worker threads that monitor the queue of items to publish, and then calls
-     * {@link #startupPublisher()}.
+     * This is invoked by the worker threads when no message could be taken from the queue within the polling
+     * timeout. This can be overridden to complete work deferred by {@link #publishMessages(List)}, for example
+     * committing a transaction which has been left open for subsequent messages. It does nothing by default.
+     */
+    protected void publisherIdle() {
+        // nothing deferred by default
+    }
+
+    /**
+     * This first initializes the configured count of worker threads that monitor the queue of items to publish, and
+     * then calls {@link #startupPublisher()}.
      *
      * @throws ResourceException If there is trouble starting up the publisher or starting the worker threads.
      */
     @Override
     public final void startup() throws ResourceException {
         stopRequested = false;
-        this.executorService.execute(new PublishTask());
+        for (int i = 0; i < threadCount; i++) {
+            this.executorService.execute(new PublishTask());
+        }
         startupPublisher();
     }
 
@@ -171,7 +188,7 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
          * While the queue isn't empty this will drain the queue into a list and process them in a single call to
          * {@link #publishMessages(List)}. <br/>
          * If the drain results in an empty list, then this will poll for a single item and process that item as a
-         * singleton batch. <br/>
+         * singleton batch, or call {@link #publisherIdle()} if the poll timeouts. <br/>
          * If the poll timeouts ({@link BatchPublisherConfiguration#pollTimeoutSec }), and the queue is still
          * empty, then the run will exit.<br/>
          */
@@ -187,6 +204,8 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
                         T message = queue.poll(POLLING_TIMEOUT, POLLING_TIMEOUT_UNIT);
                         if (message != null) {
                             publishMessages(Collections.singletonList(message));
+                        } else {
+                            publisherIdle();
                         }
                     } else {
                         publishMessages(drainList);
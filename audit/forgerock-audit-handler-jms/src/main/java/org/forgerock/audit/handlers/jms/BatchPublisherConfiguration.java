@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jms;
 
@@ -44,6 +45,15 @@ public class BatchPublisherConfiguration {
     @JsonPropertyDescription("audit.handlers.jms.publisher.batch.shutdownTimeoutSec")
     private long shutdownTimeoutSec = 60L;
 
+    @JsonPropertyDescription("audit.handlers.jms.publisher.batch.maxUncommittedEvents")
+    private int maxUncommittedEvents = 100;
+
+    @JsonPropertyDescription("audit.handlers.jms.publisher.batch.commitIntervalMillis")
+    private long commitIntervalMillis = 1000L;
+
+    @JsonPropertyDescription("audit.handlers.jms.publisher.batch.asyncSendEnabled")
+    private boolean asyncSendEnabled = false;
+
     /**
      * Returns the maximum capacity of the publishing queue.  Execution will block if the queue size is at capacity.
      *
@@ -173,4 +183,65 @@ public class BatchPublisherConfiguration {
     public void setBatchEnabled(boolean batchEnabled) {
         this.batchEnabled = batchEnabled;
     }
+
+    /**
+     * Returns the maximum count of events sent in a transacted session before it is committed.
+     *
+     * @return the maximum count of uncommitted events per session.
+     * @see SessionModeConfig#TRANSACTED
+     */
+    public int getMaxUncommittedEvents() {
+        return maxUncommittedEvents;
+    }
+
+    /**
+     * Sets the maximum count of events sent in a transacted session before it is committed.
+     *
+     * @param maxUncommittedEvents the maximum count of uncommitted events per session.
+     */
+    public void setMaxUncommittedEvents(int maxUncommittedEvents) {
+        this.maxUncommittedEvents = maxUncommittedEvents;
+    }
+
+    /**
+     * Returns the longest duration in milliseconds for which an event sent in a transacted session is left
+     * uncommitted, when fewer than {@link #getMaxUncommittedEvents()} events have been sent.
+     *
+     * @return the commit interval in milliseconds.
+     * @see SessionModeConfig#TRANSACTED
+     */
+    public long getCommitIntervalMillis() {
+        return commitIntervalMillis;
+    }
+
+    /**
+     * Sets the longest duration in milliseconds for which an event sent in a transacted session is left
+     * uncommitted.
+     *
+     * @param commitIntervalMillis the commit interval in milliseconds.
+     */
+    public void setCommitIntervalMillis(long commitIntervalMillis) {
+        this.commitIntervalMillis = commitIntervalMillis;
+    }
+
+    /**
+     * Returns whether the events of a batch are sent asynchronously, waiting once for all of them to be acknowledged
+     * by the JMS provider, rather than waiting for each of them in turn. Providers which do not support asynchronous
+     * sends fall back to synchronous sends.
+     *
+     * @return {@code true} if events are sent asynchronously.
+     * @see jakarta.jms.MessageProducer#send(jakarta.jms.Message, jakarta.jms.CompletionListener)
+     */
+    public boolean isAsyncSendEnabled() {
+        return asyncSendEnabled;
+    }
+
+    /**
+     * Sets whether the events of a batch are sent asynchronously.
+     *
+     * @param asyncSendEnabled {@code true} to send events asynchronously.
+     */
+    public void setAsyncSendEnabled(boolean asyncSendEnabled) {
+        this.asyncSendEnabled = asyncSendEnabled;
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.jms;
@@ -29,6 +30,7 @@ import jakarta.inject.Inject;
 import jakarta.jms.JMSException;
 import jakarta.jms.MessageProducer;
 import jakarta.jms.Session;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.forgerock.audit.Audit;
@@ -73,12 +75,12 @@ public class JmsAuditEventHandler extends AuditEventHandlerBase {
 
         super(configuration.getName(), eventTopicsMetaData, configuration.getTopics(), configuration.isEnabled());
 
-        publisher = buildPublisher(configuration);
         this.jmsResourceManager =
                 jmsContextManager == null
                         ? new JmsResourceManager(
                                 configuration, new JndiJmsContextManager(configuration.getJndi()))
                         : new JmsResourceManager(configuration, jmsContextManager);
+        publisher = buildPublisher(configuration);
         LOGGER.debug("Successfully configured JMS audit event handler.");
     }
 
@@ -181,6 +183,9 @@ public class JmsAuditEventHandler extends AuditEventHandlerBase {
                     String text = MAPPER.writeValueAsString(message.getObject());
                     producer.send(session.createTextMessage(text));
                 }
+                if (jmsResourceManager.isTransacted()) {
+                    session.commit();
+                }
             } finally {
                 if (null != producer) {
                     producer.close();
@@ -227,10 +232,13 @@ public class JmsAuditEventHandler extends AuditEventHandlerBase {
     }
 
     /**
-     * Implementation of the BatchPublisher to handle publishing groups of audit event data to JMS.
+     * Implementation of the BatchPublisher to handle publishing groups of audit event data to JMS, each worker thread
+     * sending its batches through a session of the {@link JmsSessionPool}.
      */
     private class JmsBatchPublisher extends BatchPublisher<JsonValue> {
 
+        private final JmsSessionPool sessionPool;
+
         /**
          * Constructor that passes the configuration to {@link BatchPublisher}.
          *
@@ -238,6 +246,7 @@ public class JmsAuditEventHandler extends AuditEventHandlerBase {
          */
         public JmsBatchPublisher(BatchPublisherConfiguration configuration) {
             super("JmsBatchPublisher", configuration);
+            this.sessionPool = new JmsSessionPool(jmsResourceManager, configuration);
         }
 
         @Override
@@ -247,17 +256,31 @@ public class JmsAuditEventHandler extends AuditEventHandlerBase {
 
         @Override
         public void shutdownPublisher() throws ResourceException {
+            sessionPool.close();
             closeJmsConnection();
         }
 
         @Override
         protected void publishMessages(List<JsonValue> messages) {
+            final List<String> texts = new ArrayList<>(messages.size());
+            for (JsonValue message : messages) {
+                try {
+                    texts.add(MAPPER.writeValueAsString(message.getObject()));
+                } catch (JsonProcessingException e) {
+                    LOGGER.error("Unable to publish JMS message, message is lost", e);
+                }
+            }
             try {
-                publishJmsMessagesWithRetry(messages);
+                sessionPool.publish(texts);
             } catch (InternalServerErrorException e) {
                 // do nothing
             }
         }
+
+        @Override
+        protected void publisherIdle() {
+            sessionPool.commitDueSessions();
+        }
     }
 
     /**
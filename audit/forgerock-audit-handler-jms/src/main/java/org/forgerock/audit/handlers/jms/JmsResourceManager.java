@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.jms;
@@ -52,7 +53,7 @@ class JmsResourceManager {
     /**
      * The Current JMS broker connection, if open.
      */
-    private Connection connection;
+    private volatile Connection connection;
 
     /**
      * The JMS Topic used to publish the audit TextMessages.
@@ -111,8 +112,17 @@ class JmsResourceManager {
     }
 
     /**
-     * Creates and returns a jms session created from the connection with the sessionMode configured and without
-     * transaction management.
+     * Returns whether the sessions created by {@link #createSession()} are transacted.
+     *
+     * @return {@code true} if the configured session mode is {@link SessionModeConfig#TRANSACTED}.
+     */
+    public boolean isTransacted() {
+        return sessionMode.isTransacted();
+    }
+
+    /**
+     * Creates and returns a jms session created from the connection with the sessionMode configured, transacted
+     * if the sessionMode is {@link SessionModeConfig#TRANSACTED}.
      *
      * @return a new session.
      * @throws JMSException if trouble is encountered creating the session.
@@ -124,7 +134,7 @@ class JmsResourceManager {
             throw new IllegalStateException(
                     "JMS Connection not available to create session. The JMS Audit Service requires a restart.");
         }
-        return connection.createSession(false, sessionMode.getMode());
+        return connection.createSession(sessionMode.isTransacted(), sessionMode.getMode());
     }
 
     /**
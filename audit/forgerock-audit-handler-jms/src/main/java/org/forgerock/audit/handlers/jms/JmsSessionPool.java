@@ -0,0 +1,442 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.jms;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.forgerock.json.resource.InternalServerErrorException;
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the sessions and producers used by the worker threads of the batch publisher, so that they are not created
+ * again for each batch, and so that several batches can be sent in parallel, each through its own session.
+ * <p/>
+ * Messages of a batch are sent asynchronously when the JMS provider supports it, waiting for all of them to be
+ * acknowledged once they have all been sent. When the {@link SessionModeConfig#TRANSACTED transacted} session mode
+ * is configured, the messages sent in a session are committed once {@code maxUncommittedEvents} messages have been
+ * sent, or {@code commitIntervalMillis} after the first of them has been sent, whichever comes first. Idle sessions
+ * whose commit is due are committed each time a batch has been published, as well as when the publisher is idle. The
+ * messages are kept until committed, so that they can be sent again through a new connection if the session fails.
+ * <p/>
+ * Objects are thread-safe, a session being used by a single thread at a time.
+ */
+class JmsSessionPool {
+    private static final Logger logger = LoggerFactory.getLogger(JmsSessionPool.class);
+
+    private final JmsResourceManager jmsResourceManager;
+    private final int maxSessions;
+    private final int maxUncommittedEvents;
+    private final long commitIntervalNanos;
+    private final boolean transacted;
+
+    /** Whether messages are sent asynchronously, cleared when the JMS provider does not support it. */
+    private volatile boolean asyncSend;
+
+    /** Sessions which are not used by any thread, guarded by this. */
+    private final Deque<PooledSession> idleSessions = new ArrayDeque<>();
+    /** Count of sessions, idle or not, guarded by this. */
+    private int sessionCount;
+    /** Incremented each time the connection is reset, guarded by this. */
+    private int generation;
+
+    /**
+     * Creates a pool of sessions opened from the connection of the {@link JmsResourceManager}.
+     *
+     * @param jmsResourceManager the manager of the connection from which the sessions are created.
+     * @param configuration the batch configuration, defining the maximum count of sessions and the commit policy.
+     */
+    JmsSessionPool(JmsResourceManager jmsResourceManager, BatchPublisherConfiguration configuration) {
+        Reject.ifFalse(configuration.getMaxUncommittedEvents() > 0, "MaxUncommittedEvents must be greater than 0");
+        Reject.ifFalse(configuration.getCommitIntervalMillis() >= 0, "CommitIntervalMillis must not be negative");
+        this.jmsResourceManager = jmsResourceManager;
+        this.maxSessions = configuration.getThreadCount();
+        this.maxUncommittedEvents = configuration.getMaxUncommittedEvents();
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getCommitIntervalMillis());
+        this.asyncSend = configuration.isAsyncSendEnabled();
+        this.transacted = jmsResourceManager.isTransacted();
+    }
+
+    /**
+     * Sends the messages through a pooled session. If sending fails, the connection is reset and the messages, along
+     * with any uncommitted messages of the failed session, are sent again once.
+     *
+     * @param texts the texts of the {@link jakarta.jms.TextMessage TextMessages} to send.
+     * @throws InternalServerErrorException if the messages could not be sent, in which case they are likely lost.
+     */
+    void publish(List<String> texts) throws InternalServerErrorException {
+        List<String> unsent = texts;
+        for (int attempt = 0;; attempt++) {
+            final int sessionGeneration = getGeneration();
+            PooledSession session = null;
+            try {
+                session = borrow();
+                session.send(unsent);
+                if (release(session)) {
+                    if (transacted) {
+                        // under steady traffic, the sessions below the most recently used ones stay idle
+                        commitDueSessions();
+                    }
+                    return;
+                }
+                // the connection was reset meanwhile, rolling back what the session did not commit
+                unsent = session.uncommitted;
+            } catch (JMSException e) {
+                if (session != null) {
+                    unsent = session.discard(unsent);
+                    discard(session);
+                }
+                if (attempt > 0) {
+                    final String message = "Unable to publish JMS messages, messages are likely lost";
+                    logger.error(message, e);
+                    throw new InternalServerErrorException(message, e);
+                }
+                logger.debug("Retrying publish", e);
+            }
+            unsent = resetConnection(sessionGeneration, unsent);
+        }
+    }
+
+    /**
+     * Commits the idle sessions whose oldest uncommitted message has been sent at least {@code commitIntervalMillis}
+     * ago.
+     */
+    void commitDueSessions() {
+        final long now = System.nanoTime();
+        final List<PooledSession> dueSessions = new ArrayList<>();
+        synchronized (this) {
+            for (PooledSession session : idleSessions) {
+                if (session.isCommitDue(now)) {
+                    dueSessions.add(session);
+                }
+            }
+            idleSessions.removeAll(dueSessions);
+        }
+        for (PooledSession session : dueSessions) {
+            commitAndRelease(session);
+        }
+    }
+
+    /**
+     * Commits and closes the idle sessions. This is expected to be called once the worker threads have stopped,
+     * before the connection is closed, the pool being usable again once the connection has been reopened.
+     */
+    void close() {
+        final List<PooledSession> sessions;
+        synchronized (this) {
+            sessions = new ArrayList<>(idleSessions);
+            idleSessions.clear();
+        }
+        for (PooledSession session : sessions) {
+            try {
+                if (!session.uncommitted.isEmpty()) {
+                    session.commit();
+                }
+            } catch (JMSException e) {
+                logger.error("Unable to commit " + session.uncommitted.size() + " JMS messages, messages are lost", e);
+            }
+            discard(session);
+        }
+    }
+
+    private void commitAndRelease(PooledSession session) {
+        try {
+            session.commit();
+        } catch (JMSException e) {
+            final List<String> uncommitted = session.discard(Collections.<String>emptyList());
+            discard(session);
+            logger.debug("Unable to commit JMS messages, publishing them again", e);
+            try {
+                publish(uncommitted);
+            } catch (InternalServerErrorException ex) {
+                // already logged
+            }
+            return;
+        }
+        release(session);
+    }
+
+    private synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns an idle session, creating a new one if fewer than {@code maxSessions} sessions exist, or else waiting
+     * for a session to be released.
+     */
+    private PooledSession borrow() throws JMSException {
+        synchronized (this) {
+            boolean interrupted = false;
+            try {
+                while (idleSessions.isEmpty() && sessionCount >= maxSessions) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // keep waiting, a session is released as soon as its batch has been sent
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (!idleSessions.isEmpty()) {
+                return idleSessions.pop();
+            }
+            sessionCount++;
+        }
+        try {
+            return new PooledSession(getGeneration());
+        } catch (JMSException | RuntimeException e) {
+            synchronized (this) {
+                sessionCount--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the session available to other threads, unless it was opened from a connection which has since been
+     * reset.
+     *
+     * @return {@code false} if the session has been discarded because its connection has been reset.
+     */
+    private boolean release(PooledSession session) {
+        synchronized (this) {
+            if (session.generation == generation) {
+                // most recently used first, so that unneeded sessions stay idle
+                idleSessions.push(session);
+                notifyAll();
+                return true;
+            }
+        }
+        discard(session);
+        return session.uncommitted.isEmpty();
+    }
+
+    private void discard(PooledSession session) {
+        session.close();
+        synchronized (this) {
+            sessionCount--;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Reopens the connection, unless another thread already did since the failed session was borrowed. The idle
+     * sessions, which were opened from the closed connection, are discarded along with their uncommitted messages.
+     *
+     * @return the messages to send again: the unsent messages, preceded by the uncommitted messages of the discarded
+     *         sessions.
+     */
+    private List<String> resetConnection(int failedGeneration, List<String> unsent)
+            throws InternalServerErrorException {
+        final List<PooledSession> sessions;
+        synchronized (this) {
+            if (failedGeneration != generation) {
+                return unsent;
+            }
+            generation++;
+            sessions = new ArrayList<>(idleSessions);
+            idleSessions.clear();
+            try {
+                jmsResourceManager.closeConnection();
+            } catch (JMSException e) {
+                logger.debug("Unable to close JMS connection", e);
+            }
+            try {
+                jmsResourceManager.openConnection();
+            } catch (JMSException e) {
+                final String message = "Unable to publish JMS messages, messages are likely lost";
+                logger.error(message, e);
+                throw new InternalServerErrorException(message, e);
+            }
+        }
+        final List<String> resend = new ArrayList<>();
+        for (PooledSession session : sessions) {
+            resend.addAll(session.uncommitted);
+            discard(session);
+        }
+        resend.addAll(unsent);
+        return resend;
+    }
+
+    /**
+     * A session and its producer, used by a single thread at a time.
+     */
+    private final class PooledSession {
+        private final int generation;
+        private final Session session;
+        private final MessageProducer producer;
+        /** Messages sent but not committed yet, always empty when the session is not transacted. */
+        private final List<String> uncommitted = new ArrayList<>();
+        /** When the first uncommitted message has been sent. */
+        private long uncommittedSince;
+        /** Count of the texts of the batch being sent which have been handed to the producer. */
+        private int sentCount;
+
+        private PooledSession(int generation) throws JMSException {
+            this.generation = generation;
+            this.session = jmsResourceManager.createSession();
+            try {
+                this.producer = jmsResourceManager.createProducer(session);
+            } catch (JMSException | RuntimeException e) {
+                session.close();
+                throw e;
+            }
+        }
+
+        private void send(List<String> texts) throws JMSException {
+            final SendCompletion completion = new SendCompletion();
+            sentCount = 0;
+            for (String text : texts) {
+                send(session.createTextMessage(text), completion);
+                sentCount++;
+                if (transacted) {
+                    if (uncommitted.isEmpty()) {
+                        uncommittedSince = System.nanoTime();
+                    }
+                    uncommitted.add(text);
+                    if (uncommitted.size() >= maxUncommittedEvents) {
+                        completion.await();
+                        commit();
+                    }
+                }
+            }
+            completion.await();
+            if (isCommitDue(System.nanoTime())) {
+                commit();
+            }
+        }
+
+        private void send(Message message, SendCompletion completion) throws JMSException {
+            if (asyncSend) {
+                completion.sending();
+                try {
+                    producer.send(message, completion);
+                    return;
+                } catch (UnsupportedOperationException | AbstractMethodError e) {
+                    asyncSend = false;
+                    logger.info("JMS provider does not support asynchronous sends, sending messages synchronously");
+                    completion.onCompletion(message);
+                } catch (JMSException | RuntimeException e) {
+                    completion.onCompletion(message);
+                    throw e;
+                }
+            }
+            producer.send(message);
+        }
+
+        private boolean isCommitDue(long now) {
+            return !uncommitted.isEmpty() && now - uncommittedSince >= commitIntervalNanos;
+        }
+
+        private void commit() throws JMSException {
+            session.commit();
+            uncommitted.clear();
+        }
+
+        /**
+         * Returns the messages to send again once this failed session is discarded: all the texts of the failed
+         * batch if the session is not transacted, or else the messages which were not committed, followed by the
+         * texts of the failed batch which were not sent.
+         */
+        private List<String> discard(List<String> texts) {
+            if (!transacted) {
+                return texts;
+            }
+            final List<String> resend = new ArrayList<>(uncommitted);
+            resend.addAll(texts.subList(Math.min(sentCount, texts.size()), texts.size()));
+            uncommitted.clear();
+            return resend;
+        }
+
+        private void close() {
+            try {
+                session.close();
+            } catch (JMSException e) {
+                logger.debug("Unable to close JMS session", e);
+            }
+        }
+    }
+
+    /**
+     * Waits for the asynchronous sends of a batch to complete, reporting the first failure.
+     */
+    private static final class SendCompletion implements CompletionListener {
+        private int incomplete;
+        private Exception failure;
+
+        private synchronized void sending() {
+            incomplete++;
+        }
+
+        @Override
+        public synchronized void onCompletion(Message message) {
+            incomplete--;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void onException(Message message, Exception exception) {
+            if (failure == null) {
+                failure = exception;
+            }
+            incomplete--;
+            notifyAll();
+        }
+
+        private synchronized void await() throws JMSException {
+            boolean interrupted = false;
+            try {
+                while (incomplete > 0) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // the provider calls back once the send is complete, whether successfully or not
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failure != null) {
+                final Exception exception = failure;
+                failure = null;
+                if (exception instanceof JMSException) {
+                    throw (JMSException) exception;
+                }
+                final JMSException jmsException = new JMSException("Asynchronous send failed: " + exception);
+                jmsException.setLinkedException(exception);
+                throw jmsException;
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.jms;
@@ -27,7 +28,14 @@ public enum SessionModeConfig {
     /** Client-acknowledge session mode. */
     CLIENT(Session.CLIENT_ACKNOWLEDGE),
     /** Dups-OK-acknowledge session mode. */
-    DUPS_OK(Session.DUPS_OK_ACKNOWLEDGE);
+    DUPS_OK(Session.DUPS_OK_ACKNOWLEDGE),
+    /**
+     * Transacted session mode, the batch publisher committing the messages sent in a session every
+     * {@link BatchPublisherConfiguration#getMaxUncommittedEvents() N messages} or
+     * {@link BatchPublisherConfiguration#getCommitIntervalMillis() T milliseconds}, and the non-batched publisher
+     * committing each message as it is published.
+     */
+    TRANSACTED(Session.SESSION_TRANSACTED);
 
     private int mode;
 
@@ -50,4 +58,14 @@ public enum SessionModeConfig {
     public int getMode() {
         return mode;
     }
+
+    /**
+     * Returns whether sessions created with this configuration are transacted.
+     *
+     * @return {@code true} if sessions have to be committed for their messages to be delivered.
+     * @see Session#getTransacted()
+     */
+    public boolean isTransacted() {
+        return this == TRANSACTED;
+    }
 }
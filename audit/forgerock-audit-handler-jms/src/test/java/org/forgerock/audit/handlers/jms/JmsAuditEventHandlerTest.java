@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.jms;
@@ -32,6 +32,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -67,6 +68,7 @@ import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.util.promise.Promise;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
@@ -129,6 +131,37 @@ public class JmsAuditEventHandlerTest {
         assertThat(jsonValue).stringAt("event/name").isEqualTo("TestEvent");
     }
 
+    @Test
+    public void testJmsAuditEventHandlerPublishCommitsTransactedSession() throws Exception {
+        // given
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        Topic topic = mock(Topic.class);
+        Connection connection = mock(Connection.class);
+        Session session = mock(Session.class);
+        MessageProducer producer = mock(MessageProducer.class);
+
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(true, Session.SESSION_TRANSACTED)).thenReturn(session);
+        when(session.createProducer(topic)).thenReturn(producer);
+        when(session.createTextMessage(anyString())).thenReturn(mock(TextMessage.class));
+        JmsAuditEventHandlerConfiguration configuration = getDefaultConfiguration();
+        configuration.setSessionMode(SessionModeConfig.TRANSACTED);
+        AuditEventHandler jmsAuditEventHandler =
+                new JmsAuditEventHandler(
+                        new DefaultJmsContextManager(connectionFactory, topic),
+                        configuration,
+                        CORE_EVENT_TOPICS);
+        jmsAuditEventHandler.startup();
+
+        // when
+        jmsAuditEventHandler.publishEvent(null, "TEST_AUDIT", json(object(field("name", "TestEvent"))));
+
+        // then
+        InOrder inOrder = inOrder(producer, session);
+        inOrder.verify(producer).send(any(TextMessage.class));
+        inOrder.verify(session).commit();
+    }
+
     /**
      * Validates that the JMS batch publisher functions as expected.
      *
@@ -0,0 +1,487 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.jms;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.forgerock.json.resource.InternalServerErrorException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class JmsSessionPoolTest {
+
+    private ConnectionFactory connectionFactory;
+    private Connection connection;
+    private Topic topic;
+    /** Sessions in the order they were created, with the texts they sent and committed. */
+    private List<Session> sessions;
+    private List<String> sent;
+    private List<String> committed;
+    private ProducerFactory producerFactory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connectionFactory = mock(ConnectionFactory.class);
+        connection = mock(Connection.class);
+        topic = mock(Topic.class);
+        sessions = new CopyOnWriteArrayList<>();
+        sent = Collections.synchronizedList(new ArrayList<String>());
+        committed = Collections.synchronizedList(new ArrayList<String>());
+        producerFactory = new ProducerFactory() {
+            @Override
+            public MessageProducer newProducer() throws JMSException {
+                return newRecordingProducer();
+            }
+        };
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(anyBoolean(), anyInt())).thenAnswer(new Answer<Session>() {
+            @Override
+            public Session answer(InvocationOnMock invocation) throws Throwable {
+                return newSession(invocation.<Boolean>getArgument(0));
+            }
+        });
+    }
+
+    @Test
+    public void shouldCommitTransactedSessionEveryMaxUncommittedEvents() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(1);
+        batch.setMaxUncommittedEvents(3);
+        batch.setCommitIntervalMillis(TimeUnit.HOURS.toMillis(1));
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.TRANSACTED, batch);
+
+        // when
+        pool.publish(asList("1", "2"));
+        pool.publish(asList("3", "4", "5", "6", "7"));
+
+        // then
+        assertThat(sessions).hasSize(1);
+        verify(connection).createSession(true, Session.SESSION_TRANSACTED);
+        verify(sessions.get(0), times(2)).commit();
+        assertThat(sent).containsExactly("1", "2", "3", "4", "5", "6", "7");
+        assertThat(committed).containsExactly("1", "2", "3", "4", "5", "6");
+
+        // when
+        pool.close();
+
+        // then
+        assertThat(committed).containsExactly("1", "2", "3", "4", "5", "6", "7");
+        verify(sessions.get(0)).close();
+    }
+
+    @Test
+    public void shouldCommitIdleSessionsOnceCommitIntervalElapsed() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(1);
+        batch.setCommitIntervalMillis(100L);
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.TRANSACTED, batch);
+        pool.publish(asList("1", "2"));
+
+        // when
+        pool.commitDueSessions();
+
+        // then
+        assertThat(committed).isEmpty();
+
+        // when
+        Thread.sleep(150L);
+        pool.commitDueSessions();
+
+        // then
+        assertThat(committed).containsExactly("1", "2");
+        pool.close();
+        verify(sessions.get(0)).commit();
+    }
+
+    @Test
+    public void shouldCommitDueIdleSessionsWhilePublishingThroughAnotherSession() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(2);
+        batch.setCommitIntervalMillis(100L);
+        final JmsSessionPool pool = newSessionPool(SessionModeConfig.TRANSACTED, batch);
+        final CountDownLatch secondSent = new CountDownLatch(1);
+        final AtomicInteger producerCount = new AtomicInteger();
+        setUpProducers(new ProducerFactory() {
+            @Override
+            public MessageProducer newProducer() throws JMSException {
+                final boolean first = producerCount.incrementAndGet() == 1;
+                MessageProducer producer = mock(MessageProducer.class);
+                doAnswer(new Answer<Void>() {
+                    @Override
+                    public Void answer(InvocationOnMock invocation) throws Throwable {
+                        if (first) {
+                            // keeps the first session busy, so that the second batch opens another session
+                            secondSent.await(10, TimeUnit.SECONDS);
+                        }
+                        sent.add(((TextMessage) invocation.getArgument(0)).getText());
+                        if (!first) {
+                            secondSent.countDown();
+                        }
+                        return null;
+                    }
+                }).when(producer).send(any(Message.class));
+                return producer;
+            }
+        });
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> firstPublish = executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    pool.publish(asList("1"));
+                    return null;
+                }
+            });
+            while (sessions.isEmpty()) {
+                Thread.sleep(1L);
+            }
+            pool.publish(asList("2"));
+            firstPublish.get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdown();
+        }
+        assertThat(sessions).hasSize(2);
+        assertThat(committed).isEmpty();
+
+        // when
+        Thread.sleep(150L);
+        pool.publish(asList("3"));
+
+        // then
+        assertThat(committed).containsExactlyInAnyOrder("1", "2", "3");
+        pool.close();
+    }
+
+    @Test
+    public void shouldNotCommitSessionsWhichAreNotTransacted() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(1);
+        batch.setCommitIntervalMillis(0L);
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.AUTO, batch);
+
+        // when
+        pool.publish(asList("1", "2"));
+        pool.commitDueSessions();
+        pool.close();
+
+        // then
+        verify(connection).createSession(false, Session.AUTO_ACKNOWLEDGE);
+        verify(sessions.get(0), never()).commit();
+        assertThat(sent).containsExactly("1", "2");
+    }
+
+    @Test
+    public void shouldSendAsynchronouslyAndWaitForCompletions() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(1);
+        batch.setAsyncSendEnabled(true);
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.AUTO, batch);
+        final List<MessageProducer> producers = new ArrayList<>();
+        final ExecutorService provider = Executors.newSingleThreadExecutor();
+        final CountDownLatch allSent = new CountDownLatch(3);
+        setUpProducers(new ProducerFactory() {
+            @Override
+            public MessageProducer newProducer() throws JMSException {
+                MessageProducer producer = mock(MessageProducer.class);
+                producers.add(producer);
+                doAnswer(new Answer<Void>() {
+                    @Override
+                    public Void answer(final InvocationOnMock invocation) throws Throwable {
+                        final Message message = invocation.getArgument(0);
+                        final CompletionListener listener = invocation.getArgument(1);
+                        allSent.countDown();
+                        provider.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    // acknowledged once all the messages of the batch have been sent
+                                    allSent.await();
+                                    sent.add(((TextMessage) message).getText());
+                                    listener.onCompletion(message);
+                                } catch (Exception e) {
+                                    listener.onException(message, e);
+                                }
+                            }
+                        });
+                        return null;
+                    }
+                }).when(producer).send(any(Message.class), any(CompletionListener.class));
+                return producer;
+            }
+        });
+
+        try {
+            // when
+            pool.publish(asList("1", "2", "3"));
+
+            // then
+            assertThat(sent).containsExactly("1", "2", "3");
+            verify(producers.get(0), times(3)).send(any(Message.class), any(CompletionListener.class));
+            verify(producers.get(0), never()).send(any(Message.class));
+        } finally {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFallBackToSynchronousSendWhenAsynchronousSendIsUnsupported() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(1);
+        batch.setAsyncSendEnabled(true);
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.AUTO, batch);
+        final List<MessageProducer> producers = new ArrayList<>();
+        setUpProducers(new ProducerFactory() {
+            @Override
+            public MessageProducer newProducer() throws JMSException {
+                MessageProducer producer = newRecordingProducer();
+                doThrow(new UnsupportedOperationException())
+                        .when(producer).send(any(Message.class), any(CompletionListener.class));
+                producers.add(producer);
+                return producer;
+            }
+        });
+
+        // when
+        pool.publish(asList("1", "2"));
+        pool.publish(asList("3"));
+
+        // then
+        assertThat(sent).containsExactly("1", "2", "3");
+        verify(producers.get(0), times(1)).send(any(Message.class), any(CompletionListener.class));
+    }
+
+    @Test
+    public void shouldSendUncommittedMessagesAgainThroughNewConnectionWhenSessionFails() throws Exception {
+        // given
+        BatchPublisherConfiguration batch = newBatchConfiguration(1);
+        batch.setCommitIntervalMillis(TimeUnit.HOURS.toMillis(1));
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.TRANSACTED, batch);
+        final AtomicInteger producerCount = new AtomicInteger();
+        setUpProducers(new ProducerFactory() {
+            @Override
+            public MessageProducer newProducer() throws JMSException {
+                MessageProducer producer = newRecordingProducer();
+                if (producerCount.incrementAndGet() == 1) {
+                    // the first session fails when sending its third message
+                    doAnswer(new Answer<Void>() {
+                        private int count;
+
+                        @Override
+                        public Void answer(InvocationOnMock invocation) throws Throwable {
+                            if (++count == 3) {
+                                throw new JMSException("connection lost");
+                            }
+                            sent.add(((TextMessage) invocation.getArgument(0)).getText());
+                            return null;
+                        }
+                    }).when(producer).send(any(Message.class));
+                }
+                return producer;
+            }
+        });
+        pool.publish(asList("1", "2"));
+
+        // when
+        pool.publish(asList("3", "4"));
+        pool.close();
+
+        // then
+        verify(connection).close();
+        verify(connectionFactory, times(2)).createConnection();
+        assertThat(sessions).hasSize(2);
+        verify(sessions.get(0), never()).commit();
+        assertThat(committed).containsExactly("1", "2", "3", "4");
+    }
+
+    @Test(expectedExceptions = InternalServerErrorException.class)
+    public void shouldFailWhenRetryFails() throws Exception {
+        // given
+        JmsSessionPool pool = newSessionPool(SessionModeConfig.AUTO, newBatchConfiguration(1));
+        when(connection.createSession(anyBoolean(), anyInt())).thenThrow(new JMSException("broker down"));
+
+        // when
+        pool.publish(asList("1"));
+    }
+
+    @Test
+    public void shouldSendBatchesInParallelThroughAtMostThreadCountSessions() throws Exception {
+        // given
+        final int threadCount = 4;
+        final JmsSessionPool pool = newSessionPool(SessionModeConfig.AUTO, newBatchConfiguration(threadCount));
+        final AtomicInteger sending = new AtomicInteger();
+        final AtomicInteger maxSending = new AtomicInteger();
+        setUpProducers(new ProducerFactory() {
+            @Override
+            public MessageProducer newProducer() throws JMSException {
+                MessageProducer producer = mock(MessageProducer.class);
+                doAnswer(new Answer<Void>() {
+                    @Override
+                    public Void answer(InvocationOnMock invocation) throws Throwable {
+                        int concurrent = sending.incrementAndGet();
+                        maxSending.accumulateAndGet(concurrent, Math::max);
+                        Thread.sleep(5L);
+                        sent.add(((TextMessage) invocation.getArgument(0)).getText());
+                        sending.decrementAndGet();
+                        return null;
+                    }
+                }).when(producer).send(any(Message.class));
+                return producer;
+            }
+        });
+
+        // when
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount * 2);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount * 2; i++) {
+            final String text = Integer.toString(i);
+            futures.add(executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int j = 0; j < 10; j++) {
+                        pool.publish(asList(text + "-" + j));
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+        pool.close();
+
+        // then
+        assertThat(sent).hasSize(threadCount * 2 * 10);
+        assertThat(sessions).hasSize(threadCount);
+        assertThat(maxSending.get()).isGreaterThan(1).isLessThanOrEqualTo(threadCount);
+        for (Session session : sessions) {
+            verify(session).close();
+        }
+    }
+
+    private JmsSessionPool newSessionPool(SessionModeConfig sessionMode, BatchPublisherConfiguration batch)
+            throws Exception {
+        JmsAuditEventHandlerConfiguration configuration = new JmsAuditEventHandlerConfiguration();
+        configuration.setSessionMode(sessionMode);
+        configuration.setDeliveryMode(DeliveryModeConfig.NON_PERSISTENT);
+        configuration.setBatch(batch);
+        JmsContextManager contextManager = mock(JmsContextManager.class);
+        when(contextManager.getConnectionFactory()).thenReturn(connectionFactory);
+        when(contextManager.getTopic()).thenReturn(topic);
+        JmsResourceManager resourceManager = new JmsResourceManager(configuration, contextManager);
+        resourceManager.openConnection();
+        return new JmsSessionPool(resourceManager, batch);
+    }
+
+    private static BatchPublisherConfiguration newBatchConfiguration(int threadCount) {
+        BatchPublisherConfiguration batch = new BatchPublisherConfiguration();
+        batch.setBatchEnabled(true);
+        batch.setThreadCount(threadCount);
+        return batch;
+    }
+
+    private void setUpProducers(ProducerFactory producerFactory) {
+        this.producerFactory = producerFactory;
+    }
+
+    /**
+     * Creates a session which records the texts sent by its producer, and those it commits.
+     */
+    private Session newSession(boolean transacted) throws JMSException {
+        final Session session = mock(Session.class);
+        final List<String> uncommitted = new ArrayList<>();
+        when(session.getTransacted()).thenReturn(transacted);
+        when(session.createTextMessage(anyString())).thenAnswer(new Answer<TextMessage>() {
+            @Override
+            public TextMessage answer(InvocationOnMock invocation) throws Throwable {
+                TextMessage message = mock(TextMessage.class);
+                String text = invocation.getArgument(0);
+                when(message.getText()).thenReturn(text);
+                uncommitted.add(text);
+                return message;
+            }
+        });
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                // only the messages actually sent are committed
+                for (String text : uncommitted) {
+                    if (sent.contains(text)) {
+                        committed.add(text);
+                    }
+                }
+                uncommitted.clear();
+                return null;
+            }
+        }).when(session).commit();
+        final MessageProducer producer = producerFactory.newProducer();
+        when(session.createProducer(eq(topic))).thenReturn(producer);
+        sessions.add(session);
+        return session;
+    }
+
+    private MessageProducer newRecordingProducer() throws JMSException {
+        MessageProducer producer = mock(MessageProducer.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                sent.add(((TextMessage) invocation.getArgument(0)).getText());
+                return null;
+            }
+        }).when(producer).send(any(Message.class));
+        return producer;
+    }
+
+    private interface ProducerFactory {
+        MessageProducer newProducer() throws JMSException;
+    }
+}
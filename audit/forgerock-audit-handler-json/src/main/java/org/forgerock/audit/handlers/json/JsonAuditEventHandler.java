@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
@@ -26,7 +27,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -42,6 +42,7 @@ import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ActionRequest;
 import org.forgerock.json.resource.ActionResponse;
 import org.forgerock.json.resource.CountPolicy;
+import org.forgerock.json.resource.Projection;
 import org.forgerock.json.resource.QueryRequest;
 import org.forgerock.json.resource.QueryResourceHandler;
 import org.forgerock.json.resource.QueryResponse;
@@ -55,6 +56,8 @@ import org.forgerock.util.query.QueryFilter;
  * {@link AuditEventHandler} for persisting raw JSON events to a file.
  * <p>
  * The file format is a UTF-8 text-file, with one JSON event per line, and each line terminated by a newline character.
+ * Events are read and queried from the rotated files of a topic, which may have been compressed, as well as from its
+ * current file.
  */
 public class JsonAuditEventHandler extends AuditEventHandlerBase {
 
@@ -134,7 +137,7 @@ public class JsonAuditEventHandler extends AuditEventHandlerBase {
         final Matcher idMatcher = Pattern.compile(fieldPatternPrefix + resourceId + FIELD_PATTERN_SUFFIX).matcher("");
         String line;
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
-                Files.newInputStream(jsonFilePath), StandardCharsets.UTF_8))) {
+                jsonFileWriter.openTopicFiles(topic), StandardCharsets.UTF_8))) {
             line = reader.readLine();
             while (line != null) {
                 if (idMatcher.reset(line).find()) {
@@ -158,17 +161,18 @@ public class JsonAuditEventHandler extends AuditEventHandlerBase {
             return newResourceException(NOT_FOUND, "Topic not found: " + topic).asPromise();
         }
         final QueryFilter<JsonPointer> queryFilter = query.getQueryFilter();
+        final Projection projection = Projection.of(query);
         int results = 0;
         String line;
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
-                Files.newInputStream(jsonFilePath), StandardCharsets.UTF_8))) {
+                jsonFileWriter.openTopicFiles(topic), StandardCharsets.UTF_8))) {
             line = reader.readLine();
             while (line != null) {
                 final JsonValue event = denormalizeJsonEvent(new JsonValue(OBJECT_MAPPER.readValue(line, Map.class)));
                 if (queryFilter.accept(JSONVALUE_FILTER_VISITOR, event)) {
                     ++results;
-                    final ResourceResponse resourceResponse =
-                            newResourceResponse(event.get(FIELD_CONTENT_ID).asString(), null, event);
+                    final ResourceResponse resourceResponse = projection.apply(
+                            newResourceResponse(event.get(FIELD_CONTENT_ID).asString(), null, event));
                     if (!handler.handleResource(resourceResponse)) {
                         break;
                     }
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions copyright 2021 Wren Security.
+ * Portions copyright 2021-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
@@ -31,6 +31,8 @@ import static org.forgerock.util.Utils.closeSilently;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
@@ -50,7 +52,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-import org.forgerock.audit.retention.FileNamingPolicy;
+import org.forgerock.audit.retention.ArchiveCompressor;
+import org.forgerock.audit.retention.ArchiveIndex;
 import org.forgerock.audit.retention.RetentionPolicy;
 import org.forgerock.audit.rotation.RotatableObject;
 import org.forgerock.audit.rotation.RotationHooks;
@@ -199,6 +202,22 @@ class JsonFileWriter {
         return topicEntry == null ? null : topicEntry.filePath;
     }
 
+    /**
+     * Opens the archived log-files of the given topic, from oldest to newest, followed by its current log-file, as a
+     * single stream of newline delimited JSON, transparently decompressing the archives.
+     *
+     * @param topic Topic name (case-sensitive)
+     * @return {@link InputStream} or {@code null} if topic is unrecognised
+     * @throws IOException failed to open the current log-file
+     */
+    InputStream openTopicFiles(final String topic) throws IOException {
+        final QueueConsumer.TopicEntry topicEntry = queueConsumer.topicEntryMap.get(topic);
+        if (topicEntry == null) {
+            return null;
+        }
+        return new SequenceInputStream(Collections.enumeration(topicEntry.archiveIndex.openArchivesAndInitialFile()));
+    }
+
     /**
      * A single audit-event entry.
      */
@@ -392,7 +411,8 @@ class JsonFileWriter {
             private static final int FILE_BUFFER_THRESHOLD = 8 * 1024;
 
             private final Path filePath;
-            private final FileNamingPolicy fileNamingPolicy;
+            private final ArchiveIndex archiveIndex;
+            private final ArchiveCompressor archiveCompressor;
             private final ByteBufferOutputStream outputStream;
             private DateTime lastRotationTime;
             private FileChannel fileChannel;
@@ -411,7 +431,11 @@ class JsonFileWriter {
                     openFileChannel();
 
                     final File currentFile = filePath.toFile();
-                    fileNamingPolicy = configuration.getFileRotation().buildTimeStampFileNamingPolicy(currentFile);
+                    archiveIndex = new ArchiveIndex(
+                            configuration.getFileRotation().buildTimeStampFileNamingPolicy(currentFile));
+                    archiveCompressor = new ArchiveCompressor(archiveIndex,
+                            configuration.getFileRotation().getRotationFileCompression());
+                    archiveCompressor.compressArchives();
 
                     final long lastModified = currentFile.lastModified();
                     this.lastRotationTime = lastModified > 0
@@ -483,10 +507,11 @@ class JsonFileWriter {
                 if (!retentionPolicies.isEmpty()) {
                     filesToDelete.clear();
                     for (final RetentionPolicy retentionPolicy : retentionPolicies) {
-                        filesToDelete.addAll(retentionPolicy.deleteFiles(fileNamingPolicy));
+                        filesToDelete.addAll(retentionPolicy.deleteFiles(archiveIndex));
                     }
                     if (!filesToDelete.isEmpty()) {
                         for (final File file : filesToDelete) {
+                            archiveIndex.remove(file);
                             if (!file.delete() && logger.isWarnEnabled()) {
                                 logger.warn("Could not delete file {}", file.getAbsolutePath());
                             }
@@ -503,11 +528,12 @@ class JsonFileWriter {
             void rotateNow() throws IOException {
                 // close and rename current file
                 fileChannel.close();
-                final Path archivedFilePath = fileNamingPolicy.getNextName().toPath();
-                Files.move(filePath, archivedFilePath);
+                final File archivedFile = archiveIndex.getNextName();
+                archiveIndex.archive(archivedFile);
                 // create new file
                 openFileChannel();
                 lastRotationTime = DateTime.now(DateTimeZone.UTC);
+                archiveCompressor.compress(archivedFile);
             }
 
             private void openFileChannel() throws IOException {
@@ -517,6 +543,7 @@ class JsonFileWriter {
 
             @Override
             public void close() throws IOException {
+                archiveCompressor.close();
                 fileChannel.close();
             }
 
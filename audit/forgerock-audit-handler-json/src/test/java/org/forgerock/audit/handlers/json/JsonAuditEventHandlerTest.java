@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions copyright 2021-2023 Wren Security.
+ * Portions copyright 2021-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
@@ -42,10 +42,12 @@ import java.util.concurrent.TimeUnit;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.forgerock.audit.events.EventTopicsMetaData;
 import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.retention.ArchiveCompression;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ActionRequest;
 import org.forgerock.json.resource.IdentifierQueryResourceHandler;
 import org.forgerock.json.resource.QueryFilters;
+import org.forgerock.json.resource.QueryResourceHandler;
 import org.forgerock.json.resource.QueryRequest;
 import org.forgerock.json.resource.QueryResponse;
 import org.forgerock.json.resource.Requests;
@@ -108,6 +110,54 @@ public class JsonAuditEventHandlerTest {
         writeAndQueryEvents(LARGE_EVENT_COUNT, true);
     }
 
+    @Test
+    public void testReadAndQueryEventsFromCompressedRotatedFile() throws Exception {
+        final Path logDirectoryPath = Files.createTempDirectory(JsonAuditEventHandlerTest.class.getSimpleName());
+        AuditEventHandler handler = null;
+        try {
+            final JsonAuditEventHandlerConfiguration configuration = buildConfiguration(SMALL_EVENT_COUNT,
+                    logDirectoryPath);
+            configuration.getFileRotation().setRotationEnabled(true);
+            configuration.getFileRotation().setRotationFileCompression(ArchiveCompression.GZIP);
+            handler = new JsonAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"));
+            handler.startup();
+
+            // pre-populate with data, then rotate it to a file compressed in the background
+            final String[] identifiers = generateAndPublishEvents(SMALL_EVENT_COUNT, handler);
+            final ActionRequest actionRequest = Requests.newActionRequest(ACCESS, ROTATE_FILE_ACTION_NAME)
+                    .setAdditionalParameter(ACTION_PARAM_TARGET_HANDLER, "json");
+            handler.handleAction(null, ACCESS, actionRequest).getOrThrow();
+            for (int i = 0; i < 100 && countCompressedFiles(logDirectoryPath) == 0; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(countCompressedFiles(logDirectoryPath)).isEqualTo(1);
+
+            for (final String resourceId : new String[] { identifiers[0], identifiers[identifiers.length - 1] }) {
+                final Promise<ResourceResponse, ResourceException> response = handler.readEvent(null, ACCESS,
+                        resourceId);
+                assertThat(resourceId).isEqualTo(response.getOrThrow().getId());
+            }
+            final QueryRequest queryRequest = Requests.newQueryRequest(ACCESS)
+                    .setQueryFilter(QueryFilters.parse("true"));
+            final QueryResponse queryResponse = handler.queryEvents(null, ACCESS, queryRequest,
+                    new QueryResourceHandler() {
+                        @Override
+                        public boolean handleResource(final ResourceResponse resource) {
+                            return true;
+                        }
+                    }).getOrThrow();
+            assertThat(queryResponse.getTotalPagedResults()).isEqualTo(SMALL_EVENT_COUNT);
+        } finally {
+            try {
+                if (handler != null) {
+                    handler.shutdown();
+                }
+            } finally {
+                deleteRecursively(logDirectoryPath);
+            }
+        }
+    }
+
     /**
      * Test that shutdown on non-started handler does not halt the thread.
      */
@@ -193,6 +243,16 @@ public class JsonAuditEventHandlerTest {
         }
     }
 
+    private int countCompressedFiles(final Path logDirectoryPath) throws Exception {
+        int count = 0;
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(logDirectoryPath, "*.gz")) {
+            for (Path path : directoryStream) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
     private String[] generateAndPublishEvents(final int eventCount, final AuditEventHandler handler) throws Exception {
         final String[] identifiers = new String[eventCount];
         for (int i = 0; i < identifiers.length; ++i) {
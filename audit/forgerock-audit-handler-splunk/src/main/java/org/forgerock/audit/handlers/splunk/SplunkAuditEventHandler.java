@@ -12,18 +12,35 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.splunk;
 
 import static org.wrensecurity.guava.common.base.Strings.isNullOrEmpty;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_LOADER;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
 import static org.forgerock.util.CloseSilentlyFunction.closeSilently;
 import static org.forgerock.util.promise.Promises.newExceptionPromise;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import org.forgerock.audit.Audit;
 import org.forgerock.audit.events.EventTopicsMetaData;
@@ -33,12 +50,15 @@ import org.forgerock.audit.events.handlers.buffering.BatchException;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisher;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisherFactory;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisherFactoryImpl;
+import org.forgerock.audit.events.handlers.buffering.BufferedBatchPublisher;
+import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.AcknowledgementConfiguration;
 import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.BufferingConfiguration;
 import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.ConnectionConfiguration;
 import org.forgerock.http.Client;
 import org.forgerock.http.HttpApplicationException;
 import org.forgerock.http.apache.async.AsyncHttpClientProvider;
 import org.forgerock.http.handler.HttpClientHandler;
+import org.forgerock.http.header.ContentEncodingHeader;
 import org.forgerock.http.header.ContentTypeHeader;
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
@@ -55,17 +75,37 @@ import org.forgerock.json.resource.ServiceUnavailableException;
 import org.forgerock.services.context.Context;
 import org.forgerock.util.Function;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.ExceptionHandler;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ResultHandler;
 import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Audit event handler that writes out to Splunk's HTTP event collector RAW endpoint.
+ * <p>
+ * Batches can be compressed with gzip, and are spread over the configured number of
+ * {@code X-Splunk-Request-Channel} channels. When indexer acknowledgement is enabled, the promise of a batch only
+ * completes once Splunk has acknowledged that its events are indexed, so that, with a maximum number of in-flight
+ * batches, events stay in the buffer while too many batches wait for their acknowledgement. Batches which are not
+ * acknowledged in time are sent again. The acknowledgements are polled by a dedicated thread, and
+ * {@link #getStatistics() statistics} are kept about the batches published.
  */
 public final class SplunkAuditEventHandler extends AuditEventHandlerBase implements BatchConsumer {
 
+    private static final Logger logger = LoggerFactory.getLogger(SplunkAuditEventHandler.class);
+
+    private static final String RAW_ENDPOINT = "/services/collector/raw";
+    private static final String ACK_ENDPOINT = "/services/collector/ack";
+    private static final String CHANNEL_HEADER = "X-Splunk-Request-Channel";
+    private static final String ACK_ID = "ackId";
+    private static final String ACKS = "acks";
+
     /*
      * Value is used to initialize the size of buffers, but if the value
      * is too low, the buffers will automatically resize as needed.
@@ -87,9 +127,19 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
     private final SplunkAuditEventHandlerConfiguration configuration;
     private final Client client;
     private final HttpClientHandler defaultHttpClientHandler;
-    private final String channelId;
+    private final String[] channelIds;
+    private final AtomicInteger nextChannel = new AtomicInteger();
     private final BatchPublisher batchPublisher;
     private final String serviceUrl;
+    private final String acknowledgementUrl;
+    private final SplunkStatistics statistics = new SplunkStatistics();
+    /** The batches waiting to be acknowledged, by channel and acknowledgement id. */
+    private final ConcurrentMap<String, ConcurrentMap<Long, PendingBatch>> pendingBatches =
+            new ConcurrentHashMap<>();
+    private final ScheduledExecutorService acknowledgementPoller;
+    private final long acknowledgementPollInterval;
+    private final long acknowledgementTimeout;
+    private final int acknowledgementMaxRetries;
 
     /**
      * Constructs a new Splunk audit event handler.
@@ -116,14 +166,32 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
             this.defaultHttpClientHandler = null;
             this.client = client;
         }
-        channelId = UUID.randomUUID().toString();
-
         final ConnectionConfiguration connection = configuration.getConnection();
-        serviceUrl = connection.isUseSSL() ? "https://" : "http://"
-                + configuration.getConnection().getHost()
+        channelIds = new String[connection.getChannels()];
+        for (int i = 0; i < channelIds.length; i++) {
+            channelIds[i] = UUID.randomUUID().toString();
+        }
+
+        final String baseUrl = (connection.isUseSSL() ? "https://" : "http://")
+                + connection.getHost()
                 + ':'
-                + configuration.getConnection().getPort()
-                + "/services/collector/raw";
+                + connection.getPort();
+        serviceUrl = baseUrl + RAW_ENDPOINT;
+        acknowledgementUrl = baseUrl + ACK_ENDPOINT;
+
+        final AcknowledgementConfiguration acknowledgement = configuration.getAcknowledgement();
+        if (acknowledgement.isEnabled()) {
+            acknowledgementPoller = Executors.newSingleThreadScheduledExecutor();
+            acknowledgementPollInterval =
+                    Duration.duration(acknowledgement.getPollInterval()).to(TimeUnit.MILLISECONDS);
+            acknowledgementTimeout = Duration.duration(acknowledgement.getTimeout()).to(TimeUnit.NANOSECONDS);
+            acknowledgementMaxRetries = acknowledgement.getMaxRetries();
+        } else {
+            acknowledgementPoller = null;
+            acknowledgementPollInterval = 0;
+            acknowledgementTimeout = 0;
+            acknowledgementMaxRetries = 0;
+        }
 
         final BufferingConfiguration bufferingConfiguration = configuration.getBuffering();
         final Duration writeInterval = isNullOrEmpty(bufferingConfiguration.getWriteInterval()) ? null
@@ -132,23 +200,39 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
         if (publisherFactory == null) {
             publisherFactory = new BatchPublisherFactoryImpl();
         }
-        batchPublisher = publisherFactory.newBufferedPublisher(this)
+        final BufferedBatchPublisher.Builder builder = publisherFactory.newBufferedPublisher(this)
                 .capacity(bufferingConfiguration.getMaxSize())
                 .writeInterval(writeInterval)
                 .maxBatchEvents(bufferingConfiguration.getMaxBatchedEvents())
                 .averagePerEventPayloadSize(BATCH_INDEX_AVERAGE_PER_EVENT_PAYLOAD_SIZE)
                 .autoFlush(ALWAYS_FLUSH_BATCH_QUEUE)
-                .build();
+                .maxInFlightBatches(bufferingConfiguration.getMaxInFlightBatches());
+        if (bufferingConfiguration.getSpool().isEnabled()) {
+            builder.spool(bufferingConfiguration.getSpool().newSpoolBuilder());
+        }
+        batchPublisher = builder.build();
     }
 
     @Override
     public void startup() throws ResourceException {
         batchPublisher.startup();
+        if (acknowledgementPoller != null) {
+            acknowledgementPoller.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    pollAcknowledgements();
+                }
+            }, acknowledgementPollInterval, acknowledgementPollInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void shutdown() throws ResourceException {
         batchPublisher.shutdown();
+        if (acknowledgementPoller != null) {
+            acknowledgementPoller.shutdownNow();
+            failPendingBatches();
+        }
         if (defaultHttpClientHandler != null) {
             try {
                 defaultHttpClientHandler.close();
@@ -203,33 +287,241 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
 
     @Override
     public Promise<Void, BatchException> publishBatch(final String payload) {
-        final Request request = new Request();
-        request.setMethod("POST");
+        final Batch batch;
+        try {
+            batch = new Batch(payload);
+        } catch (IOException e) {
+            return newExceptionPromise(new BatchException("Unable to compress batch", e));
+        }
+        final String channel = channelIds[(nextChannel.getAndIncrement() & Integer.MAX_VALUE) % channelIds.length];
+        if (acknowledgementPoller == null) {
+            return send(batch, channel).then(new Function<Long, Void, BatchException>() {
+                @Override
+                public Void apply(final Long ackId) {
+                    return null;
+                }
+            });
+        }
+        final PromiseImpl<Void, BatchException> acknowledged = PromiseImpl.create();
+        statistics.acknowledgementPending();
+        sendForAcknowledgement(batch, channel, 0, acknowledged);
+        return acknowledged;
+    }
+
+    /**
+     * Returns the statistics of the batches published by this handler.
+     *
+     * @return the statistics of the batches published
+     */
+    public SplunkStatistics getStatistics() {
+        return statistics;
+    }
 
+    /**
+     * Sends a batch to the HTTP event collector.
+     *
+     * @return a promise with the acknowledgement id of the batch, or {@code null} if indexer acknowledgement is
+     *         disabled, or with an exception if the batch is rejected
+     */
+    private Promise<Long, BatchException> send(final Batch batch, final String channel) {
+        final Request request;
         try {
-            request.setUri(serviceUrl);
+            request = newRequest(serviceUrl, channel);
         } catch (URISyntaxException e) {
             return newExceptionPromise(new BatchException("Incorrect URI " + serviceUrl, e));
         }
-
-        request.getHeaders().put(ContentTypeHeader.NAME, "application/json; charset=UTF-8");
-        request.getHeaders().put("Authorization", "Splunk " + configuration.getAuthzToken());
-        request.getHeaders().put("X-Splunk-Request-Channel", channelId);
-        request.setEntity(payload);
+        if (configuration.getConnection().isUseGzip()) {
+            request.getHeaders().put(ContentEncodingHeader.NAME, "gzip");
+        }
+        request.setEntity(batch.body);
 
         return client.send(request).then(
-                closeSilently(new Function<Response, Void, BatchException>() {
+                closeSilently(new Function<Response, Long, BatchException>() {
 
                     @Override
-                    public Void apply(final Response response) throws BatchException {
+                    public Long apply(final Response response) throws BatchException {
                         if (!response.getStatus().isSuccessful()) {
+                            statistics.batchFailed();
                             throw new BatchException("Publishing to Splunk failed: " + response.getEntity());
                         }
+                        statistics.batchSent(batch.events, batch.body.length, batch.uncompressedBytes);
+                        if (acknowledgementPoller == null) {
+                            return null;
+                        }
+                        try {
+                            return json(response.getEntity().getJson()).get(ACK_ID).asLong();
+                        } catch (IOException e) {
+                            throw new BatchException("Unable to read the response of Splunk", e);
+                        }
+                    }
+
+                }), Responses.<Long, BatchException>noopExceptionFunction());
+    }
+
+    /**
+     * Sends a batch and keeps it until it is acknowledged, or until it fails.
+     */
+    private void sendForAcknowledgement(final Batch batch, final String channel, final int retries,
+            final PromiseImpl<Void, BatchException> acknowledged) {
+        send(batch, channel).thenOnResult(new ResultHandler<Long>() {
+            @Override
+            public void handleResult(final Long ackId) {
+                if (ackId == null) {
+                    // indexer acknowledgement is not enabled for the token
+                    statistics.acknowledgementCompleted();
+                    acknowledged.handleResult(null);
+                } else {
+                    ConcurrentMap<Long, PendingBatch> channelBatches = pendingBatches.get(channel);
+                    if (channelBatches == null) {
+                        pendingBatches.putIfAbsent(channel, new ConcurrentHashMap<Long, PendingBatch>());
+                        channelBatches = pendingBatches.get(channel);
+                    }
+                    channelBatches.put(ackId, new PendingBatch(batch, retries, acknowledged));
+                }
+            }
+        }).thenOnException(new ExceptionHandler<BatchException>() {
+            @Override
+            public void handleException(final BatchException e) {
+                statistics.acknowledgementCompleted();
+                acknowledged.handleException(e);
+            }
+        });
+    }
 
-                        return null;
+    /**
+     * Polls the acknowledgements of the pending batches of each channel, then sends again the batches which have not
+     * been acknowledged in time.
+     */
+    private void pollAcknowledgements() {
+        for (final Map.Entry<String, ConcurrentMap<Long, PendingBatch>> channelBatches : pendingBatches.entrySet()) {
+            final String channel = channelBatches.getKey();
+            final ConcurrentMap<Long, PendingBatch> batches = channelBatches.getValue();
+            if (batches.isEmpty()) {
+                continue;
+            }
+            try {
+                final JsonValue acks = queryAcknowledgements(channel, new ArrayList<>(batches.keySet()));
+                final long now = System.nanoTime();
+                for (final String ackId : acks.keys()) {
+                    if (acks.get(ackId).asBoolean()) {
+                        final PendingBatch pendingBatch = batches.remove(Long.valueOf(ackId));
+                        if (pendingBatch != null) {
+                            statistics.batchAcknowledged(pendingBatch.batch.events, now - pendingBatch.sentAt);
+                            statistics.acknowledgementCompleted();
+                            pendingBatch.acknowledged.handleResult(null);
+                        }
                     }
+                }
+            } catch (Exception e) {
+                logger.warn("Unable to poll the Splunk indexer acknowledgements of channel " + channel, e);
+            }
+            final long now = System.nanoTime();
+            for (final Iterator<PendingBatch> iterator = batches.values().iterator(); iterator.hasNext();) {
+                final PendingBatch pendingBatch = iterator.next();
+                if (now - pendingBatch.sentAt < acknowledgementTimeout) {
+                    continue;
+                }
+                iterator.remove();
+                if (pendingBatch.retries < acknowledgementMaxRetries) {
+                    statistics.batchResent();
+                    sendForAcknowledgement(pendingBatch.batch, channel, pendingBatch.retries + 1,
+                            pendingBatch.acknowledged);
+                } else {
+                    statistics.batchFailed();
+                    statistics.acknowledgementCompleted();
+                    pendingBatch.acknowledged.handleException(new BatchException("Batch of "
+                            + pendingBatch.batch.events + " events not acknowledged by Splunk after "
+                            + (pendingBatch.retries + 1) + " attempts"));
+                }
+            }
+        }
+    }
+
+    private JsonValue queryAcknowledgements(final String channel, final Object ackIds)
+            throws URISyntaxException, IOException, InterruptedException, TimeoutException {
+        final Request request = newRequest(acknowledgementUrl, channel);
+        request.setEntity(json(object(field(ACKS, ackIds))).getObject());
+        try (Response response = client.send(request)
+                .getOrThrow(acknowledgementTimeout, TimeUnit.NANOSECONDS)) {
+            if (!response.getStatus().isSuccessful()) {
+                throw new IOException("Polling Splunk acknowledgements failed: " + response.getEntity());
+            }
+            return json(response.getEntity().getJson()).get(ACKS);
+        }
+    }
+
+    /**
+     * Fails the batches still waiting for their acknowledgement once the handler is shut down.
+     */
+    private void failPendingBatches() {
+        for (final ConcurrentMap<Long, PendingBatch> batches : pendingBatches.values()) {
+            for (final Iterator<PendingBatch> iterator = batches.values().iterator(); iterator.hasNext();) {
+                final PendingBatch pendingBatch = iterator.next();
+                iterator.remove();
+                statistics.acknowledgementCompleted();
+                pendingBatch.acknowledged.handleException(new BatchException("Batch of "
+                        + pendingBatch.batch.events + " events not acknowledged by Splunk before shutdown"));
+            }
+        }
+    }
 
-                }), Responses.<Void, BatchException>noopExceptionFunction());
+    private Request newRequest(final String url, final String channel) throws URISyntaxException {
+        final Request request = new Request();
+        request.setMethod("POST");
+        request.setUri(url);
+        request.getHeaders().put(ContentTypeHeader.NAME, "application/json; charset=UTF-8");
+        request.getHeaders().put("Authorization", "Splunk " + configuration.getAuthzToken());
+        request.getHeaders().put(CHANNEL_HEADER, channel);
+        return request;
+    }
+
+    /**
+     * The body of a batch, compressed when gzip is enabled.
+     */
+    private final class Batch {
+
+        private final byte[] body;
+        private final int events;
+        private final int uncompressedBytes;
+
+        private Batch(final String payload) throws IOException {
+            final byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+            uncompressedBytes = bytes.length;
+            if (configuration.getConnection().isUseGzip()) {
+                final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(bytes);
+                }
+                body = compressed.toByteArray();
+            } else {
+                body = bytes;
+            }
+            int count = 0;
+            for (int i = 0; i < payload.length(); i++) {
+                if (payload.charAt(i) == '\n') {
+                    count++;
+                }
+            }
+            events = count;
+        }
+    }
+
+    /**
+     * A batch sent and waiting for its acknowledgement.
+     */
+    private static final class PendingBatch {
+
+        private final Batch batch;
+        private final int retries;
+        private final PromiseImpl<Void, BatchException> acknowledged;
+        private final long sentAt = System.nanoTime();
+
+        private PendingBatch(final Batch batch, final int retries,
+                final PromiseImpl<Void, BatchException> acknowledged) {
+            this.batch = batch;
+            this.retries = retries;
+            this.acknowledged = acknowledged;
+        }
     }
 
     private HttpClientHandler defaultHttpClientHandler() {
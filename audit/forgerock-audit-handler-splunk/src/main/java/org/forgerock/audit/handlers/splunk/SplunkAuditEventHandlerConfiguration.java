@@ -12,10 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.splunk;
 
 import org.forgerock.audit.events.handlers.EventHandlerConfiguration;
+import org.forgerock.audit.spool.SpoolConfiguration;
 
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 
@@ -33,6 +35,9 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
     @JsonPropertyDescription("audit.handlers.splunk.authzToken")
     private String authzToken;
 
+    @JsonPropertyDescription("audit.handlers.splunk.acknowledgement")
+    private AcknowledgementConfiguration acknowledgement = new AcknowledgementConfiguration();
+
     /**
      * Gets the configuration for buffering.
      *
@@ -90,6 +95,25 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         this.authzToken = authzToken;
     }
 
+    /**
+     * Gets the configuration of indexer acknowledgement.
+     *
+     * @return the indexer acknowledgement configuration
+     */
+    public AcknowledgementConfiguration getAcknowledgement() {
+        return acknowledgement;
+    }
+
+    /**
+     * Sets the configuration of indexer acknowledgement.
+     *
+     * @param acknowledgement
+     *         the indexer acknowledgement configuration
+     */
+    public void setAcknowledgement(final AcknowledgementConfiguration acknowledgement) {
+        this.acknowledgement = acknowledgement;
+    }
+
     @Override
     public boolean isUsableForQueries() {
         return false;
@@ -115,6 +139,12 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         @JsonPropertyDescription("audit.handlers.splunk.connection.port")
         private int port;
 
+        @JsonPropertyDescription("audit.handlers.splunk.connection.useGzip")
+        private boolean useGzip;
+
+        @JsonPropertyDescription("audit.handlers.splunk.connection.channels")
+        private int channels;
+
         /**
          * Indicates if the connection uses SSL.
          *
@@ -172,6 +202,45 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
             this.port = port;
         }
 
+        /**
+         * Indicates if the batches are compressed with gzip.
+         *
+         * @return {@code true} when the batches are compressed with gzip.
+         */
+        public boolean isUseGzip() {
+            return useGzip;
+        }
+
+        /**
+         * Sets the compression of the batches with gzip.
+         *
+         * @param useGzip
+         *         {@code true} when the batches are compressed with gzip.
+         */
+        public void setUseGzip(final boolean useGzip) {
+            this.useGzip = useGzip;
+        }
+
+        /**
+         * Gets the number of {@code X-Splunk-Request-Channel} channels the batches are spread over (default
+         * {@code 1}).
+         *
+         * @return The number of channels.
+         */
+        public int getChannels() {
+            return channels > 0 ? channels : 1;
+        }
+
+        /**
+         * Sets the number of {@code X-Splunk-Request-Channel} channels the batches are spread over.
+         *
+         * @param channels
+         *         The number of channels.
+         */
+        public void setChannels(final int channels) {
+            this.channels = channels;
+        }
+
     }
 
     /**
@@ -188,6 +257,12 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         @JsonPropertyDescription("audit.handlers.splunk.buffering.maxBatchedEvents")
         private int maxBatchedEvents;
 
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.maxInFlightBatches")
+        private int maxInFlightBatches;
+
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.spool")
+        private SpoolConfiguration spool = new SpoolConfiguration();
+
         /**
          * Gets the buffer capacity, which are the maximum number of events that can be buffered.
          *
@@ -244,6 +319,148 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         public void setMaxBatchedEvents(final int maxBatchedEvents) {
             this.maxBatchedEvents = maxBatchedEvents;
         }
+
+        /**
+         * Gets the maximum number of batches sent to Splunk and not yet completed, or acknowledged when indexer
+         * acknowledgement is enabled. When the limit is reached, the events stay in the buffer. The default of
+         * {@code 0} sends a single batch per write interval, without limit.
+         *
+         * @return the maximum number of batches in flight
+         */
+        public int getMaxInFlightBatches() {
+            return maxInFlightBatches;
+        }
+
+        /**
+         * Sets the maximum number of batches sent to Splunk and not yet completed.
+         *
+         * @param maxInFlightBatches
+         *         the maximum number of batches in flight
+         */
+        public void setMaxInFlightBatches(final int maxInFlightBatches) {
+            this.maxInFlightBatches = maxInFlightBatches;
+        }
+
+        /**
+         * Gets the configuration of the durable spool to which events are appended, instead of the in-memory buffer.
+         *
+         * @return the spool configuration
+         */
+        public SpoolConfiguration getSpool() {
+            return spool;
+        }
+
+        /**
+         * Sets the configuration of the durable spool to which events are appended, instead of the in-memory buffer.
+         *
+         * @param spool
+         *         the spool configuration
+         */
+        public void setSpool(final SpoolConfiguration spool) {
+            this.spool = spool;
+        }
     }
 
+    /**
+     * Configuration of the indexer acknowledgement of the batches.
+     */
+    public final static class AcknowledgementConfiguration {
+
+        private static final String DEFAULT_POLL_INTERVAL = "1 second";
+
+        private static final String DEFAULT_TIMEOUT = "1 minute";
+
+        private static final int DEFAULT_MAX_RETRIES = 3;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.enabled")
+        private boolean enabled;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.pollInterval")
+        private String pollInterval;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.timeout")
+        private String timeout;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.maxRetries")
+        private Integer maxRetries;
+
+        /**
+         * Indicates if batches are only completed once Splunk has acknowledged that they are indexed.
+         *
+         * @return {@code true} when indexer acknowledgement is enabled.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets the use of indexer acknowledgement, which must also be enabled for the token in Splunk.
+         *
+         * @param enabled
+         *         {@code true} when indexer acknowledgement is enabled.
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the interval at which the acknowledgements are polled (default {@code 1 second}).
+         *
+         * @return the poll interval
+         */
+        public String getPollInterval() {
+            return pollInterval != null && !pollInterval.isEmpty() ? pollInterval : DEFAULT_POLL_INTERVAL;
+        }
+
+        /**
+         * Sets the interval at which the acknowledgements are polled.
+         *
+         * @param pollInterval
+         *         the poll interval
+         */
+        public void setPollInterval(final String pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        /**
+         * Gets the time after which a batch which has not been acknowledged is sent again (default
+         * {@code 1 minute}).
+         *
+         * @return the acknowledgement timeout
+         */
+        public String getTimeout() {
+            return timeout != null && !timeout.isEmpty() ? timeout : DEFAULT_TIMEOUT;
+        }
+
+        /**
+         * Sets the time after which a batch which has not been acknowledged is sent again.
+         *
+         * @param timeout
+         *         the acknowledgement timeout
+         */
+        public void setTimeout(final String timeout) {
+            this.timeout = timeout;
+        }
+
+        /**
+         * Gets the number of times a batch which has not been acknowledged is sent again before its events are
+         * dropped (default {@code 3}).
+         *
+         * @return the maximum number of retries
+         */
+        public int getMaxRetries() {
+            return maxRetries != null && maxRetries >= 0 ? maxRetries : DEFAULT_MAX_RETRIES;
+        }
+
+        /**
+         * Sets the number of times a batch which has not been acknowledged is sent again before its events are
+         * dropped.
+         *
+         * @param maxRetries
+         *         the maximum number of retries
+         */
+        public void setMaxRetries(final int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.splunk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the batches published by a {@link SplunkAuditEventHandler} to the HTTP event collector, since the
+ * handler was created. The statistics are updated as the batches are published, and can be read from any thread.
+ */
+public final class SplunkStatistics {
+
+    private final long createdAt = System.nanoTime();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder uncompressedBytesSent = new LongAdder();
+    private final LongAdder batchesResent = new LongAdder();
+    private final LongAdder batchesFailed = new LongAdder();
+    private final LongAdder batchesAcknowledged = new LongAdder();
+    private final LongAdder eventsAcknowledged = new LongAdder();
+    private final LongAdder pendingAcknowledgements = new LongAdder();
+    private final LongAdder acknowledgementLag = new LongAdder();
+    private final AtomicLong maxAcknowledgementLag = new AtomicLong();
+
+    SplunkStatistics() {
+        // created by the handler
+    }
+
+    void batchSent(final int events, final int bytes, final int uncompressedBytes) {
+        batchesSent.increment();
+        eventsSent.add(events);
+        bytesSent.add(bytes);
+        uncompressedBytesSent.add(uncompressedBytes);
+    }
+
+    void batchResent() {
+        batchesResent.increment();
+    }
+
+    void batchFailed() {
+        batchesFailed.increment();
+    }
+
+    void acknowledgementPending() {
+        pendingAcknowledgements.increment();
+    }
+
+    void acknowledgementCompleted() {
+        pendingAcknowledgements.decrement();
+    }
+
+    void batchAcknowledged(final int events, final long lagNanos) {
+        batchesAcknowledged.increment();
+        eventsAcknowledged.add(events);
+        acknowledgementLag.add(lagNanos);
+        long max = maxAcknowledgementLag.get();
+        while (lagNanos > max && !maxAcknowledgementLag.compareAndSet(max, lagNanos)) {
+            max = maxAcknowledgementLag.get();
+        }
+    }
+
+    /**
+     * Returns the number of batches sent to Splunk, including the batches sent again.
+     *
+     * @return the number of batches sent
+     */
+    public long getBatchesSent() {
+        return batchesSent.sum();
+    }
+
+    /**
+     * Returns the number of events sent to Splunk, including the events of the batches sent again.
+     *
+     * @return the number of events sent
+     */
+    public long getEventsSent() {
+        return eventsSent.sum();
+    }
+
+    /**
+     * Returns the number of bytes of the bodies of the batches sent, compressed when gzip is enabled.
+     *
+     * @return the number of bytes sent
+     */
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * Returns the number of bytes of the batches sent, before compression.
+     *
+     * @return the number of uncompressed bytes sent
+     */
+    public long getUncompressedBytesSent() {
+        return uncompressedBytesSent.sum();
+    }
+
+    /**
+     * Returns the number of batches sent again because they had not been acknowledged in time.
+     *
+     * @return the number of batches sent again
+     */
+    public long getBatchesResent() {
+        return batchesResent.sum();
+    }
+
+    /**
+     * Returns the number of batches rejected by Splunk, or never acknowledged, whose events have been dropped.
+     *
+     * @return the number of batches failed
+     */
+    public long getBatchesFailed() {
+        return batchesFailed.sum();
+    }
+
+    /**
+     * Returns the number of batches acknowledged by the indexers.
+     *
+     * @return the number of batches acknowledged
+     */
+    public long getBatchesAcknowledged() {
+        return batchesAcknowledged.sum();
+    }
+
+    /**
+     * Returns the number of events of the batches acknowledged by the indexers.
+     *
+     * @return the number of events acknowledged
+     */
+    public long getEventsAcknowledged() {
+        return eventsAcknowledged.sum();
+    }
+
+    /**
+     * Returns the number of batches sent and waiting to be acknowledged by the indexers.
+     *
+     * @return the number of batches waiting for their acknowledgement
+     */
+    public long getPendingAcknowledgements() {
+        return pendingAcknowledgements.sum();
+    }
+
+    /**
+     * Returns the average number of events sent per second since the handler was created.
+     *
+     * @return the number of events sent per second
+     */
+    public double getEventsPerSecond() {
+        final long elapsed = System.nanoTime() - createdAt;
+        return elapsed > 0 ? getEventsSent() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed : 0;
+    }
+
+    /**
+     * Returns the mean time between sending a batch and observing its acknowledgement.
+     *
+     * @param unit the unit of the returned lag
+     * @return the mean acknowledgement lag, or {@code 0} if no batch has been acknowledged
+     */
+    public long getMeanAcknowledgementLag(final TimeUnit unit) {
+        final long acknowledged = batchesAcknowledged.sum();
+        return acknowledged > 0 ? unit.convert(acknowledgementLag.sum() / acknowledged, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    /**
+     * Returns the longest time between sending a batch and observing its acknowledgement.
+     *
+     * @param unit the unit of the returned lag
+     * @return the maximum acknowledgement lag, or {@code 0} if no batch has been acknowledged
+     */
+    public long getMaxAcknowledgementLag(final TimeUnit unit) {
+        return unit.convert(maxAcknowledgementLag.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "SplunkStatistics{batchesSent=" + getBatchesSent()
+                + ", eventsSent=" + getEventsSent()
+                + ", bytesSent=" + getBytesSent()
+                + ", uncompressedBytesSent=" + getUncompressedBytesSent()
+                + ", batchesResent=" + getBatchesResent()
+                + ", batchesFailed=" + getBatchesFailed()
+                + ", batchesAcknowledged=" + getBatchesAcknowledged()
+                + ", pendingAcknowledgements=" + getPendingAcknowledgements()
+                + ", meanAcknowledgementLagMs=" + getMeanAcknowledgementLag(TimeUnit.MILLISECONDS)
+                + ", maxAcknowledgementLagMs=" + getMaxAcknowledgementLag(TimeUnit.MILLISECONDS)
+                + "}";
+    }
+}
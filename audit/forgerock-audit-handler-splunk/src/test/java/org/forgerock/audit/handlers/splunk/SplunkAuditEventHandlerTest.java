@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.splunk;
@@ -97,6 +97,7 @@ public final class SplunkAuditEventHandlerTest {
         when(publisherBuilder.maxBatchEvents(5)).thenReturn(publisherBuilder);
         when(publisherBuilder.averagePerEventPayloadSize(1280)).thenReturn(publisherBuilder);
         when(publisherBuilder.autoFlush(true)).thenReturn(publisherBuilder);
+        when(publisherBuilder.maxInFlightBatches(0)).thenReturn(publisherBuilder);
         publisher = mock(BatchPublisher.class);
         when(publisherBuilder.build()).thenReturn(publisher);
 
@@ -0,0 +1,335 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.splunk;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.util.test.assertj.AssertJPromiseAssert.assertThatPromise;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.forgerock.audit.events.EventTopicsMetaData;
+import org.forgerock.audit.events.handlers.buffering.BatchException;
+import org.forgerock.json.JsonValue;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.promise.Promise;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Publishes batches to a local stand-in of the Splunk HTTP event collector.
+ */
+public final class SplunkHttpEventCollectorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private StubEventCollector eventCollector;
+    private SplunkAuditEventHandler splunkHandler;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        eventCollector = new StubEventCollector();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (splunkHandler != null) {
+            splunkHandler.shutdown();
+            splunkHandler = null;
+        }
+        eventCollector.stop();
+    }
+
+    @Test
+    public void gzipBatchesShouldBeSpreadOverChannels() throws Exception {
+        // Given
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration();
+        configuration.getConnection().setUseGzip(true);
+        configuration.getConnection().setChannels(3);
+        splunkHandler = newHandler(configuration);
+        splunkHandler.startup();
+        String payload = events(0, 50);
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            splunkHandler.publishBatch(payload).getOrThrow(10, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertThat(eventCollector.batches).hasSize(6);
+        Map<String, Integer> batchesByChannel = new HashMap<>();
+        for (ReceivedBatch batch : eventCollector.batches) {
+            assertThat(batch.contentEncoding).isEqualTo("gzip");
+            assertThat(batch.payload).isEqualTo(payload);
+            Integer count = batchesByChannel.get(batch.channel);
+            batchesByChannel.put(batch.channel, count == null ? 1 : count + 1);
+        }
+        assertThat(batchesByChannel.values()).containsExactly(2, 2, 2);
+        SplunkStatistics statistics = splunkHandler.getStatistics();
+        assertThat(statistics.getBatchesSent()).isEqualTo(6);
+        assertThat(statistics.getEventsSent()).isEqualTo(300);
+        assertThat(statistics.getUncompressedBytesSent()).isEqualTo(6L * payload.length());
+        assertThat(statistics.getBytesSent()).isLessThan(statistics.getUncompressedBytesSent() / 4);
+        assertThat(statistics.getBatchesAcknowledged()).isZero();
+    }
+
+    @Test
+    public void batchesShouldOnlyCompleteOnceAcknowledged() throws Exception {
+        // Given
+        eventCollector.pollsBeforeAck = 2;
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration();
+        configuration.getAcknowledgement().setEnabled(true);
+        configuration.getAcknowledgement().setPollInterval("50 milliseconds");
+        splunkHandler = newHandler(configuration);
+        splunkHandler.startup();
+
+        // When
+        Promise<Void, BatchException> promise = splunkHandler.publishBatch(events(0, 10));
+
+        // Then
+        assertThat(promise.isDone()).isFalse();
+        promise.getOrThrow(10, TimeUnit.SECONDS);
+        assertThat(eventCollector.ackPolls).isGreaterThanOrEqualTo(2);
+        SplunkStatistics statistics = splunkHandler.getStatistics();
+        assertThat(statistics.getBatchesAcknowledged()).isEqualTo(1);
+        assertThat(statistics.getEventsAcknowledged()).isEqualTo(10);
+        assertThat(statistics.getPendingAcknowledgements()).isZero();
+        assertThat(statistics.getMaxAcknowledgementLag(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    public void unacknowledgedBatchesShouldBeSentAgain() throws Exception {
+        // Given
+        eventCollector.lostAckIds.add(0L);
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration();
+        configuration.getAcknowledgement().setEnabled(true);
+        configuration.getAcknowledgement().setPollInterval("50 milliseconds");
+        configuration.getAcknowledgement().setTimeout("200 milliseconds");
+        splunkHandler = newHandler(configuration);
+        splunkHandler.startup();
+
+        // When
+        splunkHandler.publishBatch(events(0, 10)).getOrThrow(10, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(eventCollector.batches).hasSize(2);
+        assertThat(eventCollector.batches.get(1).payload).isEqualTo(eventCollector.batches.get(0).payload);
+        assertThat(splunkHandler.getStatistics().getBatchesResent()).isEqualTo(1);
+        assertThat(splunkHandler.getStatistics().getBatchesAcknowledged()).isEqualTo(1);
+    }
+
+    @Test
+    public void batchesShouldFailOnceRetriesAreExhausted() throws Exception {
+        // Given
+        eventCollector.lostAckIds.add(0L);
+        eventCollector.lostAckIds.add(1L);
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration();
+        configuration.getAcknowledgement().setEnabled(true);
+        configuration.getAcknowledgement().setPollInterval("50 milliseconds");
+        configuration.getAcknowledgement().setTimeout("100 milliseconds");
+        configuration.getAcknowledgement().setMaxRetries(1);
+        splunkHandler = newHandler(configuration);
+        splunkHandler.startup();
+
+        // When
+        Promise<Void, BatchException> promise = splunkHandler.publishBatch(events(0, 10));
+
+        // Then
+        assertThatPromise(promise).failedWithException().isInstanceOf(BatchException.class);
+        assertThat(eventCollector.batches).hasSize(2);
+        assertThat(splunkHandler.getStatistics().getBatchesFailed()).isEqualTo(1);
+        assertThat(splunkHandler.getStatistics().getPendingAcknowledgements()).isZero();
+    }
+
+    @Test
+    public void shutdownShouldFlushAllEventsThroughInFlightBatches() throws Exception {
+        // Given
+        eventCollector.pollsBeforeAck = 1;
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration();
+        configuration.getConnection().setUseGzip(true);
+        configuration.getConnection().setChannels(2);
+        configuration.getBuffering().setMaxInFlightBatches(2);
+        configuration.getAcknowledgement().setEnabled(true);
+        configuration.getAcknowledgement().setPollInterval("20 milliseconds");
+        splunkHandler = newHandler(configuration);
+        splunkHandler.startup();
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            JsonValue event = json(object(field("_id", "id" + i), field("transactionId", "tx" + i)));
+            splunkHandler.publishEvent(new RootContext(), "access", event).getOrThrow();
+        }
+        splunkHandler.shutdown();
+        SplunkStatistics statistics = splunkHandler.getStatistics();
+        splunkHandler = null;
+
+        // Then
+        int events = 0;
+        for (ReceivedBatch batch : eventCollector.batches) {
+            events += batch.payload.split("\n").length;
+        }
+        assertThat(events).isEqualTo(3000);
+        assertThat(statistics.getEventsAcknowledged()).isEqualTo(3000);
+        assertThat(statistics.getPendingAcknowledgements()).isZero();
+        assertThat(eventCollector.maxUnacknowledged).isLessThanOrEqualTo(2);
+    }
+
+    private SplunkAuditEventHandlerConfiguration newConfiguration() {
+        SplunkAuditEventHandlerConfiguration configuration = new SplunkAuditEventHandlerConfiguration();
+        configuration.setAuthzToken("abc-def-ghi");
+        configuration.setName("splunk");
+        configuration.setTopics(singleton("access"));
+        configuration.getConnection().setHost("localhost");
+        configuration.getConnection().setPort(eventCollector.getPort());
+        configuration.getBuffering().setWriteInterval("20 milliseconds");
+        return configuration;
+    }
+
+    private SplunkAuditEventHandler newHandler(SplunkAuditEventHandlerConfiguration configuration) {
+        return new SplunkAuditEventHandler(configuration,
+                new EventTopicsMetaData(Collections.<String, JsonValue>emptyMap()), null, null);
+    }
+
+    private static String events(int from, int count) {
+        StringBuilder events = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            events.append("{\"_id\":\"id").append(i).append("\",\"transactionId\":\"tx").append(i)
+                    .append("\",\"_topic\":\"access\"}\n");
+        }
+        return events.toString();
+    }
+
+    private static final class ReceivedBatch {
+        private final String channel;
+        private final String contentEncoding;
+        private final String payload;
+
+        private ReceivedBatch(String channel, String contentEncoding, String payload) {
+            this.channel = channel;
+            this.contentEncoding = contentEncoding;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Answers the raw and ack endpoints of the HTTP event collector, acknowledging each batch after a number of
+     * polls, except the lost acknowledgement ids which are never acknowledged.
+     */
+    private static final class StubEventCollector implements HttpHandler {
+
+        private final HttpServer server;
+        private final List<ReceivedBatch> batches = new CopyOnWriteArrayList<>();
+        private final Map<String, Long> nextAckIds = new HashMap<>();
+        private final Map<String, Integer> pollsByAck = new HashMap<>();
+        private final Set<Long> lostAckIds = new HashSet<>();
+        private volatile int pollsBeforeAck;
+        private volatile int ackPolls;
+        private volatile int maxUnacknowledged;
+        private int unacknowledged;
+
+        private StubEventCollector() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", this);
+            server.start();
+        }
+
+        private int getPort() {
+            return server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        @Override
+        public synchronized void handle(HttpExchange exchange) throws IOException {
+            final String channel = exchange.getRequestHeaders().getFirst("X-Splunk-Request-Channel");
+            final String path = exchange.getRequestURI().getPath();
+            final Object response;
+            if (path.equals("/services/collector/raw")) {
+                final String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                InputStream in = exchange.getRequestBody();
+                if ("gzip".equals(contentEncoding)) {
+                    in = new GZIPInputStream(in);
+                }
+                batches.add(new ReceivedBatch(channel, contentEncoding,
+                        new String(readAll(in), StandardCharsets.UTF_8)));
+                final Long ackId = nextAckIds.containsKey(channel) ? nextAckIds.get(channel) : 0L;
+                nextAckIds.put(channel, ackId + 1);
+                maxUnacknowledged = Math.max(maxUnacknowledged, ++unacknowledged);
+                response = object(field("text", "Success"), field("code", 0), field("ackId", ackId));
+            } else if (path.equals("/services/collector/ack")) {
+                ackPolls++;
+                final JsonValue request = json(OBJECT_MAPPER.readValue(readAll(exchange.getRequestBody()), Map.class));
+                final Map<String, Object> acks = new HashMap<>();
+                for (final JsonValue ackId : request.get("acks")) {
+                    final String key = channel + "/" + ackId.asLong();
+                    final int polls = pollsByAck.containsKey(key) ? pollsByAck.get(key) + 1 : 1;
+                    pollsByAck.put(key, polls);
+                    final boolean acknowledged = polls >= pollsBeforeAck && !lostAckIds.contains(ackId.asLong());
+                    if (acknowledged) {
+                        unacknowledged--;
+                    }
+                    acks.put(String.valueOf(ackId.asLong()), acknowledged);
+                }
+                response = object(field("acks", acks));
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            final byte[] entity = OBJECT_MAPPER.writeValueAsBytes(response);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, entity.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(entity);
+            }
+        }
+
+        private static byte[] readAll(InputStream in) throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
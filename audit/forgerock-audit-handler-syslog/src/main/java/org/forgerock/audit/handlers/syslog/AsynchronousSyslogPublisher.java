@@ -13,6 +13,7 @@
  *
  * Copyright 2013 Cybernetica AS
  * Portions copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
@@ -21,7 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -77,12 +78,14 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
     }
 
     @Override
-    public void publishMessage(String syslogMessage) throws IOException {
+    public void publishMessage(ByteBuffer syslogMessage) throws IOException {
+        final byte[] message = new byte[syslogMessage.remaining()];
+        syslogMessage.duplicate().get(message);
         boolean interrupted = false;
         while (!stopRequested) {
             // Put request on queue for writer
             try {
-                queue.put(syslogMessage.getBytes(StandardCharsets.UTF_8));
+                queue.put(message);
                 break;
             } catch (InterruptedException e) {
                 // We expect this to happen. Just ignore it and hopefully
@@ -0,0 +1,282 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.syslog;
+
+import static org.forgerock.audit.batch.CommonAuditBatchConfiguration.POLLING_TIMEOUT;
+import static org.forgerock.audit.batch.CommonAuditBatchConfiguration.POLLING_TIMEOUT_UNIT;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.net.ssl.SSLContext;
+
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link SyslogPublisher} which frames messages as they are published into a buffer, and writes whole buffers at
+ * once to a non-blocking {@link SyslogChannel}, over TCP or TLS.
+ * <p/>
+ * Messages are octet-counted as per <a href="https://tools.ietf.org/html/rfc6587#section-3.4.1">RFC 6587</a> and
+ * <a href="https://tools.ietf.org/html/rfc5425#section-4.3">RFC 5425</a>. The publisher holds two buffers of the
+ * configured size: the one being written, and the one to which messages are appended meanwhile. Publishing blocks
+ * while the latter is full, which bounds the memory used when the daemon cannot keep up.
+ * <p/>
+ * When the connection fails, the buffer being written is kept, and sent again in full once the connection has been
+ * re-established, waiting longer between attempts while the daemon stays unreachable. Messages written just before
+ * the failure may therefore be received twice, but queued messages are not lost, unless the publisher is closed
+ * while the daemon is unreachable.
+ */
+class NioSyslogPublisher implements SyslogPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioSyslogPublisher.class);
+
+    /** Delay before the first attempt to reconnect, doubled after each failed attempt. */
+    private static final long INITIAL_RECONNECT_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
+    /** Longest delay between attempts to reconnect. */
+    private static final long MAX_RECONNECT_DELAY = TimeUnit.SECONDS.toNanos(30);
+
+    private final InetSocketAddress address;
+    private final int timeout;
+    private final SSLContext sslContext;
+    private final Lock lock = new ReentrantLock();
+    /** Signalled when messages are appended to {@link #pending}, or the publisher is closed. */
+    private final Condition notEmpty = lock.newCondition();
+    /** Signalled when {@link #pending} has been emptied, or the publisher is closed. */
+    private final Condition notFull = lock.newCondition();
+    /** Single threaded executor which runs the WriterTask. */
+    private final ExecutorService executorService;
+    /** Framed messages waiting to be written, guarded by {@link #lock}. */
+    private ByteBuffer pending;
+    /** Framed messages being written, only accessed by the WriterTask. */
+    private ByteBuffer writing;
+    /** Flag for notifying the WriterTask to exit. */
+    private volatile boolean stopRequested;
+
+    /**
+     * Construct a new NioSyslogPublisher.
+     *
+     * @param name
+     *            the name of the thread.
+     * @param address
+     *            the address of the Syslog daemon.
+     * @param timeout
+     *            the timeout in milliseconds of connecting and writing to the Syslog daemon.
+     * @param bufferSize
+     *            the size in bytes of each of the two buffers.
+     * @param sslContext
+     *            the context of TLS connections, or {@code null} to connect over plain TCP.
+     */
+    NioSyslogPublisher(final String name, final InetSocketAddress address, final int timeout, final int bufferSize,
+            final SSLContext sslContext) {
+        Reject.ifNull(address);
+        Reject.ifTrue(bufferSize <= 0, "Syslog buffer size must be positive");
+        this.address = address;
+        this.timeout = timeout;
+        this.sslContext = sslContext;
+        this.pending = ByteBuffer.allocateDirect(bufferSize);
+        this.writing = ByteBuffer.allocateDirect(bufferSize);
+        this.writing.flip();
+        this.executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, name);
+            }
+        });
+        executorService.execute(new WriterTask());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Blocks while the buffer of pending messages is full.
+     *
+     * @throws IOException If the message is larger than the buffer, or the publisher has been closed.
+     */
+    @Override
+    public void publishMessage(ByteBuffer syslogMessage) throws IOException {
+        final int length = syslogMessage.remaining();
+        final int frameLength = SyslogMessageBuffer.digits(length) + 1 + length;
+        if (frameLength > pending.capacity()) {
+            throw new IOException("Syslog message of " + length + " bytes does not fit in the buffer of "
+                    + pending.capacity() + " bytes");
+        }
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            while (!stopRequested && pending.remaining() < frameLength) {
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    // wait for the space to be freed, as the AsynchronousSyslogPublisher does
+                    interrupted = true;
+                }
+            }
+            if (stopRequested) {
+                throw new IOException("Syslog publisher is closed");
+            }
+            SyslogMessageBuffer.putDecimal(pending, length);
+            pending.put((byte) ' ');
+            pending.put(syslogMessage.duplicate());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            stopRequested = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        executorService.shutdown();
+        boolean interrupted = false;
+        while (!executorService.isTerminated()) {
+            try {
+                executorService.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer thread is responsible for writing the pending messages, and for reconnecting to the daemon.
+     */
+    private class WriterTask implements Runnable {
+
+        private SyslogChannel channel;
+        private long reconnectDelay = INITIAL_RECONNECT_DELAY;
+
+        /**
+         * Runs until there are no pending messages AND we've been asked to terminate.
+         */
+        @Override
+        public void run() {
+            try {
+                while (swapBuffers()) {
+                    writeBuffer();
+                }
+            } finally {
+                closeChannel();
+            }
+        }
+
+        /**
+         * Waits for pending messages, and swaps the buffers so that they can be written while new messages are
+         * published.
+         *
+         * @return {@code false} if the publisher has been closed and all messages have been written.
+         */
+        private boolean swapBuffers() {
+            lock.lock();
+            try {
+                while (pending.position() == 0) {
+                    if (stopRequested) {
+                        return false;
+                    }
+                    try {
+                        notEmpty.await(POLLING_TIMEOUT, POLLING_TIMEOUT_UNIT);
+                    } catch (InterruptedException e) {
+                        // Ignore. We'll rerun the loop and presumably fall out.
+                    }
+                }
+                final ByteBuffer written = writing;
+                writing = pending;
+                writing.flip();
+                pending = written;
+                pending.clear();
+                notFull.signalAll();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void writeBuffer() {
+            while (writing.hasRemaining()) {
+                try {
+                    if (channel == null) {
+                        channel = SyslogChannel.open(address, timeout, sslContext);
+                        logger.debug("Connected to Syslog daemon at {}", address);
+                    } else {
+                        channel.checkOpen();
+                    }
+                    channel.write(writing);
+                    reconnectDelay = INITIAL_RECONNECT_DELAY;
+                } catch (IOException e) {
+                    closeChannel();
+                    if (stopRequested) {
+                        logger.error("Dropping " + writing.limit() + " bytes of Syslog messages, as the publisher "
+                                + "was closed while the daemon at " + address + " is unreachable", e);
+                        writing.position(writing.limit());
+                        return;
+                    }
+                    logger.warn("Unable to write Syslog messages to " + address + ", retrying in "
+                            + TimeUnit.NANOSECONDS.toMillis(reconnectDelay) + " ms", e);
+                    // frames must not be split across connections, so the whole buffer is sent again
+                    writing.rewind();
+                    awaitReconnectDelay();
+                    reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+                }
+            }
+        }
+
+        private void awaitReconnectDelay() {
+            lock.lock();
+            try {
+                long remaining = reconnectDelay;
+                while (!stopRequested && remaining > 0) {
+                    try {
+                        remaining = notEmpty.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        // Ignore. We'll rerun the loop and presumably fall out.
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closeChannel() {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+}
@@ -13,13 +13,14 @@
  *
  * Copyright 2013 Cybernetica AS
  * Portions copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
 import org.forgerock.util.Reject;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 
 /**
  * SyslogPublisher that transmits messages using the current thread.
@@ -41,9 +42,11 @@ class SynchronousSyslogPublisher implements SyslogPublisher {
     }
 
     @Override
-    public void publishMessage(String syslogMessage) throws IOException {
+    public void publishMessage(ByteBuffer syslogMessage) throws IOException {
+        final byte[] message = new byte[syslogMessage.remaining()];
+        syslogMessage.duplicate().get(message);
         connection.reconnect();
-        connection.send(syslogMessage.getBytes(StandardCharsets.UTF_8));
+        connection.send(message);
         connection.flush();
     }
 
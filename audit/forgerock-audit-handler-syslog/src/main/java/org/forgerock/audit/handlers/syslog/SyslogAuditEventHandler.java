@@ -13,6 +13,7 @@
  *
  * Copyright 2013 Cybernetica AS
  * Portions copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
@@ -51,8 +52,18 @@ public class SyslogAuditEventHandler extends AuditEventHandlerBase {
 
     private static final Logger logger = LoggerFactory.getLogger(SyslogAuditEventHandler.class);
 
+    /** Initial capacity of the buffers into which messages are formatted. */
+    private static final int MESSAGE_BUFFER_CAPACITY = 2048;
+
     private final SyslogPublisher publisher;
     private final SyslogFormatter formatter;
+    /** Buffer into which each thread formats its messages, which publishers copy before returning. */
+    private final ThreadLocal<SyslogMessageBuffer> messageBuffers = new ThreadLocal<SyslogMessageBuffer>() {
+        @Override
+        protected SyslogMessageBuffer initialValue() {
+            return new SyslogMessageBuffer(MESSAGE_BUFFER_CAPACITY);
+        }
+    };
 
     /**
      * Create a new SyslogAuditEventHandler instance.
@@ -75,15 +86,15 @@ public class SyslogAuditEventHandler extends AuditEventHandlerBase {
 
         super(configuration.getName(), eventTopicsMetaData, configuration.getTopics(), configuration.isEnabled());
         Reject.ifNull(configuration.getProtocol(),
-                "Syslog transport 'protocol' of TCP or UDP is required");
+                "Syslog transport 'protocol' of TCP, TLS or UDP is required");
         Reject.ifNull(configuration.getHost(),
                 "Syslog destination server 'host' is required");
         Reject.ifTrue(configuration.getPort() < 0 || configuration.getPort() > 65535,
                 "Syslog destination server 'port' between 0 and 65535 is required");
         Reject.ifNull(configuration.getFacility(),
                 "Syslog 'facility' is required");
-        Reject.ifTrue(configuration.getProtocol() == TransportProtocol.TCP && configuration.getConnectTimeout() == 0,
-                "Syslog 'connectTimeout' is required for TCP connections");
+        Reject.ifTrue(configuration.getProtocol() != TransportProtocol.UDP && configuration.getConnectTimeout() == 0,
+                "Syslog 'connectTimeout' is required for TCP and TLS connections");
 
         InetSocketAddress socketAddress = new InetSocketAddress(configuration.getHost(), configuration.getPort());
         this.publisher = configuration.getProtocol().getPublisher(socketAddress, configuration);
@@ -134,9 +145,9 @@ public class SyslogAuditEventHandler extends AuditEventHandlerBase {
     public Promise<ResourceResponse, ResourceException> publishEvent(Context context, String topic, JsonValue event) {
 
         try {
-            final String syslogMessage = formatAsSyslogMessage(topic, event);
+            final SyslogMessageBuffer syslogMessage = formatAsSyslogMessage(topic, event);
             synchronized (publisher) {
-                publisher.publishMessage(syslogMessage);
+                publisher.publishMessage(syslogMessage.asByteBuffer());
             }
 
             return newResourceResponse(
@@ -149,12 +160,15 @@ public class SyslogAuditEventHandler extends AuditEventHandlerBase {
         }
     }
 
-    private String formatAsSyslogMessage(String topic, JsonValue auditEvent) throws ResourceException {
+    private SyslogMessageBuffer formatAsSyslogMessage(String topic, JsonValue auditEvent) throws ResourceException {
         if (!formatter.canFormat(topic)) {
             throw new InternalServerErrorException("Unable to format " + topic + " audit event");
         }
         try {
-            return formatter.format(topic, auditEvent);
+            final SyslogMessageBuffer syslogMessage = messageBuffers.get();
+            syslogMessage.clear();
+            formatter.format(topic, auditEvent, syslogMessage);
+            return syslogMessage;
         } catch (Exception ex) {
             throw new BadRequestException(ex);
         }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
@@ -143,7 +144,8 @@ public class SyslogAuditEventHandlerConfiguration extends EventHandlerConfigurat
     /**
      * Returns the timeout after which attempts to connect to the Syslog daemon will be abandoned.
      * <p/>
-     * Only applies when {@link TransportProtocol#TCP} is active.
+     * Only applies when {@link TransportProtocol#TCP} or {@link TransportProtocol#TLS} is active. When buffering is
+     * enabled, it also bounds the time spent waiting for the daemon to read the messages written.
      *
      * @return the connect timeout.
      */
@@ -154,7 +156,7 @@ public class SyslogAuditEventHandlerConfiguration extends EventHandlerConfigurat
     /**
      * Sets the timeout after which attempts to connect to the Syslog daemon will be abandoned.
      * <p/>
-     * Only applies when {@link TransportProtocol#TCP} is active.
+     * Only applies when {@link TransportProtocol#TCP} or {@link TransportProtocol#TLS} is active.
      *
      * @param connectTimeout
      *          the connect timeout.
@@ -317,6 +319,9 @@ public class SyslogAuditEventHandlerConfiguration extends EventHandlerConfigurat
         @JsonPropertyDescription("audit.handlers.syslog.buffering.maxSize")
         private int maxSize = 5000;
 
+        @JsonPropertyDescription("audit.handlers.syslog.buffering.maxBytes")
+        private int maxBytes = 1024 * 1024;
+
         /**
          * Indicates if event buffering is enabled.
          *
@@ -336,5 +341,26 @@ public class SyslogAuditEventHandlerConfiguration extends EventHandlerConfigurat
             this.enabled = enabled;
         }
 
+        /**
+         * Returns the maximum number of bytes of the messages buffered while earlier messages are written, over
+         * {@link TransportProtocol#TCP} or {@link TransportProtocol#TLS}. Publishing events blocks while the buffer
+         * is full.
+         *
+         * @return the size of the buffer in bytes.
+         */
+        public int getMaxBytes() {
+            return maxBytes;
+        }
+
+        /**
+         * Sets the maximum number of bytes of the messages buffered while earlier messages are written.
+         *
+         * @param maxBytes
+         *            the size of the buffer in bytes.
+         */
+        public void setMaxBytes(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
     }
 }
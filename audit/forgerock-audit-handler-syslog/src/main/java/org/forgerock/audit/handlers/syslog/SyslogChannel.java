@@ -0,0 +1,342 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.syslog;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A non-blocking {@link SocketChannel} to a Syslog daemon, through which {@link NioSyslogPublisher} writes
+ * octet-counted messages, optionally secured by TLS.
+ * <p/>
+ * Writes wait for the channel to become writable for at most the I/O timeout, so that a daemon which stops reading
+ * cannot block the publisher forever. Syslog daemons never send application data, so anything read from the channel
+ * is discarded, and end-of-stream reports that the daemon closed the connection.
+ * <p/>
+ * Objects are not thread-safe.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc5425">RFC-5425</a>
+ */
+class SyslogChannel implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyslogChannel.class);
+
+    /** Size of the buffer into which data sent by the daemon is read. */
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final int timeout;
+    private final ByteBuffer readBuffer;
+
+    /**
+     * Opens a connection to a Syslog daemon.
+     *
+     * @param address The address of the Syslog daemon.
+     * @param timeout The timeout in milliseconds after which connecting, and waiting for the channel to become
+     *                readable or writable, is abandoned.
+     * @param sslContext The context of the TLS connection, or {@code null} to connect over plain TCP.
+     * @return the connected channel, after completion of the TLS handshake if any.
+     * @throws IOException If the connection could not be established.
+     */
+    static SyslogChannel open(InetSocketAddress address, int timeout, SSLContext sslContext) throws IOException {
+        final SocketChannel channel = SocketChannel.open();
+        final SyslogChannel syslogChannel;
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            if (sslContext == null) {
+                syslogChannel = new SyslogChannel(channel, timeout, ByteBuffer.allocate(READ_BUFFER_SIZE));
+            } else {
+                syslogChannel = new TlsSyslogChannel(channel, timeout, address, sslContext);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        try {
+            syslogChannel.connect(address);
+            return syslogChannel;
+        } catch (IOException | RuntimeException e) {
+            syslogChannel.close();
+            throw e;
+        }
+    }
+
+    SyslogChannel(SocketChannel channel, int timeout, ByteBuffer readBuffer) throws IOException {
+        this.channel = channel;
+        this.timeout = timeout;
+        this.readBuffer = readBuffer;
+        this.selector = Selector.open();
+    }
+
+    void connect(InetSocketAddress address) throws IOException {
+        if (!channel.connect(address)) {
+            await(SelectionKey.OP_CONNECT);
+            channel.finishConnect();
+        }
+    }
+
+    /**
+     * Writes all the remaining bytes of the provided buffer.
+     *
+     * @param src The bytes to write.
+     * @throws IOException If the connection is closed, or the daemon did not read the bytes in time.
+     */
+    void write(ByteBuffer src) throws IOException {
+        writeFully(src);
+    }
+
+    /**
+     * Reads and discards whatever the daemon sent, checking that it did not close the connection.
+     *
+     * @throws IOException If the daemon closed the connection.
+     */
+    void checkOpen() throws IOException {
+        while (read() > 0) {
+            readBuffer.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close Syslog channel", e);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close Syslog channel selector", e);
+        }
+    }
+
+    /**
+     * Reads available bytes into the read buffer, without waiting.
+     *
+     * @return the number of bytes read.
+     * @throws IOException If the daemon closed the connection.
+     */
+    final int read() throws IOException {
+        final int read = channel.read(readBuffer);
+        if (read < 0) {
+            throw new EOFException("Syslog daemon closed the connection");
+        }
+        return read;
+    }
+
+    final boolean isConnected() {
+        return channel.isConnected();
+    }
+
+    final ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    final void writeFully(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            if (channel.write(src) == 0) {
+                await(SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    final void await(int operation) throws IOException {
+        final SelectionKey key = channel.register(selector, operation);
+        try {
+            if (selector.select(timeout) == 0) {
+                throw new SocketTimeoutException("Syslog channel not ready after " + timeout + " ms");
+            }
+        } finally {
+            key.interestOps(0);
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * A {@link SyslogChannel} secured by a {@link SSLEngine}.
+     */
+    private static final class TlsSyslogChannel extends SyslogChannel {
+
+        private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+        /** Number of TLS records wrapped together before being written. */
+        private static final int RECORDS_PER_WRITE = 4;
+
+        private final SSLEngine engine;
+        private final ByteBuffer applicationData;
+        private final ByteBuffer packets;
+
+        private TlsSyslogChannel(SocketChannel channel, int timeout, InetSocketAddress address,
+                SSLContext sslContext) throws IOException {
+            this(channel, timeout, newEngine(address, sslContext));
+        }
+
+        private TlsSyslogChannel(SocketChannel channel, int timeout, SSLEngine engine) throws IOException {
+            super(channel, timeout, ByteBuffer.allocate(engine.getSession().getPacketBufferSize()));
+            this.engine = engine;
+            this.applicationData = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+            this.packets = ByteBuffer.allocate(engine.getSession().getPacketBufferSize() * RECORDS_PER_WRITE);
+        }
+
+        private static SSLEngine newEngine(InetSocketAddress address, SSLContext sslContext) {
+            final SSLEngine engine = sslContext.createSSLEngine(address.getHostString(), address.getPort());
+            engine.setUseClientMode(true);
+            final SSLParameters parameters = engine.getSSLParameters();
+            // RFC 5425 section 5.2: the certificate of the daemon has to match its host name
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            engine.setSSLParameters(parameters);
+            return engine;
+        }
+
+        @Override
+        void connect(InetSocketAddress address) throws IOException {
+            super.connect(address);
+            engine.beginHandshake();
+            handshake();
+        }
+
+        @Override
+        void write(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                packets.clear();
+                final int packetSize = engine.getSession().getPacketBufferSize();
+                do {
+                    final SSLEngineResult result = engine.wrap(src, packets);
+                    if (result.getStatus() != SSLEngineResult.Status.OK) {
+                        throw new SSLException("Unable to wrap Syslog messages: " + result.getStatus());
+                    }
+                } while (src.hasRemaining() && packets.remaining() >= packetSize);
+                packets.flip();
+                writeFully(packets);
+            }
+        }
+
+        @Override
+        void checkOpen() throws IOException {
+            while (read() > 0) {
+                unwrap();
+                if (engine.isInboundDone()) {
+                    throw new EOFException("Syslog daemon closed the TLS session");
+                }
+                // e.g. a key update requested by the daemon
+                handshake();
+            }
+        }
+
+        @Override
+        public void close() {
+            engine.closeOutbound();
+            if (isConnected()) {
+                try {
+                    packets.clear();
+                    engine.wrap(EMPTY, packets);
+                    packets.flip();
+                    writeFully(packets);
+                } catch (IOException e) {
+                    logger.debug("Unable to send TLS close_notify to Syslog daemon", e);
+                }
+            }
+            super.close();
+        }
+
+        private void handshake() throws IOException {
+            HandshakeStatus status = engine.getHandshakeStatus();
+            while (status != HandshakeStatus.FINISHED && status != HandshakeStatus.NOT_HANDSHAKING) {
+                switch (status) {
+                case NEED_WRAP:
+                    packets.clear();
+                    final SSLEngineResult result = engine.wrap(EMPTY, packets);
+                    if (result.getStatus() != SSLEngineResult.Status.OK) {
+                        throw new SSLException("TLS handshake with Syslog daemon failed: " + result.getStatus());
+                    }
+                    packets.flip();
+                    writeFully(packets);
+                    status = result.getHandshakeStatus();
+                    break;
+                case NEED_UNWRAP:
+                case NEED_UNWRAP_AGAIN:
+                    if (!unwrap()) {
+                        if (read() == 0) {
+                            await(SelectionKey.OP_READ);
+                        }
+                    }
+                    status = engine.getHandshakeStatus();
+                    break;
+                case NEED_TASK:
+                    Runnable task;
+                    while ((task = engine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                    status = engine.getHandshakeStatus();
+                    break;
+                default:
+                    throw new SSLException("Unexpected TLS handshake status " + status);
+                }
+            }
+        }
+
+        /**
+         * Unwraps the TLS records read so far, discarding any application data.
+         *
+         * @return {@code false} if more bytes have to be read to complete a record.
+         */
+        private boolean unwrap() throws IOException {
+            final ByteBuffer readBuffer = getReadBuffer();
+            readBuffer.flip();
+            try {
+                while (true) {
+                    applicationData.clear();
+                    final SSLEngineResult result = engine.unwrap(readBuffer, applicationData);
+                    switch (result.getStatus()) {
+                    case BUFFER_UNDERFLOW:
+                        return false;
+                    case CLOSED:
+                        throw new EOFException("Syslog daemon closed the TLS session");
+                    case OK:
+                        if (!readBuffer.hasRemaining() || result.getHandshakeStatus() == HandshakeStatus.NEED_TASK
+                                || result.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
+                            return true;
+                        }
+                        break;
+                    default:
+                        throw new SSLException("Unable to unwrap TLS records: " + result.getStatus());
+                    }
+                }
+            } finally {
+                readBuffer.compact();
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@
  *
  * Copyright 2013 Cybernetica AS
  * Portions copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
@@ -37,6 +38,8 @@ import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -57,6 +60,7 @@ class SyslogFormatter {
 
     private static final String SYSLOG_SPEC_VERSION = "1";
     private static final String NIL_VALUE = "-";
+    private static final int INITIAL_MESSAGE_CAPACITY = 1024;
 
     private final Map<String, StructuredDataFormatter> structuredDataFormatters;
     private final Map<String, SeverityFieldMapping> severityFieldMappings;
@@ -64,6 +68,8 @@ class SyslogFormatter {
     private final String appName;
     private final String procId;
     private final Facility facility;
+    /** The HOSTNAME, APP-NAME and PROCID fields, which are the same for all messages, encoded once. */
+    private final byte[] hostnameAppNameProcId;
 
     /**
      * Construct a new SyslogFormatter.
@@ -82,6 +88,7 @@ class SyslogFormatter {
         this.procId = String.valueOf(SyslogFormatter.class.hashCode());
         this.appName = getProductName(productInfoProvider);
         this.facility = config.getFacility();
+        this.hostnameAppNameProcId = (hostname + " " + appName + " " + procId + " ").getBytes(StandardCharsets.UTF_8);
         this.severityFieldMappings =
                 createSeverityFieldMappings(config.getSeverityFieldMappings(), eventTopicsMetaData);
         this.structuredDataFormatters = Collections.unmodifiableMap(
@@ -99,25 +106,43 @@ class SyslogFormatter {
      * @throws IllegalArgumentException If this formatter has no meta-data for the specified <code>topic</code>.
      */
     public String format(String topic, JsonValue auditEvent) {
+        final SyslogMessageBuffer message = new SyslogMessageBuffer(INITIAL_MESSAGE_CAPACITY);
+        format(topic, auditEvent, message);
+        return message.toString();
+    }
+
+    /**
+     * Translate the provided <code>auditEvent</code> to an RFC-5424 compliant Syslog message, encoded as UTF-8 and
+     * appended to the provided <code>message</code> buffer.
+     *
+     * @param topic The topic of the provided <code>auditEvent</code>.
+     * @param auditEvent The audit event to be formatted.
+     * @param message The buffer to which the Syslog message is appended.
+     *
+     * @throws IllegalArgumentException If this formatter has no meta-data for the specified <code>topic</code>.
+     */
+    void format(String topic, JsonValue auditEvent, SyslogMessageBuffer message) {
 
         Reject.ifFalse(canFormat(topic), "Unknown event topic");
 
         final Severity severity = getSeverityLevel(topic, auditEvent);
-        final String priority = String.valueOf(calculatePriorityValue(facility, severity));
         final String timestamp = auditEvent.get(TIMESTAMP).asString();
         final String msgId = auditEvent.get(EVENT_NAME).asString();
-        final String structuredData = structuredDataFormatters.get(topic).format(auditEvent);
-        final String msg = "";
-
-        return "<" + priority + ">"         // https://tools.ietf.org/html/rfc5424#section-6.2.1    PRI
-                + SYSLOG_SPEC_VERSION + " " // https://tools.ietf.org/html/rfc5424#section-6.2.2    VERSION
-                + timestamp + " "           // https://tools.ietf.org/html/rfc5424#section-6.2.3    TIMESTAMP
-                + hostname + " "            // https://tools.ietf.org/html/rfc5424#section-6.2.4    HOSTNAME
-                + appName + " "             // https://tools.ietf.org/html/rfc5424#section-6.2.5    APP-NAME
-                + procId + " "              // https://tools.ietf.org/html/rfc5424#section-6.2.6    PROCID
-                + msgId + " "               // https://tools.ietf.org/html/rfc5424#section-6.2.7    MSGID
-                + structuredData + " "      // https://tools.ietf.org/html/rfc5424#section-6.3      STRUCTURED-DATA
-                + msg;                      // https://tools.ietf.org/html/rfc5424#section-6.4      MSG
+
+        // https://tools.ietf.org/html/rfc5424#section-6.2.1 PRI
+        message.append((byte) '<').append(calculatePriorityValue(facility, severity)).append((byte) '>');
+        // https://tools.ietf.org/html/rfc5424#section-6.2.2 VERSION
+        message.append(SYSLOG_SPEC_VERSION).append((byte) ' ');
+        // https://tools.ietf.org/html/rfc5424#section-6.2.3 TIMESTAMP
+        message.append(String.valueOf(timestamp)).append((byte) ' ');
+        // https://tools.ietf.org/html/rfc5424#section-6.2.4 HOSTNAME, 6.2.5 APP-NAME and 6.2.6 PROCID
+        message.append(hostnameAppNameProcId);
+        // https://tools.ietf.org/html/rfc5424#section-6.2.7 MSGID
+        message.append(String.valueOf(msgId)).append((byte) ' ');
+        // https://tools.ietf.org/html/rfc5424#section-6.3 STRUCTURED-DATA
+        structuredDataFormatters.get(topic).format(auditEvent, message);
+        // https://tools.ietf.org/html/rfc5424#section-6.4 MSG, which is empty
+        message.append((byte) ' ');
     }
 
     /**
@@ -252,8 +277,9 @@ class SyslogFormatter {
         private static final Set<String> IGNORED_FIELDS = unmodifiableSet(
                 new HashSet<>(asList("_id", TIMESTAMP, EVENT_NAME)));
 
-        private final String id;
-        private final Set<String> fieldNames;
+        private final byte[] id;
+        private final List<String> fieldNames;
+        private final List<byte[]> paramNames;
 
         /**
          * Construct a new StructuredDataFormatter.
@@ -278,49 +304,41 @@ class SyslogFormatter {
                 throw new IllegalArgumentException(e.getMessage(), e);
             }
 
-            id = topic + "." + productName + "@" + FORGEROCK_IANA_ENTERPRISE_ID;
-            fieldNames = unmodifiableSet(generateJsonPointers(auditEventSchema));
+            id = ("[" + topic + "." + productName + "@" + FORGEROCK_IANA_ENTERPRISE_ID)
+                    .getBytes(StandardCharsets.UTF_8);
+            fieldNames = new ArrayList<>();
+            paramNames = new ArrayList<>();
+            for (String fieldName : generateJsonPointers(auditEventSchema)) {
+                String formattedName = formatParamName(fieldName);
+                if (!IGNORED_FIELDS.contains(formattedName)) {
+                    fieldNames.add(fieldName);
+                    paramNames.add((" " + formattedName + "=\"").getBytes(StandardCharsets.UTF_8));
+                }
+            }
         }
 
         /**
-         * Translate the provided <code>auditEvent</code> to an RFC-5424 compliant SD-ELEMENT.
+         * Translate the provided <code>auditEvent</code> to an RFC-5424 compliant SD-ELEMENT, appended to the
+         * provided <code>message</code> buffer.
          *
          * @param auditEvent The audit event to be formatted.
-         *
-         * @return an RFC-5424 compliant SD-ELEMENT.
+         * @param message The buffer to which the SD-ELEMENT is appended.
          */
-        public String format(JsonValue auditEvent) {
-
-            StringBuilder sd = new StringBuilder();
-
-            sd.append("[");
-            sd.append(id);
-            for (String fieldName : fieldNames) {
-                String formattedName = formatParamName(fieldName);
-                if (IGNORED_FIELDS.contains(formattedName)) {
-                    continue;
+        public void format(JsonValue auditEvent, SyslogMessageBuffer message) {
+            message.append(id);
+            for (int i = 0; i < fieldNames.size(); i++) {
+                message.append(paramNames.get(i));
+                String value = extractValueAsString(auditEvent, fieldNames.get(i));
+                if (value != null) {
+                    message.appendParamValue(value);
                 }
-                sd.append(" ");
-                sd.append(formattedName);
-                sd.append("=\"");
-                sd.append(formatParamValue(extractValueAsString(auditEvent, fieldName)));
-                sd.append("\"");
+                message.append((byte) '"');
             }
-            sd.append("]");
-
-            return sd.toString();
+            message.append((byte) ']');
         }
 
         private String formatParamName(String name) {
             return jsonPointerToDotNotation(name);
         }
-
-        private String formatParamValue(String value) {
-            if (value == null) {
-                return "";
-            } else {
-                return value.replaceAll("[\\\\\"\\]]", "\\\\$0");
-            }
-        }
     }
 }
@@ -0,0 +1,215 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.syslog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A growable buffer into which {@link SyslogFormatter} encodes Syslog messages as UTF-8, without going through
+ * intermediate strings. Buffers are meant to be cleared and reused for each message.
+ * <p/>
+ * Objects are not thread-safe.
+ */
+final class SyslogMessageBuffer {
+
+    private ByteBuffer buffer;
+
+    /**
+     * Construct a new SyslogMessageBuffer.
+     *
+     * @param initialCapacity the initial capacity of the buffer, in bytes.
+     */
+    SyslogMessageBuffer(final int initialCapacity) {
+        buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Empties this buffer, keeping its capacity.
+     */
+    void clear() {
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of bytes in this buffer.
+     *
+     * @return the number of bytes in this buffer.
+     */
+    int length() {
+        return buffer.position();
+    }
+
+    /**
+     * Appends a byte.
+     *
+     * @param b the byte to append.
+     * @return this buffer.
+     */
+    SyslogMessageBuffer append(final byte b) {
+        ensureRemaining(1);
+        buffer.put(b);
+        return this;
+    }
+
+    /**
+     * Appends bytes.
+     *
+     * @param bytes the bytes to append.
+     * @return this buffer.
+     */
+    SyslogMessageBuffer append(final byte[] bytes) {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    /**
+     * Appends the decimal representation of a non-negative number.
+     *
+     * @param value the number to append.
+     * @return this buffer.
+     */
+    SyslogMessageBuffer append(final int value) {
+        ensureRemaining(digits(value));
+        putDecimal(buffer, value);
+        return this;
+    }
+
+    /**
+     * Appends characters, encoded as UTF-8. Unpaired surrogates are replaced by {@code '?'}.
+     *
+     * @param chars the characters to append.
+     * @return this buffer.
+     */
+    SyslogMessageBuffer append(final CharSequence chars) {
+        return append(chars, false);
+    }
+
+    /**
+     * Appends characters as an RFC-5424 PARAM-VALUE, encoded as UTF-8, with {@code '"'}, {@code '\'} and
+     * {@code ']'} escaped by a backslash.
+     *
+     * @param chars the characters to append.
+     * @return this buffer.
+     * @see <a href="https://tools.ietf.org/html/rfc5424#section-6.3.3">RFC-5424 section 6.3.3</a>
+     */
+    SyslogMessageBuffer appendParamValue(final CharSequence chars) {
+        return append(chars, true);
+    }
+
+    private SyslogMessageBuffer append(final CharSequence chars, final boolean escape) {
+        final int length = chars.length();
+        // enough for ASCII, grown again below for multi-byte characters and escapes
+        ensureRemaining(length);
+        for (int i = 0; i < length; i++) {
+            final char c = chars.charAt(i);
+            if (c < 0x80) {
+                if (escape && (c == '"' || c == '\\' || c == ']')) {
+                    ensureRemaining(length - i + 1);
+                    buffer.put((byte) '\\');
+                }
+                buffer.put((byte) c);
+            } else {
+                ensureRemaining(length - i + 3);
+                if (c < 0x800) {
+                    buffer.put((byte) (0xc0 | c >> 6));
+                    buffer.put((byte) (0x80 | c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                    buffer.put((byte) (0xf0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3f));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3f));
+                    buffer.put((byte) (0x80 | codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xe0 | c >> 12));
+                    buffer.put((byte) (0x80 | c >> 6 & 0x3f));
+                    buffer.put((byte) (0x80 | c & 0x3f));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns a view of the bytes in this buffer, valid until this buffer is next modified.
+     *
+     * @return a buffer positioned on the bytes of this buffer.
+     */
+    ByteBuffer asByteBuffer() {
+        final ByteBuffer view = buffer.duplicate();
+        view.flip();
+        return view;
+    }
+
+    /**
+     * Returns a copy of the bytes in this buffer.
+     *
+     * @return the bytes in this buffer.
+     */
+    byte[] toByteArray() {
+        final byte[] bytes = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of decimal digits of a non-negative number.
+     *
+     * @param value a non-negative number.
+     * @return the number of digits of {@code value}.
+     */
+    static int digits(final int value) {
+        int digits = 1;
+        for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Puts the decimal representation of a non-negative number into a buffer.
+     *
+     * @param buffer a buffer with at least {@link #digits(int)} bytes remaining.
+     * @param value a non-negative number.
+     */
+    static void putDecimal(final ByteBuffer buffer, final int value) {
+        final int end = buffer.position() + digits(value);
+        int remaining = value;
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private void ensureRemaining(final int bytes) {
+        if (buffer.remaining() < bytes) {
+            final ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
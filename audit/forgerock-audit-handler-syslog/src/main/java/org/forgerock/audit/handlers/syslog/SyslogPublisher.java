@@ -13,10 +13,12 @@
  *
  * Copyright 2013 Cybernetica AS
  * Portions copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Responsible for transmitting Syslog messages to a Syslog server.
@@ -26,11 +28,13 @@ interface SyslogPublisher extends AutoCloseable {
     /**
      * Send the provided message to the Syslog server.
      *
-     * @param syslogMessage The message to transmit to the Syslog server.
+     * @param syslogMessage The UTF-8 encoded message to transmit to the Syslog server, between the position and the
+     *                      limit of the buffer. The message is copied, or sent, before this method returns, so the
+     *                      buffer can be reused afterwards.
      *
      * @throws IOException If connecting or publishing events to the Syslog daemon failed.
      */
-    void publishMessage(String syslogMessage) throws IOException;
+    void publishMessage(ByteBuffer syslogMessage) throws IOException;
 
     /**
      * Closes the underlying connection.
@@ -13,6 +13,7 @@
  *
  * Copyright 2013 Cybernetica AS
  * Portions copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
@@ -28,6 +29,10 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+
 /**
  * A {@link SyslogConnection} implementation that publishes Syslog messages using the TCP protocol.
  */
@@ -37,12 +42,25 @@ class TcpSyslogConnection implements SyslogConnection {
 
     private final SocketAddress socketAddress;
     private final int connectTimeout; // ms
+    private final SocketFactory socketFactory;
     private Socket socket = null;
     private OutputStream outputStream;
 
     TcpSyslogConnection(InetSocketAddress socketAddress, int connectTimeout) {
+        this(socketAddress, connectTimeout, SocketFactory.getDefault());
+    }
+
+    /**
+     * Construct a new TcpSyslogConnection.
+     *
+     * @param socketAddress The address of the Syslog daemon.
+     * @param connectTimeout The connect timeout in milliseconds.
+     * @param socketFactory The factory of the sockets, which creates {@link SSLSocket}s for TLS connections.
+     */
+    TcpSyslogConnection(InetSocketAddress socketAddress, int connectTimeout, SocketFactory socketFactory) {
         this.socketAddress = socketAddress;
         this.connectTimeout = connectTimeout;
+        this.socketFactory = socketFactory;
     }
 
     @Override
@@ -56,7 +74,13 @@ class TcpSyslogConnection implements SyslogConnection {
     }
 
     private void connect() throws IOException {
-        socket = new Socket();
+        socket = socketFactory.createSocket();
+        if (socket instanceof SSLSocket) {
+            // RFC 5425 section 5.2: the certificate of the daemon has to match its host name
+            SSLParameters parameters = ((SSLSocket) socket).getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            ((SSLSocket) socket).setSSLParameters(parameters);
+        }
         socket.connect(socketAddress, connectTimeout);
         socket.setKeepAlive(true);
         outputStream = new BufferedOutputStream(socket.getOutputStream());
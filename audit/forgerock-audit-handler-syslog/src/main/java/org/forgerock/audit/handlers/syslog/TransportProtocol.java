@@ -12,12 +12,16 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.syslog;
 
 import org.forgerock.audit.handlers.syslog.SyslogAuditEventHandlerConfiguration.EventBufferingConfiguration;
 
 import java.net.InetSocketAddress;
+import java.security.NoSuchAlgorithmException;
+
+import javax.net.ssl.SSLContext;
 
 /**
  * Transport protocol over which Syslog messages should be published.
@@ -26,12 +30,47 @@ public enum TransportProtocol {
 
     /**
      * Publish Syslog messages over TCP.
+     * <p/>
+     * When buffering is enabled, messages are coalesced and written by a {@link NioSyslogPublisher}.
      */
     TCP {
         @Override
         SyslogConnection getSyslogConnection(InetSocketAddress socket, SyslogAuditEventHandlerConfiguration config) {
             return new TcpSyslogConnection(socket, config.getConnectTimeout());
         }
+
+        @Override
+        SyslogPublisher getBufferedPublisher(InetSocketAddress socket, SyslogAuditEventHandlerConfiguration config) {
+            return new NioSyslogPublisher(PUBLISHER_NAME, socket, config.getConnectTimeout(),
+                    config.getBuffering().getMaxBytes(), null);
+        }
+    },
+
+    /**
+     * Publish Syslog messages over TLS, as per <a href="https://tools.ietf.org/html/rfc5425">RFC 5425</a>.
+     * <p/>
+     * The certificate of the Syslog daemon is verified against the trust store of the JVM, and has to match the
+     * configured host. When buffering is enabled, messages are coalesced and written by a {@link NioSyslogPublisher}.
+     */
+    TLS {
+        @Override
+        SyslogConnection getSyslogConnection(InetSocketAddress socket, SyslogAuditEventHandlerConfiguration config) {
+            return new TcpSyslogConnection(socket, config.getConnectTimeout(), getSslContext().getSocketFactory());
+        }
+
+        @Override
+        SyslogPublisher getBufferedPublisher(InetSocketAddress socket, SyslogAuditEventHandlerConfiguration config) {
+            return new NioSyslogPublisher(PUBLISHER_NAME, socket, config.getConnectTimeout(),
+                    config.getBuffering().getMaxBytes(), getSslContext());
+        }
+
+        private SSLContext getSslContext() {
+            try {
+                return SSLContext.getDefault();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("No TLS support available for Syslog", e);
+            }
+        }
     },
 
     /**
@@ -44,6 +83,8 @@ public enum TransportProtocol {
         }
     };
 
+    private static final String PUBLISHER_NAME = "SyslogHandler";
+
     /**
      * Get the publisher for the given configuration.
      * @param socket The socket.
@@ -51,16 +92,19 @@ public enum TransportProtocol {
      * @return The publisher.
      */
     public SyslogPublisher getPublisher(InetSocketAddress socket, SyslogAuditEventHandlerConfiguration config) {
-        SyslogConnection syslogConnection = getSyslogConnection(socket, config);
         EventBufferingConfiguration buffering = config.getBuffering();
         if (buffering.isEnabled()) {
-            return new AsynchronousSyslogPublisher("SyslogHandler", syslogConnection);
+            return getBufferedPublisher(socket, config);
         } else {
-            return new SynchronousSyslogPublisher(syslogConnection);
+            return new SynchronousSyslogPublisher(getSyslogConnection(socket, config));
         }
     }
 
     abstract SyslogConnection getSyslogConnection(InetSocketAddress socket,
             SyslogAuditEventHandlerConfiguration config);
 
+    SyslogPublisher getBufferedPublisher(InetSocketAddress socket, SyslogAuditEventHandlerConfiguration config) {
+        return new AsynchronousSyslogPublisher(PUBLISHER_NAME, getSyslogConnection(socket, config));
+    }
+
 }
@@ -0,0 +1,299 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.syslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class NioSyslogPublisherTest {
+
+    private static final int TIMEOUT = 5000;
+
+    private SyslogReceiver receiver;
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (receiver != null) {
+            receiver.close();
+            receiver = null;
+        }
+    }
+
+    @Test
+    public void writesOctetCountedMessagesInOrder() throws Exception {
+        // given
+        receiver = new SyslogReceiver(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()), 0);
+        NioSyslogPublisher publisher = newPublisher(receiver.getPort(), 64 * 1024, null);
+
+        // when
+        List<String> messages = publish(publisher, 2000);
+        publisher.close();
+
+        // then
+        receiver.awaitMessages(messages.size());
+        assertThat(receiver.messages).containsExactlyElementsOf(messages);
+        assertThat(receiver.reads).isLessThan(messages.size() / 10);
+    }
+
+    @Test
+    public void keepsQueuedMessagesUntilDaemonIsReachable() throws Exception {
+        // given
+        int port = freePort();
+        NioSyslogPublisher publisher = newPublisher(port, 64 * 1024, null);
+        List<String> messages = publish(publisher, 100);
+        Thread.sleep(300);
+
+        // when
+        receiver = new SyslogReceiver(new ServerSocket(port, 50, InetAddress.getLoopbackAddress()), 0);
+        messages.addAll(publish(publisher, 100));
+        receiver.awaitMessages(messages.size());
+        publisher.close();
+
+        // then
+        assertThat(receiver.messages).containsExactlyElementsOf(messages);
+    }
+
+    @Test
+    public void reconnectsWhenDaemonClosesConnection() throws Exception {
+        // given
+        receiver = new SyslogReceiver(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()), 10);
+        NioSyslogPublisher publisher = newPublisher(receiver.getPort(), 64 * 1024, null);
+
+        // when
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            messages.addAll(publish(publisher, 10));
+            // let the daemon read the messages and close the connection
+            receiver.awaitMessages(messages.size());
+            Thread.sleep(50);
+        }
+        publisher.close();
+
+        // then
+        assertThat(receiver.connections).isEqualTo(5);
+        assertThat(receiver.messages).containsExactlyElementsOf(messages);
+    }
+
+    @Test
+    public void writesMessagesOverTls() throws Exception {
+        // given
+        SSLContext sslContext = newSslContext();
+        receiver = new SyslogReceiver(sslContext.getServerSocketFactory()
+                .createServerSocket(0, 50, InetAddress.getLoopbackAddress()), 0);
+        NioSyslogPublisher publisher = newPublisher(receiver.getPort(), 64 * 1024, sslContext);
+
+        // when
+        List<String> messages = publish(publisher, 2000);
+        publisher.close();
+
+        // then
+        receiver.awaitMessages(messages.size());
+        assertThat(receiver.messages).containsExactlyElementsOf(messages);
+    }
+
+    @Test
+    public void rejectsMessagesLargerThanBuffer() throws Exception {
+        // given
+        receiver = new SyslogReceiver(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()), 0);
+        NioSyslogPublisher publisher = newPublisher(receiver.getPort(), 64, null);
+
+        // when
+        try {
+            publisher.publishMessage(ByteBuffer.wrap(new byte[64]));
+            fail("Messages larger than the buffer should be rejected");
+        } catch (IOException e) {
+            // then
+            assertThat(e.getMessage()).contains("does not fit");
+        } finally {
+            publisher.close();
+        }
+    }
+
+    @Test
+    public void closeDoesNotWaitForUnreachableDaemon() throws Exception {
+        // given
+        NioSyslogPublisher publisher = newPublisher(freePort(), 64 * 1024, null);
+        publish(publisher, 10);
+
+        // when
+        long start = System.nanoTime();
+        publisher.close();
+
+        // then
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(TIMEOUT / 1000));
+        try {
+            publish(publisher, 1);
+            fail("Messages should be rejected once the publisher is closed");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).contains("closed");
+        }
+    }
+
+    private NioSyslogPublisher newPublisher(int port, int bufferSize, SSLContext sslContext) {
+        return new NioSyslogPublisher("NioSyslogPublisherTest", new InetSocketAddress("localhost", port), TIMEOUT,
+                bufferSize, sslContext);
+    }
+
+    private static List<String> publish(NioSyslogPublisher publisher, int count) throws IOException {
+        List<String> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String message = "<134>1 2026-01-01T00:00:00.000Z localhost test - AM-ACCESS [access@36733 id=\""
+                    + System.nanoTime() + "-" + i + "\" user=\"d\u00e9mo\"] ";
+            messages.add(message);
+            publisher.publishMessage(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+        }
+        return messages;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static SSLContext newSslContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = NioSyslogPublisherTest.class.getResourceAsStream("/keystore-syslog.jks")) {
+            keyStore.load(in, "password".toCharArray());
+        }
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, "password".toCharArray());
+        TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    /**
+     * A loopback Syslog daemon which parses octet-counted messages, and optionally closes each connection after
+     * reading a number of messages.
+     */
+    private static final class SyslogReceiver implements Runnable {
+
+        private final ServerSocket serverSocket;
+        private final int messagesPerConnection;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final Thread thread;
+        private volatile int connections;
+        private volatile int reads;
+
+        private SyslogReceiver(ServerSocket serverSocket, int messagesPerConnection) {
+            this.serverSocket = serverSocket;
+            this.messagesPerConnection = messagesPerConnection;
+            this.thread = new Thread(this, "SyslogReceiver");
+            thread.start();
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections++;
+                    InputStream in = new CountingInputStream(socket.getInputStream());
+                    for (int i = 0; messagesPerConnection == 0 || i < messagesPerConnection; i++) {
+                        messages.add(readMessage(in));
+                    }
+                } catch (EOFException | SocketException e) {
+                    // connection closed by the publisher, or receiver closed
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        private String readMessage(InputStream in) throws IOException {
+            int length = 0;
+            int b;
+            while ((b = in.read()) != ' ') {
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                assertThat((char) b).isBetween('0', '9');
+                length = length * 10 + b - '0';
+            }
+            ByteArrayOutputStream message = new ByteArrayOutputStream(length);
+            for (int i = 0; i < length; i++) {
+                if ((b = in.read()) < 0) {
+                    throw new EOFException();
+                }
+                message.write(b);
+            }
+            return new String(message.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private void awaitMessages(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (messages.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        private void close() throws Exception {
+            serverSocket.close();
+            thread.join(TIMEOUT);
+        }
+
+        /**
+         * Buffers the socket input stream, counting the reads from the socket.
+         */
+        private final class CountingInputStream extends BufferedInputStream {
+
+            private CountingInputStream(InputStream in) {
+                super(in, 256 * 1024);
+            }
+
+            @Override
+            public synchronized int read() throws IOException {
+                if (pos >= count) {
+                    reads++;
+                }
+                return super.read();
+            }
+        }
+    }
+}
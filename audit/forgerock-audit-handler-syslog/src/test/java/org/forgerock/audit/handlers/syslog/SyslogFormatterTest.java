@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.syslog;
@@ -35,6 +36,7 @@ import org.forgerock.json.JsonValue;
 import org.testng.annotations.Test;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -383,6 +385,39 @@ public class SyslogFormatterTest {
         assertThat(syslogMessage.structuredData.get("field4")).isEqualTo("\"]\\");
     }
 
+    @Test
+    public void formatsAuditEventAsUtf8IntoReusedBuffer() throws Exception {
+        // given
+        SyslogFormatter syslogFormatter = newSyslogFormatter("OpenAM", Facility.LOCAL5, "server.name");
+        SyslogMessageBuffer buffer = new SyslogMessageBuffer(16);
+
+        AuditEvent firstEvent = firstTestTopic()
+                .transactionId("transactionId")
+                .timestamp(1427293286239L)
+                .eventName("AM-ACCESS-ATTEMPT")
+                .field1("caf\u00e9 \u20ac", "\ud83d\ude00 \"]\\")
+                .toEvent();
+        AuditEvent secondEvent = firstTestTopic()
+                .transactionId("otherTransactionId")
+                .timestamp(1427293286239L)
+                .eventName("AM-ACCESS-OUTCOME")
+                .toEvent();
+
+        // when
+        syslogFormatter.format("firstTestTopic", firstEvent.getValue(), buffer);
+        byte[] firstMessage = buffer.toByteArray();
+        buffer.clear();
+        syslogFormatter.format("firstTestTopic", secondEvent.getValue(), buffer);
+
+        // then
+        String formattedEvent = syslogFormatter.format("firstTestTopic", firstEvent.getValue());
+        assertThat(firstMessage).isEqualTo(formattedEvent.getBytes(StandardCharsets.UTF_8));
+        SyslogMessage syslogMessage = readSyslogMessage(new String(firstMessage, StandardCharsets.UTF_8));
+        assertThat(syslogMessage.structuredData.get("field1.field2")).isEqualTo("caf\u00e9 \u20ac");
+        assertThat(syslogMessage.structuredData.get("field1.field3")).isEqualTo("\ud83d\ude00 \"]\\");
+        assertThat(buffer.toString()).isEqualTo(syslogFormatter.format("firstTestTopic", secondEvent.getValue()));
+    }
+
     private SyslogFormatter newSyslogFormatter(String productName, Facility facility, String localHostName)
             throws Exception {
         return newSyslogFormatter(productName, facility, localHostName, Collections.<SeverityFieldMapping>emptyList());
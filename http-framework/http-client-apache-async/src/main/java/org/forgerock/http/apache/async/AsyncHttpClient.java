@@ -12,11 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.http.apache.async;
 
 import static java.nio.channels.Channels.newChannel;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.forgerock.http.apache.async.CloseableBufferFactory.closeableByteBufferFactory;
 import static org.forgerock.util.Utils.closeSilently;
 
@@ -24,6 +26,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
@@ -42,6 +45,7 @@ import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.util.Factory;
+import org.forgerock.util.Function;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
 import org.forgerock.util.promise.PromiseImpl;
@@ -59,12 +63,17 @@ public class AsyncHttpClient extends AbstractHttpClient {
     private final CloseableHttpAsyncClient client;
     private final Factory<Buffer> storage;
     private final CloseableBufferFactory<ByteBuffer> bufferFactory;
+    private final ConnectionPool pool;
+    private final AsyncHttpClientMetrics metrics;
 
-    AsyncHttpClient(final CloseableHttpAsyncClient client, final Factory<Buffer> storage, final int threadCount) {
+    AsyncHttpClient(final CloseableHttpAsyncClient client, final Factory<Buffer> storage, final int threadCount,
+            final ConnectionPool pool, final AsyncHttpClientMetrics metrics) {
         // Client should already be started
         this.client = client;
         this.storage = storage;
         this.bufferFactory = closeableByteBufferFactory(threadCount, 8 * 1_024);
+        this.pool = pool;
+        this.metrics = metrics;
     }
 
     @Override
@@ -86,6 +95,12 @@ public class AsyncHttpClient extends AbstractHttpClient {
         }
 
         // Execute
+        if (metrics != null) {
+            // Record the metrics before the caller gets the response
+            final Promise<Response, NeverThrowsException> recorded = promise.then(new RecordMetrics(System.nanoTime()));
+            client.execute(HttpAsyncMethods.create(clientRequest), httpAsyncResponseConsumer, null);
+            return recorded;
+        }
         client.execute(HttpAsyncMethods.create(clientRequest), httpAsyncResponseConsumer, null);
 
         return promise;
@@ -93,7 +108,35 @@ public class AsyncHttpClient extends AbstractHttpClient {
 
     @Override
     public void close() throws IOException {
-        client.close();
+        try {
+            pool.close();
+            client.close();
+        } finally {
+            if (metrics != null) {
+                metrics.unbind();
+            }
+        }
+    }
+
+    /** Reports the outcome of a request to the {@link AsyncHttpClientMetrics}. */
+    private final class RecordMetrics implements Function<Response, Response, NeverThrowsException> {
+
+        private final long startTime;
+
+        RecordMetrics(final long startTime) {
+            this.startTime = startTime;
+        }
+
+        @Override
+        public Response apply(final Response response) {
+            final Exception cause = response.getCause();
+            if (cause instanceof TimeoutException) {
+                // Raised by the connection pool when no connection could be leased in time
+                metrics.poolWaitTimedOut();
+            }
+            metrics.requestCompleted(System.nanoTime() - startTime, NANOSECONDS, cause != null);
+            return response;
+        }
     }
 
     static final class PromiseHttpAsyncResponseConsumer implements HttpAsyncResponseConsumer<HttpResponse> {
@@ -0,0 +1,61 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.apache.async;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives the metrics of an {@link AsyncHttpClient}: a view of its connection pool, and the outcome of each request.
+ * <p>
+ * An instance is configured with {@link AsyncHttpClientProvider#OPTION_METRICS}. Implementations must be thread-safe
+ * and should not block, as requests are reported from the I/O reactor threads.
+ *
+ * @see AsyncHttpClientMonitor
+ */
+public interface AsyncHttpClientMetrics {
+
+    /**
+     * Called once the client has been created, with a live view of its connection pool.
+     *
+     * @param pool
+     *         the connection pool of the client
+     */
+    void bind(ConnectionPoolMXBean pool);
+
+    /**
+     * Called when a request has completed, either with a response or with a failure.
+     *
+     * @param duration
+     *         the time taken from sending the request to receiving the whole response
+     * @param unit
+     *         the unit of {@code duration}
+     * @param failed
+     *         {@code true} if no response could be obtained from the server
+     */
+    void requestCompleted(long duration, TimeUnit unit, boolean failed);
+
+    /**
+     * Called when a request has failed because no connection could be obtained from the pool within the configured
+     * pool wait timeout. Such a request is also reported as a failed request.
+     */
+    void poolWaitTimedOut();
+
+    /**
+     * Called once the client has been closed.
+     */
+    void unbind();
+}
@@ -0,0 +1,349 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JMX monitoring of an {@link AsyncHttpClient}.
+ * <p>
+ * When bound to a client, the monitor registers two MXBeans: a {@link ConnectionPoolMXBean} exposing the state of the
+ * connection pool ({@code <package>:type=AsyncHttpClient.ConnectionPool,name=<instance>}), and a
+ * {@link RequestStatisticsMXBean} exposing the request latencies
+ * ({@code <package>:type=AsyncHttpClient.RequestStatistics,name=<instance>}). Both are unregistered when the client
+ * is closed.
+ * <pre>
+ *     Options options = Options.defaultOptions()
+ *                              .set(AsyncHttpClientProvider.OPTION_METRICS, new AsyncHttpClientMonitor("am"));
+ *     HttpClientHandler handler = new HttpClientHandler(options);
+ * </pre>
+ */
+public final class AsyncHttpClientMonitor implements AsyncHttpClientMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncHttpClientMonitor.class);
+
+    private static final String LOG_CHARSET = "UTF-8";
+    // 10 minutes largest expected timing, in microseconds
+    private static final long LONGEST_EXPECTED_RESPONSE_TIME_MICROS = MICROSECONDS.convert(10, MINUTES);
+    // 3 significant digits
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final String OBJECT_NAME_TEMPLATE = "%s:type=%s,name=%s";
+
+    private final MBeanServer mBeanServer;
+    private final ObjectName poolName;
+    private final ObjectName statisticsName;
+    private final LiveRequestStatistics statistics = new LiveRequestStatistics();
+
+    /**
+     * Creates a monitor registering its MXBeans in the platform MBean server, under this package name.
+     *
+     * @param instanceName the name identifying the monitored client
+     */
+    public AsyncHttpClientMonitor(final String instanceName) {
+        this(ManagementFactory.getPlatformMBeanServer(), AsyncHttpClientMonitor.class.getPackage().getName(),
+             instanceName);
+    }
+
+    /**
+     * Creates a monitor registering its MXBeans in the given MBean server.
+     *
+     * @param mBeanServer the MBean server in which to register the MXBeans
+     * @param packageName the domain of the MXBean names
+     * @param instanceName the name identifying the monitored client
+     */
+    public AsyncHttpClientMonitor(final MBeanServer mBeanServer, final String packageName,
+            final String instanceName) {
+        this.mBeanServer = mBeanServer;
+        try {
+            this.poolName = objectName(packageName, "AsyncHttpClient.ConnectionPool", instanceName);
+            this.statisticsName = objectName(packageName, "AsyncHttpClient.RequestStatistics", instanceName);
+        } catch (MalformedObjectNameException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    private static ObjectName objectName(final String packageName, final String type, final String instanceName)
+            throws MalformedObjectNameException {
+        return new ObjectName(String.format(Locale.US, OBJECT_NAME_TEMPLATE, packageName, type, instanceName));
+    }
+
+    /**
+     * Returns the name under which the connection pool MXBean is registered.
+     *
+     * @return the name of the connection pool MXBean
+     */
+    public ObjectName getConnectionPoolName() {
+        return poolName;
+    }
+
+    /**
+     * Returns the name under which the request statistics MXBean is registered.
+     *
+     * @return the name of the request statistics MXBean
+     */
+    public ObjectName getRequestStatisticsName() {
+        return statisticsName;
+    }
+
+    /**
+     * Returns the request statistics recorded by this monitor.
+     *
+     * @return the request statistics
+     */
+    public RequestStatisticsMXBean getRequestStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void bind(final ConnectionPoolMXBean pool) {
+        try {
+            mBeanServer.registerMBean(pool, poolName);
+            mBeanServer.registerMBean(statistics, statisticsName);
+        } catch (JMException ex) {
+            LOGGER.warn("Unable to register the HTTP client monitoring MXBeans {} and {}",
+                        poolName, statisticsName, ex);
+        }
+    }
+
+    @Override
+    public void requestCompleted(final long duration, final TimeUnit unit, final boolean failed) {
+        statistics.recordValue(duration, unit, failed);
+    }
+
+    @Override
+    public void poolWaitTimedOut() {
+        statistics.poolWaitTimeouts.increment();
+    }
+
+    @Override
+    public void unbind() {
+        for (final ObjectName name : new ObjectName[] { poolName, statisticsName }) {
+            try {
+                if (mBeanServer.isRegistered(name)) {
+                    mBeanServer.unregisterMBean(name);
+                }
+            } catch (JMException ex) {
+                LOGGER.debug("Unable to unregister the HTTP client monitoring MXBean {}", name, ex);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return statistics.toString();
+    }
+
+    /**
+     * Maintains live on-going statistics on request latencies. An HdrHistogram {@link Recorder} is used to keep
+     * track of live performance data. A snapshot is taken periodically according to the update interval and copied
+     * into an ongoing histogram.
+     * <p>
+     * No attempt is made to compensate for coordinated omission.
+     */
+    private static final class LiveRequestStatistics implements RequestStatisticsMXBean {
+
+        private final Recorder recorder;
+        private final AtomicLong lastSnapshotTime;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder poolWaitTimeouts = new LongAdder();
+
+        private volatile long updateIntervalMillis = TimeUnit.SECONDS.toMillis(30);
+        private volatile Histogram snapshot;
+        private volatile long lastResetTime;
+
+        private final Histogram overallHistogram = new Histogram(LONGEST_EXPECTED_RESPONSE_TIME_MICROS,
+                SIGNIFICANT_DIGITS);
+
+        LiveRequestStatistics() {
+            this.recorder = new Recorder(LONGEST_EXPECTED_RESPONSE_TIME_MICROS, SIGNIFICANT_DIGITS);
+            this.snapshot = recorder.getIntervalHistogram();
+            this.lastSnapshotTime = new AtomicLong(System.currentTimeMillis());
+            this.lastResetTime = lastSnapshotTime.get();
+        }
+
+        void recordValue(final long timing, final TimeUnit unit, final boolean failed) {
+            requests.increment();
+            if (failed) {
+                failures.increment();
+            }
+            // Longer requests are recorded with the longest expected time rather than being ignored
+            recorder.recordValue(Math.min(getTimeUnit().convert(timing, unit), LONGEST_EXPECTED_RESPONSE_TIME_MICROS));
+        }
+
+        @Override
+        public long getRequestCount() {
+            return requests.sum();
+        }
+
+        @Override
+        public long getFailureCount() {
+            return failures.sum();
+        }
+
+        @Override
+        public long getPoolWaitTimeoutCount() {
+            return poolWaitTimeouts.sum();
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return MICROSECONDS;
+        }
+
+        @Override
+        public long getMinimumTime() {
+            return getSnapshot().getMinValue();
+        }
+
+        @Override
+        public long getMaximumTime() {
+            return getSnapshot().getMaxValue();
+        }
+
+        @Override
+        public double getMeanTime() {
+            return getSnapshot().getMean();
+        }
+
+        @Override
+        public double getStdDeviation() {
+            return getSnapshot().getStdDeviation();
+        }
+
+        @Override
+        public long getMedianTime() {
+            return getSnapshot().getValueAtPercentile(50.0d);
+        }
+
+        @Override
+        public long get90thPercentileTime() {
+            return getSnapshot().getValueAtPercentile(90.0d);
+        }
+
+        @Override
+        public long get99thPercentileTime() {
+            return getSnapshot().getValueAtPercentile(99.0d);
+        }
+
+        @Override
+        public long get99Point9thPercentileTime() {
+            return getSnapshot().getValueAtPercentile(99.9d);
+        }
+
+        @Override
+        public String getPercentileDump() {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                getSnapshot().outputPercentileDistribution(new PrintStream(out, true, LOG_CHARSET), 1.0d);
+                return out.toString(LOG_CHARSET);
+            } catch (UnsupportedEncodingException ex) {
+                return "Unable to determine percentile log";
+            }
+        }
+
+        private Histogram getSnapshot() {
+            return getSnapshot(false);
+        }
+
+        private Histogram getSnapshot(final boolean forceUpdate) {
+            final long lastSnapshot = lastSnapshotTime.get();
+            if (forceUpdate || System.currentTimeMillis() - updateIntervalMillis >= lastSnapshot) {
+                if (lastSnapshotTime.compareAndSet(lastSnapshot, System.currentTimeMillis())) {
+                    synchronized (overallHistogram) {
+                        snapshot = recorder.getIntervalHistogram(snapshot);
+                        overallHistogram.add(snapshot);
+                    }
+                }
+            }
+            return overallHistogram;
+        }
+
+        @Override
+        public long getUpdateIntervalMillis() {
+            return updateIntervalMillis;
+        }
+
+        @Override
+        public void setUpdateIntervalMillis(final long intervalMillis) {
+            this.updateIntervalMillis = intervalMillis;
+        }
+
+        @Override
+        public void reset() {
+            synchronized (overallHistogram) {
+                overallHistogram.reset();
+                requests.reset();
+                failures.reset();
+                poolWaitTimeouts.reset();
+                lastResetTime = System.currentTimeMillis();
+            }
+        }
+
+        @Override
+        public Date getMonitoringStartTime() {
+            return new Date(lastResetTime);
+        }
+
+        @Override
+        public Date getLastUpdateTime() {
+            return new Date(lastSnapshotTime.get());
+        }
+
+        @Override
+        public String toString() {
+            final Histogram histogram = getSnapshot(true);
+            final StringBuilder sb = new StringBuilder()
+                    .append("{ \"count\": ").append(getRequestCount())
+                    .append(", \"failures\": ").append(getFailureCount())
+                    .append(", \"poolWaitTimeouts\": ").append(getPoolWaitTimeoutCount());
+            if (histogram.getTotalCount() > 0) {
+                sb.append(", \"units\": \"").append(getTimeUnit()).append('\"');
+                sb.append(", \"min\": ").append(getMinimumTime());
+                sb.append(", \"median\": ").append(getMedianTime());
+                sb.append(", \"90%\": ").append(get90thPercentileTime());
+                sb.append(", \"99%\": ").append(get99thPercentileTime());
+                sb.append(", \"99.9%\": ").append(get99Point9thPercentileTime());
+                sb.append(", \"max\": ").append(getMaximumTime());
+                sb.append(", \"mean\": ").append(getMeanTime());
+                sb.append(", \"std.dev.\": ").append(getStdDeviation());
+            }
+            return sb.append(" }").toString();
+        }
+    }
+}
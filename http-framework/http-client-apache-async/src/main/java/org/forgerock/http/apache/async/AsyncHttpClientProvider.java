@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.http.apache.async;
@@ -30,16 +31,22 @@ import static org.forgerock.http.handler.HttpClientHandler.OPTION_TEMPORARY_STOR
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_TRUST_MANAGERS;
 import static org.forgerock.http.util.Lists.asArrayOrNull;
 
+import java.net.URI;
 import java.security.GeneralSecurityException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolException;
 import org.apache.http.client.RedirectStrategy;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
@@ -81,6 +88,41 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
      */
     public static final Option<Integer> OPTION_WORKER_THREADS = Option.of(Integer.class, null);
 
+    /**
+     * Specifies the maximum number of pooled connections per route (i.e. per target scheme, host and port). If not
+     * set, a single route can use all the connections of the pool
+     * ({@link org.forgerock.http.handler.HttpClientHandler#OPTION_MAX_CONNECTIONS}).
+     */
+    public static final Option<Integer> OPTION_MAX_CONNECTIONS_PER_ROUTE = Option.of(Integer.class, null);
+
+    /**
+     * Specifies the maximum number of pooled connections of specific routes, keyed by route URI (for example
+     * {@code https://example.com:8443}; the port defaults to the one of the scheme). These limits override
+     * {@link #OPTION_MAX_CONNECTIONS_PER_ROUTE} for the given routes. Empty by default.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public static final Option<Map<String, Integer>> OPTION_MAX_CONNECTIONS_BY_ROUTE =
+            (Option) Option.of(Map.class, Collections.<String, Integer>emptyMap());
+
+    /**
+     * Specifies how long a pooled connection can stay idle before being closed. By default, idle connections are
+     * kept until the server closes them (or their keep-alive duration expires).
+     */
+    public static final Option<Duration> OPTION_IDLE_CONNECTION_TIMEOUT = Option.withDefault(Duration.UNLIMITED);
+
+    /**
+     * Specifies how long a request can wait for a connection when the pool (or its route) is exhausted, before
+     * failing with a {@link org.forgerock.http.protocol.Status#BAD_GATEWAY} response whose cause is a
+     * {@link java.util.concurrent.TimeoutException}. By default, requests wait until a connection is available.
+     */
+    public static final Option<Duration> OPTION_POOL_WAIT_TIMEOUT = Option.withDefault(Duration.UNLIMITED);
+
+    /**
+     * Specifies the {@link AsyncHttpClientMetrics} receiving the connection pool state and the request latencies
+     * of the client, for example an {@link AsyncHttpClientMonitor}. No metrics are recorded by default.
+     */
+    public static final Option<AsyncHttpClientMetrics> OPTION_METRICS = Option.of(AsyncHttpClientMetrics.class, null);
+
     /**
      * A redirect strategy that never performs a redirect.
      */
@@ -164,8 +206,16 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
 
         // Connection pooling
         final int maxConnections = options.get(OPTION_MAX_CONNECTIONS);
+        final Integer maxConnectionsPerRoute = options.get(OPTION_MAX_CONNECTIONS_PER_ROUTE);
         manager.setMaxTotal(maxConnections);
-        manager.setDefaultMaxPerRoute(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnectionsPerRoute != null ? maxConnectionsPerRoute : maxConnections);
+
+        final Duration poolWaitTimeout = options.get(OPTION_POOL_WAIT_TIMEOUT);
+        final ConnectionPool pool =
+                new ConnectionPool(manager, options.get(OPTION_IDLE_CONNECTION_TIMEOUT), poolWaitTimeout);
+        for (Map.Entry<String, Integer> route : options.get(OPTION_MAX_CONNECTIONS_BY_ROUTE).entrySet()) {
+            pool.setMaxPerRoute(toHttpHost(route.getKey()), route.getValue());
+        }
 
         // FIXME GSA Couldn't find how to configure retries in async http client
         //if (!options.get(OPTION_RETRY_REQUESTS)) {
@@ -179,6 +229,12 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
             builder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
         }
 
+        if (!poolWaitTimeout.isUnlimited()) {
+            builder.setDefaultRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout((int) poolWaitTimeout.to(MILLISECONDS))
+                    .build());
+        }
+
         // TODO Uncomment when we'll have a user-agent Option
         // builder.setUserAgent("CHF/1.0");
 
@@ -189,6 +245,28 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
                 .setProxyAuthenticationStrategy(NoAuthenticationStrategy.INSTANCE)
                 .build();
         client.start();
-        return new AsyncHttpClient(client, storage, ioReactorConfig.getIoThreadCount());
+        final AsyncHttpClientMetrics metrics = options.get(OPTION_METRICS);
+        if (metrics != null) {
+            metrics.bind(pool);
+        }
+        return new AsyncHttpClient(client, storage, ioReactorConfig.getIoThreadCount(), pool, metrics);
+    }
+
+    private static HttpHost toHttpHost(final String route) throws HttpApplicationException {
+        final URI uri;
+        try {
+            uri = URI.create(route);
+        } catch (IllegalArgumentException e) {
+            throw new HttpApplicationException("Invalid route " + route, e);
+        }
+        if (uri.getHost() == null || uri.getScheme() == null) {
+            throw new HttpApplicationException("Invalid route " + route);
+        }
+        final String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equals(scheme) ? 443 : 80;
+        }
+        return new HttpHost(uri.getHost(), port, scheme);
     }
 }
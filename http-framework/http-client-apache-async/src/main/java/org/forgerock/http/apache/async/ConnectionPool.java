@@ -0,0 +1,165 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The connection pool of an {@link AsyncHttpClient}, wrapping the Apache connection manager.
+ * <p>
+ * When an idle connection timeout or a pool wait timeout is configured, a maintenance task periodically closes the
+ * expired and idle connections, and fails the requests that have been waiting for a connection for too long: the
+ * Apache connection manager only checks pending requests when a connection is leased or released, so without it a
+ * request waiting on an exhausted route would not fail before a connection is released.
+ */
+final class ConnectionPool implements ConnectionPoolMXBean, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /** Longest and shortest maintenance intervals, in milliseconds. */
+    private static final long MAX_MAINTENANCE_INTERVAL = 1_000L;
+    private static final long MIN_MAINTENANCE_INTERVAL = 10L;
+
+    private final PoolingNHttpClientConnectionManager manager;
+    private final long idleTimeout;
+    private final ScheduledExecutorService maintenance;
+
+    ConnectionPool(final PoolingNHttpClientConnectionManager manager, final Duration idleTimeout,
+            final Duration poolWaitTimeout) {
+        this.manager = manager;
+        this.idleTimeout = idleTimeout.isUnlimited() ? -1 : idleTimeout.to(MILLISECONDS);
+        if (idleTimeout.isUnlimited() && poolWaitTimeout.isUnlimited()) {
+            this.maintenance = null;
+            return;
+        }
+        long interval = MAX_MAINTENANCE_INTERVAL;
+        if (!idleTimeout.isUnlimited()) {
+            interval = Math.min(interval, idleTimeout.to(MILLISECONDS) / 2);
+        }
+        if (!poolWaitTimeout.isUnlimited()) {
+            interval = Math.min(interval, poolWaitTimeout.to(MILLISECONDS) / 4);
+        }
+        interval = Math.max(interval, MIN_MAINTENANCE_INTERVAL);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "chf-async-pool-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        maintenance.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                maintain();
+            }
+        }, interval, interval, MILLISECONDS);
+    }
+
+    /**
+     * Sets the maximum number of connections for the route to the given host.
+     *
+     * @param host the target host, with an explicit port
+     * @param max the maximum number of connections
+     */
+    void setMaxPerRoute(final HttpHost host, final int max) {
+        manager.setMaxPerRoute(new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName())), max);
+    }
+
+    private void maintain() {
+        try {
+            manager.closeExpiredConnections();
+            if (idleTimeout >= 0) {
+                manager.closeIdleConnections(idleTimeout, MILLISECONDS);
+            }
+            manager.validatePendingRequests();
+        } catch (RuntimeException e) {
+            logger.debug("Connection pool maintenance failed", e);
+        }
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return manager.getMaxTotal();
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return manager.getDefaultMaxPerRoute();
+    }
+
+    @Override
+    public int getLeasedConnections() {
+        return manager.getTotalStats().getLeased();
+    }
+
+    @Override
+    public int getPendingConnections() {
+        return manager.getTotalStats().getPending();
+    }
+
+    @Override
+    public int getWaitingRequests() {
+        // The pending count of a route includes its waiting lease requests, unlike the pending count of the pool
+        int pending = 0;
+        for (final HttpRoute route : manager.getRoutes()) {
+            pending += manager.getStats(route).getPending();
+        }
+        return Math.max(0, pending - manager.getTotalStats().getPending());
+    }
+
+    @Override
+    public int getAvailableConnections() {
+        return manager.getTotalStats().getAvailable();
+    }
+
+    @Override
+    public Map<String, String> getRouteStatistics() {
+        final Map<String, String> statistics = new TreeMap<>();
+        for (final HttpRoute route : manager.getRoutes()) {
+            final PoolStats stats = manager.getStats(route);
+            statistics.put(route.getTargetHost().toURI(),
+                           "leased=" + stats.getLeased()
+                                   + ", pending=" + stats.getPending()
+                                   + ", available=" + stats.getAvailable()
+                                   + ", max=" + stats.getMax());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+    }
+}
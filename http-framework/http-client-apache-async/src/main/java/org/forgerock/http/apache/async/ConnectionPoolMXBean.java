@@ -0,0 +1,65 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.apache.async;
+
+import java.util.Map;
+
+import javax.management.MXBean;
+
+/**
+ * Exposes the state of the connection pool of an {@link AsyncHttpClient} to monitoring.
+ */
+@MXBean
+public interface ConnectionPoolMXBean {
+    /**
+     * The maximum number of connections of the pool, all routes included.
+     */
+    int getMaxTotal();
+
+    /**
+     * The maximum number of connections per route, for the routes without a specific limit.
+     */
+    int getDefaultMaxPerRoute();
+
+    /**
+     * The number of connections currently leased to requests being executed.
+     */
+    int getLeasedConnections();
+
+    /**
+     * The number of connections currently being established.
+     */
+    int getPendingConnections();
+
+    /**
+     * The number of requests currently waiting for a connection to be leased. A steadily positive value means that
+     * outbound requests are queueing because the pool (or one of their routes) is exhausted.
+     */
+    int getWaitingRequests();
+
+    /**
+     * The number of idle connections that are available for reuse.
+     */
+    int getAvailableConnections();
+
+    /**
+     * The statistics of each route known by the pool, keyed by route (for example {@code https://example.com:443}),
+     * formatted as {@code leased=1, pending=0, available=2, max=8}, where {@code pending} counts both the requests
+     * waiting for a connection and the connections being established.
+     */
+    Map<String, String> getRouteStatistics();
+}
@@ -0,0 +1,122 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.apache.async;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MXBean;
+
+/**
+ * Exposes statistics on the requests sent by an {@link AsyncHttpClient} to JMX monitoring.
+ */
+@MXBean
+public interface RequestStatisticsMXBean {
+    /**
+     * The total number of requests that have completed since monitoring began.
+     */
+    long getRequestCount();
+
+    /**
+     * The number of requests that failed without receiving a response (connection failures, timeouts...) since
+     * monitoring began.
+     */
+    long getFailureCount();
+
+    /**
+     * The number of requests that failed because no connection could be obtained from the pool within the
+     * configured pool wait timeout, since monitoring began.
+     */
+    long getPoolWaitTimeoutCount();
+
+    /**
+     * The units used for all time measurements.
+     */
+    TimeUnit getTimeUnit();
+
+    /**
+     * The minimum time that a request took to complete.
+     */
+    long getMinimumTime();
+
+    /**
+     * The maximum time that a request took to complete.
+     */
+    long getMaximumTime();
+
+    /**
+     * The average (mean) time that a request took to complete.
+     */
+    double getMeanTime();
+
+    /**
+     * The standard deviation of the average request time.
+     */
+    double getStdDeviation();
+
+    /**
+     * The median (50th percentile) request time. 50% of all requests completed within this time.
+     */
+    long getMedianTime();
+
+    /**
+     * The 90th percentile request time. 90% of all requests completed within this time.
+     */
+    long get90thPercentileTime();
+
+    /**
+     * The 99th percentile request time. 99% of all requests completed within this time.
+     */
+    long get99thPercentileTime();
+
+    /**
+     * The 99.9th percentile request time. 99.9% of all requests completed within this time.
+     */
+    long get99Point9thPercentileTime();
+
+    /**
+     * Gets a raw summary dump of request time percentile distribution data, suitable for plotting.
+     */
+    String getPercentileDump();
+
+    /**
+     * The interval at which the request times are collected into the statistics, in milliseconds.
+     */
+    long getUpdateIntervalMillis();
+
+    /**
+     * Sets the interval at which the request times are collected into the statistics.
+     *
+     * @param intervalMillis the update interval in milliseconds. Must be greater than 0.
+     */
+    void setUpdateIntervalMillis(long intervalMillis);
+
+    /**
+     * Resets all statistics to zero.
+     */
+    void reset();
+
+    /**
+     * The timestamp at which monitoring began or the most recent call to {@link #reset()}.
+     */
+    Date getMonitoringStartTime();
+
+    /**
+     * The timestamp at which the statistics were last updated.
+     */
+    Date getLastUpdateTime();
+}
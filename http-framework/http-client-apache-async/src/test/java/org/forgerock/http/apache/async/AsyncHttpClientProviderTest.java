@@ -0,0 +1,235 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static com.xebialabs.restito.builder.stub.StubHttp.whenHttp;
+import static com.xebialabs.restito.semantics.Action.composite;
+import static com.xebialabs.restito.semantics.Action.ok;
+import static com.xebialabs.restito.semantics.Action.stringContent;
+import static com.xebialabs.restito.semantics.Condition.get;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.apache.async.AsyncHttpClientProvider.OPTION_MAX_CONNECTIONS_BY_ROUTE;
+import static org.forgerock.http.apache.async.AsyncHttpClientProvider.OPTION_METRICS;
+import static org.forgerock.http.apache.async.AsyncHttpClientProvider.OPTION_POOL_WAIT_TIMEOUT;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_LOADER;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_MAX_CONNECTIONS;
+import static org.forgerock.util.time.Duration.duration;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+
+import org.forgerock.http.HttpApplicationException;
+import org.forgerock.http.handler.HttpClientHandler;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.http.spi.Loader;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.xebialabs.restito.semantics.Applicable;
+import com.xebialabs.restito.server.StubServer;
+
+@SuppressWarnings("javadoc")
+public class AsyncHttpClientProviderTest {
+
+    private StubServer server;
+    private CountDownLatch latch;
+    private RecordingMetrics metrics;
+
+    @BeforeClass
+    public void setUp() {
+        server = new StubServer().run();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @BeforeMethod
+    public void stubServer() {
+        server.clear();
+        latch = new CountDownLatch(1);
+        metrics = new RecordingMetrics();
+        whenHttp(server).match(get("/slow")).then(composite(ok(), new WaitForLatch(latch)));
+        whenHttp(server).match(get("/fast")).then(composite(ok(), stringContent("fast")));
+    }
+
+    @Test
+    public void shouldFailFastWhenPoolIsExhausted() throws Exception {
+        Options options = Options.defaultOptions()
+                                 .set(OPTION_MAX_CONNECTIONS, 1)
+                                 .set(OPTION_POOL_WAIT_TIMEOUT, duration("200 milliseconds"))
+                                 .set(OPTION_METRICS, metrics);
+        try (HttpClientHandler handler = newHttpClientHandler(options)) {
+            Promise<Response, NeverThrowsException> slow = send(handler, "/slow");
+            try {
+                Response response = send(handler, "/fast").getOrThrow(5, SECONDS);
+
+                assertThat(response.getStatus()).isEqualTo(Status.BAD_GATEWAY);
+                assertThat(response.getCause()).isInstanceOf(TimeoutException.class);
+            } finally {
+                latch.countDown();
+            }
+            assertThat(slow.get().getStatus()).isEqualTo(Status.OK);
+        }
+
+        assertThat(metrics.poolWaitTimeouts.get()).isEqualTo(1);
+        assertThat(metrics.requests.get()).isEqualTo(2);
+        assertThat(metrics.failures.get()).isEqualTo(1);
+        assertThat(metrics.unbound).isTrue();
+    }
+
+    @Test
+    public void shouldLimitConnectionsPerRoute() throws Exception {
+        String route = format("http://localhost:%d", server.getPort());
+        Options options = Options.defaultOptions()
+                                 .set(OPTION_MAX_CONNECTIONS_BY_ROUTE, Collections.singletonMap(route, 1))
+                                 .set(OPTION_METRICS, metrics);
+        try (HttpClientHandler handler = newHttpClientHandler(options)) {
+            Promise<Response, NeverThrowsException> slow = send(handler, "/slow");
+            Promise<Response, NeverThrowsException> fast = send(handler, "/fast");
+            try {
+                waitForConnection(metrics.pool);
+
+                assertThat(metrics.pool.getLeasedConnections()).isEqualTo(1);
+                assertThat(metrics.pool.getRouteStatistics())
+                        .containsEntry(route, "leased=1, pending=1, available=0, max=1");
+                assertThat(fast.isDone()).isFalse();
+            } finally {
+                latch.countDown();
+            }
+            assertThat(slow.get().getStatus()).isEqualTo(Status.OK);
+            assertThat(fast.get().getEntity().getString()).isEqualTo("fast");
+        }
+    }
+
+    @Test(expectedExceptions = HttpApplicationException.class)
+    public void shouldRejectInvalidRoute() throws Exception {
+        newHttpClientHandler(Options.defaultOptions()
+                                    .set(OPTION_MAX_CONNECTIONS_BY_ROUTE, Collections.singletonMap("localhost", 1)));
+    }
+
+    @Test
+    public void shouldRegisterMonitoringMXBeans() throws Exception {
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        AsyncHttpClientMonitor monitor = new AsyncHttpClientMonitor(mBeanServer, "org.forgerock.test", "client");
+        try (HttpClientHandler handler = newHttpClientHandler(Options.defaultOptions().set(OPTION_METRICS, monitor))) {
+            assertThat(send(handler, "/fast").get().getStatus()).isEqualTo(Status.OK);
+            assertThat(send(handler, "/fast").get().getStatus()).isEqualTo(Status.OK);
+
+            assertThat(mBeanServer.getAttribute(monitor.getRequestStatisticsName(), "RequestCount")).isEqualTo(2L);
+            assertThat(mBeanServer.getAttribute(monitor.getRequestStatisticsName(), "FailureCount")).isEqualTo(0L);
+            assertThat(mBeanServer.getAttribute(monitor.getConnectionPoolName(), "MaxTotal")).isEqualTo(64);
+            assertThat(mBeanServer.getAttribute(monitor.getConnectionPoolName(), "WaitingRequests")).isEqualTo(0);
+            assertThat(monitor.toString()).contains("\"count\": 2");
+        }
+
+        assertThat(mBeanServer.isRegistered(monitor.getConnectionPoolName())).isFalse();
+        assertThat(mBeanServer.isRegistered(monitor.getRequestStatisticsName())).isFalse();
+    }
+
+    private Promise<Response, NeverThrowsException> send(final HttpClientHandler handler, final String path)
+            throws Exception {
+        Request request = new Request();
+        request.setMethod("GET");
+        request.setUri(format("http://localhost:%d%s", server.getPort(), path));
+        return handler.handle(new RootContext(), request);
+    }
+
+    private static void waitForConnection(final ConnectionPoolMXBean pool) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (pool.getLeasedConnections() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(pool.getWaitingRequests()).isEqualTo(1);
+    }
+
+    private static HttpClientHandler newHttpClientHandler(final Options options) throws HttpApplicationException {
+        return new HttpClientHandler(options.set(OPTION_LOADER, new Loader() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <S> S load(Class<S> service, Options options) {
+                return (S) new AsyncHttpClientProvider();
+            }
+        }));
+    }
+
+    private static final class RecordingMetrics implements AsyncHttpClientMetrics {
+        private volatile ConnectionPoolMXBean pool;
+        private volatile boolean unbound;
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger poolWaitTimeouts = new AtomicInteger();
+
+        @Override
+        public void bind(final ConnectionPoolMXBean pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void requestCompleted(final long duration, final TimeUnit unit, final boolean failed) {
+            requests.incrementAndGet();
+            if (failed) {
+                failures.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void poolWaitTimedOut() {
+            poolWaitTimeouts.incrementAndGet();
+        }
+
+        @Override
+        public void unbind() {
+            unbound = true;
+        }
+    }
+
+    private static final class WaitForLatch implements Applicable {
+        private final CountDownLatch latch;
+
+        WaitForLatch(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public org.glassfish.grizzly.http.server.Response apply(final org.glassfish.grizzly.http.server.Response r) {
+            try {
+                latch.await(10, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return r;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.jdk;
+
+import static org.forgerock.http.io.IO.newBranchingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.forgerock.http.header.ConnectionHeader;
+import org.forgerock.http.header.ContentLengthHeader;
+import org.forgerock.http.io.Buffer;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.http.spi.HttpClient;
+import org.forgerock.http.util.CaseInsensitiveSet;
+import org.forgerock.util.Factory;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * JDK {@link java.net.http.HttpClient} based implementation, supporting HTTP/2 stream multiplexing.
+ */
+public class JdkHttpClient implements HttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdkHttpClient.class);
+
+    /** Headers that are suppressed in request (hop-by-hop headers, or headers managed by the JDK client). */
+    private static final CaseInsensitiveSet SUPPRESS_REQUEST_HEADERS = new CaseInsensitiveSet(
+            Arrays.asList(
+                    // computed by the JDK client, which rejects them:
+                    "Content-Length", "Expect", "Host",
+                    // hop-by-hop headers, not forwarded by proxies, per RFC 2616 13.5.1:
+                    "Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization", "TE",
+                    "Trailers", "Transfer-Encoding", "Upgrade",
+                    // forbidden in HTTP/2, per RFC 7540 8.1.2.2:
+                    "HTTP2-Settings", "Proxy-Connection"));
+
+    /** Headers that are suppressed in response. */
+    private static final CaseInsensitiveSet SUPPRESS_RESPONSE_HEADERS = new CaseInsensitiveSet(
+            Arrays.asList(
+                    // hop-by-hop headers, not forwarded by proxies, per RFC 2616 13.5.1:
+                    "Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization", "TE",
+                    "Trailers", "Transfer-Encoding", "Upgrade"));
+
+    private final java.net.http.HttpClient client;
+    private final ExecutorService executor;
+    private final Factory<Buffer> storage;
+    private final Duration requestTimeout;
+
+    JdkHttpClient(final java.net.http.HttpClient client, final ExecutorService executor,
+            final Factory<Buffer> storage, final Duration requestTimeout) {
+        this.client = client;
+        this.executor = executor;
+        this.storage = storage;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public Promise<Response, NeverThrowsException> sendAsync(final Request request) {
+        final String uri = request.getUri() != null ? request.getUri().asURI().toASCIIString() : null;
+        final PromiseImpl<Response, NeverThrowsException> promise = PromiseImpl.create();
+
+        final HttpRequest clientRequest;
+        try {
+            clientRequest = createHttpRequest(request);
+        } catch (RuntimeException e) {
+            logger.trace("Failed to create request for {}", uri, e);
+            promise.handleResult(new Response(Status.BAD_GATEWAY).setCause(e));
+            return promise;
+        }
+
+        // Copy the MDC before submitting the request
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        // The response is completed as soon as the headers are received: the entity is streamed, which lets the
+        // HTTP/2 flow control throttle the server when the caller does not consume it
+        client.sendAsync(clientRequest, BodyHandlers.ofInputStream())
+              .whenComplete((clientResponse, failure) -> {
+                  final Map<String, String> previous = MDC.getCopyOfContextMap();
+                  try {
+                      if (mdc != null) {
+                          MDC.setContextMap(mdc);
+                      }
+                      if (failure != null) {
+                          logger.trace("Failed to obtain response for {}", uri, failure);
+                          promise.handleResult(new Response(Status.BAD_GATEWAY).setCause(asException(failure)));
+                      } else {
+                          promise.handleResult(createResponse(clientResponse));
+                      }
+                  } finally {
+                      restoreMdc(previous);
+                  }
+              });
+        return promise;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The JDK client releases its connections once it is no longer referenced: only the executor we own
+        // needs to be shutdown
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates a new {@link HttpRequest} populated from the given {@code request}.
+     * The returned message has some of its headers filtered/ignored (proxy behaviour).
+     *
+     * @param request CHF request structure
+     * @return JDK request structure
+     */
+    private HttpRequest createHttpRequest(final Request request) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri().asURI());
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        builder.method(request.getMethod(), createBodyPublisher(request));
+
+        // Parse request Connection headers to be suppressed in message
+        final CaseInsensitiveSet removableHeaderNames = new CaseInsensitiveSet();
+        removableHeaderNames.addAll(ConnectionHeader.valueOf(request).getTokens());
+
+        // Populates request headers
+        for (final String name : request.getHeaders().keySet()) {
+            if (!SUPPRESS_REQUEST_HEADERS.contains(name) && !removableHeaderNames.contains(name)) {
+                for (final String value : request.getHeaders().get(name).getValues()) {
+                    builder.header(name, value);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static BodyPublisher createBodyPublisher(final Request request) {
+        if (request.getEntity().isRawContentEmpty()) {
+            return BodyPublishers.noBody();
+        }
+        final InputStream content = request.getEntity().getRawContentInputStream();
+        final BodyPublisher publisher = BodyPublishers.ofInputStream(() -> content);
+        final long length = ContentLengthHeader.valueOf(request).getLength();
+        return length >= 0 ? BodyPublishers.fromPublisher(publisher, length) : publisher;
+    }
+
+    /**
+     * Creates a new {@link Response} populated from the given JDK {@code result}.
+     * The returned message has some of its headers filtered/ignored (proxy behaviour).
+     *
+     * @param result JDK response structure
+     * @return CHF response structure
+     */
+    private Response createResponse(final HttpResponse<InputStream> result) {
+        final Response response = new Response(Status.valueOf(result.statusCode()));
+        response.setVersion(result.version() == java.net.http.HttpClient.Version.HTTP_2 ? "HTTP/2.0" : "HTTP/1.1");
+
+        final HttpHeaders headers = result.headers();
+
+        // Parse response Connection headers to be suppressed in message
+        final CaseInsensitiveSet removableHeaderNames = new CaseInsensitiveSet();
+        for (final String value : headers.allValues(ConnectionHeader.NAME)) {
+            removableHeaderNames.addAll(ConnectionHeader.valueOf(value).getTokens());
+        }
+
+        // Response headers, HTTP/2 pseudo-headers (such as ':status') are not exposed
+        for (final Map.Entry<String, List<String>> header : headers.map().entrySet()) {
+            final String name = header.getKey();
+            if (!name.startsWith(":")
+                    && !SUPPRESS_RESPONSE_HEADERS.contains(name)
+                    && !removableHeaderNames.contains(name)) {
+                for (final String value : header.getValue()) {
+                    response.getHeaders().add(name, value);
+                }
+            }
+        }
+
+        response.getEntity().setRawContentInputStream(newBranchingInputStream(result.body(), storage));
+        return response;
+    }
+
+    private static Exception asException(final Throwable failure) {
+        // CompletableFuture wraps the failure cause into a CompletionException
+        final Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+        return cause instanceof Exception ? (Exception) cause : new IOException(cause);
+    }
+
+    private static void restoreMdc(final Map<String, String> previous) {
+        if (previous != null) {
+            MDC.setContextMap(previous);
+        } else {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.jdk;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_CONNECT_TIMEOUT;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_KEY_MANAGERS;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_SO_TIMEOUT;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_SSLCONTEXT_ALGORITHM;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_SSL_CIPHER_SUITES;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_SSL_ENABLED_PROTOCOLS;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_TEMPORARY_STORAGE;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_TRUST_MANAGERS;
+import static org.forgerock.http.util.Lists.asArrayOrNull;
+
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+import org.forgerock.http.HttpApplicationException;
+import org.forgerock.http.io.Buffer;
+import org.forgerock.http.spi.HttpClient;
+import org.forgerock.http.spi.HttpClientProvider;
+import org.forgerock.http.spi.Loader;
+import org.forgerock.util.Factory;
+import org.forgerock.util.Option;
+import org.forgerock.util.Options;
+import org.forgerock.util.time.Duration;
+
+/**
+ * Creates and configures a {@link HttpClient} instance built around the JDK {@link java.net.http.HttpClient}.
+ * <p>
+ * Unlike the Apache HTTP Client based providers, this implementation negotiates HTTP/2 (ALPN for {@literal https},
+ * {@literal h2c} upgrade for {@literal http}) and multiplexes all concurrent requests to the same origin as streams
+ * over a single connection, relying on the HTTP/2 flow control to apply back-pressure when the response entities
+ * are not consumed. Servers that do not support HTTP/2 are transparently accessed using HTTP/1.1.
+ * <p>
+ * The following {@link org.forgerock.http.handler.HttpClientHandler} options are not supported by the JDK client
+ * and are ignored: {@code OPTION_HOSTNAME_VERIFIER} (host names are always verified), {@code OPTION_MAX_CONNECTIONS},
+ * {@code OPTION_REUSE_CONNECTIONS} and {@code OPTION_RETRY_REQUESTS}.
+ *
+ * @see <a href="https://docs.oracle.com/en/java/javase/17/docs/api/java.net.http/java/net/http/HttpClient.html">
+ *     JDK HttpClient</a>
+ */
+public class JdkHttpClientProvider implements HttpClientProvider {
+
+    /**
+     * The preferred HTTP protocol version. By default HTTP/2 is negotiated with the server, falling back to
+     * HTTP/1.1 when the server does not support it.
+     */
+    public static final Option<Version> OPTION_HTTP_VERSION = Option.of(Version.class, Version.HTTP_2);
+
+    /**
+     * Specify the number of worker threads used to complete the response promises. If not set, the JDK client
+     * manages its own (unbounded, cached) thread pool.
+     */
+    public static final Option<Integer> OPTION_WORKER_THREADS = Option.of(Integer.class, null);
+
+    /**
+     * A {@link Loader} which always loads this provider for the {@link HttpClientProvider} service, and delegates to
+     * {@link Loader#SERVICE_LOADER} for any other service. It can be used with
+     * {@link org.forgerock.http.handler.HttpClientHandler#OPTION_LOADER} to select this provider when several
+     * providers are available in the class path.
+     */
+    public static final Loader LOADER = new Loader() {
+        @Override
+        public <S> S load(final Class<S> service, final Options options) {
+            if (HttpClientProvider.class.equals(service)) {
+                return service.cast(new JdkHttpClientProvider());
+            }
+            return SERVICE_LOADER.load(service, options);
+        }
+    };
+
+    @Override
+    public HttpClient newHttpClient(final Options options) throws HttpApplicationException {
+
+        final Factory<Buffer> storage = options.get(OPTION_TEMPORARY_STORAGE);
+
+        // SSL
+        final SSLContext sslContext;
+        try {
+            sslContext = SSLContext.getInstance(options.get(OPTION_SSLCONTEXT_ALGORITHM));
+            sslContext.init(options.get(OPTION_KEY_MANAGERS),
+                            options.get(OPTION_TRUST_MANAGERS), null);
+        } catch (final GeneralSecurityException e) {
+            throw new HttpApplicationException("Can't create SSL Context", e);
+        }
+
+        final SSLParameters sslParameters = sslContext.getDefaultSSLParameters();
+        final List<String> protocols = options.get(OPTION_SSL_ENABLED_PROTOCOLS);
+        if (!protocols.isEmpty()) {
+            sslParameters.setProtocols(asArrayOrNull(protocols));
+        }
+        final List<String> ciphers = options.get(OPTION_SSL_CIPHER_SUITES);
+        if (!ciphers.isEmpty()) {
+            sslParameters.setCipherSuites(asArrayOrNull(ciphers));
+        }
+
+        final java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder()
+                .version(options.get(OPTION_HTTP_VERSION))
+                .followRedirects(Redirect.NEVER)
+                .sslContext(sslContext)
+                .sslParameters(sslParameters);
+
+        // Timeouts
+        final Duration connectTimeout = options.get(OPTION_CONNECT_TIMEOUT);
+        if (!connectTimeout.isUnlimited()) {
+            builder.connectTimeout(java.time.Duration.ofMillis(connectTimeout.to(MILLISECONDS)));
+        }
+        // The JDK client has no socket timeout: the closest equivalent is a per-request response timeout
+        final Duration soTimeout = options.get(OPTION_SO_TIMEOUT);
+        final java.time.Duration requestTimeout = soTimeout.isUnlimited()
+                ? null
+                : java.time.Duration.ofMillis(soTimeout.to(MILLISECONDS));
+
+        // Executor
+        ExecutorService executor = null;
+        final Integer threadCount = options.get(OPTION_WORKER_THREADS);
+        if (threadCount != null) {
+            executor = Executors.newFixedThreadPool(threadCount, new WorkerThreadFactory());
+            builder.executor(executor);
+        }
+
+        return new JdkHttpClient(builder.build(), executor, storage, requestTimeout);
+    }
+
+    /** Creates daemon threads, so that a non closed client does not prevent the JVM from exiting. */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "chf-jdk-http-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.jdk;
+
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.jdk.JdkHttpClientProvider.OPTION_HTTP_VERSION;
+
+import java.net.http.HttpClient.Version;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.Callback;
+import org.forgerock.http.handler.HttpClientHandler;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class Http2JdkHttpClientTest {
+
+    /** The in-process HTTP/2 (h2c) server, answering with the protocol version used by the request. */
+    private Server server;
+    private int port;
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        server = new Server();
+        HttpConfiguration configuration = new HttpConfiguration();
+        ServerConnector connector = new ServerConnector(server,
+                new HttpConnectionFactory(configuration),
+                new HTTP2CServerConnectionFactory(configuration));
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(new Handler.Abstract() {
+            @Override
+            public boolean handle(org.eclipse.jetty.server.Request request, org.eclipse.jetty.server.Response response,
+                    Callback callback) {
+                remotePorts.add(org.eclipse.jetty.server.Request.getRemotePort(request));
+                response.setStatus(200);
+                Content.Sink.write(response, true, request.getConnectionMetaData().getHttpVersion().asString(),
+                        callback);
+                return true;
+            }
+        });
+        server.start();
+        port = connector.getLocalPort();
+    }
+
+    @AfterClass
+    public void stopServer() throws Exception {
+        server.stop();
+    }
+
+    @BeforeMethod
+    public void resetConnections() {
+        remotePorts.clear();
+    }
+
+    @Test
+    public void shouldNegotiateHttp2() throws Exception {
+        try (HttpClientHandler handler = newHttpClientHandler(Version.HTTP_2)) {
+            Response response = handler.handle(new RootContext(), newRequest()).get();
+
+            assertThat(response.getStatus()).isEqualTo(Status.OK);
+            assertThat(response.getVersion()).isEqualTo("HTTP/2.0");
+            assertThat(response.getEntity().getString()).isEqualTo("HTTP/2.0");
+        }
+    }
+
+    @Test
+    public void shouldMultiplexConcurrentRequestsOverASingleConnection() throws Exception {
+        try (HttpClientHandler handler = newHttpClientHandler(Version.HTTP_2)) {
+            // Establish (and upgrade) the connection first
+            handler.handle(new RootContext(), newRequest()).get().close();
+
+            List<Promise<Response, NeverThrowsException>> promises = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                promises.add(handler.handle(new RootContext(), newRequest()));
+            }
+            for (Promise<Response, NeverThrowsException> promise : promises) {
+                Response response = promise.get();
+                assertThat(response.getStatus()).isEqualTo(Status.OK);
+                assertThat(response.getEntity().getString()).isEqualTo("HTTP/2.0");
+            }
+            assertThat(remotePorts).hasSize(1);
+        }
+    }
+
+    @Test
+    public void shouldUseHttp11WhenConfigured() throws Exception {
+        try (HttpClientHandler handler = newHttpClientHandler(Version.HTTP_1_1)) {
+            Response response = handler.handle(new RootContext(), newRequest()).get();
+
+            assertThat(response.getStatus()).isEqualTo(Status.OK);
+            assertThat(response.getVersion()).isEqualTo("HTTP/1.1");
+            assertThat(response.getEntity().getString()).isEqualTo("HTTP/1.1");
+        }
+    }
+
+    private static HttpClientHandler newHttpClientHandler(Version version) throws Exception {
+        return new HttpClientHandler(Options.defaultOptions()
+                                            .set(HttpClientHandler.OPTION_LOADER, JdkHttpClientProvider.LOADER)
+                                            .set(OPTION_HTTP_VERSION, version));
+    }
+
+    private Request newRequest() throws Exception {
+        return new Request().setMethod("GET").setUri(format("http://localhost:%d/version", port));
+    }
+}
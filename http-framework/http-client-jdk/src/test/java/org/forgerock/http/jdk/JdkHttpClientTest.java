@@ -0,0 +1,40 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.jdk;
+
+import java.net.http.HttpClient.Version;
+
+import org.forgerock.http.HttpApplicationException;
+import org.forgerock.http.handler.HttpClientHandler;
+import org.forgerock.http.handler.HttpClientHandlerTest;
+import org.forgerock.util.Options;
+
+/**
+ * Runs the common client tests in HTTP/1.1 mode: the Grizzly based stub server does not ignore the {@literal h2c}
+ * upgrade requests as it should, see {@link Http2JdkHttpClientTest} for the HTTP/2 tests.
+ */
+@SuppressWarnings("javadoc")
+public class JdkHttpClientTest extends HttpClientHandlerTest {
+
+    @Override
+    protected HttpClientHandler buildHttpClientHandler() throws HttpApplicationException {
+        Options options = Options.defaultOptions()
+                                 .set(HttpClientHandler.OPTION_LOADER, JdkHttpClientProvider.LOADER)
+                                 .set(JdkHttpClientProvider.OPTION_HTTP_VERSION, Version.HTTP_1_1);
+        return new HttpClientHandler(options);
+    }
+}
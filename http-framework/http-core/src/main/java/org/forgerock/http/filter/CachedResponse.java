@@ -0,0 +1,345 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.filter;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.forgerock.http.header.CacheControlHeader.MAX_AGE;
+import static org.forgerock.http.header.CacheControlHeader.NO_CACHE;
+import static org.forgerock.http.header.HeaderUtil.join;
+import static org.forgerock.http.header.HeaderUtil.parseDate;
+import static org.forgerock.http.header.HeaderUtil.parseMultiValuedHeader;
+import static org.forgerock.http.io.IO.newBranchingInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.forgerock.http.header.CacheControlHeader;
+import org.forgerock.http.io.Buffer;
+import org.forgerock.http.protocol.Header;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.http.util.CaseInsensitiveSet;
+import org.forgerock.util.encode.Base64;
+
+/**
+ * A response stored by the {@link ResponseCacheFilter}: its status, headers and raw entity, with the information
+ * needed to compute its freshness and to select it for a request, as described in
+ * <a href="https://tools.ietf.org/html/rfc7234">RFC 7234</a>.
+ */
+final class CachedResponse {
+
+    /** Headers that are never stored with the response (RFC 7234 §3.1), nor updated by a 304 (RFC 7234 §4.3.4). */
+    private static final CaseInsensitiveSet UNCACHED_HEADERS = new CaseInsensitiveSet(
+            Arrays.asList("Age", "Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization", "TE",
+                    "Trailers", "Transfer-Encoding", "Upgrade", "Content-Length"));
+
+    /** Request headers carrying the caller credentials, which implicitly select the stored responses. */
+    private static final String[] CREDENTIAL_HEADERS = { "Authorization", "Cookie" };
+
+    static final String AGE = "Age";
+    static final String DATE = "Date";
+    static final String ETAG = "ETag";
+    static final String EXPIRES = "Expires";
+    static final String LAST_MODIFIED = "Last-Modified";
+    static final String VARY = "Vary";
+
+    private final Status status;
+    private final String version;
+    private final Map<String, String> varyingRequestHeaders;
+    /** Digest of the credentials of the request, or {@code null} if it had none. */
+    private final String credentials;
+    private Map<String, List<String>> headers;
+
+    /** The raw entity, when held in memory. */
+    private byte[] entity;
+    /** The raw entity, when spilled to disk. */
+    private Buffer diskEntity;
+    private File diskFile;
+    private final int length;
+
+    /** Local time (in ms) at which the response was received, and its age (in ms) at that time. */
+    private long responseTime;
+    private long initialAge;
+    /** Freshness lifetime, in ms. */
+    private long freshnessLifetime;
+
+    CachedResponse(final Request request, final Response response, final byte[] entity, final long requestTime,
+            final long responseTime) {
+        this.status = response.getStatus();
+        this.version = response.getVersion();
+        this.varyingRequestHeaders = selectVaryingRequestHeaders(request, response);
+        this.credentials = credentialsOf(request);
+        this.entity = entity;
+        this.length = entity.length;
+        updateHeaders(response, requestTime, responseTime);
+    }
+
+    /**
+     * Returns the freshness lifetime of the given response in milliseconds, or {@code -1} if it can not be computed
+     * (RFC 7234 §4.2.1). No heuristic freshness is applied.
+     */
+    static long freshnessLifetime(final Response response) {
+        final CacheControlHeader cacheControl = CacheControlHeader.valueOf(response);
+        if (cacheControl.hasDirective(NO_CACHE)) {
+            return 0;
+        }
+        final long maxAge = cacheControl.getDeltaSeconds(MAX_AGE);
+        if (maxAge >= 0) {
+            return SECONDS.toMillis(maxAge);
+        }
+        final String expires = response.getHeaders().getFirst(EXPIRES);
+        if (expires != null) {
+            final Date expiresDate = parseDate(expires);
+            final Date date = parseDate(response.getHeaders().getFirst(DATE));
+            if (expiresDate == null || date == null) {
+                // Invalid dates represent a time in the past (RFC 7234 §5.3)
+                return 0;
+            }
+            return Math.max(0, expiresDate.getTime() - date.getTime());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the request headers nominated by the {@code Vary} header of the response, with their values, or
+     * {@code null} if the response can not be stored because it varies on everything ({@code Vary: *}).
+     */
+    private static Map<String, String> selectVaryingRequestHeaders(final Request request, final Response response) {
+        final Map<String, String> selected = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (final String name : parseMultiValuedHeader(response, VARY)) {
+            if ("*".equals(name)) {
+                return null;
+            }
+            selected.put(name, requestHeaderValue(request, name));
+        }
+        return selected;
+    }
+
+    static boolean isVaryingOnEverything(final Response response) {
+        return parseMultiValuedHeader(response, VARY).contains("*");
+    }
+
+    private static String requestHeaderValue(final Request request, final String name) {
+        final Header header = request.getHeaders().get(name);
+        return header == null ? null : join(header.getValues(), ',');
+    }
+
+    /**
+     * Returns a digest of the credential headers of the given request, or {@code null} if it has none. Only the
+     * digest is kept, so that the cache does not retain the credentials themselves.
+     */
+    static String credentialsOf(final Request request) {
+        MessageDigest digest = null;
+        for (final String name : CREDENTIAL_HEADERS) {
+            final String value = requestHeaderValue(request, name);
+            if (value != null) {
+                if (digest == null) {
+                    digest = newDigest();
+                }
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return digest == null ? null : Base64.encode(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by the Java platform", e);
+        }
+    }
+
+    /**
+     * Returns {@code true} if this response can be used to satisfy the given request, i.e. if the request has the
+     * same credentials than the one which obtained this response, and according to the request headers nominated by
+     * the {@code Vary} header of this response (RFC 7234 §4.1).
+     */
+    boolean matches(final Request request) {
+        if (!Objects.equals(credentials, credentialsOf(request))) {
+            return false;
+        }
+        for (final Map.Entry<String, String> header : varyingRequestHeaders.entrySet()) {
+            final String value = requestHeaderValue(request, header.getKey());
+            if (!Objects.equals(normalize(value), normalize(header.getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(final String value) {
+        return value == null ? null : value.replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns {@code true} if this response has been obtained with the same credentials, and varies on the same
+     * request headers values than the given one.
+     */
+    boolean hasSameVariantAs(final CachedResponse other) {
+        return Objects.equals(credentials, other.credentials)
+                && varyingRequestHeaders.equals(other.varyingRequestHeaders);
+    }
+
+    /** Returns the current age of this response, in milliseconds (RFC 7234 §4.2.3). */
+    long currentAge(final long now) {
+        return initialAge + Math.max(0, now - responseTime);
+    }
+
+    boolean isFresh(final long now) {
+        return freshnessLifetime > currentAge(now);
+    }
+
+    boolean hasValidators() {
+        return getFirstHeader(ETAG) != null || getFirstHeader(LAST_MODIFIED) != null;
+    }
+
+    String getFirstHeader(final String name) {
+        final List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Freshens this response with the headers of a {@code 304 Not Modified} response received while validating it
+     * (RFC 7234 §4.3.4).
+     */
+    synchronized void freshen(final Response notModified, final long requestTime, final long responseTime) {
+        final Response merged = new Response(status);
+        merged.getHeaders().addAll(headers);
+        for (final String name : notModified.getHeaders().keySet()) {
+            if (!UNCACHED_HEADERS.contains(name)) {
+                merged.getHeaders().put(name, notModified.getHeaders().get(name).getValues());
+            }
+        }
+        final Header age = notModified.getHeaders().get(AGE);
+        if (age != null) {
+            merged.getHeaders().put(AGE, age.getValues());
+        }
+        updateHeaders(merged, requestTime, responseTime);
+    }
+
+    private void updateHeaders(final Response response, final long requestTime, final long responseTime) {
+        final Map<String, List<String>> copy = response.getHeaders().copyAsMultiMapOfStrings();
+        for (final String name : UNCACHED_HEADERS) {
+            copy.remove(name);
+        }
+        this.headers = copy;
+        this.responseTime = responseTime;
+        this.freshnessLifetime = Math.max(0, freshnessLifetime(response));
+
+        // corrected_initial_age, in milliseconds
+        long ageValue = 0;
+        final String age = response.getHeaders().getFirst(AGE);
+        if (age != null) {
+            try {
+                ageValue = SECONDS.toMillis(Math.max(0, Long.parseLong(age.trim())));
+            } catch (NumberFormatException e) {
+                // Ignore invalid Age value
+            }
+        }
+        long apparentAge = 0;
+        final Date date = parseDate(response.getHeaders().getFirst(DATE));
+        if (date != null) {
+            apparentAge = Math.max(0, responseTime - date.getTime());
+        }
+        final long correctedAgeValue = ageValue + (responseTime - requestTime);
+        this.initialAge = Math.max(apparentAge, correctedAgeValue);
+    }
+
+    /**
+     * Creates a new response from this stored response, with an up to date {@code Age} header.
+     */
+    synchronized Response toResponse(final long now) throws IOException {
+        final Response response = new Response(status);
+        response.setVersion(version);
+        response.getHeaders().addAll(headers);
+        response.getHeaders().put(AGE, String.valueOf(MILLISECONDS.toSeconds(currentAge(now))));
+        response.getEntity().setRawContentInputStream(newBranchingInputStream(readEntity()));
+        response.getHeaders().put("Content-Length", String.valueOf(length));
+        return response;
+    }
+
+    private byte[] readEntity() throws IOException {
+        if (entity != null) {
+            return entity;
+        }
+        final byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            final int n = diskEntity.read(read, bytes, read, length - read);
+            if (n <= 0) {
+                // The disk storage has been truncated or deleted
+                throw new IOException("Only " + read + " of the " + length + " bytes of the entity could be read");
+            }
+            read += n;
+        }
+        return bytes;
+    }
+
+    boolean isOnDisk() {
+        return entity == null;
+    }
+
+    /** Moves the entity of this response to the given (empty) disk buffer. */
+    synchronized void spillTo(final Buffer buffer, final File file) throws IOException {
+        buffer.append(entity, 0, length);
+        diskEntity = buffer;
+        diskFile = file;
+        entity = null;
+    }
+
+    /** Moves the entity of this response back in memory, discarding its disk storage. */
+    synchronized void load() throws IOException {
+        if (entity == null) {
+            entity = readEntity();
+            discard();
+        }
+    }
+
+    /** Releases the disk storage of this response, if any. */
+    synchronized void discard() {
+        if (diskEntity != null) {
+            try {
+                diskEntity.close();
+            } catch (IOException e) {
+                // Nothing more can be done
+            }
+            diskEntity = null;
+            diskFile.delete();
+            diskFile = null;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.session.SessionManager;
 import org.forgerock.services.context.Context;
+import org.forgerock.util.Options;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
 
@@ -70,6 +71,17 @@ public final class Filters {
         return new SessionFilter(sessionManager);
     }
 
+    /**
+     * Creates a client side HTTP response cache {@link Filter}.
+     *
+     * @param options The options which will be used to configure the cache.
+     * @return A response cache {@code Filter}.
+     * @see ResponseCacheFilter
+     */
+    public static ResponseCacheFilter newResponseCacheFilter(Options options) {
+        return new ResponseCacheFilter(options);
+    }
+
     /**
      * Creates a {@link Filter} which encapsulates the provided {@literal filters}
      * into a single {@code Filter}.
@@ -0,0 +1,243 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.filter;
+
+import static org.forgerock.http.io.IO.newFileBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.http.io.Buffer;
+import org.forgerock.http.protocol.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A size-bounded store of {@link CachedResponse}s, with an optional disk tier.
+ * <p>
+ * Responses are kept in memory, in least-recently-used order, until the memory limit is reached: the least recently
+ * used ones are then either discarded, or moved to the disk tier (as {@link org.forgerock.http.io.FileBuffer}s) if a
+ * directory has been configured. The disk tier is itself bounded, and its entries are moved back in memory when they
+ * are used again.
+ * <p>
+ * Responses are stored per cache key (the request URI), each key holding the different variants selected by the
+ * {@code Vary} response header.
+ */
+final class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    /** The entries held in memory, in access order. */
+    private final LinkedHashMap<CachedResponse, String> memory = new LinkedHashMap<>(16, 0.75f, true);
+    /** The entries spilled to disk, in access order. */
+    private final LinkedHashMap<CachedResponse, String> disk = new LinkedHashMap<>(16, 0.75f, true);
+    /** The variants stored for each key. */
+    private final Map<String, List<CachedResponse>> variants = new LinkedHashMap<>();
+
+    private final long maxMemorySize;
+    private final File directory;
+    private final long maxDiskSize;
+
+    private long memorySize;
+    private long diskSize;
+    private long evictions;
+
+    ResponseCache(final long maxMemorySize, final File directory, final long maxDiskSize) {
+        this.maxMemorySize = maxMemorySize;
+        this.directory = directory;
+        this.maxDiskSize = directory != null ? maxDiskSize : 0;
+    }
+
+    /**
+     * Returns the stored response matching the given request, or {@code null}.
+     */
+    synchronized CachedResponse get(final String key, final Request request) {
+        final List<CachedResponse> responses = variants.get(key);
+        if (responses == null) {
+            return null;
+        }
+        for (final CachedResponse response : responses) {
+            if (response.matches(request)) {
+                if (response.isOnDisk()) {
+                    if (!promote(response)) {
+                        // The disk storage could not be read, the response has been evicted
+                        return null;
+                    }
+                } else {
+                    // Record the access
+                    memory.get(response);
+                }
+                return response;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the given response, replacing any previously stored variant for the same request headers.
+     */
+    synchronized void put(final String key, final CachedResponse response) {
+        if (response.length() > maxMemorySize) {
+            return;
+        }
+        List<CachedResponse> responses = variants.get(key);
+        if (responses == null) {
+            responses = new ArrayList<>(1);
+            variants.put(key, responses);
+        }
+        for (final Iterator<CachedResponse> i = responses.iterator(); i.hasNext();) {
+            final CachedResponse previous = i.next();
+            if (previous.hasSameVariantAs(response)) {
+                i.remove();
+                forget(previous);
+            }
+        }
+        responses.add(response);
+        memory.put(response, key);
+        memorySize += response.length();
+        evictFromMemory();
+    }
+
+    /**
+     * Removes all the variants stored for the given key.
+     */
+    synchronized void remove(final String key) {
+        final List<CachedResponse> responses = variants.remove(key);
+        if (responses != null) {
+            for (final CachedResponse response : responses) {
+                forget(response);
+            }
+        }
+    }
+
+    /**
+     * Removes all the stored responses, deleting the files of the disk tier.
+     */
+    synchronized void clear() {
+        for (final CachedResponse response : disk.keySet()) {
+            response.discard();
+        }
+        memory.clear();
+        disk.clear();
+        variants.clear();
+        memorySize = 0;
+        diskSize = 0;
+    }
+
+    synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    synchronized long getDiskSize() {
+        return diskSize;
+    }
+
+    synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    synchronized int size() {
+        return memory.size() + disk.size();
+    }
+
+    /** Removes the given response from the tier holding it, without removing it from its variants. */
+    private void forget(final CachedResponse response) {
+        if (memory.remove(response) != null) {
+            memorySize -= response.length();
+        } else if (disk.remove(response) != null) {
+            diskSize -= response.length();
+            response.discard();
+        }
+    }
+
+    private boolean promote(final CachedResponse response) {
+        final String key = disk.remove(response);
+        diskSize -= response.length();
+        try {
+            response.load();
+        } catch (IOException e) {
+            logger.debug("Unable to read the cached response for {} from disk", key, e);
+            response.discard();
+            dropVariant(key, response);
+            return false;
+        }
+        memory.put(response, key);
+        memorySize += response.length();
+        evictFromMemory();
+        return true;
+    }
+
+    private void evictFromMemory() {
+        final Iterator<Map.Entry<CachedResponse, String>> i = memory.entrySet().iterator();
+        while (memorySize > maxMemorySize && i.hasNext()) {
+            final Map.Entry<CachedResponse, String> eldest = i.next();
+            final CachedResponse response = eldest.getKey();
+            i.remove();
+            memorySize -= response.length();
+            if (!spill(eldest.getValue(), response)) {
+                evictions++;
+                dropVariant(eldest.getValue(), response);
+            }
+        }
+    }
+
+    private boolean spill(final String key, final CachedResponse response) {
+        if (response.length() > maxDiskSize) {
+            return false;
+        }
+        File file = null;
+        try {
+            file = File.createTempFile("chf-cache", null, directory);
+            final Buffer buffer = newFileBuffer(file, response.length());
+            response.spillTo(buffer, file);
+        } catch (IOException e) {
+            logger.debug("Unable to move the cached response for {} to disk", key, e);
+            if (file != null) {
+                file.delete();
+            }
+            return false;
+        }
+        disk.put(response, key);
+        diskSize += response.length();
+
+        final Iterator<Map.Entry<CachedResponse, String>> i = disk.entrySet().iterator();
+        while (diskSize > maxDiskSize && i.hasNext()) {
+            final Map.Entry<CachedResponse, String> eldest = i.next();
+            i.remove();
+            diskSize -= eldest.getKey().length();
+            eldest.getKey().discard();
+            evictions++;
+            dropVariant(eldest.getValue(), eldest.getKey());
+        }
+        return true;
+    }
+
+    private void dropVariant(final String key, final CachedResponse response) {
+        final List<CachedResponse> responses = variants.get(key);
+        if (responses != null) {
+            responses.remove(response);
+            if (responses.isEmpty()) {
+                variants.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.filter;
+
+import static org.forgerock.http.filter.CachedResponse.ETAG;
+import static org.forgerock.http.filter.CachedResponse.LAST_MODIFIED;
+import static org.forgerock.http.header.CacheControlHeader.NO_CACHE;
+import static org.forgerock.http.header.CacheControlHeader.NO_STORE;
+import static org.forgerock.http.header.CacheControlHeader.PRIVATE;
+import static org.forgerock.http.header.CacheControlHeader.PUBLIC;
+import static org.forgerock.http.header.CacheControlHeader.S_MAXAGE;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.http.Filter;
+import org.forgerock.http.Handler;
+import org.forgerock.http.header.CacheControlHeader;
+import org.forgerock.http.io.Buffer;
+import org.forgerock.http.io.IO;
+import org.forgerock.http.io.OverflowException;
+import org.forgerock.http.protocol.Entity;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.services.context.Context;
+import org.forgerock.util.AsyncFunction;
+import org.forgerock.util.Option;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ResultHandler;
+import org.forgerock.util.time.TimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A client side HTTP cache, as described in <a href="https://tools.ietf.org/html/rfc7234">RFC 7234</a>, to be placed
+ * in front of an {@link org.forgerock.http.handler.HttpClientHandler} (or of a {@link org.forgerock.http.Client}'s
+ * handler) in order to avoid repeatedly fetching the same resources from a remote server.
+ * <p>
+ * Only the responses to {@code GET} requests are stored. They are served from the cache while they are fresh
+ * (according to their {@code Cache-Control: max-age} or {@code Expires} headers), and are revalidated with a
+ * conditional request when they have an {@code ETag} or a {@code Last-Modified} header once stale. The {@code Vary}
+ * response header is honoured, and {@code no-store} and {@code no-cache} directives are honoured on both requests and
+ * responses.
+ * <p>
+ * As the filter may be shared by all the users of a {@link org.forgerock.http.Client}, it behaves as a shared cache:
+ * responses with a {@code private} directive are never stored, and the responses to requests carrying credentials (an
+ * {@code Authorization} or a {@code Cookie} header) are only stored when they are explicitly marked as shareable with a
+ * {@code public} or {@code s-maxage} directive (RFC 7234 §3.2). Such responses, and the coalescing of concurrent
+ * requests, are then restricted to the requests carrying the same credentials.
+ * <p>
+ * Concurrent identical requests for a resource which is not in the cache are coalesced: only one of them is sent to
+ * the next handler, the others waiting for its response to be stored.
+ * <p>
+ * The filter should be {@link #close() closed} when it is no longer used, in order to delete the files of its disk
+ * storage.
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * Handler handler = Handlers.filtered(new HttpClientHandler(), new ResponseCacheFilter(Options.defaultOptions()));
+ * Client client = new Client(handler);
+ * }
+ * </pre>
+ */
+public class ResponseCacheFilter implements Filter, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    /**
+     * The maximum total size, in bytes, of the response entities held in memory. The default is 16 MB.
+     */
+    public static final Option<Long> OPTION_MAX_MEMORY_SIZE = Option.withDefault(16L * 1_024 * 1_024);
+
+    /**
+     * The maximum size, in bytes, of a response entity that can be stored. Larger responses are not cached. The
+     * default is 1 MB.
+     */
+    public static final Option<Integer> OPTION_MAX_ENTRY_SIZE = Option.withDefault(1_024 * 1_024);
+
+    /**
+     * The directory in which the responses evicted from memory are stored. By default there is no disk storage: the
+     * least recently used responses are discarded when the memory limit is reached.
+     */
+    public static final Option<File> OPTION_DISK_DIRECTORY = Option.of(File.class, null);
+
+    /**
+     * The maximum total size, in bytes, of the response entities stored on disk, when
+     * {@link #OPTION_DISK_DIRECTORY} is set. The default is 256 MB.
+     */
+    public static final Option<Long> OPTION_MAX_DISK_SIZE = Option.withDefault(256L * 1_024 * 1_024);
+
+    /**
+     * The time service used to compute the age of the stored responses. The default is the system time.
+     */
+    public static final Option<TimeService> OPTION_TIME_SERVICE = Option.of(TimeService.class, TimeService.SYSTEM);
+
+    /** Status codes of the responses that can be stored (RFC 7231 §6.1). */
+    private static final Set<Integer> CACHEABLE_STATUS_CODES =
+            new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501));
+
+    /** The {@code 304 Not Modified} status code. */
+    private static final int NOT_MODIFIED = 304;
+
+    /** Methods which do not invalidate the stored responses. */
+    private static final Set<String> SAFE_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "TRACE"));
+
+    /** Request headers indicating that the caller handles the validation itself. */
+    private static final String[] CONDITIONAL_HEADERS = { "If-Match", "If-None-Match", "If-Modified-Since",
+        "If-Unmodified-Since", "If-Range", "Range" };
+
+    private final ResponseCache cache;
+    private final TimeService time;
+    private final int maxEntrySize;
+    private final ConcurrentMap<String, Promise<Void, NeverThrowsException>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Creates a new response cache filter.
+     *
+     * @param options
+     *            The options which will be used to configure the cache.
+     */
+    public ResponseCacheFilter(final Options options) {
+        this.cache = new ResponseCache(options.get(OPTION_MAX_MEMORY_SIZE),
+                                       options.get(OPTION_DISK_DIRECTORY),
+                                       options.get(OPTION_MAX_DISK_SIZE));
+        this.time = options.get(OPTION_TIME_SERVICE);
+        this.maxEntrySize = options.get(OPTION_MAX_ENTRY_SIZE);
+    }
+
+    @Override
+    public Promise<Response, NeverThrowsException> filter(final Context context, final Request request,
+            final Handler next) {
+        if (isUnsafe(request)) {
+            return invalidateAfter(context, request, next);
+        }
+        if (!isCacheable(request)) {
+            return next.handle(context, request);
+        }
+        if (CacheControlHeader.valueOf(request).hasDirective(NO_STORE)) {
+            return next.handle(context, request);
+        }
+        return lookup(context, request, next, request.getUri().toASCIIString(), true);
+    }
+
+    /** Returns the key identifying identical requests, which can be coalesced. */
+    private static String coalescingKey(final String key, final Request request) {
+        final String credentials = CachedResponse.credentialsOf(request);
+        return credentials == null ? key : key + '#' + credentials;
+    }
+
+    private static boolean isUnsafe(final Request request) {
+        return request.getUri() != null && request.getMethod() != null && !SAFE_METHODS.contains(request.getMethod());
+    }
+
+    /** Invalidates the responses stored for the target URI of unsafe requests, once successful (RFC 7234 §4.4). */
+    private Promise<Response, NeverThrowsException> invalidateAfter(final Context context, final Request request,
+            final Handler next) {
+        final String key = request.getUri().toASCIIString();
+        return next.handle(context, request)
+                   .thenOnResult(new ResultHandler<Response>() {
+                       @Override
+                       public void handleResult(final Response response) {
+                           if (response.getStatus() != null
+                                   && (response.getStatus().isSuccessful()
+                                   || response.getStatus().getFamily() == Status.Family.REDIRECTION)) {
+                               cache.remove(key);
+                           }
+                       }
+                   });
+    }
+
+    private static boolean isCacheable(final Request request) {
+        if (!"GET".equals(request.getMethod()) || request.getUri() == null) {
+            return false;
+        }
+        for (final String header : CONDITIONAL_HEADERS) {
+            if (request.getHeaders().containsKey(header)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Promise<Response, NeverThrowsException> lookup(final Context context, final Request request,
+            final Handler next, final String key, final boolean coalesce) {
+        CachedResponse stored = cache.get(key, request);
+        final long now = time.now();
+        if (stored != null && stored.isFresh(now) && !CacheControlHeader.valueOf(request).hasDirective(NO_CACHE)) {
+            try {
+                final Response response = stored.toResponse(now);
+                hits.increment();
+                return newResultPromise(response);
+            } catch (IOException e) {
+                logger.debug("Unable to read the cached response for {}", key, e);
+                cache.remove(key);
+                stored = null;
+            }
+        }
+
+        if (!coalesce) {
+            return fetch(context, request, next, key, stored);
+        }
+        final String pendingKey = coalescingKey(key, request);
+        final PromiseImpl<Void, NeverThrowsException> fetched = PromiseImpl.create();
+        final Promise<Void, NeverThrowsException> inFlight = pending.putIfAbsent(pendingKey, fetched);
+        if (inFlight != null) {
+            // Wait for the identical request in progress, then look the cache up again
+            coalesced.increment();
+            return inFlight.thenAsync(new AsyncFunction<Void, Response, NeverThrowsException>() {
+                @Override
+                public Promise<Response, NeverThrowsException> apply(final Void value) {
+                    return lookup(context, request, next, key, false);
+                }
+            });
+        }
+        return fetch(context, request, next, key, stored).thenAlways(new Runnable() {
+            @Override
+            public void run() {
+                pending.remove(pendingKey, fetched);
+                fetched.handleResult(null);
+            }
+        });
+    }
+
+    private Promise<Response, NeverThrowsException> fetch(final Context context, final Request request,
+            final Handler next, final String key, final CachedResponse stored) {
+        final boolean validating = stored != null && stored.hasValidators();
+        if (validating) {
+            revalidations.increment();
+            addValidators(request, stored);
+        } else {
+            misses.increment();
+        }
+        final long requestTime = time.now();
+        return next.handle(context, request)
+                   .thenAsync(new AsyncFunction<Response, Response, NeverThrowsException>() {
+                       @Override
+                       public Promise<Response, NeverThrowsException> apply(final Response response) {
+                           if (validating) {
+                               removeValidators(request);
+                           }
+                           final long responseTime = time.now();
+                           if (validating && response.getStatus() != null
+                                   && response.getStatus().getCode() == NOT_MODIFIED) {
+                               final Response freshened = freshen(key, stored, response, requestTime, responseTime);
+                               if (freshened != null) {
+                                   return newResultPromise(freshened);
+                               }
+                               // The stored response could not be read, fetch the full response instead
+                               response.close();
+                               return fetch(context, request, next, key, null);
+                           }
+                           store(key, request, response, requestTime, responseTime);
+                           return newResultPromise(response);
+                       }
+                   });
+    }
+
+    /**
+     * Returns the stored response freshened with the provided {@code 304 Not Modified} response, or {@code null} if
+     * the stored response could not be read, in which case it is evicted.
+     */
+    private Response freshen(final String key, final CachedResponse stored, final Response response,
+            final long requestTime, final long responseTime) {
+        stored.freshen(response, requestTime, responseTime);
+        try {
+            final Response freshened = stored.toResponse(responseTime);
+            notModified.increment();
+            response.close();
+            return freshened;
+        } catch (IOException e) {
+            logger.debug("Unable to read the cached response for {}", key, e);
+            cache.remove(key);
+            return null;
+        }
+    }
+
+    private void store(final String key, final Request request, final Response response, final long requestTime,
+            final long responseTime) {
+        if (!isStorable(response)) {
+            // Unsafe or uncacheable responses invalidate the previously stored ones (RFC 7234 §4.4)
+            if (response.getStatus() != null && !response.getStatus().isServerError()) {
+                cache.remove(key);
+            }
+            return;
+        }
+        if (!isShareable(request, response)) {
+            return;
+        }
+        final byte[] entity = readRawEntity(response.getEntity());
+        if (entity == null) {
+            return;
+        }
+        cache.put(key, new CachedResponse(request, response, entity, requestTime, responseTime));
+    }
+
+    private static boolean isStorable(final Response response) {
+        if (response.getStatus() == null || !CACHEABLE_STATUS_CODES.contains(response.getStatus().getCode())) {
+            return false;
+        }
+        if (response.getCause() != null || CachedResponse.isVaryingOnEverything(response)) {
+            return false;
+        }
+        // This cache may be shared, so it must not store private responses (RFC 7234 §3)
+        final CacheControlHeader cacheControl = CacheControlHeader.valueOf(response);
+        if (cacheControl.hasDirective(NO_STORE) || cacheControl.hasDirective(PRIVATE)) {
+            return false;
+        }
+        // Responses without explicit freshness can be stored only if they can be revalidated
+        return CachedResponse.freshnessLifetime(response) >= 0
+                || response.getHeaders().containsKey(ETAG)
+                || response.getHeaders().containsKey(LAST_MODIFIED);
+    }
+
+    /** Responses to requests with credentials must be explicitly marked as shareable (RFC 7234 §3.2). */
+    private static boolean isShareable(final Request request, final Response response) {
+        if (CachedResponse.credentialsOf(request) == null) {
+            return true;
+        }
+        final CacheControlHeader cacheControl = CacheControlHeader.valueOf(response);
+        return cacheControl.hasDirective(PUBLIC) || cacheControl.hasDirective(S_MAXAGE);
+    }
+
+    /**
+     * Reads the raw entity, leaving it untouched for the caller. Returns {@code null} if it is too large to be stored.
+     */
+    private byte[] readRawEntity(final Entity entity) {
+        final Buffer buffer = IO.newMemoryBuffer(IO.DEFAULT_TMP_INIT_LENGTH, maxEntrySize);
+        try {
+            entity.push();
+            try {
+                entity.copyRawContentTo(new OutputStream() {
+                    @Override
+                    public void write(final int b) throws IOException {
+                        buffer.append((byte) b);
+                    }
+
+                    @Override
+                    public void write(final byte[] b, final int off, final int len) throws IOException {
+                        buffer.append(b, off, len);
+                    }
+                });
+            } finally {
+                entity.pop();
+            }
+            final byte[] bytes = new byte[buffer.length()];
+            buffer.read(0, bytes, 0, bytes.length);
+            return bytes;
+        } catch (OverflowException e) {
+            logger.trace("Response entity larger than {} bytes is not cached", maxEntrySize);
+            return null;
+        } catch (IOException e) {
+            logger.debug("Unable to read the response entity", e);
+            return null;
+        }
+    }
+
+    private static void addValidators(final Request request, final CachedResponse stored) {
+        final String etag = stored.getFirstHeader(ETAG);
+        if (etag != null) {
+            request.getHeaders().put("If-None-Match", etag);
+        }
+        final String lastModified = stored.getFirstHeader(LAST_MODIFIED);
+        if (lastModified != null) {
+            request.getHeaders().put("If-Modified-Since", lastModified);
+        }
+    }
+
+    private static void removeValidators(final Request request) {
+        request.getHeaders().remove("If-None-Match");
+        request.getHeaders().remove("If-Modified-Since");
+    }
+
+    /**
+     * Returns the number of requests served from the cache without contacting the next handler.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that had no usable stored response.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of conditional requests sent to revalidate stale stored responses.
+     *
+     * @return The number of revalidations.
+     */
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    /**
+     * Returns the number of revalidations which confirmed that the stored response was still valid (i.e. a
+     * {@code 304 Not Modified} was received), and which have been served from the cache.
+     *
+     * @return The number of successful revalidations.
+     */
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    /**
+     * Returns the number of requests which waited for an identical request in progress instead of being sent.
+     *
+     * @return The number of coalesced requests.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the number of stored responses evicted because of the size limits.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of responses currently stored, in memory and on disk.
+     *
+     * @return The number of stored responses.
+     */
+    public int getSize() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all the stored responses, and deletes the files holding the ones spilled to disk. The filter remains
+     * usable, starting from an empty cache.
+     */
+    @Override
+    public void close() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.header;
+
+import static java.util.Collections.singletonList;
+import static org.forgerock.http.header.HeaderUtil.join;
+import static org.forgerock.http.header.HeaderUtil.parseMultiValuedHeader;
+import static org.forgerock.http.header.HeaderUtil.parseParameter;
+import static org.forgerock.http.header.HeaderUtil.quote;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.forgerock.http.protocol.Header;
+import org.forgerock.http.protocol.Message;
+
+/**
+ * Processes the <strong>{@code Cache-Control}</strong> message header. For
+ * more information, see <a href="https://tools.ietf.org/html/rfc7234#section-5.2">RFC
+ * 7234</a> §5.2.
+ */
+public class CacheControlHeader extends Header {
+    /** The name of this header. */
+    public static final String NAME = "Cache-Control";
+
+    /** The {@code max-age} directive. */
+    public static final String MAX_AGE = "max-age";
+    /** The {@code must-revalidate} directive. */
+    public static final String MUST_REVALIDATE = "must-revalidate";
+    /** The {@code no-cache} directive. */
+    public static final String NO_CACHE = "no-cache";
+    /** The {@code no-store} directive. */
+    public static final String NO_STORE = "no-store";
+    /** The {@code private} directive. */
+    public static final String PRIVATE = "private";
+    /** The {@code public} directive. */
+    public static final String PUBLIC = "public";
+    /** The {@code s-maxage} directive. */
+    public static final String S_MAXAGE = "s-maxage";
+
+    /** The directives (lower case names), with their optional (unquoted) argument, in order. */
+    private final Map<String, String> directives;
+
+    /**
+     * Constructs a new empty header.
+     */
+    public CacheControlHeader() {
+        this(new LinkedHashMap<String, String>(1));
+    }
+
+    /**
+     * Constructs a new header with the provided directives.
+     *
+     * @param directives
+     *            The directives, mapped to their argument or to {@code null} if they have none.
+     */
+    public CacheControlHeader(final Map<String, String> directives) {
+        this.directives = directives;
+    }
+
+    /**
+     * Constructs a new header, initialized from the specified message.
+     *
+     * @param message
+     *            The message to initialize the header from.
+     * @return The parsed header.
+     */
+    public static CacheControlHeader valueOf(final Message message) {
+        return valueOf(parseMultiValuedHeader(message, NAME));
+    }
+
+    /**
+     * Constructs a new header, initialized from the specified string value.
+     *
+     * @param string
+     *            The value to initialize the header from.
+     * @return The parsed header.
+     */
+    public static CacheControlHeader valueOf(final String string) {
+        return valueOf(parseMultiValuedHeader(string));
+    }
+
+    private static CacheControlHeader valueOf(final List<String> values) {
+        final Map<String, String> directives = new LinkedHashMap<>(values.size());
+        for (final String value : values) {
+            final String[] directive = parseParameter(value);
+            if (directive[0] != null && !directive[0].isEmpty()) {
+                directives.put(directive[0].toLowerCase(Locale.ROOT), directive[1]);
+            }
+        }
+        return new CacheControlHeader(directives);
+    }
+
+    /**
+     * Returns {@code true} if this header contains the given directive.
+     *
+     * @param directive
+     *            The directive name, such as {@link #NO_STORE}.
+     * @return {@code true} if this header contains the given directive.
+     */
+    public boolean hasDirective(final String directive) {
+        return directives.containsKey(directive.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the argument of the given directive, as a delta-seconds value.
+     *
+     * @param directive
+     *            The directive name, such as {@link #MAX_AGE}.
+     * @return The directive argument in seconds, or {@code -1} if the directive is absent or is not a valid
+     *         delta-seconds.
+     */
+    public long getDeltaSeconds(final String directive) {
+        final String argument = directives.get(directive.toLowerCase(Locale.ROOT));
+        if (argument == null) {
+            return -1;
+        }
+        try {
+            final long seconds = Long.parseLong(argument.trim());
+            return seconds >= 0 ? seconds : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the directives of this header, mapped to their argument or to {@code null} if they have none.
+     *
+     * @return The directives of this header.
+     */
+    public Map<String, String> getDirectives() {
+        return directives;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<String> getValues() {
+        final List<String> values = new ArrayList<>(directives.size());
+        for (final Map.Entry<String, String> directive : directives.entrySet()) {
+            final String argument = directive.getValue();
+            values.add(argument == null ? directive.getKey() : directive.getKey() + "=" + quoteIfNeeded(argument));
+        }
+        final String joined = join(values, ',');
+        return joined == null ? Collections.<String>emptyList() : singletonList(joined);
+    }
+
+    private static String quoteIfNeeded(final String argument) {
+        // delta-seconds are sent as tokens, other arguments (such as field-names) as quoted-strings
+        for (int i = 0; i < argument.length(); i++) {
+            if (!Character.isDigit(argument.charAt(i))) {
+                return quote(argument);
+            }
+        }
+        return argument.isEmpty() ? quote(argument) : argument;
+    }
+
+    static class Factory extends HeaderFactory<CacheControlHeader> {
+
+        @Override
+        public CacheControlHeader parse(String value) {
+            return valueOf(value);
+        }
+
+        @Override
+        public CacheControlHeader parse(List<String> values) {
+            return valueOf(join(values, ','));
+        }
+    }
+}
@@ -41,6 +41,7 @@ public abstract class HeaderFactory<H extends Header> {
                 {
                     put(AcceptApiVersionHeader.class, AcceptApiVersionHeader.NAME);
                     put(AcceptLanguageHeader.class, AcceptLanguageHeader.NAME);
+                    put(CacheControlHeader.class, CacheControlHeader.NAME);
                     put(ConnectionHeader.class, ConnectionHeader.NAME);
                     put(ContentApiVersionHeader.class, ContentApiVersionHeader.NAME);
                     put(ContentEncodingHeader.class, ContentEncodingHeader.NAME);
@@ -62,6 +63,7 @@ public abstract class HeaderFactory<H extends Header> {
                 {
                     put(AcceptApiVersionHeader.NAME, new AcceptApiVersionHeader.Factory());
                     put(AcceptLanguageHeader.NAME, new AcceptLanguageHeader.Factory());
+                    put(CacheControlHeader.NAME, new CacheControlHeader.Factory());
                     put(ConnectionHeader.NAME, new ConnectionHeader.Factory());
                     put(ContentApiVersionHeader.NAME, new ContentApiVersionHeader.Factory());
                     put(ContentEncodingHeader.NAME, new ContentEncodingHeader.Factory());
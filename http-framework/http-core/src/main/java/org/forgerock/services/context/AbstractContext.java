@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.services.context;
@@ -20,6 +21,12 @@ import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.json.JsonValue;
 import org.forgerock.util.Reject;
@@ -55,11 +62,54 @@ public abstract class AbstractContext implements Context {
     private static final String ATTR_NAME = "name";
     private static final String ATTR_PARENT = "parent";
 
+    /** The next free type slot. */
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    /** The slot assigned to each type, used to index the contexts of a chain by type. */
+    private static final ClassValue<Integer> TYPE_SLOT = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(final Class<?> type) {
+            return NEXT_SLOT.getAndIncrement();
+        }
+    };
+
+    /** The slots of all the types (classes and interfaces) a context class can be assigned to. */
+    private static final ClassValue<int[]> ASSIGNABLE_SLOTS = new ClassValue<int[]>() {
+        @Override
+        protected int[] computeValue(final Class<?> type) {
+            final Set<Class<?>> types = new LinkedHashSet<>();
+            final Deque<Class<?>> toVisit = new ArrayDeque<>();
+            toVisit.add(type);
+            while (!toVisit.isEmpty()) {
+                final Class<?> visited = toVisit.remove();
+                if (types.add(visited)) {
+                    if (visited.getSuperclass() != null) {
+                        toVisit.add(visited.getSuperclass());
+                    }
+                    toVisit.addAll(Arrays.asList(visited.getInterfaces()));
+                }
+            }
+            final int[] slots = new int[types.size()];
+            int i = 0;
+            for (final Class<?> assignable : types) {
+                slots[i++] = TYPE_SLOT.get(assignable);
+            }
+            return slots;
+        }
+    };
+
     /**
      * The parent Context.
      */
     private final Context parent;
 
+    /**
+     * The nearest context of the chain starting at this context that can be assigned to each type, indexed by type
+     * slot. Built once from the index of the parent, so that {@link #asContext(Class)} does not need to walk the
+     * chain.
+     */
+    private final Context[] contextsByType;
+
     /**
      * The Context data.
      */
@@ -90,6 +140,7 @@ public abstract class AbstractContext implements Context {
         }
         data.put(ATTR_NAME, name);
         this.parent = parent;
+        this.contextsByType = indexContextsByType();
     }
 
     /**
@@ -128,6 +179,42 @@ public abstract class AbstractContext implements Context {
         savedContext.remove(ATTR_PARENT);
         data = savedContext.copy();
         this.parent = savedParentContext.isNull() ? null : load0(savedParentContext, classLoader);
+        this.contextsByType = indexContextsByType();
+    }
+
+    private Context[] indexContextsByType() {
+        final int[] slots = ASSIGNABLE_SLOTS.get(getClass());
+        Context[] index;
+        if (parent instanceof AbstractContext) {
+            final Context[] parentIndex = ((AbstractContext) parent).contextsByType;
+            index = Arrays.copyOf(parentIndex, Math.max(parentIndex.length, maxSlot(slots) + 1));
+        } else {
+            // The parent (if any) is not indexed: index its whole chain, nearest contexts first
+            index = new Context[maxSlot(slots) + 1];
+            for (Context context = parent; context != null; context = context.getParent()) {
+                final int[] contextSlots = ASSIGNABLE_SLOTS.get(context.getClass());
+                if (index.length <= maxSlot(contextSlots)) {
+                    index = Arrays.copyOf(index, maxSlot(contextSlots) + 1);
+                }
+                for (final int slot : contextSlots) {
+                    if (index[slot] == null) {
+                        index[slot] = context;
+                    }
+                }
+            }
+        }
+        for (final int slot : slots) {
+            index[slot] = this;
+        }
+        return index;
+    }
+
+    private static int maxSlot(final int[] slots) {
+        int max = -1;
+        for (final int slot : slots) {
+            max = Math.max(max, slot);
+        }
+        return max;
     }
 
     private static Context load0(final JsonValue savedContext, final ClassLoader classLoader) {
@@ -213,18 +300,8 @@ public abstract class AbstractContext implements Context {
     }
 
     private <T extends Context> T asContext0(final Class<T> clazz) {
-        try {
-            for (Context context = this; context != null; context = context.getParent()) {
-                final Class<?> contextClass = context.getClass();
-                if (clazz.isAssignableFrom(contextClass)) {
-                    return contextClass.asSubclass(clazz).cast(context);
-                }
-            }
-            return null;
-        } catch (final Exception e) {
-            throw new IllegalArgumentException(
-                    "Unable to instantiate Context implementation class '" + clazz.getName() + "'", e);
-        }
+        final int slot = TYPE_SLOT.get(clazz);
+        return slot < contextsByType.length ? clazz.cast(contextsByType[slot]) : null;
     }
 
     private Context getContext0(final String contextName) {
@@ -0,0 +1,435 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.http.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.filter.ResponseCacheFilter.OPTION_DISK_DIRECTORY;
+import static org.forgerock.http.filter.ResponseCacheFilter.OPTION_MAX_MEMORY_SIZE;
+import static org.forgerock.http.filter.ResponseCacheFilter.OPTION_TIME_SERVICE;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import org.forgerock.http.Handler;
+import org.forgerock.http.header.HeaderUtil;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.time.TimeService;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ResponseCacheFilterTest {
+
+    private static final String URI = "http://example.com/jwks";
+
+    private long now;
+    private final TimeService time = new TimeService() {
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public long since(final long past) {
+            return now - past;
+        }
+    };
+
+    private RecordingHandler handler;
+
+    @BeforeMethod
+    public void setUp() {
+        now = 1_000_000_000_000L;
+        handler = new RecordingHandler();
+    }
+
+    @Test
+    public void shouldServeFreshResponseFromCache() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        handler.enqueue(response(Status.OK, "keys").setEntity("keys"));
+        handler.responses.peek().getHeaders().put("Cache-Control", "max-age=60");
+
+        assertThat(get(filter).getEntity().getString()).isEqualTo("keys");
+        now += 30_000;
+        Response cached = get(filter);
+
+        assertThat(cached.getStatus()).isEqualTo(Status.OK);
+        assertThat(cached.getEntity().getString()).isEqualTo("keys");
+        assertThat(cached.getHeaders().getFirst("Age")).isEqualTo("30");
+        assertThat(handler.requests).hasSize(1);
+        assertThat(filter.getHitCount()).isEqualTo(1);
+        assertThat(filter.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldHonourExpiresHeader() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "config");
+        response.getHeaders().put("Date", HeaderUtil.formatDate(new Date(now)));
+        response.getHeaders().put("Expires", HeaderUtil.formatDate(new Date(now + 10_000)));
+        handler.enqueue(response);
+        handler.enqueue(response(Status.OK, "new config"));
+
+        get(filter);
+        now += 5_000;
+        assertThat(get(filter).getEntity().getString()).isEqualTo("config");
+        now += 10_000;
+        assertThat(get(filter).getEntity().getString()).isEqualTo("new config");
+        assertThat(handler.requests).hasSize(2);
+    }
+
+    @Test
+    public void shouldRevalidateStaleResponse() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "keys");
+        response.getHeaders().put("Cache-Control", "max-age=10");
+        response.getHeaders().put("ETag", "\"v1\"");
+        handler.enqueue(response);
+        Response notModified = new Response(Status.valueOf(304));
+        notModified.getHeaders().put("Cache-Control", "max-age=60");
+        handler.enqueue(notModified);
+
+        get(filter);
+        now += 20_000;
+        Response revalidated = get(filter);
+
+        assertThat(revalidated.getStatus()).isEqualTo(Status.OK);
+        assertThat(revalidated.getEntity().getString()).isEqualTo("keys");
+        assertThat(handler.requests).hasSize(2);
+        assertThat(handler.conditionalHeaders.get(1)).isEqualTo("\"v1\"");
+        assertThat(filter.getRevalidationCount()).isEqualTo(1);
+        assertThat(filter.getNotModifiedCount()).isEqualTo(1);
+
+        // The freshened response is now fresh for 60 seconds
+        now += 30_000;
+        assertThat(get(filter).getEntity().getString()).isEqualTo("keys");
+        assertThat(handler.requests).hasSize(2);
+    }
+
+    @Test
+    public void shouldReplaceStaleResponseWhenModified() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "v1");
+        response.getHeaders().put("Cache-Control", "no-cache");
+        response.getHeaders().put("Last-Modified", HeaderUtil.formatDate(new Date(now)));
+        handler.enqueue(response);
+        handler.enqueue(response(Status.OK, "v2"));
+
+        get(filter);
+        assertThat(get(filter).getEntity().getString()).isEqualTo("v2");
+        assertThat(handler.conditionalHeaders.get(1)).isNull();
+        assertThat(handler.requests.get(1).getHeaders().getFirst("If-Modified-Since")).isNull();
+        assertThat(filter.getNotModifiedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotStoreNoStoreResponses() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "secret");
+        response.getHeaders().put("Cache-Control", "no-store, max-age=60");
+        handler.enqueue(response);
+        handler.enqueue(response(Status.OK, "secret"));
+
+        get(filter);
+        get(filter);
+
+        assertThat(handler.requests).hasSize(2);
+        assertThat(filter.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotStorePrivateResponses() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "alice");
+        response.getHeaders().put("Cache-Control", "private, max-age=60");
+        handler.enqueue(response);
+        handler.enqueue(response(Status.OK, "bob"));
+
+        get(filter);
+
+        assertThat(get(filter).getEntity().getString()).isEqualTo("bob");
+        assertThat(handler.requests).hasSize(2);
+        assertThat(filter.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldSelectVariants() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response english = response(Status.OK, "hello");
+        english.getHeaders().put("Cache-Control", "max-age=60");
+        english.getHeaders().put("Vary", "Accept-Language");
+        handler.enqueue(english);
+        Response french = response(Status.OK, "bonjour");
+        french.getHeaders().put("Cache-Control", "max-age=60");
+        french.getHeaders().put("Vary", "Accept-Language");
+        handler.enqueue(french);
+
+        assertThat(getWithLanguage(filter, "en").getEntity().getString()).isEqualTo("hello");
+        assertThat(getWithLanguage(filter, "fr").getEntity().getString()).isEqualTo("bonjour");
+        assertThat(getWithLanguage(filter, "en").getEntity().getString()).isEqualTo("hello");
+        assertThat(getWithLanguage(filter, "fr").getEntity().getString()).isEqualTo("bonjour");
+
+        assertThat(handler.requests).hasSize(2);
+        assertThat(filter.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldInvalidateOnUnsafeRequest() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "v1");
+        response.getHeaders().put("Cache-Control", "max-age=60");
+        handler.enqueue(response);
+        handler.enqueue(response(Status.NO_CONTENT, ""));
+        handler.enqueue(response(Status.OK, "v2"));
+
+        get(filter);
+        filter.filter(new RootContext(), new Request().setMethod("PUT").setUri(URI), handler).get();
+
+        assertThat(get(filter).getEntity().getString()).isEqualTo("v2");
+        assertThat(handler.requests).hasSize(3);
+    }
+
+    @Test
+    public void shouldSpillToDisk() throws Exception {
+        File directory = Files.createTempDirectory("response-cache").toFile();
+        try {
+            ResponseCacheFilter filter = newFilter(Options.defaultOptions()
+                                                          .set(OPTION_MAX_MEMORY_SIZE, 6L)
+                                                          .set(OPTION_DISK_DIRECTORY, directory));
+            for (String path : new String[] { "a", "b", "c" }) {
+                Response response = response(Status.OK, "value" + path);
+                response.getHeaders().put("Cache-Control", "max-age=60");
+                handler.enqueue(response);
+                get(filter, URI + "/" + path);
+            }
+            assertThat(directory.listFiles()).hasSize(2);
+
+            assertThat(get(filter, URI + "/a").getEntity().getString()).isEqualTo("valuea");
+            assertThat(get(filter, URI + "/b").getEntity().getString()).isEqualTo("valueb");
+            assertThat(handler.requests).hasSize(3);
+            assertThat(filter.getHitCount()).isEqualTo(2);
+            assertThat(filter.getEvictionCount()).isEqualTo(0);
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void shouldFetchResponsesWhoseDiskFileHasBeenTruncated() throws Exception {
+        File directory = Files.createTempDirectory("response-cache").toFile();
+        try {
+            ResponseCacheFilter filter = newFilter(Options.defaultOptions()
+                                                          .set(OPTION_MAX_MEMORY_SIZE, 6L)
+                                                          .set(OPTION_DISK_DIRECTORY, directory));
+            for (String path : new String[] { "a", "b", "c" }) {
+                Response response = response(Status.OK, "value" + path);
+                response.getHeaders().put("Cache-Control", "max-age=60");
+                handler.enqueue(response);
+                get(filter, URI + "/" + path);
+            }
+            for (File file : directory.listFiles()) {
+                try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+                    truncated.setLength(0);
+                }
+            }
+            handler.enqueue(response(Status.OK, "fetched"));
+
+            assertThat(get(filter, URI + "/a").getEntity().getString()).isEqualTo("fetched");
+            assertThat(handler.requests).hasSize(4);
+            assertThat(filter.getHitCount()).isEqualTo(0);
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void shouldDeleteDiskFilesOnClose() throws Exception {
+        File directory = Files.createTempDirectory("response-cache").toFile();
+        try {
+            ResponseCacheFilter filter = newFilter(Options.defaultOptions()
+                                                          .set(OPTION_MAX_MEMORY_SIZE, 6L)
+                                                          .set(OPTION_DISK_DIRECTORY, directory));
+            for (String path : new String[] { "a", "b", "c" }) {
+                Response response = response(Status.OK, "value" + path);
+                response.getHeaders().put("Cache-Control", "max-age=60");
+                handler.enqueue(response);
+                get(filter, URI + "/" + path);
+            }
+            assertThat(directory.listFiles()).hasSize(2);
+
+            filter.close();
+
+            assertThat(directory.listFiles()).isEmpty();
+            assertThat(filter.getSize()).isEqualTo(0);
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResponses() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions().set(OPTION_MAX_MEMORY_SIZE, 12L));
+        for (String path : new String[] { "a", "b", "c" }) {
+            Response response = response(Status.OK, "value" + path);
+            response.getHeaders().put("Cache-Control", "max-age=60");
+            handler.enqueue(response);
+            get(filter, URI + "/" + path);
+        }
+
+        assertThat(filter.getSize()).isEqualTo(2);
+        assertThat(filter.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentRequests() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        PromiseImpl<Response, NeverThrowsException> pending = PromiseImpl.create();
+        handler.pending = pending;
+
+        Promise<Response, NeverThrowsException> first =
+                filter.filter(new RootContext(), new Request().setMethod("GET").setUri(URI), handler);
+        Promise<Response, NeverThrowsException> second =
+                filter.filter(new RootContext(), new Request().setMethod("GET").setUri(URI), handler);
+        assertThat(first.isDone()).isFalse();
+        assertThat(second.isDone()).isFalse();
+
+        Response response = response(Status.OK, "keys");
+        response.getHeaders().put("Cache-Control", "max-age=60");
+        pending.handleResult(response);
+
+        assertThat(first.get().getEntity().getString()).isEqualTo("keys");
+        assertThat(second.get().getEntity().getString()).isEqualTo("keys");
+        assertThat(handler.requests).hasSize(1);
+        assertThat(filter.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotStorePrivateResponsesToRequestsWithCredentials() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "alice");
+        response.getHeaders().put("Cache-Control", "max-age=60");
+        handler.enqueue(response);
+        handler.enqueue(response(Status.OK, "bob"));
+
+        assertThat(getWithAuthorization(filter, "Bearer alice").getEntity().getString()).isEqualTo("alice");
+        assertThat(getWithAuthorization(filter, "Bearer bob").getEntity().getString()).isEqualTo("bob");
+
+        assertThat(handler.requests).hasSize(2);
+        assertThat(filter.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldNotServeSharedResponsesToRequestsWithOtherCredentials() throws Exception {
+        ResponseCacheFilter filter = newFilter(Options.defaultOptions());
+        Response response = response(Status.OK, "alice");
+        response.getHeaders().put("Cache-Control", "public, max-age=60");
+        handler.enqueue(response);
+        Response other = response(Status.OK, "bob");
+        other.getHeaders().put("Cache-Control", "s-maxage=60, max-age=60");
+        handler.enqueue(other);
+
+        assertThat(getWithAuthorization(filter, "Bearer alice").getEntity().getString()).isEqualTo("alice");
+        assertThat(getWithAuthorization(filter, "Bearer bob").getEntity().getString()).isEqualTo("bob");
+        assertThat(getWithAuthorization(filter, "Bearer alice").getEntity().getString()).isEqualTo("alice");
+        assertThat(getWithAuthorization(filter, "Bearer bob").getEntity().getString()).isEqualTo("bob");
+
+        assertThat(handler.requests).hasSize(2);
+        assertThat(filter.getSize()).isEqualTo(2);
+    }
+
+    private ResponseCacheFilter newFilter(final Options options) {
+        return new ResponseCacheFilter(options.set(OPTION_TIME_SERVICE, time));
+    }
+
+    private Response get(final ResponseCacheFilter filter) throws Exception {
+        return get(filter, URI);
+    }
+
+    private Response get(final ResponseCacheFilter filter, final String uri) throws Exception {
+        return filter.filter(new RootContext(), new Request().setMethod("GET").setUri(uri), handler).get();
+    }
+
+    private Response get(final ResponseCacheFilter filter, final String uri, final String language)
+            throws Exception {
+        Request request = new Request().setMethod("GET").setUri(uri);
+        request.getHeaders().put("Accept-Language", language);
+        return filter.filter(new RootContext(), request, handler).get();
+    }
+
+    private Response getWithAuthorization(final ResponseCacheFilter filter, final String authorization)
+            throws Exception {
+        Request request = new Request().setMethod("GET").setUri(URI);
+        request.getHeaders().put("Authorization", authorization);
+        return filter.filter(new RootContext(), request, handler).get();
+    }
+
+    private Response getWithLanguage(final ResponseCacheFilter filter, final String language) throws Exception {
+        return get(filter, URI, language);
+    }
+
+    private static Response response(final Status status, final String entity) {
+        Response response = new Response(status);
+        response.setEntity(entity);
+        return response;
+    }
+
+    /** Returns the enqueued responses in order, and records the received requests. */
+    private static final class RecordingHandler implements Handler {
+        private final Queue<Response> responses = new LinkedList<>();
+        private final List<Request> requests = new ArrayList<>();
+        private final List<String> conditionalHeaders = new ArrayList<>();
+        private PromiseImpl<Response, NeverThrowsException> pending;
+
+        void enqueue(final Response response) {
+            responses.add(response);
+        }
+
+        @Override
+        public Promise<Response, NeverThrowsException> handle(final Context context, final Request request) {
+            requests.add(request);
+            conditionalHeaders.add(request.getHeaders().getFirst("If-None-Match"));
+            if (pending != null) {
+                return pending;
+            }
+            return newResultPromise(responses.remove());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.http.header;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.header.CacheControlHeader.MAX_AGE;
+import static org.forgerock.http.header.CacheControlHeader.NAME;
+import static org.forgerock.http.header.CacheControlHeader.NO_CACHE;
+import static org.forgerock.http.header.CacheControlHeader.NO_STORE;
+import static org.forgerock.http.header.CacheControlHeader.PRIVATE;
+
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the cache control header class.
+ * Header field example :<pre>
+ * Cache-Control: private, max-age=60
+ * </pre>
+ */
+@SuppressWarnings("javadoc")
+public class CacheControlHeaderTest {
+
+    @Test(dataProvider = "nullOrEmptyDataProvider", dataProviderClass = StaticProvider.class)
+    public void testCacheControlHeaderAllowsNullOrEmptyString(final String header) {
+        assertThat(CacheControlHeader.valueOf(header).getDirectives()).isEmpty();
+    }
+
+    @Test
+    public void testCacheControlHeaderFromString() {
+        final CacheControlHeader header = CacheControlHeader.valueOf("Private, max-age=60, no-cache=\"Set-Cookie\"");
+
+        assertThat(header.getName()).isEqualTo(NAME);
+        assertThat(header.hasDirective(PRIVATE)).isTrue();
+        assertThat(header.hasDirective(NO_CACHE)).isTrue();
+        assertThat(header.hasDirective(NO_STORE)).isFalse();
+        assertThat(header.getDeltaSeconds(MAX_AGE)).isEqualTo(60);
+        assertThat(header.getDirectives()).containsEntry(NO_CACHE, "Set-Cookie");
+    }
+
+    @Test
+    public void testCacheControlHeaderFromMultipleMessageHeaders() {
+        final Response response = new Response(Status.OK);
+        response.getHeaders().add(NAME, "no-store");
+        response.getHeaders().add(NAME, "max-age=10");
+
+        final CacheControlHeader header = CacheControlHeader.valueOf(response);
+
+        assertThat(header.hasDirective(NO_STORE)).isTrue();
+        assertThat(header.getDeltaSeconds(MAX_AGE)).isEqualTo(10);
+    }
+
+    @Test
+    public void testInvalidDeltaSeconds() {
+        assertThat(CacheControlHeader.valueOf("max-age=soon").getDeltaSeconds(MAX_AGE)).isEqualTo(-1);
+        assertThat(CacheControlHeader.valueOf("max-age=-5").getDeltaSeconds(MAX_AGE)).isEqualTo(-1);
+        assertThat(CacheControlHeader.valueOf("no-cache").getDeltaSeconds(MAX_AGE)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testCacheControlHeaderToMessage() throws Exception {
+        final Response response = new Response(Status.OK);
+        response.getHeaders().put(CacheControlHeader.valueOf("public, max-age=3600, no-cache=\"Set-Cookie, Date\""));
+
+        assertThat(response.getHeaders().get(NAME).getValues())
+                .containsExactly("public, max-age=3600, no-cache=\"Set-Cookie, Date\"");
+        assertThat(response.getHeaders().get(CacheControlHeader.class).getDeltaSeconds(MAX_AGE)).isEqualTo(3600);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.services.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.forgerock.json.JsonValue;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class AbstractContextTest {
+
+    private static final Map<String, Object> NO_AUTHORIZATION = Collections.emptyMap();
+
+    @Test
+    public void shouldFindNearestContextOfType() {
+        RootContext root = new RootContext("root");
+        AttributesContext farthest = new AttributesContext(root);
+        SecurityContext security = new SecurityContext(farthest, "bjensen", NO_AUTHORIZATION);
+        AttributesContext nearest = new AttributesContext(security);
+
+        assertThat(nearest.asContext(AttributesContext.class)).isSameAs(nearest);
+        assertThat(nearest.asContext(SecurityContext.class)).isSameAs(security);
+        assertThat(nearest.asContext(RootContext.class)).isSameAs(root);
+        assertThat(security.asContext(AttributesContext.class)).isSameAs(farthest);
+        assertThat(nearest.asContext(Context.class)).isSameAs(nearest);
+        assertThat(security.asContext(AbstractContext.class)).isSameAs(security);
+        assertThat(nearest.containsContext(RootContext.class)).isTrue();
+    }
+
+    @Test
+    public void shouldFindContextByInterface() {
+        MarkerContext marker = new MarkerContext(new RootContext());
+        AttributesContext child = new AttributesContext(marker);
+
+        assertThat(child.asContext(Marker.class)).isSameAs(marker);
+        assertThat(new RootContext().containsContext(Marker.class)).isFalse();
+    }
+
+    @Test
+    public void shouldNotFindMissingContext() {
+        AttributesContext context = new AttributesContext(new RootContext());
+
+        assertThat(context.containsContext(SecurityContext.class)).isFalse();
+        assertThat(context.containsContext(MarkerContext.class)).isFalse();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailWhenContextIsMissing() {
+        new AttributesContext(new RootContext()).asContext(SecurityContext.class);
+    }
+
+    @Test
+    public void shouldIndexChainOfNonAbstractContext() {
+        RootContext root = new RootContext();
+        Context custom = mock(Context.class);
+        when(custom.getParent()).thenReturn(root);
+        AttributesContext child = new AttributesContext(custom);
+
+        assertThat(child.asContext(RootContext.class)).isSameAs(root);
+        assertThat(child.asContext(custom.getClass())).isSameAs(custom);
+    }
+
+    @Test
+    public void shouldIndexDeserializedContexts() {
+        SecurityContext security = new SecurityContext(new RootContext("root"), "bjensen", NO_AUTHORIZATION);
+        JsonValue saved = new AttributesContext(security).toJsonValue();
+
+        AttributesContext loaded = new AttributesContext(saved.copy(), getClass().getClassLoader());
+
+        assertThat(loaded.asContext(SecurityContext.class).getAuthenticationId()).isEqualTo("bjensen");
+        assertThat(loaded.asContext(RootContext.class).getId()).isEqualTo("root");
+        assertThat(loaded.toJsonValue().getObject()).isEqualTo(saved.getObject());
+    }
+
+    interface Marker extends Context {
+    }
+
+    static final class MarkerContext extends AbstractContext implements Marker {
+        MarkerContext(final Context parent) {
+            super(parent, "marker");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.i18n.slf4j;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+
+/**
+ * Measures the throughput of {@link LocalizedLogger} for a message with three arguments logged at the INFO level,
+ * which is enabled, and at the DEBUG level, which is disabled. The same message is declared in two message files,
+ * one of which is generated with a renderer ({@link RenderedMessages}) and the other one without
+ * ({@link FormattedMessages}).
+ * <p>
+ * The underlying SLF4J logger only keeps a reference to the last message it has been given, so that the benchmark
+ * measures the cost of building and rendering messages rather than the cost of writing them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class LocalizedLoggerBenchmark {
+
+    private LocalizedLogger logger;
+    private LastMessageHandler handler;
+    private long connectionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        handler = new LastMessageHandler();
+        final Logger infoLogger = (Logger) Proxy.newProxyInstance(
+                Logger.class.getClassLoader(), new Class<?>[] { Logger.class }, handler);
+        // Render the messages in the locale of the message files.
+        logger = new LocalizedLogger(infoLogger, Locale.ROOT);
+    }
+
+    @Benchmark
+    public Object testInfoFormatted() {
+        logger.info(FormattedMessages.CONNECTION_ACCEPTED, connectionId++, "192.0.2.1:51234", "0.0.0.0:1389");
+        return handler.lastMessage;
+    }
+
+    @Benchmark
+    public Object testInfoRendered() {
+        logger.info(RenderedMessages.CONNECTION_ACCEPTED, connectionId++, "192.0.2.1:51234", "0.0.0.0:1389");
+        return handler.lastMessage;
+    }
+
+    @Benchmark
+    public Object testDebugFormatted() {
+        logger.debug(FormattedMessages.CONNECTION_ACCEPTED, connectionId++, "192.0.2.1:51234", "0.0.0.0:1389");
+        return handler.lastMessage;
+    }
+
+    @Benchmark
+    public Object testDebugRendered() {
+        logger.debug(RenderedMessages.CONNECTION_ACCEPTED, connectionId++, "192.0.2.1:51234", "0.0.0.0:1389");
+        return handler.lastMessage;
+    }
+
+    /** An SLF4J logger enabled at the INFO level, which keeps a reference to the last message it has been given. */
+    private static final class LastMessageHandler implements InvocationHandler {
+        private Object lastMessage;
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            final String name = method.getName();
+            if (name.startsWith("is") && name.endsWith("Enabled")) {
+                return !name.equals("isDebugEnabled") && !name.equals("isTraceEnabled");
+            } else if (method.getReturnType() == String.class) {
+                return "benchmark";
+            } else if (args != null) {
+                lastMessage = args[args.length - 1];
+            }
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LocalizedLoggerBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
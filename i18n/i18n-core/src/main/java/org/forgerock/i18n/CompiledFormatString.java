@@ -0,0 +1,300 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyrighted [year] [name of copyright owner]".
+ *
+ *      Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.i18n;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+
+/**
+ * A format string compiled for a particular locale into literal segments and
+ * typed argument slots, so that messages can be rendered without parsing the
+ * format string each time.
+ * <p>
+ * Only the specifiers which messages use most often are compiled: {@code %s}
+ * and {@code %d}, optionally with an explicit argument index such as
+ * {@code %2$s}, as well as the {@code %%} and {@code %n} literals. Format
+ * strings containing any other specifier, flags, width or precision are
+ * rendered using a {@link Formatter}, as are arguments whose rendering is not
+ * trivial. The output is the same as the output of
+ * {@link Formatter#format(Locale, String, Object...)} whenever the arguments
+ * match the format string.
+ */
+final class CompiledFormatString {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /**
+     * Compiles the provided format string for the provided locale. Format
+     * strings which cannot be compiled, including invalid format strings, are
+     * rendered using a {@link Formatter}.
+     *
+     * @param formatString
+     *            The format string.
+     * @param locale
+     *            The locale in which messages will be rendered.
+     * @return The compiled format string.
+     */
+    static CompiledFormatString compile(final String formatString, final Locale locale) {
+        final StringBuilder literal = new StringBuilder();
+        final String[] literals = new String[formatString.length() / 2 + 1];
+        final int[] argumentIndexes = new int[literals.length];
+        final char[] conversions = new char[literals.length];
+        int slots = 0;
+        int ordinaryIndex = 0;
+        int i = 0;
+        while (i < formatString.length()) {
+            final char c = formatString.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            int argumentIndex = -1;
+            int j = i;
+            while (j < formatString.length() && isDigit(formatString.charAt(j))) {
+                j++;
+            }
+            if (j > i && j < formatString.length() && formatString.charAt(j) == '$'
+                    && formatString.charAt(i) != '0' && j - i < 10) {
+                argumentIndex = Integer.parseInt(formatString.substring(i, j)) - 1;
+                i = j + 1;
+            }
+            final char conversion = i < formatString.length() ? formatString.charAt(i++) : 0;
+            if (argumentIndex < 0 && conversion == '%') {
+                literal.append('%');
+            } else if (argumentIndex < 0 && conversion == 'n') {
+                literal.append(LINE_SEPARATOR);
+            } else if (conversion == 's' || conversion == 'd') {
+                literals[slots] = literal.toString();
+                literal.setLength(0);
+                argumentIndexes[slots] = argumentIndex < 0 ? ordinaryIndex++ : argumentIndex;
+                conversions[slots] = conversion;
+                slots++;
+            } else {
+                return new CompiledFormatString(formatString, locale);
+            }
+        }
+        literals[slots] = literal.toString();
+        return new CompiledFormatString(formatString, locale, copyOf(literals, slots + 1),
+                copyOf(argumentIndexes, slots), copyOf(conversions, slots));
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String[] copyOf(final String[] a, final int length) {
+        final String[] copy = new String[length];
+        System.arraycopy(a, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static int[] copyOf(final int[] a, final int length) {
+        final int[] copy = new int[length];
+        System.arraycopy(a, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static char[] copyOf(final char[] a, final int length) {
+        final char[] copy = new char[length];
+        System.arraycopy(a, 0, copy, 0, length);
+        return copy;
+    }
+
+    private final String formatString;
+    private final Locale locale;
+
+    /*
+     * The literal segments surrounding the argument slots, or null if the
+     * format string must be rendered using a Formatter. There is one more
+     * literal segment than there are argument slots.
+     */
+    private final String[] literals;
+
+    // The zero-based index of the argument of each slot.
+    private final int[] argumentIndexes;
+
+    // The conversion of each slot, either 's' or 'd'.
+    private final char[] conversions;
+
+    // Whether integers are rendered using ASCII digits in this locale.
+    private final boolean asciiDigits;
+
+    // The renderer generated for this format string, or null if there is none.
+    private final LocalizableMessageRenderer renderer;
+
+    // The index of the message in the renderer.
+    private final int message;
+
+    private CompiledFormatString(final String formatString, final Locale locale) {
+        this(formatString, locale, null, null, null);
+    }
+
+    private CompiledFormatString(final String formatString, final Locale locale,
+            final String[] literals, final int[] argumentIndexes, final char[] conversions) {
+        this.formatString = formatString;
+        this.locale = locale;
+        this.literals = literals;
+        this.argumentIndexes = argumentIndexes;
+        this.conversions = conversions;
+        this.asciiDigits = literals != null && conversions.length > 0
+                && DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+        this.renderer = null;
+        this.message = -1;
+    }
+
+    private CompiledFormatString(final CompiledFormatString compiled,
+            final LocalizableMessageRenderer renderer, final int message) {
+        this.formatString = compiled.formatString;
+        this.locale = compiled.locale;
+        this.literals = compiled.literals;
+        this.argumentIndexes = compiled.argumentIndexes;
+        this.conversions = compiled.conversions;
+        this.asciiDigits = compiled.asciiDigits;
+        this.renderer = renderer;
+        this.message = message;
+    }
+
+    /**
+     * Returns a copy of this format string which is rendered by the provided
+     * renderer whenever possible, or this format string if the generated code
+     * would not render it as a {@link Formatter} would in this locale. The
+     * provided renderer must have been generated from this format string.
+     *
+     * @param renderer
+     *            The renderer generated for this format string.
+     * @param message
+     *            The index of the message in the renderer.
+     * @return The format string rendered by the provided renderer, or this
+     *         format string.
+     */
+    CompiledFormatString withRenderer(final LocalizableMessageRenderer renderer, final int message) {
+        if (literals == null) {
+            return this;
+        }
+        for (final char conversion : conversions) {
+            // Generated code renders integers using ASCII digits.
+            if (conversion == 'd' && !asciiDigits) {
+                return this;
+            }
+        }
+        return new CompiledFormatString(this, renderer, message);
+    }
+
+    /**
+     * Returns the format string which has been compiled.
+     *
+     * @return The format string.
+     */
+    String getFormatString() {
+        return formatString;
+    }
+
+    /**
+     * Returns the locale for which the format string has been compiled.
+     *
+     * @return The locale.
+     */
+    Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Returns {@code true} if this format string is rendered without using a
+     * {@link Formatter}, except for arguments whose rendering is not trivial.
+     *
+     * @return {@code true} if this format string has been compiled into literal
+     *         segments and argument slots.
+     */
+    boolean isCompiled() {
+        return literals != null;
+    }
+
+    /**
+     * Appends this format string formatted with the provided arguments to the
+     * provided builder. If the arguments do not match the format string then
+     * the format string itself is appended, as is.
+     *
+     * @param builder
+     *            The builder to which the formatted string should be appended.
+     * @param args
+     *            The arguments.
+     */
+    @SuppressWarnings("resource")
+    void appendTo(final StringBuilder builder, final Object[] args) {
+        if (renderer != null && args != null && renderer.appendTo(message, builder, args)) {
+            return;
+        }
+        final int start = builder.length();
+        try {
+            if (literals == null) {
+                new Formatter(builder, locale).format(locale, formatString, args);
+                return;
+            }
+            for (int slot = 0; slot < conversions.length; slot++) {
+                builder.append(literals[slot]);
+                final int argumentIndex = argumentIndexes[slot];
+                if (args == null) {
+                    // Consistent with the Formatter.
+                    appendArgument(builder, conversions[slot], null);
+                    continue;
+                }
+                if (argumentIndex >= args.length) {
+                    // The Formatter would throw a MissingFormatArgumentException.
+                    builder.setLength(start);
+                    builder.append(formatString);
+                    return;
+                }
+                appendArgument(builder, conversions[slot], args[argumentIndex]);
+            }
+            builder.append(literals[conversions.length]);
+        } catch (final IllegalFormatException e) {
+            // This should not happen with any of our internal messages.
+            // However, this may happen for raw messages that have a
+            // mismatch between argument specifier type and argument type.
+            builder.setLength(start);
+            builder.append(formatString);
+        }
+    }
+
+    @SuppressWarnings("resource")
+    private void appendArgument(final StringBuilder builder, final char conversion, final Object arg) {
+        if (arg == null) {
+            builder.append("null");
+        } else if (conversion == 's') {
+            if (arg instanceof LocalizableMessage) {
+                ((LocalizableMessage) arg).appendTo(builder, locale);
+            } else if (arg instanceof Formattable) {
+                ((Formattable) arg).formatTo(new Formatter(builder, locale), 0, -1, -1);
+            } else {
+                builder.append(arg.toString());
+            }
+        } else if (asciiDigits && (arg instanceof Integer || arg instanceof Long
+                || arg instanceof Short || arg instanceof Byte)) {
+            builder.append(((Number) arg).longValue());
+        } else {
+            new Formatter(builder, locale).format(locale, "%d", arg);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return formatString;
+    }
+}
@@ -13,6 +13,7 @@
  *
  *      Copyright 2009 Sun Microsystems, Inc.
  *      Portions copyright 2011-2012 ForgeRock AS
+ *      Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.i18n;
@@ -65,6 +66,23 @@ public final class LocalizableMessage implements CharSequence, Formattable,
     // closed.
     private static final boolean IS_AIX_POST5 = isAIXPost5();
 
+    /**
+     * The largest builder which is kept for rendering the next messages of a
+     * thread, so that rendering a huge message does not pin its memory.
+     */
+    private static final int MAX_CACHED_BUILDER_CAPACITY = 4096;
+
+    /**
+     * The builder used for rendering messages by each thread, or {@code null}
+     * while it is in use.
+     */
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder();
+        }
+    };
+
     /**
      * Creates an non-localizable message whose {@code String} representation is
      * always the same regardless of the requested locale.
@@ -442,57 +460,76 @@ public final class LocalizableMessage implements CharSequence, Formattable,
      * @throws NullPointerException
      *             If {@code locale} was {@code null}.
      */
-    @SuppressWarnings("resource")
     public String toString(final Locale locale) {
-        String s;
-        final String fmt = descriptor.getFormatString(locale);
-        if (descriptor.requiresFormatter()) {
-            try {
-                // TODO: remove this code once the JDK issue referenced in 3077
-                // is closed.
-                if (IS_AIX_POST5) {
-                    // Java 6 in AIX Formatter does not handle properly
-                    // Formattable arguments; this code is a workaround for the
-                    // problem.
-                    boolean changeType = false;
-                    for (final Object o : args) {
-                        if (o instanceof Formattable) {
-                            changeType = true;
-                            break;
-                        }
-                    }
-                    if (changeType) {
-                        final Object[] newArgs = new Object[args.length];
-                        for (int i = 0; i < args.length; i++) {
-                            if (args[i] instanceof Formattable) {
-                                newArgs[i] = args[i].toString();
-                            } else {
-                                newArgs[i] = args[i];
-                            }
-                        }
-                        s = new Formatter(locale).format(locale, fmt, newArgs)
-                                .toString();
+        StringBuilder builder = BUILDER.get();
+        if (builder == null) {
+            // The builder is in use by a message being rendered by this thread.
+            builder = new StringBuilder();
+        } else {
+            BUILDER.set(null);
+        }
+        try {
+            appendTo(builder, locale);
+            return builder.toString();
+        } finally {
+            if (builder.capacity() <= MAX_CACHED_BUILDER_CAPACITY) {
+                builder.setLength(0);
+                BUILDER.set(builder);
+            }
+        }
+    }
+
+    /**
+     * Appends the {@code String} representation of this message in the
+     * specified locale to the provided {@code StringBuilder}. This avoids the
+     * creation of an intermediate {@code String} when the message is rendered
+     * as part of a larger string.
+     *
+     * @param builder
+     *            The builder to which the message should be appended.
+     * @param locale
+     *            The locale.
+     * @return The provided builder.
+     * @throws NullPointerException
+     *             If {@code locale} was {@code null}.
+     */
+    public StringBuilder appendTo(final StringBuilder builder, final Locale locale) {
+        if (!descriptor.requiresFormatter()) {
+            final String fmt = descriptor.getFormatString(locale);
+            if (fmt != null) {
+                builder.append(fmt);
+            }
+            return builder;
+        }
+        final CompiledFormatString fmt = descriptor.getCompiledFormatString(locale);
+        // TODO: remove this code once the JDK issue referenced in 3077
+        // is closed.
+        if (IS_AIX_POST5 && !fmt.isCompiled()) {
+            // Java 6 in AIX Formatter does not handle properly
+            // Formattable arguments; this code is a workaround for the
+            // problem.
+            boolean changeType = false;
+            for (final Object o : args) {
+                if (o instanceof Formattable) {
+                    changeType = true;
+                    break;
+                }
+            }
+            if (changeType) {
+                final Object[] newArgs = new Object[args.length];
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] instanceof Formattable) {
+                        newArgs[i] = args[i].toString();
                     } else {
-                        s = new Formatter(locale).format(locale, fmt, args)
-                                .toString();
+                        newArgs[i] = args[i];
                     }
-                } else {
-                    s = new Formatter(locale).format(locale, fmt, args)
-                            .toString();
                 }
-            } catch (final IllegalFormatException e) {
-                // This should not happen with any of our internal messages.
-                // However, this may happen for raw messages that have a
-                // mismatch between argument specifier type and argument type.
-                s = fmt;
+                fmt.appendTo(builder, newArgs);
+                return builder;
             }
-        } else {
-            s = fmt;
-        }
-        if (s == null) {
-            s = "";
         }
-        return s;
+        fmt.appendTo(builder, args);
+        return builder;
     }
 
 }
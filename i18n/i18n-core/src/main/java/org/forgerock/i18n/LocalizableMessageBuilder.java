@@ -13,6 +13,7 @@
  *
  *      Copyright 2007-2009 Sun Microsystems, Inc.
  *      Portions copyright 2011 ForgeRock AS
+ *      Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.i18n;
@@ -355,7 +356,7 @@ public final class LocalizableMessageBuilder implements Appendable,
     public String toString(final Locale locale) {
         final StringBuilder builder = new StringBuilder();
         for (final LocalizableMessage message : messages) {
-            builder.append(message.toString(locale));
+            message.appendTo(builder, locale);
         }
         return builder.toString();
     }
@@ -13,12 +13,15 @@
  *
  *      Copyright 2009 Sun Microsystems, Inc.
  *      Portions copyright 2011 ForgeRock AS
+ *      Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.i18n;
 
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * An opaque handle to a localizable message.
@@ -132,6 +135,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg1(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -192,6 +226,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg2(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -256,6 +321,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg3(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -324,6 +420,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg4(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -397,6 +524,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg5(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -474,6 +632,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg6(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -555,6 +744,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg7(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -640,6 +860,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg8(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -729,6 +980,37 @@ public final class LocalizableMessageDescriptor {
             super(sourceClass, resourceName, key, ordinal);
         }
 
+        /**
+         * Creates a parameterized instance which is rendered by the provided
+         * renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined. This class
+         *            will be used to obtain the {@code ClassLoader} for
+         *            retrieving the {@code ResourceBundle}. The class may also
+         *            be retrieved in order to uniquely identify the source of a
+         *            message, for example using
+         *            {@code getClass().getPackage().getName()}.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined. A message can be uniquely identified by its
+         *            ordinal and class.
+         * @param renderer
+         *            The renderer generated for the message.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        public Arg9(final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
+            super(sourceClass, resourceName, key, ordinal, renderer, message);
+        }
+
         /**
          * Creates a message with arguments that will replace format specifiers
          * in the associated format string when the message is rendered to
@@ -831,19 +1113,11 @@ public final class LocalizableMessageDescriptor {
      */
     abstract static class AbstractLocalizableMessageDescriptor {
         /**
-         * Container for caching the last locale specific format string.
+         * The maximum number of locales for which the compiled format strings
+         * of a descriptor are cached. Services rarely render messages in more
+         * locales than this, and when they do the cache is simply cleared.
          */
-        private static final class CachedFormatString {
-            private final Locale locale;
-
-            private final String formatString;
-
-            private CachedFormatString(final Locale locale,
-                    final String formatString) {
-                this.locale = locale;
-                this.formatString = formatString;
-            }
-        }
+        private static final int MAX_CACHED_LOCALES = 16;
 
         // Used for accessing format string from the resource bundle.
         private final String key;
@@ -867,8 +1141,15 @@ public final class LocalizableMessageDescriptor {
          */
         private final int ordinal;
 
-        // It's ok if there are race conditions.
-        private CachedFormatString cachedFormatString = null;
+        // The renderer generated for this message, or null if there is none.
+        private final LocalizableMessageRenderer renderer;
+
+        // The index of this message in the renderer.
+        private final int message;
+
+        // The format strings compiled for each locale in which this message has been rendered.
+        private final ConcurrentMap<Locale, CompiledFormatString> compiledFormatStrings =
+                new ConcurrentHashMap<Locale, CompiledFormatString>();
 
         /**
          * Creates a parameterized message descriptor.
@@ -893,10 +1174,39 @@ public final class LocalizableMessageDescriptor {
         private AbstractLocalizableMessageDescriptor(
                 final Class<?> sourceClass, final String resourceName,
                 final String key, final int ordinal) {
+            this(sourceClass, resourceName, key, ordinal, null, -1);
+        }
+
+        /**
+         * Creates a parameterized message descriptor which is rendered by the
+         * provided renderer whenever possible.
+         *
+         * @param sourceClass
+         *            The class in which this descriptor is defined.
+         * @param resourceName
+         *            The name of the resource bundle containing the localizable
+         *            message.
+         * @param key
+         *            The resource bundle property key.
+         * @param ordinal
+         *            The ordinal associated with this descriptor or {@code -1}
+         *            if undefined.
+         * @param renderer
+         *            The renderer generated for the message, or {@code null} if
+         *            there is none.
+         * @param message
+         *            The index of the message in the renderer.
+         */
+        private AbstractLocalizableMessageDescriptor(
+                final Class<?> sourceClass, final String resourceName,
+                final String key, final int ordinal,
+                final LocalizableMessageRenderer renderer, final int message) {
             this.sourceClass = sourceClass;
             this.resourceName = resourceName;
             this.key = key;
             this.ordinal = ordinal;
+            this.renderer = renderer;
+            this.message = message;
         }
 
         /**
@@ -920,23 +1230,45 @@ public final class LocalizableMessageDescriptor {
          *             If {@code locale} was {@code null}.
          */
         String getFormatString(final Locale locale) {
+            return getCompiledFormatString(locale).getFormatString();
+        }
+
+        /**
+         * Returns the format string which should be used when creating the
+         * string representation of this message using the specified locale,
+         * compiled for that locale.
+         *
+         * @param locale
+         *            The locale.
+         * @return The compiled format string.
+         * @throws NullPointerException
+         *             If {@code locale} was {@code null}.
+         */
+        CompiledFormatString getCompiledFormatString(final Locale locale) {
             if (locale == null) {
                 throw new NullPointerException("locale was null");
             }
 
             // Fast path.
-            final CachedFormatString cfs = cachedFormatString;
-            if (cfs != null && cfs.locale == locale) {
-                return cfs.formatString;
+            CompiledFormatString compiled = compiledFormatStrings.get(locale);
+            if (compiled != null) {
+                return compiled;
             }
 
             // There's a potential race condition here but it's benign - we'll
             // just do a bit more work than needed.
             final ResourceBundle bundle = getBundle(locale);
             final String formatString = bundle.getString(key);
-            cachedFormatString = new CachedFormatString(locale, formatString);
+            compiled = CompiledFormatString.compile(formatString, locale);
+            if (renderer != null && formatString.equals(renderer.getFormatString(message))) {
+                compiled = compiled.withRenderer(renderer, message);
+            }
+            if (compiledFormatStrings.size() >= MAX_CACHED_LOCALES) {
+                compiledFormatStrings.clear();
+            }
+            compiledFormatStrings.put(locale, compiled);
 
-            return formatString;
+            return compiled;
         }
 
         /**
@@ -1002,6 +1334,9 @@ public final class LocalizableMessageDescriptor {
 
         private final boolean requiresFormatter;
 
+        // It's ok if there are race conditions.
+        private CompiledFormatString compiledFormatString;
+
         /**
          * Creates a parameterized instance.
          *
@@ -1036,6 +1371,24 @@ public final class LocalizableMessageDescriptor {
             return this.formatString;
         }
 
+        /**
+         * Overridden in order to bypass the resource bundle plumbing, and
+         * caches only the last compiled format string since raw messages are
+         * usually rendered once.
+         */
+        @Override
+        CompiledFormatString getCompiledFormatString(final Locale locale) {
+            if (locale == null) {
+                throw new NullPointerException("locale was null");
+            }
+            CompiledFormatString compiled = compiledFormatString;
+            if (compiled == null || !compiled.getLocale().equals(locale)) {
+                compiled = CompiledFormatString.compile(formatString, locale);
+                compiledFormatString = compiled;
+            }
+            return compiled;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -0,0 +1,63 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyrighted [year] [name of copyright owner]".
+ *
+ *      Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.i18n;
+
+/**
+ * Renders messages using code specialised for their format strings. Renderers
+ * are generated by the {@code i18n-maven-plugin} for the messages of a message
+ * file, when its {@code generateRenderers} parameter is set, and are passed to
+ * the message descriptors declared in the generated class. Each message is
+ * identified by its index in the message file.
+ * <p>
+ * A renderer is only used for the locales in which the format string of a
+ * message is the format string from which its render method was generated,
+ * which is usually the case for the default locale of an application.
+ * Messages are rendered as usual in the other locales.
+ * <p>
+ * This interface is not intended to be implemented by applications.
+ */
+public interface LocalizableMessageRenderer {
+
+    /**
+     * Returns the format string from which the render method of the provided
+     * message has been generated.
+     *
+     * @param message
+     *            The index of the message.
+     * @return The format string from which the render method of the message
+     *         has been generated.
+     */
+    String getFormatString(int message);
+
+    /**
+     * Appends the provided message, rendered with the provided arguments, to
+     * the provided builder. Nothing is appended if one of the arguments cannot
+     * be rendered by the generated code, for example because it is
+     * {@code Formattable}, in which case the message must be rendered as
+     * usual.
+     *
+     * @param message
+     *            The index of the message.
+     * @param builder
+     *            The builder to which the message should be appended.
+     * @param args
+     *            The message arguments.
+     * @return {@code true} if the message has been appended, or {@code false}
+     *         if it must be rendered as usual.
+     */
+    boolean appendTo(int message, StringBuilder builder, Object[] args);
+}
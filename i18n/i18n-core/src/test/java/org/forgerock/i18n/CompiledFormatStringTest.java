@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyrighted [year] [name of copyright owner]".
+ *
+ *      Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.i18n;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.util.Formatter;
+import java.util.Locale;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the {@code CompiledFormatString} class.
+ */
+@Test
+public final class CompiledFormatStringTest {
+
+    private static final Locale ARABIC_DIGITS = Locale.forLanguageTag("ar-EG-u-nu-arab");
+
+    /**
+     * Data provider for {@link #testSameOutputAsFormatter}.
+     *
+     * @return Test data.
+     */
+    @DataProvider
+    public Object[][] formatStrings() {
+        return new Object[][] {
+            { "", true, new Object[0] },
+            { "no specifiers", true, new Object[0] },
+            { "quoted %% and%nnew line", true, new Object[0] },
+            { "%s", true, new Object[] { "value" } },
+            { "%s", true, new Object[] { null } },
+            { "%s %d", true, null },
+            { "a=%s b=%d", true, new Object[] { "value", 42 } },
+            { "%d %d %d %d", true, new Object[] { (byte) -1, (short) 2, -3L, BigInteger.TEN.pow(20) } },
+            { "%2$s %1$s %s %s", true, new Object[] { "one", "two" } },
+            { "%s", true, new Object[] { LocalizableMessage.raw("nested %s", "value") } },
+            { "%d", true, new Object[] { 1234567 } },
+            { "%,d", false, new Object[] { 1234567 } },
+            { "%5s|%-5s|%.2s", false, new Object[] { "a", "b", "cde" } },
+            { "%x %o %f %b %c", false, new Object[] { 255, 8, 1.5, true, 'c' } },
+            { "%S", false, new Object[] { "upper" } },
+            { "%s %<s", false, new Object[] { "again" } },
+        };
+    }
+
+    /**
+     * Tests that a compiled format string renders the same output as a
+     * {@code Formatter}, in locales using ASCII digits or not.
+     *
+     * @param formatString
+     *            The format string.
+     * @param isCompiled
+     *            Whether the format string is expected to be compiled.
+     * @param args
+     *            The arguments.
+     */
+    @Test(dataProvider = "formatStrings")
+    public void testSameOutputAsFormatter(final String formatString, final boolean isCompiled,
+            final Object[] args) {
+        for (final Locale locale : new Locale[] { Locale.ENGLISH, Locale.FRANCE, ARABIC_DIGITS }) {
+            final CompiledFormatString compiled = CompiledFormatString.compile(formatString, locale);
+            final StringBuilder builder = new StringBuilder("prefix:");
+            compiled.appendTo(builder, args);
+
+            assertThat(compiled.isCompiled()).isEqualTo(isCompiled);
+            assertThat(builder.toString()).isEqualTo(
+                    "prefix:" + new Formatter(locale).format(locale, formatString, args));
+        }
+    }
+
+    /**
+     * Data provider for {@link #testInvalidFormatStringOrArguments}.
+     *
+     * @return Test data.
+     */
+    @DataProvider
+    public Object[][] invalidFormatStrings() {
+        return new Object[][] {
+            { "%s %s", new Object[] { "one" } },
+            { "%3$s", new Object[] { "one", "two" } },
+            { "%d", new Object[] { "not a number" } },
+            { "%q", new Object[] { "unknown" } },
+            { "trailing %", new Object[0] },
+        };
+    }
+
+    /**
+     * Tests that the format string is rendered as is when it is invalid or
+     * does not match its arguments, leaving the preceding content of the
+     * builder unchanged.
+     *
+     * @param formatString
+     *            The format string.
+     * @param args
+     *            The arguments.
+     */
+    @Test(dataProvider = "invalidFormatStrings")
+    public void testInvalidFormatStringOrArguments(final String formatString, final Object[] args) {
+        final StringBuilder builder = new StringBuilder("prefix:");
+        CompiledFormatString.compile(formatString, Locale.ENGLISH).appendTo(builder, args);
+        assertThat(builder.toString()).isEqualTo("prefix:" + formatString);
+    }
+}
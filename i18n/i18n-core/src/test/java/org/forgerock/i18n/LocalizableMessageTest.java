@@ -12,12 +12,14 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  *      Copyright 2011 ForgeRock AS
+ *      Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.i18n;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Formattable;
 import java.util.Locale;
 
 import org.testng.annotations.Test;
@@ -189,4 +191,108 @@ public final class LocalizableMessageTest {
         assertThat(message.toString()).isEqualTo("hello %%");
     }
 
+    /**
+     * Tests that a message is rendered correctly when it is rendered
+     * alternately in several locales.
+     */
+    @Test
+    public void testMessageInMultipleLocales() {
+        final LocalizableMessage message = MyTestMessages.MESSAGE_WITH_STRING_AND_NUMBER
+                .get("test", 123);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(message.toString(Locale.ENGLISH)).isEqualTo("Arg1=test Arg2=123");
+            assertThat(message.toString(Locale.FRANCE)).isEqualTo("French Arg1=test Arg2=123");
+            assertThat(message.toString(Locale.FRENCH)).isEqualTo("French Arg1=test Arg2=123");
+        }
+    }
+
+    /**
+     * Tests that a message can be appended to a builder.
+     */
+    @Test
+    public void testAppendTo() {
+        final StringBuilder builder = new StringBuilder("message: ");
+        MyTestMessages.MESSAGE_WITH_STRING.get("test").appendTo(builder, Locale.FRANCE);
+        assertThat(builder.toString()).isEqualTo("message: French Arg1=test");
+    }
+
+    /**
+     * Tests that a message argument is rendered in the locale of the message.
+     */
+    @Test
+    public void testMessageWithMessageArgument() {
+        final LocalizableMessage message = MyTestMessages.MESSAGE_WITH_STRING
+                .get(MyTestMessages.MESSAGE_WITH_QUOTED_PERCENT.get());
+
+        assertThat(message.toString(Locale.FRANCE)).isEqualTo(
+                "French Arg1=French message with\nquoted %");
+        assertThat(message.toString(Locale.ENGLISH)).isEqualTo(
+                "Arg1=Message with\nquoted %");
+    }
+
+    /**
+     * Tests raw message with indexed arguments is formatted.
+     */
+    @Test
+    public void testRawMessageIndexedArgs() {
+        final LocalizableMessage message = LocalizableMessage.raw(
+                "%2$s %1$s %2$s", "hello", "world");
+        assertThat(message.toString()).isEqualTo("world hello world");
+    }
+
+    /**
+     * Tests raw message whose arguments do not match the format string is
+     * rendered as its format string.
+     */
+    @Test
+    public void testRawMessageMismatchedArgs() {
+        assertThat(LocalizableMessage.raw("%s=%d", "key", "value").toString())
+                .isEqualTo("%s=%d");
+        assertThat(LocalizableMessage.raw("%s=%s", "key").toString())
+                .isEqualTo("%s=%s");
+    }
+
+    /**
+     * Tests raw message using specifiers which are rendered by a formatter.
+     */
+    @Test
+    public void testRawMessageComplexSpecifiers() {
+        final LocalizableMessage message = LocalizableMessage.raw(
+                "[%-5s] %08.3f %x", "ab", 3.14159, 255);
+        assertThat(message.toString(Locale.ENGLISH)).isEqualTo("[ab   ] 0003.142 ff");
+    }
+
+    /**
+     * Tests that a message is rendered by its generated renderer in the
+     * locales whose format string is the one it was generated from.
+     */
+    @Test
+    public void testMessageWithRenderer() {
+        final StringBuilder rendered = new StringBuilder();
+        final LocalizableMessageRenderer renderer = new LocalizableMessageRenderer() {
+            @Override
+            public String getFormatString(final int message) {
+                return message == 3 ? "Arg1=%s" : null;
+            }
+
+            @Override
+            public boolean appendTo(final int message, final StringBuilder builder, final Object[] args) {
+                if (args[0] instanceof Formattable) {
+                    return false;
+                }
+                rendered.append(args[0]);
+                builder.append("Arg1=").append(args[0]);
+                return true;
+            }
+        };
+        final LocalizableMessageDescriptor.Arg1<Object> descriptor = new LocalizableMessageDescriptor.Arg1<Object>(
+                MyTestMessages.class, RESOURCE_NAME, "MESSAGE_WITH_STRING", -1, renderer, 3);
+
+        assertThat(descriptor.get("english").toString(Locale.ENGLISH)).isEqualTo("Arg1=english");
+        assertThat(descriptor.get("french").toString(Locale.FRANCE)).isEqualTo("French Arg1=french");
+        assertThat(descriptor.get(LocalizableMessage.raw("raw")).toString(Locale.ENGLISH)).isEqualTo("Arg1=raw");
+        assertThat(rendered.toString()).isEqualTo("english");
+    }
+
 }
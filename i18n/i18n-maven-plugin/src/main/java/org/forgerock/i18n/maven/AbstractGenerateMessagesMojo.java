@@ -12,7 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  *      Copyright 2011-2013 ForgeRock AS.
- *      Portions Copyright 2017 Wren Security.
+ *      Portions Copyright 2017-2026 Wren Security.
  */
 package org.forgerock.i18n.maven;
 
@@ -20,6 +20,7 @@ import com.google.common.xml.XmlEscapers;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -28,7 +29,11 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.IllegalFormatException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TreeMap;
@@ -162,6 +167,32 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
             return new File(resourceDirectory, path);
         }
 
+        /**
+         * Returns the translations of this message file, which are the
+         * property files of the same resource bundle for specific locales,
+         * for example {@code messages_fr.properties}.
+         *
+         * @param resourceDirectory
+         *            The resource directory.
+         * @return The translations of this message file, which may be empty.
+         */
+        File[] getTranslationFiles(final File resourceDirectory) {
+            final Pattern translationPattern = Pattern.compile(Pattern.quote(getShortName())
+                    + "_[a-z]{2,3}(_[A-Z]{2}|_[0-9]{3})?(_\\w+)?\\.properties");
+            final File[] translationFiles = getResourceFile(resourceDirectory).getParentFile()
+                    .listFiles(new FilenameFilter() {
+                        @Override
+                        public boolean accept(final File dir, final String fileName) {
+                            return translationPattern.matcher(fileName).matches();
+                        }
+                    });
+            if (translationFiles == null) {
+                return new File[0];
+            }
+            Arrays.sort(translationFiles);
+            return translationFiles;
+        }
+
         /**
          * Returns the name of the message file with the package name and
          * trailing ".properties" suffix stripped.
@@ -236,12 +267,85 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
             return this.sa[0] != null;
         }
 
+        /**
+         * Returns {@code true} if this specifier is {@code %s}, {@code %d} or
+         * {@code %%}, without argument index, flags, width or precision, and
+         * can therefore be rendered by generated code.
+         *
+         * @return boolean {@code true} if this specifier can be rendered by
+         *         generated code.
+         */
+        boolean isRenderable() {
+            for (int i = 0; i < 5; i++) {
+                if (sa[i] != null && sa[i].length() > 0) {
+                    return false;
+                }
+            }
+            return "s".equals(sa[5]) || "d".equals(sa[5]) || "%".equals(sa[5]);
+        }
+
+        /**
+         * Returns the conversion of this specifier, for example {@code s}.
+         *
+         * @return The conversion of this specifier.
+         */
+        String getConversion() {
+            return sa[5];
+        }
+
+        /**
+         * Returns the zero-based argument index used by this specifier, which
+         * must specify an argument index.
+         *
+         * @return The zero-based argument index used by this specifier.
+         */
+        int getArgumentIndex() {
+            return Integer.parseInt(sa[0].substring(0, sa[0].length() - 1)) - 1;
+        }
+
+        /**
+         * Returns {@code true} if this specifier uses the argument of the
+         * previous specifier (the {@code <} flag).
+         *
+         * @return boolean {@code true} if this specifier uses the argument of
+         *         the previous specifier.
+         */
+        boolean usesPreviousArgument() {
+            return sa[1] != null && sa[1].indexOf('<') != -1;
+        }
+
+        /**
+         * Returns an argument of the type expected by this specifier, which is
+         * used for checking that the translations of a message can be rendered
+         * with the arguments of the message.
+         *
+         * @return An argument of the type expected by this specifier, or
+         *         {@code null} if this specifier is a literal.
+         */
+        Object getSampleArgument() {
+            final Class<?> c = getSimpleConversionClass();
+            if (c == Calendar.class) {
+                return Calendar.getInstance();
+            } else if (c == Boolean.class) {
+                return Boolean.FALSE;
+            } else if (c == Character.class) {
+                return 'c';
+            } else if (c == Number.class) {
+                final String conversion = sa[5].toLowerCase();
+                return "d".equals(conversion) || "o".equals(conversion) || "x".equals(conversion)
+                        ? (Object) 0 : (Object) 0.0;
+            } else if (c == Object.class) {
+                return new Object();
+            }
+            return null;
+        }
+
     }
 
     /**
      * Represents a message to be written into the messages files.
      */
-    private static final class MessageDescriptorDeclaration {
+    static final class MessageDescriptorDeclaration {
 
         private final MessagePropertyKey key;
         private final String formatString;
@@ -376,6 +480,182 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
             return sb.toString();
         }
 
+        /**
+         * Checks that the provided format string, which is either the format
+         * string of this message or one of its translations, can be rendered
+         * with arguments of the types expected by this message. At runtime,
+         * format strings which cannot be rendered with the arguments of a
+         * message are displayed as is.
+         *
+         * @param s
+         *            The format string to be checked.
+         * @throws IllegalFormatException
+         *             If the format string is invalid, or if it refers to an
+         *             argument which this message does not have, or to an
+         *             argument of an incompatible type.
+         */
+        void checkFormatString(final String s) {
+            new Formatter(new StringBuilder(), Locale.ROOT).format(Locale.ROOT, s, getSampleArguments());
+        }
+
+        /**
+         * Returns arguments of the types expected by the format specifiers of
+         * this message, in the order in which the specifiers refer to them.
+         *
+         * @return Arguments of the types expected by this message.
+         */
+        Object[] getSampleArguments() {
+            final List<Object> args = new ArrayList<Object>();
+            int ordinaryIndex = 0;
+            int previousIndex = -1;
+            for (final FormatSpecifier f : specifiers) {
+                final Object sample = f.getSampleArgument();
+                if (sample == null) {
+                    continue;
+                }
+                final int index;
+                if (f.usesPreviousArgument()) {
+                    index = previousIndex;
+                } else if (f.specifiesArgumentIndex()) {
+                    index = f.getArgumentIndex();
+                } else {
+                    index = ordinaryIndex++;
+                }
+                while (args.size() <= index) {
+                    args.add(null);
+                }
+                if (index >= 0 && args.get(index) == null) {
+                    args.set(index, sample);
+                }
+                previousIndex = index;
+            }
+            return args.toArray();
+        }
+
+        /**
+         * Indicates whether a render method can be generated for this message,
+         * which is the case when it has between one and nine arguments and
+         * its format string only uses {@code %s} and {@code %d} specifiers.
+         *
+         * @return boolean {@code true} if a render method can be generated for
+         *         this message.
+         */
+        boolean isRenderable() {
+            if (useGenericMessageTypeClass() || classTypes.isEmpty() || classTypes.size() > 9) {
+                return false;
+            }
+            for (final FormatSpecifier f : specifiers) {
+                if (!f.isRenderable()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the name of the render method generated for this message,
+         * for example {@code appendMessageWithString}.
+         *
+         * @return The name of the render method generated for this message.
+         */
+        String getRenderMethodName() {
+            final StringBuilder sb = new StringBuilder("append");
+            boolean upperCaseNextChar = true;
+            for (final char c : key.getName().toCharArray()) {
+                if (c == '_') {
+                    upperCaseNextChar = true;
+                } else if (upperCaseNextChar) {
+                    sb.append(Character.toUpperCase(c));
+                    upperCaseNextChar = false;
+                } else {
+                    sb.append(Character.toLowerCase(c));
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Returns the render method generated for this message, which appends
+         * the literal segments of its format string and its arguments to a
+         * {@code StringBuilder}, or returns {@code false} if one of its
+         * arguments cannot be rendered without a {@code Formatter}. This
+         * message must be {@link #isRenderable() renderable}.
+         *
+         * @return The render method generated for this message.
+         */
+        String getRenderMethod() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(indent(2)).append("// ").append(key.getName()).append(EOL);
+            sb.append(indent(2)).append("private static boolean ").append(getRenderMethodName())
+                    .append("(final StringBuilder builder, final Object[] args) {").append(EOL);
+            sb.append(indent(3)).append("if (args.length != ").append(classTypes.size()).append(") {").append(EOL);
+            sb.append(indent(4)).append("return false;").append(EOL);
+            sb.append(indent(3)).append("}").append(EOL);
+
+            // Check all the arguments before appending anything.
+            int argument = 0;
+            for (final FormatSpecifier f : specifiers) {
+                if ("s".equals(f.getConversion())) {
+                    sb.append(indent(3)).append("if (args[").append(argument)
+                            .append("] instanceof java.util.Formattable) {").append(EOL);
+                    sb.append(indent(4)).append("return false;").append(EOL);
+                    sb.append(indent(3)).append("}").append(EOL);
+                    argument++;
+                } else if ("d".equals(f.getConversion())) {
+                    sb.append(indent(3)).append("if (!isInteger(args[").append(argument).append("])) {")
+                            .append(EOL);
+                    sb.append(indent(4)).append("return false;").append(EOL);
+                    sb.append(indent(3)).append("}").append(EOL);
+                    argument++;
+                }
+            }
+
+            sb.append(indent(3)).append("builder");
+            final StringBuilder literal = new StringBuilder();
+            final Matcher m = SPECIFIER_PATTERN.matcher(formatString);
+            int i = 0;
+            argument = 0;
+            while (m.find(i)) {
+                literal.append(formatString, i, m.start());
+                i = m.end();
+                final String conversion = m.group(6);
+                if ("%".equals(conversion)) {
+                    literal.append('%');
+                    continue;
+                }
+                appendLiteral(sb, literal);
+                if ("s".equals(conversion)) {
+                    sb.append(EOL).append(indent(5)).append(".append(args[").append(argument).append("])");
+                } else {
+                    sb.append(EOL).append(indent(5)).append(".append(((Number) args[").append(argument)
+                            .append("]).longValue())");
+                }
+                argument++;
+            }
+            literal.append(formatString.substring(i));
+            appendLiteral(sb, literal);
+            sb.append(";").append(EOL);
+            sb.append(indent(3)).append("return true;").append(EOL);
+            sb.append(indent(2)).append("}").append(EOL);
+            return sb.toString();
+        }
+
+        /**
+         * Returns the format string of this message.
+         *
+         * @return The format string of this message.
+         */
+        String getFormatString() {
+            return formatString;
+        }
+
+        private void appendLiteral(final StringBuilder sb, final StringBuilder literal) {
+            if (literal.length() > 0) {
+                sb.append(EOL).append(indent(5)).append(".append(").append(javaString(literal)).append(")");
+                literal.setLength(0);
+            }
+        }
+
         /**
          * Sets the arguments that will be supplied in the declaration of the
          * message.
@@ -494,6 +774,17 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
     @Parameter(defaultValue="false", required=true)
     private boolean force;
 
+    /**
+     * Indicates whether a renderer should be generated for the messages whose
+     * format strings only use {@code %s} and {@code %d} specifiers. Their
+     * descriptors then render them using generated code rather than a
+     * {@code Formatter} in the locales for which their format string is the
+     * one of the message file. The generated code requires the same version of
+     * {@code i18n-core} as this plugin.
+     */
+    @Parameter(defaultValue="false", required=true)
+    private boolean generateRenderers;
+
     /**
      * The list of files we want to transfer, relative to the resource
      * directory.
@@ -626,6 +917,9 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
                     + messageFile.getName() + " does not exist");
         }
 
+        final Properties properties = loadProperties(sourceFile);
+        checkFormatStrings(messageFile, properties);
+
         if (outputFile.exists()) {
             if (force || sourceFile.lastModified() > outputFile.lastModified()) {
                 if (!outputFile.delete()) {
@@ -664,19 +958,6 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
                     getStubFile(), UTF_8));
             outputWriter = new PrintWriter(outputFile, "UTF-8");
 
-            final Properties properties = new Properties();
-            final FileInputStream propertiesFile = new FileInputStream(
-                    sourceFile);
-            try {
-                properties.load(propertiesFile);
-            } finally {
-                try {
-                    propertiesFile.close();
-                } catch (Exception ignored) {
-                    // Ignore.
-                }
-            }
-
             for (String stubLine = stubReader.readLine(); stubLine != null; stubLine = stubReader
                     .readLine()) {
                 if (stubLine.contains("${MESSAGES}")) {
@@ -693,17 +974,42 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
 
                     int usesOfGenericDescriptor = 0;
 
+                    final List<MessageDescriptorDeclaration> renderedMessages =
+                            new ArrayList<MessageDescriptorDeclaration>();
+                    final List<MessageDescriptorDeclaration> messages =
+                            new ArrayList<MessageDescriptorDeclaration>();
                     for (final Map.Entry<MessagePropertyKey, String> property : propertyMap
                             .entrySet()) {
                         final MessageDescriptorDeclaration message =
                                 new MessageDescriptorDeclaration(property.getKey(),
                                         property.getValue());
 
-                        message.setConstructorArguments(
-                                messageFile.getClassName() + ".class",
-                                "RESOURCE",
-                                quote(property.getKey().toString()),
-                                String.valueOf(property.getKey().getOrdinal()));
+                        if (generateRenderers && message.isRenderable()) {
+                            message.setConstructorArguments(
+                                    messageFile.getClassName() + ".class",
+                                    "RESOURCE",
+                                    quote(property.getKey().toString()),
+                                    String.valueOf(property.getKey().getOrdinal()),
+                                    "RENDERER",
+                                    String.valueOf(renderedMessages.size()));
+                            renderedMessages.add(message);
+                        } else {
+                            message.setConstructorArguments(
+                                    messageFile.getClassName() + ".class",
+                                    "RESOURCE",
+                                    quote(property.getKey().toString()),
+                                    String.valueOf(property.getKey().getOrdinal()));
+                        }
+                        messages.add(message);
+                    }
+
+                    if (!renderedMessages.isEmpty()) {
+                        outputWriter.println("    // Renders the messages whose format strings only use %s and %d.");
+                        outputWriter.println("    private static final Renderer RENDERER = new Renderer();");
+                        outputWriter.println();
+                    }
+
+                    for (final MessageDescriptorDeclaration message : messages) {
                         outputWriter.println(message.toString());
                         outputWriter.println();
 
@@ -714,12 +1020,19 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
                         }
                     }
 
+                    if (!renderedMessages.isEmpty()) {
+                        outputWriter.print(getRenderer(renderedMessages));
+                    }
+
                     getLog().debug(
                             "  Generated " + propertyMap.size()
                                     + " LocalizableMessage");
                     getLog().debug(
                             "  Number of LocalizableMessageDescriptor.ArgN: "
                                     + usesOfGenericDescriptor);
+                    getLog().debug(
+                            "  Number of LocalizableMessage with a render method: "
+                                    + renderedMessages.size());
                 } else {
                     stubLine = stubLine.replace("${PACKAGE}",
                             messageFile.getPackageName());
@@ -761,6 +1074,165 @@ abstract class AbstractGenerateMessagesMojo extends AbstractMojo {
 
     }
 
+    /*
+     * Checks that the format strings of the messages can be parsed, and that
+     * the format strings of their translations can be rendered with the
+     * arguments of the messages, so that such errors are reported by the build
+     * rather than discovered when messages are displayed as is at runtime.
+     */
+    private void checkFormatStrings(final MessageFile messageFile, final Properties properties)
+            throws MojoExecutionException {
+        final Map<String, MessageDescriptorDeclaration> messages =
+                new HashMap<String, MessageDescriptorDeclaration>();
+        for (final Map.Entry<Object, Object> property : properties.entrySet()) {
+            final String propKey = property.getKey().toString();
+            final String formatString = property.getValue().toString();
+            final MessageDescriptorDeclaration message;
+            try {
+                message = new MessageDescriptorDeclaration(MessagePropertyKey.valueOf(propKey), formatString);
+            } catch (final IllegalFormatException e) {
+                throw new MojoExecutionException("The format string of message " + propKey + " in "
+                        + messageFile.getName() + " is invalid: " + e);
+            }
+            checkFormatString(message, propKey, formatString, messageFile.getName());
+            messages.put(propKey, message);
+        }
+
+        int translationCount = 0;
+        for (final File translationFile : messageFile.getTranslationFiles(getResourceDirectory())) {
+            for (final Map.Entry<Object, Object> property : loadProperties(translationFile).entrySet()) {
+                final String propKey = property.getKey().toString();
+                final MessageDescriptorDeclaration message = messages.get(propKey);
+                if (message == null) {
+                    getLog().warn("Message " + propKey + " in " + translationFile.getName()
+                            + " is not defined in " + messageFile.getName());
+                } else {
+                    checkFormatString(message, propKey, property.getValue().toString(),
+                            translationFile.getName());
+                    translationCount++;
+                }
+            }
+        }
+        getLog().debug("  Checked " + messages.size() + " LocalizableMessage and "
+                + translationCount + " translations");
+    }
+
+    private void checkFormatString(final MessageDescriptorDeclaration message, final String propKey,
+            final String formatString, final String fileName) throws MojoExecutionException {
+        try {
+            message.checkFormatString(formatString);
+        } catch (final IllegalFormatException e) {
+            throw new MojoExecutionException("The format string of message " + propKey + " in "
+                    + fileName + " does not match the arguments of the message: " + e);
+        }
+    }
+
+    private Properties loadProperties(final File file) throws MojoExecutionException {
+        final Properties properties = new Properties();
+        try {
+            final FileInputStream propertiesFile = new FileInputStream(file);
+            try {
+                properties.load(propertiesFile);
+            } finally {
+                try {
+                    propertiesFile.close();
+                } catch (Exception ignored) {
+                    // Ignore.
+                }
+            }
+        } catch (final IOException e) {
+            throw new MojoExecutionException("An IO error occurred while reading the message file "
+                    + file.getName() + ": " + e);
+        }
+        return properties;
+    }
+
+    /*
+     * Returns the renderer class of the provided messages, whose index in the
+     * renderer is their index in the list.
+     */
+    private static String getRenderer(final List<MessageDescriptorDeclaration> messages) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("    /**").append(EOL);
+        sb.append("     * Renders the messages whose format strings only use {@code %s} and").append(EOL);
+        sb.append("     * {@code %d} specifiers without using a {@code Formatter}.").append(EOL);
+        sb.append("     */").append(EOL);
+        sb.append("    private static final class Renderer implements").append(EOL);
+        sb.append("            org.forgerock.i18n.LocalizableMessageRenderer {").append(EOL);
+        sb.append(EOL);
+        sb.append("        @Override").append(EOL);
+        sb.append("        public String getFormatString(final int message) {").append(EOL);
+        sb.append("            switch (message) {").append(EOL);
+        for (int i = 0; i < messages.size(); i++) {
+            sb.append("            case ").append(i).append(":").append(EOL);
+            sb.append("                return ").append(javaString(messages.get(i).getFormatString()))
+                    .append(";").append(EOL);
+        }
+        sb.append("            default:").append(EOL);
+        sb.append("                return null;").append(EOL);
+        sb.append("            }").append(EOL);
+        sb.append("        }").append(EOL);
+        sb.append(EOL);
+        sb.append("        @Override").append(EOL);
+        sb.append("        public boolean appendTo(final int message, final StringBuilder builder,").append(EOL);
+        sb.append("                final Object[] args) {").append(EOL);
+        sb.append("            switch (message) {").append(EOL);
+        for (int i = 0; i < messages.size(); i++) {
+            sb.append("            case ").append(i).append(":").append(EOL);
+            sb.append("                return ").append(messages.get(i).getRenderMethodName())
+                    .append("(builder, args);").append(EOL);
+        }
+        sb.append("            default:").append(EOL);
+        sb.append("                return false;").append(EOL);
+        sb.append("            }").append(EOL);
+        sb.append("        }").append(EOL);
+        for (final MessageDescriptorDeclaration message : messages) {
+            sb.append(EOL).append(message.getRenderMethod());
+        }
+        sb.append(EOL);
+        sb.append("        private static boolean isInteger(final Object o) {").append(EOL);
+        sb.append("            return o instanceof Integer || o instanceof Long || o instanceof Short").append(EOL);
+        sb.append("                    || o instanceof Byte;").append(EOL);
+        sb.append("        }").append(EOL);
+        sb.append("    }").append(EOL);
+        return sb.toString();
+    }
+
+    /*
+     * Returns the provided string as a Java string literal, escaping non ASCII
+     * characters so that the generated source does not depend on its encoding.
+     */
+    private static String javaString(final CharSequence s) {
+        final StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < ' ' || c > '~') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append("\"").toString();
+    }
+
     private String quote(final String s) {
         return new StringBuilder().append("\"").append(s).append("\"")
                 .toString();
@@ -0,0 +1,155 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyrighted [year] [name of copyright owner]".
+ *
+ *      Copyright 2026 Wren Security.
+ */
+package org.forgerock.i18n.maven;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.IllegalFormatException;
+
+import org.forgerock.i18n.maven.AbstractGenerateMessagesMojo.MessageDescriptorDeclaration;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the MessageDescriptorDeclaration class.
+ */
+@Test
+public final class MessageDescriptorDeclarationTest {
+
+    /**
+     * Data provider for {@link #testValidFormatString}.
+     *
+     * @return Test data.
+     */
+    @DataProvider(parallel = true)
+    public Object[][] validFormatStrings() {
+        return new Object[][] {
+            { "No arguments", "Pas d'arguments" },
+            { "Quoted %% and%nnew line", "%%%n" },
+            { "Arg1=%s Arg2=%d", "Arg2=%2$d Arg1=%1$s" },
+            { "Arg1=%s Arg2=%d", "Arg1=%s" },
+            { "Arg1=%s Arg2=%d", "Arg1=%S Arg2=%,d %<x" },
+            { "Arg1=%s", "Arg1=%1$b %1$h %1$10.5s" },
+            { "Arg1=%f", "Arg1=%.2e" },
+            { "Arg1=%2$s Arg2=%1$tY", "Arg2=%1$tY Arg1=%2$s" },
+            { "Arg1=%c", "Arg1=%C" },
+        };
+    }
+
+    /**
+     * Tests format strings which match the arguments of a message.
+     *
+     * @param formatString
+     *            The format string of the message.
+     * @param translation
+     *            The format string of a translation of the message.
+     */
+    @Test(dataProvider = "validFormatStrings")
+    public void testValidFormatString(final String formatString, final String translation) {
+        final MessageDescriptorDeclaration message = newMessage(formatString);
+        message.checkFormatString(formatString);
+        message.checkFormatString(translation);
+    }
+
+    /**
+     * Data provider for {@link #testInvalidFormatString}.
+     *
+     * @return Test data.
+     */
+    @DataProvider(parallel = true)
+    public Object[][] invalidFormatStrings() {
+        return new Object[][] {
+            { "Arg1=%s", "Arg1=%s Arg2=%s" },
+            { "Arg1=%s", "Arg1=%2$s" },
+            { "Arg1=%s", "Arg1=%d" },
+            { "Arg1=%d", "Arg1=%f" },
+            { "Arg1=%s Arg2=%d", "Arg1=%d Arg2=%s" },
+            { "Arg1=%s", "Arg1=%q" },
+            { "Arg1=%s", "Arg1=%-s" },
+            { "Arg1=%tY", "Arg1=%d" },
+        };
+    }
+
+    /**
+     * Tests format strings which do not match the arguments of a message.
+     *
+     * @param formatString
+     *            The format string of the message.
+     * @param translation
+     *            The format string of a translation of the message.
+     */
+    @Test(dataProvider = "invalidFormatStrings", expectedExceptions = IllegalFormatException.class)
+    public void testInvalidFormatString(final String formatString, final String translation) {
+        newMessage(formatString).checkFormatString(translation);
+    }
+
+    /**
+     * Data provider for {@link #testIsRenderable}.
+     *
+     * @return Test data.
+     */
+    @DataProvider(parallel = true)
+    public Object[][] renderableFormatStrings() {
+        return new Object[][] {
+            { "No arguments", false },
+            { "Arg1=%s", true },
+            { "Arg1=%s Arg2=%d is 100%%", true },
+            { "Arg1=%s%n", false },
+            { "Arg1=%1$s", false },
+            { "Arg1=%-5s", false },
+            { "Arg1=%S", false },
+            { "Arg1=%x", false },
+            { "%s %s %s %s %s %s %s %s %s", true },
+            { "%s %s %s %s %s %s %s %s %s %s", false },
+        };
+    }
+
+    /**
+     * Tests which messages can be rendered by generated code.
+     *
+     * @param formatString
+     *            The format string of the message.
+     * @param isRenderable
+     *            The expected result.
+     */
+    @Test(dataProvider = "renderableFormatStrings")
+    public void testIsRenderable(final String formatString, final boolean isRenderable) {
+        assertThat(newMessage(formatString).isRenderable()).isEqualTo(isRenderable);
+    }
+
+    /**
+     * Tests the render method generated for a message.
+     */
+    @Test
+    public void testGetRenderMethod() {
+        final MessageDescriptorDeclaration message = newMessage("\"%s\" is 100%% %d\u00e9");
+
+        assertThat(message.getRenderMethodName()).isEqualTo("appendTestMessage");
+        assertThat(message.getRenderMethod())
+                .contains("private static boolean appendTestMessage(final StringBuilder builder, final Object[] args)")
+                .contains("if (args[0] instanceof java.util.Formattable) {")
+                .contains("if (!isInteger(args[1])) {")
+                .contains(".append(\"\\\"\")")
+                .contains(".append(args[0])")
+                .contains(".append(\"\\\" is 100% \")")
+                .contains(".append(((Number) args[1]).longValue())")
+                .contains(".append(\"\\u00e9\")");
+    }
+
+    private MessageDescriptorDeclaration newMessage(final String formatString) {
+        return new MessageDescriptorDeclaration(MessagePropertyKey.valueOf("TEST_MESSAGE_1"), formatString);
+    }
+}
@@ -12,11 +12,15 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  *      Copyright 2011 ForgeRock AS
+ *      Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.i18n.maven;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.File;
+import java.nio.file.Files;
+
 import org.forgerock.i18n.maven.AbstractGenerateMessagesMojo.MessageFile;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -70,4 +74,32 @@ public final class MessageFileTest {
         assertThat(mf.getResourceBundleName()).isEqualTo(resourceBundleName);
     }
 
+    /**
+     * Tests that the translations of a message file are the property files of
+     * the same resource bundle for specific locales.
+     *
+     * @throws Exception
+     *             If an unexpected error occurred.
+     */
+    @Test
+    public void testGetTranslationFiles() throws Exception {
+        final File resourceDirectory = Files.createTempDirectory("messages").toFile();
+        final File packageDirectory = new File(resourceDirectory, "path/to");
+        assertThat(packageDirectory.mkdirs()).isTrue();
+        for (final String name : new String[] { "test.properties", "test_fr.properties",
+            "test_pt_BR.properties", "test_extra.properties", "another_test_fr.properties" }) {
+            assertThat(new File(packageDirectory, name).createNewFile()).isTrue();
+        }
+        try {
+            final MessageFile mf = new MessageFile("path/to/test.properties");
+            assertThat(mf.getTranslationFiles(resourceDirectory)).containsExactly(
+                    new File(packageDirectory, "test_fr.properties"),
+                    new File(packageDirectory, "test_pt_BR.properties"));
+        } finally {
+            for (final File file : packageDirectory.listFiles()) {
+                file.delete();
+            }
+        }
+    }
+
 }
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  *      Copyright 2011-2014 ForgeRock AS
+ *      Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.i18n.slf4j;
@@ -44,6 +45,11 @@ import org.slf4j.Marker;
  * with the corresponding {@code LocalizedMessage} to be logged and passed to the
  * underlying SLF4J {@link Logger}. This allow a custom implementation of SLF4J
  * logger adapter to retrieve the complete localizable message when logging.
+ * <p>
+ * Messages whose descriptors have been generated with the
+ * {@code generateRenderers} parameter of the {@code i18n-maven-plugin} are
+ * rendered by the generated code rather than by a {@code Formatter} whenever
+ * possible, which is cheaper for messages logged on hot code paths.
  */
 public final class LocalizedLogger {
 
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.crypto.cli;
@@ -21,6 +22,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.security.Key;
 import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -32,6 +37,7 @@ import org.forgerock.json.JsonValue;
 import org.forgerock.json.crypto.JsonEncryptFunction;
 import org.forgerock.json.crypto.JsonCryptoException;
 import org.forgerock.json.crypto.JsonDecryptFunction;
+import org.forgerock.json.crypto.JsonEncryptor;
 import org.forgerock.json.crypto.simple.SimpleDecryptor;
 import org.forgerock.json.crypto.simple.SimpleEncryptor;
 import org.forgerock.json.crypto.simple.SimpleKeyStoreSelector;
@@ -62,8 +68,11 @@ public class Main {
     private static final String PROPERTIES_PROVIDERCLASS_OPTION = "providerclass";
     private static final String PROPERTIES_PROVIDERARG_OPTION = "providerarg";
     private static final String PROPERTIES_PROVIDERPATH_OPTION = "providerpath";
+    private static final String PROPERTIES_ITERATIONS_OPTION = "iterations";
+    private static final int DEFAULT_ITERATIONS = 1000;
     private static final String PROPERTIES_ENCRYPT_COMMAND = "encrypt";
     private static final String PROPERTIES_DECRYPT_COMMAND = "decrypt";
+    private static final String PROPERTIES_BENCHMARK_COMMAND = "benchmark";
     private static final String PROPERTIES_HELP_COMMAND = "help";
 
     private CommandLine cmd = null; // Command Line arguments
@@ -74,6 +83,8 @@ public class Main {
                 "Encrypt input file");
         OPTIONS.addOption(PROPERTIES_DECRYPT_COMMAND, false,
                 "Decrypt input file");
+        OPTIONS.addOption(PROPERTIES_BENCHMARK_COMMAND, false,
+                "Measure the throughput of encrypting and decrypting the fields of the input file");
         OPTIONS.addOption("h", PROPERTIES_HELP_COMMAND, false,
                 "Display help");
 
@@ -106,6 +117,9 @@ public class Main {
                 "KeyStore provider options");
         OPTIONS.addOption(PROPERTIES_PROVIDERPATH_OPTION, true,
                 "KeyStore provider path");
+        //Optional benchmark options
+        OPTIONS.addOption(PROPERTIES_ITERATIONS_OPTION, true,
+                "Number of times the input file is encrypted and decrypted. Default: " + DEFAULT_ITERATIONS);
     }
 
     /**
@@ -125,17 +139,7 @@ public class Main {
      */
     public void exec() throws Exception {
         if (cmd.hasOption(PROPERTIES_ENCRYPT_COMMAND)) {
-            Key key = getSimpleKeySelector(cmd.getOptionValue(PROPERTIES_KEYSTORE_OPTION),
-                    cmd.getOptionValue(PROPERTIES_STORETYPE_OPTION, KeyStore.getDefaultType()),
-                    cmd.getOptionValue(PROPERTIES_STOREPASS_OPTION),
-                    cmd.getOptionValue(PROPERTIES_PROVIDERNAME_OPTION))
-                            .select(cmd.getOptionValue(PROPERTIES_ALIAS_OPTION));
-            if (key == null) {
-                throw new JsonCryptoException("key not found: " + cmd.getOptionValue(PROPERTIES_ALIAS_OPTION));
-            }
-            JsonEncryptFunction encrypt = new JsonEncryptFunction(new SimpleEncryptor(
-                    cmd.getOptionValue(PROPERTIES_CIPHER_OPTION, DEFAULT_CIPHER), key,
-                    cmd.getOptionValue(PROPERTIES_ALIAS_OPTION)));
+            JsonEncryptFunction encrypt = new JsonEncryptFunction(getSimpleEncryptor());
             JsonValue value = getSourceValue(cmd.getOptionValue(PROPERTIES_SRCJSON_OPTION), true);
             setDestinationValue(cmd.getOptionValue(PROPERTIES_DESTJSON_OPTION), value.as(encrypt));
         } else if (cmd.hasOption(PROPERTIES_DECRYPT_COMMAND)) {
@@ -146,20 +150,95 @@ public class Main {
                             cmd.getOptionValue(PROPERTIES_PROVIDERNAME_OPTION))));
             JsonValue value = getSourceValue(cmd.getOptionValue(PROPERTIES_SRCJSON_OPTION), true);
             setDestinationValue(cmd.getOptionValue(PROPERTIES_DESTJSON_OPTION), value.as(decrypt));
+        } else if (cmd.hasOption(PROPERTIES_BENCHMARK_COMMAND)) {
+            SimpleEncryptor encryptor = getSimpleEncryptor();
+            SimpleKeyStoreSelector selector = getSimpleKeySelector(cmd.getOptionValue(PROPERTIES_KEYSTORE_OPTION),
+                    cmd.getOptionValue(PROPERTIES_STORETYPE_OPTION, KeyStore.getDefaultType()),
+                    cmd.getOptionValue(PROPERTIES_STOREPASS_OPTION),
+                    cmd.getOptionValue(PROPERTIES_PROVIDERNAME_OPTION));
+            JsonValue value = getSourceValue(cmd.getOptionValue(PROPERTIES_SRCJSON_OPTION), true);
+            int iterations = Integer.parseInt(cmd.getOptionValue(PROPERTIES_ITERATIONS_OPTION,
+                    Integer.toString(DEFAULT_ITERATIONS)));
+            benchmark("Per value", encryptor, false, new SimpleDecryptor(selector, 0), value, iterations);
+            benchmark("Per document", encryptor, true, new SimpleDecryptor(selector), value, iterations);
         } else {
             usage();
         }
     }
 
+    private SimpleEncryptor getSimpleEncryptor() throws Exception {
+        final KeyStore ks = getKeyStore(cmd.getOptionValue(PROPERTIES_KEYSTORE_OPTION),
+                cmd.getOptionValue(PROPERTIES_STORETYPE_OPTION, KeyStore.getDefaultType()),
+                cmd.getOptionValue(PROPERTIES_STOREPASS_OPTION),
+                cmd.getOptionValue(PROPERTIES_PROVIDERNAME_OPTION));
+        Key key = new SimpleKeyStoreSelector(ks, cmd.getOptionValue(PROPERTIES_STOREPASS_OPTION))
+                .select(cmd.getOptionValue(PROPERTIES_ALIAS_OPTION));
+        if (key == null) {
+            throw new JsonCryptoException("key not found: " + cmd.getOptionValue(PROPERTIES_ALIAS_OPTION));
+        }
+        if (key instanceof PrivateKey) {
+            // Values are encrypted with the public key, for the private key to decrypt them
+            key = ks.getCertificate(cmd.getOptionValue(PROPERTIES_ALIAS_OPTION)).getPublicKey();
+        }
+        return new SimpleEncryptor(cmd.getOptionValue(PROPERTIES_CIPHER_OPTION, DEFAULT_CIPHER), key,
+                cmd.getOptionValue(PROPERTIES_ALIAS_OPTION));
+    }
+
+    /**
+     * Encrypts then decrypts each field of the source value, or the source value itself if it is not an object, the
+     * provided number of times, and prints the throughput of the encryption and of the decryption.
+     *
+     * @param name the name of the benchmark.
+     * @param encryptor the encryptor of the fields.
+     * @param session whether the fields of a document share a single session key.
+     * @param decryptor the decryptor of the fields.
+     * @param value the source value.
+     * @param iterations the number of times the source value is encrypted and decrypted.
+     * @throws JsonCryptoException if a field cannot be encrypted or decrypted.
+     */
+    private static void benchmark(String name, SimpleEncryptor encryptor, boolean session, SimpleDecryptor decryptor,
+            JsonValue value, int iterations) throws JsonCryptoException {
+        List<JsonValue> fields = new ArrayList<>();
+        if (value.isMap()) {
+            for (Map.Entry<String, Object> field : value.asMap().entrySet()) {
+                fields.add(new JsonValue(field.getValue()));
+            }
+        } else {
+            fields.add(value);
+        }
+
+        List<JsonValue> encrypted = new ArrayList<>(fields.size() * iterations);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            JsonEncryptor documentEncryptor = session ? encryptor.newSession() : encryptor;
+            for (JsonValue field : fields) {
+                encrypted.add(documentEncryptor.encrypt(field));
+            }
+        }
+        long encryption = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (JsonValue field : encrypted) {
+            decryptor.decrypt(field);
+        }
+        long decryption = System.nanoTime() - start;
+
+        System.out.println(String.format("%s: %d values, encryption %.0f values/s, decryption %.0f values/s",
+                name, encrypted.size(), encrypted.size() * 1e9 / encryption, encrypted.size() * 1e9 / decryption));
+    }
+
     private SimpleKeyStoreSelector getSimpleKeySelector(String keystore, String type, String password, String provider)
             throws Exception {
-        final KeyStore ks = new KeyStoreBuilder()
+        return new SimpleKeyStoreSelector(getKeyStore(keystore, type, password, provider), password);
+    }
+
+    private KeyStore getKeyStore(String keystore, String type, String password, String provider) throws Exception {
+        return new KeyStoreBuilder()
                 .withKeyStoreFile(keystore)
                 .withPassword(password)
                 .withProvider(provider)
                 .withKeyStoreType(Utils.asEnum(type, KeyStoreType.class))
                 .build();
-        return new SimpleKeyStoreSelector(ks, password);
     }
 
     private JsonValue getSourceValue(String source, boolean file) throws IOException {
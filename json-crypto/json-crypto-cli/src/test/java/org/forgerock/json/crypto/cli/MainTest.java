@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.crypto.cli;
@@ -65,4 +66,17 @@ public class MainTest {
                 Map.class));
         assertThat(actual.getObject()).isEqualTo(expected.getObject());
     }
+
+    @Test
+    public void testBenchmark() throws Exception {
+        Main.main(new String[] {
+            "-benchmark",
+            "-keystore", URLDecoder.decode(MainTest.class.getResource("/keystore.jceks").getPath(), "UTF-8"),
+            "-storetype", "JCEKS",
+            "-storepass", "changeit",
+            "-alias", "openidm-sym-default",
+            "-srcjson", URLDecoder.decode(MainTest.class.getResource("/clean.json").getPath(), "UTF-8"),
+            "-iterations", "2"
+        });
+    }
 }
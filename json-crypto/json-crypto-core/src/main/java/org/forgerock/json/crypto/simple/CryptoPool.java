@@ -0,0 +1,110 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.crypto.simple;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+
+/**
+ * Keeps one {@link Cipher} per transformation and one {@link Mac} per algorithm for each thread, so that they are
+ * looked up from the security providers once rather than for every value encrypted or decrypted.
+ * <p>
+ * Instances are reinitialized with the key of each operation. When the provider chosen for a pooled instance does not
+ * support a key, a new instance is obtained for that key and replaces the pooled one.
+ */
+final class CryptoPool {
+
+    private static final ThreadLocal<Map<String, Cipher>> CIPHERS = new ThreadLocal<Map<String, Cipher>>() {
+        @Override
+        protected Map<String, Cipher> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    private static final ThreadLocal<Map<String, Mac>> MACS = new ThreadLocal<Map<String, Mac>>() {
+        @Override
+        protected Map<String, Mac> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    /**
+     * Returns the cipher of the current thread for the provided transformation, initialized with the provided key.
+     *
+     * @param transformation the transformation of the cipher, e.g. {@literal "AES/CBC/PKCS5Padding"}.
+     * @param mode the operation mode of the cipher.
+     * @param key the key of the operation.
+     * @param params the parameters of the operation, or {@code null} to let the cipher generate them.
+     * @return the initialized cipher, which must not be used once another cipher has been requested for the same
+     *         transformation in the same thread.
+     * @throws GeneralSecurityException if the cipher cannot be found or initialized.
+     */
+    static Cipher getCipher(String transformation, int mode, Key key, AlgorithmParameterSpec params)
+            throws GeneralSecurityException {
+        final Map<String, Cipher> ciphers = CIPHERS.get();
+        Cipher cipher = ciphers.get(transformation);
+        if (cipher != null) {
+            try {
+                cipher.init(mode, key, params);
+                return cipher;
+            } catch (InvalidKeyException e) {
+                // The provider of the pooled cipher may not support this key, retry with a new cipher
+            }
+        }
+        cipher = Cipher.getInstance(transformation);
+        cipher.init(mode, key, params);
+        ciphers.put(transformation, cipher);
+        return cipher;
+    }
+
+    /**
+     * Returns the MAC of the current thread for the provided algorithm, initialized with the provided key.
+     *
+     * @param algorithm the MAC algorithm, e.g. {@literal "HmacSHA256"}.
+     * @param key the key of the MAC.
+     * @return the initialized MAC, which must not be used once another MAC has been requested for the same algorithm
+     *         in the same thread.
+     * @throws GeneralSecurityException if the MAC cannot be found or initialized.
+     */
+    static Mac getMac(String algorithm, Key key) throws GeneralSecurityException {
+        final Map<String, Mac> macs = MACS.get();
+        Mac mac = macs.get(algorithm);
+        if (mac != null) {
+            try {
+                mac.init(key);
+                return mac;
+            } catch (InvalidKeyException e) {
+                // The provider of the pooled MAC may not support this key, retry with a new MAC
+            }
+        }
+        mac = Mac.getInstance(algorithm);
+        mac.init(key);
+        macs.put(algorithm, mac);
+        return mac;
+    }
+
+    private CryptoPool() {
+        // Utility class
+    }
+}
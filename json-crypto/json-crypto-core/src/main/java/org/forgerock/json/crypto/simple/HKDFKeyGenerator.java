@@ -12,14 +12,15 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.crypto.simple;
 
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.Key;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 import javax.crypto.Mac;
@@ -149,13 +150,11 @@ final class HKDFKeyGenerator {
 
     private static Mac getHmac(Key key) {
         try {
-            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
-            hmac.init(key);
-            return hmac;
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
+            return CryptoPool.getMac(HMAC_ALGORITHM, key);
         } catch (InvalidKeyException e) {
             throw new IllegalArgumentException("Invalid HKDF key", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
         }
     }
 
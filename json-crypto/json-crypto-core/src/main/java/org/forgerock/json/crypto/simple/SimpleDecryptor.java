@@ -12,7 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2015 ForgeRock AS.
- * Portions Copyrighted 2025 Wren Security
+ * Portions Copyrighted 2025-2026 Wren Security
  */
 
 package org.forgerock.json.crypto.simple;
@@ -21,6 +21,10 @@ import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Level;
@@ -34,6 +38,7 @@ import org.forgerock.json.JsonValue;
 import org.forgerock.json.JsonValueException;
 import org.forgerock.json.crypto.JsonCryptoException;
 import org.forgerock.json.crypto.JsonDecryptor;
+import org.forgerock.util.Reject;
 import org.forgerock.util.encode.Base64;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -41,6 +46,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 /**
  * Decrypts a {@code $crypto} JSON object value encrypted with the
  * {@code x-simple-encryption} type.
+ * <p>
+ * The session keys decrypted with asymmetric keys are cached, so that values sharing a session key, as encrypted by
+ * a {@link SimpleEncryptor#newSession() session}, only require a single asymmetric decryption.
  */
 public class SimpleDecryptor implements JsonDecryptor {
     private static final Logger logger = Logger.getLogger(SimpleDecryptor.class.getName());
@@ -48,19 +56,52 @@ public class SimpleDecryptor implements JsonDecryptor {
     /** The type of cryptographic representation that this decryptor supports. */
     public static final String TYPE = "x-simple-encryption";
 
+    /** The default maximum number of decrypted session keys cached by a decryptor. */
+    public static final int DEFAULT_KEY_CACHE_SIZE = 256;
+
     /** Converts between JSON constructs and Java objects. */
     private final ObjectMapper mapper = new ObjectMapper();
 
     /** TODO: Description. */
     private final SimpleKeySelector selector;
 
+    /**
+     * The decrypted session keys, indexed by the alias of the key they are encrypted with, the asymmetric cipher and
+     * their encrypted form; or {@code null} if they are not cached.
+     */
+    private final Map<List<String>, byte[]> sessionKeys;
+
     /**
      * TODO: Description.
      *
      * @param selector TODO.
      */
     public SimpleDecryptor(SimpleKeySelector selector) {
+        this(selector, DEFAULT_KEY_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a decryptor caching up to the provided number of decrypted session keys.
+     *
+     * @param selector the selector of the keys to decrypt with.
+     * @param keyCacheSize the maximum number of decrypted session keys to cache, or 0 to decrypt the session key of
+     *                     every value.
+     */
+    public SimpleDecryptor(SimpleKeySelector selector, final int keyCacheSize) {
+        Reject.ifTrue(keyCacheSize < 0, "The key cache size must not be negative");
         this.selector = selector;
+        if (keyCacheSize > 0) {
+            this.sessionKeys = Collections.synchronizedMap(new LinkedHashMap<List<String>, byte[]>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, byte[]> eldest) {
+                    return size() > keyCacheSize;
+                }
+            });
+        } else {
+            this.sessionKeys = null;
+        }
     }
 
     @Override
@@ -85,11 +126,9 @@ public class SimpleDecryptor implements JsonDecryptor {
             if (key.isString()) {
                 symmetricKey = select(key.asString());
             } else {
-                Key privateKey = select(key.get("key").required().asString());
-                Cipher asymmetric = Cipher.getInstance(key.get("cipher").required().asString());
-                asymmetric.init(Cipher.DECRYPT_MODE, privateKey);
-                byte[] ciphertext = Base64.decode(key.get("data").required().asString());
-                symmetricKey = new SecretKeySpec(asymmetric.doFinal(ciphertext), cipher.split("/", 2)[0]);
+                symmetricKey = new SecretKeySpec(sessionKey(key.get("key").required().asString(),
+                        key.get("cipher").required().asString(), key.get("data").required().asString()),
+                        cipher.split("/", 2)[0]);
             }
 
             if (value.isDefined("salt")) {
@@ -110,11 +149,10 @@ public class SimpleDecryptor implements JsonDecryptor {
                         key.isString() ? symmetricKey.getEncoded().length : SimpleEncryptor.ASYMMETRIC_AES_KEY_SIZE);
             }
 
-            Cipher symmetric = Cipher.getInstance(cipher);
             String iv = value.get("iv").asString();
 
             IvParameterSpec ivps = (iv == null ? null : new IvParameterSpec(Base64.decode(iv)));
-            symmetric.init(Cipher.DECRYPT_MODE, symmetricKey, ivps);
+            Cipher symmetric = CryptoPool.getCipher(cipher, Cipher.DECRYPT_MODE, symmetricKey, ivps);
             byte[] plaintext = symmetric.doFinal(Base64.decode(value.get("data").required().asString()));
             return new JsonValue(mapper.readValue(plaintext, Object.class));
         } catch (GeneralSecurityException | IOException | JsonValueException e) {
@@ -123,4 +161,28 @@ public class SimpleDecryptor implements JsonDecryptor {
         }
     }
 
+    /**
+     * Decrypts a session key with an asymmetric key, unless it has already been decrypted.
+     *
+     * @param alias the alias of the asymmetric key.
+     * @param asymmetricCipher the asymmetric cipher.
+     * @param data the encrypted session key, Base64 encoded.
+     * @return the session key material.
+     * @throws GeneralSecurityException if the session key cannot be decrypted.
+     * @throws JsonCryptoException if the asymmetric key is not found.
+     */
+    private byte[] sessionKey(String alias, String asymmetricCipher, String data)
+            throws GeneralSecurityException, JsonCryptoException {
+        final List<String> cacheKey = sessionKeys != null ? Arrays.asList(alias, asymmetricCipher, data) : null;
+        byte[] sessionKey = cacheKey != null ? sessionKeys.get(cacheKey) : null;
+        if (sessionKey == null) {
+            Cipher asymmetric = CryptoPool.getCipher(asymmetricCipher, Cipher.DECRYPT_MODE, select(alias), null);
+            sessionKey = asymmetric.doFinal(Base64.decode(data));
+            if (cacheKey != null) {
+                sessionKeys.put(cacheKey, sessionKey);
+            }
+        }
+        return sessionKey;
+    }
+
 }
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.crypto.simple;
@@ -21,6 +22,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
@@ -39,6 +41,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Encrypts a JSON value into an {@code x-simple-encryption} type {@code $crypto} JSON object.
+ * <p>
+ * With an asymmetric key, each value is encrypted with a new session key, itself encrypted with the asymmetric key
+ * and listed in the encrypted object. When many values are encrypted together, such as the fields of a document or
+ * the documents of a batch, {@link #newSession()} returns an encryptor sharing a single session key between all the
+ * values it encrypts, so that the asymmetric encryption is performed once rather than for every value.
  */
 public class SimpleEncryptor implements JsonEncryptor {
 
@@ -50,6 +57,8 @@ public class SimpleEncryptor implements JsonEncryptor {
 
     static final int ASYMMETRIC_AES_KEY_SIZE = 128 / 8;
 
+    private static final String ASYMMETRIC_SYMMETRIC_CIPHER = "AES/CBC/PKCS5Padding";
+
     /** Converts between Java objects and JSON constructs. */
     private final ObjectMapper mapper = new ObjectMapper();
 
@@ -89,13 +98,11 @@ public class SimpleEncryptor implements JsonEncryptor {
      * @throws IOException if an I/O exception occurred.
      */
     private Object symmetric(Object object) throws GeneralSecurityException, IOException {
-        Cipher symmetric = Cipher.getInstance(cipher);
-
         HKDFKeyGenerator.HKDFMasterKey masterKey = HKDFKeyGenerator.extractMasterKey(key.getEncoded());
         Key encryptionKey = HKDFKeyGenerator.expandKey(masterKey, "AES", key.getEncoded().length);
         Key macKey = HKDFKeyGenerator.expandKey(masterKey, MAC_ALGORITHM, MAC_KEY_SIZE);
 
-        symmetric.init(Cipher.ENCRYPT_MODE, encryptionKey);
+        Cipher symmetric = CryptoPool.getCipher(cipher, Cipher.ENCRYPT_MODE, encryptionKey, null);
         String data = Base64.encode(symmetric.doFinal(mapper.writeValueAsBytes(object)));
         byte[] iv = symmetric.getIV();
         byte[] salt = masterKey.getSalt();
@@ -114,40 +121,48 @@ public class SimpleEncryptor implements JsonEncryptor {
     }
 
     /**
-     * Encrypts using an asymmetric cipher.
+     * Generates a new session key, and encrypts it with the asymmetric cipher.
      *
-     * @param object the value to be encrypted.
-     * @return the encrypted value.
+     * @return the session key.
      * @throws GeneralSecurityException if a cryptographic operation failed.
-     * @throws IOException if an I/O exception occurred.
      */
-    private Object asymmetric(Object object) throws GeneralSecurityException, IOException {
-        String symmetricCipher = "AES/CBC/PKCS5Padding";
+    private SessionKey newSessionKey() throws GeneralSecurityException {
         KeyGenerator generator = KeyGenerator.getInstance(HKDFKeyGenerator.HMAC_ALGORITHM);
         generator.init(HKDFKeyGenerator.HASH_LEN * 8);
         SecretKey sessionKey = generator.generateKey();
 
-        HKDFKeyGenerator.HKDFMasterKey masterKey = HKDFKeyGenerator.extractMasterKey(sessionKey.getEncoded());
+        Cipher asymmetric = CryptoPool.getCipher(cipher, Cipher.ENCRYPT_MODE, key, null);
+        HashMap<String, Object> keyObject = new HashMap<>();
+        keyObject.put("cipher", this.cipher);
+        keyObject.put("key", this.alias);
+        keyObject.put("data", Base64.encode(asymmetric.doFinal(sessionKey.getEncoded())));
+        return new SessionKey(sessionKey.getEncoded(), Collections.unmodifiableMap(keyObject));
+    }
+
+    /**
+     * Encrypts using an asymmetric cipher, with the provided session key. A new master key, with its own salt, is
+     * derived from the session key for each value.
+     *
+     * @param object the value to be encrypted.
+     * @param sessionKey the session key to encrypt with.
+     * @return the encrypted value.
+     * @throws GeneralSecurityException if a cryptographic operation failed.
+     * @throws IOException if an I/O exception occurred.
+     */
+    private Object asymmetric(Object object, SessionKey sessionKey) throws GeneralSecurityException, IOException {
+        HKDFKeyGenerator.HKDFMasterKey masterKey = HKDFKeyGenerator.extractMasterKey(sessionKey.keyMaterial);
         final byte[] salt = masterKey.getSalt();
 
         final Key encryptionKey = HKDFKeyGenerator.expandKey(masterKey, "AES", ASYMMETRIC_AES_KEY_SIZE);
         final Key macKey = HKDFKeyGenerator.expandKey(masterKey, MAC_ALGORITHM, MAC_KEY_SIZE);
 
-        Cipher symmetric = Cipher.getInstance(symmetricCipher);
-        symmetric.init(Cipher.ENCRYPT_MODE, encryptionKey);
+        Cipher symmetric = CryptoPool.getCipher(ASYMMETRIC_SYMMETRIC_CIPHER, Cipher.ENCRYPT_MODE, encryptionKey, null);
         byte[] iv = symmetric.getIV();
         String data = Base64.encode(symmetric.doFinal(mapper.writeValueAsBytes(object)));
 
-        Cipher asymmetric = Cipher.getInstance(cipher);
-        asymmetric.init(Cipher.ENCRYPT_MODE, key);
-        HashMap<String, Object> keyObject = new HashMap<>();
-        keyObject.put("cipher", this.cipher);
-        keyObject.put("key", this.alias);
-        keyObject.put("data", Base64.encode(asymmetric.doFinal(sessionKey.getEncoded())));
-
         HashMap<String, Object> result = new HashMap<>();
-        result.put("cipher", symmetricCipher);
-        result.put("key", keyObject);
+        result.put("cipher", ASYMMETRIC_SYMMETRIC_CIPHER);
+        result.put("key", new HashMap<>(sessionKey.keyObject));
         result.put("data", data);
         if (iv != null) {
             result.put("iv", Base64.encode(iv));
@@ -164,16 +179,52 @@ public class SimpleEncryptor implements JsonEncryptor {
     public JsonValue encrypt(JsonValue value) throws JsonCryptoException {
         Object object = value.getObject();
         try {
-            return new JsonValue((key instanceof SecretKey ? symmetric(object) : asymmetric(object)));
+            return new JsonValue((key instanceof SecretKey ? symmetric(object) : asymmetric(object, newSessionKey())));
         } catch (GeneralSecurityException | IOException e) {
             throw new JsonCryptoException(e);
         }
     }
 
+    /**
+     * Returns an encryptor sharing a single session key between all the values it encrypts, for encrypting the fields
+     * of a document or the documents of a batch. The encrypted values can be decrypted independently of each other,
+     * by any {@link SimpleDecryptor}.
+     * <p>
+     * The session key is encrypted with the asymmetric key of this encryptor once, when the session is created. With a
+     * symmetric key, there is no session key and this encryptor is returned.
+     *
+     * @return an encryptor sharing a single session key between the values it encrypts.
+     * @throws JsonCryptoException if the session key could not be generated or encrypted.
+     */
+    public JsonEncryptor newSession() throws JsonCryptoException {
+        if (key instanceof SecretKey) {
+            return this;
+        }
+        try {
+            final SessionKey sessionKey = newSessionKey();
+            return new JsonEncryptor() {
+                @Override
+                public String getType() {
+                    return TYPE;
+                }
+
+                @Override
+                public JsonValue encrypt(JsonValue value) throws JsonCryptoException {
+                    try {
+                        return new JsonValue(asymmetric(value.getObject(), sessionKey));
+                    } catch (GeneralSecurityException | IOException e) {
+                        throw new JsonCryptoException(e);
+                    }
+                }
+            };
+        } catch (GeneralSecurityException e) {
+            throw new JsonCryptoException(e);
+        }
+    }
+
     static byte[] mac(final Map<String, Object> input, final Key macKey) {
         try {
-            Mac mac = Mac.getInstance(MAC_ALGORITHM);
-            mac.init(macKey);
+            Mac mac = CryptoPool.getMac(MAC_ALGORITHM, macKey);
             updateMac(mac, input);
             // Truncate the MAC to half size
             return Arrays.copyOfRange(mac.doFinal(), 0, MAC_KEY_SIZE / 2);
@@ -193,4 +244,15 @@ public class SimpleEncryptor implements JsonEncryptor {
             }
         }
     }
+
+    /** A session key, with its encrypted form as listed in the encrypted objects. */
+    private static final class SessionKey {
+        private final byte[] keyMaterial;
+        private final Map<String, Object> keyObject;
+
+        private SessionKey(byte[] keyMaterial, Map<String, Object> keyObject) {
+            this.keyMaterial = keyMaterial;
+            this.keyObject = keyObject;
+        }
+    }
 }
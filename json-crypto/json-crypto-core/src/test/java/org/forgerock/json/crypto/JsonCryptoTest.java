@@ -12,7 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
- * Portions Copyrighted 2025 Wren Security
+ * Portions Copyrighted 2025-2026 Wren Security
  */
 
 package org.forgerock.json.crypto;
@@ -27,6 +27,7 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -157,8 +158,56 @@ public class JsonCryptoTest {
         assertThat(value.get("description").getObject()).isEqualTo(PLAINTEXT);
     }
 
+    @Test
+    public void testSessionEncryptionSharesTheSessionKey() throws JsonCryptoException {
+        JsonEncryptor session = new SimpleEncryptor(ASYMMETRIC_CIPHER, publicKey, "privateKey").newSession();
+        JsonValue password = session.encrypt(new JsonValue(PASSWORD));
+        JsonValue description = session.encrypt(new JsonValue(PLAINTEXT));
+        assertThat(password.get("key").getObject()).isEqualTo(description.get("key").getObject());
+        assertThat(password.get("salt").getObject()).isNotEqualTo(description.get("salt").getObject());
+
+        CountingKeySelector countingSelector = new CountingKeySelector();
+        SimpleDecryptor decryptor = new SimpleDecryptor(countingSelector);
+        assertThat(decryptor.decrypt(password).getObject()).isEqualTo(PASSWORD);
+        assertThat(decryptor.decrypt(description).getObject()).isEqualTo(PLAINTEXT);
+        assertThat(countingSelector.selections.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSessionKeyCacheCanBeDisabled() throws JsonCryptoException {
+        JsonEncryptor session = new SimpleEncryptor(ASYMMETRIC_CIPHER, publicKey, "privateKey").newSession();
+        JsonValue password = session.encrypt(new JsonValue(PASSWORD));
+        JsonValue description = session.encrypt(new JsonValue(PLAINTEXT));
+
+        CountingKeySelector countingSelector = new CountingKeySelector();
+        SimpleDecryptor decryptor = new SimpleDecryptor(countingSelector, 0);
+        assertThat(decryptor.decrypt(password).getObject()).isEqualTo(PASSWORD);
+        assertThat(decryptor.decrypt(description).getObject()).isEqualTo(PLAINTEXT);
+        assertThat(countingSelector.selections.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSymmetricSessionIsTheEncryptor() throws JsonCryptoException {
+        SimpleEncryptor encryptor = new SimpleEncryptor(SYMMETRIC_CIPHER, secretKey, "secretKey");
+        assertThat(encryptor.newSession()).isSameAs(encryptor);
+    }
+
     // ----- exceptions ----------
 
+    @Test(expectedExceptions = JsonCryptoException.class)
+    public void testTamperedSessionValueWithCachedKey() throws Exception {
+        JsonEncryptor session = new SimpleEncryptor(ASYMMETRIC_CIPHER, publicKey, "privateKey").newSession();
+        JsonValue password = session.encrypt(new JsonValue(PASSWORD));
+        JsonValue description = session.encrypt(new JsonValue(PLAINTEXT));
+        SimpleDecryptor decryptor = new SimpleDecryptor(selector);
+        decryptor.decrypt(password);
+
+        byte[] iv = Base64.decode(description.get("iv").asString());
+        iv[0] ^= 0x01;
+        description.put("iv", Base64.encode(iv));
+        decryptor.decrypt(description);
+    }
+
     @Test(expectedExceptions = JsonCryptoException.class)
     public void testDroppedIV() throws JsonCryptoException {
         JsonValue value = new JsonValue(PLAINTEXT);
@@ -186,4 +235,14 @@ public class JsonCryptoTest {
         value.put("iv", Base64.encode(iv));
         new SimpleDecryptor(selector).decrypt(value);
     }
+
+    private final class CountingKeySelector implements SimpleKeySelector {
+        private final AtomicInteger selections = new AtomicInteger();
+
+        @Override
+        public Key select(String key) throws JsonCryptoException {
+            selections.incrementAndGet();
+            return selector.select(key);
+        }
+    }
 }
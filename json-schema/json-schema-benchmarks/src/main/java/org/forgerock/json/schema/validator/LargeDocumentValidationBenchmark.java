@@ -0,0 +1,200 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator;
+
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.schema.validator.Constants.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.json.schema.validator.validators.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Measures the time taken to validate a bulk import payload, an array of user objects, when:
+ * <ul>
+ *     <li>parsing the payload into memory before validating it</li>
+ *     <li>validating the payload as it is parsed</li>
+ *     <li>validating the items of the payload, already in memory, in parallel</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class LargeDocumentValidationBenchmark {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Param({ "1000", "100000" })
+    private int itemCount;
+
+    private Validator validator;
+    private String payload;
+    private List<Object> items;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        validator = ObjectValidatorFactory.compile(object(
+                field(TYPE, TYPE_ARRAY),
+                field(ITEMS, object(
+                        field(TYPE, TYPE_OBJECT),
+                        field(ADDITIONALPROPERTIES, false),
+                        field(PROPERTIES, object(
+                                field("userName", object(field(TYPE, TYPE_STRING), field(REQUIRED, true))),
+                                field("givenName", object(field(TYPE, TYPE_STRING))),
+                                field("sn", object(field(TYPE, TYPE_STRING))),
+                                field("age", object(field(TYPE, TYPE_INTEGER), field(MINIMUM, 0))),
+                                field("groups", object(
+                                        field(TYPE, TYPE_ARRAY),
+                                        field(ITEMS, object(field(TYPE, TYPE_STRING)))))))))));
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(object(
+                    field("userName", "user." + i),
+                    field("givenName", "Given" + i),
+                    field("sn", "Surname" + i),
+                    field("age", (long) (i % 100)),
+                    field("groups", array("employees", "group" + (i % 10)))));
+        }
+        payload = toJson(items);
+        pool = ForkJoinPool.commonPool();
+    }
+
+    @Benchmark
+    public CollectErrorsHandler testParseThenValidate() throws IOException {
+        final CollectErrorsHandler handler = new CollectErrorsHandler();
+        validator.validate(parse(payload), null, handler);
+        return handler;
+    }
+
+    @Benchmark
+    public CollectErrorsHandler testStreamingValidate() throws IOException {
+        final CollectErrorsHandler handler = new CollectErrorsHandler();
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            validator.validateStream(parser, null, handler);
+        }
+        return handler;
+    }
+
+    @Benchmark
+    public CollectErrorsHandler testSequentialValidate() {
+        final CollectErrorsHandler handler = new CollectErrorsHandler();
+        validator.validate(items, null, handler);
+        return handler;
+    }
+
+    @Benchmark
+    public CollectErrorsHandler testParallelValidate() {
+        final CollectErrorsHandler handler = new CollectErrorsHandler();
+        validator.validate(items, null, handler, pool);
+        return handler;
+    }
+
+    private static Object parse(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.nextToken();
+            return read(parser);
+        }
+    }
+
+    private static Object read(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+        case START_OBJECT:
+            final Map<String, Object> object = object();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                object.put(name, read(parser));
+            }
+            return object;
+        case START_ARRAY:
+            final List<Object> array = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                array.add(read(parser));
+            }
+            return array;
+        case VALUE_NUMBER_INT:
+            return parser.getLongValue();
+        default:
+            return parser.getText();
+        }
+    }
+
+    private static String toJson(List<Object> items) throws IOException {
+        final StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartArray();
+            for (Object item : items) {
+                generator.writeStartObject();
+                for (Map.Entry<?, ?> field : ((Map<?, ?>) item).entrySet()) {
+                    if (field.getValue() instanceof Long) {
+                        generator.writeNumberField((String) field.getKey(), (Long) field.getValue());
+                    } else if (field.getValue() instanceof List) {
+                        generator.writeArrayFieldStart((String) field.getKey());
+                        for (Object value : (List<?>) field.getValue()) {
+                            generator.writeString((String) value);
+                        }
+                        generator.writeEndArray();
+                    } else {
+                        generator.writeStringField((String) field.getKey(), (String) field.getValue());
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        return writer.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LargeDocumentValidationBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
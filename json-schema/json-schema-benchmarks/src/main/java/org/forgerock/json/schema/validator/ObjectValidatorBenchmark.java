@@ -0,0 +1,128 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator;
+
+import static org.forgerock.json.JsonValue.*;
+import static org.forgerock.json.schema.validator.Constants.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.json.schema.validator.validators.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of validating a document against an object schema, either building the validators of the
+ * schema for each document, as {@link ObjectValidatorFactory#getTypeValidator(Map)} callers do, or compiling them
+ * once with {@link ObjectValidatorFactory#compile(Map)}.
+ * <p>
+ * The schema declares a few properties, one of which is a reference to a definition, and a number of
+ * <code>patternProperties</code>. The document has as many additional properties as there are patterns, each of them
+ * matching a different pattern.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ObjectValidatorBenchmark {
+
+    @Param({ "1", "16", "64" })
+    private int patternCount;
+
+    private Map<String, Object> schema;
+    private Map<String, Object> document;
+    private Validator compiled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Map<String, Object> patternProperties = new LinkedHashMap<>();
+        document = object(
+                field("_id", "bjensen"),
+                field("userName", "bjensen@example.com"),
+                field("age", 42L),
+                field("active", true),
+                field("address", object(
+                        field("street", "201 Mission St"),
+                        field("city", "San Francisco"))));
+        for (int i = 0; i < patternCount; i++) {
+            patternProperties.put("^x-vendor" + i + "-", object(field(TYPE, TYPE_STRING)));
+            document.put("x-vendor" + i + "-attribute", "value");
+        }
+        schema = object(
+                field(TYPE, TYPE_OBJECT),
+                field(ADDITIONALPROPERTIES, false),
+                field(DEFINITIONS, object(
+                        field("address", object(
+                                field(TYPE, TYPE_OBJECT),
+                                field(PROPERTIES, object(
+                                        field("street", object(field(TYPE, TYPE_STRING))),
+                                        field("city", object(field(TYPE, TYPE_STRING))))))))),
+                field(PROPERTIES, object(
+                        field("_id", object(field(TYPE, TYPE_STRING))),
+                        field("userName", object(field(TYPE, TYPE_STRING), field(REQUIRED, true))),
+                        field("age", object(field(TYPE, TYPE_INTEGER), field(MINIMUM, 0))),
+                        field("active", object(field(TYPE, TYPE_BOOLEAN))),
+                        field("address", object(field(REF, "#/definitions/address"))))),
+                field(PATTERNPROPERTIES, patternProperties));
+        compiled = ObjectValidatorFactory.compile(schema);
+    }
+
+    @Benchmark
+    public CollectErrorsHandler testBuildAndValidate() {
+        final CollectErrorsHandler handler = new CollectErrorsHandler();
+        ObjectValidatorFactory.getTypeValidator(schema).validate(document, null, handler);
+        return handler;
+    }
+
+    @Benchmark
+    public CollectErrorsHandler testCompiledValidate() {
+        final CollectErrorsHandler handler = new CollectErrorsHandler();
+        compiled.validate(document, null, handler);
+        return handler;
+    }
+
+    @Benchmark
+    public boolean testObjectValidator() {
+        return ObjectValidator.validate(document, schema);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ObjectValidatorBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator;
@@ -24,8 +25,9 @@ import java.util.Map;
  * The ObjectValidator is a sample implementation of how to use the validator.
  * <p/>
  * The validators was designed to keep in the memory or other cache and validate multiple instances.
- * This implementation creates a new {@link Validator} each time
- * and uses the {@link FailFastErrorHandler} to validate the instance object.
+ * This implementation compiles each schema into a {@link Validator} once, using
+ * {@link ObjectValidatorFactory#compile(Map)}, and uses the {@link FailFastErrorHandler}
+ * to validate the instance object.
  */
 public final class ObjectValidator {
     /**
@@ -41,7 +43,7 @@ public final class ObjectValidator {
         boolean isValid = true;
 
         try {
-            Validator v = ObjectValidatorFactory.getTypeValidator(schema);
+            Validator v = ObjectValidatorFactory.compile(schema);
             ErrorHandler handler = new FailFastErrorHandler();
             v.validate(node, null, handler);
         } catch (Throwable e) {
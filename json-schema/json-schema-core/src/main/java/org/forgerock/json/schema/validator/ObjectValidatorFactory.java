@@ -12,16 +12,21 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator;
 
 import static org.forgerock.json.schema.validator.Constants.*;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.forgerock.json.schema.validator.validators.AnyTypeValidator;
 import org.forgerock.json.schema.validator.validators.ArrayTypeValidator;
@@ -41,19 +46,11 @@ import org.forgerock.json.schema.validator.validators.Validator;
 @SuppressWarnings("deprecation")
 public final class ObjectValidatorFactory {
 
-    private static final Map<String, Class<? extends Validator>> VALIDATORS;
-
-    static {
-        VALIDATORS = new HashMap<>(8);
-        VALIDATORS.put(TYPE_STRING, StringTypeValidator.class);
-        VALIDATORS.put(TYPE_NUMBER, NumberTypeValidator.class);
-        VALIDATORS.put(TYPE_INTEGER, IntegerTypeValidator.class);
-        VALIDATORS.put(TYPE_BOOLEAN, BooleanTypeValidator.class);
-        VALIDATORS.put(TYPE_OBJECT, ObjectTypeValidator.class);
-        VALIDATORS.put(TYPE_ARRAY, ArrayTypeValidator.class);
-        VALIDATORS.put(TYPE_NULL, NullTypeValidator.class);
-        VALIDATORS.put(TYPE_ANY, AnyTypeValidator.class);
-    }
+    /** The validators compiled by {@link #compile(Map)}, keyed by the identity of their schema. */
+    private static final ConcurrentMap<SchemaReference, Validator> COMPILED_VALIDATORS = new ConcurrentHashMap<>();
+
+    /** The references to the schemas which have been garbage collected. */
+    private static final ReferenceQueue<Map<String, Object>> COLLECTED_SCHEMAS = new ReferenceQueue<>();
 
     private ObjectValidatorFactory() {
         // hide ctor of utility class
@@ -71,6 +68,41 @@ public final class ObjectValidatorFactory {
         return getTypeValidator(schema, Collections.<String>emptyList());
     }
 
+    /**
+     * Returns a validator validating the schema, compiling it only the first time it is called for this schema.
+     * <p>
+     * Unlike {@link #getTypeValidator(Map)}, the schema is walked and its references are resolved once, and the
+     * resulting validator is shared by all the callers passing the same schema instance. Validators do not keep any
+     * state between validations, so the returned validator may be used by several threads at the same time.
+     * Compiled validators are released once their schema is no longer referenced.
+     * <p>
+     * Schemas are identified by reference rather than by value, so a schema must not be modified once it has been
+     * compiled: the changes would not be taken into account.
+     *
+     * @param schema JSON Schema Draft-03 object
+     * @return Pre-configured {@link Validator} instance, shared with the other callers compiling the same schema.
+     * @throws NullPointerException when the <code>schema</code> is null.
+     * @throws RuntimeException     when the validators in the <code>schema</code> is not supported.
+     */
+    public static Validator compile(Map<String, Object> schema) {
+        final Validator validator = COMPILED_VALIDATORS.get(new SchemaReference(schema));
+        if (validator != null) {
+            return validator;
+        }
+        expungeCollectedSchemas();
+        final Validator compiled = getTypeValidator(schema);
+        final Validator previous = COMPILED_VALIDATORS.putIfAbsent(
+                new SchemaReference(schema, COLLECTED_SCHEMAS), compiled);
+        return previous != null ? previous : compiled;
+    }
+
+    private static void expungeCollectedSchemas() {
+        Reference<? extends Map<String, Object>> reference;
+        while ((reference = COLLECTED_SCHEMAS.poll()) != null) {
+            COMPILED_VALIDATORS.remove(reference);
+        }
+    }
+
     /**
      * Returns a validator validating the schema. It uses the passed in JSON pointer as a relative location of the
      * validator in the schema.
@@ -117,18 +149,59 @@ public final class ObjectValidatorFactory {
      * @throws RuntimeException when the validators in the <code>schema</code> is not supported.
      */
     public static Validator getTypeValidator(String type, Map<String, Object> schema, List<String> jsonPointer) {
-        Class<? extends Validator> clazz = findClass(type);
-        if (null != clazz) {
-            try {
-                return clazz.getConstructor(Map.class, List.class).newInstance(schema, jsonPointer);
-            } catch (Exception ex) {
-                throw new RuntimeException("Failed to initialize the new Validator instance");
-            }
+        switch (type) {
+        case TYPE_STRING:
+            return new StringTypeValidator(schema, jsonPointer);
+        case TYPE_NUMBER:
+            return new NumberTypeValidator(schema, jsonPointer);
+        case TYPE_INTEGER:
+            return new IntegerTypeValidator(schema, jsonPointer);
+        case TYPE_BOOLEAN:
+            return new BooleanTypeValidator(schema, jsonPointer);
+        case TYPE_OBJECT:
+            return new ObjectTypeValidator(schema, jsonPointer);
+        case TYPE_ARRAY:
+            return new ArrayTypeValidator(schema, jsonPointer);
+        case TYPE_NULL:
+            return new NullTypeValidator(schema, jsonPointer);
+        case TYPE_ANY:
+            return new AnyTypeValidator(schema, jsonPointer);
+        default:
+            throw new RuntimeException("Unsupported validators exception {}");
         }
-        throw new RuntimeException("Unsupported validators exception {}");
     }
 
-    private static Class<? extends Validator> findClass(String type) {
-        return VALIDATORS.get(type);
+    /**
+     * A weak reference to a schema, which is equal to the other references to the same schema instance. The
+     * references used for lookups are not registered with a queue.
+     */
+    private static final class SchemaReference extends WeakReference<Map<String, Object>> {
+        private final int hashCode;
+
+        private SchemaReference(Map<String, Object> schema) {
+            this(schema, null);
+        }
+
+        private SchemaReference(Map<String, Object> schema, ReferenceQueue<Map<String, Object>> queue) {
+            super(schema, queue);
+            this.hashCode = System.identityHashCode(schema);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SchemaReference)) {
+                return false;
+            }
+            final Map<String, Object> schema = get();
+            return schema != null && schema == ((SchemaReference) obj).get();
+        }
     }
 }
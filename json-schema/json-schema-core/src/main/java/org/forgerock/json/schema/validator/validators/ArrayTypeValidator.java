@@ -12,12 +12,14 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator.validators;
 
 import static org.forgerock.json.schema.validator.Constants.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -30,6 +32,9 @@ import org.forgerock.json.schema.validator.ErrorHandler;
 import org.forgerock.json.schema.validator.ObjectValidatorFactory;
 import org.forgerock.json.schema.validator.exceptions.ValidationException;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 /**
  * ArrayTypeValidator applies all the constraints of a <code>array</code> type.
  * <p/>
@@ -165,18 +170,16 @@ public class ArrayTypeValidator extends Validator {
 
             checkUniqueItems(nodeValue, at, handler);
 
-            if (null != singleValidator) {
-                for (int i = 0; i < nodeValue.size(); i++) {
-                    singleValidator.validate(nodeValue.get(i), getPath(at, Integer.toString(i)), handler);
-                }
-            } else if (null != tupleValidators) {
-                if (tupleValidators.size() > nodeValue.size()) {
-                    handler.error(new ValidationException("Array has less item then expected", getPath(at, null)));
-                } else if (!additionalItems && tupleValidators.size() < nodeValue.size()) {
-                    handler.error(new ValidationException("Array can not have additional item(s)", getPath(at, null)));
+            if (null != tupleValidators && tupleValidators.size() > nodeValue.size()) {
+                handler.error(new ValidationException("Array has less item then expected", getPath(at, null)));
+            } else if (null != tupleValidators && !additionalItems && tupleValidators.size() < nodeValue.size()) {
+                handler.error(new ValidationException("Array can not have additional item(s)", getPath(at, null)));
+            } else if (null != singleValidator || null != tupleValidators) {
+                if (nodeValue.size() >= ParallelValidation.MIN_PARALLEL_ITEMS && ParallelValidation.isEnabled()) {
+                    ParallelValidation.validateItems(this, nodeValue, at, handler);
                 } else {
                     for (int i = 0; i < nodeValue.size(); i++) {
-                        Validator v = i < tupleValidators.size() ? tupleValidators.get(i) : additionalItemsValidator;
+                        Validator v = getItemValidator(i);
                         if (null != v) {
                             v.validate(nodeValue.get(i), getPath(at, Integer.toString(i)), handler);
                         }
@@ -190,6 +193,66 @@ public class ArrayTypeValidator extends Validator {
         }
     }
 
+    /**
+     * Validates the items of the array as they are read from the parser, holding them in memory only when they must be
+     * unique.
+     */
+    @Override
+    protected void validateTokens(JsonParser parser, JsonPointer at, ErrorHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            super.validateTokens(parser, at, handler);
+            return;
+        }
+        final Set<Object> items = uniqueItems ? new HashSet<>() : null;
+        boolean duplicateItems = false;
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            final Validator v = getItemValidator(size);
+            final JsonPointer path = getPath(at, Integer.toString(size));
+            if (null != items) {
+                final Object item = JsonTokens.readValue(parser);
+                duplicateItems |= !items.add(item);
+                if (null != v) {
+                    v.validate(item, path, handler);
+                }
+            } else if (null != v) {
+                v.validateTokens(parser, path, handler);
+            } else {
+                parser.skipChildren();
+            }
+            size++;
+        }
+        if (minItems > -1 && size < minItems) {
+            handler.error(new ValidationException(("minItems error")));
+        }
+        if (maxItems > -1 && size > maxItems) {
+            handler.error(new ValidationException(("maxItems error")));
+        }
+        if (duplicateItems) {
+            handler.error(new ValidationException("The items in the array must be unique", getPath(at, null)));
+        }
+        if (null != tupleValidators && tupleValidators.size() > size) {
+            handler.error(new ValidationException("Array has less item then expected", getPath(at, null)));
+        } else if (null != tupleValidators && !additionalItems && tupleValidators.size() < size) {
+            handler.error(new ValidationException("Array can not have additional item(s)", getPath(at, null)));
+        }
+    }
+
+    /**
+     * Returns the validator of the item at the given index.
+     *
+     * @param index the index of the item
+     * @return the validator of the item, or null if the item does not need to be validated
+     */
+    Validator getItemValidator(int index) {
+        if (null != singleValidator) {
+            return singleValidator;
+        } else if (null != tupleValidators) {
+            return index < tupleValidators.size() ? tupleValidators.get(index) : additionalItemsValidator;
+        }
+        return null;
+    }
+
     private void checkUniqueItems(List<Object> nodeValue, JsonPointer at, ErrorHandler handler) {
         if (uniqueItems && nodeValue.size() > 1) {
             Set<Object> set = new HashSet<>(nodeValue);
@@ -0,0 +1,88 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator.validators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads JSON values from a Jackson {@link JsonParser} into the objects validated by the validators: {@link Map}s,
+ * {@link List}s, strings, booleans, {@link Long}s or {@link java.math.BigInteger}s for integers, and {@link Double}s
+ * or {@link java.math.BigDecimal}s for other numbers.
+ */
+final class JsonTokens {
+
+    private JsonTokens() {
+        // utility class
+    }
+
+    /**
+     * Reads the value starting at the current token of the provided parser. The parser is left on the last token of
+     * the value.
+     *
+     * @param parser the parser, positioned on the first token of the value
+     * @return the value, which is null for a JSON null
+     * @throws IOException when the value cannot be read
+     */
+    static Object readValue(JsonParser parser) throws IOException {
+        final JsonToken token = parser.currentToken();
+        if (token == null) {
+            throw new JsonParseException(parser, "Expected a JSON value but reached the end of input");
+        }
+        switch (token) {
+        case START_OBJECT:
+            final Map<String, Object> object = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                object.put(name, readValue(parser));
+            }
+            return object;
+        case START_ARRAY:
+            final List<Object> array = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                array.add(readValue(parser));
+            }
+            return array;
+        case VALUE_STRING:
+            return parser.getText();
+        case VALUE_NUMBER_INT:
+            return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                    ? parser.getBigIntegerValue()
+                    : Long.valueOf(parser.getLongValue());
+        case VALUE_NUMBER_FLOAT:
+            return parser.getNumberType() == JsonParser.NumberType.BIG_DECIMAL
+                    ? parser.getDecimalValue()
+                    : Double.valueOf(parser.getDoubleValue());
+        case VALUE_TRUE:
+            return Boolean.TRUE;
+        case VALUE_FALSE:
+            return Boolean.FALSE;
+        case VALUE_NULL:
+            return null;
+        default:
+            throw new JsonParseException(parser, "Expected a JSON value but found " + token);
+        }
+    }
+}
@@ -12,22 +12,25 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator.validators;
 
 import static org.forgerock.json.schema.validator.Constants.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -37,6 +40,9 @@ import org.forgerock.json.schema.validator.ErrorHandler;
 import org.forgerock.json.schema.validator.ObjectValidatorFactory;
 import org.forgerock.json.schema.validator.exceptions.ValidationException;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 /**
  * ObjectTypeValidator applies all the constraints of a <code>object</code> type.
  * <p/>
@@ -98,6 +104,7 @@ public class ObjectTypeValidator extends Validator {
      * schema value.
      */
     private Map<Pattern, Validator> patternPropertyValidators;
+    private PropertyNamePatterns patternProperties;
     /**
      * This attribute defines a schema for all properties that are not
      * explicitly defined in an object type definition.  If specified, the
@@ -125,6 +132,11 @@ public class ObjectTypeValidator extends Validator {
      *      href="http://tools.ietf.org/html/draft-fge-json-schema-validation-00#section-5.5.7">definitions</a>
      */
     private Map<String, Validator> definitionValidators;
+    /**
+     * Whether objects can be validated one property at a time, which is not the case when a property depends on the
+     * other properties of the object, or when the object as a whole must match one of several schemas.
+     */
+    private final boolean streamable;
 
     /**
      * Default ctor.
@@ -161,7 +173,7 @@ public class ObjectTypeValidator extends Validator {
             } else if (PATTERNPROPERTIES.equals(e.getKey())) {
                 if (e.getValue() instanceof Map) {
                     Map<String, Object> properties = (Map<String, Object>) e.getValue();
-                    patternPropertyValidators = new HashMap<>(properties.size());
+                    patternPropertyValidators = new LinkedHashMap<>(properties.size());
 
                     for (Map.Entry<String, Object> entry : properties.entrySet()) {
                         try {
@@ -175,6 +187,7 @@ public class ObjectTypeValidator extends Validator {
                             // Invalid RE syntax [" + pattern + "]", pse);
                         }
                     }
+                    patternProperties = new PropertyNamePatterns(patternPropertyValidators);
                 }
             } else if (DEPENDENCIES.equals(e.getKey())) {
                 if (e.getValue() instanceof Map) {
@@ -240,6 +253,11 @@ public class ObjectTypeValidator extends Validator {
                 }
             }
         }
+        boolean hasDependencies = dependenciesValidators != null || dependencyValues != null;
+        for (PropertyValidatorBag propertyValidator : propertyValidators.values()) {
+            hasDependencies |= propertyValidator.hasDependencies();
+        }
+        streamable = !hasDependencies && oneOfValidators == null;
     }
 
     /**
@@ -293,19 +311,12 @@ public class ObjectTypeValidator extends Validator {
                     dependencyPropertyValidator.validate(propertyValue, getPath(at, additionalPropertyName), handler);
                 }
 
-                if (null != patternPropertyValidators) {
-                    for (Map.Entry<Pattern, Validator> v : patternPropertyValidators.entrySet()) {
-                        Matcher matcher = v.getKey().matcher(additionalPropertyName);
-                        // Quoting "3.3 Regular expressions":
-                        // http://tools.ietf.org/html/draft-fge-json-schema-validation-00#section-3.3
-                        // "Finally, implementations MUST NOT consider that regular expressions
-                        // are anchored, neither at the beginning nor at the end.  This means,
-                        // for instance, that "es" matches "expression"."
-                        if (matcher.find()) {
-                            iter.remove();
-                            v.getValue().validate(propertyValue, getPath(at, additionalPropertyName), handler);
-                            break;
-                        }
+                if (null != patternProperties) {
+                    // All the patterns are matched at once, see PropertyNamePatterns
+                    Validator patternPropertyValidator = patternProperties.find(additionalPropertyName);
+                    if (null != patternPropertyValidator) {
+                        iter.remove();
+                        patternPropertyValidator.validate(propertyValue, getPath(at, additionalPropertyName), handler);
                     }
                 }
             }
@@ -341,6 +352,65 @@ public class ObjectTypeValidator extends Validator {
         }
     }
 
+    /**
+     * Validates the properties of the object as they are read from the parser, unless they depend on each other.
+     */
+    @Override
+    protected void validateTokens(JsonParser parser, JsonPointer at, ErrorHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT || !streamable) {
+            super.validateTokens(parser, at, handler);
+            return;
+        }
+        final Set<String> propertyNames = new HashSet<>();
+        final Set<String> additionalPropertyNames = new LinkedHashSet<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String propertyName = parser.getCurrentName();
+            final JsonPointer path = getPath(at, propertyName);
+            parser.nextToken();
+            propertyNames.add(propertyName);
+
+            final PropertyValidatorBag propertyValidator = propertyValidators.get(propertyName);
+            if (null != propertyValidator) {
+                propertyValidator.propertyValidator.validateTokens(parser, path, handler);
+                continue;
+            }
+            final Validator patternPropertyValidator =
+                    null != patternProperties ? patternProperties.find(propertyName) : null;
+            if (null == patternPropertyValidator) {
+                additionalPropertyNames.add(propertyName);
+            }
+            if (null != additionalPropertyValidator && null != patternPropertyValidator) {
+                // Both validators apply to the value, which can only be read once
+                final Object propertyValue = JsonTokens.readValue(parser);
+                additionalPropertyValidator.validate(propertyValue, path, handler);
+                patternPropertyValidator.validate(propertyValue, path, handler);
+            } else if (null != additionalPropertyValidator) {
+                additionalPropertyValidator.validateTokens(parser, path, handler);
+            } else if (null != patternPropertyValidator) {
+                patternPropertyValidator.validateTokens(parser, path, handler);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (!propertyNames.containsAll(requiredPropertyNames)) {
+            Set<String> missingRequiredProperties = new HashSet<>(requiredPropertyNames);
+            missingRequiredProperties.removeAll(propertyNames);
+            handler.error(new ValidationException(
+                    "Missing required property names: " + missingRequiredProperties, getPath(at, null)));
+        }
+        for (Map.Entry<String, PropertyValidatorBag> schemaProperty : propertyValidators.entrySet()) {
+            if (!propertyNames.contains(schemaProperty.getKey()) && schemaProperty.getValue().isRequired()) {
+                handler.error(new ValidationException(
+                        "Required property value is null", getPath(at, schemaProperty.getKey())));
+            }
+        }
+        if (!allowAdditionalProperties && !additionalPropertyNames.isEmpty()) {
+            handler.error(new ValidationException(
+                    "Error: Additional Properties not allowed: " + additionalPropertyNames, getPath(at, null)));
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     protected void collectAllValidators(Collection<Validator> results) {
@@ -384,6 +454,10 @@ public class ObjectTypeValidator extends Validator {
             return propertyValidator.isRequired();
         }
 
+        private boolean hasDependencies() {
+            return dependencyValidator != null || requiredProperties != null;
+        }
+
         private void collectAllValidators(Collection<Validator> results) {
             if (this.propertyValidator != null) {
                 this.propertyValidator.collectAllValidators(results);
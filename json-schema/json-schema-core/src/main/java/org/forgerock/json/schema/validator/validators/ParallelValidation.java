@@ -0,0 +1,232 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator.validators;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.schema.validator.CollectErrorsHandler;
+import org.forgerock.json.schema.validator.ErrorHandler;
+import org.forgerock.json.schema.validator.FailFastErrorHandler;
+import org.forgerock.json.schema.validator.exceptions.ValidationException;
+
+/**
+ * Validates the items of large arrays in parallel, using fork/join tasks.
+ * <p/>
+ * The items are split in ranges validated by different tasks, each of them reporting its errors to its own handler.
+ * Once all the tasks have completed, their errors are reported to the handler of the array, in the order of the items,
+ * so that the handler is never called concurrently and receives the same errors as when the items are validated one
+ * after the other. When the handler of the array is a {@link FailFastErrorHandler}, the first error found stops the
+ * validation of the following items, while the preceding items are still validated so that the error reported is the
+ * error of the first invalid item.
+ */
+final class ParallelValidation {
+
+    /** The minimum number of items of an array for its items to be validated in parallel. */
+    static final int MIN_PARALLEL_ITEMS = 1024;
+
+    /** The minimum number of items validated by a single task. */
+    private static final int MIN_TASK_ITEMS = 256;
+
+    /** Whether the validation running in the current thread may validate array items in parallel. */
+    private static final ThreadLocal<Boolean> PARALLEL = new ThreadLocal<>();
+
+    private ParallelValidation() {
+        // utility class
+    }
+
+    /**
+     * Returns whether the validation running in the current thread may validate the items of large arrays in
+     * parallel, in the fork/join pool of the current thread.
+     *
+     * @return true if the items of large arrays may be validated in parallel
+     */
+    static boolean isEnabled() {
+        return Boolean.TRUE.equals(PARALLEL.get()) && ForkJoinTask.inForkJoinPool();
+    }
+
+    /**
+     * Validates the provided node in the provided pool, validating the items of large arrays in parallel.
+     *
+     * @param validator the validator of the node
+     * @param node the node to validate
+     * @param at the JSON pointer of the node
+     * @param handler the handler to which errors are reported
+     * @param pool the pool in which the node is validated
+     */
+    static void validate(final Validator validator, final Object node, final JsonPointer at,
+            final ErrorHandler handler, final ForkJoinPool pool) {
+        final ParallelTask task = new ParallelTask() {
+            @Override
+            void validate() {
+                validator.validate(node, at, handler);
+            }
+        };
+        pool.invoke(task);
+        task.rethrow();
+    }
+
+    /**
+     * Validates the provided items of an array, in parallel in the fork/join pool of the current thread.
+     *
+     * @param validator the validator of the array
+     * @param items the items of the array
+     * @param at the JSON pointer of the array
+     * @param handler the handler to which errors are reported
+     */
+    static void validateItems(ArrayTypeValidator validator, List<Object> items, JsonPointer at,
+            ErrorHandler handler) {
+        final int taskItems = Math.max(MIN_TASK_ITEMS,
+                items.size() / (4 * ForkJoinTask.getPool().getParallelism()));
+        final ItemsTask task = new ItemsTask(validator, items, at, handler instanceof FailFastErrorHandler,
+                new AtomicInteger(Integer.MAX_VALUE), taskItems, 0, items.size());
+        task.invoke();
+        task.report(handler);
+    }
+
+    /**
+     * A task validating nodes with parallel validation enabled. Exceptions are kept by the task and thrown again by the
+     * thread which reports the errors, rather than copied by the fork/join framework.
+     */
+    private abstract static class ParallelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private RuntimeException exception;
+
+        @Override
+        protected final void compute() {
+            final Boolean parallel = PARALLEL.get();
+            PARALLEL.set(Boolean.TRUE);
+            try {
+                validate();
+            } catch (RuntimeException e) {
+                exception = e;
+            } finally {
+                PARALLEL.set(parallel);
+            }
+        }
+
+        abstract void validate();
+
+        final RuntimeException getFailure() {
+            return exception;
+        }
+
+        final void rethrow() {
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+
+    /** Validates a range of items, splitting it into two tasks if it is large enough. */
+    private static final class ItemsTask extends ParallelTask {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayTypeValidator validator;
+        private final List<Object> items;
+        private final JsonPointer at;
+        private final boolean failFast;
+        /** The index of the first item which has failed, shared by all the tasks validating the array. */
+        private final AtomicInteger firstFailure;
+        private final int taskItems;
+        private final int from;
+        private final int to;
+
+        private ItemsTask left;
+        private ItemsTask right;
+        private List<ValidationException> errors = Collections.emptyList();
+
+        private ItemsTask(ArrayTypeValidator validator, List<Object> items, JsonPointer at, boolean failFast,
+                AtomicInteger firstFailure, int taskItems, int from, int to) {
+            this.validator = validator;
+            this.items = items;
+            this.at = at;
+            this.failFast = failFast;
+            this.firstFailure = firstFailure;
+            this.taskItems = taskItems;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        void validate() {
+            if (from >= firstFailure.get()) {
+                return;
+            }
+            if (to - from > taskItems) {
+                final int middle = (from + to) >>> 1;
+                left = new ItemsTask(validator, items, at, failFast, firstFailure, taskItems, from, middle);
+                right = new ItemsTask(validator, items, at, failFast, firstFailure, taskItems, middle, to);
+                invokeAll(left, right);
+                return;
+            }
+            final CollectErrorsHandler collectErrorsHandler = failFast ? null : new CollectErrorsHandler();
+            final ErrorHandler handler = failFast ? new FailFastErrorHandler() : collectErrorsHandler;
+            int i = from;
+            try {
+                // The items following a failed item are not validated, the ones preceding it still are
+                for (; i < to && i < firstFailure.get(); i++) {
+                    final Validator itemValidator = validator.getItemValidator(i);
+                    if (itemValidator != null) {
+                        itemValidator.validate(items.get(i), validator.getPath(at, Integer.toString(i)), handler);
+                    }
+                }
+            } catch (RuntimeException e) {
+                failedAt(i);
+                throw e;
+            } finally {
+                if (collectErrorsHandler != null) {
+                    errors = collectErrorsHandler.getExceptions();
+                }
+            }
+        }
+
+        private void failedAt(int index) {
+            int first = firstFailure.get();
+            while (index < first && !firstFailure.compareAndSet(first, index)) {
+                first = firstFailure.get();
+            }
+        }
+
+        /**
+         * Reports the errors found by this task and its subtasks to the provided handler, in the order of the items.
+         *
+         * @param handler the handler of the array
+         */
+        private void report(ErrorHandler handler) {
+            if (left != null) {
+                left.report(handler);
+                right.report(handler);
+            }
+            for (ValidationException error : errors) {
+                handler.error(error);
+            }
+            final RuntimeException exception = getFailure();
+            if (failFast && exception instanceof ValidationException) {
+                handler.error((ValidationException) exception);
+            } else if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator.validators;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The <code>patternProperties</code> of an object schema, combined into a single regular expression so that property
+ * names are matched against all the patterns at once.
+ * <p/>
+ * Each pattern becomes a capturing group of an alternation, so that the group which has matched tells which pattern
+ * has matched. When several patterns are found in a property name, the one found first in the name is used, and the
+ * first declared one if several are found at the same position. Patterns which cannot be embedded in a larger regular
+ * expression without changing their meaning, such as patterns containing back references, quotations or comments,
+ * are matched one after the other instead, and the first declared pattern found in the property name is used.
+ */
+final class PropertyNamePatterns {
+
+    /**
+     * Back references are renumbered by the groups of the preceding patterns, while quotations and comments may
+     * extend past the end of the pattern.
+     */
+    private static final Pattern NON_EMBEDDABLE = Pattern.compile("\\\\[1-9kQ]|\\(\\?[a-zA-Z-]*x");
+
+    private final Pattern[] patterns;
+    private final Validator[] validators;
+
+    /** The patterns combined into a single regular expression, or null if they must be matched one by one. */
+    private final Pattern combined;
+
+    /** The index of the capturing group of each pattern in the combined regular expression. */
+    private final int[] groups;
+
+    /**
+     * Creates the <code>patternProperties</code> of an object schema.
+     *
+     * @param patternValidators the validator of each pattern, in the order in which the patterns are matched
+     */
+    PropertyNamePatterns(Map<Pattern, Validator> patternValidators) {
+        this.patterns = patternValidators.keySet().toArray(new Pattern[patternValidators.size()]);
+        this.validators = patternValidators.values().toArray(new Validator[patternValidators.size()]);
+        this.groups = new int[patterns.length];
+        this.combined = combine(patterns, groups);
+    }
+
+    private static Pattern combine(Pattern[] patterns, int[] groups) {
+        if (patterns.length < 2) {
+            return null;
+        }
+        final StringBuilder regex = new StringBuilder();
+        int group = 1;
+        for (int i = 0; i < patterns.length; i++) {
+            if (NON_EMBEDDABLE.matcher(patterns[i].pattern()).find()) {
+                return null;
+            }
+            if (i > 0) {
+                regex.append('|');
+            }
+            regex.append('(').append(patterns[i].pattern()).append(')');
+            groups[i] = group;
+            group += patterns[i].matcher("").groupCount() + 1;
+        }
+        try {
+            final Pattern combined = Pattern.compile(regex.toString());
+            return combined.matcher("").groupCount() == group - 1 ? combined : null;
+        } catch (PatternSyntaxException e) {
+            // For example, the same named group is declared by several patterns
+            return null;
+        }
+    }
+
+    /**
+     * Returns the validator of the pattern found first in the provided property name.
+     * <p/>
+     * Quoting "3.3 Regular expressions":
+     * http://tools.ietf.org/html/draft-fge-json-schema-validation-00#section-3.3
+     * "Finally, implementations MUST NOT consider that regular expressions
+     * are anchored, neither at the beginning nor at the end.  This means,
+     * for instance, that "es" matches "expression"."
+     *
+     * @param propertyName the name of the property
+     * @return the validator of the pattern found first in the property name, or null if none is found
+     */
+    Validator find(String propertyName) {
+        if (combined != null) {
+            final Matcher matcher = combined.matcher(propertyName);
+            if (!matcher.find()) {
+                return null;
+            }
+            int i = 0;
+            while (matcher.start(groups[i]) < 0) {
+                i++;
+            }
+            return validators[i];
+        }
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].matcher(propertyName).find()) {
+                return validators[i];
+            }
+        }
+        return null;
+    }
+}
@@ -12,10 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator.validators;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +26,8 @@ import org.forgerock.json.JsonValue;
 import org.forgerock.json.schema.validator.ErrorHandler;
 import org.forgerock.json.schema.validator.exceptions.SchemaException;
 
+import com.fasterxml.jackson.core.JsonParser;
+
 /**
  * ReferenceTypeValidator holds a reference to another validator. The reference
  * must be resolved by calling {@link Validator#resolveSchemaReferences()} after
@@ -51,12 +55,22 @@ public class ReferenceTypeValidator extends Validator {
     /** {@inheritDoc} */
     @Override
     public void validate(Object node, JsonPointer at, ErrorHandler handler) {
+        getReferencedValidator().validate(node, getPath(at, null), handler);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void validateTokens(JsonParser parser, JsonPointer at, ErrorHandler handler) throws IOException {
+        getReferencedValidator().validateTokens(parser, getPath(at, null), handler);
+    }
+
+    private Validator getReferencedValidator() {
         // referenceValidator should not be null, it is validated in Validator#resolveSchemaReferences()
         if (referenceValidator == null) {
             throw new SchemaException(new JsonValue(null, getJsonPointer()),
                     "Could not dereference JSON reference " + reference);
         }
-        referenceValidator.validate(node, getPath(at, null), handler);
+        return referenceValidator;
     }
 
     /**
@@ -12,23 +12,31 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator.validators;
 
 import static org.forgerock.json.schema.validator.Constants.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.schema.validator.Constants;
+import org.forgerock.json.schema.validator.ErrorHandler;
+import org.forgerock.json.schema.validator.FailFastErrorHandler;
 import org.forgerock.json.schema.validator.exceptions.SchemaException;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+
 /**
  * Validator is the abstract base class of all typed validator.
  * <p>
@@ -58,6 +66,64 @@ public abstract class Validator implements SimpleValidator<Object> {
         }
     }
 
+    /**
+     * Validates the given <code>node</code>, validating the items of large arrays in parallel in the given
+     * fork/join pool.
+     * <p/>
+     * Errors are reported to the <code>handler</code> in the same order as by
+     * {@link #validate(Object, JsonPointer, ErrorHandler)}, and never concurrently, so the handler does not need to be
+     * thread-safe. When the handler is a {@link FailFastErrorHandler}, the first invalid item of an array cancels the
+     * validation of the items following it.
+     *
+     * @param node the node to validate
+     * @param at JSON pointer of the node. If it's null then the value is {@code /}
+     * @param handler the handler to which errors are reported
+     * @param pool the fork/join pool validating the node
+     * @throws SchemaException when the <code>handler</code> re-throws an error
+     */
+    public final void validate(Object node, JsonPointer at, ErrorHandler handler, ForkJoinPool pool) {
+        ParallelValidation.validate(this, node, at, handler, pool);
+    }
+
+    /**
+     * Validates the JSON value read from the given <code>parser</code>, as its tokens are read.
+     * <p/>
+     * The value starts at the current token of the parser, or at its next token if the parser has no current token,
+     * and the parser is left on the last token of the value. Arrays are validated one item at a time, and objects one
+     * property at a time when their schema allows it, so that the value is never held in memory as a whole. The errors
+     * applying to a whole array or object, such as the number of items of an array or its missing properties, are
+     * reported once its last token has been read, after the errors of its items or properties.
+     *
+     * @param parser the parser from which the value is read
+     * @param at JSON pointer of the value. If it's null then the value is {@code /}
+     * @param handler the handler to which errors are reported
+     * @throws IOException when the value cannot be read from the <code>parser</code>
+     * @throws SchemaException when the <code>handler</code> re-throws an error
+     */
+    public final void validateStream(JsonParser parser, JsonPointer at, ErrorHandler handler) throws IOException {
+        if (!parser.hasCurrentToken() && parser.nextToken() == null) {
+            throw new JsonParseException(parser, "Expected a JSON value but reached the end of input");
+        }
+        validateTokens(parser, at, handler);
+    }
+
+    /**
+     * Validates the JSON value starting at the current token of the given <code>parser</code>, leaving the parser on
+     * the last token of the value.
+     * <p/>
+     * This implementation reads the value into memory and validates it with
+     * {@link #validate(Object, JsonPointer, ErrorHandler)}. Validators of values which can be large override it to
+     * validate their values as their tokens are read.
+     *
+     * @param parser the parser, positioned on the first token of the value
+     * @param at JSON pointer of the value. If it's null then the value is {@code /}
+     * @param handler the handler to which errors are reported
+     * @throws IOException when the value cannot be read from the <code>parser</code>
+     */
+    protected void validateTokens(JsonParser parser, JsonPointer at, ErrorHandler handler) throws IOException {
+        validate(JsonTokens.readValue(parser), at, handler);
+    }
+
     /**
      * Gets the valid JSONPath of the node or the given property.
      * <p/>
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.schema.validator;
@@ -38,6 +39,7 @@ import org.forgerock.json.schema.validator.validators.NumberTypeValidator;
 import org.forgerock.json.schema.validator.validators.ObjectTypeValidator;
 import org.forgerock.json.schema.validator.validators.StringTypeValidator;
 import org.forgerock.json.schema.validator.validators.UnionTypeValidator;
+import org.forgerock.json.schema.validator.validators.Validator;
 import org.testng.annotations.Test;
 
 @SuppressWarnings("javadoc")
@@ -75,6 +77,34 @@ public class ObjectValidatorFactoryTest {
 
     }
 
+    @Test
+    public void testCompileCachesValidatorsBySchemaIdentity() throws Exception {
+        Map<String, Object> schema = new HashMap<>();
+        schema.put(Constants.TYPE, Constants.TYPE_STRING);
+        Map<String, Object> sameSchema = new HashMap<>(schema);
+
+        Validator validator = ObjectValidatorFactory.compile(schema);
+        assertThat(validator).isInstanceOf(StringTypeValidator.class);
+        assertThat(ObjectValidatorFactory.compile(schema)).isSameAs(validator);
+        assertThat(ObjectValidatorFactory.compile(sameSchema)).isNotSameAs(validator);
+    }
+
+    @Test
+    public void testCompileResolvesReferences() throws Exception {
+        Map<String, Object> definition = new HashMap<>();
+        definition.put(Constants.TYPE, Constants.TYPE_STRING);
+        Map<String, Object> schema = new HashMap<>();
+        schema.put(Constants.TYPE, Constants.TYPE_OBJECT);
+        schema.put(Constants.DEFINITIONS, Collections.<String, Object>singletonMap("name", definition));
+        schema.put(Constants.PROPERTIES, Collections.<String, Object>singletonMap("name",
+                Collections.<String, Object>singletonMap(Constants.REF, "#/definitions/name")));
+
+        Validator validator = ObjectValidatorFactory.compile(schema);
+        assertThat(ObjectValidator.validate(Collections.singletonMap("name", "value"), schema)).isTrue();
+        assertThat(ObjectValidator.validate(Collections.singletonMap("name", 1), schema)).isFalse();
+        assertThat(ObjectValidatorFactory.compile(schema)).isSameAs(validator);
+    }
+
     @Test(expectedExceptions = RuntimeException.class)
     public void testInvalidSchema() throws Exception {
         Map<String, Object> schema = new HashMap<>();
@@ -0,0 +1,147 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator.validators;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.forgerock.json.schema.validator.Constants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.schema.validator.CollectErrorsHandler;
+import org.forgerock.json.schema.validator.ErrorHandler;
+import org.forgerock.json.schema.validator.FailFastErrorHandler;
+import org.forgerock.json.schema.validator.exceptions.SchemaException;
+import org.forgerock.json.schema.validator.exceptions.ValidationException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ParallelValidationTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeClass
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void parallelValidationShouldReportErrorsInOrder() throws Exception {
+        Validator validator = arrayOf(TYPE_STRING);
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            items.add(i % 7 == 0 ? (Object) Long.valueOf(i) : "item" + i);
+        }
+
+        CollectErrorsHandler sequentialErrors = new CollectErrorsHandler();
+        validator.validate(items, null, sequentialErrors);
+        CollectErrorsHandler parallelErrors = new CollectErrorsHandler();
+        validator.validate(items, null, parallelErrors, pool);
+
+        assertThat(parallelErrors.getExceptions()).hasSize(20000 / 7 + 1);
+        assertThat(pointers(parallelErrors.getExceptions())).isEqualTo(pointers(sequentialErrors.getExceptions()));
+    }
+
+    @Test
+    public void parallelValidationShouldValidateNestedArrays() throws Exception {
+        Map<String, Object> schema = new HashMap<>();
+        schema.put(TYPE, TYPE_OBJECT);
+        schema.put(PROPERTIES, Collections.<String, Object>singletonMap("items", arraySchema(TYPE_INTEGER)));
+        Validator validator = new ObjectTypeValidator(schema, Collections.<String>emptyList());
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            items.add(i == 4321 ? (Object) "invalid" : Long.valueOf(i));
+        }
+
+        CollectErrorsHandler errors = new CollectErrorsHandler();
+        validator.validate(Collections.singletonMap("items", items), null, errors, pool);
+
+        assertThat(pointers(errors.getExceptions())).containsExactly("/items/4321");
+    }
+
+    @Test
+    public void failFastErrorHandlerShouldCancelTheFollowingItems() throws Exception {
+        ArrayTypeValidator validator = new ArrayTypeValidator(arraySchema(null), Collections.<String>emptyList());
+        final AtomicInteger validatedItems = new AtomicInteger();
+        ((ReferenceTypeValidator) validator.getItemValidator(0)).setReferencedValidator(
+                new Validator(Collections.<String, Object>emptyMap(), null) {
+                    @Override
+                    public void validate(Object node, JsonPointer at, ErrorHandler handler) {
+                        validatedItems.incrementAndGet();
+                        if (Integer.valueOf(1000).equals(node) || Integer.valueOf(30000).equals(node)) {
+                            handler.error(new ValidationException("invalid", at));
+                        }
+                        LockSupport.parkNanos(50000);
+                    }
+                });
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            items.add(i);
+        }
+
+        try {
+            validator.validate(items, null, new FailFastErrorHandler(), pool);
+            failBecauseExceptionWasNotThrown(ValidationException.class);
+        } catch (ValidationException e) {
+            assertThat(e.getJsonValue().getPointer()).isEqualTo(new JsonPointer("/1000"));
+        }
+        assertThat(validatedItems.get()).isGreaterThan(1000).isLessThan(items.size() / 2);
+    }
+
+    @Test(expectedExceptions = SchemaException.class)
+    public void parallelValidationShouldThrowSchemaExceptions() throws Exception {
+        // The reference is never resolved
+        ArrayTypeValidator validator = new ArrayTypeValidator(arraySchema(null), Collections.<String>emptyList());
+        validator.validate(Collections.nCopies(5000, "item"), null, new CollectErrorsHandler(), pool);
+    }
+
+    private static Validator arrayOf(String itemType) {
+        return new ArrayTypeValidator(arraySchema(itemType), Collections.<String>emptyList());
+    }
+
+    /** Returns an array schema, whose items are a reference if no type is provided. */
+    private static Map<String, Object> arraySchema(String itemType) {
+        Map<String, Object> schema = new HashMap<>();
+        schema.put(TYPE, TYPE_ARRAY);
+        schema.put(ITEMS, itemType != null
+                ? Collections.<String, Object>singletonMap(TYPE, itemType)
+                : Collections.<String, Object>singletonMap(REF, "#/definitions/item"));
+        return schema;
+    }
+
+    private static List<String> pointers(List<ValidationException> exceptions) {
+        List<String> pointers = new ArrayList<>();
+        for (ValidationException exception : exceptions) {
+            pointers.add(exception.getJsonValue().getPointer().toString());
+        }
+        return pointers;
+    }
+}
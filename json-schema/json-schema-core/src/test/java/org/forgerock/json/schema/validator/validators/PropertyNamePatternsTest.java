@@ -0,0 +1,71 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator.validators;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class PropertyNamePatternsTest {
+
+    @DataProvider
+    public Object[][] propertyNames() {
+        return new Object[][] {
+            // patterns, property name, index of the expected pattern or -1
+            { new String[] { "^a", "b$", "c" }, "abc", 0 },
+            { new String[] { "^a", "b$", "c" }, "xb", 1 },
+            { new String[] { "^a", "b$", "c" }, "xcx", 2 },
+            { new String[] { "^a", "b$", "c" }, "xyz", -1 },
+            // the pattern found first in the property name is used
+            { new String[] { "^a", "b$", "c" }, "xcb", 2 },
+            { new String[] { "z", "y" }, "yz", 1 },
+            { new String[] { "y", "yz" }, "yz", 0 },
+            { new String[] { "(x)(y)", "(z)" }, "z", 1 },
+            { new String[] { "(?<a>x)", "(?<a>y)" }, "y", 1 },
+            { new String[] { "(x)\\1", "y" }, "xx", 0 },
+            { new String[] { "\\Qa|b", "b" }, "b", 1 },
+            { new String[] { "(?x) a # comment", "b" }, "b", 1 },
+            { new String[] { "es" }, "expression", 0 },
+            { new String[0], "property", -1 },
+        };
+    }
+
+    @Test(dataProvider = "propertyNames")
+    public void testFind(String[] patterns, String propertyName, int expected) {
+        Map<Pattern, Validator> patternValidators = new LinkedHashMap<>();
+        Validator[] validators = new Validator[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            validators[i] = mock(Validator.class);
+            patternValidators.put(Pattern.compile(patterns[i]), validators[i]);
+        }
+
+        Validator validator = new PropertyNamePatterns(patternValidators).find(propertyName);
+
+        if (expected < 0) {
+            assertThat(validator).isNull();
+        } else {
+            assertThat(validator).isSameAs(validators[expected]);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.schema.validator.validators;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.json.schema.validator.CollectErrorsHandler;
+import org.forgerock.json.schema.validator.ObjectValidatorFactory;
+import org.forgerock.json.schema.validator.exceptions.ValidationException;
+import org.json.simple.parser.JSONParser;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+@SuppressWarnings("javadoc")
+public class StreamingValidationTest extends ValidatorTestBase {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @DataProvider(name = "schema-objects")
+    public Object[][] schemaObjects() throws Exception {
+        List<Object[]> tests = new ArrayList<>();
+        for (String testFile : new String[] { "/arrayTests.json", "/integerTests.json", "/numberTests.json",
+            "/objectTests.json", "/stringTests.json" }) {
+            tests.addAll(getTestJSON("valid", testFile));
+            tests.addAll(getTestJSON("invalid", testFile));
+        }
+        return tests.toArray(new Object[tests.size()][]);
+    }
+
+    @Test(dataProvider = "schema-objects")
+    public void streamingValidationShouldFindTheSameErrors(Validator validator, Object instance) throws Exception {
+        CollectErrorsHandler errorHandler = new CollectErrorsHandler();
+        validator.validate(instance, null, errorHandler);
+
+        CollectErrorsHandler streamingErrorHandler = new CollectErrorsHandler();
+        try (JsonParser parser = JSON_FACTORY.createParser(toJson(instance))) {
+            validator.validateStream(parser, null, streamingErrorHandler);
+            assertThat(parser.currentToken()).isIn(JsonToken.END_ARRAY, JsonToken.END_OBJECT, JsonToken.VALUE_NULL,
+                    JsonToken.VALUE_STRING, JsonToken.VALUE_NUMBER_INT, JsonToken.VALUE_NUMBER_FLOAT,
+                    JsonToken.VALUE_TRUE, JsonToken.VALUE_FALSE);
+            assertThat(parser.nextToken()).isNull();
+        }
+
+        assertThat(streamingErrorHandler.hasError()).isEqualTo(errorHandler.hasError());
+    }
+
+    @Test
+    public void streamingValidationShouldValidateEachItem() throws Exception {
+        Validator validator = compile("{ \"type\" : \"array\", \"items\" : { \"type\" : \"object\", "
+                + "\"properties\" : { \"name\" : { \"type\" : \"string\", \"required\" : true } }, "
+                + "\"additionalProperties\" : false } }");
+        String json = "[ { \"name\" : \"one\" }, { \"name\" : 2 }, { \"other\" : \"three\" } ]";
+
+        CollectErrorsHandler errorHandler = new CollectErrorsHandler();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            validator.validateStream(parser, null, errorHandler);
+        }
+
+        assertThat(pointers(errorHandler)).containsExactly("/1/name", "/2/name", "/2");
+    }
+
+    @Test
+    public void streamingValidationShouldFollowReferences() throws Exception {
+        Validator validator = compile("{ \"type\" : \"object\", \"definitions\" : { \"name\" : "
+                + "{ \"type\" : \"string\" } }, \"properties\" : { \"names\" : { \"type\" : \"array\", "
+                + "\"items\" : { \"$ref\" : \"#/definitions/name\" } } } }");
+
+        CollectErrorsHandler errorHandler = new CollectErrorsHandler();
+        try (JsonParser parser = JSON_FACTORY.createParser("{ \"names\" : [ \"one\", 2, \"three\" ] }")) {
+            validator.validateStream(parser, null, errorHandler);
+        }
+
+        assertThat(pointers(errorHandler)).containsExactly("/names/1");
+    }
+
+    @Test(expectedExceptions = JsonParseException.class)
+    public void streamingValidationShouldFailOnEmptyInput() throws Exception {
+        try (JsonParser parser = JSON_FACTORY.createParser("")) {
+            compile("{ \"type\" : \"string\" }").validateStream(parser, null, new CollectErrorsHandler());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Validator compile(String schema) throws Exception {
+        return ObjectValidatorFactory.getTypeValidator((Map<String, Object>) new JSONParser().parse(schema));
+    }
+
+    private static List<String> pointers(CollectErrorsHandler errorHandler) {
+        List<String> pointers = new ArrayList<>();
+        for (ValidationException exception : errorHandler.getExceptions()) {
+            pointers.add(exception.getJsonValue().getPointer().toString());
+        }
+        return pointers;
+    }
+
+    private static String toJson(Object value) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            write(generator, value);
+        }
+        return writer.toString();
+    }
+
+    private static void write(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName((String) entry.getKey());
+                write(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof List) {
+            generator.writeStartArray();
+            for (Object item : (List<?>) value) {
+                write(generator, item);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
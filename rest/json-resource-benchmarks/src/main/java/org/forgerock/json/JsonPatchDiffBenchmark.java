@@ -0,0 +1,103 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json;
+
+import static org.forgerock.json.JsonPatch.OPTION_ARRAY_DIFF;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.json.JsonPatch.ArrayDiff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link JsonPatch#diff(JsonValue, JsonValue, org.forgerock.util.Options)} on a resource whose multi-valued
+ * {@code members} attribute has {@code size} elements, {@code changes} of which are removed and replaced by new
+ * elements at random positions, for each {@link ArrayDiff} mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class JsonPatchDiffBenchmark {
+
+    @Param({ "10000" })
+    private int size;
+
+    @Param({ "0", "10", "100" })
+    private int changes;
+
+    @Param({ "REPLACE", "ORDERED", "UNORDERED" })
+    private ArrayDiff arrayDiff;
+
+    private JsonValue original;
+    private JsonValue target;
+    private org.forgerock.util.Options options;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(0);
+        final List<Object> members = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            members.add("uid=user." + i + ",ou=people,dc=example,dc=com");
+        }
+        final List<Object> changedMembers = new ArrayList<>(members);
+        for (int i = 0; i < changes; i++) {
+            changedMembers.remove(random.nextInt(changedMembers.size()));
+            changedMembers.add(random.nextInt(changedMembers.size()),
+                    "uid=user.new" + i + ",ou=people,dc=example,dc=com");
+        }
+        original = json(object(field("cn", "group"), field("members", members)));
+        target = json(object(field("cn", "group"), field("members", changedMembers)));
+        options = org.forgerock.util.Options.defaultOptions().set(OPTION_ARRAY_DIFF, arrayDiff);
+    }
+
+    @Benchmark
+    public JsonValue testDiff() {
+        return JsonPatch.diff(original, target, options);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JsonPatchDiffBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
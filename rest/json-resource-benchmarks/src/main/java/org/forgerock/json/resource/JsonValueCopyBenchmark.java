@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import static org.forgerock.json.JsonValue.array;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Requests.newCreateRequest;
+import static org.forgerock.json.resource.Requests.newReadRequest;
+import static org.forgerock.json.resource.Requests.newUpdateRequest;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.JsonValue;
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the cost of the copies made on the CREST request paths when the JSON content is mutable, and therefore
+ * deeply copied, with their cost when it is {@link JsonValue#freeze() frozen}, and therefore copied on write:
+ * <ul>
+ *     <li>the defensive copy of a request ({@link Requests#copyOfUpdateRequest(UpdateRequest)}),</li>
+ *     <li>the copy of the content modified by a patch, which only changes one attribute,</li>
+ *     <li>a hit of the {@link CachingFilter}, which returns a copy of the cached response.</li>
+ * </ul>
+ * The content is a resource with {@code attributes} top-level attributes, each of them being an object of five
+ * fields including a small array.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class JsonValueCopyBenchmark {
+
+    private static final JsonPointer PATCHED_FIELD = new JsonPointer("/attribute0/description");
+
+    @Param({ "10", "100" })
+    private int attributes;
+
+    private final Context context = new RootContext();
+    private UpdateRequest mutableRequest;
+    private UpdateRequest frozenRequest;
+    private JsonValue mutableContent;
+    private JsonValue frozenContent;
+    private RequestHandler cachingHandler;
+    private final ReadRequest readRequest = newReadRequest("bjensen");
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        mutableContent = json(object(attributes));
+        for (int i = 0; i < attributes; i++) {
+            mutableContent.put("attribute" + i, object(
+                    field("name", "attribute" + i),
+                    field("description", "The attribute number " + i),
+                    field("enabled", true),
+                    field("count", i),
+                    field("values", array("a", "b", "c"))));
+        }
+        frozenContent = mutableContent.freeze();
+        mutableRequest = newUpdateRequest("users/bjensen", mutableContent);
+        frozenRequest = newUpdateRequest("users/bjensen", frozenContent);
+
+        final RequestHandler backend = Resources.newCollection(new MemoryBackend());
+        backend.handleCreate(context, newCreateRequest("", "bjensen", mutableContent.copy())).getOrThrow();
+        cachingHandler = new FilterChain(backend,
+                Filters.newCachingFilter(org.forgerock.util.Options.defaultOptions()));
+        cachingHandler.handleRead(context, readRequest).getOrThrow();
+    }
+
+    @Benchmark
+    public UpdateRequest testCopyOfRequestWithMutableContent() {
+        return Requests.copyOfUpdateRequest(mutableRequest);
+    }
+
+    @Benchmark
+    public UpdateRequest testCopyOfRequestWithFrozenContent() {
+        return Requests.copyOfUpdateRequest(frozenRequest);
+    }
+
+    @Benchmark
+    public JsonValue testPatchDeepCopy() {
+        return mutableContent.copy().put(PATCHED_FIELD, "patched");
+    }
+
+    @Benchmark
+    public JsonValue testPatchMutableCopy() {
+        return frozenContent.mutableCopy().put(PATCHED_FIELD, "patched");
+    }
+
+    @Benchmark
+    public Object testCachedRead() throws Exception {
+        final Promise<ResourceResponse, ResourceException> promise = cachingHandler.handleRead(context, readRequest);
+        return promise.getOrThrow().getContent().get(PATCHED_FIELD).getObject();
+    }
+
+    @Benchmark
+    public Object testDeepCopyOfResponse() {
+        final ResourceResponse response = newResourceResponse("bjensen", "1", mutableContent.copy());
+        return response.getContent().get(PATCHED_FIELD).getObject();
+    }
+
+    @Benchmark
+    public Map<String, Object> testFreeze() {
+        return mutableContent.freeze().asMap();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JsonValueCopyBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
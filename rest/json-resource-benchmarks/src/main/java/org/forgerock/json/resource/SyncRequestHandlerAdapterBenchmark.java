@@ -0,0 +1,177 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Requests.newReadRequest;
+import static org.forgerock.json.resource.Resources.OPTION_SYNC_MAX_CONCURRENCY;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput of {@link Resources#asRequestHandler(SynchronousRequestHandler)}, which executes the
+ * synchronous handler on the calling thread, with
+ * {@link Resources#asRequestHandler(SynchronousRequestHandler, org.forgerock.util.Options)}, which dispatches it to
+ * an executor, in front of a backend blocking for {@code latencyMillis} on each request.
+ * <p>
+ * Each operation issues {@code requestsPerOperation} reads without waiting for their responses, as an asynchronous
+ * caller (a router, a HTTP container) would, then waits for all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+public class SyncRequestHandlerAdapterBenchmark {
+
+    @Param({ "1", "10" })
+    private int latencyMillis;
+
+    @Param({ "32" })
+    private int requestsPerOperation;
+
+    @Param({ "256" })
+    private int maxConcurrency;
+
+    private final Context context = new RootContext();
+    private final ReadRequest request = newReadRequest("users/bjensen");
+    private RequestHandler blocking;
+    private RequestHandler executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SynchronousRequestHandler backend = new BlockingBackend(latencyMillis);
+        blocking = Resources.asRequestHandler(backend);
+        executor = Resources.asRequestHandler(backend,
+                org.forgerock.util.Options.defaultOptions().set(OPTION_SYNC_MAX_CONCURRENCY, maxConcurrency));
+    }
+
+    @Benchmark
+    public int testBlockingAdapter() throws Exception {
+        return readAll(blocking);
+    }
+
+    @Benchmark
+    public int testExecutorAdapter() throws Exception {
+        return readAll(executor);
+    }
+
+    private int readAll(final RequestHandler handler) throws Exception {
+        final List<Promise<ResourceResponse, ResourceException>> promises = new ArrayList<>(requestsPerOperation);
+        for (int i = 0; i < requestsPerOperation; i++) {
+            promises.add(handler.handleRead(context, request));
+        }
+        int size = 0;
+        for (final Promise<ResourceResponse, ResourceException> promise : promises) {
+            size += promise.getOrThrow().getContent().size();
+        }
+        return size;
+    }
+
+    /** A backend blocking the calling thread for a fixed time, like a JDBC or LDAP call would. */
+    private static final class BlockingBackend implements SynchronousRequestHandler {
+        private final int latencyMillis;
+
+        private BlockingBackend(final int latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public ResourceResponse handleRead(final Context context, final ReadRequest request)
+                throws ResourceException {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException(e);
+            }
+            return newResourceResponse(request.getResourcePath(), "1", json(object()));
+        }
+
+        @Override
+        public ActionResponse handleAction(final Context context, final ActionRequest request)
+                throws ResourceException {
+            throw new NotSupportedException();
+        }
+
+        @Override
+        public ResourceResponse handleCreate(final Context context, final CreateRequest request)
+                throws ResourceException {
+            throw new NotSupportedException();
+        }
+
+        @Override
+        public ResourceResponse handleDelete(final Context context, final DeleteRequest request)
+                throws ResourceException {
+            throw new NotSupportedException();
+        }
+
+        @Override
+        public ResourceResponse handlePatch(final Context context, final PatchRequest request)
+                throws ResourceException {
+            throw new NotSupportedException();
+        }
+
+        @Override
+        public QueryResponse handleQuery(final Context context, final QueryRequest request,
+                final Collection<ResourceResponse> resources) throws ResourceException {
+            throw new NotSupportedException();
+        }
+
+        @Override
+        public ResourceResponse handleUpdate(final Context context, final UpdateRequest request)
+                throws ResourceException {
+            throw new NotSupportedException();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SyncRequestHandlerAdapterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
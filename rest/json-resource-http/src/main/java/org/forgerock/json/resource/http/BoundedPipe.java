@@ -0,0 +1,193 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.json.resource.http;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * A pipe transferring bytes from an {@link OutputStream} written by one thread to an {@link InputStream} read by
+ * another one, through a fixed size buffer.
+ * <p>
+ * Unlike {@link org.forgerock.http.io.PipeBufferedStream}, the reader does not need to wait for the writer to be
+ * closed: it blocks until bytes are available, and the writer blocks while the buffer is full, so that a slow reader
+ * slows the writer down. Closing the reader makes subsequent writes fail, so that the writer can stop producing.
+ * <p>
+ * When a timeout is set, a reader or a writer which has been blocked for that long fails with an
+ * {@link InterruptedIOException}, and the pipe is closed at both ends, so that neither a client which stopped reading
+ * nor a producer which stopped writing can hold a thread indefinitely.
+ */
+final class BoundedPipe {
+
+    private final byte[] buffer;
+    /** How long the reader or the writer may be blocked, in nanoseconds, or {@code 0} for no limit. */
+    private final long timeoutNanos;
+    /** Index of the next byte to read. */
+    private int head;
+    /** Number of bytes available for reading. */
+    private int count;
+    private boolean writerClosed;
+    private boolean readerClosed;
+
+    private final OutputStream outputStream = new PipeOutputStream();
+    private final InputStream inputStream = new PipeInputStream();
+
+    BoundedPipe(final int capacity) {
+        this(capacity, 0);
+    }
+
+    BoundedPipe(final int capacity, final long timeoutMillis) {
+        this.buffer = new byte[capacity];
+        this.timeoutNanos = MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Returns the output stream which writes to the pipe.
+     *
+     * @return The output stream.
+     */
+    OutputStream getIn() {
+        return outputStream;
+    }
+
+    /**
+     * Returns the input stream which reads from the pipe.
+     *
+     * @return The input stream.
+     */
+    InputStream getOut() {
+        return inputStream;
+    }
+
+    private final class PipeOutputStream extends OutputStream {
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            int offset = off;
+            int remaining = len;
+            synchronized (BoundedPipe.this) {
+                while (remaining > 0) {
+                    final long deadline = deadline();
+                    while (count == buffer.length && !readerClosed && !writerClosed) {
+                        await(deadline);
+                    }
+                    if (writerClosed) {
+                        throw new IOException("The pipe has been closed");
+                    }
+                    if (readerClosed) {
+                        throw new IOException("The reader of the pipe has been closed");
+                    }
+                    final int tail = (head + count) % buffer.length;
+                    final int length = Math.min(remaining, Math.min(buffer.length - count, buffer.length - tail));
+                    System.arraycopy(b, offset, buffer, tail, length);
+                    count += length;
+                    offset += length;
+                    remaining -= length;
+                    BoundedPipe.this.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (BoundedPipe.this) {
+                writerClosed = true;
+                BoundedPipe.this.notifyAll();
+            }
+        }
+    }
+
+    private final class PipeInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            synchronized (BoundedPipe.this) {
+                final long deadline = deadline();
+                while (count == 0 && !writerClosed && !readerClosed) {
+                    await(deadline);
+                }
+                if (readerClosed) {
+                    throw new IOException("The pipe has been closed");
+                }
+                if (count == 0) {
+                    return -1;
+                }
+                final int length = Math.min(len, Math.min(count, buffer.length - head));
+                System.arraycopy(buffer, head, b, off, length);
+                head = (head + length) % buffer.length;
+                count -= length;
+                BoundedPipe.this.notifyAll();
+                return length;
+            }
+        }
+
+        @Override
+        public int available() {
+            synchronized (BoundedPipe.this) {
+                return count;
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (BoundedPipe.this) {
+                readerClosed = true;
+                BoundedPipe.this.notifyAll();
+            }
+        }
+    }
+
+    private long deadline() {
+        return System.nanoTime() + timeoutNanos;
+    }
+
+    private void await(final long deadline) throws InterruptedIOException {
+        try {
+            if (timeoutNanos == 0) {
+                wait();
+                return;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                readerClosed = true;
+                writerClosed = true;
+                notifyAll();
+                throw new InterruptedIOException("Timed out waiting on the pipe");
+            }
+            NANOSECONDS.timedWait(this, remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on the pipe");
+        }
+    }
+}
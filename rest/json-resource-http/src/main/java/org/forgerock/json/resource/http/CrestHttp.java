@@ -12,11 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource.http;
 
 import static org.forgerock.json.resource.http.HttpUtils.*;
+import static org.forgerock.util.time.Duration.duration;
 
 import java.net.URI;
 
@@ -29,7 +31,10 @@ import org.forgerock.http.handler.Handlers;
 import org.forgerock.json.resource.ConnectionFactory;
 import org.forgerock.json.resource.RequestHandler;
 import org.forgerock.json.resource.Resources;
+import org.forgerock.util.Option;
+import org.forgerock.util.Options;
 import org.forgerock.util.Reject;
+import org.forgerock.util.time.Duration;
 
 /**
  * <p>A CREST HTTP utility class which creates instances of the {@link HttpAdapter}
@@ -40,6 +45,19 @@ import org.forgerock.util.Reject;
  */
 public final class CrestHttp {
 
+    /**
+     * The maximum number of queries whose results can be streamed concurrently (see
+     * {@link #newHttpHandler(CrestApplication, HttpContextFactory, Options)}). Extra streamed queries are rejected
+     * with a {@code 503 Service Unavailable} response. Defaults to 32.
+     */
+    public static final Option<Integer> OPTION_STREAMING_MAX_CONCURRENCY = Option.withDefault(32);
+
+    /**
+     * How long the results of a streamed query may wait for the client to read them, or the client may wait for
+     * the next results, before the query is cancelled and the response aborted. Defaults to 1 minute.
+     */
+    public static final Option<Duration> OPTION_STREAMING_TIMEOUT = Option.of(Duration.class, duration("1 minute"));
+
     private CrestHttp() {
     }
 
@@ -137,6 +155,25 @@ public final class CrestHttp {
         return Handlers.chainOf(new HttpAdapter(application, factory), newOptionsFilter());
     }
 
+    /**
+     * Creates a new JSON resource HTTP handler with the provided CREST request handler.
+     * <p>
+     * The options configure the streaming of query results, requested with the {@code _stream} parameter or by
+     * accepting newline delimited JSON: see {@link #OPTION_STREAMING_MAX_CONCURRENCY} and
+     * {@link #OPTION_STREAMING_TIMEOUT}. Each handler created with options has its own streaming threads, the other
+     * handlers sharing default ones.
+     *
+     * @param application The application.
+     * @param factory A factory for creating parent HTTP Contexts.
+     * @param options The options of the handler.
+     * @return The handler
+     */
+    public static Handler newHttpHandler(CrestApplication application, HttpContextFactory factory,
+            Options options) {
+        Reject.ifNull(application, options);
+        return Handlers.chainOf(new HttpAdapter(application, factory, options), newOptionsFilter());
+    }
+
     /**
      * Creates a new JSON resource HTTP handler with the provided CREST request handler.
      *
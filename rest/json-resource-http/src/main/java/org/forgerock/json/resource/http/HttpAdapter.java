@@ -42,6 +42,7 @@ import static org.forgerock.json.resource.http.HttpUtils.PARAM_QUERY_EXPRESSION;
 import static org.forgerock.json.resource.http.HttpUtils.PARAM_QUERY_FILTER;
 import static org.forgerock.json.resource.http.HttpUtils.PARAM_QUERY_ID;
 import static org.forgerock.json.resource.http.HttpUtils.PARAM_SORT_KEYS;
+import static org.forgerock.json.resource.http.HttpUtils.PARAM_STREAM;
 import static org.forgerock.json.resource.http.HttpUtils.PARAM_TOTAL_PAGED_RESULTS_POLICY;
 import static org.forgerock.json.resource.http.HttpUtils.PROTOCOL_VERSION_1;
 import static org.forgerock.json.resource.http.HttpUtils.RESTRICTED_HEADER_NAMES;
@@ -120,6 +121,7 @@ import org.forgerock.services.context.Context;
 import org.forgerock.services.context.RootContext;
 import org.forgerock.services.descriptor.Describable;
 import org.forgerock.util.AsyncFunction;
+import org.forgerock.util.Options;
 import org.forgerock.util.i18n.PreferredLocales;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
@@ -176,6 +178,7 @@ final class HttpAdapter implements Handler, Describable<OpenAPI, org.forgerock.h
     private final HttpContextFactory contextFactory;
     private final String apiId;
     private final String apiVersion;
+    private final StreamingQueryExecutor streamingExecutor;
     private final List<Describable.Listener> apiListeners = new CopyOnWriteArrayList<>();
     private ApiProducer<OpenAPI> apiProducer;
     private LoadingCache<String, Optional<OpenAPI>> descriptorCache;
@@ -239,8 +242,31 @@ final class HttpAdapter implements Handler, Describable<OpenAPI, org.forgerock.h
      *            context of each request context, or {@code null} if the
      *            {@link SecurityContextFactory} should be used.
      */
-    @SuppressWarnings("deprecation")
     public HttpAdapter(CrestApplication application, HttpContextFactory contextFactory) {
+        this(application, contextFactory, StreamingQueryExecutor.getDefault());
+    }
+
+    /**
+     * Creates a new HTTP adapter with the provided connection factory, context factory and options.
+     *
+     * @param application
+     *            The CREST application.
+     * @param contextFactory
+     *            The context factory which will be used to obtain the parent
+     *            context of each request context, or {@code null} if the
+     *            {@link SecurityContextFactory} should be used.
+     * @param options
+     *            The options of the adapter, see {@link CrestHttp#OPTION_STREAMING_MAX_CONCURRENCY} and
+     *            {@link CrestHttp#OPTION_STREAMING_TIMEOUT}.
+     */
+    public HttpAdapter(CrestApplication application, HttpContextFactory contextFactory, Options options) {
+        this(application, contextFactory, new StreamingQueryExecutor(options));
+    }
+
+    @SuppressWarnings("deprecation")
+    private HttpAdapter(CrestApplication application, HttpContextFactory contextFactory,
+            StreamingQueryExecutor streamingExecutor) {
+        this.streamingExecutor = streamingExecutor;
         this.contextFactory = contextFactory != null ? contextFactory : SecurityContextFactory
                 .getHttpServletContextFactory();
         this.connectionFactory = checkNotNull(application.getConnectionFactory());
@@ -414,6 +440,9 @@ final class HttpAdapter implements Handler, Describable<OpenAPI, org.forgerock.h
                         throw new BadRequestException("The value '" + s + "' for parameter '"
                                 + name + "' could not be parsed as a valid query filter");
                     }
+                } else if (name.equalsIgnoreCase(PARAM_STREAM)) {
+                    // This will be handled by the request runner, so just validate.
+                    asBooleanValue(name, values);
                 } else if (name.equalsIgnoreCase(PARAM_TOTAL_PAGED_RESULTS_POLICY)) {
                     final String policy = asSingleValue(name, values);
 
@@ -682,7 +711,7 @@ final class HttpAdapter implements Handler, Describable<OpenAPI, org.forgerock.h
     private Promise<Response, NeverThrowsException> doRequest(Context context, org.forgerock.http.protocol.Request req,
             Request request) throws Exception {
         Context ctx = prepareRequest(context, req, request);
-        final RequestRunner runner = new RequestRunner(ctx, request, req, new Response(Status.OK));
+        final RequestRunner runner = new RequestRunner(ctx, request, req, new Response(Status.OK), streamingExecutor);
         return connectionFactory.getConnectionAsync()
                 .thenAsync(new AsyncFunction<Connection, Response, NeverThrowsException>() {
                     @Override
@@ -52,6 +52,7 @@ import org.forgerock.http.header.AcceptApiVersionHeader;
 import org.forgerock.http.header.ContentTypeHeader;
 import org.forgerock.http.header.MalformedHeaderException;
 import org.forgerock.http.io.PipeBufferedStream;
+import org.forgerock.http.protocol.Header;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.http.routing.Version;
@@ -84,6 +85,8 @@ public final class HttpUtils {
     static final String ETAG_ANY = "*";
 
     static final String MIME_TYPE_APPLICATION_JSON = "application/json";
+    static final String MIME_TYPE_APPLICATION_NDJSON = "application/x-ndjson";
+    static final String MIME_TYPE_APPLICATION_NDJSON_ALT = "application/ndjson";
     static final String MIME_TYPE_MULTIPART_FORM_DATA = "multipart/form-data";
     static final String MIME_TYPE_TEXT_PLAIN = "text/plain";
 
@@ -136,6 +139,8 @@ public final class HttpUtils {
             param(QueryRequest.FIELD_PAGED_RESULTS_OFFSET);
     /** the HTTP request parameter to request pretty printing. */
     public static final String PARAM_PRETTY_PRINT = "_prettyPrint";
+    /** the HTTP request parameter to request query results to be streamed as they are produced. */
+    public static final String PARAM_STREAM = "_stream";
     /** the HTTP request parameter to specify a query expression. */
     public static final String PARAM_QUERY_EXPRESSION = param(QueryRequest.FIELD_QUERY_EXPRESSION);
     /** the HTTP request parameter to specify a query filter. */
@@ -569,8 +574,25 @@ public final class HttpUtils {
         PipeBufferedStream pipeStream = new PipeBufferedStream();
         resp.setEntity(pipeStream.getOut());
 
-        final JsonGenerator writer =
-                JSON_MAPPER.getFactory().createGenerator(pipeStream.getIn());
+        return getJsonGenerator(req, pipeStream.getIn());
+    }
+
+    /**
+     * Creates a JSON generator which can be used for serializing JSON content
+     * to the provided output stream.
+     *
+     * @param req
+     *            The HTTP request.
+     * @param out
+     *            The output stream, which will be closed with the generator.
+     * @return A JSON generator which can be used to write out a JSON response.
+     * @throws IOException
+     *             If an error occurred while creating the generator.
+     */
+    static JsonGenerator getJsonGenerator(org.forgerock.http.protocol.Request req,
+            OutputStream out) throws IOException {
+
+        final JsonGenerator writer = JSON_MAPPER.getFactory().createGenerator(out);
 
         // Need to have the JsonGenerator close the stream so that it is
         // properly released.
@@ -675,6 +697,47 @@ public final class HttpUtils {
         return getParameter(req, parameter) != null;
     }
 
+    /**
+     * Returns {@code true} if the client asked for query results to be streamed
+     * as they are produced, either with the {@code _stream} parameter or by
+     * accepting newline delimited JSON.
+     *
+     * @param req
+     *            The HTTP request.
+     * @return {@code true} if query results should be streamed.
+     * @throws ResourceException
+     *             If the {@code _stream} parameter is not a boolean.
+     */
+    static boolean isStreamingRequested(org.forgerock.http.protocol.Request req) throws ResourceException {
+        final List<String> values = getParameter(req, PARAM_STREAM);
+        return (values != null && asBooleanValue(PARAM_STREAM, values)) || isNdJsonRequested(req);
+    }
+
+    /**
+     * Returns {@code true} if the client accepts newline delimited JSON, which
+     * writes one resource per line instead of a single JSON object.
+     *
+     * @param req
+     *            The HTTP request.
+     * @return {@code true} if newline delimited JSON should be returned.
+     */
+    static boolean isNdJsonRequested(org.forgerock.http.protocol.Request req) {
+        final Header accept = req.getHeaders().get("Accept");
+        if (accept == null) {
+            return false;
+        }
+        for (final String value : accept.getValues()) {
+            for (final String mediaRange : value.split(",")) {
+                final String mediaType = mediaRange.split(";")[0].trim();
+                if (MIME_TYPE_APPLICATION_NDJSON.equalsIgnoreCase(mediaType)
+                        || MIME_TYPE_APPLICATION_NDJSON_ALT.equalsIgnoreCase(mediaType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     static void writeContentTypeHeader(org.forgerock.http.protocol.Response resp) {
         if (!resp.getHeaders().containsKey(ContentTypeHeader.NAME)) {
             resp.getHeaders().add(new ContentTypeHeader(MIME_TYPE_APPLICATION_JSON, CHARACTER_ENCODING, null));
@@ -28,10 +28,12 @@ import static org.forgerock.json.resource.Requests.newUpdateRequest;
 import static org.forgerock.json.resource.ResourceException.newResourceException;
 import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
 import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_REVISION;
+import static org.forgerock.json.resource.http.HttpUtils.CHARACTER_ENCODING;
 import static org.forgerock.json.resource.http.HttpUtils.HEADER_ETAG;
 import static org.forgerock.json.resource.http.HttpUtils.HEADER_LOCATION;
 import static org.forgerock.json.resource.http.HttpUtils.JSON_MAPPER;
 import static org.forgerock.json.resource.http.HttpUtils.MIME_TYPE_APPLICATION_JSON;
+import static org.forgerock.json.resource.http.HttpUtils.MIME_TYPE_APPLICATION_NDJSON;
 import static org.forgerock.json.resource.http.HttpUtils.MIME_TYPE_TEXT_PLAIN;
 import static org.forgerock.json.resource.http.HttpUtils.PROTOCOL_VERSION_2;
 import static org.forgerock.json.resource.http.HttpUtils.adapt;
@@ -39,12 +41,15 @@ import static org.forgerock.json.resource.http.HttpUtils.fail;
 import static org.forgerock.json.resource.http.HttpUtils.getIfNoneMatch;
 import static org.forgerock.json.resource.http.HttpUtils.getJsonGenerator;
 import static org.forgerock.json.resource.http.HttpUtils.getRequestedProtocolVersion;
+import static org.forgerock.json.resource.http.HttpUtils.isNdJsonRequested;
+import static org.forgerock.json.resource.http.HttpUtils.isStreamingRequested;
 import static org.forgerock.json.resource.http.HttpUtils.writeCacheControlHeader;
 import static org.forgerock.json.resource.http.HttpUtils.writeContentTypeHeader;
 import static org.forgerock.util.Utils.closeSilently;
 import static org.forgerock.util.promise.Promises.newResultPromise;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.mail.internet.ContentType;
 import jakarta.mail.internet.ParseException;
@@ -53,9 +58,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.forgerock.http.header.ContentApiVersionHeader;
 import org.forgerock.http.header.ContentTypeHeader;
 import org.forgerock.http.header.MalformedHeaderException;
+import org.forgerock.http.io.IO;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.http.routing.UriRouterContext;
@@ -79,6 +86,7 @@ import org.forgerock.json.resource.Request;
 import org.forgerock.json.resource.RequestVisitor;
 import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.json.resource.ServiceUnavailableException;
 import org.forgerock.json.resource.UpdateRequest;
 import org.forgerock.services.context.Context;
 import org.forgerock.util.AsyncFunction;
@@ -86,6 +94,7 @@ import org.forgerock.util.encode.Base64url;
 import org.forgerock.util.promise.ExceptionHandler;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
 import org.forgerock.util.promise.ResultHandler;
 
 /**
@@ -93,6 +102,9 @@ import org.forgerock.util.promise.ResultHandler;
  */
 final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrowsException>, Void> {
 
+    /** The number of bytes of streamed query results which may be waiting for the client to read them. */
+    static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+
     // Connection set on handleResult(Connection).
     private Connection connection = null;
     private final Context context;
@@ -100,11 +112,18 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
     private final Response httpResponse;
     private final Version protocolVersion;
     private final Request request;
-    private final JsonGenerator jsonGenerator;
+    private final StreamingQueryExecutor streamingExecutor;
+    private JsonGenerator jsonGenerator;
 
     RequestRunner(Context context, Request request, org.forgerock.http.protocol.Request httpRequest,
             Response httpResponse) throws Exception {
+        this(context, request, httpRequest, httpResponse, StreamingQueryExecutor.getDefault());
+    }
+
+    RequestRunner(Context context, Request request, org.forgerock.http.protocol.Request httpRequest,
+            Response httpResponse, StreamingQueryExecutor streamingExecutor) throws Exception {
         this.context = context;
+        this.streamingExecutor = streamingExecutor;
         this.request = request;
         this.httpRequest = httpRequest;
         this.httpResponse = httpResponse;
@@ -260,6 +279,13 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
      */
     @Override
     public final Promise<Response, NeverThrowsException> visitQueryRequest(final Void p, final QueryRequest request) {
+        try {
+            if (isStreamingRequested(httpRequest)) {
+                return streamQuery(request);
+            }
+        } catch (final ResourceException e) {
+            return handleError(e);
+        }
         final AtomicBoolean isFirstResult = new AtomicBoolean(true);
         final AtomicInteger resultCount = new AtomicInteger(0);
         return connection.queryAsync(context, request, new QueryResourceHandler() {
@@ -280,15 +306,7 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
             public void handleResult(QueryResponse result) {
                 try {
                     writeHeader(result, isFirstResult);
-                    jsonGenerator.writeEndArray();
-                    jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount.get());
-                    jsonGenerator.writeStringField(FIELD_PAGED_RESULTS_COOKIE, result.getPagedResultsCookie());
-                    jsonGenerator.writeStringField(FIELD_TOTAL_PAGED_RESULTS_POLICY,
-                            result.getTotalPagedResultsPolicy().toString());
-                    jsonGenerator.writeNumberField(FIELD_TOTAL_PAGED_RESULTS, result.getTotalPagedResults());
-                    // Remaining is only present for backwards compatibility with CREST2 via Accept-API-Version
-                    jsonGenerator.writeNumberField(FIELD_REMAINING_PAGED_RESULTS, result.getRemainingPagedResults());
-                    jsonGenerator.writeEndObject();
+                    writeQueryResult(result, resultCount.get());
                     onSuccess();
                 } catch (final Exception e) {
                     onError(e);
@@ -302,10 +320,7 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
                 } else {
                     // Partial results - it's too late to set the status.
                     try {
-                        jsonGenerator.writeEndArray();
-                        jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount.get());
-                        jsonGenerator.writeObjectField(FIELD_ERROR, error.toJsonValue().getObject());
-                        jsonGenerator.writeEndObject();
+                        writeQueryError(error, resultCount.get());
                         onSuccess();
                     } catch (final Exception e) {
                         onError(e);
@@ -325,15 +340,191 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
         });
     }
 
+    /**
+     * Writes the query results to the client as they are produced, instead of once the query has completed.
+     * <p>
+     * The query runs on a separate thread which writes the results to a {@link BoundedPipe}. The HTTP response is
+     * handed over to the container as soon as the first result, or the query response, is available, and the
+     * container reads the pipe while the query writes to it. When the client does not keep up the pipe fills up and
+     * {@link QueryResourceHandler#handleResource(ResourceResponse)} blocks until it drains, pausing the provider
+     * instead of buffering its results. When the client goes away {@code handleResource} returns {@code false}, so
+     * that the provider stops producing results.
+     * <p>
+     * At most {@link CrestHttp#OPTION_STREAMING_MAX_CONCURRENCY} queries are streamed concurrently, extra ones being
+     * rejected with a {@link ServiceUnavailableException}. When the client does not read the results, or the provider
+     * does not produce them, for {@link CrestHttp#OPTION_STREAMING_TIMEOUT}, the response is aborted and the query
+     * cancelled.
+     * <p>
+     * The results are written with the same layout as a buffered query response, or as newline delimited JSON if the
+     * client accepts it, in which case the query response fields are omitted and an error occurring once results
+     * have been sent is written as a last line with a single {@code error} field.
+     */
+    private Promise<Response, NeverThrowsException> streamQuery(final QueryRequest request) {
+        final StreamingQueryExecutor.Stream stream = streamingExecutor.tryStart();
+        if (stream == null) {
+            return handleError(new ServiceUnavailableException("Too many streamed queries are in progress"));
+        }
+        final boolean ndJson = isNdJsonRequested(httpRequest);
+        final BoundedPipe pipe = new BoundedPipe(STREAMING_BUFFER_SIZE, streamingExecutor.getTimeoutMillis());
+        final PromiseImpl<Response, NeverThrowsException> promise = PromiseImpl.create();
+        final AtomicBoolean isFirstResult = new AtomicBoolean(true);
+        final AtomicInteger resultCount = new AtomicInteger(0);
+        final AtomicReference<Promise<QueryResponse, ResourceException>> query = new AtomicReference<>();
+        try {
+            jsonGenerator = getJsonGenerator(httpRequest, pipe.getIn());
+        } catch (final IOException e) {
+            stream.end();
+            return handleError(adapt(e));
+        }
+        if (ndJson) {
+            jsonGenerator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        final QueryResourceHandler handler = new QueryResourceHandler() {
+            @Override
+            public boolean handleResource(final ResourceResponse resource) {
+                try {
+                    writeStreamHeader(resource, isFirstResult, ndJson, pipe, stream, promise);
+                    writeResourceJsonContent(resource);
+                    if (ndJson) {
+                        jsonGenerator.writeRaw('\n');
+                    }
+                    // Blocks while the client is not reading.
+                    jsonGenerator.flush();
+                    resultCount.incrementAndGet();
+                    return true;
+                } catch (final Exception e) {
+                    // Most likely the client has gone away or timed out, so there is nobody to report the error to.
+                    closeSilently(connection, jsonGenerator);
+                    final Promise<QueryResponse, ResourceException> pending = query.get();
+                    if (pending != null) {
+                        pending.cancel(true);
+                    }
+                    return false;
+                }
+            }
+        };
+        final ExceptionHandler<ResourceException> exceptionHandler = new ExceptionHandler<ResourceException>() {
+            @Override
+            public void handleException(final ResourceException error) {
+                if (isFirstResult.get()) {
+                    handleError(error).thenOnResult(promise);
+                    return;
+                }
+                // Partial results - it's too late to set the status.
+                try {
+                    if (ndJson) {
+                        jsonGenerator.writeStartObject();
+                        jsonGenerator.writeObjectField(FIELD_ERROR, error.toJsonValue().getObject());
+                        jsonGenerator.writeEndObject();
+                        jsonGenerator.writeRaw('\n');
+                    } else {
+                        writeQueryError(error, resultCount.get());
+                    }
+                    onSuccess();
+                } catch (final Exception e) {
+                    closeSilently(connection, jsonGenerator);
+                }
+            }
+        };
+
+        stream.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Promise<QueryResponse, ResourceException> pending =
+                            connection.queryAsync(context, request, handler);
+                    query.set(pending);
+                    pending.thenOnResultOrException(new ResultHandler<QueryResponse>() {
+                                @Override
+                                public void handleResult(final QueryResponse result) {
+                                    try {
+                                        writeStreamHeader(result, isFirstResult, ndJson, pipe, stream, promise);
+                                        if (!ndJson) {
+                                            writeQueryResult(result, resultCount.get());
+                                        }
+                                        onSuccess();
+                                    } catch (final Exception e) {
+                                        closeSilently(connection, jsonGenerator);
+                                    }
+                                }
+                            }, exceptionHandler)
+                            .thenAlways(new Runnable() {
+                                @Override
+                                public void run() {
+                                    stream.end();
+                                }
+                            });
+                } catch (final RuntimeException e) {
+                    exceptionHandler.handleException(adapt(e));
+                    stream.end();
+                }
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Writes the response headers of a streamed query when its first result, or its query response, is available,
+     * then completes the HTTP response on another thread, so that the container can read the results while they are
+     * written by the thread running the query.
+     */
+    private void writeStreamHeader(org.forgerock.json.resource.Response response, AtomicBoolean isFirstResult,
+            boolean ndJson, BoundedPipe pipe, StreamingQueryExecutor.Stream stream,
+            final PromiseImpl<Response, NeverThrowsException> promise) throws IOException {
+        if (!isFirstResult.get()) {
+            return;
+        }
+        if (ndJson) {
+            httpResponse.getHeaders().put(
+                    new ContentTypeHeader(MIME_TYPE_APPLICATION_NDJSON, CHARACTER_ENCODING, null));
+        }
+        writeHeader(response, isFirstResult, !ndJson);
+        httpResponse.setEntity(IO.newBranchingInputStream(pipe.getOut(), IO.newTemporaryStorage()));
+        stream.execute(new Runnable() {
+            @Override
+            public void run() {
+                promise.handleResult(httpResponse);
+            }
+        });
+    }
+
+    private void writeQueryResult(QueryResponse result, int resultCount) throws IOException {
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount);
+        jsonGenerator.writeStringField(FIELD_PAGED_RESULTS_COOKIE, result.getPagedResultsCookie());
+        jsonGenerator.writeStringField(FIELD_TOTAL_PAGED_RESULTS_POLICY,
+                result.getTotalPagedResultsPolicy().toString());
+        jsonGenerator.writeNumberField(FIELD_TOTAL_PAGED_RESULTS, result.getTotalPagedResults());
+        // Remaining is only present for backwards compatibility with CREST2 via Accept-API-Version
+        jsonGenerator.writeNumberField(FIELD_REMAINING_PAGED_RESULTS, result.getRemainingPagedResults());
+        jsonGenerator.writeEndObject();
+    }
+
+    private void writeQueryError(ResourceException error, int resultCount) throws IOException {
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount);
+        jsonGenerator.writeObjectField(FIELD_ERROR, error.toJsonValue().getObject());
+        jsonGenerator.writeEndObject();
+    }
+
     private void writeHeader(org.forgerock.json.resource.Response response, AtomicBoolean isFirstResult)
             throws IOException {
+        writeHeader(response, isFirstResult, true);
+    }
+
+    private void writeHeader(org.forgerock.json.resource.Response response, AtomicBoolean isFirstResult,
+            boolean startResultArray)
+            throws IOException {
         if (isFirstResult.compareAndSet(true, false)) {
             writeApiVersionHeaders(response);
             writeAdvice();
             writeContentTypeHeader(httpResponse);
             writeCacheControlHeader(httpResponse);
-            jsonGenerator.writeStartObject();
-            jsonGenerator.writeArrayFieldStart(FIELD_RESULT);
+            if (startResultArray) {
+                jsonGenerator.writeStartObject();
+                jsonGenerator.writeArrayFieldStart(FIELD_RESULT);
+            }
         }
     }
 
@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.json.resource.http;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.forgerock.json.resource.http.CrestHttp.OPTION_STREAMING_MAX_CONCURRENCY;
+import static org.forgerock.json.resource.http.CrestHttp.OPTION_STREAMING_TIMEOUT;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.util.Options;
+import org.forgerock.util.Reject;
+import org.forgerock.util.time.Duration;
+
+/**
+ * Runs the streamed queries of an {@link HttpAdapter}, and hands their responses over to the HTTP container.
+ * <p>
+ * Each streamed query needs two threads: one running the query and writing its results to a {@link BoundedPipe},
+ * and one completing the HTTP response so that the container reads the pipe. The number of concurrent streamed
+ * queries is therefore bounded, and the threads are taken from a pool sized accordingly, so that slow clients can not
+ * exhaust the server threads.
+ */
+final class StreamingQueryExecutor {
+
+    /** Shared by the adapters created without options. */
+    private static final class DefaultHolder {
+        private static final StreamingQueryExecutor INSTANCE = new StreamingQueryExecutor(Options.defaultOptions());
+    }
+
+    private final Semaphore permits;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    StreamingQueryExecutor(final Options options) {
+        final int maxConcurrency = options.get(OPTION_STREAMING_MAX_CONCURRENCY);
+        Reject.ifTrue(maxConcurrency < 1, "The maximum number of streamed queries must be positive");
+        final Duration timeout = options.get(OPTION_STREAMING_TIMEOUT);
+        this.timeoutMillis = timeout.isUnlimited() ? 0 : Math.max(1, timeout.to(MILLISECONDS));
+        this.permits = new Semaphore(maxConcurrency);
+        // The permits guarantee that there is never more than two tasks per stream, so the queue never grows much
+        this.executor = new ThreadPoolExecutor(2 * maxConcurrency, 2 * maxConcurrency, 60, SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread =
+                                new Thread(runnable, "crest-query-streaming-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the executor used by the adapters created without options.
+     *
+     * @return The default executor.
+     */
+    static StreamingQueryExecutor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Returns how long, in milliseconds, the pipe of a streamed query may block its reader or its writer, or
+     * {@code 0} if it may block them indefinitely.
+     *
+     * @return The timeout of the streamed queries, in milliseconds.
+     */
+    long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Reserves the threads of a new streamed query, if the maximum number of concurrent streamed queries has not been
+     * reached.
+     *
+     * @return The reserved stream, or {@code null} if too many queries are already streamed.
+     */
+    Stream tryStart() {
+        return permits.tryAcquire() ? new Stream() : null;
+    }
+
+    /**
+     * The threads reserved for a streamed query. They are released once the query has {@link #end() ended} and all
+     * the tasks it {@link #execute(Runnable) executed} have completed.
+     */
+    final class Stream {
+        /** The number of tasks in progress, plus one until the query has ended. */
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        /**
+         * Executes the given task on a thread reserved for this stream.
+         *
+         * @param task
+         *            The task to execute.
+         */
+        void execute(final Runnable task) {
+            references.incrementAndGet();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            release();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        /**
+         * Indicates that the query has ended, so that its threads are released once its tasks have completed.
+         */
+        void end() {
+            if (ended.compareAndSet(false, true)) {
+                release();
+            }
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                permits.release();
+            }
+        }
+    }
+}
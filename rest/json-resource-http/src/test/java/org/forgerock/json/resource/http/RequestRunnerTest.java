@@ -12,9 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.json.resource.http;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.forgerock.http.routing.UriRouterContext.uriRouterContext;
 import static org.forgerock.json.JsonValue.field;
@@ -26,20 +29,27 @@ import static org.forgerock.json.resource.Responses.newQueryResponse;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
 import static org.forgerock.util.promise.Promises.newExceptionPromise;
 import static org.forgerock.util.promise.Promises.newResultPromise;
+import static org.forgerock.util.time.Duration.duration;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.http.routing.UriRouterContext;
+import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.Connection;
 import org.forgerock.json.resource.CreateRequest;
 import org.forgerock.json.resource.QueryRequest;
@@ -50,6 +60,7 @@ import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.services.context.Context;
 import org.forgerock.services.context.RootContext;
+import org.forgerock.util.Options;
 import org.forgerock.util.i18n.LocalizableString;
 import org.forgerock.util.promise.Promise;
 import org.mockito.invocation.InvocationOnMock;
@@ -193,6 +204,204 @@ public class RequestRunnerTest {
         assertThat(response.getHeaders().getFirst("Location")).isEqualTo("http://localhost/users/bjensen");
     }
 
+    @Test
+    public void testStreamedQueryHasSameContentAsBufferedQuery() throws Exception {
+        ResourceResponse[] resources = {
+            newResourceResponse("1", "rev", json(object(field("intField", 42)))),
+            newResourceResponse("2", "rev", json(object(field("intField", 43))))
+        };
+        Response buffered = getAnonymousQueryResourceHandler(QUERY_RESULT, resources);
+        Response streamed = getAnonymousQueryResourceHandler(newRequest("?_stream=true"), QUERY_RESULT, resources);
+
+        assertThat(streamed.getHeaders().getFirst("Content-Type")).isEqualTo("application/json; charset=UTF-8");
+        assertThat(getResponseContent(streamed)).isEqualTo(getResponseContent(buffered));
+    }
+
+    @Test
+    public void testStreamedQueryWithoutResults() throws Exception {
+        Response response = getAnonymousQueryResourceHandler(newRequest("?_stream=true"), QUERY_RESULT);
+        assertEquals(getResponseContent(response), "{" + "\"result\":[],"
+                + "\"resultCount\":0,\"pagedResultsCookie\":null,\"totalPagedResultsPolicy\":\"NONE\","
+                + "\"totalPagedResults\":-1,\"remainingPagedResults\":-1}");
+    }
+
+    @Test
+    public void testStreamedQueryErrorBeforeFirstResult() throws Exception {
+        Response response = getAnonymousQueryResourceHandler(newRequest("?_stream=true"), RESOURCE_EXCEPTION);
+        assertThat(response.getStatus()).isEqualTo(Status.NOT_FOUND);
+        assertEquals(getResponseContent(response), "{\"code\":404,\"reason\":\"Not Found\",\"message\":\"Not Found\"}");
+    }
+
+    @Test
+    public void testStreamedQueryErrorAfterFirstResult() throws Exception {
+        Response response = getAnonymousQueryResourceHandler(newRequest("?_stream=true"), RESOURCE_EXCEPTION,
+                newResourceResponse("id", "rev", json(object())));
+        assertThat(response.getStatus()).isEqualTo(Status.OK);
+        assertEquals(getResponseContent(response), "{\"result\":[{\"_id\":\"id\",\"_rev\":\"rev\"}],"
+                + "\"resultCount\":1,\"error\":{\"code\":404,\"reason\":\"Not Found\",\"message\":\"Not Found\"}}");
+    }
+
+    @Test
+    public void testNdJsonQuery() throws Exception {
+        Request request = newRequest("?_prettyPrint=true");
+        request.getHeaders().put("Accept", "application/x-ndjson");
+        Response response = getAnonymousQueryResourceHandler(request, QUERY_RESULT,
+                newResourceResponse("1", "rev", json(object(field("intField", 42)))),
+                newResourceResponse("2", "rev", json(object(field("intField", 43)))));
+
+        assertThat(response.getHeaders().getFirst("Content-Type")).isEqualTo("application/x-ndjson; charset=UTF-8");
+        assertEquals(getResponseContent(response), "{\"_id\":\"1\",\"_rev\":\"rev\",\"intField\":42}\n"
+                + "{\"_id\":\"2\",\"_rev\":\"rev\",\"intField\":43}\n");
+    }
+
+    @Test
+    public void testNdJsonQueryErrorAfterFirstResult() throws Exception {
+        Request request = newRequest("");
+        request.getHeaders().put("Accept", "application/ndjson, application/json;q=0.5");
+        Response response = getAnonymousQueryResourceHandler(request, RESOURCE_EXCEPTION,
+                newResourceResponse("1", "rev", json(object())));
+
+        assertEquals(getResponseContent(response), "{\"_id\":\"1\",\"_rev\":\"rev\"}\n"
+                + "{\"error\":{\"code\":404,\"reason\":\"Not Found\",\"message\":\"Not Found\"}}\n");
+    }
+
+    @Test
+    public void testStreamedQueryPausesProviderUntilClientReads() throws Exception {
+        final int total = 1000;
+        final AtomicInteger produced = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        Response response = runStreamedQuery(new QueryProvider() {
+            @Override
+            public void produce(QueryResourceHandler handler) {
+                for (int i = 0; i < total && handler.handleResource(newLargeResource(i)); i++) {
+                    produced.incrementAndGet();
+                }
+                done.countDown();
+            }
+        });
+
+        // The buffer holds far fewer than the total of the results.
+        assertThat(done.await(200, MILLISECONDS)).isFalse();
+        assertThat(produced.get()).isLessThan(total);
+
+        JsonValue content = json(new ObjectMapper().readValue(getResponseContent(response), Object.class));
+        assertThat(done.await(5, SECONDS)).isTrue();
+        assertThat(produced.get()).isEqualTo(total);
+        assertThat(content.get("resultCount").asInteger()).isEqualTo(total);
+        assertThat(content.get("result").size()).isEqualTo(total);
+    }
+
+    @Test
+    public void testStreamedQueryStopsWhenClientGoesAway() throws Exception {
+        final AtomicBoolean lastResult = new AtomicBoolean(true);
+        final CountDownLatch done = new CountDownLatch(1);
+        Response response = runStreamedQuery(new QueryProvider() {
+            @Override
+            public void produce(QueryResourceHandler handler) {
+                for (int i = 0; i < 1000 && lastResult.get(); i++) {
+                    lastResult.set(handler.handleResource(newLargeResource(i)));
+                }
+                done.countDown();
+            }
+        });
+
+        InputStream in = response.getEntity().getRawContentInputStream();
+        assertThat(in.read(new byte[1024])).isPositive();
+        response.close();
+
+        assertThat(done.await(5, SECONDS)).isTrue();
+        assertThat(lastResult.get()).isFalse();
+    }
+
+    @Test
+    public void testStreamedQueryRejectedWhenTooManyQueriesAreStreamed() throws Exception {
+        // given
+        StreamingQueryExecutor executor = new StreamingQueryExecutor(Options.defaultOptions()
+                .set(CrestHttp.OPTION_STREAMING_MAX_CONCURRENCY, 1));
+        final CountDownLatch done = new CountDownLatch(1);
+        Response first = runStreamedQuery(new QueryProvider() {
+            @Override
+            public void produce(QueryResourceHandler handler) {
+                for (int i = 0; i < 1000 && handler.handleResource(newLargeResource(i)); i++) {
+                    // The client is not reading
+                }
+                done.countDown();
+            }
+        }, executor);
+
+        // when
+        Response second = runStreamedQuery(new QueryProvider() {
+            @Override
+            public void produce(QueryResourceHandler handler) {
+                handler.handleResource(newLargeResource(0));
+            }
+        }, executor);
+
+        // then
+        assertThat(second.getStatus()).isEqualTo(Status.SERVICE_UNAVAILABLE);
+        first.close();
+        assertThat(done.await(5, SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testStreamedQueryCancelledWhenClientStopsReading() throws Exception {
+        // given
+        StreamingQueryExecutor executor = new StreamingQueryExecutor(Options.defaultOptions()
+                .set(CrestHttp.OPTION_STREAMING_TIMEOUT, duration(200, MILLISECONDS)));
+        final AtomicBoolean lastResult = new AtomicBoolean(true);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        // when
+        Response response = runStreamedQuery(new QueryProvider() {
+            @Override
+            public void produce(QueryResourceHandler handler) {
+                for (int i = 0; i < 1000 && lastResult.get(); i++) {
+                    lastResult.set(handler.handleResource(newLargeResource(i)));
+                }
+                done.countDown();
+            }
+        }, executor);
+
+        // then
+        assertThat(done.await(5, SECONDS)).isTrue();
+        assertThat(lastResult.get()).isFalse();
+        response.close();
+    }
+
+    private interface QueryProvider {
+        void produce(QueryResourceHandler handler);
+    }
+
+    private Response runStreamedQuery(final QueryProvider provider) throws Exception {
+        return runStreamedQuery(provider, StreamingQueryExecutor.getDefault());
+    }
+
+    private Response runStreamedQuery(final QueryProvider provider, final StreamingQueryExecutor executor)
+            throws Exception {
+        Context context = mock(Context.class);
+        QueryRequest request = Requests.newQueryRequest("");
+        Connection connection = mock(Connection.class);
+        when(connection.queryAsync(eq(context), eq(request), any(QueryResourceHandler.class)))
+                .thenAnswer(new Answer<Promise<QueryResponse, ResourceException>>() {
+                    @Override
+                    public Promise<QueryResponse, ResourceException> answer(InvocationOnMock invocationOnMock) {
+                        provider.produce((QueryResourceHandler) invocationOnMock.getArguments()[2]);
+                        return QUERY_RESULT;
+                    }
+                });
+        RequestRunner requestRunner =
+                new RequestRunner(context, request, newRequest("?_stream=true"), new Response(Status.OK), executor);
+        return requestRunner.handleResult(connection).getOrThrow(5, SECONDS);
+    }
+
+    private static ResourceResponse newLargeResource(int i) {
+        StringBuilder value = new StringBuilder();
+        for (int j = 0; j < 1024; j++) {
+            value.append('x');
+        }
+        return newResourceResponse(String.valueOf(i), "rev", json(object(field("value", value.toString()))));
+    }
+
     private String getResponseContent(Response response) throws IOException {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         response.getEntity().copyDecodedContentTo(outputStream);
@@ -201,11 +410,16 @@ public class RequestRunnerTest {
 
     private Response getAnonymousQueryResourceHandler(final Promise<QueryResponse, ResourceException> queryPromise,
             final ResourceResponse... resources) throws Exception {
+        return getAnonymousQueryResourceHandler(newRequest(), queryPromise, resources);
+    }
+
+    private Response getAnonymousQueryResourceHandler(final org.forgerock.http.protocol.Request httpRequest,
+            final Promise<QueryResponse, ResourceException> queryPromise, final ResourceResponse... resources)
+            throws Exception {
         // mock everything
         Context context = mock(Context.class);
         QueryRequest request = Requests.newQueryRequest("");
         Response httpResponse = new Response(Status.OK);
-        org.forgerock.http.protocol.Request httpRequest = newRequest();
         Connection connection = mock(Connection.class);
 
         // set the expectations
@@ -223,12 +437,16 @@ public class RequestRunnerTest {
 
         // run the code to access the anonymous class
         RequestRunner requestRunner = new RequestRunner(context, request, httpRequest, httpResponse);
-        return requestRunner.handleResult(connection).getOrThrowUninterruptibly();
+        return requestRunner.handleResult(connection).getOrThrow(5, SECONDS);
     }
 
     private Request newRequest() {
+        return newRequest("");
+    }
+
+    private Request newRequest(String uri) {
         Request request = new Request();
-        request.setUri(URI.create(""));
+        request.setUri(URI.create(uri));
         return request;
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.util.Reject;
+
+/**
+ * An {@link Executor} running at most a given number of tasks concurrently on a delegate executor. Extra tasks are
+ * queued, without blocking the submitting thread, and submitted to the delegate executor in order as running tasks
+ * complete.
+ * <p>
+ * As queued tasks may be submitted to the delegate executor from the thread of a completing task, a task rejected by
+ * the delegate executor is notified through {@link Rejectable} rather than by an exception, when it implements it.
+ */
+final class BoundedExecutor implements Executor {
+
+    /** A task that is notified when the delegate executor rejects it. */
+    interface Rejectable extends Runnable {
+        /**
+         * Called instead of {@link #run()} when the task has been rejected by the delegate executor.
+         *
+         * @param e the rejection exception
+         */
+        void rejected(RejectedExecutionException e);
+    }
+
+    private final Executor delegate;
+    private final int maxConcurrency;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    BoundedExecutor(final Executor delegate, final int maxConcurrency) {
+        Reject.ifTrue(maxConcurrency < 1, "The maximum concurrency must be positive");
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        queue.add(task);
+        drain();
+    }
+
+    /** Submits queued tasks to the delegate executor while fewer than {@code maxConcurrency} are running. */
+    private void drain() {
+        while (!queue.isEmpty()) {
+            final int current = running.get();
+            if (current >= maxConcurrency) {
+                // A running task will drain the queue when it completes
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            final Runnable task = queue.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            try {
+                delegate.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            running.decrementAndGet();
+                            drain();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                if (!(task instanceof Rejectable)) {
+                    throw e;
+                }
+                ((Rejectable) task).rejected(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+import static org.forgerock.util.time.Duration.duration;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.JsonValue;
+import org.forgerock.services.context.Context;
+import org.forgerock.util.Function;
+import org.forgerock.util.Option;
+import org.forgerock.util.Options;
+import org.forgerock.util.Reject;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ResultHandler;
+import org.forgerock.util.promise.RuntimeExceptionHandler;
+import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
+
+/**
+ * A read-through cache of the resources read through this filter, intended for hot resources which rarely change,
+ * such as configuration or schema objects.
+ * <p>
+ * The responses to read requests are cached by resource path, requested fields, resource API version and additional
+ * parameters, for at most {@link #OPTION_TTL}. Create, update, patch, delete and action requests passing through the
+ * filter invalidate the cached responses of their target resource, whatever their outcome, so that a failed
+ * conditional write (for instance because the expected {@code _rev} is out of date) does not leave a stale revision
+ * in the cache. Reads racing with a write of the same resource are not cached. Since the cached responses retain their
+ * revision, {@code If-None-Match} conditional reads are still answered with {@code 304 Not Modified} when the revision
+ * has not changed. Query requests are not cached.
+ * <p>
+ * Concurrent reads of a resource which is not in the cache are coalesced: only one of them is sent to the next
+ * handler, the others being completed with a copy of its response.
+ * <p>
+ * The cache is shared by all the callers, so this filter must only be used in front of resources whose content does
+ * not depend on the caller, and only when all the writes of these resources go through it: changes made to the
+ * backend by other means are only visible once the cached responses expire.
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * Options options = Options.defaultOptions().set(CachingFilter.OPTION_TTL, duration("30 seconds"));
+ * router.addRoute(uriTemplate("config"), new FilterChain(configProvider, Filters.newCachingFilter(options)));
+ * }
+ * </pre>
+ */
+public class CachingFilter implements Filter {
+
+    /**
+     * The maximum number of responses held in the cache, the least recently used resources being evicted first. The
+     * default is 1000.
+     */
+    public static final Option<Integer> OPTION_MAX_ENTRIES = Option.withDefault(1000);
+
+    /**
+     * The time during which a response is served from the cache. The default is 1 minute.
+     */
+    public static final Option<Duration> OPTION_TTL = Option.of(Duration.class, duration("1 minute"));
+
+    /**
+     * The time service used to expire the cached responses. The default is the system time.
+     */
+    public static final Option<TimeService> OPTION_TIME_SERVICE = Option.of(TimeService.class, TimeService.SYSTEM);
+
+    /** Number of stripes of the write generations, must be a power of 2. */
+    private static final int GENERATION_STRIPES = 64;
+
+    private static final Function<ResourceResponse, ResourceResponse, ResourceException> COPY =
+            new Function<ResourceResponse, ResourceResponse, ResourceException>() {
+                @Override
+                public ResourceResponse apply(final ResourceResponse response) {
+                    return copyOf(response);
+                }
+            };
+
+    private final int maxEntries;
+    private final long ttl;
+    private final TimeService time;
+
+    /** Cached responses by resource path, then by variant, in least recently used order. Guarded by itself. */
+    private final LinkedHashMap<String, Map<String, CachedResource>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private int size;
+
+    /** Reads in progress, by resource path and variant. */
+    private final ConcurrentMap<String, Promise<ResourceResponse, ResourceException>> pending =
+            new ConcurrentHashMap<>();
+
+    /** Incremented before and after each write, so that reads racing with writes are not cached. */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new caching filter.
+     *
+     * @param options
+     *            The options which will be used to configure the cache.
+     */
+    public CachingFilter(final Options options) {
+        this.maxEntries = options.get(OPTION_MAX_ENTRIES);
+        Reject.ifTrue(maxEntries < 0, "The maximum number of entries must not be negative");
+        final Duration ttl = options.get(OPTION_TTL);
+        this.ttl = ttl.isUnlimited() ? Long.MAX_VALUE : ttl.to(TimeUnit.MILLISECONDS);
+        this.time = options.get(OPTION_TIME_SERVICE);
+    }
+
+    @Override
+    public Promise<ActionResponse, ResourceException> filterAction(final Context context, final ActionRequest request,
+            final RequestHandler next) {
+        final String path = pathOf(request);
+        beginWrite(path);
+        return next.handleAction(context, request).thenAlways(endWrite(path));
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> filterCreate(final Context context,
+            final CreateRequest request, final RequestHandler next) {
+        final ResourcePath container = request.getResourcePathObject();
+        final String path = request.getNewResourceId() != null
+                ? container.child(request.getNewResourceId()).toString()
+                : container.toString();
+        beginWrite(path);
+        return next.handleCreate(context, request)
+                   .thenOnResult(new ResultHandler<ResourceResponse>() {
+                       @Override
+                       public void handleResult(final ResourceResponse response) {
+                           if (request.getNewResourceId() == null && response.getId() != null) {
+                               // The identifier has been assigned by the provider
+                               final String created = container.child(response.getId()).toString();
+                               beginWrite(created);
+                               endWrite(created).run();
+                           }
+                       }
+                   })
+                   .thenAlways(endWrite(path));
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> filterDelete(final Context context,
+            final DeleteRequest request, final RequestHandler next) {
+        final String path = pathOf(request);
+        beginWrite(path);
+        return next.handleDelete(context, request).thenAlways(endWrite(path));
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> filterPatch(final Context context, final PatchRequest request,
+            final RequestHandler next) {
+        final String path = pathOf(request);
+        beginWrite(path);
+        return next.handlePatch(context, request).thenAlways(endWrite(path));
+    }
+
+    @Override
+    public Promise<QueryResponse, ResourceException> filterQuery(final Context context, final QueryRequest request,
+            final QueryResourceHandler handler, final RequestHandler next) {
+        return next.handleQuery(context, request, handler);
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> filterRead(final Context context, final ReadRequest request,
+            final RequestHandler next) {
+        final String path = pathOf(request);
+        final String variant = variantOf(request);
+        final ResourceResponse cached = get(path, variant);
+        if (cached != null) {
+            hits.increment();
+            return newResultPromise(copyOf(cached));
+        }
+
+        final String key = path + '?' + variant;
+        final PromiseImpl<ResourceResponse, ResourceException> fetched = PromiseImpl.create();
+        final Promise<ResourceResponse, ResourceException> inFlight = pending.putIfAbsent(key, fetched);
+        if (inFlight != null) {
+            coalesced.increment();
+            return inFlight.then(COPY);
+        }
+        misses.increment();
+        final Fetch fetch = new Fetch(path, variant, key, fetched);
+        return next.handleRead(context, request)
+                   .thenOnResultOrException(fetch, fetch)
+                   .thenOnRuntimeException(fetch);
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> filterUpdate(final Context context,
+            final UpdateRequest request, final RequestHandler next) {
+        final String path = pathOf(request);
+        beginWrite(path);
+        return next.handleUpdate(context, request).thenAlways(endWrite(path));
+    }
+
+    /**
+     * Removes all the responses from the cache.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Returns the number of reads served from the cache.
+     *
+     * @return The number of reads served from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of reads sent to the next handler.
+     *
+     * @return The number of reads sent to the next handler.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of reads which have waited for an identical read in progress instead of being sent to the
+     * next handler.
+     *
+     * @return The number of coalesced reads.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the number of cached responses removed because their resource has been written.
+     *
+     * @return The number of invalidated responses.
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Returns the number of cached responses evicted to honour {@link #OPTION_MAX_ENTRIES}.
+     *
+     * @return The number of evicted responses.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of responses currently held in the cache, including the expired ones not removed yet.
+     *
+     * @return The number of cached responses.
+     */
+    public int getSize() {
+        synchronized (cache) {
+            return size;
+        }
+    }
+
+    private ResourceResponse get(final String path, final String variant) {
+        synchronized (cache) {
+            final Map<String, CachedResource> variants = cache.get(path);
+            if (variants == null) {
+                return null;
+            }
+            final CachedResource cached = variants.get(variant);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expires <= time.now()) {
+                variants.remove(variant);
+                size--;
+                if (variants.isEmpty()) {
+                    cache.remove(path);
+                }
+                return null;
+            }
+            return cached.response;
+        }
+    }
+
+    private void put(final String path, final String variant, final ResourceResponse response,
+            final long generation) {
+        if (maxEntries == 0 || ttl <= 0) {
+            return;
+        }
+        final long now = time.now();
+        synchronized (cache) {
+            if (generations.get(stripeOf(path)) != generation) {
+                // The resource has been written since it has been read
+                return;
+            }
+            Map<String, CachedResource> variants = cache.get(path);
+            if (variants == null) {
+                variants = new HashMap<>(4);
+                cache.put(path, variants);
+            }
+            final long expires = now > Long.MAX_VALUE - ttl ? Long.MAX_VALUE : now + ttl;
+            if (variants.put(variant, new CachedResource(response, expires)) == null) {
+                size++;
+            }
+            // Evict the least recently used resources, the one just stored being the most recently used
+            final Iterator<Map<String, CachedResource>> eldest = cache.values().iterator();
+            while (size > maxEntries && eldest.hasNext()) {
+                final Map<String, CachedResource> evicted = eldest.next();
+                if (evicted == variants) {
+                    // Only drop other variants of the resource being stored
+                    final Iterator<String> others = variants.keySet().iterator();
+                    while (size > maxEntries && others.hasNext()) {
+                        if (!others.next().equals(variant)) {
+                            others.remove();
+                            size--;
+                            evictions.increment();
+                        }
+                    }
+                    break;
+                }
+                eldest.remove();
+                size -= evicted.size();
+                evictions.add(evicted.size());
+            }
+        }
+    }
+
+    private void invalidate(final String path) {
+        synchronized (cache) {
+            final Map<String, CachedResource> variants = cache.remove(path);
+            if (variants != null) {
+                size -= variants.size();
+                invalidations.add(variants.size());
+            }
+        }
+    }
+
+    private void beginWrite(final String path) {
+        generations.incrementAndGet(stripeOf(path));
+        invalidate(path);
+    }
+
+    private Runnable endWrite(final String path) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                generations.incrementAndGet(stripeOf(path));
+                invalidate(path);
+            }
+        };
+    }
+
+    private static int stripeOf(final String path) {
+        final int hash = path.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private static String pathOf(final Request request) {
+        return request.getResourcePathObject().toString();
+    }
+
+    /** Returns the parts of the request, other than the resource path, which may change the response. */
+    private static String variantOf(final ReadRequest request) {
+        final StringBuilder builder = new StringBuilder();
+        final List<JsonPointer> fields = request.getFields();
+        if (!fields.isEmpty()) {
+            builder.append(fields);
+        }
+        builder.append('|');
+        if (request.getResourceVersion() != null) {
+            builder.append(request.getResourceVersion());
+        }
+        builder.append('|');
+        if (!request.getAdditionalParameters().isEmpty()) {
+            builder.append(new TreeMap<>(request.getAdditionalParameters()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns a copy of the cached response which can be changed without altering it. Since the content of the
+     * cached responses is frozen, only the parts of the content which are accessed through the copy are copied.
+     */
+    private static ResourceResponse copyOf(final ResourceResponse response) {
+        return copyOf(response, response.getContent().mutableCopy());
+    }
+
+    private static ResourceResponse copyOf(final ResourceResponse response, final JsonValue content) {
+        final ResourceResponse copy = newResourceResponse(response.getId(), response.getRevision(), content);
+        if (response.hasFields()) {
+            copy.addField(response.getFields().toArray(new JsonPointer[0]));
+        }
+        copy.setResourceApiVersion(response.getResourceApiVersion());
+        return copy;
+    }
+
+    private static final class CachedResource {
+        private final ResourceResponse response;
+        private final long expires;
+
+        private CachedResource(final ResourceResponse response, final long expires) {
+            this.response = response;
+            this.expires = expires;
+        }
+    }
+
+    /** Stores the response of a read sent to the next handler, and completes the coalesced reads. */
+    private final class Fetch implements ResultHandler<ResourceResponse>, ExceptionHandler<ResourceException>,
+            RuntimeExceptionHandler {
+        private final String path;
+        private final String variant;
+        private final String key;
+        private final PromiseImpl<ResourceResponse, ResourceException> fetched;
+        private final long generation;
+
+        private Fetch(final String path, final String variant, final String key,
+                final PromiseImpl<ResourceResponse, ResourceException> fetched) {
+            this.path = path;
+            this.variant = variant;
+            this.key = key;
+            this.fetched = fetched;
+            this.generation = generations.get(stripeOf(path));
+        }
+
+        @Override
+        public void handleResult(final ResourceResponse response) {
+            // Snapshot the response, as the caller may change it
+            final ResourceResponse snapshot = copyOf(response, response.getContent().freeze());
+            put(path, variant, snapshot, generation);
+            pending.remove(key, fetched);
+            fetched.handleResult(snapshot);
+        }
+
+        @Override
+        public void handleException(final ResourceException exception) {
+            pending.remove(key, fetched);
+            fetched.handleException(exception);
+        }
+
+        @Override
+        public void handleRuntimeException(final RuntimeException exception) {
+            pending.remove(key, fetched);
+            fetched.handleException(new InternalServerErrorException(exception));
+        }
+    }
+}
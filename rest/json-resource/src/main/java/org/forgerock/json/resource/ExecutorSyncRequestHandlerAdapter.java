@@ -0,0 +1,232 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.services.context.Context;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Implementation class for {@link Resources#asRequestHandler(SynchronousRequestHandler, org.forgerock.util.Options)}.
+ * <p>
+ * Each request is dispatched to an executor, so that blocking synchronous handlers do not tie up the calling thread:
+ * the returned promise is completed from the executor thread. The {@link Context} is passed as is, and the MDC of the
+ * calling thread is propagated to the executor thread. At most {@code maxConcurrency} requests of the handler are
+ * executed concurrently, extra requests being queued.
+ */
+class ExecutorSyncRequestHandlerAdapter extends SynchronousRequestHandlerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorSyncRequestHandlerAdapter.class);
+
+    /** The shared virtual thread executor, or {@code null} if the JVM does not support virtual threads. */
+    private static final ExecutorService VIRTUAL_THREAD_EXECUTOR = newVirtualThreadExecutor();
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Executor executor;
+
+    /**
+     * Creates an adapter dispatching the requests to the given executor.
+     *
+     * @param syncHandler the synchronous request handler to be adapted
+     * @param executor the executor, or {@code null} to use virtual threads, or a dedicated thread pool of
+     *         {@code maxConcurrency} threads on JVMs not supporting virtual threads
+     * @param maxConcurrency the maximum number of requests executed concurrently
+     */
+    ExecutorSyncRequestHandlerAdapter(final SynchronousRequestHandler syncHandler, final Executor executor,
+            final int maxConcurrency) {
+        super(syncHandler);
+        if (executor != null) {
+            this.executor = new BoundedExecutor(executor, maxConcurrency);
+        } else if (VIRTUAL_THREAD_EXECUTOR != null) {
+            this.executor = new BoundedExecutor(VIRTUAL_THREAD_EXECUTOR, maxConcurrency);
+        } else {
+            this.executor = newBoundedThreadPool(maxConcurrency);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Only available from Java 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Virtual threads are not supported, synchronous handlers will use thread pools", e);
+            return null;
+        }
+    }
+
+    private static Executor newBoundedThreadPool(final int maxConcurrency) {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                "crest-sync-handler-" + THREAD_COUNT.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> handleUpdate(final Context context,
+            final UpdateRequest request) {
+        return dispatch(new Dispatched<ResourceResponse>() {
+            @Override
+            Promise<ResourceResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handleUpdate(context, request);
+            }
+        });
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> handleRead(final Context context,
+            final ReadRequest request) {
+        return dispatch(new Dispatched<ResourceResponse>() {
+            @Override
+            Promise<ResourceResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handleRead(context, request);
+            }
+        });
+    }
+
+    @Override
+    public Promise<QueryResponse, ResourceException> handleQuery(final Context context,
+            final QueryRequest request,
+            final QueryResourceHandler handler) {
+        return dispatch(new Dispatched<QueryResponse>() {
+            @Override
+            Promise<QueryResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handleQuery(context, request, handler);
+            }
+        });
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> handlePatch(final Context context,
+            final PatchRequest request) {
+        return dispatch(new Dispatched<ResourceResponse>() {
+            @Override
+            Promise<ResourceResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handlePatch(context, request);
+            }
+        });
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> handleDelete(final Context context,
+            final DeleteRequest request) {
+        return dispatch(new Dispatched<ResourceResponse>() {
+            @Override
+            Promise<ResourceResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handleDelete(context, request);
+            }
+        });
+    }
+
+    @Override
+    public Promise<ResourceResponse, ResourceException> handleCreate(final Context context,
+            final CreateRequest request) {
+        return dispatch(new Dispatched<ResourceResponse>() {
+            @Override
+            Promise<ResourceResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handleCreate(context, request);
+            }
+        });
+    }
+
+    @Override
+    public Promise<ActionResponse, ResourceException> handleAction(final Context context,
+            final ActionRequest request) {
+        return dispatch(new Dispatched<ActionResponse>() {
+            @Override
+            Promise<ActionResponse, ResourceException> handle() {
+                return ExecutorSyncRequestHandlerAdapter.super.handleAction(context, request);
+            }
+        });
+    }
+
+    private <V> Promise<V, ResourceException> dispatch(final Dispatched<V> dispatched) {
+        try {
+            executor.execute(dispatched);
+        } catch (RejectedExecutionException e) {
+            dispatched.rejected(e);
+        }
+        return dispatched.promise;
+    }
+
+    /**
+     * A request dispatched to the executor, completing its promise with the result of the synchronous handler.
+     *
+     * @param <V> the type of the result
+     */
+    private abstract static class Dispatched<V> implements BoundedExecutor.Rejectable {
+
+        private final PromiseImpl<V, ResourceException> promise = PromiseImpl.create();
+        private final Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        /**
+         * Invokes the synchronous handler.
+         *
+         * @return the already completed promise of the synchronous handler
+         */
+        abstract Promise<V, ResourceException> handle();
+
+        @Override
+        public final void run() {
+            final Map<String, String> previous = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            try {
+                handle().thenOnResultOrException(promise, promise);
+            } catch (RuntimeException e) {
+                logger.debug("Synchronous request handler failed", e);
+                promise.handleException(new InternalServerErrorException(e));
+            } finally {
+                setMdc(previous);
+            }
+        }
+
+        @Override
+        public final void rejected(final RejectedExecutionException e) {
+            promise.handleException(new ServiceUnavailableException("The request could not be scheduled", e));
+        }
+
+        private static void setMdc(final Map<String, String> mdc) {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+}
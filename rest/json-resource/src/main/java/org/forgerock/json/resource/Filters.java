@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
@@ -23,6 +24,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.forgerock.services.context.Context;
+import org.forgerock.util.Options;
 import org.forgerock.util.promise.Promise;
 
 /**
@@ -162,6 +164,19 @@ public final class Filters {
         return new ConditionalFilter(condition, subFilter);
     }
 
+    /**
+     * Returns a {@code Filter} which caches the responses to read requests,
+     * and invalidates them when their resource is written through the filter.
+     *
+     * @param options
+     *            The options which will be used to configure the cache.
+     * @return The caching filter.
+     * @see CachingFilter
+     */
+    public static CachingFilter newCachingFilter(final Options options) {
+        return new CachingFilter(options);
+    }
+
     /**
      * Returns a {@code FilterCondition} which will only match requests whose
      * type is contained in {@code types}.
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
@@ -582,6 +583,7 @@ public final class MemoryBackend implements CollectionResourceProvider {
         } else {
             // No filtering or query by filter.
             final QueryFilter<JsonPointer> filter = request.getQueryFilter();
+            final Projection projection = Projection.of(request);
 
             // If paged results are requested then decode the cookie in order to determine
             // the index of the first result to be returned.
@@ -617,7 +619,7 @@ public final class MemoryBackend implements CollectionResourceProvider {
                 for (final ResourceResponse resource : resources.values()) {
                     if (filter == null || filter.accept(RESOURCE_FILTER, resource).toBoolean()) {
                         if (resultIndex >= firstResultIndex && resultIndex < lastResultIndex) {
-                            handler.handleResource(resource);
+                            handler.handleResource(projection.apply(resource));
                         }
                         resultIndex++;
                     }
@@ -636,7 +638,7 @@ public final class MemoryBackend implements CollectionResourceProvider {
                 Collections.sort(results, new ResourceComparator(sortKeys));
                 for (final ResourceResponse resource : results) {
                     if (resultIndex >= firstResultIndex && resultIndex < lastResultIndex) {
-                        handler.handleResource(resource);
+                        handler.handleResource(projection.apply(resource));
                     }
 
                     if (resultIndex < lastResultIndex) {
@@ -682,7 +684,7 @@ public final class MemoryBackend implements CollectionResourceProvider {
                 throw new NotFoundException("The resource with ID '" + id
                         + "' could not be read because it does not exist");
             }
-            return newResultPromise(resource);
+            return newResultPromise(Projection.of(request).apply(resource));
         } catch (final ResourceException e) {
             return newExceptionPromise(e);
         }
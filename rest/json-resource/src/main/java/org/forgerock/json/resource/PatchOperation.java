@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS. All rights reserved.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
@@ -472,6 +473,8 @@ public final class PatchOperation {
      * Returns a deep copy of the provided patch operation. This method may be
      * used in cases where the immutability of the underlying JSON value cannot
      * be guaranteed.
+     * {@link JsonValue#freeze() Frozen} values are immutable, and are
+     * therefore shared rather than copied.
      *
      * @param operation
      *            The patch operation to be defensively copied.
@@ -482,8 +485,8 @@ public final class PatchOperation {
             operation.getOperation(),
             operation.getField(),
             operation.getFrom(),
-            operation.getValue().copy(),
-            operation.toJsonValue().copy());
+            operation.getValue().mutableCopy(),
+            operation.toJsonValue().mutableCopy());
     }
 
     /**
@@ -0,0 +1,207 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.JsonValue;
+
+/**
+ * The fields of a resource requested through {@link Request#getFields()}, compiled so that providers can fetch or
+ * build only the parts of a resource which are needed, rather than building the full resource and leaving
+ * {@link Resources#filterResource(ResourceResponse, Collection)} to discard the rest of it.
+ * <p>
+ * Providers opt in by projecting their responses with {@link #apply(ResourceResponse)}: the projected responses are
+ * marked so that they pass through the filtering of internal connections unchanged. Providers which can select
+ * fields at their source, for example the columns of a database query, may use {@link #isAll()},
+ * {@link #getTopLevelFields()} and {@link #includes(JsonPointer)} to determine what to fetch.
+ * <p>
+ * Example usage:
+ *
+ * <pre>
+ * public boolean queryCollection(Context context, QueryRequest request, QueryResourceHandler handler) {
+ *     Projection projection = Projection.of(request);
+ *     for (ResourceResponse resource : resources) {
+ *         if (!handler.handleResource(projection.apply(resource))) {
+ *             break;
+ *         }
+ *     }
+ *     ...
+ * }
+ * </pre>
+ */
+public final class Projection {
+
+    private static final Projection ALL = new Projection(Collections.<JsonPointer>emptyList());
+
+    /**
+     * Returns the projection which includes all the fields of a resource.
+     *
+     * @return The projection which includes all the fields of a resource.
+     */
+    public static Projection all() {
+        return ALL;
+    }
+
+    /**
+     * Returns the projection of the fields requested by the provided request.
+     *
+     * @param request
+     *            The request.
+     * @return The projection of the fields requested by the request.
+     */
+    public static Projection of(final Request request) {
+        return of(request.getFields());
+    }
+
+    /**
+     * Returns the projection of the provided fields. If the collection of fields is empty then the projection
+     * includes all the fields of a resource.
+     *
+     * @param fields
+     *            The fields to be included.
+     * @return The projection of the fields.
+     */
+    public static Projection of(final Collection<JsonPointer> fields) {
+        return fields.isEmpty() ? ALL : new Projection(fields);
+    }
+
+    private final List<JsonPointer> fields;
+    /** {@code true} if there are no fields, or if the empty pointer is one of them, so all the fields are needed. */
+    private final boolean includesAll;
+    private final Set<String> topLevelFields;
+
+    private Projection(final Collection<JsonPointer> fields) {
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        boolean includesAll = fields.isEmpty();
+        final Set<String> topLevelFields = new LinkedHashSet<>();
+        for (final JsonPointer field : fields) {
+            if (field.isEmpty()) {
+                includesAll = true;
+            } else {
+                topLevelFields.add(field.get(0));
+            }
+        }
+        this.includesAll = includesAll;
+        this.topLevelFields = Collections.unmodifiableSet(topLevelFields);
+    }
+
+    /**
+     * Returns {@code true} if this projection includes all the fields of a resource, in which case resources do not
+     * need to be projected at all.
+     *
+     * @return {@code true} if this projection includes all the fields of a resource.
+     */
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * Returns the fields included by this projection, which is empty if it includes all the fields of a resource.
+     *
+     * @return The unmodifiable list of fields included by this projection.
+     */
+    public List<JsonPointer> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the names of the top-level fields of a resource which are needed in order to build its projection, or
+     * {@code null} if all of them are needed.
+     *
+     * @return The unmodifiable set of top-level fields which are needed, or {@code null} if all of them are needed.
+     */
+    public Set<String> getTopLevelFields() {
+        return includesAll ? null : topLevelFields;
+    }
+
+    /**
+     * Returns {@code true} if the value at the provided path of a resource is needed in order to build its
+     * projection, either because it is part of a projected field, or because a projected field is part of it.
+     *
+     * @param path
+     *            The path of the value within a resource.
+     * @return {@code true} if the value at the provided path is needed.
+     */
+    public boolean includes(final JsonPointer path) {
+        if (includesAll) {
+            return true;
+        }
+        for (final JsonPointer field : fields) {
+            if (isPrefix(field, path) || isPrefix(path, field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the projection of the provided resource content. The result is the same as
+     * {@link Resources#filterResource(JsonValue, Collection)} with the fields of this projection.
+     *
+     * @param content
+     *            The content of a resource.
+     * @return The projected content, which may be the provided content if it did not need to be projected.
+     */
+    public JsonValue apply(final JsonValue content) {
+        return Resources.filterResource(content, fields);
+    }
+
+    /**
+     * Returns the projection of the provided resource, in the same way as
+     * {@link Resources#filterResource(ResourceResponse, Collection)}. The returned resource lists its own top-level
+     * fields as its {@link ResourceResponse#getFields() fields}, so that it is not projected again when it is
+     * returned through an internal connection.
+     *
+     * @param resource
+     *            The resource.
+     * @return The projected resource, which may be the provided resource if it did not need to be projected.
+     */
+    public ResourceResponse apply(final ResourceResponse resource) {
+        final ResourceResponse projected = Resources.filterResource(resource, fields);
+        if (projected == resource) {
+            return resource;
+        }
+        for (final String key : projected.getContent().keys()) {
+            projected.addField(new JsonPointer(new String[] { key }));
+        }
+        return projected;
+    }
+
+    private static boolean isPrefix(final JsonPointer prefix, final JsonPointer pointer) {
+        if (prefix.size() > pointer.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!prefix.get(i).equals(pointer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
@@ -1333,7 +1334,7 @@ public final class Requests {
     }
 
     private static JsonValue copyJsonValue(final JsonValue value) {
-        return value != null ? value.copy() : null;
+        return value != null ? value.mutableCopy() : null;
     }
 
     private static <T> T notNull(final T object) {
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
@@ -27,8 +28,10 @@ import static org.forgerock.util.promise.Promises.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.forgerock.api.annotations.CollectionProvider;
 import org.forgerock.api.annotations.Path;
@@ -46,6 +49,8 @@ import org.forgerock.json.JsonValue;
 import org.forgerock.services.context.AbstractContext;
 import org.forgerock.services.context.Context;
 import org.forgerock.services.descriptor.Describable;
+import org.forgerock.util.Option;
+import org.forgerock.util.Options;
 import org.forgerock.util.Reject;
 import org.forgerock.util.promise.Promise;
 
@@ -55,6 +60,18 @@ import org.forgerock.util.promise.Promise;
  */
 public final class Resources {
 
+    /**
+     * The executor to which {@link #asRequestHandler(SynchronousRequestHandler, Options)} dispatches the requests.
+     * Defaults to virtual threads when supported by the JVM, and to a dedicated thread pool otherwise.
+     */
+    public static final Option<Executor> OPTION_SYNC_EXECUTOR = Option.of(Executor.class, null);
+
+    /**
+     * The maximum number of requests that {@link #asRequestHandler(SynchronousRequestHandler, Options)} executes
+     * concurrently for a given synchronous handler, extra requests being queued. Defaults to 64.
+     */
+    public static final Option<Integer> OPTION_SYNC_MAX_CONCURRENCY = Option.withDefault(64);
+
     private static final class InternalConnectionFactory implements ConnectionFactory {
         private final RequestHandler handler;
 
@@ -91,10 +108,37 @@ public final class Resources {
                 : new SynchronousRequestHandlerAdapter(syncHandler);
     }
 
+    /**
+     * Adapts the provided {@link SynchronousRequestHandler} as a {@link RequestHandler} executing the requests
+     * asynchronously.
+     * <p>
+     * Unlike {@link #asRequestHandler(SynchronousRequestHandler)}, the calling thread is not blocked while the
+     * synchronous handler processes the request: the request is dispatched to the executor configured with
+     * {@link #OPTION_SYNC_EXECUTOR}, and the returned promise is completed once the synchronous handler returns. The
+     * MDC of the calling thread is propagated to the executor thread. At most
+     * {@link #OPTION_SYNC_MAX_CONCURRENCY} requests are executed concurrently, so that a slow backend cannot
+     * monopolize the executor. A request that cannot be scheduled fails with a {@link ServiceUnavailableException}.
+     *
+     * @param syncHandler
+     *            The synchronous request handler to be adapted.
+     * @param options
+     *            The options of the adapter.
+     * @return The adapted synchronous request handler.
+     */
+    public static RequestHandler asRequestHandler(final SynchronousRequestHandler syncHandler,
+            final Options options) {
+        final Executor executor = options.get(OPTION_SYNC_EXECUTOR);
+        final int maxConcurrency = options.get(OPTION_SYNC_MAX_CONCURRENCY);
+        return syncHandler instanceof Describable
+                ? new DescribedExecutorSyncRequestHandlerAdapter(syncHandler, executor, maxConcurrency)
+                : new ExecutorSyncRequestHandlerAdapter(syncHandler, executor, maxConcurrency);
+    }
+
     /**
      * Returns a JSON object containing only the specified fields from the
-     * provided JSON value. If the list of fields is empty then the value is
-     * returned unchanged.
+     * provided JSON value. If the list of fields is empty, or if the value
+     * already contains only the specified top-level fields in the same order,
+     * then the value is returned unchanged.
      * <p>
      * <b>NOTE:</b> this method only performs a shallow copy of extracted
      * fields, so changes to the filtered JSON value may impact the original
@@ -108,7 +152,7 @@ public final class Resources {
      */
     public static JsonValue filterResource(final JsonValue resource,
             final Collection<JsonPointer> fields) {
-        if (fields.isEmpty() || resource.isNull() || resource.size() == 0) {
+        if (fields.isEmpty() || resource.isNull() || resource.size() == 0 || isProjected(resource, fields)) {
             return resource;
         } else {
             final Map<String, Object> filtered = new LinkedHashMap<>(fields.size());
@@ -129,6 +173,28 @@ public final class Resources {
         }
     }
 
+    /**
+     * Returns {@code true} if filtering the provided resource would return the same top-level fields in the same
+     * order, for example because it has already been filtered by its provider, in which case copying them can be
+     * avoided.
+     */
+    private static boolean isProjected(final JsonValue resource, final Collection<JsonPointer> fields) {
+        if (!resource.isMap() || resource.size() > fields.size()) {
+            return false;
+        }
+        final Iterator<String> keys = resource.asMap().keySet().iterator();
+        for (final JsonPointer field : fields) {
+            if (field.size() != 1) {
+                return false;
+            }
+            final String key = field.get(0);
+            if (resource.isDefined(key) && (!keys.hasNext() || !keys.next().equals(key))) {
+                return false;
+            }
+        }
+        return !keys.hasNext();
+    }
+
     /**
      * Returns a JSON object containing only the specified fields from the
      * provided resource. If the list of fields is empty then the resource is
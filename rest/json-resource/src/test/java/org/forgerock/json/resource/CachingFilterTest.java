@@ -0,0 +1,242 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.routing.Version.version;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Requests.newCreateRequest;
+import static org.forgerock.json.resource.Requests.newReadRequest;
+import static org.forgerock.json.resource.Requests.newUpdateRequest;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+import static org.forgerock.util.promise.Promises.newExceptionPromise;
+import static org.forgerock.util.time.Duration.duration;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.time.TimeService;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class CachingFilterTest {
+
+    private final Context context = new RootContext();
+    private RequestHandler next;
+    private TimeService time;
+    private int revision;
+
+    @BeforeMethod
+    public void setUp() {
+        next = mock(RequestHandler.class);
+        time = mock(TimeService.class);
+        revision = 0;
+        when(next.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenAnswer(new Answer<Promise<ResourceResponse, ResourceException>>() {
+                    @Override
+                    public Promise<ResourceResponse, ResourceException> answer(InvocationOnMock invocation) {
+                        ReadRequest request = invocation.getArgument(1);
+                        return newResourceResponse(request.getResourcePathObject().leaf(),
+                                String.valueOf(++revision), json(object(field("name", "bjensen")))).asPromise();
+                    }
+                });
+        when(next.handleUpdate(any(Context.class), any(UpdateRequest.class)))
+                .thenReturn(newResourceResponse("1", "2", json(object())).asPromise());
+    }
+
+    @Test
+    public void shouldServeReadsFromCache() throws Exception {
+        CachingFilter filter = newFilter(Options.defaultOptions());
+
+        ResourceResponse first = read(filter, newReadRequest("users/1"));
+        ResourceResponse second = read(filter, newReadRequest("users/1"));
+
+        assertThat(second.getRevision()).isEqualTo("1");
+        assertThat(second.getContent().getObject()).isEqualTo(first.getContent().getObject());
+        verify(next, times(1)).handleRead(any(Context.class), any(ReadRequest.class));
+        assertThat(filter.getHitCount()).isEqualTo(1);
+        assertThat(filter.getMissCount()).isEqualTo(1);
+        assertThat(filter.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReturnIndependentCopies() throws Exception {
+        CachingFilter filter = newFilter(Options.defaultOptions());
+
+        read(filter, newReadRequest("users/1")).getContent().put("name", "changed");
+        ResourceResponse cached = read(filter, newReadRequest("users/1"));
+        cached.getContent().put("name", "changed again");
+
+        assertThat(read(filter, newReadRequest("users/1")).getContent().get("name").asString()).isEqualTo("bjensen");
+    }
+
+    @Test
+    public void shouldCacheFieldsAndVersionsSeparately() throws Exception {
+        CachingFilter filter = newFilter(Options.defaultOptions());
+
+        read(filter, newReadRequest("users/1"));
+        read(filter, newReadRequest("users/1").addField("name"));
+        read(filter, newReadRequest("users/1").setResourceVersion(version(2)));
+        read(filter, newReadRequest("users/1").addField("name"));
+
+        verify(next, times(3)).handleRead(any(Context.class), any(ReadRequest.class));
+        assertThat(filter.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldInvalidateOnWrite() throws Exception {
+        CachingFilter filter = newFilter(Options.defaultOptions());
+        read(filter, newReadRequest("users/1"));
+        read(filter, newReadRequest("users/1").addField("name"));
+
+        filter.filterUpdate(context, newUpdateRequest("users/1", json(object())), next).getOrThrow();
+
+        assertThat(filter.getSize()).isEqualTo(0);
+        assertThat(filter.getInvalidationCount()).isEqualTo(2);
+        assertThat(read(filter, newReadRequest("users/1")).getRevision()).isEqualTo("3");
+    }
+
+    @Test
+    public void shouldInvalidateOnFailedConditionalWrite() throws Exception {
+        when(next.handleUpdate(any(Context.class), any(UpdateRequest.class)))
+                .thenReturn(newExceptionPromise(new PreconditionFailedException()));
+        CachingFilter filter = newFilter(Options.defaultOptions());
+        read(filter, newReadRequest("users/1"));
+
+        Promise<ResourceResponse, ResourceException> update = filter.filterUpdate(context,
+                newUpdateRequest("users/1", json(object())).setRevision("1"), next);
+
+        assertThat(update.isDone()).isTrue();
+        assertThat(filter.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldInvalidateCreatedResource() throws Exception {
+        when(next.handleCreate(any(Context.class), any(CreateRequest.class)))
+                .thenReturn(newResourceResponse("1", "1", json(object())).asPromise());
+        CachingFilter filter = newFilter(Options.defaultOptions());
+        read(filter, newReadRequest("users/1"));
+        read(filter, newReadRequest("users/2"));
+
+        filter.filterCreate(context, newCreateRequest("users", json(object())), next).getOrThrow();
+
+        assertThat(filter.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldExpireResponses() throws Exception {
+        when(time.now()).thenReturn(0L);
+        CachingFilter filter = newFilter(Options.defaultOptions().set(CachingFilter.OPTION_TTL, duration("10 ms")));
+        read(filter, newReadRequest("users/1"));
+
+        when(time.now()).thenReturn(9L);
+        assertThat(read(filter, newReadRequest("users/1")).getRevision()).isEqualTo("1");
+        when(time.now()).thenReturn(10L);
+        assertThat(read(filter, newReadRequest("users/1")).getRevision()).isEqualTo("2");
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResources() throws Exception {
+        CachingFilter filter = newFilter(Options.defaultOptions().set(CachingFilter.OPTION_MAX_ENTRIES, 2));
+        read(filter, newReadRequest("users/1"));
+        read(filter, newReadRequest("users/2"));
+        read(filter, newReadRequest("users/1"));
+        read(filter, newReadRequest("users/3"));
+
+        assertThat(filter.getSize()).isEqualTo(2);
+        assertThat(filter.getEvictionCount()).isEqualTo(1);
+        read(filter, newReadRequest("users/1"));
+        assertThat(filter.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotCacheExceptions() throws Exception {
+        when(next.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenReturn(newExceptionPromise(new NotFoundException()));
+        CachingFilter filter = newFilter(Options.defaultOptions());
+
+        filter.filterRead(context, newReadRequest("users/1"), next);
+        filter.filterRead(context, newReadRequest("users/1"), next);
+
+        verify(next, times(2)).handleRead(any(Context.class), any(ReadRequest.class));
+        assertThat(filter.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentMisses() throws Exception {
+        PromiseImpl<ResourceResponse, ResourceException> response = PromiseImpl.create();
+        when(next.handleRead(any(Context.class), any(ReadRequest.class))).thenReturn(response);
+        CachingFilter filter = newFilter(Options.defaultOptions());
+
+        Promise<ResourceResponse, ResourceException> first =
+                filter.filterRead(context, newReadRequest("users/1"), next);
+        Promise<ResourceResponse, ResourceException> second =
+                filter.filterRead(context, newReadRequest("users/1"), next);
+        assertThat(second.isDone()).isFalse();
+        response.handleResult(newResourceResponse("1", "1", json(object())));
+
+        assertThat(first.getOrThrow().getRevision()).isEqualTo("1");
+        assertThat(second.getOrThrow().getRevision()).isEqualTo("1");
+        assertThat(second.getOrThrow()).isNotSameAs(first.getOrThrow());
+        verify(next, times(1)).handleRead(any(Context.class), any(ReadRequest.class));
+        assertThat(filter.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotCacheReadRacingWithWrite() throws Exception {
+        PromiseImpl<ResourceResponse, ResourceException> response = PromiseImpl.create();
+        when(next.handleRead(any(Context.class), any(ReadRequest.class))).thenReturn(response);
+        CachingFilter filter = newFilter(Options.defaultOptions());
+
+        Promise<ResourceResponse, ResourceException> read = filter.filterRead(context, newReadRequest("users/1"), next);
+        filter.filterUpdate(context, newUpdateRequest("users/1", json(object())), next).getOrThrow();
+        response.handleResult(newResourceResponse("1", "1", json(object())));
+
+        assertThat(read.getOrThrow().getRevision()).isEqualTo("1");
+        assertThat(filter.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldWorkThroughFilterChain() throws Exception {
+        RequestHandler chain = new FilterChain(next, Filters.newCachingFilter(Options.defaultOptions()));
+
+        chain.handleRead(context, newReadRequest("users/1")).getOrThrow();
+        chain.handleRead(context, newReadRequest("users/1")).getOrThrow();
+
+        verify(next, times(1)).handleRead(any(Context.class), any(ReadRequest.class));
+    }
+
+    private CachingFilter newFilter(Options options) {
+        return new CachingFilter(options.set(CachingFilter.OPTION_TIME_SERVICE, time));
+    }
+
+    private ResourceResponse read(CachingFilter filter, ReadRequest request) throws Exception {
+        return filter.filterRead(context, request, next).getOrThrow();
+    }
+}
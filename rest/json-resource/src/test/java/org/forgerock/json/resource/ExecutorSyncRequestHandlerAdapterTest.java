@@ -0,0 +1,255 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Requests.newQueryRequest;
+import static org.forgerock.json.resource.Requests.newReadRequest;
+import static org.forgerock.json.resource.Resources.OPTION_SYNC_EXECUTOR;
+import static org.forgerock.json.resource.Resources.OPTION_SYNC_MAX_CONCURRENCY;
+import static org.forgerock.json.resource.Resources.asRequestHandler;
+import static org.forgerock.json.resource.Responses.newQueryResponse;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.MDC;
+import org.slf4j.helpers.NOPMDCAdapter;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ExecutorSyncRequestHandlerAdapterTest {
+
+    private SynchronousRequestHandler syncHandler;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+        syncHandler = mock(SynchronousRequestHandler.class);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    public void shouldExecuteRequestOnExecutorThread() throws Exception {
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenAnswer(new Answer<ResourceResponse>() {
+                    @Override
+                    public ResourceResponse answer(InvocationOnMock invocation) {
+                        thread.set(Thread.currentThread());
+                        return newResourceResponse("1", "1", json(object()));
+                    }
+                });
+
+        RequestHandler handler = asRequestHandler(syncHandler, options());
+        ResourceResponse response = handler.handleRead(new RootContext(), newReadRequest("users/1"))
+                .getOrThrow(5, SECONDS);
+
+        assertThat(response.getId()).isEqualTo("1");
+        assertThat(thread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void shouldUseDefaultExecutor() throws Exception {
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenReturn(newResourceResponse("1", "1", json(object())));
+
+        RequestHandler handler = asRequestHandler(syncHandler, Options.defaultOptions());
+
+        assertThat(handler.handleRead(new RootContext(), newReadRequest("users/1")).getOrThrow(5, SECONDS).getId())
+                .isEqualTo("1");
+    }
+
+    @Test
+    public void shouldPropagateMdcToExecutorThread() throws Exception {
+        if (MDC.getMDCAdapter() instanceof NOPMDCAdapter) {
+            throw new SkipException("The SLF4J binding does not support MDC");
+        }
+        final AtomicReference<String> transactionId = new AtomicReference<>();
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenAnswer(new Answer<ResourceResponse>() {
+                    @Override
+                    public ResourceResponse answer(InvocationOnMock invocation) {
+                        transactionId.set(MDC.get("transactionId"));
+                        return newResourceResponse("1", "1", json(object()));
+                    }
+                });
+
+        RequestHandler handler = asRequestHandler(syncHandler, options());
+        MDC.put("transactionId", "abc");
+        handler.handleRead(new RootContext(), newReadRequest("users/1")).getOrThrow(5, SECONDS);
+
+        assertThat(transactionId.get()).isEqualTo("abc");
+    }
+
+    @Test
+    public void shouldPassContextToSynchronousHandler() throws Exception {
+        final Context context = new RootContext();
+        final AtomicReference<Context> received = new AtomicReference<>();
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenAnswer(new Answer<ResourceResponse>() {
+                    @Override
+                    public ResourceResponse answer(InvocationOnMock invocation) {
+                        received.set(invocation.<Context>getArgument(0));
+                        return newResourceResponse("1", "1", json(object()));
+                    }
+                });
+
+        asRequestHandler(syncHandler, options()).handleRead(context, newReadRequest("users/1")).getOrThrow(5, SECONDS);
+
+        assertThat(received.get()).isSameAs(context);
+    }
+
+    @Test
+    public void shouldBoundConcurrentRequests() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenAnswer(new Answer<ResourceResponse>() {
+                    @Override
+                    public ResourceResponse answer(InvocationOnMock invocation) throws Exception {
+                        final int current = running.incrementAndGet();
+                        maxRunning.accumulateAndGet(current, Math::max);
+                        release.await(5, SECONDS);
+                        running.decrementAndGet();
+                        return newResourceResponse("1", "1", json(object()));
+                    }
+                });
+
+        RequestHandler handler = asRequestHandler(syncHandler, options().set(OPTION_SYNC_MAX_CONCURRENCY, 2));
+        List<Promise<ResourceResponse, ResourceException>> promises = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            promises.add(handler.handleRead(new RootContext(), newReadRequest("users/1")));
+        }
+        Thread.sleep(100);
+        assertThat(running.get()).isEqualTo(2);
+        assertThat(promises.get(9).isDone()).isFalse();
+
+        release.countDown();
+        for (Promise<ResourceResponse, ResourceException> promise : promises) {
+            promise.getOrThrow(5, SECONDS);
+        }
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldPropagateResourceException() throws Exception {
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenThrow(new NotFoundException());
+
+        Promise<ResourceResponse, ResourceException> promise =
+                asRequestHandler(syncHandler, options()).handleRead(new RootContext(), newReadRequest("users/1"));
+
+        assertThat(getException(promise)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void shouldMapRuntimeExceptionToInternalServerError() throws Exception {
+        when(syncHandler.handleRead(any(Context.class), any(ReadRequest.class)))
+                .thenThrow(new IllegalStateException("boom"));
+
+        Promise<ResourceResponse, ResourceException> promise =
+                asRequestHandler(syncHandler, options()).handleRead(new RootContext(), newReadRequest("users/1"));
+
+        ResourceException exception = getException(promise);
+        assertThat(exception).isInstanceOf(InternalServerErrorException.class);
+        assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void shouldFailWithServiceUnavailableWhenRequestIsRejected() throws Exception {
+        executor.shutdown();
+
+        Promise<ResourceResponse, ResourceException> promise =
+                asRequestHandler(syncHandler, options()).handleRead(new RootContext(), newReadRequest("users/1"));
+
+        ResourceException exception = getException(promise);
+        assertThat(exception).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(exception.getCause()).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDeliverQueryResources() throws Exception {
+        when(syncHandler.handleQuery(any(Context.class), any(QueryRequest.class), anyCollection()))
+                .thenAnswer(new Answer<QueryResponse>() {
+                    @Override
+                    public QueryResponse answer(InvocationOnMock invocation) {
+                        Collection<ResourceResponse> resources = invocation.getArgument(2);
+                        resources.add(newResourceResponse("1", "1", json(object())));
+                        resources.add(newResourceResponse("2", "1", json(object())));
+                        return newQueryResponse();
+                    }
+                });
+        final List<String> ids = new ArrayList<>();
+
+        asRequestHandler(syncHandler, options()).handleQuery(new RootContext(), newQueryRequest("users"),
+                new QueryResourceHandler() {
+                    @Override
+                    public boolean handleResource(ResourceResponse resource) {
+                        ids.add(resource.getId());
+                        return true;
+                    }
+                }).getOrThrow(5, SECONDS);
+
+        assertThat(ids).containsExactly("1", "2");
+    }
+
+    private Options options() {
+        return Options.defaultOptions().set(OPTION_SYNC_EXECUTOR, executor);
+    }
+
+    private static ResourceException getException(Promise<?, ResourceException> promise) throws Exception {
+        try {
+            promise.getOrThrow(5, SECONDS);
+        } catch (ResourceException e) {
+            return e;
+        }
+        throw new AssertionError("Expected the promise to fail");
+    }
+}
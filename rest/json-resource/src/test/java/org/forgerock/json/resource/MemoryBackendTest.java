@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
@@ -150,6 +151,23 @@ public final class MemoryBackendTest {
                 asResource(userBobWithIdAndRev(1, 0)));
     }
 
+    @Test
+    public void testQueryCollectionWithFields() throws Exception {
+        final Connection connection = getConnectionWithAliceAndBob();
+        final List<ResourceResponse> results = new ArrayList<>();
+        connection.query(ctx(), newQueryRequest("users").addField("name", "_id").addSortKey("+/name"), results);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getContent().getObject())
+                .isEqualTo(object(field("name", "alice"), field("_id", "0")));
+        assertThat(results.get(1).getContent().getObject())
+                .isEqualTo(object(field("name", "bob"), field("_id", "1")));
+
+        // The stored resources must not be altered by the projection.
+        assertThat(connection.read(ctx(), newReadRequest("users/0")).getContent().getObject())
+                .isEqualTo(userAliceWithIdAndRev(0, 0).getObject());
+    }
+
     @Test
     public void testQueryCollectionWithSort() throws Exception {
         final Connection connection = getConnection();
@@ -384,6 +402,16 @@ public final class MemoryBackendTest {
         assertThat(resource.getContent()).stringAt("_id").isEqualTo("0");
     }
 
+    @Test
+    public void testReadInstanceWithNestedFieldFilter() throws Exception {
+        final Connection connection = getConnection();
+        connection.create(ctx(), newCreateRequest("users",
+                content(object(field("name", "alice"), field("address", object(field("city", "Brno")))))));
+        final ResourceResponse resource =
+                connection.read(ctx(), newReadRequest("users/0").addField("/address/city", "name"));
+        assertThat(resource.getContent().getObject()).isEqualTo(object(field("city", "Brno"), field("name", "alice")));
+    }
+
     @Test(expectedExceptions = BadRequestException.class)
     public void testUpdateCollection() throws Exception {
         final Connection connection = getConnection();
@@ -0,0 +1,112 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.resource;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonPointer.ptr;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Requests.newReadRequest;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.forgerock.json.JsonPointer;
+import org.forgerock.json.JsonValue;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ProjectionTest {
+
+    @Test
+    public void shouldIncludeAllFieldsWhenNoFieldsAreRequested() {
+        Projection projection = Projection.of(newReadRequest("users/1"));
+        ResourceResponse resource = newResourceResponse("1", "1", user());
+
+        assertThat(projection).isSameAs(Projection.all());
+        assertThat(projection.isAll()).isTrue();
+        assertThat(projection.getTopLevelFields()).isNull();
+        assertThat(projection.includes(ptr("/address/city"))).isTrue();
+        assertThat(projection.apply(resource)).isSameAs(resource);
+    }
+
+    @Test
+    public void shouldCompileRequestedFields() {
+        Projection projection = Projection.of(newReadRequest("users/1").addField("name", "/address/city"));
+
+        assertThat(projection.isAll()).isFalse();
+        assertThat(projection.getTopLevelFields()).containsExactly("name", "address");
+        assertThat(projection.includes(ptr("/name"))).isTrue();
+        assertThat(projection.includes(ptr("/address"))).isTrue();
+        assertThat(projection.includes(ptr("/address/city"))).isTrue();
+        assertThat(projection.includes(ptr("/address/street"))).isFalse();
+        assertThat(projection.includes(ptr("/age"))).isFalse();
+    }
+
+    @Test
+    public void shouldNeedAllFieldsWhenEmptyPointerIsRequested() {
+        Projection projection = Projection.of(asList(ptr("/"), ptr("/address/city")));
+
+        assertThat(projection.getTopLevelFields()).isNull();
+        assertThat(projection.includes(ptr("/age"))).isTrue();
+        assertThat(projection.includes(ptr("/address/street"))).isTrue();
+    }
+
+    @Test
+    public void shouldProjectLikeFilterResource() {
+        List<JsonPointer> fields = asList(ptr("/address/city"), ptr("/name"));
+        ResourceResponse resource = newResourceResponse("1", "1", user());
+
+        ResourceResponse projected = Projection.of(fields).apply(resource);
+
+        assertThat(projected.getContent().getObject())
+                .isEqualTo(Resources.filterResource(user(), fields).getObject());
+        assertThat(projected.getId()).isEqualTo("1");
+        assertThat(projected.getRevision()).isEqualTo("1");
+    }
+
+    @Test
+    public void shouldNotFilterProjectedResourceAgain() {
+        List<JsonPointer> fields = asList(ptr("/address/city"), ptr("/name"));
+        ResourceResponse projected = Projection.of(fields).apply(newResourceResponse("1", "1", user()));
+
+        assertThat(Resources.filterResource(projected, fields)).isSameAs(projected);
+    }
+
+    @Test
+    public void shouldNotCopyContentWhichIsAlreadyFiltered() {
+        JsonValue content = json(object(field("name", "alice"), field("age", 20)));
+
+        assertThat(Resources.filterResource(content, asList(ptr("/name"), ptr("/age")))).isSameAs(content);
+        assertThat(Resources.filterResource(content, asList(ptr("/name"), ptr("/role"), ptr("/age"))))
+                .isSameAs(content);
+        assertThat(Resources.filterResource(content, asList(ptr("/age"), ptr("/name")))).isNotSameAs(content);
+        assertThat(Resources.filterResource(content, asList(ptr("/name")))).isNotSameAs(content);
+        assertThat(Resources.filterResource(content, asList(ptr("/name"), ptr("/name")))).isNotSameAs(content);
+        assertThat(Resources.filterResource(content, Collections.singletonList(ptr("/")))).isNotSameAs(content);
+    }
+
+    private static JsonValue user() {
+        return json(object(
+                field("name", "alice"),
+                field("age", 20),
+                field("address", object(field("city", "Brno"), field("street", "Main")))));
+    }
+}
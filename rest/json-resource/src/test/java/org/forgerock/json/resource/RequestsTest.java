@@ -12,12 +12,20 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.resource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.Requests.copyOfUpdateRequest;
 import static org.forgerock.json.resource.Requests.newReadRequest;
+import static org.forgerock.json.resource.Requests.newUpdateRequest;
+
+import java.util.Map;
 
 import org.forgerock.json.JsonValue;
 import org.testng.annotations.DataProvider;
@@ -94,4 +102,16 @@ public final class RequestsTest {
         assertThat(r.getNewResourceId()).isEqualTo("forward/slash");
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCopyOfRequestWithFrozenContentCanBeModified() {
+        JsonValue content = json(object(field("name", object(field("first", "Alice"))))).freeze();
+        UpdateRequest request = newUpdateRequest("users/alice", content);
+
+        UpdateRequest copy = copyOfUpdateRequest(request);
+        ((Map<String, Object>) copy.getContent().asMap().get("name")).put("first", "Bob");
+
+        assertThat(copy.getContent().get("name").get("first").asString()).isEqualTo("Bob");
+        assertThat(request.getContent().get("name").get("first").asString()).isEqualTo("Alice");
+    }
 }
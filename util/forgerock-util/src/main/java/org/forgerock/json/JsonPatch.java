@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json;
@@ -19,10 +20,15 @@ package org.forgerock.json;
 import static org.forgerock.json.JsonValueFunctions.pointer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import org.forgerock.util.Option;
+import org.forgerock.util.Options;
 import org.forgerock.util.Reject;
 
 /**
@@ -72,27 +78,94 @@ public final class JsonPatch {
             }
         };
 
+    /**
+     * Specifies how {@link #diff(JsonValue, JsonValue, Options)} compares JSON arrays.
+     */
+    public enum ArrayDiff {
+        /**
+         * Arrays which differ are replaced entirely by a single {@code replace} operation. This is the default, and
+         * the behaviour of {@link #diff(JsonValue, JsonValue)}.
+         */
+        REPLACE,
+        /**
+         * Arrays are compared as ordered sequences: the differences are expressed as {@code add}, {@code remove} and
+         * {@code replace} operations targeting array indexes, computed with Myers' algorithm so that the number of
+         * elements added and removed is minimal. Elements replaced by elements of the same type are compared
+         * recursively. Arrays whose differences exceed 1024 insertions and removals are replaced
+         * entirely.
+         */
+        ORDERED,
+        /**
+         * Arrays are compared as unordered collections, such as group members or roles: the elements of the
+         * original array which are not in the target array are removed, and the elements of the target array which
+         * are not in the original array are appended. Moving elements within an array is not a change.
+         */
+        UNORDERED
+    }
+
+    /**
+     * The way JSON arrays are compared by {@link #diff(JsonValue, JsonValue, Options)}. The default is
+     * {@link ArrayDiff#REPLACE}.
+     */
+    public static final Option<ArrayDiff> OPTION_ARRAY_DIFF = Option.of(ArrayDiff.class, ArrayDiff.REPLACE);
+
+    /**
+     * The maximum number of insertions and removals computed by an {@link ArrayDiff#ORDERED ordered} array diff,
+     * which bounds the time and memory spent on arrays which have little in common.
+     */
+    static final int MAX_EDIT_DISTANCE = 1024;
+
+    private static final byte KEEP = 0;
+    private static final byte REMOVE = 1;
+    private static final byte INSERT = 2;
+
     /**
      * Compares two JSON values, and produces a JSON Patch value, which contains the
      * operations necessary to modify the {@code original} value to arrive at the
-     * {@code target} value.
+     * {@code target} value. Arrays which differ are replaced entirely.
      *
      * @param original the original value.
      * @param target the intended target value.
      * @return the resulting JSON Patch value.
      * @throws NullPointerException if either of {@code original} or {@code target} are {@code null}.
+     * @see #diff(JsonValue, JsonValue, Options)
      */
     public static JsonValue diff(JsonValue original, JsonValue target) {
         final List<Object> result = new ArrayList<>();
+        diff(original, target, ArrayDiff.REPLACE, result);
+        return new JsonValue(result);
+    }
+
+    /**
+     * Compares two JSON values, and produces a JSON Patch value, which contains the
+     * operations necessary to modify the {@code original} value to arrive at the
+     * {@code target} value, comparing arrays as specified by {@link #OPTION_ARRAY_DIFF}.
+     * The resulting patch can be applied with {@link #patch(JsonValue, JsonValue)}.
+     * <p>
+     * Identical objects and arrays, such as the {@link JsonValue#freeze() frozen}
+     * values shared by the two values, are not traversed.
+     *
+     * @param original the original value.
+     * @param target the intended target value.
+     * @param options the options of the comparison.
+     * @return the resulting JSON Patch value.
+     * @throws NullPointerException if either of {@code original} or {@code target} are {@code null}.
+     */
+    public static JsonValue diff(JsonValue original, JsonValue target, Options options) {
+        final List<Object> result = new ArrayList<>();
+        diff(original, target, options.get(OPTION_ARRAY_DIFF), result);
+        return new JsonValue(result);
+    }
+
+    private static void diff(JsonValue original, JsonValue target, ArrayDiff arrayDiff, List<Object> result) {
         if (differentTypes(original, target)) { // different types cause a replace
             result.add(op("replace", original.getPointer(), target));
+        } else if (original.getObject() == target.getObject()) {
+            return; // identical values, or subtrees shared by both values
         } else if (original.isMap()) {
             for (String key : original.keys()) {
                 if (target.isDefined(key)) { // target also has the property
-                    JsonValue diff = diff(original.get(key), target.get(key)); // recursively compare properties
-                    if (diff.size() > 0) {
-                        result.addAll(diff.asList()); // add diff results
-                    }
+                    diff(original.get(key), target.get(key), arrayDiff, result); // recursively compare properties
                 } else { // property is missing in target
                     result.add(op("remove", original.getPointer().child(key), null));
                 }
@@ -103,26 +176,226 @@ public final class JsonPatch {
                 }
             }
         } else if (original.isList()) {
-            boolean replace = false;
-            if (original.size() != target.size()) {
-                replace = true;
-            } else {
-                Iterator<JsonValue> i1 = original.iterator();
-                Iterator<JsonValue> i2 = target.iterator();
-                while (i1.hasNext() && i2.hasNext()) {
-                    if (diff(i1.next(), i2.next()).size() > 0) { // recursively compare elements
-                        replace = true;
-                        break;
+            switch (arrayDiff) {
+            case ORDERED:
+                diffOrderedList(original, target, result);
+                break;
+            case UNORDERED:
+                diffUnorderedList(original, target, result);
+                break;
+            default:
+                boolean replace = false;
+                if (original.size() != target.size()) {
+                    replace = true;
+                } else {
+                    Iterator<JsonValue> i1 = original.iterator();
+                    Iterator<JsonValue> i2 = target.iterator();
+                    while (i1.hasNext() && i2.hasNext()) {
+                        if (diff(i1.next(), i2.next()).size() > 0) { // recursively compare elements
+                            replace = true;
+                            break;
+                        }
                     }
                 }
-            }
-            if (replace) { // replace list entirely
-                result.add(op("replace", original.getPointer(), target));
+                if (replace) { // replace list entirely
+                    result.add(op("replace", original.getPointer(), target));
+                }
             }
         } else if (!original.isNull() && !original.getObject().equals(target.getObject())) { // simple value comparison
             result.add(op("replace", original.getPointer(), target));
         }
-        return new JsonValue(result);
+    }
+
+    /**
+     * Adds the operations turning the {@code original} list into the {@code target} list, as the shortest edit
+     * script between the two lists. The common prefix and suffix of the lists are skipped in linear time, and the
+     * differences between the remaining elements are computed with Myers' O(ND) algorithm.
+     */
+    private static void diffOrderedList(JsonValue original, JsonValue target, List<Object> result) {
+        final List<Object> from = original.asList();
+        final List<Object> to = target.asList();
+        int start = 0;
+        int fromEnd = from.size();
+        int toEnd = to.size();
+        while (start < fromEnd && start < toEnd && Objects.equals(from.get(start), to.get(start))) {
+            start++;
+        }
+        while (fromEnd > start && toEnd > start && Objects.equals(from.get(fromEnd - 1), to.get(toEnd - 1))) {
+            fromEnd--;
+            toEnd--;
+        }
+        final byte[] script = editScript(from.subList(start, fromEnd), to.subList(start, toEnd));
+        if (script == null) { // too many differences
+            result.add(op("replace", original.getPointer(), target));
+            return;
+        }
+
+        // Consecutive removals and insertions replace the removed elements, and are applied at the current index
+        final JsonPointer pointer = original.getPointer();
+        int index = start;
+        int fromIndex = start;
+        int toIndex = start;
+        int i = 0;
+        while (i < script.length) {
+            if (script[i] == KEEP) {
+                index++;
+                fromIndex++;
+                toIndex++;
+                i++;
+                continue;
+            }
+            int removed = 0;
+            int inserted = 0;
+            for (; i < script.length && script[i] != KEEP; i++) {
+                if (script[i] == REMOVE) {
+                    removed++;
+                } else {
+                    inserted++;
+                }
+            }
+            final int replaced = Math.min(removed, inserted);
+            for (int n = 0; n < replaced; n++) {
+                diff(new JsonValue(from.get(fromIndex + n), pointer.child(index + n)),
+                        new JsonValue(to.get(toIndex + n)), ArrayDiff.ORDERED, result);
+            }
+            for (int n = replaced; n < removed; n++) {
+                result.add(op("remove", pointer.child(index + replaced), null));
+            }
+            for (int n = replaced; n < inserted; n++) {
+                result.add(op("add", pointer.child(index + n), new JsonValue(to.get(toIndex + n))));
+            }
+            index += inserted;
+            fromIndex += removed;
+            toIndex += inserted;
+        }
+    }
+
+    /**
+     * Returns the shortest sequence of {@link #KEEP}, {@link #REMOVE} and {@link #INSERT} steps turning {@code from}
+     * into {@code to}, or {@code null} if it contains more than {@link #MAX_EDIT_DISTANCE} removals and insertions.
+     * See E. Myers, "An O(ND) Difference Algorithm and Its Variations", Algorithmica 1 (1986).
+     */
+    private static byte[] editScript(List<Object> from, List<Object> to) {
+        final int n = from.size();
+        final int m = to.size();
+        if (n == 0 || m == 0) {
+            if (n + m > MAX_EDIT_DISTANCE) {
+                return null;
+            }
+            final byte[] script = new byte[n + m];
+            Arrays.fill(script, n == 0 ? INSERT : REMOVE);
+            return script;
+        }
+        // Compare hash codes first, in order to avoid comparing deeply nested elements more than once
+        final Object[] a = from.toArray();
+        final Object[] b = to.toArray();
+        final int[] hashA = hashCodes(a);
+        final int[] hashB = hashCodes(b);
+
+        final int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        final int offset = max + 1;
+        // v[offset + k] is the furthest x reached on diagonal k; trace.get(d) is a copy of v[-d..d] before step d
+        final int[] v = new int[2 * max + 3];
+        final List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && hashA[x] == hashB[y] && Objects.equals(a[x], b[y])) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m, d);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static byte[] backtrack(List<int[]> trace, int n, int m, int distance) {
+        final int removals = (distance + n - m) / 2;
+        final byte[] script = new byte[n - removals + distance];
+        int position = script.length;
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            final int[] v = trace.get(d); // v[d + k] is the furthest x on diagonal k after step d - 1
+            final int k = x - y;
+            final int previousK = (k == -d || (k != d && v[d + k - 1] < v[d + k + 1])) ? k + 1 : k - 1;
+            final int previousX = v[d + previousK];
+            final int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                script[--position] = KEEP;
+                x--;
+                y--;
+            }
+            script[--position] = x == previousX ? INSERT : REMOVE;
+            x = previousX;
+            y = previousY;
+        }
+        while (position > 0) {
+            script[--position] = KEEP;
+        }
+        return script;
+    }
+
+    private static int[] hashCodes(Object[] elements) {
+        final int[] hashCodes = new int[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            hashCodes[i] = Objects.hashCode(elements[i]);
+        }
+        return hashCodes;
+    }
+
+    /**
+     * Adds the operations turning the {@code original} list into the {@code target} list, ignoring the order of
+     * their elements: the elements which are only in the original list are removed, starting with the last one so
+     * that the indexes of the other ones do not change, then the elements which are only in the target list are
+     * appended. Duplicate elements are matched one for one.
+     */
+    private static void diffUnorderedList(JsonValue original, JsonValue target, List<Object> result) {
+        final List<Object> from = original.asList();
+        final List<Object> to = target.asList();
+        if (from.equals(to)) {
+            return;
+        }
+        final Map<Object, Integer> available = new HashMap<>();
+        for (Object element : to) {
+            final Integer count = available.get(element);
+            available.put(element, count == null ? 1 : count + 1);
+        }
+        final List<Integer> removed = new ArrayList<>();
+        for (int i = 0; i < from.size(); i++) {
+            final Integer count = available.get(from.get(i));
+            if (count == null) {
+                removed.add(i);
+            } else if (count == 1) {
+                available.remove(from.get(i));
+            } else {
+                available.put(from.get(i), count - 1);
+            }
+        }
+        final JsonPointer pointer = original.getPointer();
+        for (int i = removed.size() - 1; i >= 0; i--) {
+            result.add(op("remove", pointer.child(removed.get(i)), null));
+        }
+        int index = from.size() - removed.size();
+        for (Object element : to) {
+            final Integer count = available.get(element);
+            if (count != null) {
+                if (count == 1) {
+                    available.remove(element);
+                } else {
+                    available.put(element, count - 1);
+                }
+                result.add(op("add", pointer.child(index++), new JsonValue(element)));
+            }
+        }
     }
 
     /**
@@ -13,21 +13,32 @@
  *
  * Copyright © 2010–2011 ApexIdentity Inc. All rights reserved.
  * Portions Copyrighted 2011-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json;
 
+import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import org.forgerock.util.Function;
 import org.forgerock.util.RangeSet;
@@ -36,6 +47,13 @@ import org.forgerock.util.RangeSet;
  * Represents a value in a JSON object model structure. JSON values are
  * represented with standard Java objects: {@link String}, {@link Number},
  * {@link Map}, {@link List}, {@link Boolean} and {@code null}.
+ * <p>
+ * JSON values may be {@link #freeze() frozen}, in which case their objects and
+ * arrays are immutable and can be shared by several threads, or placed in other
+ * JSON values, without being copied. A {@link #mutableCopy() mutable copy} of a
+ * frozen value is cheap: its objects and arrays are copied on demand, the first
+ * time they are accessed through the copy, so that only the paths which are read
+ * or modified are copied.
  */
 public class JsonValue implements Cloneable, Iterable<JsonValue> {
 
@@ -714,24 +732,71 @@ public class JsonValue implements Cloneable, Iterable<JsonValue> {
      * structure will result in a {@link StackOverflowError} being thrown.
      *
      * @return a deep copy of this JSON value.
+     * @see #mutableCopy()
      */
     public JsonValue copy() {
         // TODO: track original values to resolve cyclic references
-        final JsonValue result = new JsonValue(object, pointer); // start with shallow copy
-        if (this.isMap()) {
-            final Map<String, Object> map = object(size());
-            for (final String key : keys()) {
-                map.put(key, this.get(key).copy().getObject()); // recursion
-            }
-            result.object = map;
-        } else if (isList()) {
-            final ArrayList<Object> list = new ArrayList<>(size());
-            for (final JsonValue element : this) {
-                list.add(element.copy().getObject()); // recursion
-            }
-            result.object = list;
-        }
-        return result;
+        return new JsonValue(deepCopy(object, false), pointer);
+    }
+
+    /**
+     * Returns a copy of this JSON value which can be modified without affecting
+     * this JSON value, sharing the {@link #isFrozen() frozen} values it contains
+     * rather than copying them.
+     * <p>
+     * If this JSON value is frozen, then only its top-level object or array is
+     * copied, which makes this method much cheaper than {@link #copy()} for
+     * large values. The frozen objects and arrays it contains are replaced by
+     * mutable shallow copies the first time they are read, whether through the
+     * {@link #get(String) get}, {@link #put(JsonPointer, Object) put},
+     * {@link #remove(JsonPointer) remove} or {@link #iterator() iterator}
+     * methods, or through the maps and lists returned by {@link #getObject()},
+     * {@link #asMap()} and {@link #asList()}, so that only the paths which are
+     * accessed are ever copied. Frozen values placed in other mutable maps or
+     * lists are never replaced, and remain immutable.
+     * <p>
+     * Since accessing a frozen member of a mutable copy replaces it, mutable
+     * copies containing frozen values must not be accessed concurrently: freeze
+     * them instead.
+     *
+     * @return a copy of this JSON value which can be modified.
+     * @see #freeze()
+     */
+    public JsonValue mutableCopy() {
+        return new JsonValue(isFrozenContainer(object) ? thaw(object) : deepCopy(object, true), pointer);
+    }
+
+    /**
+     * Returns a frozen copy of this JSON value, whose objects and arrays are
+     * immutable. Frozen values can be shared by several threads, and placed in
+     * other JSON values, without being copied. Use {@link #mutableCopy()} in
+     * order to obtain a copy of a frozen value which can be modified.
+     * <p>
+     * Freezing a JSON value copies it, except for the values it contains which
+     * are already frozen: freezing a modified {@link #mutableCopy() mutable
+     * copy} of a frozen value only copies the paths which have been accessed
+     * through the mutable copy, the other ones being shared with the original
+     * frozen value. Freezing a value which is already frozen does not copy it.
+     * <p>
+     * Values other than objects, arrays, strings, numbers, booleans and
+     * {@code null} are shared by the frozen copy, as they are by {@link #copy()}.
+     *
+     * @return a frozen copy of this JSON value.
+     */
+    public JsonValue freeze() {
+        return new JsonValue(frozen(object), pointer);
+    }
+
+    /**
+     * Returns {@code true} if this JSON value is {@code null}, a string, a
+     * number, a boolean, or an object or array which has been
+     * {@link #freeze() frozen}.
+     *
+     * @return {@code true} if this JSON value cannot be modified.
+     */
+    public boolean isFrozen() {
+        return object == null || object instanceof String || object instanceof Number
+                || object instanceof Boolean || isFrozenContainer(object);
     }
 
     /**
@@ -821,7 +886,8 @@ public class JsonValue implements Cloneable, Iterable<JsonValue> {
     public JsonValue get(final String key) {
         Object result = null;
         if (isMap()) {
-            result = asMap().get(key);
+            final Map<String, Object> map = asMap();
+            result = map.get(key);
         } else if (isList()) {
             final List<Object> list = asList();
             final int index = toIndex(key);
@@ -1413,6 +1479,81 @@ public class JsonValue implements Cloneable, Iterable<JsonValue> {
         return jv;
     }
 
+    /**
+     * Returns a deep copy of the provided object, sharing its frozen objects
+     * and arrays if {@code shareFrozen} is {@code true}.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object deepCopy(final Object object, final boolean shareFrozen) {
+        final Object value = unwrap(object);
+        if (shareFrozen && isFrozenContainer(value)) {
+            return value;
+        } else if (value instanceof Map) {
+            final Map<String, Object> map = (Map<String, Object>) value;
+            final Map<String, Object> copy = shareFrozen ? new ThawedMap(map.size()) : object(map.size());
+            for (final Map.Entry<String, Object> entry : entriesOf(map)) {
+                copy.put(entry.getKey(), deepCopy(entry.getValue(), shareFrozen)); // recursion
+            }
+            return copy;
+        } else if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            final List<Object> copy = shareFrozen ? new ThawedList(list.size()) : new ArrayList<>(list.size());
+            for (final Object element : elementsOf(list)) {
+                copy.add(deepCopy(element, shareFrozen)); // recursion
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /** Returns an immutable copy of the provided object, sharing its frozen objects and arrays. */
+    @SuppressWarnings("unchecked")
+    private static Object frozen(final Object object) {
+        final Object value = unwrap(object);
+        if (isFrozenContainer(value)) {
+            return value;
+        } else if (value instanceof Map) {
+            final Map<String, Object> map = (Map<String, Object>) value;
+            final Map<String, Object> copy = object(map.size());
+            for (final Map.Entry<String, Object> entry : entriesOf(map)) {
+                copy.put(entry.getKey(), frozen(entry.getValue())); // recursion
+            }
+            return new FrozenMap(copy);
+        } else if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            final Object[] copy = new Object[list.size()];
+            int i = 0;
+            for (final Object element : elementsOf(list)) {
+                copy[i++] = frozen(element); // recursion
+            }
+            return new FrozenList(copy);
+        }
+        return value;
+    }
+
+    /** Returns a mutable shallow copy of the provided frozen object or array. */
+    private static Object thaw(final Object frozen) {
+        if (frozen instanceof FrozenMap) {
+            return new ThawedMap(((FrozenMap) frozen).map);
+        } else {
+            return new ThawedList(((FrozenList) frozen).elements);
+        }
+    }
+
+    /** Returns the entries of the provided map, without thawing the frozen values it contains. */
+    private static Collection<Map.Entry<String, Object>> entriesOf(final Map<String, Object> map) {
+        return map instanceof ThawedMap ? ((ThawedMap) map).frozenEntrySet() : map.entrySet();
+    }
+
+    /** Returns the elements of the provided list, without thawing the frozen values it contains. */
+    private static Collection<Object> elementsOf(final List<Object> list) {
+        return list instanceof ThawedList ? ((ThawedList) list).frozenElements() : list;
+    }
+
+    private static boolean isFrozenContainer(final Object object) {
+        return object instanceof FrozenMap || object instanceof FrozenList;
+    }
+
     private void putToken(final String token, final Object object) {
         if (isEndOfListToken(token) && isList()) {
             add(object);
@@ -1461,4 +1602,287 @@ public class JsonValue implements Cloneable, Iterable<JsonValue> {
     public void patch(JsonValue patch) {
         JsonPatch.patch(this, patch);
     }
+
+    /** A frozen JSON object, which is never modified once constructed. */
+    private static final class FrozenMap extends AbstractMap<String, Object> {
+        private final Map<String, Object> map;
+        private final Map<String, Object> view;
+
+        private FrozenMap(final Map<String, Object> map) {
+            this.map = map;
+            this.view = Collections.unmodifiableMap(map);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public Object get(final Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return view.keySet();
+        }
+
+        @Override
+        public Collection<Object> values() {
+            return view.values();
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return view.entrySet();
+        }
+    }
+
+    /**
+     * A mutable JSON object which may contain frozen values, such as a mutable copy of a frozen JSON object. Its
+     * frozen values are replaced by mutable shallow copies when they are read, so that they can be modified through
+     * the map as they would be through a JSON value.
+     */
+    private static final class ThawedMap extends LinkedHashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private ThawedMap(final int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        private ThawedMap(final Map<String, Object> map) {
+            super(map);
+        }
+
+        @Override
+        public Object get(final Object key) {
+            final Object value = super.get(key);
+            if (isFrozenContainer(value)) {
+                final Object thawed = thaw(value);
+                super.put((String) key, thawed);
+                return thawed;
+            }
+            return value;
+        }
+
+        @Override
+        public Object getOrDefault(final Object key, final Object defaultValue) {
+            return containsKey(key) ? get(key) : defaultValue;
+        }
+
+        @Override
+        public Collection<Object> values() {
+            thawValues();
+            return super.values();
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            thawValues();
+            return super.entrySet();
+        }
+
+        @Override
+        public void forEach(final BiConsumer<? super String, ? super Object> action) {
+            thawValues();
+            super.forEach(action);
+        }
+
+        @Override
+        public void replaceAll(final BiFunction<? super String, ? super Object, ?> function) {
+            thawValues();
+            super.replaceAll(function);
+        }
+
+        @Override
+        public Object compute(final String key,
+                final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+            get(key);
+            return super.compute(key, remappingFunction);
+        }
+
+        @Override
+        public Object computeIfPresent(final String key,
+                final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+            get(key);
+            return super.computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public Object computeIfAbsent(final String key,
+                final java.util.function.Function<? super String, ?> mappingFunction) {
+            get(key);
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public Object merge(final String key, final Object value,
+                final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            get(key);
+            return super.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            return object == this || frozenView().equals(object);
+        }
+
+        @Override
+        public int hashCode() {
+            return frozenView().hashCode();
+        }
+
+        private Set<Map.Entry<String, Object>> frozenEntrySet() {
+            return super.entrySet();
+        }
+
+        /** Returns a view of this map which does not thaw its values, for comparisons. */
+        private Map<String, Object> frozenView() {
+            return new AbstractMap<String, Object>() {
+                @Override
+                public Set<Map.Entry<String, Object>> entrySet() {
+                    return frozenEntrySet();
+                }
+            };
+        }
+
+        private void thawValues() {
+            for (final Map.Entry<String, Object> entry : super.entrySet()) {
+                if (isFrozenContainer(entry.getValue())) {
+                    entry.setValue(thaw(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * A mutable JSON array which may contain frozen values, such as a mutable copy of a frozen JSON array. Its frozen
+     * elements are replaced by mutable shallow copies when they are read, so that they can be modified through the
+     * list as they would be through a JSON value.
+     */
+    private static final class ThawedList extends ArrayList<Object> {
+        private static final long serialVersionUID = 1L;
+
+        private ThawedList(final int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        private ThawedList(final Object[] elements) {
+            super(Arrays.asList(elements));
+        }
+
+        @Override
+        public Object get(final int index) {
+            final Object element = super.get(index);
+            if (isFrozenContainer(element)) {
+                final Object thawed = thaw(element);
+                super.set(index, thawed);
+                return thawed;
+            }
+            return element;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            thawElements();
+            return super.iterator();
+        }
+
+        @Override
+        public ListIterator<Object> listIterator() {
+            thawElements();
+            return super.listIterator();
+        }
+
+        @Override
+        public ListIterator<Object> listIterator(final int index) {
+            thawElements();
+            return super.listIterator(index);
+        }
+
+        @Override
+        public List<Object> subList(final int fromIndex, final int toIndex) {
+            thawElements();
+            return super.subList(fromIndex, toIndex);
+        }
+
+        @Override
+        public Spliterator<Object> spliterator() {
+            thawElements();
+            return super.spliterator();
+        }
+
+        @Override
+        public Object[] toArray() {
+            thawElements();
+            return super.toArray();
+        }
+
+        @Override
+        public <T> T[] toArray(final T[] a) {
+            thawElements();
+            return super.toArray(a);
+        }
+
+        @Override
+        public void forEach(final Consumer<? super Object> action) {
+            thawElements();
+            super.forEach(action);
+        }
+
+        @Override
+        public boolean removeIf(final Predicate<? super Object> filter) {
+            thawElements();
+            return super.removeIf(filter);
+        }
+
+        @Override
+        public void replaceAll(final UnaryOperator<Object> operator) {
+            thawElements();
+            super.replaceAll(operator);
+        }
+
+        private List<Object> frozenElements() {
+            return Arrays.asList(super.toArray());
+        }
+
+        private void thawElements() {
+            for (int i = 0; i < size(); i++) {
+                final Object element = super.get(i);
+                if (isFrozenContainer(element)) {
+                    super.set(i, thaw(element));
+                }
+            }
+        }
+    }
+
+    /** A frozen JSON array, which is never modified once constructed. */
+    private static final class FrozenList extends AbstractList<Object> implements RandomAccess {
+        private final Object[] elements;
+
+        private FrozenList(final Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Object get(final int index) {
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
 }
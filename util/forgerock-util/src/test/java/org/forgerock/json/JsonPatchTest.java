@@ -12,13 +12,21 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonPatch.OPTION_ARRAY_DIFF;
 import static org.forgerock.json.JsonValue.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.forgerock.json.JsonPatch.ArrayDiff;
+import org.forgerock.util.Options;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -262,6 +270,115 @@ public class JsonPatchTest {
         assertThat(JsonPatch.isEqual(v1, v2)).isTrue();
     }
 
+    @Test
+    public void orderedListDiffAddsAndRemovesAtIndexes() {
+        v1 = json(object(field("members", array("a", "b", "c", "d", "e"))));
+        v2 = json(object(field("members", array("a", "c", "d", "x", "e", "f"))));
+
+        diff = JsonPatch.diff(v1, v2, ordered());
+
+        assertThat(diff.getObject()).isEqualTo(array(
+                object(field("op", "remove"), field("path", "/members/1")),
+                object(field("op", "add"), field("path", "/members/3"), field("value", "x")),
+                object(field("op", "add"), field("path", "/members/5"), field("value", "f"))));
+        JsonPatch.patch(v1, diff);
+        assertThat(JsonPatch.isEqual(v1, v2)).isTrue();
+    }
+
+    @Test
+    public void orderedListDiffComparesReplacedElements() {
+        v1 = json(array(object(field("id", 1), field("name", "a")), object(field("id", 2), field("name", "b"))));
+        v2 = json(array(object(field("id", 1), field("name", "a")), object(field("id", 2), field("name", "c")), 3));
+
+        diff = JsonPatch.diff(v1, v2, ordered());
+
+        assertThat(diff.getObject()).isEqualTo(array(
+                object(field("op", "replace"), field("path", "/1/name"), field("value", "c")),
+                object(field("op", "add"), field("path", "/2"), field("value", 3))));
+        JsonPatch.patch(v1, diff);
+        assertThat(JsonPatch.isEqual(v1, v2)).isTrue();
+    }
+
+    @Test
+    public void orderedListDiffOfLargeArraysIsMinimal() {
+        Random random = new Random(42);
+        List<Object> original = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            original.add("member" + i);
+        }
+        List<Object> target = new ArrayList<>(original);
+        for (int i = 0; i < 50; i++) {
+            target.remove(random.nextInt(target.size()));
+            target.add(random.nextInt(target.size()), "new" + i);
+        }
+        v1 = json(object(field("members", original)));
+        v2 = json(object(field("members", target)));
+
+        diff = JsonPatch.diff(v1, v2, ordered());
+
+        assertThat(diff.size()).isLessThanOrEqualTo(100);
+        JsonPatch.patch(v1, diff);
+        assertThat(JsonPatch.isEqual(v1, v2)).isTrue();
+    }
+
+    @Test
+    public void orderedListDiffReplacesArraysWithTooManyDifferences() {
+        List<Object> original = new ArrayList<>();
+        List<Object> target = new ArrayList<>();
+        for (int i = 0; i < JsonPatch.MAX_EDIT_DISTANCE; i++) {
+            original.add("a" + i);
+            target.add("b" + i);
+        }
+        v1 = json(original);
+        v2 = json(target);
+
+        diff = JsonPatch.diff(v1, v2, ordered());
+
+        assertThat(diff.getObject()).isEqualTo(array(object(field("op", "replace"), field("path", "/"),
+                field("value", target))));
+    }
+
+    @Test
+    public void unorderedListDiffIgnoresOrder() {
+        v1 = json(object(field("roles", array("a", "b", "c", "a"))));
+        v2 = json(object(field("roles", array("c", "a", "d", "a", "e"))));
+        Options unordered = Options.defaultOptions().set(OPTION_ARRAY_DIFF, ArrayDiff.UNORDERED);
+
+        diff = JsonPatch.diff(v1, v2, unordered);
+
+        assertThat(diff.getObject()).isEqualTo(array(
+                object(field("op", "remove"), field("path", "/roles/1")),
+                object(field("op", "add"), field("path", "/roles/3"), field("value", "d")),
+                object(field("op", "add"), field("path", "/roles/4"), field("value", "e"))));
+        JsonPatch.patch(v1, diff);
+        assertThat(v1.get("roles").asList()).containsExactlyInAnyOrder("c", "a", "d", "a", "e");
+        assertThat(JsonPatch.diff(v1, v2, unordered).size()).isEqualTo(0);
+    }
+
+    @Test
+    public void defaultListDiffReplacesArrays() {
+        v1 = json(array("a", "b", "c"));
+        v2 = json(array("a", "c"));
+
+        assertThat(JsonPatch.diff(v1, v2, Options.defaultOptions()).getObject())
+                .isEqualTo(JsonPatch.diff(v1, v2).getObject())
+                .isEqualTo(array(object(field("op", "replace"), field("path", "/"), field("value", array("a", "c")))));
+    }
+
+    @Test
+    public void diffOfSharedValuesIsEmpty() {
+        JsonValue shared = json(object(field("a", array(1, 2)))).freeze();
+        v1 = json(object(field("x", shared), field("y", 1)));
+        v2 = json(object(field("x", shared), field("y", 2)));
+
+        assertThat(JsonPatch.diff(v1, v2, ordered()).getObject())
+                .isEqualTo(array(object(field("op", "replace"), field("path", "/y"), field("value", 2))));
+    }
+
+    private static Options ordered() {
+        return Options.defaultOptions().set(OPTION_ARRAY_DIFF, ArrayDiff.ORDERED);
+    }
+
     @Test
     public void differentTypesNotEqual() {
         v1 = json(array("a", "b", "c"));
@@ -13,6 +13,7 @@
  *
  * Copyright © 2010–2011 ApexIdentity Inc. All rights reserved.
  * Portions Copyrighted 2011-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json;
@@ -728,6 +729,157 @@ public class JsonValueTest {
         json(new LocalizableString("fred")).isEqualTo(json("fred"));
     }
 
+    @Test
+    public void shouldFreezeValues() {
+        JsonValue frozen = json(object(field("a", object(field("b", array(1, 2)))), field("c", "d"))).freeze();
+
+        assertThat(frozen.isFrozen()).isTrue();
+        assertThat(frozen.get("a").isFrozen()).isTrue();
+        assertThat(frozen.get(ptr("/a/b")).isFrozen()).isTrue();
+        assertThat(frozen.get(ptr("/a/b/1")).asInteger()).isEqualTo(2);
+        assertThat(frozen.isEqualTo(json(object(field("a", object(field("b", array(1, 2)))), field("c", "d")))))
+                .isTrue();
+        assertThat(frozen.getObject()).isEqualTo(object(field("a", object(field("b", array(1, 2)))), field("c", "d")));
+        assertThat(frozen.toString()).isEqualTo("{ \"a\": { \"b\": [ 1, 2 ] }, \"c\": \"d\" }");
+        assertThat(json(object()).isFrozen()).isFalse();
+        assertThat(json("a").isFrozen()).isTrue();
+    }
+
+    @Test
+    public void shouldNotChangeFrozenValueWhenOriginalChanges() {
+        JsonValue value = json(object(field("a", object(field("b", "c")))));
+        JsonValue frozen = value.freeze();
+
+        value.put(ptr("/a/b"), "changed");
+
+        assertThat(frozen.get(ptr("/a/b")).asString()).isEqualTo("c");
+    }
+
+    @Test
+    public void shouldNotModifyFrozenValues() {
+        JsonValue frozen = json(object(field("a", object(field("b", array(1)))))).freeze();
+        for (Runnable modification : Arrays.<Runnable>asList(
+                () -> frozen.put("a", "b"),
+                () -> frozen.put(ptr("/a/b"), "c"),
+                () -> frozen.get(ptr("/a/b")).add(2),
+                () -> frozen.remove("a"),
+                () -> frozen.keys().clear(),
+                () -> frozen.asMap().entrySet().iterator().next().setValue("b"))) {
+            try {
+                modification.run();
+                failBecauseExceptionWasNotThrown(UnsupportedOperationException.class);
+            } catch (UnsupportedOperationException expected) {
+                // Expected.
+            }
+        }
+        assertThat(frozen.getObject()).isEqualTo(object(field("a", object(field("b", array(1))))));
+    }
+
+    @Test
+    public void shouldNotCopyFrozenValuesTwice() {
+        JsonValue frozen = json(object(field("a", object(field("b", "c"))))).freeze();
+
+        assertThat(frozen.freeze().getObject()).isSameAs(frozen.getObject());
+        assertThat(json(object(field("x", frozen))).freeze().get("x").getObject()).isSameAs(frozen.getObject());
+    }
+
+    @Test
+    public void shouldCopyOnlyTheAccessedPathsOfMutableCopies() {
+        JsonValue frozen = json(object(field("a", object(field("b", "c"))), field("d", object(field("e", "f")))))
+                .freeze();
+
+        JsonValue copy = frozen.mutableCopy();
+        copy.put(ptr("/a/b"), "changed");
+        copy.put("g", "h");
+
+        assertThat(copy.isFrozen()).isFalse();
+        assertThat(copy.getObject()).isEqualTo(object(field("a", object(field("b", "changed"))),
+                field("d", object(field("e", "f"))), field("g", "h")));
+        assertThat(frozen.getObject()).isEqualTo(object(field("a", object(field("b", "c"))),
+                field("d", object(field("e", "f")))));
+        assertThat(copy.freeze().asMap().get("d")).isSameAs(frozen.asMap().get("d"));
+    }
+
+    @Test
+    public void shouldModifyNestedValuesOfMutableCopies() {
+        JsonValue frozen = json(object(field("a", array(object(field("b", "c")), array(1))))).freeze();
+
+        JsonValue copy = frozen.mutableCopy();
+        copy.get("a").get(0).put("b", "changed");
+        for (JsonValue element : copy.get("a")) {
+            if (element.isList()) {
+                element.add(2);
+            }
+        }
+        copy.putPermissive(ptr("/x/y"), "z");
+        copy.remove(ptr("/a/0/b"));
+
+        assertThat(copy.getObject()).isEqualTo(object(field("a", array(object(), array(1, 2))),
+                field("x", object(field("y", "z")))));
+        assertThat(frozen.getObject()).isEqualTo(object(field("a", array(object(field("b", "c")), array(1)))));
+    }
+
+    @Test
+    public void shouldShareFrozenValuesInMutableCopiesOfMutableValues() {
+        JsonValue frozen = json(object(field("b", "c"))).freeze();
+        JsonValue value = json(object(field("a", frozen), field("d", object(field("e", "f")))));
+
+        JsonValue copy = value.mutableCopy();
+        copy.put(ptr("/d/e"), "changed");
+
+        assertThat(value.get(ptr("/d/e")).asString()).isEqualTo("f");
+        assertThat(copy.freeze().asMap().get("a")).isSameAs(frozen.getObject());
+    }
+
+    @Test
+    public void shouldNotReplaceFrozenValuesReadFromOtherMaps() {
+        JsonValue frozen = json(object(field("b", "c"))).freeze();
+        Map<String, Object> map = Collections.unmodifiableMap(object(field("a", frozen.getObject())));
+        JsonValue value = json(map);
+
+        JsonValue child = value.get("a");
+
+        assertThat(child.isFrozen()).isTrue();
+        assertThat(child.getObject()).isSameAs(frozen.getObject());
+        assertThat(value.get(ptr("/a/b")).asString()).isEqualTo("c");
+        assertThat(json(Collections.unmodifiableList(array(frozen.getObject()))).get(0).getObject())
+                .isSameAs(frozen.getObject());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldModifyNestedValuesOfMutableCopiesThroughRawObjects() {
+        JsonValue frozen = json(object(field("a", object(field("b", "c"))), field("d", array(array(1))),
+                field("e", object(field("f", object(field("g", "h"))))))).freeze();
+
+        JsonValue copy = frozen.mutableCopy();
+        ((Map<String, Object>) copy.asMap().get("a")).put("b", "changed");
+        ((List<Object>) ((List<Object>) ((Map<String, Object>) copy.getObject()).get("d")).get(0)).add(2);
+        for (Map.Entry<String, Object> entry : copy.asMap().entrySet()) {
+            if (entry.getKey().equals("e")) {
+                ((Map<String, Object>) ((Map<String, Object>) entry.getValue()).get("f")).put("g", "changed");
+            }
+        }
+
+        assertThat(copy.getObject()).isEqualTo(object(field("a", object(field("b", "changed"))),
+                field("d", array(array(1, 2))), field("e", object(field("f", object(field("g", "changed")))))));
+        assertThat(frozen.getObject()).isEqualTo(object(field("a", object(field("b", "c"))),
+                field("d", array(array(1))), field("e", object(field("f", object(field("g", "h")))))));
+    }
+
+    @Test
+    public void shouldDeepCopyFrozenValues() {
+        JsonValue frozen = json(object(field("a", object(field("b", "c"))))).freeze();
+
+        JsonValue copy = frozen.copy();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> nested = (Map<String, Object>) copy.asMap().get("a");
+        nested.put("b", "changed");
+
+        assertThat(copy.get(ptr("/a/b")).asString()).isEqualTo("changed");
+        assertThat(frozen.get(ptr("/a/b")).asString()).isEqualTo("c");
+    }
+
     private JsonPointer ptr(final String pointer) {
         return new JsonPointer(pointer);
     }